@@ -8,9 +8,12 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt;
 
+import java.util.concurrent.Future;
+
 import cern.colt.function.tint.IntComparator;
 import cern.colt.list.tdouble.DoubleArrayList;
 import cern.colt.list.tint.IntArrayList;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Given some interval boundaries, partitions arrays such that all elements
@@ -49,6 +52,8 @@ public class Partitioning extends Object {
 
     private static final int MEDIUM = 40;
 
+    private static final int SELECT_SAMPLE = 600;
+
     // benchmark only
     protected static int steps = 0;
 
@@ -1364,4 +1369,656 @@ public class Partitioning extends Object {
 
         return from - 1;
     }
+
+    /**
+     * Rearranges the given list such that <tt>list[k]</tt> holds the element
+     * that would be at that position if <tt>list[from..to]</tt> were sorted
+     * ascending, all elements of <tt>list[from..k-1]</tt> are less than or
+     * equal to it, and all elements of <tt>list[k+1..to]</tt> are greater than
+     * or equal to it (<i>nth_element</i>). NaN values are treated as greater
+     * than all other values.
+     * <p>
+     * <b>Performance:</b>
+     * <p>
+     * Uses the Floyd-Rivest algorithm, which narrows the range around
+     * <tt>k</tt> by recursively selecting from a small sample before
+     * partitioning. Expected time is <tt>O( N )</tt> with about
+     * <tt>N + min(k-from, to-k)</tt> comparisons. Like <i>introselect</i>, the
+     * remaining range is sorted should partitioning fail to make progress,
+     * which bounds the worst case by <tt>O( N * log(N) )</tt>. No temporary
+     * memory is allocated; selection is in-place.
+     *
+     * @param list
+     *            the list to be rearranged.
+     * @param from
+     *            the index of the first element (inclusive).
+     * @param to
+     *            the index of the last element (inclusive).
+     * @param k
+     *            the index of the element to select.
+     * @return <tt>list[k]</tt> upon return.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>k &lt; from || k &gt; to</tt>.
+     */
+    public static double select(double[] list, int from, int to, int k) {
+        if (k < from || k > to)
+            throw new IndexOutOfBoundsException("k=" + k + ", from=" + from + ", to=" + to);
+        int last = to;
+        for (int i = to; i >= from; i--) {
+            if (list[i] != list[i]) { // move NaNs to the end
+                list[i] = list[last];
+                list[last--] = Double.NaN;
+            }
+        }
+        if (k > last)
+            return list[k];
+        floydRivest(list, from, last, k, 2 * (32 - Integer.numberOfLeadingZeros(last - from + 1)));
+        return list[k];
+    }
+
+    /**
+     * Returns the element that would be at index <tt>k</tt> if
+     * <tt>list[from..to]</tt> were sorted ascending. NaN values are treated as
+     * greater than all other values.
+     * <p>
+     * Same as {@link #select(double[],int,int,int)} except that large lists are
+     * narrowed down concurrently: a regular sample of the list is sorted and
+     * two sample elements bracketing the rank of <tt>k</tt> are taken as
+     * bounds. The threads count the elements below and between the bounds and
+     * copy the latter into a small candidate array, on which the sequential
+     * algorithm is run. Should the bounds miss the rank of <tt>k</tt>, the
+     * whole list is searched sequentially. The order of the elements in
+     * <tt>list</tt> is unspecified upon return.
+     *
+     * @param list
+     *            the list to be searched.
+     * @param from
+     *            the index of the first element (inclusive).
+     * @param to
+     *            the index of the last element (inclusive).
+     * @param k
+     *            the index of the element to select.
+     * @return the element of rank <tt>k-from</tt>.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>k &lt; from || k &gt; to</tt>.
+     */
+    public static double parallelSelect(final double[] list, int from, int to, int k) {
+        if (k < from || k > to)
+            throw new IndexOutOfBoundsException("k=" + k + ", from=" + from + ", to=" + to);
+        int n = to - from + 1;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads <= 1) || (n < ConcurrencyUtils.getThreadsBeginN_1D()) || (n <= SELECT_SAMPLE)) {
+            return select(list, from, to, k);
+        }
+        // bracket the rank of k by two elements of a sorted regular sample
+        int s = Math.min(n, Math.max(SELECT_SAMPLE, (int) Math.pow(n, 2.0 / 3.0)));
+        double[] sample = new double[s];
+        for (int i = 0; i < s; i++) {
+            sample[i] = list[from + (int) ((long) i * n / s)];
+        }
+        java.util.Arrays.sort(sample);
+        int rank = k - from;
+        int pos = (int) ((long) rank * s / n);
+        int gap = (int) Math.sqrt(s * Math.log(n)) + 1;
+        final double low = sample[Math.max(0, pos - gap)];
+        final double high = sample[Math.min(s - 1, pos + gap)];
+        if (high != high) {
+            return select(list, from, to, k);
+        }
+        Future<?>[] futures = new Future[nthreads];
+        final int[] below = new int[nthreads];
+        final int[] between = new int[nthreads];
+        int chunk = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = from + j * chunk;
+            final int lastIdx = (j == nthreads - 1) ? to + 1 : firstIdx + chunk;
+            final int thread = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    int nbelow = 0;
+                    int nbetween = 0;
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        double elem = list[i];
+                        if (elem < low) {
+                            nbelow++;
+                        } else if (elem <= high) {
+                            nbetween++;
+                        }
+                    }
+                    below[thread] = nbelow;
+                    between[thread] = nbetween;
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        int nbelow = 0;
+        int ncandidates = 0;
+        final int[] offsets = new int[nthreads];
+        for (int j = 0; j < nthreads; j++) {
+            offsets[j] = ncandidates;
+            nbelow += below[j];
+            ncandidates += between[j];
+        }
+        if (rank < nbelow || rank >= nbelow + ncandidates) {
+            return select(list, from, to, k);
+        }
+        final double[] candidates = new double[ncandidates];
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = from + j * chunk;
+            final int lastIdx = (j == nthreads - 1) ? to + 1 : firstIdx + chunk;
+            final int thread = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    int idx = offsets[thread];
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        double elem = list[i];
+                        if (elem >= low && elem <= high) {
+                            candidates[idx++] = elem;
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return select(candidates, 0, ncandidates - 1, rank - nbelow);
+    }
+
+    /**
+     * Same as {@link #select(double[],int,int,int)} except that it selects
+     * from <tt>float[]</tt> rather than <tt>double[]</tt> arrays.
+     */
+    public static float select(float[] list, int from, int to, int k) {
+        if (k < from || k > to)
+            throw new IndexOutOfBoundsException("k=" + k + ", from=" + from + ", to=" + to);
+        int last = to;
+        for (int i = to; i >= from; i--) {
+            if (list[i] != list[i]) { // move NaNs to the end
+                list[i] = list[last];
+                list[last--] = Float.NaN;
+            }
+        }
+        if (k > last)
+            return list[k];
+        floydRivest(list, from, last, k, 2 * (32 - Integer.numberOfLeadingZeros(last - from + 1)));
+        return list[k];
+    }
+
+    /**
+     * Same as {@link #parallelSelect(double[],int,int,int)} except that it
+     * selects from <tt>float[]</tt> rather than <tt>double[]</tt> arrays.
+     */
+    public static float parallelSelect(final float[] list, int from, int to, int k) {
+        if (k < from || k > to)
+            throw new IndexOutOfBoundsException("k=" + k + ", from=" + from + ", to=" + to);
+        int n = to - from + 1;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads <= 1) || (n < ConcurrencyUtils.getThreadsBeginN_1D()) || (n <= SELECT_SAMPLE)) {
+            return select(list, from, to, k);
+        }
+        // bracket the rank of k by two elements of a sorted regular sample
+        int s = Math.min(n, Math.max(SELECT_SAMPLE, (int) Math.pow(n, 2.0 / 3.0)));
+        float[] sample = new float[s];
+        for (int i = 0; i < s; i++) {
+            sample[i] = list[from + (int) ((long) i * n / s)];
+        }
+        java.util.Arrays.sort(sample);
+        int rank = k - from;
+        int pos = (int) ((long) rank * s / n);
+        int gap = (int) Math.sqrt(s * Math.log(n)) + 1;
+        final float low = sample[Math.max(0, pos - gap)];
+        final float high = sample[Math.min(s - 1, pos + gap)];
+        if (high != high) {
+            return select(list, from, to, k);
+        }
+        Future<?>[] futures = new Future[nthreads];
+        final int[] below = new int[nthreads];
+        final int[] between = new int[nthreads];
+        int chunk = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = from + j * chunk;
+            final int lastIdx = (j == nthreads - 1) ? to + 1 : firstIdx + chunk;
+            final int thread = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    int nbelow = 0;
+                    int nbetween = 0;
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        float elem = list[i];
+                        if (elem < low) {
+                            nbelow++;
+                        } else if (elem <= high) {
+                            nbetween++;
+                        }
+                    }
+                    below[thread] = nbelow;
+                    between[thread] = nbetween;
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        int nbelow = 0;
+        int ncandidates = 0;
+        final int[] offsets = new int[nthreads];
+        for (int j = 0; j < nthreads; j++) {
+            offsets[j] = ncandidates;
+            nbelow += below[j];
+            ncandidates += between[j];
+        }
+        if (rank < nbelow || rank >= nbelow + ncandidates) {
+            return select(list, from, to, k);
+        }
+        final float[] candidates = new float[ncandidates];
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = from + j * chunk;
+            final int lastIdx = (j == nthreads - 1) ? to + 1 : firstIdx + chunk;
+            final int thread = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    int idx = offsets[thread];
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        float elem = list[i];
+                        if (elem >= low && elem <= high) {
+                            candidates[idx++] = elem;
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return select(candidates, 0, ncandidates - 1, rank - nbelow);
+    }
+
+    /**
+     * Same as {@link #select(double[],int,int,int)} except that it selects
+     * from <tt>int[]</tt> rather than <tt>double[]</tt> arrays.
+     */
+    public static int select(int[] list, int from, int to, int k) {
+        if (k < from || k > to)
+            throw new IndexOutOfBoundsException("k=" + k + ", from=" + from + ", to=" + to);
+        floydRivest(list, from, to, k, 2 * (32 - Integer.numberOfLeadingZeros(to - from + 1)));
+        return list[k];
+    }
+
+    /**
+     * Same as {@link #parallelSelect(double[],int,int,int)} except that it
+     * selects from <tt>int[]</tt> rather than <tt>double[]</tt> arrays.
+     */
+    public static int parallelSelect(final int[] list, int from, int to, int k) {
+        if (k < from || k > to)
+            throw new IndexOutOfBoundsException("k=" + k + ", from=" + from + ", to=" + to);
+        int n = to - from + 1;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads <= 1) || (n < ConcurrencyUtils.getThreadsBeginN_1D()) || (n <= SELECT_SAMPLE)) {
+            return select(list, from, to, k);
+        }
+        // bracket the rank of k by two elements of a sorted regular sample
+        int s = Math.min(n, Math.max(SELECT_SAMPLE, (int) Math.pow(n, 2.0 / 3.0)));
+        int[] sample = new int[s];
+        for (int i = 0; i < s; i++) {
+            sample[i] = list[from + (int) ((long) i * n / s)];
+        }
+        java.util.Arrays.sort(sample);
+        int rank = k - from;
+        int pos = (int) ((long) rank * s / n);
+        int gap = (int) Math.sqrt(s * Math.log(n)) + 1;
+        final int low = sample[Math.max(0, pos - gap)];
+        final int high = sample[Math.min(s - 1, pos + gap)];
+        Future<?>[] futures = new Future[nthreads];
+        final int[] below = new int[nthreads];
+        final int[] between = new int[nthreads];
+        int chunk = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = from + j * chunk;
+            final int lastIdx = (j == nthreads - 1) ? to + 1 : firstIdx + chunk;
+            final int thread = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    int nbelow = 0;
+                    int nbetween = 0;
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        int elem = list[i];
+                        if (elem < low) {
+                            nbelow++;
+                        } else if (elem <= high) {
+                            nbetween++;
+                        }
+                    }
+                    below[thread] = nbelow;
+                    between[thread] = nbetween;
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        int nbelow = 0;
+        int ncandidates = 0;
+        final int[] offsets = new int[nthreads];
+        for (int j = 0; j < nthreads; j++) {
+            offsets[j] = ncandidates;
+            nbelow += below[j];
+            ncandidates += between[j];
+        }
+        if (rank < nbelow || rank >= nbelow + ncandidates) {
+            return select(list, from, to, k);
+        }
+        final int[] candidates = new int[ncandidates];
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = from + j * chunk;
+            final int lastIdx = (j == nthreads - 1) ? to + 1 : firstIdx + chunk;
+            final int thread = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    int idx = offsets[thread];
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        int elem = list[i];
+                        if (elem >= low && elem <= high) {
+                            candidates[idx++] = elem;
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return select(candidates, 0, ncandidates - 1, rank - nbelow);
+    }
+
+    /**
+     * Same as {@link #select(double[],int,int,int)} except that it selects
+     * from <tt>long[]</tt> rather than <tt>double[]</tt> arrays.
+     */
+    public static long select(long[] list, int from, int to, int k) {
+        if (k < from || k > to)
+            throw new IndexOutOfBoundsException("k=" + k + ", from=" + from + ", to=" + to);
+        floydRivest(list, from, to, k, 2 * (32 - Integer.numberOfLeadingZeros(to - from + 1)));
+        return list[k];
+    }
+
+    /**
+     * Same as {@link #parallelSelect(double[],int,int,int)} except that it
+     * selects from <tt>long[]</tt> rather than <tt>double[]</tt> arrays.
+     */
+    public static long parallelSelect(final long[] list, int from, int to, int k) {
+        if (k < from || k > to)
+            throw new IndexOutOfBoundsException("k=" + k + ", from=" + from + ", to=" + to);
+        int n = to - from + 1;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads <= 1) || (n < ConcurrencyUtils.getThreadsBeginN_1D()) || (n <= SELECT_SAMPLE)) {
+            return select(list, from, to, k);
+        }
+        // bracket the rank of k by two elements of a sorted regular sample
+        int s = Math.min(n, Math.max(SELECT_SAMPLE, (int) Math.pow(n, 2.0 / 3.0)));
+        long[] sample = new long[s];
+        for (int i = 0; i < s; i++) {
+            sample[i] = list[from + (int) ((long) i * n / s)];
+        }
+        java.util.Arrays.sort(sample);
+        int rank = k - from;
+        int pos = (int) ((long) rank * s / n);
+        int gap = (int) Math.sqrt(s * Math.log(n)) + 1;
+        final long low = sample[Math.max(0, pos - gap)];
+        final long high = sample[Math.min(s - 1, pos + gap)];
+        Future<?>[] futures = new Future[nthreads];
+        final int[] below = new int[nthreads];
+        final int[] between = new int[nthreads];
+        int chunk = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = from + j * chunk;
+            final int lastIdx = (j == nthreads - 1) ? to + 1 : firstIdx + chunk;
+            final int thread = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    int nbelow = 0;
+                    int nbetween = 0;
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        long elem = list[i];
+                        if (elem < low) {
+                            nbelow++;
+                        } else if (elem <= high) {
+                            nbetween++;
+                        }
+                    }
+                    below[thread] = nbelow;
+                    between[thread] = nbetween;
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        int nbelow = 0;
+        int ncandidates = 0;
+        final int[] offsets = new int[nthreads];
+        for (int j = 0; j < nthreads; j++) {
+            offsets[j] = ncandidates;
+            nbelow += below[j];
+            ncandidates += between[j];
+        }
+        if (rank < nbelow || rank >= nbelow + ncandidates) {
+            return select(list, from, to, k);
+        }
+        final long[] candidates = new long[ncandidates];
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = from + j * chunk;
+            final int lastIdx = (j == nthreads - 1) ? to + 1 : firstIdx + chunk;
+            final int thread = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    int idx = offsets[thread];
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        long elem = list[i];
+                        if (elem >= low && elem <= high) {
+                            candidates[idx++] = elem;
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return select(candidates, 0, ncandidates - 1, rank - nbelow);
+    }
+
+    /**
+     * Floyd-Rivest selection of <tt>list[left..right]</tt>, falling back to a
+     * sort once <tt>depth</tt> partitioning rounds are used up.
+     */
+    private static void floydRivest(double[] list, int left, int right, int k, int depth) {
+        while (right > left) {
+            if (--depth < 0) {
+                java.util.Arrays.sort(list, left, right + 1);
+                return;
+            }
+            if (right - left > SELECT_SAMPLE) {
+                // recursively select from a sample to get a tight pivot
+                double n = right - left + 1;
+                double m = k - left + 1;
+                double z = Math.log(n);
+                double s = 0.5 * Math.exp(2 * z / 3);
+                double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * (m < n / 2 ? -1 : 1);
+                int newLeft = Math.max(left, (int) (k - m * s / n + sd));
+                int newRight = Math.min(right, (int) (k + (n - m) * s / n + sd));
+                floydRivest(list, newLeft, newRight, k, depth);
+            }
+            double t = list[k];
+            int i = left;
+            int j = right;
+            swap(list, left, k);
+            if (list[right] > t)
+                swap(list, right, left);
+            while (i < j) {
+                swap(list, i++, j--);
+                while (list[i] < t)
+                    i++;
+                while (list[j] > t)
+                    j--;
+            }
+            if (list[left] == t) {
+                swap(list, left, j);
+            } else {
+                swap(list, ++j, right);
+            }
+            if (j <= k)
+                left = j + 1;
+            if (k <= j)
+                right = j - 1;
+        }
+    }
+
+    private static void swap(double[] list, int a, int b) {
+        double tmp = list[a];
+        list[a] = list[b];
+        list[b] = tmp;
+    }
+
+    /**
+     * Floyd-Rivest selection of <tt>list[left..right]</tt>, falling back to a
+     * sort once <tt>depth</tt> partitioning rounds are used up.
+     */
+    private static void floydRivest(float[] list, int left, int right, int k, int depth) {
+        while (right > left) {
+            if (--depth < 0) {
+                java.util.Arrays.sort(list, left, right + 1);
+                return;
+            }
+            if (right - left > SELECT_SAMPLE) {
+                // recursively select from a sample to get a tight pivot
+                double n = right - left + 1;
+                double m = k - left + 1;
+                double z = Math.log(n);
+                double s = 0.5 * Math.exp(2 * z / 3);
+                double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * (m < n / 2 ? -1 : 1);
+                int newLeft = Math.max(left, (int) (k - m * s / n + sd));
+                int newRight = Math.min(right, (int) (k + (n - m) * s / n + sd));
+                floydRivest(list, newLeft, newRight, k, depth);
+            }
+            float t = list[k];
+            int i = left;
+            int j = right;
+            swap(list, left, k);
+            if (list[right] > t)
+                swap(list, right, left);
+            while (i < j) {
+                swap(list, i++, j--);
+                while (list[i] < t)
+                    i++;
+                while (list[j] > t)
+                    j--;
+            }
+            if (list[left] == t) {
+                swap(list, left, j);
+            } else {
+                swap(list, ++j, right);
+            }
+            if (j <= k)
+                left = j + 1;
+            if (k <= j)
+                right = j - 1;
+        }
+    }
+
+    private static void swap(float[] list, int a, int b) {
+        float tmp = list[a];
+        list[a] = list[b];
+        list[b] = tmp;
+    }
+
+    /**
+     * Floyd-Rivest selection of <tt>list[left..right]</tt>, falling back to a
+     * sort once <tt>depth</tt> partitioning rounds are used up.
+     */
+    private static void floydRivest(int[] list, int left, int right, int k, int depth) {
+        while (right > left) {
+            if (--depth < 0) {
+                java.util.Arrays.sort(list, left, right + 1);
+                return;
+            }
+            if (right - left > SELECT_SAMPLE) {
+                // recursively select from a sample to get a tight pivot
+                double n = right - left + 1;
+                double m = k - left + 1;
+                double z = Math.log(n);
+                double s = 0.5 * Math.exp(2 * z / 3);
+                double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * (m < n / 2 ? -1 : 1);
+                int newLeft = Math.max(left, (int) (k - m * s / n + sd));
+                int newRight = Math.min(right, (int) (k + (n - m) * s / n + sd));
+                floydRivest(list, newLeft, newRight, k, depth);
+            }
+            int t = list[k];
+            int i = left;
+            int j = right;
+            swap(list, left, k);
+            if (list[right] > t)
+                swap(list, right, left);
+            while (i < j) {
+                swap(list, i++, j--);
+                while (list[i] < t)
+                    i++;
+                while (list[j] > t)
+                    j--;
+            }
+            if (list[left] == t) {
+                swap(list, left, j);
+            } else {
+                swap(list, ++j, right);
+            }
+            if (j <= k)
+                left = j + 1;
+            if (k <= j)
+                right = j - 1;
+        }
+    }
+
+    private static void swap(int[] list, int a, int b) {
+        int tmp = list[a];
+        list[a] = list[b];
+        list[b] = tmp;
+    }
+
+    /**
+     * Floyd-Rivest selection of <tt>list[left..right]</tt>, falling back to a
+     * sort once <tt>depth</tt> partitioning rounds are used up.
+     */
+    private static void floydRivest(long[] list, int left, int right, int k, int depth) {
+        while (right > left) {
+            if (--depth < 0) {
+                java.util.Arrays.sort(list, left, right + 1);
+                return;
+            }
+            if (right - left > SELECT_SAMPLE) {
+                // recursively select from a sample to get a tight pivot
+                double n = right - left + 1;
+                double m = k - left + 1;
+                double z = Math.log(n);
+                double s = 0.5 * Math.exp(2 * z / 3);
+                double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * (m < n / 2 ? -1 : 1);
+                int newLeft = Math.max(left, (int) (k - m * s / n + sd));
+                int newRight = Math.min(right, (int) (k + (n - m) * s / n + sd));
+                floydRivest(list, newLeft, newRight, k, depth);
+            }
+            long t = list[k];
+            int i = left;
+            int j = right;
+            swap(list, left, k);
+            if (list[right] > t)
+                swap(list, right, left);
+            while (i < j) {
+                swap(list, i++, j--);
+                while (list[i] < t)
+                    i++;
+                while (list[j] > t)
+                    j--;
+            }
+            if (list[left] == t) {
+                swap(list, left, j);
+            } else {
+                swap(list, ++j, right);
+            }
+            if (j <= k)
+                left = j + 1;
+            if (k <= j)
+                right = j - 1;
+        }
+    }
+
+    private static void swap(long[] list, int a, int b) {
+        long tmp = list[a];
+        list[a] = list[b];
+        list[b] = tmp;
+    }
 }
@@ -9,6 +9,7 @@ It is provided "as is" without expressed or implied warranty.
 package cern.colt;
 
 import java.util.Comparator;
+import java.util.concurrent.Future;
 
 import cern.colt.function.tbyte.ByteComparator;
 import cern.colt.function.tchar.CharComparator;
@@ -44,6 +45,8 @@ public class Sorting extends Object {
 
     private static final int MEDIUM = 40;
 
+    private static final int RADIX = 256;
+
     /**
      * Makes this class non instantiable, but still let's others inherit from
      * it.
@@ -2031,6 +2034,292 @@ public class Sorting extends Object {
         }
     }
 
+    /**
+     * Multithreaded LSD radix sort. Sorts the specified range of the array
+     * into ascending numerical order. The keys are distributed one byte at a
+     * time; in each pass every thread builds a histogram of its own block of
+     * the range, the histograms are combined by a prefix sum and every thread
+     * then scatters its block into a buffer of the same length as the range.
+     * Passes in which all elements share the same byte are skipped. The sort
+     * is stable and runs in linear time.
+     * 
+     * @param a
+     *            the array to be sorted.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; a.length</tt>
+     */
+    public static void parallelRadixSort(int[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        radixSort(a, null, fromIndex, toIndex);
+    }
+
+    /**
+     * Multithreaded LSD radix sort. Sorts the specified range of the array
+     * into ascending numerical order.
+     * 
+     * @param a
+     *            the array to be sorted.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; a.length</tt>
+     * @see #parallelRadixSort(int[],int,int)
+     */
+    public static void parallelRadixSort(long[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        radixSort(a, null, fromIndex, toIndex);
+    }
+
+    /**
+     * Multithreaded LSD radix sort. Sorts the specified range of the array
+     * into ascending numerical order. The values are sorted on their IEEE 754
+     * bit patterns, transformed such that the order of the integer keys is the
+     * order of <tt>Float.compare</tt>: <tt>-0.0f</tt> is placed before
+     * <tt>0.0f</tt> and <tt>NaN</tt> is placed after all other values.
+     * 
+     * @param a
+     *            the array to be sorted.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; a.length</tt>
+     * @see #parallelRadixSort(int[],int,int)
+     */
+    public static void parallelRadixSort(float[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int[] keys = sortableBits(a, fromIndex, toIndex);
+        radixSort(keys, null, 0, keys.length);
+        fromSortableBits(keys, a, fromIndex);
+    }
+
+    /**
+     * Multithreaded LSD radix sort. Sorts the specified range of the array
+     * into ascending numerical order. The values are sorted on their IEEE 754
+     * bit patterns, transformed such that the order of the integer keys is the
+     * order of <tt>Double.compare</tt>: <tt>-0.0</tt> is placed before
+     * <tt>0.0</tt> and <tt>NaN</tt> is placed after all other values.
+     * 
+     * @param a
+     *            the array to be sorted.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; a.length</tt>
+     * @see #parallelRadixSort(int[],int,int)
+     */
+    public static void parallelRadixSort(double[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        long[] keys = sortableBits(a, fromIndex, toIndex);
+        radixSort(keys, null, 0, keys.length);
+        fromSortableBits(keys, a, fromIndex);
+    }
+
+    /**
+     * Multithreaded LSD radix sort of key/value pairs. Sorts the specified
+     * range of <tt>keys</tt> into ascending numerical order and applies the
+     * same permutation to the same range of <tt>values</tt>. The sort is
+     * stable: values with equal keys keep their relative order.
+     * 
+     * @param keys
+     *            the keys to be sorted.
+     * @param values
+     *            the values to be permuted along with the keys.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; keys.length</tt> or
+     *             <tt>toIndex &gt; values.length</tt>
+     * @see #parallelRadixSort(int[],int,int)
+     */
+    public static void parallelRadixSort(int[] keys, double[] values, int fromIndex, int toIndex) {
+        rangeCheck(keys.length, fromIndex, toIndex);
+        rangeCheck(values.length, fromIndex, toIndex);
+        int[] indexes = new int[toIndex - fromIndex];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = fromIndex + i;
+        }
+        int[] copy = new int[indexes.length];
+        System.arraycopy(keys, fromIndex, copy, 0, copy.length);
+        radixSort(copy, indexes, 0, copy.length);
+        System.arraycopy(copy, 0, keys, fromIndex, copy.length);
+        permute(values, indexes, fromIndex);
+    }
+
+    /**
+     * Multithreaded LSD radix sort of key/value pairs. Sorts the specified
+     * range of <tt>keys</tt> into ascending numerical order and applies the
+     * same permutation to the same range of <tt>values</tt>. The sort is
+     * stable: values with equal keys keep their relative order.
+     * 
+     * @param keys
+     *            the keys to be sorted.
+     * @param values
+     *            the values to be permuted along with the keys.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; keys.length</tt> or
+     *             <tt>toIndex &gt; values.length</tt>
+     * @see #parallelRadixSort(double[],int,int)
+     */
+    public static void parallelRadixSort(double[] keys, int[] values, int fromIndex, int toIndex) {
+        rangeCheck(keys.length, fromIndex, toIndex);
+        rangeCheck(values.length, fromIndex, toIndex);
+        long[] bits = sortableBits(keys, fromIndex, toIndex);
+        int[] copy = new int[bits.length];
+        System.arraycopy(values, fromIndex, copy, 0, copy.length);
+        radixSort(bits, copy, 0, bits.length);
+        fromSortableBits(bits, keys, fromIndex);
+        System.arraycopy(copy, 0, values, fromIndex, copy.length);
+    }
+
+    /**
+     * Multithreaded LSD radix argsort. Returns the indexes of the elements of
+     * the specified range in ascending order of their values; the array itself
+     * is not modified. Elements with equal values are returned in increasing
+     * order of their indexes.
+     * 
+     * @param a
+     *            the array to be sorted.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @return an array of length <tt>toIndex-fromIndex</tt> such that
+     *         <tt>a[indexes[i]] &lt;= a[indexes[i+1]]</tt>.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; a.length</tt>
+     * @see #parallelRadixSort(int[],int,int)
+     */
+    public static int[] parallelRadixSortIndexes(int[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int[] keys = new int[toIndex - fromIndex];
+        System.arraycopy(a, fromIndex, keys, 0, keys.length);
+        int[] indexes = identity(fromIndex, keys.length);
+        radixSort(keys, indexes, 0, keys.length);
+        return indexes;
+    }
+
+    /**
+     * Multithreaded LSD radix argsort. Returns the indexes of the elements of
+     * the specified range in ascending order of their values; the array itself
+     * is not modified.
+     * 
+     * @param a
+     *            the array to be sorted.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @return an array of length <tt>toIndex-fromIndex</tt> such that
+     *         <tt>a[indexes[i]] &lt;= a[indexes[i+1]]</tt>.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; a.length</tt>
+     * @see #parallelRadixSortIndexes(int[],int,int)
+     */
+    public static int[] parallelRadixSortIndexes(long[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        long[] keys = new long[toIndex - fromIndex];
+        System.arraycopy(a, fromIndex, keys, 0, keys.length);
+        int[] indexes = identity(fromIndex, keys.length);
+        radixSort(keys, indexes, 0, keys.length);
+        return indexes;
+    }
+
+    /**
+     * Multithreaded LSD radix argsort. Returns the indexes of the elements of
+     * the specified range in the order of <tt>Float.compare</tt>; the array
+     * itself is not modified.
+     * 
+     * @param a
+     *            the array to be sorted.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @return an array of length <tt>toIndex-fromIndex</tt> such that
+     *         <tt>a[indexes[i]] &lt;= a[indexes[i+1]]</tt>.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; a.length</tt>
+     * @see #parallelRadixSortIndexes(int[],int,int)
+     */
+    public static int[] parallelRadixSortIndexes(float[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        int[] keys = sortableBits(a, fromIndex, toIndex);
+        int[] indexes = identity(fromIndex, keys.length);
+        radixSort(keys, indexes, 0, keys.length);
+        return indexes;
+    }
+
+    /**
+     * Multithreaded LSD radix argsort. Returns the indexes of the elements of
+     * the specified range in the order of <tt>Double.compare</tt>; the array
+     * itself is not modified.
+     * 
+     * @param a
+     *            the array to be sorted.
+     * @param fromIndex
+     *            the index of the first element (inclusive) to be sorted.
+     * @param toIndex
+     *            the index of the last element (exclusive) to be sorted.
+     * @return an array of length <tt>toIndex-fromIndex</tt> such that
+     *         <tt>a[indexes[i]] &lt;= a[indexes[i+1]]</tt>.
+     * @throws IllegalArgumentException
+     *             if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException
+     *             if <tt>fromIndex &lt; 0</tt> or
+     *             <tt>toIndex &gt; a.length</tt>
+     * @see #parallelRadixSortIndexes(int[],int,int)
+     */
+    public static int[] parallelRadixSortIndexes(double[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        long[] keys = sortableBits(a, fromIndex, toIndex);
+        int[] indexes = identity(fromIndex, keys.length);
+        radixSort(keys, indexes, 0, keys.length);
+        return indexes;
+    }
+
     /**
      * Sorts the specified range of the specified array of elements according to
      * the order induced by the specified comparator. All elements in the range
@@ -2950,6 +3239,326 @@ public class Sorting extends Object {
             quickSort1(x, n - s, s, comp);
     }
 
+    /**
+     * LSD radix sort of signed integer keys, one byte per pass, optionally
+     * carrying an index array along. The most significant byte has its sign
+     * bit flipped so that negative keys come first.
+     */
+    private static void radixSort(final int[] a, final int[] indexes, final int fromIndex, final int toIndex) {
+        final int n = toIndex - fromIndex;
+        if (n < 2) {
+            return;
+        }
+        int nthreads = radixThreads(n);
+        final int[][] counts = new int[nthreads][RADIX];
+        Future<?>[] futures = new Future[nthreads];
+        int k = n / nthreads;
+        int[] src = a;
+        int[] srcIndexes = indexes;
+        int srcOffset = fromIndex;
+        int[] dst = new int[n];
+        int[] dstIndexes = (indexes == null) ? null : new int[n];
+        int dstOffset = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            final int[] s = src;
+            final int[] si = srcIndexes;
+            final int so = srcOffset;
+            final int sh = shift;
+            final int flip = (shift == 24) ? 0x80 : 0;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = so + j * k;
+                final int lastIdx = (j == nthreads - 1) ? so + n : firstIdx + k;
+                final int[] count = counts[j];
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int b = 0; b < RADIX; b++) {
+                            count[b] = 0;
+                        }
+                        for (int p = firstIdx; p < lastIdx; p++) {
+                            count[((s[p] >>> sh) & 0xFF) ^ flip]++;
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            if (!prefixSum(counts, n)) {
+                continue;
+            }
+            final int[] d = dst;
+            final int[] di = dstIndexes;
+            final int dof = dstOffset;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = so + j * k;
+                final int lastIdx = (j == nthreads - 1) ? so + n : firstIdx + k;
+                final int[] count = counts[j];
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int p = firstIdx; p < lastIdx; p++) {
+                            int q = dof + count[((s[p] >>> sh) & 0xFF) ^ flip]++;
+                            d[q] = s[p];
+                            if (si != null) {
+                                di[q] = si[p];
+                            }
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            dst = src;
+            dstIndexes = srcIndexes;
+            dstOffset = srcOffset;
+            src = d;
+            srcIndexes = di;
+            srcOffset = dof;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcOffset, a, fromIndex, n);
+            if (indexes != null) {
+                System.arraycopy(srcIndexes, srcOffset, indexes, fromIndex, n);
+            }
+        }
+    }
+
+    /**
+     * LSD radix sort of signed long keys, one byte per pass, optionally
+     * carrying an index array along. The most significant byte has its sign
+     * bit flipped so that negative keys come first.
+     */
+    private static void radixSort(final long[] a, final int[] indexes, final int fromIndex, final int toIndex) {
+        final int n = toIndex - fromIndex;
+        if (n < 2) {
+            return;
+        }
+        int nthreads = radixThreads(n);
+        final int[][] counts = new int[nthreads][RADIX];
+        Future<?>[] futures = new Future[nthreads];
+        int k = n / nthreads;
+        long[] src = a;
+        int[] srcIndexes = indexes;
+        int srcOffset = fromIndex;
+        long[] dst = new long[n];
+        int[] dstIndexes = (indexes == null) ? null : new int[n];
+        int dstOffset = 0;
+        for (int shift = 0; shift < 64; shift += 8) {
+            final long[] s = src;
+            final int[] si = srcIndexes;
+            final int so = srcOffset;
+            final int sh = shift;
+            final int flip = (shift == 56) ? 0x80 : 0;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = so + j * k;
+                final int lastIdx = (j == nthreads - 1) ? so + n : firstIdx + k;
+                final int[] count = counts[j];
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int b = 0; b < RADIX; b++) {
+                            count[b] = 0;
+                        }
+                        for (int p = firstIdx; p < lastIdx; p++) {
+                            count[((int) (s[p] >>> sh) & 0xFF) ^ flip]++;
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            if (!prefixSum(counts, n)) {
+                continue;
+            }
+            final long[] d = dst;
+            final int[] di = dstIndexes;
+            final int dof = dstOffset;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = so + j * k;
+                final int lastIdx = (j == nthreads - 1) ? so + n : firstIdx + k;
+                final int[] count = counts[j];
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int p = firstIdx; p < lastIdx; p++) {
+                            int q = dof + count[((int) (s[p] >>> sh) & 0xFF) ^ flip]++;
+                            d[q] = s[p];
+                            if (si != null) {
+                                di[q] = si[p];
+                            }
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            dst = src;
+            dstIndexes = srcIndexes;
+            dstOffset = srcOffset;
+            src = d;
+            srcIndexes = di;
+            srcOffset = dof;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcOffset, a, fromIndex, n);
+            if (indexes != null) {
+                System.arraycopy(srcIndexes, srcOffset, indexes, fromIndex, n);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of threads used by the radix sorts for a range of
+     * the given length.
+     */
+    private static int radixThreads(int n) {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            return Math.min(nthreads, n);
+        }
+        return 1;
+    }
+
+    /**
+     * Turns the per-thread histograms of a radix pass into scatter offsets,
+     * bucket by bucket and, within a bucket, thread by thread. Returns false
+     * if all <tt>n</tt> keys fall into the same bucket, in which case the
+     * pass can be skipped.
+     */
+    private static boolean prefixSum(int[][] counts, int n) {
+        int sum = 0;
+        for (int b = 0; b < RADIX; b++) {
+            int start = sum;
+            for (int j = 0; j < counts.length; j++) {
+                int c = counts[j][b];
+                counts[j][b] = sum;
+                sum += c;
+            }
+            if (sum - start == n) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] identity(int fromIndex, int n) {
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = fromIndex + i;
+        }
+        return indexes;
+    }
+
+    /**
+     * Replaces <tt>values[fromIndex+i]</tt> with <tt>values[indexes[i]]</tt>.
+     */
+    private static void permute(final double[] values, final int[] indexes, final int fromIndex) {
+        final int n = indexes.length;
+        final double[] copy = new double[n];
+        int nthreads = radixThreads(n);
+        Future<?>[] futures = new Future[nthreads];
+        int k = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        copy[i] = values[indexes[i]];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        System.arraycopy(copy, 0, values, fromIndex, n);
+    }
+
+    /**
+     * Returns the IEEE 754 bit patterns of the given range with all bits but
+     * the sign bit flipped for negative values, so that signed integer order
+     * matches <tt>Float.compare</tt>. The transformation is its own inverse.
+     */
+    private static int[] sortableBits(final float[] a, final int fromIndex, final int toIndex) {
+        final int n = toIndex - fromIndex;
+        final int[] keys = new int[n];
+        int nthreads = radixThreads(n);
+        Future<?>[] futures = new Future[nthreads];
+        int k = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        int bits = Float.floatToIntBits(a[fromIndex + i]);
+                        keys[i] = bits ^ ((bits >> 31) & 0x7FFFFFFF);
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return keys;
+    }
+
+    /**
+     * Returns the IEEE 754 bit patterns of the given range with all bits but
+     * the sign bit flipped for negative values, so that signed long order
+     * matches <tt>Double.compare</tt>. The transformation is its own inverse.
+     */
+    private static long[] sortableBits(final double[] a, final int fromIndex, final int toIndex) {
+        final int n = toIndex - fromIndex;
+        final long[] keys = new long[n];
+        int nthreads = radixThreads(n);
+        Future<?>[] futures = new Future[nthreads];
+        int k = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        long bits = Double.doubleToLongBits(a[fromIndex + i]);
+                        keys[i] = bits ^ ((bits >> 63) & 0x7FFFFFFFFFFFFFFFL);
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return keys;
+    }
+
+    private static void fromSortableBits(final int[] keys, final float[] a, final int fromIndex) {
+        final int n = keys.length;
+        int nthreads = radixThreads(n);
+        Future<?>[] futures = new Future[nthreads];
+        int k = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        int bits = keys[i];
+                        a[fromIndex + i] = Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7FFFFFFF));
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
+    private static void fromSortableBits(final long[] keys, final double[] a, final int fromIndex) {
+        final int n = keys.length;
+        int nthreads = radixThreads(n);
+        Future<?>[] futures = new Future[nthreads];
+        int k = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int i = firstIdx; i < lastIdx; i++) {
+                        long bits = keys[i];
+                        a[fromIndex + i] = Double.longBitsToDouble(bits ^ ((bits >> 63) & 0x7FFFFFFFFFFFFFFFL));
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
     /**
      * Check that fromIndex and toIndex are in range, and throw an appropriate
      * exception if they aren't.
@@ -0,0 +1,29 @@
+package cern.colt.function.tint;
+
+/*
+ Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+ Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose 
+ is hereby granted without fee, provided that the above copyright notice appear in all copies and 
+ that both that copyright notice and this permission notice appear in supporting documentation. 
+ CERN makes no representations about the suitability of this software for any purpose. 
+ It is provided "as is" without expressed or implied warranty.
+ */
+/**
+ * Interface that represents a function object: a function that takes 27
+ * arguments and returns a single value.
+ */
+public interface Int27Function {
+    /**
+     * Applies a function to 27 arguments.
+     * 
+     * @return the result of the function.
+     */
+    abstract public int apply(int a000, int a001, int a002, int a010, int a011, int a012,
+            int a020, int a021, int a022,
+
+            int a100, int a101, int a102, int a110, int a111, int a112, int a120, int a121,
+            int a122,
+
+            int a200, int a201, int a202, int a210, int a211, int a212, int a220, int a221,
+            int a222);
+}
@@ -8,6 +8,10 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.list.tdouble;
 
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
 import cern.colt.function.tdouble.DoubleComparator;
 import cern.colt.function.tdouble.DoubleProcedure;
 import cern.colt.list.AbstractList;
@@ -563,6 +567,16 @@ public abstract class AbstractDoubleList extends AbstractList implements cern.co
         setSizeRaw(mySize);
     }
 
+    /**
+     * Returns a possibly parallel stream over the elements of the receiver,
+     * backed by {@link #spliterator()}.
+     * 
+     * @return a parallel stream over the elements of the receiver.
+     */
+    public DoubleStream parallelStream() {
+        return StreamSupport.doubleStream(spliterator(), true);
+    }
+
     /**
      * Returns a new list of the part of the receiver between <code>from</code>,
      * inclusive, and <code>to</code>, inclusive.
@@ -1007,6 +1021,28 @@ public abstract class AbstractDoubleList extends AbstractList implements cern.co
         return size;
     }
 
+    /**
+     * Returns a spliterator over the elements of the receiver, in index order.
+     * The default implementation traverses the array returned by
+     * {@link #elements()}; subclasses backed by an array override this method
+     * to traverse their storage without copying.
+     * 
+     * @return a spliterator over the elements of the receiver.
+     */
+    public Spliterator.OfDouble spliterator() {
+        return new DoubleArraySpliterator(elements(), 0, 1, 0, size());
+    }
+
+    /**
+     * Returns a sequential stream over the elements of the receiver, backed by
+     * {@link #spliterator()}.
+     * 
+     * @return a sequential stream over the elements of the receiver.
+     */
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
     /**
      * Returns a list which is a concatenation of <code>times</code> times the
      * receiver.
@@ -0,0 +1,767 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.list.tdouble;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import cern.colt.PersistentObject;
+import cern.colt.function.tdouble.DoubleProcedure;
+import cern.jet.math.tint.IntFunctions;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Resizable list holding <code>double</code> elements with <code>long</code>
+ * indexing; implemented with segmented arrays. Can hold more than
+ * <tt>Integer.MAX_VALUE</tt> elements.
+ * <p>
+ * Elements are stored in fixed-length segments of <tt>2^segmentShift</tt>
+ * elements. Growing the list only allocates new segments, and only the last
+ * segment is ever reallocated (as long as it is shorter than a full segment),
+ * so appending never copies the whole list. Each segment can be viewed as a
+ * {@link DoubleArrayList} sharing its storage (see {@link #segment(int)}),
+ * which is how big lists are fed into the existing consumers of
+ * <tt>DoubleArrayList</tt>, e.g.
+ * {@link cern.jet.stat.tdouble.quantile.DoubleQuantileFinder#addAllOf(BigDoubleArrayList)}
+ * and
+ * {@link hep.aida.tdouble.bin.AbstractDoubleBin1D#addAllOf(BigDoubleArrayList)}
+ * .
+ * <p>
+ * {@link #parallelForEach(DoubleProcedure)} and {@link #sort()} use multiple
+ * threads for lists of at least
+ * {@link edu.emory.mathcs.utils.pc.ConcurrencyUtils#getThreadsBeginN_1D()}
+ * elements.
+ */
+public class BigDoubleArrayList extends PersistentObject {
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The default base-2 logarithm of the segment length (2^20 elements, 8 MB
+     * per segment).
+     */
+    public static final int DEFAULT_SEGMENT_SHIFT = 20;
+
+    /**
+     * The segments holding the elements. All segments but the last one have
+     * exactly <tt>segmentSize</tt> elements.
+     *
+     * @serial
+     */
+    protected double[][] segments;
+
+    /**
+     * The number of allocated segments.
+     *
+     * @serial
+     */
+    protected int segmentCount;
+
+    /**
+     * The base-2 logarithm of the segment length.
+     *
+     * @serial
+     */
+    protected int segmentShift;
+
+    /**
+     * The number of elements each full segment holds.
+     *
+     * @serial
+     */
+    protected int segmentSize;
+
+    /**
+     * <tt>segmentSize - 1</tt>.
+     *
+     * @serial
+     */
+    protected int segmentMask;
+
+    /**
+     * The size of the list.
+     *
+     * @serial
+     */
+    protected long size;
+
+    /**
+     * Constructs an empty list.
+     */
+    public BigDoubleArrayList() {
+        this(10);
+    }
+
+    /**
+     * Constructs an empty list with the specified initial capacity.
+     *
+     * @param initialCapacity
+     *            the number of elements the receiver can hold without
+     *            auto-expanding itself by allocating new internal memory.
+     */
+    public BigDoubleArrayList(long initialCapacity) {
+        this(initialCapacity, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    /**
+     * Constructs an empty list with the specified initial capacity and segment
+     * length.
+     *
+     * @param initialCapacity
+     *            the number of elements the receiver can hold without
+     *            auto-expanding itself by allocating new internal memory.
+     * @param segmentShift
+     *            the base-2 logarithm of the segment length (must be in
+     *            [1,30]).
+     * @throws IllegalArgumentException
+     *             if <tt>initialCapacity &lt; 0</tt> or
+     *             <tt>segmentShift &lt; 1 || segmentShift &gt; 30</tt>.
+     */
+    public BigDoubleArrayList(long initialCapacity, int segmentShift) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        if (segmentShift < 1 || segmentShift > 30)
+            throw new IllegalArgumentException("Illegal segment shift: " + segmentShift);
+        this.segmentShift = segmentShift;
+        this.segmentSize = 1 << segmentShift;
+        this.segmentMask = segmentSize - 1;
+        this.segments = new double[4][];
+        this.segmentCount = 0;
+        this.size = 0;
+        ensureCapacity(initialCapacity);
+    }
+
+    /**
+     * Appends the specified element to the end of this list.
+     *
+     * @param element
+     *            element to be appended to this list.
+     */
+    public void add(double element) {
+        int segment = (int) (size >>> segmentShift);
+        int offset = (int) size & segmentMask;
+        if (segment >= segmentCount || offset >= segments[segment].length) {
+            ensureCapacity(size + 1);
+        }
+        segments[segment][offset] = element;
+        size++;
+    }
+
+    /**
+     * Appends all elements of the specified list to the receiver.
+     *
+     * @param other
+     *            the list of which all elements shall be appended.
+     */
+    public void addAllOf(BigDoubleArrayList other) {
+        long otherSize = other.size; // other may be the receiver itself
+        ensureCapacity(size + otherSize);
+        for (long start = 0; start < otherSize; start += other.segmentSize) {
+            int length = (int) Math.min(other.segmentSize, otherSize - start);
+            copyFrom(other.segments[(int) (start >>> other.segmentShift)], 0, length);
+        }
+    }
+
+    /**
+     * Appends all elements of the specified list to the receiver.
+     *
+     * @param other
+     *            the list of which all elements shall be appended.
+     */
+    public void addAllOf(DoubleArrayList other) {
+        addAllOfFromTo(other, 0, other.size() - 1);
+    }
+
+    /**
+     * Appends the part of the specified list between <code>from</code>
+     * (inclusive) and <code>to</code> (inclusive) to the receiver.
+     *
+     * @param other
+     *            the list to be added to the receiver.
+     * @param from
+     *            the index of the first element to be appended (inclusive).
+     * @param to
+     *            the index of the last element to be appended (inclusive).
+     * @exception IndexOutOfBoundsException
+     *                index is out of range (
+     *                <tt>other.size()&gt;0 && (from&lt;0 || from&gt;to || to&gt;=other.size())</tt>
+     *                ).
+     */
+    public void addAllOfFromTo(DoubleArrayList other, int from, int to) {
+        if (from > to)
+            return;
+        if (from < 0 || to >= other.size())
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size=" + other.size());
+        ensureCapacity(size + (to - from + 1));
+        copyFrom(other.elements(), from, to - from + 1);
+    }
+
+    /**
+     * Removes all elements from the receiver. The receiver will be empty after
+     * this call returns, but keeps its current capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns a deep copy of the receiver.
+     *
+     * @return a deep copy of the receiver.
+     */
+    public Object clone() {
+        BigDoubleArrayList clone = (BigDoubleArrayList) super.clone();
+        clone.segments = segments.clone();
+        for (int i = 0; i < segmentCount; i++) {
+            clone.segments[i] = segments[i].clone();
+        }
+        return clone;
+    }
+
+    /**
+     * Returns a deep copy of the receiver; uses <code>clone()</code> and casts
+     * the result.
+     *
+     * @return a deep copy of the receiver.
+     */
+    public BigDoubleArrayList copy() {
+        return (BigDoubleArrayList) clone();
+    }
+
+    /**
+     * Ensures that the receiver can hold at least the specified number of
+     * elements without needing to allocate new internal memory. If necessary,
+     * allocates new segments; only the last segment is ever reallocated.
+     *
+     * @param minCapacity
+     *            the desired minimum capacity.
+     */
+    public void ensureCapacity(long minCapacity) {
+        if (minCapacity <= capacity())
+            return;
+        long neededSegments = ((minCapacity - 1) >>> segmentShift) + 1;
+        if (neededSegments > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Capacity too large: " + minCapacity);
+        int needed = (int) neededSegments;
+        if (needed > segments.length) {
+            double[][] newSegments = new double[Math.max(needed, 2 * segments.length)][];
+            System.arraycopy(segments, 0, newSegments, 0, segmentCount);
+            segments = newSegments;
+        }
+        // complete the current last segment
+        if (segmentCount > 0 && segments[segmentCount - 1].length < segmentSize) {
+            double[] last = segments[segmentCount - 1];
+            int newLength = segmentCount < needed ? segmentSize : lastSegmentLength(minCapacity, last.length);
+            double[] newLast = new double[newLength];
+            System.arraycopy(last, 0, newLast, 0, last.length);
+            segments[segmentCount - 1] = newLast;
+        }
+        while (segmentCount < needed) {
+            int newLength = segmentCount < needed - 1 ? segmentSize : lastSegmentLength(minCapacity, 0);
+            segments[segmentCount++] = new double[newLength];
+        }
+    }
+
+    /**
+     * Compares the specified Object with the receiver. Returns true if and only
+     * if the specified Object is also a <tt>BigDoubleArrayList</tt>, both
+     * lists have the same size, and all corresponding pairs of elements in the
+     * two lists are identical.
+     *
+     * @param otherObj
+     *            the Object to be compared for equality with the receiver.
+     * @return true if the specified Object is equal to the receiver.
+     */
+    public boolean equals(Object otherObj) {
+        if (this == otherObj)
+            return true;
+        if (!(otherObj instanceof BigDoubleArrayList))
+            return false;
+        BigDoubleArrayList other = (BigDoubleArrayList) otherObj;
+        if (size != other.size)
+            return false;
+        for (long i = 0; i < size; i++) {
+            if (getQuick(i) != other.getQuick(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies a procedure to each element of the receiver, if any. Starts at
+     * index 0, moving rightwards.
+     *
+     * @param procedure
+     *            the procedure to be applied. Stops iteration if the procedure
+     *            returns <tt>false</tt>, otherwise continues.
+     * @return <tt>false</tt> if the procedure stopped before all elements where
+     *         iterated over, <tt>true</tt> otherwise.
+     */
+    public boolean forEach(DoubleProcedure procedure) {
+        int nsegments = numberOfSegments();
+        for (int s = 0; s < nsegments; s++) {
+            double[] segment = segments[s];
+            int length = segmentLength(s);
+            for (int i = 0; i < length;)
+                if (!procedure.apply(segment[i++]))
+                    return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the element at the specified position in the receiver.
+     *
+     * @param index
+     *            index of element to return.
+     * @exception IndexOutOfBoundsException
+     *                index is out of range (index &lt; 0 || index &gt;=
+     *                size()).
+     */
+    public double get(long index) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return segments[(int) (index >>> segmentShift)][(int) index & segmentMask];
+    }
+
+    /**
+     * Returns the element at the specified position in the receiver;
+     * <b>WARNING:</b> Does not check preconditions. Provided with invalid
+     * parameters this method may return invalid elements without throwing any
+     * exception! <b>You should only use this method when you are absolutely
+     * sure that the index is within bounds.</b> Precondition (unchecked):
+     * <tt>index &gt;= 0 && index &lt; size()</tt>.
+     *
+     * @param index
+     *            index of element to return.
+     */
+    public double getQuick(long index) {
+        return segments[(int) (index >>> segmentShift)][(int) index & segmentMask];
+    }
+
+    /**
+     * Returns a hash code value for the receiver.
+     */
+    public int hashCode() {
+        long h = 1;
+        for (long i = 0; i < size; i++) {
+            h = 31 * h + Double.doubleToLongBits(getQuick(i));
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns <tt>true</tt> if the receiver contains no elements.
+     *
+     * @return <tt>true</tt> if the receiver contains no elements.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of segments currently holding elements of the
+     * receiver.
+     *
+     * @return the number of non-empty segments.
+     */
+    public int numberOfSegments() {
+        return (int) ((size + segmentMask) >>> segmentShift);
+    }
+
+    /**
+     * Applies a procedure to each element of the receiver, if any, using
+     * multiple threads. The order in which elements are visited is unspecified
+     * and the procedure must be thread safe.
+     *
+     * @param procedure
+     *            the procedure to be applied. Stops iteration (of the calling
+     *            thread) if the procedure returns <tt>false</tt>, otherwise
+     *            continues.
+     * @return <tt>false</tt> if the procedure stopped before all elements where
+     *         iterated over, <tt>true</tt> otherwise.
+     */
+    public boolean parallelForEach(final DoubleProcedure procedure) {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = (int) Math.min(nthreads, size);
+            Future<?>[] futures = new Future[nthreads];
+            long k = size / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final long firstIdx = j * k;
+                final long lastIdx = (j == nthreads - 1) ? size : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<Integer>() {
+                    public Integer call() throws Exception {
+                        long idx = firstIdx;
+                        while (idx < lastIdx) {
+                            double[] segment = segments[(int) (idx >>> segmentShift)];
+                            int offset = (int) idx & segmentMask;
+                            int end = (int) Math.min(segmentSize, offset + (lastIdx - idx));
+                            for (int i = offset; i < end;)
+                                if (!procedure.apply(segment[i++]))
+                                    return 0;
+                            idx += end - offset;
+                        }
+                        return 1;
+                    }
+                });
+            }
+            return ConcurrencyUtils.waitForCompletion(futures, IntFunctions.min) == 1;
+        } else {
+            return forEach(procedure);
+        }
+    }
+
+    /**
+     * Returns a view of the specified segment, sharing its storage with the
+     * receiver. The view holds the elements with indexes
+     * <tt>[index*segmentSize(), min(size(), (index+1)*segmentSize()))</tt>.
+     * Changes to existing elements of the view are reflected in the receiver
+     * and vice versa; structural changes of either are not.
+     *
+     * @param index
+     *            the index of the segment (must be in
+     *            [0,numberOfSegments())).
+     * @return a view of the specified segment.
+     * @exception IndexOutOfBoundsException
+     *                index is out of range.
+     */
+    public DoubleArrayList segment(int index) {
+        if (index < 0 || index >= numberOfSegments())
+            throw new IndexOutOfBoundsException("Segment: " + index + ", Segments: " + numberOfSegments());
+        DoubleArrayList view = new DoubleArrayList(segments[index]);
+        view.setSizeRaw(segmentLength(index));
+        return view;
+    }
+
+    /**
+     * Returns the number of elements each full segment of the receiver holds.
+     *
+     * @return the segment length.
+     */
+    public int segmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Replaces the element at the specified position in the receiver with the
+     * specified element.
+     *
+     * @param index
+     *            index of element to replace.
+     * @param element
+     *            element to be stored at the specified position.
+     * @exception IndexOutOfBoundsException
+     *                index is out of range (index &lt; 0 || index &gt;=
+     *                size()).
+     */
+    public void set(long index, double element) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        segments[(int) (index >>> segmentShift)][(int) index & segmentMask] = element;
+    }
+
+    /**
+     * Replaces the element at the specified position in the receiver with the
+     * specified element; <b>WARNING:</b> Does not check preconditions.
+     * Provided with invalid parameters this method may access invalid indexes
+     * without throwing any exception! <b>You should only use this method when
+     * you are absolutely sure that the index is within bounds.</b>
+     * Precondition (unchecked): <tt>index &gt;= 0 && index &lt; size()</tt>.
+     *
+     * @param index
+     *            index of element to replace.
+     * @param element
+     *            element to be stored at the specified position.
+     */
+    public void setQuick(long index, double element) {
+        segments[(int) (index >>> segmentShift)][(int) index & segmentMask] = element;
+    }
+
+    /**
+     * Sets the size of the receiver. If the new size is greater than the
+     * current size, new zero-valued elements are added to the end of the
+     * receiver. If the new size is less than the current size, all elements
+     * at indexes greater than the new size are discarded.
+     *
+     * @param newSize
+     *            the new size of the receiver.
+     * @throws IllegalArgumentException
+     *             if <tt>newSize &lt; 0</tt>.
+     */
+    public void setSize(long newSize) {
+        if (newSize < 0)
+            throw new IllegalArgumentException("newSize:" + newSize);
+        if (newSize > size) {
+            ensureCapacity(newSize);
+            for (long i = size; i < newSize;) {
+                double[] segment = segments[(int) (i >>> segmentShift)];
+                int offset = (int) i & segmentMask;
+                int end = (int) Math.min(segment.length, offset + (newSize - i));
+                java.util.Arrays.fill(segment, offset, end, 0);
+                i += end - offset;
+            }
+        }
+        size = newSize;
+    }
+
+    /**
+     * Returns the number of elements contained in the receiver.
+     *
+     * @return the number of elements contained in the receiver.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Sorts the receiver into ascending order, using the same ordering as
+     * {@link java.util.Arrays#sort(double[])}. Segments are sorted
+     * independently and then merged in rounds of pairwise merges; both steps
+     * use multiple threads for large lists. Requires temporary memory of the
+     * size of the receiver.
+     */
+    public void sort() {
+        final int nsegments = numberOfSegments();
+        if (nsegments == 0)
+            return;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        final boolean parallel = (nthreads > 1) && (size >= ConcurrencyUtils.getThreadsBeginN_1D());
+        // sort segments
+        if (parallel && nsegments >= nthreads) {
+            Future<?>[] futures = new Future[nthreads];
+            int k = nsegments / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? nsegments : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int s = firstIdx; s < lastIdx; s++) {
+                            java.util.Arrays.sort(segments[s], 0, segmentLength(s));
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int s = 0; s < nsegments; s++) {
+                if (parallel) {
+                    cern.colt.Sorting.parallelRadixSort(segments[s], 0, segmentLength(s));
+                } else {
+                    java.util.Arrays.sort(segments[s], 0, segmentLength(s));
+                }
+            }
+        }
+        if (nsegments == 1)
+            return;
+        // merge sorted runs
+        double[][] src = segments;
+        double[][] dst = new double[src.length][];
+        for (int s = 0; s < segmentCount; s++) {
+            dst[s] = new double[src[s].length];
+        }
+        for (long width = segmentSize; width < size; width <<= 1) {
+            mergeRound(src, dst, width, parallel ? nthreads : 1);
+            double[][] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        segments = src;
+    }
+
+    /**
+     * Returns a string representation of the receiver, containing the String
+     * representation of each element.
+     */
+    public String toString() {
+        StringBuffer buf = new StringBuffer();
+        buf.append("[");
+        for (long i = 0; i < size; i++) {
+            if (i > 0)
+                buf.append(", ");
+            buf.append(String.valueOf(getQuick(i)));
+        }
+        buf.append("]");
+        return buf.toString();
+    }
+
+    /**
+     * Trims the capacity of the receiver to be the receiver's current size.
+     * Releases unused segments and shrinks the last one. An application can
+     * use this operation to minimize the storage of the receiver.
+     */
+    public void trimToSize() {
+        int nsegments = numberOfSegments();
+        for (int s = nsegments; s < segmentCount; s++) {
+            segments[s] = null;
+        }
+        segmentCount = nsegments;
+        if (nsegments > 0) {
+            int length = segmentLength(nsegments - 1);
+            if (segments[nsegments - 1].length > length) {
+                double[] last = new double[length];
+                System.arraycopy(segments[nsegments - 1], 0, last, 0, length);
+                segments[nsegments - 1] = last;
+            }
+        }
+        if (segments.length > nsegments) {
+            double[][] newSegments = new double[Math.max(nsegments, 1)][];
+            System.arraycopy(segments, 0, newSegments, 0, nsegments);
+            segments = newSegments;
+        }
+    }
+
+    /**
+     * Returns the number of elements the receiver can hold without allocating
+     * new internal memory.
+     */
+    protected long capacity() {
+        if (segmentCount == 0)
+            return 0;
+        return ((long) (segmentCount - 1) << segmentShift) + segments[segmentCount - 1].length;
+    }
+
+    /**
+     * Appends <tt>length</tt> elements of <tt>values</tt> starting at
+     * <tt>from</tt>; the capacity must already suffice.
+     */
+    protected void copyFrom(double[] values, int from, int length) {
+        while (length > 0) {
+            double[] segment = segments[(int) (size >>> segmentShift)];
+            int offset = (int) size & segmentMask;
+            int n = Math.min(length, segmentSize - offset);
+            System.arraycopy(values, from, segment, offset, n);
+            from += n;
+            length -= n;
+            size += n;
+        }
+    }
+
+    /**
+     * Returns the number of elements of the receiver stored in the specified
+     * segment.
+     */
+    protected int segmentLength(int index) {
+        long start = (long) index << segmentShift;
+        return (int) Math.min(segmentSize, size - start);
+    }
+
+    /**
+     * Returns the length of a new last segment that holds at least
+     * <tt>minCapacity</tt> list elements, growing the current length
+     * geometrically.
+     */
+    private int lastSegmentLength(long minCapacity, int currentLength) {
+        int needed = (int) (minCapacity - ((minCapacity - 1) >>> segmentShift << segmentShift));
+        int grown = Math.max(10, currentLength + (currentLength >> 1) + 1);
+        return Math.min(segmentSize, Math.max(needed, grown));
+    }
+
+    /**
+     * Merges adjacent sorted runs of length <tt>width</tt> from <tt>src</tt>
+     * into <tt>dst</tt>. When there are fewer pairs of runs than threads, each
+     * merge is split into independent pieces by binary search.
+     */
+    private void mergeRound(final double[][] src, final double[][] dst, final long width, int nthreads) {
+        final long n = size;
+        final int npairs = (int) ((n + 2 * width - 1) / (2 * width));
+        if (nthreads <= 1) {
+            for (int p = 0; p < npairs; p++) {
+                long lo = p * 2 * width;
+                long mid = Math.min(lo + width, n);
+                long hi = Math.min(lo + 2 * width, n);
+                merge(src, dst, lo, mid, hi, lo, hi);
+            }
+        } else if (npairs >= nthreads) {
+            Future<?>[] futures = new Future[nthreads];
+            int k = npairs / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? npairs : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int p = firstIdx; p < lastIdx; p++) {
+                            long lo = p * 2 * width;
+                            long mid = Math.min(lo + width, n);
+                            long hi = Math.min(lo + 2 * width, n);
+                            merge(src, dst, lo, mid, hi, lo, hi);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            int pieces = nthreads / npairs;
+            Future<?>[] futures = new Future[npairs * pieces];
+            for (int p = 0; p < npairs; p++) {
+                final long lo = p * 2 * width;
+                final long mid = Math.min(lo + width, n);
+                final long hi = Math.min(lo + 2 * width, n);
+                long k = (hi - lo) / pieces;
+                for (int j = 0; j < pieces; j++) {
+                    final long firstIdx = lo + j * k;
+                    final long lastIdx = (j == pieces - 1) ? hi : firstIdx + k;
+                    futures[p * pieces + j] = ConcurrencyUtils.submit(new Runnable() {
+                        public void run() {
+                            merge(src, dst, lo, mid, hi, firstIdx, lastIdx);
+                        }
+                    });
+                }
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        }
+    }
+
+    /**
+     * Writes the output positions <tt>[outFrom,outTo)</tt> of the stable merge
+     * of the sorted runs <tt>[lo,mid)</tt> and <tt>[mid,hi)</tt> of
+     * <tt>src</tt> into <tt>dst</tt>.
+     */
+    private void merge(double[][] src, double[][] dst, long lo, long mid, long hi, long outFrom, long outTo) {
+        long i = lo + coRank(src, lo, mid, hi, outFrom - lo);
+        long j = mid + (outFrom - lo) - (i - lo);
+        for (long out = outFrom; out < outTo; out++) {
+            double value;
+            if (j >= hi || (i < mid && Double.compare(get(src, i), get(src, j)) <= 0)) {
+                value = get(src, i++);
+            } else {
+                value = get(src, j++);
+            }
+            dst[(int) (out >>> segmentShift)][(int) out & segmentMask] = value;
+        }
+    }
+
+    /**
+     * Returns how many elements of the run <tt>[lo,mid)</tt> are among the
+     * first <tt>d</tt> elements of the stable merge of <tt>[lo,mid)</tt> and
+     * <tt>[mid,hi)</tt>.
+     */
+    private long coRank(double[][] src, long lo, long mid, long hi, long d) {
+        long lenA = mid - lo;
+        long lenB = hi - mid;
+        long ilo = Math.max(0, d - lenB);
+        long ihi = Math.min(d, lenA);
+        while (ilo < ihi) {
+            long i = (ilo + ihi) >>> 1;
+            long j = d - i;
+            if (Double.compare(get(src, lo + i), get(src, mid + j - 1)) <= 0) {
+                ilo = i + 1;
+            } else {
+                ihi = i;
+            }
+        }
+        return ilo;
+    }
+
+    private double get(double[][] src, long index) {
+        return src[(int) (index >>> segmentShift)][(int) index & segmentMask];
+    }
+}
@@ -8,7 +8,10 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.list.tdouble;
 
+import java.util.Spliterator;
+
 import cern.colt.function.tdouble.DoubleProcedure;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Resizable list holding <code>double</code> elements; implemented with arrays.
@@ -636,6 +639,43 @@ public class DoubleArrayList extends AbstractDoubleList {
         }
     }
 
+    /**
+     * Sorts the specified range of the receiver into ascending order. Large
+     * ranges are sorted by the multithreaded radix sort
+     * {@link cern.colt.Sorting#parallelRadixSort(double[],int,int)}, all other
+     * ranges by quicksort.
+     * 
+     * @param from
+     *            the index of the first element (inclusive) to be sorted.
+     * @param to
+     *            the index of the last element (inclusive) to be sorted.
+     * @exception IndexOutOfBoundsException
+     *                index is out of range (<tt>size()&gt;0 && (from&lt;0 ||
+     *                from&gt;to || to&gt;=size())</tt>).
+     */
+    public void sortFromTo(int from, int to) {
+        if (size == 0) {
+            return;
+        }
+        checkRangeFromTo(from, to, size);
+        if ((ConcurrencyUtils.getNumberOfThreads() > 1) && (to - from + 1 >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            cern.colt.Sorting.parallelRadixSort(elements, from, to + 1);
+        } else {
+            quickSortFromTo(from, to);
+        }
+    }
+
+    /**
+     * Returns a spliterator over the elements of the receiver, in index order,
+     * traversing the backing array without copying it. Splits are aligned to
+     * cache lines of the backing array.
+     * 
+     * @return a spliterator over the elements of the receiver.
+     */
+    public Spliterator.OfDouble spliterator() {
+        return new DoubleArraySpliterator(elements, 0, 1, 0, size);
+    }
+
     /**
      * Trims the capacity of the receiver to be the receiver's current size.
      * Releases any superfluos internal memory. An application can use this
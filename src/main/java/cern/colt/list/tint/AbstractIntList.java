@@ -8,6 +8,10 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.list.tint;
 
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 import cern.colt.function.tint.IntComparator;
 import cern.colt.function.tint.IntProcedure;
 import cern.colt.list.AbstractList;
@@ -561,6 +565,16 @@ public abstract class AbstractIntList extends AbstractList implements cern.colt.
         setSizeRaw(mySize);
     }
 
+    /**
+     * Returns a possibly parallel stream over the elements of the receiver,
+     * backed by {@link #spliterator()}.
+     * 
+     * @return a parallel stream over the elements of the receiver.
+     */
+    public IntStream parallelStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
     /**
      * Returns a new list of the part of the receiver between <code>from</code>,
      * inclusive, and <code>to</code>, inclusive.
@@ -1004,6 +1018,28 @@ public abstract class AbstractIntList extends AbstractList implements cern.colt.
         return size;
     }
 
+    /**
+     * Returns a spliterator over the elements of the receiver, in index order.
+     * The default implementation traverses the array returned by
+     * {@link #elements()}; subclasses backed by an array override this method
+     * to traverse their storage without copying.
+     * 
+     * @return a spliterator over the elements of the receiver.
+     */
+    public Spliterator.OfInt spliterator() {
+        return new IntArraySpliterator(elements(), 0, 1, 0, size());
+    }
+
+    /**
+     * Returns a sequential stream over the elements of the receiver, backed by
+     * {@link #spliterator()}.
+     * 
+     * @return a sequential stream over the elements of the receiver.
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
     /**
      * Returns a list which is a concatenation of <code>times</code> times the
      * receiver.
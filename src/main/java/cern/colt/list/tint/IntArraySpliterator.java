@@ -0,0 +1,141 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.list.tint;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Splittable iterator over a range of <code>int</code> elements stored in an
+ * array with a given offset and stride, as used by
+ * {@link IntArrayList} and the dense matrix classes. The element with rank
+ * <tt>i</tt> is <tt>elements[zero + i*stride]</tt>, so views with strides
+ * and offsets are traversed without copying.
+ * <p>
+ * Ranges are split in halves; for contiguous ranges the split point is
+ * rounded down to a 64-byte cache line boundary of the underlying array, so
+ * that threads working on adjacent pieces do not share cache lines. Ranges
+ * smaller than two cache lines are not split. The spliterator is
+ * {@link Spliterator#ORDERED}, {@link Spliterator#SIZED} and
+ * {@link Spliterator#SUBSIZED}; it is not concurrent and does not detect
+ * interference.
+ */
+public class IntArraySpliterator implements Spliterator.OfInt {
+    /**
+     * The number of elements in one 64-byte cache line.
+     */
+    protected static final int LINE = 16;
+
+    /**
+     * The array holding the elements.
+     */
+    protected final int[] elements;
+
+    /**
+     * The index of the element with rank 0.
+     */
+    protected final int zero;
+
+    /**
+     * The number of indexes between two elements with adjacent ranks.
+     */
+    protected final int stride;
+
+    /**
+     * The rank of the next element to traverse.
+     */
+    protected int index;
+
+    /**
+     * One past the rank of the last element to traverse.
+     */
+    protected final int fence;
+
+    /**
+     * Constructs a spliterator over the elements with ranks
+     * <tt>[from,to)</tt>.
+     * 
+     * @param elements
+     *            the array holding the elements.
+     * @param zero
+     *            the index of the element with rank 0.
+     * @param stride
+     *            the number of indexes between two elements with adjacent
+     *            ranks.
+     * @param from
+     *            the rank of the first element (inclusive).
+     * @param to
+     *            the rank of the last element (exclusive).
+     * @throws IllegalArgumentException
+     *             if <tt>from &lt; 0 || from &gt; to</tt>.
+     */
+    public IntArraySpliterator(int[] elements, int zero, int stride, int from, int to) {
+        if (from < 0 || from > to)
+            throw new IllegalArgumentException("from: " + from + ", to: " + to);
+        this.elements = elements;
+        this.zero = zero;
+        this.stride = stride;
+        this.index = from;
+        this.fence = to;
+    }
+
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED;
+    }
+
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    public void forEachRemaining(IntConsumer action) {
+        if (action == null)
+            throw new NullPointerException();
+        int[] elems = elements;
+        int i = index;
+        int hi = fence;
+        index = hi;
+        if (stride == 1) {
+            for (int idx = zero + i, end = zero + hi; idx < end; idx++) {
+                action.accept(elems[idx]);
+            }
+        } else {
+            for (int idx = zero + i * stride; i < hi; i++, idx += stride) {
+                action.accept(elems[idx]);
+            }
+        }
+    }
+
+    public long getExactSizeIfKnown() {
+        return fence - index;
+    }
+
+    public boolean tryAdvance(IntConsumer action) {
+        if (action == null)
+            throw new NullPointerException();
+        if (index < fence) {
+            action.accept(elements[zero + (index++) * stride]);
+            return true;
+        }
+        return false;
+    }
+
+    public Spliterator.OfInt trySplit() {
+        int lo = index;
+        if (fence - lo < 2 * LINE)
+            return null;
+        int mid = (lo + fence) >>> 1;
+        if (stride == 1) {
+            int aligned = ((zero + mid) & ~(LINE - 1)) - zero;
+            if (aligned > lo)
+                mid = aligned;
+        }
+        index = mid;
+        return new IntArraySpliterator(elements, zero, stride, lo, mid);
+    }
+}
@@ -8,6 +8,10 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.list.tlong;
 
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 import cern.colt.function.tlong.LongComparator;
 import cern.colt.function.tlong.LongProcedure;
 import cern.colt.list.AbstractList;
@@ -549,6 +553,16 @@ public abstract class AbstractLongList extends AbstractList {
         setSizeRaw(mySize);
     }
 
+    /**
+     * Returns a possibly parallel stream over the elements of the receiver,
+     * backed by {@link #spliterator()}.
+     * 
+     * @return a parallel stream over the elements of the receiver.
+     */
+    public LongStream parallelStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+
     /**
      * Returns a new list of the part of the receiver between <code>from</code>,
      * inclusive, and <code>to</code>, inclusive.
@@ -995,6 +1009,28 @@ public abstract class AbstractLongList extends AbstractList {
         return size;
     }
 
+    /**
+     * Returns a spliterator over the elements of the receiver, in index order.
+     * The default implementation traverses the array returned by
+     * {@link #elements()}; subclasses backed by an array override this method
+     * to traverse their storage without copying.
+     * 
+     * @return a spliterator over the elements of the receiver.
+     */
+    public Spliterator.OfLong spliterator() {
+        return new LongArraySpliterator(elements(), 0, 1, 0, size());
+    }
+
+    /**
+     * Returns a sequential stream over the elements of the receiver, backed by
+     * {@link #spliterator()}.
+     * 
+     * @return a sequential stream over the elements of the receiver.
+     */
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
     /**
      * Returns a list which is a concatenation of <code>times</code> times the
      * receiver.
@@ -8,7 +8,10 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.list.tlong;
 
+import java.util.Spliterator;
+
 import cern.colt.function.tlong.LongProcedure;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Resizable list holding <code>long</code> elements; implemented with arrays.
@@ -681,6 +684,8 @@ public class LongArrayList extends AbstractLongList {
      * characteristics of the data set. Currently quicksort and countsort are
      * considered. Countsort is not always applicable, but if applicable, it
      * usually outperforms quicksort by a factor of 3-4.
+     * Large ranges for which countsort is not applicable are sorted by the
+     * multithreaded radix sort of {@link cern.colt.Sorting}.
      * 
      * <p>
      * Best case performance: O(N).
@@ -733,11 +738,24 @@ public class LongArrayList extends AbstractLongList {
 
         if (width < widthThreshold && countSortEstimate < quickSortEstimate) {
             countSortFromTo(from, to, min, max);
+        } else if ((ConcurrencyUtils.getNumberOfThreads() > 1) && (N >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            cern.colt.Sorting.parallelRadixSort(elements, from, to + 1);
         } else {
             quickSortFromTo(from, to);
         }
     }
 
+    /**
+     * Returns a spliterator over the elements of the receiver, in index order,
+     * traversing the backing array without copying it. Splits are aligned to
+     * cache lines of the backing array.
+     * 
+     * @return a spliterator over the elements of the receiver.
+     */
+    public Spliterator.OfLong spliterator() {
+        return new LongArraySpliterator(elements, 0, 1, 0, size);
+    }
+
     /**
      * Trims the capacity of the receiver to be the receiver's current size.
      * Releases any superfluous internal memory. An application can use this
@@ -90,6 +90,31 @@ public class HashFunctions extends Object {
          */
     }
 
+    /**
+     * Returns a well spread hashcode for the specified value. All bits of the
+     * value affect all bits of the result, so that the low bits can be used
+     * directly as the index into a power-of-two table.
+     * 
+     * @return a hash code value for the specified value.
+     */
+    public static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns a well spread hashcode for the specified value. All bits of the
+     * value affect all bits of the result, so that the low bits can be used
+     * directly as the index into a power-of-two table.
+     * 
+     * @return a hash code value for the specified value.
+     */
+    public static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        return (int) (h ^ (h >>> 16));
+    }
+
     /**
      * Returns a hashcode for the specified object.
      * 
@@ -0,0 +1,477 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.map.tdouble;
+
+import cern.colt.function.tdouble.LongDoubleProcedure;
+import cern.colt.function.tlong.LongProcedure;
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.list.tlong.LongArrayList;
+import cern.colt.map.HashFunctions;
+
+/**
+ * Thread safe hash map holding (key,value) associations of type
+ * <tt>(long-->double)</tt>; Automatically grows and shrinks as needed;
+ * Implemented using lock striping over a fixed number of segments, each of
+ * which is a {@link LinearLongDoubleHashMap} guarded by its own lock. First see
+ * the <a href="package-summary.html">package summary</a> and javadoc <a
+ * href="package-tree.html">tree view</a> to get the broad picture.
+ * <p>
+ * Operations on single keys (<tt>get</tt>, <tt>put</tt>, <tt>removeKey</tt>,
+ * <tt>addTo</tt>) lock only the segment of the key, so threads working on
+ * different keys rarely wait for each other. <tt>addTo</tt> is atomic, which
+ * allows many threads to accumulate into the same map, for example when
+ * assembling a sparse matrix in parallel.
+ * <p>
+ * Bulk operations (<tt>size</tt>, <tt>forEachKey</tt>, <tt>keys</tt>,
+ * <tt>values</tt>, ...) visit the segments one after another, locking one
+ * segment at a time. They are consistent per segment but not across segments,
+ * i.e. they should be called when no other thread modifies the map. In
+ * particular, the lists filled by separate calls to <tt>keys</tt> and
+ * <tt>values</tt> may not match while other threads write.
+ * {@link #pairs(LongArrayList, DoubleArrayList)} fills keys and values that
+ * always match, and {@link #pairs(int, LongArrayList, DoubleArrayList)}
+ * processes the segments independently.
+ * 
+ * @see LinearLongDoubleHashMap
+ */
+public class ConcurrentLongDoubleHashMap extends AbstractLongDoubleMap {
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The default number of segments.
+     */
+    protected static final int defaultConcurrencyLevel = 16;
+
+    /**
+     * The segments; <tt>segments.length</tt> is a power of two.
+     * 
+     * @serial
+     */
+    protected LinearLongDoubleHashMap segments[];
+
+    /**
+     * The number of high hash bits not used to select the segment.
+     * 
+     * @serial
+     */
+    protected int segmentShift;
+
+    /**
+     * Constructs an empty map with default capacity, default load factors and
+     * default concurrency level.
+     */
+    public ConcurrentLongDoubleHashMap() {
+        this(defaultCapacity);
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity, default load
+     * factors and default concurrency level.
+     * 
+     * @param initialCapacity
+     *            the initial capacity of the map.
+     * @throws IllegalArgumentException
+     *             if the initial capacity is less than zero.
+     */
+    public ConcurrentLongDoubleHashMap(int initialCapacity) {
+        this(initialCapacity, defaultMinLoadFactor, defaultMaxLoadFactor, defaultConcurrencyLevel);
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity, the
+     * specified minimum and maximum load factor and the specified concurrency
+     * level.
+     * 
+     * @param initialCapacity
+     *            the initial capacity.
+     * @param minLoadFactor
+     *            the minimum load factor.
+     * @param maxLoadFactor
+     *            the maximum load factor.
+     * @param concurrencyLevel
+     *            the estimated number of concurrently updating threads; the
+     *            number of segments is the smallest power of two not less than
+     *            <tt>concurrencyLevel</tt> (at least <tt>2</tt>).
+     * @throws IllegalArgumentException
+     *             if
+     * 
+     *             <tt>initialCapacity < 0 || (minLoadFactor < 0.0 || minLoadFactor >= 1.0) || (maxLoadFactor <= 0.0 || maxLoadFactor >= 1.0) || (minLoadFactor >= maxLoadFactor) || concurrencyLevel <= 0</tt>
+     *             .
+     */
+    public ConcurrentLongDoubleHashMap(int initialCapacity, double minLoadFactor, double maxLoadFactor,
+            int concurrencyLevel) {
+        if (concurrencyLevel <= 0)
+            throw new IllegalArgumentException("Illegal concurrencyLevel: " + concurrencyLevel);
+        super.setUp(initialCapacity, minLoadFactor, maxLoadFactor);
+        int bits = 1;
+        while ((1 << bits) < concurrencyLevel && bits < 16)
+            bits++;
+        int nsegments = 1 << bits;
+        this.segmentShift = 32 - bits;
+        this.minLoadFactor = minLoadFactor;
+        this.maxLoadFactor = maxLoadFactor;
+        this.segments = new LinearLongDoubleHashMap[nsegments];
+        int segmentCapacity = (initialCapacity + nsegments - 1) / nsegments;
+        for (int i = 0; i < nsegments; i++) {
+            segments[i] = new LinearLongDoubleHashMap(segmentCapacity, minLoadFactor, maxLoadFactor);
+        }
+    }
+
+    /**
+     * Atomically adds the given delta to the value associated with the given
+     * key. If the key is not contained, the association <tt>(key,delta)</tt> is
+     * added.
+     * 
+     * @param key
+     *            the key.
+     * @param delta
+     *            the value to be added.
+     * @return the new value associated with the key.
+     */
+    public double addTo(long key, double delta) {
+        LinearLongDoubleHashMap segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.addTo(key, delta);
+        }
+    }
+
+    /**
+     * Assigns the result of a function to each value;
+     * <tt>v[i] = function(v[i])</tt>.
+     * 
+     * @param function
+     *            a function object taking as argument the current association's
+     *            value.
+     */
+    public void assign(cern.colt.function.tdouble.DoubleFunction function) {
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                segment.assign(function);
+            }
+        }
+    }
+
+    /**
+     * Removes all (key,value) associations from the receiver. Implicitly calls
+     * <tt>trimToSize()</tt>.
+     */
+    public void clear() {
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns a deep copy of the receiver.
+     * 
+     * @return a deep copy of the receiver.
+     */
+    public Object clone() {
+        ConcurrentLongDoubleHashMap copy = (ConcurrentLongDoubleHashMap) super.clone();
+        copy.segments = new LinearLongDoubleHashMap[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                copy.segments[i] = (LinearLongDoubleHashMap) segment.clone();
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the receiver contains the specified key.
+     * 
+     * @return <tt>true</tt> if the receiver contains the specified key.
+     */
+    public boolean containsKey(long key) {
+        LinearLongDoubleHashMap segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.containsKey(key);
+        }
+    }
+
+    /**
+     * Returns <tt>true</tt> if the receiver contains the specified value.
+     * 
+     * @return <tt>true</tt> if the receiver contains the specified value.
+     */
+    public boolean containsValue(double value) {
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                if (segment.containsValue(value))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ensures that the receiver can hold at least the specified number of
+     * associations without needing to allocate new internal memory, assuming
+     * the keys are evenly distributed over the segments.
+     * 
+     * @param minCapacity
+     *            the desired minimum capacity.
+     */
+    public void ensureCapacity(int minCapacity) {
+        int segmentCapacity = (minCapacity + segments.length - 1) / segments.length;
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                segment.ensureCapacity(segmentCapacity);
+            }
+        }
+    }
+
+    /**
+     * Applies a procedure to each key of the receiver, if any. Iterates over
+     * the segments in ascending order, and over the keys of a segment in the
+     * order of {@link LinearLongDoubleHashMap#forEachKey(LongProcedure)}. The
+     * procedure is called while the lock of the current segment is held.
+     * 
+     * @param procedure
+     *            the procedure to be applied. Stops iteration if the procedure
+     *            returns <tt>false</tt>, otherwise continues.
+     * @return <tt>false</tt> if the procedure stopped before all keys where
+     *         iterated over, <tt>true</tt> otherwise.
+     */
+    public boolean forEachKey(LongProcedure procedure) {
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                if (!segment.forEachKey(procedure))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies a procedure to each (key,value) pair of the receiver, if any.
+     * Iteration order is guaranteed to be <i>identical</i> to the order used by
+     * method {@link #forEachKey(LongProcedure)}.
+     * 
+     * @param procedure
+     *            the procedure to be applied. Stops iteration if the procedure
+     *            returns <tt>false</tt>, otherwise continues.
+     * @return <tt>false</tt> if the procedure stopped before all keys where
+     *         iterated over, <tt>true</tt> otherwise.
+     */
+    public boolean forEachPair(final LongDoubleProcedure procedure) {
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                if (!segment.forEachPair(procedure))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value associated with the specified key.
+     * 
+     * @param key
+     *            the key to be searched for.
+     * @return the value associated with the specified key; <tt>0</tt> if no
+     *         such key is present.
+     */
+    public double get(long key) {
+        LinearLongDoubleHashMap segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Returns <tt>true</tt> if the receiver contains no (key,value)
+     * associations.
+     * 
+     * @return <tt>true</tt> if the receiver contains no (key,value)
+     *         associations.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Fills all keys contained in the receiver into the specified list.
+     * Iteration order is guaranteed to be <i>identical</i> to the order used by
+     * method {@link #forEachKey(LongProcedure)}.
+     * 
+     * @param list
+     *            the list to be filled, can have any size.
+     */
+    public void keys(LongArrayList list) {
+        list.clear();
+        LongArrayList segmentList = new LongArrayList();
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                segment.keys(segmentList);
+            }
+            list.addAllOfFromTo(segmentList, 0, segmentList.size() - 1);
+        }
+    }
+
+    /**
+     * Returns the number of segments of the receiver.
+     * 
+     * @return the number of segments.
+     */
+    public int numberOfSegments() {
+        return segments.length;
+    }
+
+    /**
+     * Fills all pairs contained in the receiver into the specified lists, so
+     * that <tt>valueList.get(i)</tt> is the value associated with
+     * <tt>keyList.get(i)</tt>. Fills into the lists, starting at index 0. The
+     * segments are copied one after another, each as a consistent snapshot;
+     * while other threads write, the result is consistent per segment but not
+     * across segments.
+     * 
+     * @param keyList
+     *            the list to be filled with keys, can have any size.
+     * @param valueList
+     *            the list to be filled with values, can have any size.
+     */
+    public void pairs(LongArrayList keyList, DoubleArrayList valueList) {
+        keyList.clear();
+        valueList.clear();
+        LongArrayList segmentKeys = new LongArrayList();
+        DoubleArrayList segmentValues = new DoubleArrayList();
+        for (int i = 0; i < segments.length; i++) {
+            pairs(i, segmentKeys, segmentValues);
+            keyList.addAllOfFromTo(segmentKeys, 0, segmentKeys.size() - 1);
+            valueList.addAllOfFromTo(segmentValues, 0, segmentValues.size() - 1);
+        }
+    }
+
+    /**
+     * Fills all pairs of the given segment into the specified lists. Fills into
+     * the lists, starting at index 0. The segment is locked while the lists are
+     * filled, so the pairs form a consistent snapshot of the segment. Different
+     * segments can be processed by different threads at the same time.
+     * 
+     * @param segment
+     *            the index of the segment,
+     *            <tt>0 &lt;= segment &lt; numberOfSegments()</tt>.
+     * @param keyList
+     *            the list to be filled with keys, can have any size.
+     * @param valueList
+     *            the list to be filled with values, can have any size.
+     */
+    public void pairs(int segment, LongArrayList keyList, DoubleArrayList valueList) {
+        LinearLongDoubleHashMap map = segments[segment];
+        synchronized (map) {
+            map.keys(keyList);
+            map.values(valueList);
+        }
+    }
+
+    /**
+     * Associates the given key with the given value. Replaces any old
+     * <tt>(key,someOtherValue)</tt> association, if existing.
+     * 
+     * @param key
+     *            the key the value shall be associated with.
+     * @param value
+     *            the value to be associated.
+     * @return <tt>true</tt> if the receiver did not already contain such a key;
+     *         <tt>false</tt> if the receiver did already contain such a key -
+     *         the new value has now replaced the formerly associated value.
+     */
+    public boolean put(long key, double value) {
+        LinearLongDoubleHashMap segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    /**
+     * Removes the given key with its associated element from the receiver, if
+     * present.
+     * 
+     * @param key
+     *            the key to be removed from the receiver.
+     * @return <tt>true</tt> if the receiver contained the specified key,
+     *         <tt>false</tt> otherwise.
+     */
+    public boolean removeKey(long key) {
+        LinearLongDoubleHashMap segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.removeKey(key);
+        }
+    }
+
+    /**
+     * Returns the number of (key,value) associations currently contained.
+     * 
+     * @return the number of (key,value) associations currently contained.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Trims the capacity of the receiver to be the receiver's current size.
+     */
+    public void trimToSize() {
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                segment.trimToSize();
+            }
+        }
+    }
+
+    /**
+     * Fills all values contained in the receiver into the specified list.
+     * Iteration order is guaranteed to be <i>identical</i> to the order used by
+     * method {@link #forEachKey(LongProcedure)}.
+     * 
+     * @param list
+     *            the list to be filled, can have any size.
+     */
+    public void values(DoubleArrayList list) {
+        list.clear();
+        DoubleArrayList segmentList = new DoubleArrayList();
+        for (int i = 0; i < segments.length; i++) {
+            LinearLongDoubleHashMap segment = segments[i];
+            synchronized (segment) {
+                segment.values(segmentList);
+            }
+            list.addAllOfFromTo(segmentList, 0, segmentList.size() - 1);
+        }
+    }
+
+    /**
+     * Returns the segment holding the given key.
+     */
+    protected LinearLongDoubleHashMap segmentFor(long key) {
+        // the high bits select the segment, the low bits the slot within it
+        return segments[HashFunctions.mix(key) >>> segmentShift];
+    }
+}
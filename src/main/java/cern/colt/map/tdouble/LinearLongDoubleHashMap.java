@@ -0,0 +1,753 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.map.tdouble;
+
+import cern.colt.function.tdouble.LongDoubleProcedure;
+import cern.colt.function.tlong.LongProcedure;
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.list.tlong.LongArrayList;
+import cern.colt.map.HashFunctions;
+
+/**
+ * Hash map holding (key,value) associations of type <tt>(long-->double)</tt>;
+ * Automatically grows and shrinks as needed; Implemented using open addressing
+ * with linear probing over power-of-two tables. First see the <a
+ * href="package-summary.html">package summary</a> and javadoc <a
+ * href="package-tree.html">tree view</a> to get the broad picture.
+ * <p>
+ * Compared to {@link OpenLongDoubleHashMap} there is no state array: a free
+ * slot is marked by the key <tt>0</tt>, and an association with the key
+ * <tt>0</tt> itself is kept outside of the table. Keys are spread with
+ * {@link HashFunctions#mix(long)}, so the slot is found with a mask instead of
+ * a modulo, and a lookup touches only the key array and, on success, the value
+ * array. Removal shifts the following entries of the probe sequence back, so
+ * no REMOVED markers are left behind and lookups never slow down after many
+ * removals.
+ *
+ * @see OpenLongDoubleHashMap
+ */
+public class LinearLongDoubleHashMap extends AbstractLongDoubleMap {
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The key marking a free slot.
+     */
+    protected static final long FREE = 0;
+
+    /**
+     * The largest capacity of the table.
+     */
+    protected static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * The hash table keys.
+     *
+     * @serial
+     */
+    protected long table[];
+
+    /**
+     * The hash table values.
+     *
+     * @serial
+     */
+    protected double values[];
+
+    /**
+     * <tt>table.length - 1</tt>.
+     *
+     * @serial
+     */
+    protected int mask;
+
+    /**
+     * Whether the receiver contains the key <tt>FREE</tt>.
+     *
+     * @serial
+     */
+    protected boolean containsFreeKey;
+
+    /**
+     * The value associated with the key <tt>FREE</tt>.
+     *
+     * @serial
+     */
+    protected double freeValue;
+
+    /**
+     * Constructs an empty map with default capacity and default load factors.
+     */
+    public LinearLongDoubleHashMap() {
+        this(defaultCapacity);
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and default
+     * load factors.
+     *
+     * @param initialCapacity
+     *            the initial capacity of the map.
+     * @throws IllegalArgumentException
+     *             if the initial capacity is less than zero.
+     */
+    public LinearLongDoubleHashMap(int initialCapacity) {
+        this(initialCapacity, defaultMinLoadFactor, defaultMaxLoadFactor);
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and the
+     * specified minimum and maximum load factor.
+     *
+     * @param initialCapacity
+     *            the initial capacity.
+     * @param minLoadFactor
+     *            the minimum load factor.
+     * @param maxLoadFactor
+     *            the maximum load factor.
+     * @throws IllegalArgumentException
+     *             if
+     *
+     *             <tt>initialCapacity < 0 || (minLoadFactor < 0.0 || minLoadFactor >= 1.0) || (maxLoadFactor <= 0.0 || maxLoadFactor >= 1.0) || (minLoadFactor >= maxLoadFactor)</tt>
+     *             .
+     */
+    public LinearLongDoubleHashMap(int initialCapacity, double minLoadFactor, double maxLoadFactor) {
+        setUp(initialCapacity, minLoadFactor, maxLoadFactor);
+    }
+
+    /**
+     * Adds the given delta to the value associated with the given key. If the
+     * key is not contained, the association <tt>(key,delta)</tt> is added.
+     * The key is looked up only once.
+     *
+     * @param key
+     *            the key.
+     * @param delta
+     *            the value to be added.
+     * @return the new value associated with the key.
+     */
+    public double addTo(long key, double delta) {
+        if (key == FREE) {
+            if (!this.containsFreeKey) {
+                this.containsFreeKey = true;
+                this.freeValue = 0;
+                this.distinct++;
+            }
+            return this.freeValue += delta;
+        }
+        int i = indexOfInsertion(key);
+        if (i < 0) { // already contained
+            return this.values[-i - 1] += delta;
+        }
+        put(key, delta);
+        return delta;
+    }
+
+    /**
+     * Assigns the result of a function to each value;
+     * <tt>v[i] = function(v[i])</tt>.
+     *
+     * @param function
+     *            a function object taking as argument the current association's
+     *            value.
+     */
+
+    public void assign(cern.colt.function.tdouble.DoubleFunction function) {
+        // specialization for speed
+        if (function instanceof cern.jet.math.tdouble.DoubleMult) { // x[i] = mult*x[i]
+            double multiplicator = ((cern.jet.math.tdouble.DoubleMult) function).multiplicator;
+            if (multiplicator == 1)
+                return;
+            if (multiplicator == 0) {
+                clear();
+                return;
+            }
+            if (containsFreeKey)
+                freeValue *= multiplicator;
+            for (int i = table.length; i-- > 0;) {
+                if (table[i] != FREE)
+                    values[i] *= multiplicator;
+            }
+        } else { // the general case x[i] = f(x[i])
+            if (containsFreeKey)
+                freeValue = function.apply(freeValue);
+            for (int i = table.length; i-- > 0;) {
+                if (table[i] != FREE)
+                    values[i] = function.apply(values[i]);
+            }
+        }
+    }
+
+    /**
+     * Clears the receiver, then adds all (key,value) pairs of <tt>other</tt>
+     * values to it.
+     *
+     * @param other
+     *            the other map to be copied into the receiver.
+     */
+
+    public void assign(AbstractLongDoubleMap other) {
+        if (!(other instanceof LinearLongDoubleHashMap)) {
+            super.assign(other);
+            return;
+        }
+        LinearLongDoubleHashMap source = (LinearLongDoubleHashMap) other;
+        LinearLongDoubleHashMap copy = (LinearLongDoubleHashMap) source.copy();
+        this.values = copy.values;
+        this.table = copy.table;
+        this.mask = copy.mask;
+        this.containsFreeKey = copy.containsFreeKey;
+        this.freeValue = copy.freeValue;
+        this.distinct = copy.distinct;
+        this.lowWaterMark = copy.lowWaterMark;
+        this.highWaterMark = copy.highWaterMark;
+        this.minLoadFactor = copy.minLoadFactor;
+        this.maxLoadFactor = copy.maxLoadFactor;
+    }
+
+    /**
+     * Removes all (key,value) associations from the receiver. Implicitly calls
+     * <tt>trimToSize()</tt>.
+     */
+
+    public void clear() {
+        java.util.Arrays.fill(this.table, FREE);
+        this.containsFreeKey = false;
+        this.freeValue = 0;
+        this.distinct = 0;
+        trimToSize();
+    }
+
+    /**
+     * Returns a deep copy of the receiver.
+     *
+     * @return a deep copy of the receiver.
+     */
+
+    public Object clone() {
+        LinearLongDoubleHashMap copy = (LinearLongDoubleHashMap) super.clone();
+        copy.table = copy.table.clone();
+        copy.values = copy.values.clone();
+        return copy;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the receiver contains the specified key.
+     *
+     * @return <tt>true</tt> if the receiver contains the specified key.
+     */
+
+    public boolean containsKey(long key) {
+        if (key == FREE)
+            return containsFreeKey;
+        return indexOfKey(key) >= 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the receiver contains the specified value.
+     *
+     * @return <tt>true</tt> if the receiver contains the specified value.
+     */
+
+    public boolean containsValue(double value) {
+        return (containsFreeKey && freeValue == value) || indexOfValue(value) >= 0;
+    }
+
+    /**
+     * Ensures that the receiver can hold at least the specified number of
+     * associations without needing to allocate new internal memory. If
+     * necessary, allocates new internal memory and increases the capacity of
+     * the receiver.
+     * <p>
+     * This method never need be called; it is for performance tuning only.
+     * Calling this method before <tt>put()</tt>ing a large number of
+     * associations boosts performance, because the receiver will grow only once
+     * instead of potentially many times.
+     *
+     * @param minCapacity
+     *            the desired minimum capacity.
+     */
+
+    public void ensureCapacity(int minCapacity) {
+        if (table.length < minCapacity) {
+            int newCapacity = nextPrime(minCapacity);
+            rehash(newCapacity);
+        }
+    }
+
+    /**
+     * Applies a procedure to each key of the receiver, if any. Note: Iterates
+     * over the keys in no particular order. Subclasses can define a particular
+     * order, for example, "sorted by key". All methods which <i>can</i> be
+     * expressed in terms of this method (most methods can) <i>must
+     * guarantee</i> to use the <i>same</i> order defined by this method, even
+     * if it is no particular order. This is necessary so that, for example,
+     * methods <tt>keys</tt> and <tt>values</tt> will yield association pairs,
+     * not two uncorrelated lists.
+     *
+     * @param procedure
+     *            the procedure to be applied. Stops iteration if the procedure
+     *            returns <tt>false</tt>, otherwise continues.
+     * @return <tt>false</tt> if the procedure stopped before all keys where
+     *         iterated over, <tt>true</tt> otherwise.
+     */
+
+    public boolean forEachKey(LongProcedure procedure) {
+        if (containsFreeKey)
+            if (!procedure.apply(FREE))
+                return false;
+        for (int i = table.length; i-- > 0;) {
+            if (table[i] != FREE)
+                if (!procedure.apply(table[i]))
+                    return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies a procedure to each (key,value) pair of the receiver, if any.
+     * Iteration order is guaranteed to be <i>identical</i> to the order used by
+     * method {@link #forEachKey(LongProcedure)}.
+     *
+     * @param procedure
+     *            the procedure to be applied. Stops iteration if the procedure
+     *            returns <tt>false</tt>, otherwise continues.
+     * @return <tt>false</tt> if the procedure stopped before all keys where
+     *         iterated over, <tt>true</tt> otherwise.
+     */
+
+    public boolean forEachPair(final LongDoubleProcedure procedure) {
+        if (containsFreeKey)
+            if (!procedure.apply(FREE, freeValue))
+                return false;
+        for (int i = table.length; i-- > 0;) {
+            if (table[i] != FREE)
+                if (!procedure.apply(table[i], values[i]))
+                    return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value associated with the specified key. It is often a good
+     * idea to first check with {@link #containsKey(long)} whether the given key
+     * has a value associated or not, i.e. whether there exists an association
+     * for the given key or not.
+     *
+     * @param key
+     *            the key to be searched for.
+     * @return the value associated with the specified key; <tt>0</tt> if no
+     *         such key is present.
+     */
+
+    public double get(long key) {
+        if (key == FREE)
+            return containsFreeKey ? freeValue : 0;
+        final long tab[] = table;
+        int i = HashFunctions.mix(key) & mask;
+        long k;
+        while ((k = tab[i]) != FREE) {
+            if (k == key)
+                return values[i];
+            i = (i + 1) & mask;
+        }
+        return 0; // not contained
+    }
+
+    /**
+     * @param key
+     *            the key to be added to the receiver; must not be
+     *            <tt>FREE</tt>.
+     * @return the index where the key would need to be inserted, if it is not
+     *         already contained. Returns -index-1 if the key is already
+     *         contained at slot index. Therefore, if the returned index < 0,
+     *         then it is already contained at slot -index-1. If the returned
+     *         index >= 0, then it is NOT already contained and should be
+     *         inserted at slot index.
+     */
+    protected int indexOfInsertion(long key) {
+        final long tab[] = table;
+        int i = HashFunctions.mix(key) & mask;
+        long k;
+        // assertion: there is at least one FREE slot.
+        while ((k = tab[i]) != FREE) {
+            if (k == key)
+                return -i - 1;
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * @param key
+     *            the key to be searched in the receiver; must not be
+     *            <tt>FREE</tt>.
+     * @return the index where the key is contained in the receiver, else
+     *         returns -1.
+     */
+    protected int indexOfKey(long key) {
+        final long tab[] = table;
+        int i = HashFunctions.mix(key) & mask;
+        long k;
+        while ((k = tab[i]) != FREE) {
+            if (k == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1; // not found
+    }
+
+    /**
+     * @param value
+     *            the value to be searched in the receiver.
+     * @return the index where the value is contained in the table of the
+     *         receiver, returns -1 if the value was not found.
+     */
+    protected int indexOfValue(double value) {
+        final double val[] = values;
+        final long tab[] = table;
+
+        for (int i = tab.length; --i >= 0;) {
+            if (tab[i] != FREE && val[i] == value)
+                return i;
+        }
+
+        return -1; // not found
+    }
+
+    /**
+     * Returns the first key the given value is associated with. It is often a
+     * good idea to first check with {@link #containsValue(double)} whether
+     * there exists an association from a key to this value. Search order is
+     * guaranteed to be <i>identical</i> to the order used by method
+     * {@link #forEachKey(LongProcedure)}.
+     *
+     * @param value
+     *            the value to search for.
+     * @return the first key for which holds <tt>get(key) == value</tt>; returns
+     *         <tt>Long.MIN_VALUE</tt> if no such key exists.
+     */
+
+    public long keyOf(double value) {
+        // returns the first key found; there may be more matching keys,
+        // however.
+        if (containsFreeKey && freeValue == value)
+            return FREE;
+        int i = indexOfValue(value);
+        if (i < 0)
+            return Long.MIN_VALUE;
+        return table[i];
+    }
+
+    /**
+     * Fills all keys contained in the receiver into the specified list. Fills
+     * the list, starting at index 0. After this call returns the specified list
+     * has a new size that equals <tt>this.size()</tt>. Iteration order is
+     * guaranteed to be <i>identical</i> to the order used by method
+     * {@link #forEachKey(LongProcedure)}.
+     * <p>
+     * This method can be used to iterate over the keys of the receiver.
+     *
+     * @param list
+     *            the list to be filled, can have any size.
+     */
+
+    public void keys(LongArrayList list) {
+        list.setSize(distinct);
+        long[] elements = list.elements();
+
+        long[] tab = table;
+
+        int j = 0;
+        if (containsFreeKey)
+            elements[j++] = FREE;
+        for (int i = tab.length; i-- > 0;) {
+            if (tab[i] != FREE)
+                elements[j++] = tab[i];
+        }
+    }
+
+    /**
+     * Fills all pairs satisfying a given condition into the specified lists.
+     * Fills into the lists, starting at index 0. After this call returns the
+     * specified lists both have a new size, the number of pairs satisfying the
+     * condition. Iteration order is guaranteed to be <i>identical</i> to the
+     * order used by method {@link #forEachKey(LongProcedure)}.
+     *
+     * @param condition
+     *            the condition to be matched. Takes the current key as first
+     *            and the current value as second argument.
+     * @param keyList
+     *            the list to be filled with keys, can have any size.
+     * @param valueList
+     *            the list to be filled with values, can have any size.
+     */
+
+    public void pairsMatching(final LongDoubleProcedure condition, final LongArrayList keyList,
+            final DoubleArrayList valueList) {
+        keyList.clear();
+        valueList.clear();
+
+        if (containsFreeKey && condition.apply(FREE, freeValue)) {
+            keyList.add(FREE);
+            valueList.add(freeValue);
+        }
+        for (int i = table.length; i-- > 0;) {
+            if (table[i] != FREE && condition.apply(table[i], values[i])) {
+                keyList.add(table[i]);
+                valueList.add(values[i]);
+            }
+        }
+    }
+
+    /**
+     * Associates the given key with the given value. Replaces any old
+     * <tt>(key,someOtherValue)</tt> association, if existing.
+     *
+     * @param key
+     *            the key the value shall be associated with.
+     * @param value
+     *            the value to be associated.
+     * @return <tt>true</tt> if the receiver did not already contain such a key;
+     *         <tt>false</tt> if the receiver did already contain such a key -
+     *         the new value has now replaced the formerly associated value.
+     */
+
+    public boolean put(long key, double value) {
+        if (key == FREE) {
+            this.freeValue = value;
+            if (this.containsFreeKey)
+                return false;
+            this.containsFreeKey = true;
+            this.distinct++;
+            return true;
+        }
+        int i = indexOfInsertion(key);
+        if (i < 0) { // already contained
+            this.values[-i - 1] = value;
+            return false;
+        }
+
+        if (this.distinct > this.highWaterMark) {
+            int newCapacity = chooseGrowCapacity(this.distinct + 1, this.minLoadFactor, this.maxLoadFactor);
+            rehash(newCapacity);
+            return put(key, value);
+        }
+
+        this.table[i] = key;
+        this.values[i] = value;
+        this.distinct++;
+        return true;
+    }
+
+    /**
+     * Rehashes the contents of the receiver into a new table with a smaller or
+     * larger capacity. This method is called automatically when the number of
+     * keys in the receiver exceeds the high water mark or falls below the low
+     * water mark.
+     *
+     * @param newCapacity
+     *            the new capacity; must be a power of two.
+     */
+    protected void rehash(int newCapacity) {
+        int oldCapacity = table.length;
+
+        if (newCapacity <= this.distinct)
+            throw new InternalError();
+
+        long oldTable[] = table;
+        double oldValues[] = values;
+
+        long newTable[] = new long[newCapacity];
+        double newValues[] = new double[newCapacity];
+        int newMask = newCapacity - 1;
+
+        this.lowWaterMark = chooseLowWaterMark(newCapacity, this.minLoadFactor);
+        this.highWaterMark = chooseHighWaterMark(newCapacity, this.maxLoadFactor);
+
+        for (int i = oldCapacity; i-- > 0;) {
+            long element = oldTable[i];
+            if (element != FREE) {
+                int index = HashFunctions.mix(element) & newMask;
+                while (newTable[index] != FREE) {
+                    index = (index + 1) & newMask;
+                }
+                newTable[index] = element;
+                newValues[index] = oldValues[i];
+            }
+        }
+
+        this.table = newTable;
+        this.values = newValues;
+        this.mask = newMask;
+    }
+
+    /**
+     * Removes the given key with its associated element from the receiver, if
+     * present.
+     *
+     * @param key
+     *            the key to be removed from the receiver.
+     * @return <tt>true</tt> if the receiver contained the specified key,
+     *         <tt>false</tt> otherwise.
+     */
+
+    public boolean removeKey(long key) {
+        if (key == FREE) {
+            if (!this.containsFreeKey)
+                return false;
+            this.containsFreeKey = false;
+            this.freeValue = 0;
+            this.distinct--;
+            return true;
+        }
+        int i = indexOfKey(key);
+        if (i < 0)
+            return false; // key not contained
+
+        shiftKeys(i);
+        this.distinct--;
+
+        if (this.distinct < this.lowWaterMark) {
+            int newCapacity = chooseShrinkCapacity(this.distinct, this.minLoadFactor, this.maxLoadFactor);
+            rehash(newCapacity);
+        }
+
+        return true;
+    }
+
+    /**
+     * Initializes the receiver.
+     *
+     * @param initialCapacity
+     *            the initial capacity of the receiver.
+     * @param minLoadFactor
+     *            the minLoadFactor of the receiver.
+     * @param maxLoadFactor
+     *            the maxLoadFactor of the receiver.
+     * @throws IllegalArgumentException
+     *             if
+     *
+     *             <tt>initialCapacity < 0 || (minLoadFactor < 0.0 || minLoadFactor >= 1.0) || (maxLoadFactor <= 0.0 || maxLoadFactor >= 1.0) || (minLoadFactor >= maxLoadFactor)</tt>
+     *             .
+     */
+
+    protected void setUp(int initialCapacity, double minLoadFactor, double maxLoadFactor) {
+        super.setUp(initialCapacity, minLoadFactor, maxLoadFactor);
+        int capacity = nextPrime(initialCapacity);
+
+        this.table = new long[capacity];
+        this.values = new double[capacity];
+        this.mask = capacity - 1;
+
+        this.minLoadFactor = minLoadFactor;
+        if (capacity == MAX_CAPACITY)
+            this.maxLoadFactor = 1.0;
+        else
+            this.maxLoadFactor = maxLoadFactor;
+
+        this.distinct = 0;
+        this.containsFreeKey = false;
+
+        // lowWaterMark will be established upon first expansion.
+        // see OpenLongDoubleHashMap.setUp(...)
+        this.lowWaterMark = 0;
+        this.highWaterMark = chooseHighWaterMark(capacity, this.maxLoadFactor);
+    }
+
+    /**
+     * Trims the capacity of the receiver to be the receiver's current size.
+     * Releases any superfluous internal memory. An application can use this
+     * operation to minimize the storage of the receiver.
+     */
+
+    public void trimToSize() {
+        int newCapacity = nextPrime((int) (1 + 1.2 * size()));
+        if (table.length > newCapacity) {
+            rehash(newCapacity);
+        }
+    }
+
+    /**
+     * Fills all values contained in the receiver into the specified list. Fills
+     * the list, starting at index 0. After this call returns the specified list
+     * has a new size that equals <tt>this.size()</tt>. Iteration order is
+     * guaranteed to be <i>identical</i> to the order used by method
+     * {@link #forEachKey(LongProcedure)}.
+     * <p>
+     * This method can be used to iterate over the values of the receiver.
+     *
+     * @param list
+     *            the list to be filled, can have any size.
+     */
+
+    public void values(DoubleArrayList list) {
+        list.setSize(distinct);
+        double[] elements = list.elements();
+
+        double[] val = values;
+        long[] tab = table;
+
+        int j = 0;
+        if (containsFreeKey)
+            elements[j++] = freeValue;
+        for (int i = tab.length; i-- > 0;) {
+            if (tab[i] != FREE)
+                elements[j++] = val[i];
+        }
+    }
+
+    /**
+     * Returns the smallest power of two greater than or equal to the desired
+     * capacity (at least <tt>2</tt>). Linear probing uses power-of-two tables
+     * in place of the prime capacities of double hashing; all capacities
+     * chosen by {@link cern.colt.map.AbstractMap} pass through this method.
+     *
+     * @param desiredCapacity
+     *            the capacity desired by the user.
+     * @return the capacity which should be used for a hashtable.
+     */
+    protected int nextPrime(int desiredCapacity) {
+        if (desiredCapacity >= MAX_CAPACITY)
+            return MAX_CAPACITY;
+        int capacity = 2;
+        while (capacity < desiredCapacity)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    /**
+     * Removes the entry at the given slot and shifts the following entries of
+     * its probe sequence back, so that no gap is left in any probe sequence.
+     */
+    private void shiftKeys(int pos) {
+        final long tab[] = table;
+        final double val[] = values;
+        int last;
+        long k;
+        for (;;) {
+            pos = ((last = pos) + 1) & mask;
+            for (;;) {
+                if ((k = tab[pos]) == FREE) {
+                    tab[last] = FREE;
+                    return;
+                }
+                int slot = HashFunctions.mix(k) & mask;
+                // move the entry to last unless its slot lies cyclically in (last, pos]
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+                pos = (pos + 1) & mask;
+            }
+            tab[last] = k;
+            val[last] = val[pos];
+        }
+    }
+}
@@ -8,6 +8,11 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix;
 
+import java.util.Arrays;
+import java.util.concurrent.Future;
+
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
 /**
  * Abstract base class for 2-d matrices holding objects or primitive data types
  * such as <code>int</code>, <code>double</code>, etc. First see the <a
@@ -199,6 +204,135 @@ public abstract class AbstractMatrix2D extends AbstractMatrix {
         return columnStride;
     }
 
+    /**
+     * Computes the new positions of the entries of a compressed sparse matrix
+     * after summing duplicate entries, in parallel. Each thread processes a
+     * contiguous range of outer indexes (rows for the compressed row format,
+     * columns for the compressed column format) using its own workspace. The
+     * first occurrence of an inner index within a row (column) is kept, all
+     * later occurrences are mapped onto it.
+     * 
+     * @param pointers
+     *            row (column) pointers, not modified
+     * @param indexes
+     *            column (row) indexes, not modified
+     * @param nouter
+     *            the number of rows (columns)
+     * @param ninner
+     *            the number of columns (rows)
+     * @param target
+     *            on output, <tt>target[p]</tt> is the position of entry
+     *            <tt>p</tt> after duplicates have been summed
+     * @return the row (column) pointers after duplicates have been summed
+     */
+    protected static int[] compressDuplicates(final int[] pointers, final int[] indexes, final int nouter,
+            final int ninner, final int[] target) {
+        final int[] newPointers = new int[nouter + 1];
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        final int[] totals = new int[nthreads];
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            final int threadIdx = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    int[] w = new int[ninner];
+                    Arrays.fill(w, -1);
+                    int nz = 0;
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        int q = nz;
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            int i = indexes[p];
+                            if (w[i] >= q) {
+                                target[p] = w[i];
+                            } else {
+                                w[i] = nz;
+                                target[p] = nz++;
+                            }
+                        }
+                        newPointers[r] = q;
+                    }
+                    totals[threadIdx] = nz;
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        int nz = 0;
+        for (int j = 0; j < nthreads; j++) {
+            int t = totals[j];
+            totals[j] = nz;
+            nz += t;
+        }
+        newPointers[nouter] = nz;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            final int offset = totals[j];
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    if (offset == 0) {
+                        return;
+                    }
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        newPointers[r] += offset;
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            target[p] += offset;
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return newPointers;
+    }
+
+    /**
+     * Converts the indexes of a sparse matrix given in the coordinate format
+     * into the compressed format, in parallel. The entries are distributed by
+     * a stable counting sort: each thread builds a histogram of its own range
+     * of entries, the histograms are combined by a prefix sum and then each
+     * thread scatters its entries into the compressed arrays. Within a row
+     * (column) the entries keep the order in which they were given.
+     * 
+     * @param outerIndexes
+     *            row indexes for the compressed row format, column indexes
+     *            for the compressed column format
+     * @param innerIndexes
+     *            column indexes for the compressed row format, row indexes
+     *            for the compressed column format
+     * @param nz
+     *            the number of entries
+     * @param nouter
+     *            the number of rows (columns)
+     * @param pointers
+     *            on output, the <tt>nouter+1</tt> row (column) pointers
+     * @param compressedIndexes
+     *            on output, the column (row) indexes in the compressed format
+     * @return the position of each entry in the compressed arrays
+     */
+    protected static int[] compressIndexes(final int[] outerIndexes, final int[] innerIndexes, final int nz,
+            final int nouter, final int[] pointers, final int[] compressedIndexes) {
+        final int[] dest = bucketPositions(outerIndexes, nz, nouter, pointers);
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        compressedIndexes[dest[p]] = innerIndexes[p];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return dest;
+    }
+
     /**
      * Returns the position of the given coordinate within the (virtual or
      * non-virtual) internal 1-dimensional array.
@@ -287,7 +421,66 @@ public abstract class AbstractMatrix2D extends AbstractMatrix {
      */
 
     public long size() {
-        return rows * columns;
+        return (long) rows * columns;
+    }
+
+    /**
+     * Sorts the column (row) indexes within each row (column) of a compressed
+     * sparse matrix, in parallel. The indexes are first distributed by inner
+     * index and then, stably, by outer index, which is the parallel
+     * counterpart of transposing the matrix twice.
+     * 
+     * @param pointers
+     *            row (column) pointers, not modified
+     * @param indexes
+     *            column (row) indexes, sorted in place
+     * @param nouter
+     *            the number of rows (columns)
+     * @param ninner
+     *            the number of columns (rows)
+     * @return the new position of each entry
+     */
+    protected static int[] sortIndexes(final int[] pointers, final int[] indexes, final int nouter, final int ninner) {
+        final int nz = pointers[nouter];
+        final int[] byInner = bucketPositions(indexes, nz, ninner, new int[ninner + 1]);
+        final int[] outer = new int[nz];
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            outer[byInner[p]] = r;
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        final int[] byOuter = bucketPositions(outer, nz, nouter, new int[nouter + 1]);
+        final int[] sorted = outer;
+        nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        futures = new Future[nthreads];
+        k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        byInner[p] = byOuter[byInner[p]];
+                        sorted[byInner[p]] = indexes[p];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        System.arraycopy(sorted, 0, indexes, 0, nz);
+        return byInner;
     }
 
     /**
@@ -378,4 +571,57 @@ public abstract class AbstractMatrix2D extends AbstractMatrix {
         this.isNoView = false;
         return this;
     }
+
+    /**
+     * Stable parallel counting sort of the given keys. Returns the position
+     * of each key in sorted order; <tt>pointers</tt> receives the start of
+     * each bucket. Every thread counts into its own array of
+     * <tt>nbuckets</tt> entries, so the number of threads is capped at
+     * <tt>n / nbuckets</tt> to keep the scratch space within <tt>O(n +
+     * nbuckets)</tt>.
+     */
+    private static int[] bucketPositions(final int[] keys, final int n, final int nbuckets, final int[] pointers) {
+        final int[] dest = new int[n];
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), n / Math.max(1, nbuckets)));
+        final int[][] counts = new int[nthreads][nbuckets];
+        Future<?>[] futures = new Future[nthreads];
+        int k = n / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+            final int[] count = counts[j];
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        count[keys[p]]++;
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        int nz = 0;
+        for (int b = 0; b < nbuckets; b++) {
+            pointers[b] = nz;
+            for (int j = 0; j < nthreads; j++) {
+                int c = counts[j][b];
+                counts[j][b] = nz;
+                nz += c;
+            }
+        }
+        pointers[nbuckets] = nz;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+            final int[] count = counts[j];
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        dest[p] = count[keys[p]]++;
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        return dest;
+    }
 }
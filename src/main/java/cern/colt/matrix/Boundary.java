@@ -0,0 +1,67 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.matrix;
+
+/**
+ * Boundary handling modes of the neighbor stencil transformations
+ * (<tt>zAssign8Neighbors</tt>, <tt>zAssign27Neighbors</tt>). A mode defines
+ * what value is used for a neighbor lying outside of the matrix.
+ *
+ */
+public enum Boundary {
+
+    /**
+     * Border cells are not computed, i.e. the corresponding cells of the
+     * result matrix are left untouched.
+     */
+    Skip,
+
+    /**
+     * Neighbors outside of the matrix take the value of the nearest border
+     * cell.
+     */
+    Clamp,
+
+    /**
+     * Neighbors outside of the matrix are taken from the opposite side
+     * (periodic boundary).
+     */
+    Wrap,
+
+    /**
+     * Neighbors outside of the matrix take a given constant value.
+     */
+    Constant;
+
+    /**
+     * Maps a (possibly out of range) coordinate onto the range
+     * <tt>[0, size)</tt> according to this mode.
+     *
+     * @param index
+     *            the coordinate.
+     * @param size
+     *            the extent of the dimension.
+     * @return the mapped coordinate, or <tt>-1</tt> if the coordinate is out
+     *         of range and there is no corresponding cell (<tt>Skip</tt>,
+     *         <tt>Constant</tt>).
+     */
+    public int map(int index, int size) {
+        if (index >= 0 && index < size)
+            return index;
+        switch (this) {
+        case Clamp:
+            return index < 0 ? 0 : size - 1;
+        case Wrap:
+            index %= size;
+            return index < 0 ? index + size : index;
+        default:
+            return -1;
+        }
+    }
+}
@@ -8,6 +8,11 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tbit;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
 /**
  * Fixed sized (non resizable) bitvector. Upon instance construction a bitvector
  * is told to hold a fixed number of bits - it's size. The size can be any
@@ -72,6 +77,14 @@ public class BitVector extends cern.colt.PersistentObject {
 
     private static final long serialVersionUID = 1L;
 
+    private static final int AND = 0;
+
+    private static final int OR = 1;
+
+    private static final int XOR = 2;
+
+    private static final int AND_NOT = 3;
+
     /**
      * The bits of this object. The ith bit is stored in bits[i/64] at bit
      * position i % 64 (where bit position 0 refers to the least significant bit
@@ -143,10 +156,7 @@ public class BitVector extends cern.colt.PersistentObject {
         if (this == other)
             return;
         checkSize(other);
-        final long[] theBits = this.bits; // cached for speed.
-        final long[] otherBits = other.bits; // cached for speed.
-        for (int i = theBits.length; --i >= 0;)
-            theBits[i] &= otherBits[i];
+        bitwise(other.bits, AND);
     }
 
     /**
@@ -161,45 +171,103 @@ public class BitVector extends cern.colt.PersistentObject {
      */
     public void andNot(BitVector other) {
         checkSize(other);
-        final long[] theBits = this.bits; // cached for speed.
-        final long[] otherBits = other.bits; // cached for speed.
-        for (int i = theBits.length; --i >= 0;)
-            theBits[i] &= ~otherBits[i];
+        bitwise(other.bits, AND_NOT);
     }
 
     /**
      * Returns the number of bits currently in the <tt>true</tt> state.
-     * Optimized for speed. Particularly quick if the receiver is either sparse
-     * or dense.
+     * Optimized for speed: each unit is counted with <tt>Long.bitCount</tt>,
+     * which compiles to the hardware population count instruction, and long
+     * vectors are counted concurrently.
      */
     public int cardinality() {
         int cardinality = 0;
-        int fullUnits = numberOfFullUnits();
-        final int bitsPerUnit = QuickBitVector.BITS_PER_UNIT;
+        final int fullUnits = numberOfFullUnits();
+        final long[] theBits = bits; // cached for speed.
 
         // determine cardinality on full units
-        final long[] theBits = bits;
-        for (int i = fullUnits; --i >= 0;) {
-            long val = theBits[i];
-            if (val == -1L) { // all bits set?
-                cardinality += bitsPerUnit;
-            } else if (val != 0L) { // more than one bit set?
-                for (int j = bitsPerUnit; --j >= 0;) {
-                    if ((val & (1L << j)) != 0)
-                        cardinality++;
-                }
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (fullUnits >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, fullUnits);
+            Future<?>[] futures = new Future[nthreads];
+            int k = fullUnits / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? fullUnits : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<Integer>() {
+                    public Integer call() throws Exception {
+                        int cardinality = 0;
+                        for (int i = firstIdx; i < lastIdx; i++) {
+                            cardinality += Long.bitCount(theBits[i]);
+                        }
+                        return cardinality;
+                    }
+                });
+            }
+            cardinality = ConcurrencyUtils.waitForCompletion(futures, cern.jet.math.tint.IntFunctions.plus);
+        } else {
+            for (int i = fullUnits; --i >= 0;) {
+                cardinality += Long.bitCount(theBits[i]);
             }
         }
 
         // determine cardinality on remaining partial unit, if any.
-        for (int j = numberOfBitsInPartialUnit(); --j >= 0;) {
-            if ((theBits[fullUnits] & (1L << j)) != 0)
-                cardinality++;
+        int partialWidth = numberOfBitsInPartialUnit();
+        if (partialWidth > 0) {
+            cardinality += Long.bitCount(theBits[fullUnits]
+                    & QuickBitVector.bitMaskWithBitsSetFromTo(0, partialWidth - 1));
         }
 
         return cardinality;
     }
 
+    /**
+     * Combines the bits of the receiver with the given bits unit by unit, in
+     * parallel for long vectors.
+     */
+    private void bitwise(final long[] otherBits, final int op) {
+        final long[] theBits = this.bits; // cached for speed.
+        int n = theBits.length;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, n);
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        bitwise(theBits, otherBits, firstIdx, lastIdx, op);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            bitwise(theBits, otherBits, 0, n, op);
+        }
+    }
+
+    private static void bitwise(long[] theBits, long[] otherBits, int from, int to, int op) {
+        switch (op) {
+        case AND:
+            for (int i = from; i < to; i++)
+                theBits[i] &= otherBits[i];
+            break;
+        case OR:
+            for (int i = from; i < to; i++)
+                theBits[i] |= otherBits[i];
+            break;
+        case XOR:
+            for (int i = from; i < to; i++)
+                theBits[i] ^= otherBits[i];
+            break;
+        default:
+            for (int i = from; i < to; i++)
+                theBits[i] &= ~otherBits[i];
+        }
+    }
+
     /**
      * Checks if the given range is within the contained array's bounds.
      */
@@ -476,25 +544,16 @@ public class BitVector extends cern.colt.PersistentObject {
             long val = theBits[unit];
             if (val != comparator) {
                 // at least one element within current unit matches.
-                // iterate over all bits within current unit.
-                if (state) {
-                    for (int j = 0, k = bitsPerUnit; --k >= 0; i++) {
-                        if ((val & (1L << j++)) != 0L) { // is bit set?
-                            if (!procedure.apply(i))
-                                return false;
-                        }
-                    }
-                } else {
-                    for (int j = 0, k = bitsPerUnit; --k >= 0; i++) {
-                        if ((val & (1L << j++)) == 0L) { // is bit cleared?
-                            if (!procedure.apply(i))
-                                return false;
-                        }
-                    }
+                // jump from one matching bit to the next.
+                if (!state)
+                    val = ~val;
+                while (val != 0L) {
+                    if (!procedure.apply(i + Long.numberOfTrailingZeros(val)))
+                        return false;
+                    val &= val - 1; // clear lowest matching bit
                 }
-            } else {
-                i += bitsPerUnit;
             }
+            i += bitsPerUnit;
         }
 
         // System.out.println("trail with i="+i);
@@ -681,10 +740,7 @@ public class BitVector extends cern.colt.PersistentObject {
         if (this == other)
             return;
         checkSize(other);
-        final long[] theBits = this.bits; // cached for speed.
-        final long[] otherBits = other.bits; // cached for speed.
-        for (int i = theBits.length; --i >= 0;)
-            theBits[i] |= otherBits[i];
+        bitwise(other.bits, OR);
     }
 
     /**
@@ -1012,9 +1068,6 @@ public class BitVector extends cern.colt.PersistentObject {
      */
     public void xor(BitVector other) {
         checkSize(other);
-        final long[] theBits = this.bits; // cached for speed.
-        final long[] otherBits = other.bits; // cached for speed.
-        for (int i = theBits.length; --i >= 0;)
-            theBits[i] ^= otherBits[i];
+        bitwise(other.bits, XOR);
     }
 }
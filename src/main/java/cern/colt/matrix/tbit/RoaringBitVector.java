@@ -0,0 +1,1177 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.matrix.tbit;
+
+import java.util.concurrent.Future;
+
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Fixed sized (non resizable) compressed bitvector. Has the same semantics as
+ * {@link BitVector}: it holds a fixed number of bits - its size - indexed by
+ * <tt>0..size()-1</tt>, and any attempt to access a bit outside this range
+ * throws an <tt>IndexOutOfBoundsException</tt>.
+ * <p>
+ * The storage follows the <i>Roaring</i> layout of Chambi, Lemire et al. The
+ * index space is cut into chunks of <tt>2^16</tt> bits, keyed by the high 16
+ * bits of an index. Chunks without any bit in state <tt>true</tt> are not
+ * stored at all. A chunk with at most 4096 bits set is stored as a sorted
+ * array of 16 bit offsets, a denser chunk as a plain 8 KB bitmap. Thus a
+ * vector never takes more than about 2 bytes per set bit, nor more than
+ * <tt>size()/8</tt> bytes plus a small overhead. Sparse masks over billions
+ * of bits, for which a <tt>BitVector</tt> would be prohibitively large,
+ * become cheap.
+ * <p>
+ * Each chunk keeps its own cardinality, so <tt>cardinality()</tt> runs in
+ * time proportional to the number of chunks, and <tt>rank(...)</tt> and
+ * <tt>select(...)</tt> only ever scan a single chunk. Dense chunks are counted
+ * with <tt>Long.bitCount</tt>, which compiles to the hardware population
+ * count instruction. The bulk operations <tt>and, or, xor, andNot, not</tt> as
+ * well as conversions from and to <tt>BitVector</tt> and <tt>BitMatrix</tt>
+ * process chunks concurrently.
+ * <p>
+ * Operations involving two bitvectors (like AND, OR, XOR, etc.) will throw an
+ * <tt>IllegalArgumentException</tt> if both do not have the same size.
+ * <p>
+ * <b>Note</b> that this implementation is not synchronized.
+ *
+ * @see BitVector
+ * @see BitMatrix
+ */
+public class RoaringBitVector extends cern.colt.PersistentObject {
+    private static final long serialVersionUID = 1L;
+
+    /*
+     * A chunk holds 2^16 bits, requiring 16 address bits; as a bitmap it takes
+     * 1024 units of 64 bits. Chunks with up to ARRAY_MAX bits set are kept as
+     * sorted arrays, as these never take more space than the bitmap.
+     */
+    private static final int CHUNK_BITS = 16;
+
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    private static final int CHUNK_UNITS = 1 << (CHUNK_BITS - QuickBitVector.ADDRESS_BITS_PER_UNIT);
+
+    private static final int ARRAY_MAX = 4096;
+
+    private static final int AND = 0;
+
+    private static final int OR = 1;
+
+    private static final int XOR = 2;
+
+    private static final int AND_NOT = 3;
+
+    /**
+     * The high 16 bits of the indexes held by each chunk, ascending.
+     *
+     * @serial
+     */
+    protected char[] keys;
+
+    /**
+     * The chunks, <tt>chunks[i]</tt> holding the bits of key <tt>keys[i]</tt>.
+     *
+     * @serial
+     */
+    protected Chunk[] chunks;
+
+    protected int nchunks; // the number of chunks in use
+
+    protected int nbits; // the size
+
+    /**
+     * The set bits of a chunk, either as a sorted array of offsets or as a
+     * bitmap.
+     */
+    protected static final class Chunk implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+
+        char[] array; // sorted offsets, used if bitmap == null
+
+        long[] bitmap; // CHUNK_UNITS units, used if cardinality > ARRAY_MAX
+
+        int cardinality;
+
+        Chunk(char[] array, int cardinality) {
+            this.array = array;
+            this.cardinality = cardinality;
+        }
+
+        Chunk(long[] bitmap, int cardinality) {
+            this.bitmap = bitmap;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * Returns a chunk holding the bits of the given bitmap, or
+         * <tt>null</tt> if no bit is set. The bitmap is not copied.
+         */
+        static Chunk valueOf(long[] bitmap) {
+            int cardinality = 0;
+            for (int i = 0; i < CHUNK_UNITS; i++) {
+                cardinality += Long.bitCount(bitmap[i]);
+            }
+            if (cardinality == 0)
+                return null;
+            if (cardinality > ARRAY_MAX)
+                return new Chunk(bitmap, cardinality);
+            char[] array = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < CHUNK_UNITS; i++) {
+                long val = bitmap[i];
+                while (val != 0L) {
+                    array[n++] = (char) ((i << QuickBitVector.ADDRESS_BITS_PER_UNIT) + Long.numberOfTrailingZeros(val));
+                    val &= val - 1;
+                }
+            }
+            return new Chunk(array, cardinality);
+        }
+
+        Chunk copy() {
+            if (bitmap != null)
+                return new Chunk(bitmap.clone(), cardinality);
+            char[] copy = new char[cardinality];
+            System.arraycopy(array, 0, copy, 0, cardinality);
+            return new Chunk(copy, cardinality);
+        }
+
+        /**
+         * Returns the position of <tt>offset</tt> in the array, or
+         * <tt>-(insertion point) - 1</tt> if it is not contained.
+         */
+        int search(int offset) {
+            int low = 0;
+            int high = cardinality - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midVal = array[mid];
+                if (midVal < offset)
+                    low = mid + 1;
+                else if (midVal > offset)
+                    high = mid - 1;
+                else
+                    return mid;
+            }
+            return -(low + 1);
+        }
+
+        boolean get(int offset) {
+            if (bitmap != null)
+                return QuickBitVector.get(bitmap, offset);
+            return search(offset) >= 0;
+        }
+
+        void set(int offset) {
+            if (bitmap != null) {
+                if (!QuickBitVector.get(bitmap, offset)) {
+                    QuickBitVector.set(bitmap, offset);
+                    cardinality++;
+                }
+                return;
+            }
+            int pos = search(offset);
+            if (pos >= 0)
+                return;
+            pos = -pos - 1;
+            if (cardinality == ARRAY_MAX) { // switch to a bitmap
+                bitmap = words();
+                array = null;
+                QuickBitVector.set(bitmap, offset);
+                cardinality++;
+                return;
+            }
+            if (cardinality == array.length) {
+                char[] grown = new char[Math.min(ARRAY_MAX, Math.max(4, 2 * cardinality))];
+                System.arraycopy(array, 0, grown, 0, pos);
+                System.arraycopy(array, pos, grown, pos + 1, cardinality - pos);
+                array = grown;
+            } else {
+                System.arraycopy(array, pos, array, pos + 1, cardinality - pos);
+            }
+            array[pos] = (char) offset;
+            cardinality++;
+        }
+
+        void clear(int offset) {
+            if (bitmap != null) {
+                if (QuickBitVector.get(bitmap, offset)) {
+                    QuickBitVector.clear(bitmap, offset);
+                    if (--cardinality == ARRAY_MAX) { // switch to an array
+                        array = valueOf(bitmap).array;
+                        bitmap = null;
+                    }
+                }
+                return;
+            }
+            int pos = search(offset);
+            if (pos < 0)
+                return;
+            System.arraycopy(array, pos + 1, array, pos, cardinality - pos - 1);
+            cardinality--;
+        }
+
+        /**
+         * Returns the bits as a bitmap; the bitmap of a dense chunk is not
+         * copied.
+         */
+        long[] words() {
+            if (bitmap != null)
+                return bitmap;
+            long[] words = new long[CHUNK_UNITS];
+            for (int i = 0; i < cardinality; i++) {
+                QuickBitVector.set(words, array[i]);
+            }
+            return words;
+        }
+
+        /**
+         * Returns the number of set bits at offsets <tt>0..offset</tt>.
+         */
+        int rank(int offset) {
+            if (bitmap == null) {
+                int pos = search(offset);
+                return (pos >= 0) ? pos + 1 : -pos - 1;
+            }
+            int unit = QuickBitVector.unit(offset);
+            int rank = 0;
+            for (int i = 0; i < unit; i++) {
+                rank += Long.bitCount(bitmap[i]);
+            }
+            return rank + Long.bitCount(bitmap[unit] & QuickBitVector.bitMaskWithBitsSetFromTo(0, QuickBitVector.offset(offset)));
+        }
+
+        /**
+         * Returns the offset of the <tt>j</tt>-th set bit.
+         */
+        int select(int j) {
+            if (bitmap == null)
+                return array[j];
+            int unit = 0;
+            int count;
+            while ((count = Long.bitCount(bitmap[unit])) <= j) {
+                j -= count;
+                unit++;
+            }
+            long val = bitmap[unit];
+            for (; j > 0; j--) {
+                val &= val - 1;
+            }
+            return (unit << QuickBitVector.ADDRESS_BITS_PER_UNIT) + Long.numberOfTrailingZeros(val);
+        }
+
+        /**
+         * Returns the smallest set offset not less than <tt>offset</tt>, or
+         * <tt>-1</tt> if there is none.
+         */
+        int next(int offset) {
+            if (bitmap == null) {
+                int pos = search(offset);
+                if (pos < 0)
+                    pos = -pos - 1;
+                return (pos < cardinality) ? array[pos] : -1;
+            }
+            int unit = QuickBitVector.unit(offset);
+            long val = bitmap[unit] & (~0L << QuickBitVector.offset(offset));
+            while (val == 0L) {
+                if (++unit == CHUNK_UNITS)
+                    return -1;
+                val = bitmap[unit];
+            }
+            return (unit << QuickBitVector.ADDRESS_BITS_PER_UNIT) + Long.numberOfTrailingZeros(val);
+        }
+
+        boolean equalBits(Chunk other) {
+            if (cardinality != other.cardinality)
+                return false;
+            if (bitmap != null)
+                return java.util.Arrays.equals(bitmap, other.bitmap);
+            for (int i = 0; i < cardinality; i++) {
+                if (array[i] != other.array[i])
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Constructs a bit vector that holds <tt>size</tt> bits. All bits are
+     * initially <tt>false</tt>.
+     *
+     * @param size
+     *            the number of bits the bit vector shall have.
+     * @throws IllegalArgumentException
+     *             if <tt>size &lt; 0</tt>.
+     */
+    public RoaringBitVector(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("Negative size: " + size);
+        this.nbits = size;
+        this.keys = new char[4];
+        this.chunks = new Chunk[4];
+    }
+
+    /**
+     * Constructs a compressed copy of the given bit vector, with the same size
+     * and the same bits set to <tt>true</tt>.
+     *
+     * @param vector
+     *            the bit vector to be copied.
+     */
+    public RoaringBitVector(BitVector vector) {
+        this(vector.size());
+        final long[] bits = vector.elements();
+        final int size = vector.size();
+        final int n = (size + CHUNK_MASK) >>> CHUNK_BITS;
+        final Chunk[] parts = new Chunk[n];
+        int nthreads = numberOfThreads(n);
+        if (nthreads > 1) {
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstKey = j * k;
+                final int lastKey = (j == nthreads - 1) ? n : firstKey + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int key = firstKey; key < lastKey; key++) {
+                            parts[key] = chunkOf(bits, size, key);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int key = 0; key < n; key++) {
+                parts[key] = chunkOf(bits, size, key);
+            }
+        }
+        setChunks(parts, null, n);
+    }
+
+    /**
+     * Constructs a compressed copy of the given bit matrix. The bit at
+     * <tt>(column,row)</tt> is held at index <tt>row*columns()+column</tt>, so
+     * the size is <tt>matrix.size()</tt>.
+     *
+     * @param matrix
+     *            the bit matrix to be copied.
+     * @see #toBitMatrix(int, int)
+     */
+    public RoaringBitVector(BitMatrix matrix) {
+        this(matrix.toBitVector());
+    }
+
+    /**
+     * Performs a logical <b>AND</b> of the receiver with another bit vector (A
+     * = A & B). The receiver is modified so that a bit in it has the value
+     * <code>true</code> if and only if it already had the value
+     * <code>true</code> and the corresponding bit in the other bit vector
+     * argument has the value <code>true</code>.
+     *
+     * @param other
+     *            a bit vector.
+     * @throws IllegalArgumentException
+     *             if <tt>size() != other.size()</tt>.
+     */
+    public void and(RoaringBitVector other) {
+        if (this == other)
+            return;
+        apply(other, AND);
+    }
+
+    /**
+     * Clears all of the bits in receiver whose corresponding bit is set in the
+     * other bitvector (A = A \ B). In other words, determines the difference
+     * (A=A\B) between two bitvectors.
+     *
+     * @param other
+     *            a bitvector with which to mask the receiver.
+     * @throws IllegalArgumentException
+     *             if <tt>size() != other.size()</tt>.
+     */
+    public void andNot(RoaringBitVector other) {
+        if (this == other) {
+            checkSize(other);
+            clear();
+            return;
+        }
+        apply(other, AND_NOT);
+    }
+
+    /**
+     * Returns the number of bits currently in the <tt>true</tt> state. Runs in
+     * time proportional to the number of non-empty chunks.
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < nchunks; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Checks if the given index is within range.
+     */
+    protected void checkIndex(int bitIndex) {
+        if (bitIndex < 0 || bitIndex >= nbits)
+            throw new IndexOutOfBoundsException(String.valueOf(bitIndex));
+    }
+
+    /**
+     * Sanity check for operations requiring another bitvector with the same
+     * size.
+     */
+    protected void checkSize(RoaringBitVector other) {
+        if (nbits != other.size())
+            throw new IllegalArgumentException("Incompatible sizes: size=" + nbits + ", other.size()=" + other.size());
+    }
+
+    /**
+     * Clears all bits of the receiver.
+     */
+    public void clear() {
+        for (int i = 0; i < nchunks; i++) {
+            chunks[i] = null;
+        }
+        nchunks = 0;
+    }
+
+    /**
+     * Changes the bit with index <tt>bitIndex</tt> to the "clear" (
+     * <tt>false</tt>) state.
+     *
+     * @param bitIndex
+     *            the index of the bit to be cleared.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>bitIndex&lt;0 || bitIndex&gt;=size()</tt>
+     */
+    public void clear(int bitIndex) {
+        checkIndex(bitIndex);
+        int pos = indexOfKey(bitIndex >>> CHUNK_BITS);
+        if (pos < 0)
+            return;
+        Chunk chunk = chunks[pos];
+        chunk.clear(bitIndex & CHUNK_MASK);
+        if (chunk.cardinality == 0) {
+            System.arraycopy(keys, pos + 1, keys, pos, nchunks - pos - 1);
+            System.arraycopy(chunks, pos + 1, chunks, pos, nchunks - pos - 1);
+            chunks[--nchunks] = null;
+        }
+    }
+
+    /**
+     * Cloning this <code>RoaringBitVector</code> produces a new
+     * <code>RoaringBitVector</code> that is equal to it. The clone of the bit
+     * vector is another bit vector that has exactly the same bits set to
+     * <code>true</code> as this bit vector and the same current size, but
+     * independent state.
+     *
+     * @return a deep copy of this bit vector.
+     */
+    public Object clone() {
+        RoaringBitVector clone = (RoaringBitVector) super.clone();
+        clone.keys = this.keys.clone();
+        clone.chunks = new Chunk[this.chunks.length];
+        for (int i = 0; i < nchunks; i++) {
+            clone.chunks[i] = this.chunks[i].copy();
+        }
+        return clone;
+    }
+
+    /**
+     * Returns a deep copy of the receiver; calls <code>clone()</code> and casts
+     * the result.
+     *
+     * @return a deep copy of the receiver.
+     */
+    public RoaringBitVector copy() {
+        return (RoaringBitVector) clone();
+    }
+
+    /**
+     * Compares this object against the specified object. The result is
+     * <code>true</code> if and only if the argument is not <code>null</code>
+     * and is a <code>RoaringBitVector</code> object that has the same size as
+     * the receiver and the same bits set to <code>true</code> as the receiver.
+     *
+     * @param obj
+     *            the object to compare with.
+     * @return <code>true</code> if the objects are the same; <code>false</code>
+     *         otherwise.
+     */
+    public boolean equals(Object obj) {
+        if (obj == null || !(obj instanceof RoaringBitVector))
+            return false;
+        if (this == obj)
+            return true;
+        RoaringBitVector other = (RoaringBitVector) obj;
+        if (nbits != other.nbits || nchunks != other.nchunks)
+            return false;
+        for (int i = 0; i < nchunks; i++) {
+            if (keys[i] != other.keys[i] || !chunks[i].equalBits(other.chunks[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies a procedure to each bit index in state <tt>true</tt>, in
+     * ascending order. Chunks held as bitmaps are scanned a unit at a time,
+     * skipping empty units and jumping from one set bit to the next.
+     *
+     * @param procedure
+     *            a procedure object taking as argument the current bit index.
+     *            Stops iteration if the procedure returns <tt>false</tt>,
+     *            otherwise continues.
+     * @return <tt>false</tt> if the procedure stopped before all elements where
+     *         iterated over, <tt>true</tt> otherwise.
+     */
+    public boolean forEachIndex(cern.colt.function.tint.IntProcedure procedure) {
+        for (int i = 0; i < nchunks; i++) {
+            int base = keys[i] << CHUNK_BITS;
+            Chunk chunk = chunks[i];
+            if (chunk.bitmap == null) {
+                char[] array = chunk.array;
+                for (int j = 0; j < chunk.cardinality; j++) {
+                    if (!procedure.apply(base + array[j]))
+                        return false;
+                }
+            } else {
+                long[] bitmap = chunk.bitmap;
+                for (int unit = 0; unit < CHUNK_UNITS; unit++) {
+                    long val = bitmap[unit];
+                    while (val != 0L) {
+                        if (!procedure.apply(base + (unit << QuickBitVector.ADDRESS_BITS_PER_UNIT)
+                                + Long.numberOfTrailingZeros(val)))
+                            return false;
+                        val &= val - 1;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns from the bitvector the value of the bit with the specified index.
+     * The value is <tt>true</tt> if the bit with the index <tt>bitIndex</tt> is
+     * currently set; otherwise, returns <tt>false</tt>.
+     *
+     * @param bitIndex
+     *            the bit index.
+     * @return the value of the bit with the specified index.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>bitIndex&lt;0 || bitIndex&gt;=size()</tt>
+     */
+    public boolean get(int bitIndex) {
+        checkIndex(bitIndex);
+        int pos = indexOfKey(bitIndex >>> CHUNK_BITS);
+        return pos >= 0 && chunks[pos].get(bitIndex & CHUNK_MASK);
+    }
+
+    /**
+     * Returns a hash code value for the receiver. Equal bit vectors have equal
+     * hash codes, whatever their internal layout.
+     */
+    public int hashCode() {
+        int h = nbits;
+        for (int i = 0; i < nchunks; i++) {
+            Chunk chunk = chunks[i];
+            h = 31 * h + keys[i];
+            if (chunk.bitmap == null) {
+                for (int j = 0; j < chunk.cardinality; j++) {
+                    h = 31 * h + chunk.array[j];
+                }
+            } else {
+                long[] bitmap = chunk.bitmap;
+                for (int unit = 0; unit < CHUNK_UNITS; unit++) {
+                    long val = bitmap[unit];
+                    while (val != 0L) {
+                        h = 31 * h + ((unit << QuickBitVector.ADDRESS_BITS_PER_UNIT) + Long.numberOfTrailingZeros(val));
+                        val &= val - 1;
+                    }
+                }
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Returns the index of the first bit in state <tt>true</tt> that occurs on
+     * or after the specified index.
+     *
+     * @param from
+     *            the index to start searching from, inclusive.
+     * @return the index of the next set bit, or <tt>-1</tt> if there is no
+     *         such bit.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>from&lt;0</tt>.
+     */
+    public int nextSetBit(int from) {
+        if (from < 0)
+            throw new IndexOutOfBoundsException(String.valueOf(from));
+        if (from >= nbits)
+            return -1;
+        int key = from >>> CHUNK_BITS;
+        int pos = indexOfKey(key);
+        if (pos >= 0) {
+            int offset = chunks[pos].next(from & CHUNK_MASK);
+            if (offset >= 0)
+                return (key << CHUNK_BITS) + offset;
+            pos++;
+        } else {
+            pos = -pos - 1;
+        }
+        return (pos < nchunks) ? (keys[pos] << CHUNK_BITS) + chunks[pos].select(0) : -1;
+    }
+
+    /**
+     * Performs a logical <b>NOT</b> on the bits of the receiver (A = ~A).
+     */
+    public void not() {
+        final int n = (nbits + CHUNK_MASK) >>> CHUNK_BITS;
+        final Chunk[] parts = new Chunk[n];
+        for (int i = 0; i < nchunks; i++) {
+            parts[keys[i]] = chunks[i];
+        }
+        int nthreads = numberOfThreads(n);
+        if (nthreads > 1) {
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstKey = j * k;
+                final int lastKey = (j == nthreads - 1) ? n : firstKey + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int key = firstKey; key < lastKey; key++) {
+                            parts[key] = flip(parts[key], key);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int key = 0; key < n; key++) {
+                parts[key] = flip(parts[key], key);
+            }
+        }
+        setChunks(parts, null, n);
+    }
+
+    /**
+     * Performs a logical <b>OR</b> of the receiver with another bit vector (A =
+     * A | B). The receiver is modified so that a bit in it has the value
+     * <code>true</code> if and only if it either already had the value
+     * <code>true</code> or the corresponding bit in the other bit vector
+     * argument has the value <code>true</code>.
+     *
+     * @param other
+     *            a bit vector.
+     * @throws IllegalArgumentException
+     *             if <tt>size() != other.size()</tt>.
+     */
+    public void or(RoaringBitVector other) {
+        if (this == other)
+            return;
+        apply(other, OR);
+    }
+
+    /**
+     * Sets the bit with index <tt>bitIndex</tt> to the state specified by
+     * <tt>value</tt>.
+     *
+     * @param bitIndex
+     *            the index of the bit to be changed.
+     * @param value
+     *            the value to be stored in the bit.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>bitIndex&lt;0 || bitIndex&gt;=size()</tt>
+     */
+    public void put(int bitIndex, boolean value) {
+        if (value)
+            set(bitIndex);
+        else
+            clear(bitIndex);
+    }
+
+    /**
+     * Returns the number of bits in state <tt>true</tt> at the indexes
+     * <tt>0..bitIndex</tt> (inclusive). Together with
+     * {@link #select(int)} this allows to map between bit indexes and the
+     * positions of the set bits, as needed by succinct data structures.
+     *
+     * @param bitIndex
+     *            the index of the last bit to count.
+     * @return the number of set bits up to and including <tt>bitIndex</tt>.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>bitIndex&lt;0 || bitIndex&gt;=size()</tt>
+     */
+    public int rank(int bitIndex) {
+        checkIndex(bitIndex);
+        int key = bitIndex >>> CHUNK_BITS;
+        int rank = 0;
+        for (int i = 0; i < nchunks; i++) {
+            if (keys[i] < key) {
+                rank += chunks[i].cardinality;
+            } else {
+                if (keys[i] == key)
+                    rank += chunks[i].rank(bitIndex & CHUNK_MASK);
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the index of the <tt>j</tt>-th bit in state <tt>true</tt>,
+     * counting from zero. This is the inverse of {@link #rank(int)}:
+     * <tt>rank(select(j)) == j+1</tt>.
+     *
+     * @param j
+     *            the number of set bits to skip.
+     * @return the index of the set bit.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>j&lt;0 || j&gt;=cardinality()</tt>
+     */
+    public int select(int j) {
+        if (j < 0)
+            throw new IndexOutOfBoundsException(String.valueOf(j));
+        int rest = j;
+        for (int i = 0; i < nchunks; i++) {
+            int cardinality = chunks[i].cardinality;
+            if (rest < cardinality)
+                return (keys[i] << CHUNK_BITS) + chunks[i].select(rest);
+            rest -= cardinality;
+        }
+        throw new IndexOutOfBoundsException(j + " >= cardinality: " + (j - rest));
+    }
+
+    /**
+     * Changes the bit with index <tt>bitIndex</tt> to the "set" (<tt>true</tt>)
+     * state.
+     *
+     * @param bitIndex
+     *            the index of the bit to be set.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>bitIndex&lt;0 || bitIndex&gt;=size()</tt>
+     */
+    public void set(int bitIndex) {
+        checkIndex(bitIndex);
+        int key = bitIndex >>> CHUNK_BITS;
+        int pos = indexOfKey(key);
+        if (pos >= 0) {
+            chunks[pos].set(bitIndex & CHUNK_MASK);
+            return;
+        }
+        pos = -pos - 1;
+        if (nchunks == keys.length) {
+            int capacity = 2 * nchunks;
+            char[] newKeys = new char[capacity];
+            Chunk[] newChunks = new Chunk[capacity];
+            System.arraycopy(keys, 0, newKeys, 0, nchunks);
+            System.arraycopy(chunks, 0, newChunks, 0, nchunks);
+            keys = newKeys;
+            chunks = newChunks;
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, nchunks - pos);
+        System.arraycopy(chunks, pos, chunks, pos + 1, nchunks - pos);
+        keys[pos] = (char) key;
+        chunks[pos] = new Chunk(new char[] { (char) (bitIndex & CHUNK_MASK) }, 1);
+        nchunks++;
+    }
+
+    /**
+     * Returns the size of the receiver.
+     */
+    public int size() {
+        return nbits;
+    }
+
+    /**
+     * Returns a new bit matrix with the bits of the receiver, the bit at index
+     * <tt>row*columns+column</tt> becoming the bit at <tt>(column,row)</tt>.
+     *
+     * @param columns
+     *            the number of columns of the bit matrix.
+     * @param rows
+     *            the number of rows of the bit matrix.
+     * @return a new bit matrix.
+     * @throws IllegalArgumentException
+     *             if <tt>columns*rows != size()</tt>.
+     */
+    public BitMatrix toBitMatrix(int columns, int rows) {
+        if ((long) columns * rows != nbits)
+            throw new IllegalArgumentException("Incompatible dimensions: (columns,rows)=(" + columns + "," + rows
+                    + "), size=" + nbits);
+        BitMatrix matrix = new BitMatrix(columns, rows);
+        writeTo(matrix.elements());
+        return matrix;
+    }
+
+    /**
+     * Returns a new (uncompressed) bit vector with the same size and the same
+     * bits set to <tt>true</tt> as the receiver.
+     *
+     * @return a new bit vector.
+     */
+    public BitVector toBitVector() {
+        BitVector vector = new BitVector(nbits);
+        writeTo(vector.elements());
+        return vector;
+    }
+
+    /**
+     * Returns a string representation of the receiver. For every index for
+     * which the receiver contains a bit in the "set" (<tt>true</tt>) state, the
+     * decimal representation of that index is included in the result. Such
+     * indeces are listed in order from lowest to highest, separated by
+     * ",&nbsp;" (a comma and a space) and surrounded by braces.
+     *
+     * @return a string representation of this bit vector.
+     */
+    public String toString() {
+        final StringBuffer buffer = new StringBuffer();
+        buffer.append('{');
+        forEachIndex(new cern.colt.function.tint.IntProcedure() {
+            public boolean apply(int index) {
+                if (buffer.length() > 1)
+                    buffer.append(", ");
+                buffer.append(index);
+                return true;
+            }
+        });
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    /**
+     * Performs a logical <b>XOR</b> of the receiver with another bit vector (A
+     * = A ^ B). The receiver is modified so that a bit in it has the value
+     * <code>true</code> if and only if exactly one of the bit and the
+     * corresponding bit in the argument has the value <code>true</code>.
+     *
+     * @param other
+     *            a bit vector.
+     * @throws IllegalArgumentException
+     *             if <tt>size() != other.size()</tt>.
+     */
+    public void xor(RoaringBitVector other) {
+        if (this == other) {
+            checkSize(other);
+            clear();
+            return;
+        }
+        apply(other, XOR);
+    }
+
+    /**
+     * Combines the receiver with another bit vector chunk by chunk.
+     */
+    private void apply(RoaringBitVector other, final int op) {
+        checkSize(other);
+        // align the chunks of both vectors by key
+        int n = 0;
+        int capacity = (op == AND) ? Math.min(nchunks, other.nchunks) : nchunks + other.nchunks;
+        final char[] newKeys = new char[Math.max(4, capacity)];
+        final Chunk[] left = new Chunk[newKeys.length];
+        final Chunk[] right = new Chunk[newKeys.length];
+        int i = 0;
+        int j = 0;
+        while (i < nchunks || j < other.nchunks) {
+            if (j == other.nchunks || (i < nchunks && keys[i] < other.keys[j])) {
+                if (op != AND) {
+                    newKeys[n] = keys[i];
+                    left[n++] = chunks[i];
+                }
+                i++;
+            } else if (i == nchunks || other.keys[j] < keys[i]) {
+                if (op == OR || op == XOR) {
+                    newKeys[n] = other.keys[j];
+                    right[n++] = other.chunks[j];
+                }
+                j++;
+            } else {
+                newKeys[n] = keys[i];
+                left[n] = chunks[i++];
+                right[n++] = other.chunks[j++];
+            }
+        }
+        final Chunk[] parts = new Chunk[n];
+        int nthreads = numberOfThreads(n);
+        if (nthreads > 1) {
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int t = 0; t < nthreads; t++) {
+                final int firstIdx = t * k;
+                final int lastIdx = (t == nthreads - 1) ? n : firstIdx + k;
+                futures[t] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int m = firstIdx; m < lastIdx; m++) {
+                            parts[m] = apply(left[m], right[m], op);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int m = 0; m < n; m++) {
+                parts[m] = apply(left[m], right[m], op);
+            }
+        }
+        setChunks(parts, newKeys, n);
+    }
+
+    /**
+     * Combines a chunk of the receiver with one of another vector; either may
+     * be <tt>null</tt>. The receiver's chunk may be modified and returned, the
+     * other one is left untouched. Returns <tt>null</tt> for an empty result.
+     */
+    private static Chunk apply(Chunk a, Chunk b, int op) {
+        if (b == null)
+            return (op == AND) ? null : a;
+        if (a == null)
+            return (op == OR || op == XOR) ? b.copy() : null;
+        if (a.bitmap == null && b.bitmap == null)
+            return merge(a.array, a.cardinality, b.array, b.cardinality, op);
+        if (op == AND && (a.bitmap == null || b.bitmap == null)) {
+            // filter the array by the bitmap
+            Chunk sparse = (a.bitmap == null) ? a : b;
+            long[] bitmap = (a.bitmap == null) ? b.bitmap : a.bitmap;
+            return filter(sparse.array, sparse.cardinality, bitmap, true);
+        }
+        if (op == AND_NOT && a.bitmap == null)
+            return filter(a.array, a.cardinality, b.bitmap, false);
+        long[] words = a.words(); // a.bitmap, if any, is updated in place
+        if (b.bitmap != null) {
+            long[] other = b.bitmap;
+            switch (op) {
+            case AND:
+                for (int i = 0; i < CHUNK_UNITS; i++)
+                    words[i] &= other[i];
+                break;
+            case OR:
+                for (int i = 0; i < CHUNK_UNITS; i++)
+                    words[i] |= other[i];
+                break;
+            case XOR:
+                for (int i = 0; i < CHUNK_UNITS; i++)
+                    words[i] ^= other[i];
+                break;
+            default:
+                for (int i = 0; i < CHUNK_UNITS; i++)
+                    words[i] &= ~other[i];
+            }
+        } else {
+            char[] other = b.array;
+            for (int i = 0; i < b.cardinality; i++) {
+                int offset = other[i];
+                long mask = 1L << offset; // shifts use the low 6 bits only
+                int unit = QuickBitVector.unit(offset);
+                switch (op) {
+                case OR:
+                    words[unit] |= mask;
+                    break;
+                case XOR:
+                    words[unit] ^= mask;
+                    break;
+                default:
+                    words[unit] &= ~mask;
+                }
+            }
+        }
+        return Chunk.valueOf(words);
+    }
+
+    /**
+     * Merges two sorted arrays of offsets.
+     */
+    private static Chunk merge(char[] a, int na, char[] b, int nb, int op) {
+        char[] result = new char[(op == AND) ? Math.min(na, nb) : (op == AND_NOT) ? na : na + nb];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < na && j < nb) {
+            char x = a[i];
+            char y = b[j];
+            if (x < y) {
+                if (op != AND)
+                    result[n++] = x;
+                i++;
+            } else if (y < x) {
+                if (op == OR || op == XOR)
+                    result[n++] = y;
+                j++;
+            } else {
+                if (op == AND || op == OR)
+                    result[n++] = x;
+                i++;
+                j++;
+            }
+        }
+        if (op != AND) {
+            while (i < na)
+                result[n++] = a[i++];
+        }
+        if (op == OR || op == XOR) {
+            while (j < nb)
+                result[n++] = b[j++];
+        }
+        if (n == 0)
+            return null;
+        if (n > ARRAY_MAX) {
+            long[] words = new long[CHUNK_UNITS];
+            for (int k = 0; k < n; k++) {
+                QuickBitVector.set(words, result[k]);
+            }
+            return new Chunk(words, n);
+        }
+        return new Chunk(result, n);
+    }
+
+    /**
+     * Keeps the offsets of an array whose bit in the bitmap equals
+     * <tt>state</tt>.
+     */
+    private static Chunk filter(char[] array, int cardinality, long[] bitmap, boolean state) {
+        char[] result = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (QuickBitVector.get(bitmap, array[i]) == state)
+                result[n++] = array[i];
+        }
+        return (n == 0) ? null : new Chunk(result, n);
+    }
+
+    /**
+     * Returns the chunk holding the bits <tt>key*2^16..(key+1)*2^16-1</tt> of
+     * an uncompressed bit vector of the given size.
+     */
+    private static Chunk chunkOf(long[] bits, int size, int key) {
+        int from = key * CHUNK_UNITS;
+        int units = Math.min(CHUNK_UNITS, QuickBitVector.unit(size - 1) + 1 - from);
+        long[] words = new long[CHUNK_UNITS];
+        System.arraycopy(bits, from, words, 0, units);
+        int partial = QuickBitVector.offset(size);
+        if (partial > 0 && from + units == QuickBitVector.unit(size) + 1) {
+            // mask the bits beyond size() in the trailing partial unit
+            words[units - 1] &= QuickBitVector.bitMaskWithBitsSetFromTo(0, partial - 1);
+        }
+        return Chunk.valueOf(words);
+    }
+
+    /**
+     * Returns the complement of the given chunk of key <tt>key</tt>, within
+     * the size of the receiver.
+     */
+    private Chunk flip(Chunk chunk, int key) {
+        long[] words = (chunk == null) ? new long[CHUNK_UNITS] : chunk.words();
+        int width = Math.min(CHUNK_MASK + 1, nbits - (key << CHUNK_BITS));
+        int full = QuickBitVector.unit(width);
+        for (int i = 0; i < full; i++) {
+            words[i] = ~words[i];
+        }
+        int partial = QuickBitVector.offset(width);
+        if (partial > 0)
+            words[full] = ~words[full] & QuickBitVector.bitMaskWithBitsSetFromTo(0, partial - 1);
+        return Chunk.valueOf(words);
+    }
+
+    /**
+     * Returns the position of the given key, or
+     * <tt>-(insertion point) - 1</tt> if there is no chunk for it.
+     */
+    private int indexOfKey(int key) {
+        int low = 0;
+        int high = nchunks - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midVal = keys[mid];
+            if (midVal < key)
+                low = mid + 1;
+            else if (midVal > key)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Number of threads to process <tt>n</tt> chunks with; a chunk counts as
+     * <tt>CHUNK_UNITS</tt> elements of work.
+     */
+    private static int numberOfThreads(int n) {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && ((long) n * CHUNK_UNITS >= ConcurrencyUtils.getThreadsBeginN_1D()))
+            return Math.min(nthreads, n);
+        return 1;
+    }
+
+    /**
+     * Replaces the chunks of the receiver by the non-empty ones of the given
+     * array; <tt>parts[i]</tt> has key <tt>newKeys[i]</tt>, or key <tt>i</tt>
+     * if <tt>newKeys</tt> is <tt>null</tt>.
+     */
+    private void setChunks(Chunk[] parts, char[] newKeys, int n) {
+        char[] k = new char[Math.max(4, n)];
+        Chunk[] c = new Chunk[k.length];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (parts[i] != null) {
+                k[m] = (newKeys == null) ? (char) i : newKeys[i];
+                c[m++] = parts[i];
+            }
+        }
+        keys = k;
+        chunks = c;
+        nchunks = m;
+    }
+
+    /**
+     * Writes the bits of the receiver into the given (cleared) uncompressed
+     * bits.
+     */
+    private void writeTo(final long[] bits) {
+        int nthreads = numberOfThreads(nchunks);
+        if (nthreads > 1) {
+            Future<?>[] futures = new Future[nthreads];
+            int k = nchunks / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? nchunks : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int i = firstIdx; i < lastIdx; i++) {
+                            writeTo(bits, i);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int i = 0; i < nchunks; i++) {
+                writeTo(bits, i);
+            }
+        }
+    }
+
+    private void writeTo(long[] bits, int i) {
+        Chunk chunk = chunks[i];
+        int from = keys[i] * CHUNK_UNITS;
+        if (chunk.bitmap != null) {
+            System.arraycopy(chunk.bitmap, 0, bits, from, Math.min(CHUNK_UNITS, bits.length - from));
+        } else {
+            int base = keys[i] << CHUNK_BITS;
+            for (int j = 0; j < chunk.cardinality; j++) {
+                QuickBitVector.set(bits, base + chunk.array[j]);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2003-2006 Bjørn-Ove Heimsund
+ * 
+ * This file is part of MTJ.
+ * 
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.Norm;
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.algo.solver.preconditioner.DComplexIdentity;
+import cern.colt.matrix.tdcomplex.algo.solver.preconditioner.DComplexPreconditioner;
+import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix1D;
+import cern.colt.matrix.tdouble.algo.solver.DefaultDoubleIterationMonitor;
+import cern.colt.matrix.tdouble.algo.solver.DoubleIterationMonitor;
+
+/**
+ * Partial implementation of an iterative solver for complex systems
+ */
+public abstract class AbstractDComplexIterativeSolver implements DComplexIterativeSolver {
+
+    /**
+     * Preconditioner to use
+     */
+    protected DComplexPreconditioner M;
+
+    /**
+     * Iteration monitor
+     */
+    protected DoubleIterationMonitor iter;
+
+    /**
+     * Constructor for AbstractDComplexIterativeSolver. Does not use
+     * preconditioning, and uses the default linear iteration object.
+     */
+    public AbstractDComplexIterativeSolver() {
+        M = new DComplexIdentity();
+        iter = new DefaultDoubleIterationMonitor();
+    }
+
+    public void setPreconditioner(DComplexPreconditioner M) {
+        this.M = M;
+    }
+
+    public DComplexPreconditioner getPreconditioner() {
+        return M;
+    }
+
+    public DoubleIterationMonitor getIterationMonitor() {
+        return iter;
+    }
+
+    public void setIterationMonitor(DoubleIterationMonitor iter) {
+        this.iter = iter;
+    }
+
+    /**
+     * Checks sizes of input data for
+     * {@link #solve(DComplexMatrix2D, DComplexMatrix1D, DComplexMatrix1D)}.
+     * Throws an exception if the sizes does not match.
+     */
+    protected void checkSizes(DComplexMatrix2D A, DComplexMatrix1D b, DComplexMatrix1D x) {
+        if (A.rows() != A.columns())
+            throw new IllegalArgumentException("A is not square");
+        if (b.size() != A.rows())
+            throw new IllegalArgumentException("b.size() != A.rows()");
+        if (b.size() != x.size())
+            throw new IllegalArgumentException("b.size() != x.size()");
+    }
+
+    /**
+     * Returns the norm of the given vector. The type of the norm is taken from
+     * the iteration monitor; <tt>Norm.Frobenius</tt> is treated as
+     * <tt>Norm.Two</tt>.
+     * 
+     * @param x
+     *            vector
+     * @return the norm of <tt>x</tt>
+     */
+    protected double norm(DComplexMatrix1D x) {
+        Norm type = iter.getNormType();
+        int size = (int) x.size();
+        if (type == Norm.Two || type == Norm.Frobenius) {
+            return Math.sqrt(x.zDotProduct(x)[0]);
+        }
+        double norm = 0;
+        if (x instanceof DenseDComplexMatrix1D) {
+            double[] elements = ((DenseDComplexMatrix1D) x).elements();
+            int idx = (int) x.index(0);
+            int stride = x.stride();
+            for (int i = 0; i < size; i++) {
+                double abs = Math.hypot(elements[idx], elements[idx + 1]);
+                norm = (type == Norm.One) ? norm + abs : Math.max(norm, abs);
+                idx += stride;
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                double[] elem = x.getQuick(i);
+                double abs = Math.hypot(elem[0], elem[1]);
+                norm = (type == Norm.One) ? norm + abs : Math.max(norm, abs);
+            }
+        }
+        return norm;
+    }
+}
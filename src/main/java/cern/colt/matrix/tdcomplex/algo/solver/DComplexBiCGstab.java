@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2003-2006 Bjørn-Ove Heimsund
+ * 
+ * This file is part of MTJ.
+ * 
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+/*
+ * Derived from public domain software at http://www.netlib.org/templates
+ */
+
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdouble.algo.solver.DoubleNotConvergedException;
+import cern.colt.matrix.tdouble.algo.solver.IterativeSolverDoubleNotConvergedException;
+import cern.jet.math.tdcomplex.DComplex;
+import cern.jet.math.tdcomplex.DComplexFunctions;
+
+/**
+ * BiCG stablized solver. BiCGstab solves the unsymmetric complex linear system
+ * <code>Ax = b</code> using the Preconditioned BiConjugate Gradient Stabilized
+ * method
+ * 
+ * @author Templates
+ */
+public class DComplexBiCGstab extends AbstractDComplexIterativeSolver {
+
+    /**
+     * Vectors for use in the iterative solution process
+     */
+    private DComplexMatrix1D p, s, phat, shat, t, v, temp, r, rtilde;
+
+    /**
+     * Constructor for BiCGstab. Uses the given vector as template for creating
+     * scratch vectors. Typically, the solution or the right hand side vector
+     * can be passed, and the template is not modified
+     * 
+     * @param template
+     *            Vector to use as template for the work vectors needed in the
+     *            solution process
+     */
+    public DComplexBiCGstab(DComplexMatrix1D template) {
+        p = template.copy();
+        s = template.copy();
+        phat = template.copy();
+        shat = template.copy();
+        t = template.copy();
+        v = template.copy();
+        temp = template.copy();
+        r = template.copy();
+        rtilde = template.copy();
+    }
+
+    public DComplexMatrix1D solve(DComplexMatrix2D A, DComplexMatrix1D b, DComplexMatrix1D x)
+            throws IterativeSolverDoubleNotConvergedException {
+        checkSizes(A, b, x);
+
+        double[] rho_1 = { 1, 0 }, rho_2 = { 1, 0 }, alpha = { 1, 0 }, beta, omega = { 1, 0 };
+
+        A.zMult(x, r.assign(b), new double[] { -1, 0 }, new double[] { 1, 0 }, false);
+        rtilde.assign(r);
+
+        for (iter.setFirst(); !iter.converged(norm(r)); iter.next()) {
+            // rho_1 = rtilde^H * r
+            rho_1 = r.zDotProduct(rtilde);
+
+            if (rho_1[0] == 0 && rho_1[1] == 0)
+                throw new IterativeSolverDoubleNotConvergedException(DoubleNotConvergedException.Reason.Breakdown,
+                        "rho", iter);
+
+            if (omega[0] == 0 && omega[1] == 0)
+                throw new IterativeSolverDoubleNotConvergedException(DoubleNotConvergedException.Reason.Breakdown,
+                        "omega", iter);
+
+            if (iter.isFirst())
+                p.assign(r);
+            else {
+                beta = DComplex.mult(DComplex.div(rho_1, rho_2), DComplex.div(alpha, omega));
+
+                // temp = p - omega * v
+                temp.assign(p).assign(v, DComplexFunctions.plusMultSecond(DComplex.neg(omega)));
+                // p = r + beta * temp = r + beta * (p - omega * v)
+                p.assign(r).assign(temp, DComplexFunctions.plusMultSecond(beta));
+            }
+
+            M.apply(p, phat);
+            A.zMult(phat, v);
+            alpha = DComplex.div(rho_1, v.zDotProduct(rtilde));
+            s.assign(r).assign(v, DComplexFunctions.plusMultSecond(DComplex.neg(alpha)));
+
+            if (iter.converged(norm(s)))
+                return x.assign(phat, DComplexFunctions.plusMultSecond(alpha));
+
+            M.apply(s, shat);
+            A.zMult(shat, t);
+            // omega = (t^H * s) / (t^H * t)
+            omega = DComplex.div(s.zDotProduct(t), t.zDotProduct(t));
+            x.assign(phat, DComplexFunctions.plusMultSecond(alpha));
+            x.assign(shat, DComplexFunctions.plusMultSecond(omega));
+            r.assign(s).assign(t, DComplexFunctions.plusMultSecond(DComplex.neg(omega)));
+
+            rho_2 = rho_1;
+        }
+
+        return x;
+    }
+
+}
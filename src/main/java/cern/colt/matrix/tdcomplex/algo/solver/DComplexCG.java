@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2003-2006 Bjørn-Ove Heimsund
+ * 
+ * This file is part of MTJ.
+ * 
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+/*
+ * Derived from public domain software at http://www.netlib.org/templates
+ */
+
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdouble.algo.solver.IterativeSolverDoubleNotConvergedException;
+import cern.jet.math.tdcomplex.DComplex;
+import cern.jet.math.tdcomplex.DComplexFunctions;
+
+/**
+ * Conjugate Gradients solver. CG solves the Hermitian positive definite
+ * linear system <code>Ax=b</code> using the Conjugate Gradient method. For
+ * complex symmetric (non-Hermitian) systems use {@link DComplexCOCG}.
+ * 
+ * @author Templates
+ */
+public class DComplexCG extends AbstractDComplexIterativeSolver {
+
+    /**
+     * Vectors for use in the iterative solution process
+     */
+    private DComplexMatrix1D p, z, q, r;
+
+    /**
+     * Constructor for CG. Uses the given vector as template for creating
+     * scratch vectors. Typically, the solution or the right hand side vector
+     * can be passed, and the template is not modified
+     * 
+     * @param template
+     *            Vector to use as template for the work vectors needed in the
+     *            solution process
+     */
+    public DComplexCG(DComplexMatrix1D template) {
+        p = template.copy();
+        z = template.copy();
+        q = template.copy();
+        r = template.copy();
+    }
+
+    public DComplexMatrix1D solve(DComplexMatrix2D A, DComplexMatrix1D b, DComplexMatrix1D x)
+            throws IterativeSolverDoubleNotConvergedException {
+        checkSizes(A, b, x);
+
+        double[] alpha, beta, rho = null, rho_1 = null;
+
+        A.zMult(x, r.assign(b), new double[] { -1, 0 }, new double[] { 1, 0 }, false);
+
+        for (iter.setFirst(); !iter.converged(norm(r)); iter.next()) {
+            M.apply(r, z);
+            // rho = r^H * z
+            rho = z.zDotProduct(r);
+
+            if (iter.isFirst())
+                p.assign(z);
+            else {
+                beta = DComplex.div(rho, rho_1);
+                p.assign(z, DComplexFunctions.plusMultFirst(beta));
+            }
+
+            A.zMult(p, q);
+            alpha = DComplex.div(rho, q.zDotProduct(p));
+
+            x.assign(p, DComplexFunctions.plusMultSecond(alpha));
+            r.assign(q, DComplexFunctions.plusMultSecond(DComplex.neg(alpha)));
+
+            rho_1 = rho;
+        }
+        return x;
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2003-2006 Bjørn-Ove Heimsund
+ * 
+ * This file is part of MTJ.
+ * 
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+/*
+ * Derived from public domain software at http://www.netlib.org/templates
+ */
+
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix1D;
+import cern.colt.matrix.tdouble.algo.solver.DoubleNotConvergedException;
+import cern.colt.matrix.tdouble.algo.solver.IterativeSolverDoubleNotConvergedException;
+import cern.jet.math.tdcomplex.DComplex;
+import cern.jet.math.tdcomplex.DComplexFunctions;
+
+/**
+ * Conjugate Orthogonal Conjugate Gradients solver. COCG solves the complex
+ * symmetric (<code>A = A<sup>T</sup></code>, not Hermitian) linear system
+ * <code>Ax=b</code>, as arising e.g. from the discretization of the Helmholtz
+ * equation with absorbing boundary conditions. It is the Conjugate Gradient
+ * method with the unconjugated bilinear form <code>x<sup>T</sup>y</code> in
+ * place of the inner product. The preconditioner should be complex symmetric
+ * as well (e.g. diagonal or ILU of a symmetric matrix).
+ */
+public class DComplexCOCG extends AbstractDComplexIterativeSolver {
+
+    /**
+     * Vectors for use in the iterative solution process
+     */
+    private DComplexMatrix1D p, z, q, r;
+
+    /**
+     * Constructor for COCG. Uses the given vector as template for creating
+     * scratch vectors. Typically, the solution or the right hand side vector
+     * can be passed, and the template is not modified
+     * 
+     * @param template
+     *            Vector to use as template for the work vectors needed in the
+     *            solution process
+     */
+    public DComplexCOCG(DComplexMatrix1D template) {
+        p = template.copy();
+        z = template.copy();
+        q = template.copy();
+        r = template.copy();
+    }
+
+    public DComplexMatrix1D solve(DComplexMatrix2D A, DComplexMatrix1D b, DComplexMatrix1D x)
+            throws IterativeSolverDoubleNotConvergedException {
+        checkSizes(A, b, x);
+
+        double[] alpha, beta, rho = null, rho_1 = null;
+
+        A.zMult(x, r.assign(b), new double[] { -1, 0 }, new double[] { 1, 0 }, false);
+
+        for (iter.setFirst(); !iter.converged(norm(r)); iter.next()) {
+            M.apply(r, z);
+            // rho = r^T * z
+            rho = bilinear(r, z);
+
+            if (rho[0] == 0 && rho[1] == 0)
+                throw new IterativeSolverDoubleNotConvergedException(DoubleNotConvergedException.Reason.Breakdown,
+                        "rho", iter);
+
+            if (iter.isFirst())
+                p.assign(z);
+            else {
+                beta = DComplex.div(rho, rho_1);
+                p.assign(z, DComplexFunctions.plusMultFirst(beta));
+            }
+
+            A.zMult(p, q);
+            alpha = DComplex.div(rho, bilinear(p, q));
+
+            x.assign(p, DComplexFunctions.plusMultSecond(alpha));
+            r.assign(q, DComplexFunctions.plusMultSecond(DComplex.neg(alpha)));
+
+            rho_1 = rho;
+        }
+        return x;
+    }
+
+    /**
+     * Returns <code>x<sup>T</sup>y</code>, the unconjugated product of two
+     * vectors.
+     */
+    private static double[] bilinear(DComplexMatrix1D x, DComplexMatrix1D y) {
+        int size = (int) x.size();
+        double re = 0;
+        double im = 0;
+        if (x instanceof DenseDComplexMatrix1D && y instanceof DenseDComplexMatrix1D) {
+            double[] elementsX = ((DenseDComplexMatrix1D) x).elements();
+            double[] elementsY = ((DenseDComplexMatrix1D) y).elements();
+            int idxX = (int) x.index(0);
+            int idxY = (int) y.index(0);
+            int strideX = x.stride();
+            int strideY = y.stride();
+            for (int i = 0; i < size; i++) {
+                re += elementsX[idxX] * elementsY[idxY] - elementsX[idxX + 1] * elementsY[idxY + 1];
+                im += elementsX[idxX] * elementsY[idxY + 1] + elementsX[idxX + 1] * elementsY[idxY];
+                idxX += strideX;
+                idxY += strideY;
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                double[] a = x.getQuick(i);
+                double[] c = y.getQuick(i);
+                re += a[0] * c[0] - a[1] * c[1];
+                im += a[0] * c[1] + a[1] * c[0];
+            }
+        }
+        return new double[] { re, im };
+    }
+
+}
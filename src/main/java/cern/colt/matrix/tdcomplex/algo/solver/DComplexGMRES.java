@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2003-2006 Bjørn-Ove Heimsund
+ * 
+ * This file is part of MTJ.
+ * 
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+/*
+ * Derived from public domain software at http://www.netlib.org/templates
+ */
+
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix2D;
+import cern.colt.matrix.tdouble.algo.solver.IterativeSolverDoubleNotConvergedException;
+import cern.jet.math.tdcomplex.DComplex;
+import cern.jet.math.tdcomplex.DComplexFunctions;
+
+/**
+ * GMRES solver. GMRES solves the unsymmetric complex linear system
+ * <code>Ax = b</code> using the Generalized Minimum Residual method. The GMRES
+ * iteration is restarted after a given number of iterations. By default it is
+ * restarted after 30 iterations.
+ * 
+ * @author Templates
+ */
+public class DComplexGMRES extends AbstractDComplexIterativeSolver {
+
+    /**
+     * After this many iterations, the GMRES will be restarted.
+     */
+    private int restart;
+
+    /**
+     * Vectors for use in the iterative solution process
+     */
+    private DComplexMatrix1D w, u, r;
+
+    /**
+     * Vectors spanning the subspace
+     */
+    private DComplexMatrix1D[] v;
+
+    /**
+     * Restart vector
+     */
+    private DComplexMatrix1D s;
+
+    /**
+     * Hessenberg matrix
+     */
+    private DComplexMatrix2D H;
+
+    /**
+     * Givens rotations for the QR factorization
+     */
+    private DComplexGivensRotation[] rotation;
+
+    /**
+     * Constructor for GMRES. Uses the given vector as template for creating
+     * scratch vectors. Typically, the solution or the right hand side vector
+     * can be passed, and the template is not modified. The iteration is
+     * restarted every 30 iterations
+     * 
+     * @param template
+     *            Vector to use as template for the work vectors needed in the
+     *            solution process
+     */
+    public DComplexGMRES(DComplexMatrix1D template) {
+        this(template, 30);
+    }
+
+    /**
+     * Constructor for GMRES. Uses the given vector as template for creating
+     * scratch vectors. Typically, the solution or the right hand side vector
+     * can be passed, and the template is not modified
+     * 
+     * @param template
+     *            Vector to use as template for the work vectors needed in the
+     *            solution process
+     * @param restart
+     *            GMRES iteration is restarted after this number of iterations
+     */
+    public DComplexGMRES(DComplexMatrix1D template, int restart) {
+        w = template.copy();
+        u = template.copy();
+        r = template.copy();
+        setRestart(restart);
+    }
+
+    /**
+     * Sets the restart parameter
+     * 
+     * @param restart
+     *            GMRES iteration is restarted after this number of iterations
+     */
+    public void setRestart(int restart) {
+        this.restart = restart;
+        if (restart <= 0)
+            throw new IllegalArgumentException("restart must be a positive integer");
+
+        s = new DenseDComplexMatrix1D(restart + 1);
+        H = new DenseDComplexMatrix2D(restart + 1, restart);
+        rotation = new DComplexGivensRotation[restart + 1];
+
+        v = new DComplexMatrix1D[restart + 1];
+        for (int i = 0; i < v.length; ++i)
+            v[i] = new DenseDComplexMatrix1D((int) r.size());
+    }
+
+    public DComplexMatrix1D solve(DComplexMatrix2D A, DComplexMatrix1D b, DComplexMatrix1D x)
+            throws IterativeSolverDoubleNotConvergedException {
+        checkSizes(A, b, x);
+
+        A.zMult(x, u.assign(b), new double[] { -1, 0 }, new double[] { 1, 0 }, false);
+        M.apply(u, r);
+        double normr = Math.sqrt(r.zDotProduct(r)[0]);
+        M.apply(b, u);
+
+        // Outer iteration
+        for (iter.setFirst(); !iter.converged(norm(r)); iter.next()) {
+
+            v[0].assign(r).assign(DComplexFunctions.mult(1 / normr));
+            s.assign(0, 0).setQuick(0, normr, 0);
+            int i = 0;
+
+            // Inner iteration
+            for (; i < restart && !iter.converged(DComplex.abs(s.getQuick(i))); i++, iter.next()) {
+                A.zMult(v[i], u);
+                M.apply(u, w);
+
+                for (int k = 0; k <= i; k++) {
+                    // H(k, i) = v_k^H * w
+                    double[] h = w.zDotProduct(v[k]);
+                    H.setQuick(k, i, h);
+                    w.assign(v[k], DComplexFunctions.plusMultSecond(DComplex.neg(h)));
+                }
+                double normw = Math.sqrt(w.zDotProduct(w)[0]);
+                H.setQuick(i + 1, i, normw, 0);
+                v[i + 1].assign(w).assign(DComplexFunctions.mult(1. / normw));
+
+                // QR factorization of H using Givens rotations
+                for (int k = 0; k < i; ++k)
+                    rotation[k].apply(H, i, k, k + 1);
+
+                rotation[i] = new DComplexGivensRotation(H.getQuick(i, i), H.getQuick(i + 1, i));
+                rotation[i].apply(H, i, i, i + 1);
+                rotation[i].apply(s, i, i + 1);
+            }
+
+            // Update solution in current subspace
+            backwardSolve(i);
+            for (int j = 0; j < i; j++)
+                x.assign(v[j], DComplexFunctions.plusMultSecond(s.getQuick(j)));
+
+            A.zMult(x, u.assign(b), new double[] { -1, 0 }, new double[] { 1, 0 }, false);
+            M.apply(u, r);
+            normr = Math.sqrt(r.zDotProduct(r)[0]);
+        }
+
+        return x;
+    }
+
+    /**
+     * Solves the upper triangular system <code>H(0:n, 0:n) y = s(0:n)</code>
+     * in place of <code>s</code>.
+     */
+    private void backwardSolve(int n) {
+        for (int j = n - 1; j >= 0; j--) {
+            double[] sum = s.getQuick(j);
+            for (int k = j + 1; k < n; k++) {
+                sum = DComplex.minus(sum, DComplex.mult(H.getQuick(j, k), s.getQuick(k)));
+            }
+            s.setQuick(j, DComplex.div(sum, H.getQuick(j, j)));
+        }
+    }
+
+}
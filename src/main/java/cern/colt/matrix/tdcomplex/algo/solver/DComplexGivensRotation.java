@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2003-2006 Bjørn-Ove Heimsund
+ * 
+ * This file is part of MTJ.
+ * 
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+
+/**
+ * Complex Givens plane rotation. The rotation
+ * <code>[c, s; -conj(s), c]</code> has a real cosine <code>c</code> and a
+ * complex sine <code>s</code>, and maps the 2-vector <code>(x, y)</code> to
+ * <code>(r, 0)</code>.
+ */
+public class DComplexGivensRotation {
+
+    /**
+     * Cosine of the rotation angle
+     */
+    private final double c;
+
+    /**
+     * Sine of the rotation angle (real and imaginary part)
+     */
+    private final double sRe, sIm;
+
+    /**
+     * Constructs a Givens plane rotation for a given 2-vector
+     * 
+     * @param x
+     *            First component of the vector
+     * @param y
+     *            Second component of the vector
+     */
+    public DComplexGivensRotation(double[] x, double[] y) {
+        double absx = Math.hypot(x[0], x[1]);
+        if (absx == 0) {
+            c = 0;
+            sRe = 1;
+            sIm = 0;
+        } else {
+            double t = Math.hypot(absx, Math.hypot(y[0], y[1]));
+            c = absx / t;
+            // s = (x / |x|) * conj(y) / t
+            double uRe = x[0] / absx;
+            double uIm = x[1] / absx;
+            sRe = (uRe * y[0] + uIm * y[1]) / t;
+            sIm = (uIm * y[0] - uRe * y[1]) / t;
+        }
+    }
+
+    /**
+     * Applies the Givens rotation to two elements in a matrix column
+     * 
+     * @param H
+     *            Matrix to apply to
+     * @param column
+     *            Column index
+     * @param i1
+     *            Row index of first element
+     * @param i2
+     *            Row index of second element
+     */
+    public void apply(DComplexMatrix2D H, int column, int i1, int i2) {
+        double[] a = H.getQuick(i1, column);
+        double[] b = H.getQuick(i2, column);
+        H.setQuick(i1, column, c * a[0] + sRe * b[0] - sIm * b[1], c * a[1] + sRe * b[1] + sIm * b[0]);
+        H.setQuick(i2, column, -(sRe * a[0] + sIm * a[1]) + c * b[0], -(sRe * a[1] - sIm * a[0]) + c * b[1]);
+    }
+
+    /**
+     * Applies the Givens rotation to two elements of a vector
+     * 
+     * @param x
+     *            Vector to apply to
+     * @param i1
+     *            Index of first element
+     * @param i2
+     *            Index of second element
+     */
+    public void apply(DComplexMatrix1D x, int i1, int i2) {
+        double[] a = x.getQuick(i1);
+        double[] b = x.getQuick(i2);
+        x.setQuick(i1, c * a[0] + sRe * b[0] - sIm * b[1], c * a[1] + sRe * b[1] + sIm * b[0]);
+        x.setQuick(i2, -(sRe * a[0] + sIm * a[1]) + c * b[0], -(sRe * a[1] - sIm * a[0]) + c * b[1]);
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2003-2006 Bjørn-Ove Heimsund
+ * 
+ * This file is part of MTJ.
+ * 
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.algo.solver.preconditioner.DComplexPreconditioner;
+import cern.colt.matrix.tdouble.algo.solver.DoubleIterationMonitor;
+import cern.colt.matrix.tdouble.algo.solver.IterativeSolverDoubleNotConvergedException;
+
+/**
+ * Iterative linear solver for complex systems. Solves <code>Ax=b</code> for
+ * <code>x</code>, and it supports preconditioning and convergence monitoring.
+ * Residual norms are real numbers, so the convergence is monitored with a
+ * {@link DoubleIterationMonitor}.
+ */
+public interface DComplexIterativeSolver {
+
+    /**
+     * Solves the given problem, writing result into the vector.
+     * 
+     * @param A
+     *            Matrix of the problem
+     * @param b
+     *            Right hand side
+     * @param x
+     *            Solution is stored here. Also used as initial guess
+     * @return The solution vector x
+     */
+    DComplexMatrix1D solve(DComplexMatrix2D A, DComplexMatrix1D b, DComplexMatrix1D x)
+            throws IterativeSolverDoubleNotConvergedException;
+
+    /**
+     * Sets preconditioner
+     * 
+     * @param M
+     *            Preconditioner to use
+     */
+    void setPreconditioner(DComplexPreconditioner M);
+
+    /**
+     * Gets preconditioner
+     * 
+     * @return Current preconditioner
+     */
+    DComplexPreconditioner getPreconditioner();
+
+    /**
+     * Sets iteration monitor
+     * 
+     * @param iter
+     *            Iteration monitor
+     */
+    void setIterationMonitor(DoubleIterationMonitor iter);
+
+    /**
+     * Gets the iteration monitor
+     * 
+     * @return Current iteration monitor
+     */
+    DoubleIterationMonitor getIterationMonitor();
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2003-2006 Bjørn-Ove Heimsund
+ * 
+ * This file is part of MTJ.
+ * 
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package cern.colt.matrix.tdcomplex.algo.solver.preconditioner;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix1D;
+
+/**
+ * Diagonal (Jacobi) preconditioner. Uses the inverse of the diagonal as
+ * preconditioner
+ */
+public class DComplexDiagonal implements DComplexPreconditioner {
+
+    /**
+     * This contains the inverse of the diagonal (interleaved real and
+     * imaginary parts)
+     */
+    private double[] invdiag;
+
+    /**
+     * Constructor for DComplexDiagonal
+     * 
+     * @param n
+     *            Problem size (number of rows)
+     */
+    public DComplexDiagonal(int n) {
+        invdiag = new double[2 * n];
+    }
+
+    public DComplexMatrix1D apply(DComplexMatrix1D b, DComplexMatrix1D x) {
+        return apply(b, x, false);
+    }
+
+    public DComplexMatrix1D transApply(DComplexMatrix1D b, DComplexMatrix1D x) {
+        return apply(b, x, true);
+    }
+
+    public void setMatrix(DComplexMatrix2D A) {
+        if (A.rows() != invdiag.length / 2)
+            throw new IllegalArgumentException("Matrix size differs from preconditioner size");
+
+        for (int i = 0; i < invdiag.length / 2; ++i) {
+            double[] d = A.getQuick(i, i);
+            double abs2 = d[0] * d[0] + d[1] * d[1];
+            if (abs2 == 0) // Avoid zero-division
+                throw new RuntimeException("Zero diagonal on row " + (i + 1));
+            invdiag[2 * i] = d[0] / abs2;
+            invdiag[2 * i + 1] = -d[1] / abs2;
+        }
+    }
+
+    private DComplexMatrix1D apply(DComplexMatrix1D b, DComplexMatrix1D x, boolean conjugate) {
+        if (x == null) {
+            x = b.like();
+        }
+
+        if (!(x instanceof DenseDComplexMatrix1D) || !(b instanceof DenseDComplexMatrix1D))
+            throw new IllegalArgumentException("x and b must be dense vectors");
+
+        double[] xd = ((DenseDComplexMatrix1D) x).elements();
+        double[] bd = ((DenseDComplexMatrix1D) b).elements();
+        int xidx = (int) x.index(0);
+        int bidx = (int) b.index(0);
+        int xstride = x.stride();
+        int bstride = b.stride();
+        double sign = conjugate ? -1 : 1;
+
+        for (int i = 0; i < invdiag.length / 2; ++i) {
+            double dRe = invdiag[2 * i];
+            double dIm = sign * invdiag[2 * i + 1];
+            double re = bd[bidx];
+            double im = bd[bidx + 1];
+            xd[xidx] = re * dRe - im * dIm;
+            xd[xidx + 1] = im * dRe + re * dIm;
+            xidx += xstride;
+            bidx += bstride;
+        }
+
+        return x;
+    }
+
+}
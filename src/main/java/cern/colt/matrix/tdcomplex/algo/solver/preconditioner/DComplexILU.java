@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2003-2006 Bjørn-Ove Heimsund
+ * 
+ * This file is part of MTJ.
+ * 
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package cern.colt.matrix.tdcomplex.algo.solver.preconditioner;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.impl.SparseCCDComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.impl.SparseRCDComplexMatrix2D;
+
+/**
+ * ILU(0) preconditioner for complex systems using a compressed row matrix as
+ * internal storage
+ */
+public class DComplexILU implements DComplexPreconditioner {
+
+    /**
+     * Factorisation matrix
+     */
+    private SparseRCDComplexMatrix2D LU;
+
+    /**
+     * Temporary vector for solving the factorised system
+     */
+    private final DenseDComplexMatrix1D y;
+
+    private int[] diagind;
+
+    private final int n;
+
+    /**
+     * Sets up the ILU preconditioner
+     * 
+     * @param n
+     *            Problem size (number of rows)
+     */
+    public DComplexILU(int n) {
+        this.n = n;
+        y = new DenseDComplexMatrix1D(n);
+    }
+
+    public DComplexMatrix1D apply(DComplexMatrix1D b, DComplexMatrix1D x) {
+        if (x == null) {
+            x = b.like();
+        }
+        checkDense(b, x);
+
+        // Ly = b, y = L\b
+        lowerUnitSolve((DenseDComplexMatrix1D) b, y);
+
+        // Ux = L\b = y
+        return upperSolve(y, (DenseDComplexMatrix1D) x);
+    }
+
+    public DComplexMatrix1D transApply(DComplexMatrix1D b, DComplexMatrix1D x) {
+        if (x == null) {
+            x = b.like();
+        }
+        checkDense(b, x);
+
+        // U^H y = b, y = U^H\b
+        upperConjTransSolve((DenseDComplexMatrix1D) b, y);
+
+        // L^H x = U^H\b = y
+        return lowerUnitConjTransSolve(y, (DenseDComplexMatrix1D) x);
+    }
+
+    public void setMatrix(DComplexMatrix2D A) {
+        if (A.rows() != n) {
+            throw new IllegalArgumentException("A.rows() != n");
+        }
+        if (A instanceof SparseRCDComplexMatrix2D) {
+            SparseRCDComplexMatrix2D other = (SparseRCDComplexMatrix2D) A;
+            LU = new SparseRCDComplexMatrix2D(n, n, other.getRowPointers().clone(), other.getColumnIndexes().clone(),
+                    other.getValues().clone());
+            sortColumnIndexes();
+        } else if (A instanceof SparseCCDComplexMatrix2D) {
+            LU = ((SparseCCDComplexMatrix2D) A).getRowCompressed();
+        } else {
+            LU = new SparseRCDComplexMatrix2D(n, n);
+            LU.assign(A);
+        }
+        factor();
+    }
+
+    private void checkDense(DComplexMatrix1D b, DComplexMatrix1D x) {
+        if (!(x instanceof DenseDComplexMatrix1D) || !(b instanceof DenseDComplexMatrix1D))
+            throw new IllegalArgumentException("x and b must be dense vectors");
+    }
+
+    /**
+     * Sorts the column indexes (and the values) of each row in ascending
+     * order.
+     */
+    private void sortColumnIndexes() {
+        int[] colind = LU.getColumnIndexes();
+        int[] rowptr = LU.getRowPointers();
+        double[] data = LU.getValues();
+        for (int r = 0; r < n; r++) {
+            for (int i = rowptr[r] + 1; i < rowptr[r + 1]; i++) {
+                int c = colind[i];
+                double re = data[2 * i];
+                double im = data[2 * i + 1];
+                int j = i - 1;
+                while (j >= rowptr[r] && colind[j] > c) {
+                    colind[j + 1] = colind[j];
+                    data[2 * j + 2] = data[2 * j];
+                    data[2 * j + 3] = data[2 * j + 1];
+                    j--;
+                }
+                colind[j + 1] = c;
+                data[2 * j + 2] = re;
+                data[2 * j + 3] = im;
+            }
+        }
+    }
+
+    private void factor() {
+
+        // Internal CRS matrix storage
+        int[] colind = LU.getColumnIndexes();
+        int[] rowptr = LU.getRowPointers();
+        double[] data = LU.getValues();
+
+        // Find the indexes to the diagonal entries
+        diagind = findDiagonalIndexes(n, colind, rowptr);
+
+        // Go down along the main diagonal
+        for (int k = 1; k < n; ++k)
+            for (int i = rowptr[k]; i < diagind[k]; ++i) {
+
+                // Get the current diagonal entry
+                int index = colind[i];
+                double LUiiRe = data[2 * diagind[index]];
+                double LUiiIm = data[2 * diagind[index] + 1];
+                double abs2 = LUiiRe * LUiiRe + LUiiIm * LUiiIm;
+
+                if (abs2 == 0)
+                    throw new RuntimeException("Zero pivot encountered on row " + (i + 1) + " during ILU process");
+
+                // Elimination factor
+                double re = data[2 * i];
+                double im = data[2 * i + 1];
+                double LUkiRe = (re * LUiiRe + im * LUiiIm) / abs2;
+                double LUkiIm = (im * LUiiRe - re * LUiiIm) / abs2;
+                data[2 * i] = LUkiRe;
+                data[2 * i + 1] = LUkiIm;
+
+                // Traverse the sparse row i, reducing on row k
+                for (int j = diagind[index] + 1, l = rowptr[k] + 1; j < rowptr[index + 1]; ++j) {
+
+                    while (l < rowptr[k + 1] && colind[l] < colind[j])
+                        l++;
+
+                    if (l < rowptr[k + 1] && colind[l] == colind[j]) {
+                        data[2 * l] -= LUkiRe * data[2 * j] - LUkiIm * data[2 * j + 1];
+                        data[2 * l + 1] -= LUkiRe * data[2 * j + 1] + LUkiIm * data[2 * j];
+                    }
+                }
+            }
+
+    }
+
+    private int[] findDiagonalIndexes(int m, int[] colind, int[] rowptr) {
+        int[] diagind = new int[m];
+
+        for (int k = 0; k < m; ++k) {
+            diagind[k] = cern.colt.Sorting.binarySearchFromTo(colind, k, rowptr[k], rowptr[k + 1] - 1);
+
+            if (diagind[k] < 0)
+                throw new RuntimeException("Missing diagonal entry on row " + (k + 1));
+        }
+
+        return diagind;
+    }
+
+    private DComplexMatrix1D lowerUnitSolve(DenseDComplexMatrix1D b, DenseDComplexMatrix1D x) {
+        double[] bd = b.elements();
+        double[] xd = x.elements();
+        int bzero = (int) b.index(0);
+        int bstride = b.stride();
+        int xzero = (int) x.index(0);
+        int xstride = x.stride();
+        int[] colind = LU.getColumnIndexes();
+        int[] rowptr = LU.getRowPointers();
+        double[] data = LU.getValues();
+        for (int i = 0; i < n; ++i) {
+
+            // xi = bi - sum[j<i] Lij * xj
+            double sumRe = 0;
+            double sumIm = 0;
+            for (int j = rowptr[i]; j < diagind[i]; ++j) {
+                int idx = xzero + colind[j] * xstride;
+                sumRe += data[2 * j] * xd[idx] - data[2 * j + 1] * xd[idx + 1];
+                sumIm += data[2 * j] * xd[idx + 1] + data[2 * j + 1] * xd[idx];
+            }
+
+            int bidx = bzero + i * bstride;
+            int xidx = xzero + i * xstride;
+            xd[xidx] = bd[bidx] - sumRe;
+            xd[xidx + 1] = bd[bidx + 1] - sumIm;
+        }
+
+        return x;
+    }
+
+    private DComplexMatrix1D lowerUnitConjTransSolve(DenseDComplexMatrix1D b, DenseDComplexMatrix1D x) {
+        x.assign(b);
+        double[] xd = x.elements();
+        int xzero = (int) x.index(0);
+        int xstride = x.stride();
+        int[] colind = LU.getColumnIndexes();
+        int[] rowptr = LU.getRowPointers();
+        double[] data = LU.getValues();
+
+        for (int i = n - 1; i >= 0; --i) {
+
+            // At this stage, x[i] is known, so move it over to the right hand
+            // side for the remaining equations
+            int xidx = xzero + i * xstride;
+            double re = xd[xidx];
+            double im = xd[xidx + 1];
+            for (int j = rowptr[i]; j < diagind[i]; ++j) {
+                int idx = xzero + colind[j] * xstride;
+                xd[idx] -= data[2 * j] * re + data[2 * j + 1] * im;
+                xd[idx + 1] -= data[2 * j] * im - data[2 * j + 1] * re;
+            }
+        }
+
+        return x;
+    }
+
+    private DComplexMatrix1D upperSolve(DenseDComplexMatrix1D b, DenseDComplexMatrix1D x) {
+        double[] bd = b.elements();
+        double[] xd = x.elements();
+        int bzero = (int) b.index(0);
+        int bstride = b.stride();
+        int xzero = (int) x.index(0);
+        int xstride = x.stride();
+        int[] colind = LU.getColumnIndexes();
+        int[] rowptr = LU.getRowPointers();
+        double[] data = LU.getValues();
+        for (int i = n - 1; i >= 0; --i) {
+
+            // xi = (bi - sum[j>i] Uij * xj) / Uii
+            int bidx = bzero + i * bstride;
+            double sumRe = bd[bidx];
+            double sumIm = bd[bidx + 1];
+            for (int j = diagind[i] + 1; j < rowptr[i + 1]; ++j) {
+                int idx = xzero + colind[j] * xstride;
+                sumRe -= data[2 * j] * xd[idx] - data[2 * j + 1] * xd[idx + 1];
+                sumIm -= data[2 * j] * xd[idx + 1] + data[2 * j + 1] * xd[idx];
+            }
+
+            double dRe = data[2 * diagind[i]];
+            double dIm = data[2 * diagind[i] + 1];
+            double abs2 = dRe * dRe + dIm * dIm;
+            int xidx = xzero + i * xstride;
+            xd[xidx] = (sumRe * dRe + sumIm * dIm) / abs2;
+            xd[xidx + 1] = (sumIm * dRe - sumRe * dIm) / abs2;
+        }
+
+        return x;
+    }
+
+    private DComplexMatrix1D upperConjTransSolve(DenseDComplexMatrix1D b, DenseDComplexMatrix1D x) {
+        x.assign(b);
+        double[] xd = x.elements();
+        int xzero = (int) x.index(0);
+        int xstride = x.stride();
+        int[] colind = LU.getColumnIndexes();
+        int[] rowptr = LU.getRowPointers();
+        double[] data = LU.getValues();
+
+        for (int i = 0; i < n; ++i) {
+
+            // Solve for the current entry, xi /= conj(Uii)
+            int xidx = xzero + i * xstride;
+            double dRe = data[2 * diagind[i]];
+            double dIm = -data[2 * diagind[i] + 1];
+            double abs2 = dRe * dRe + dIm * dIm;
+            double re = (xd[xidx] * dRe + xd[xidx + 1] * dIm) / abs2;
+            double im = (xd[xidx + 1] * dRe - xd[xidx] * dIm) / abs2;
+            xd[xidx] = re;
+            xd[xidx + 1] = im;
+
+            // Move this known solution over to the right hand side for the
+            // remaining equations
+            for (int j = diagind[i] + 1; j < rowptr[i + 1]; ++j) {
+                int idx = xzero + colind[j] * xstride;
+                xd[idx] -= data[2 * j] * re + data[2 * j + 1] * im;
+                xd[idx + 1] -= data[2 * j] * im - data[2 * j + 1] * re;
+            }
+        }
+
+        return x;
+    }
+
+}
@@ -0,0 +1,28 @@
+package cern.colt.matrix.tdcomplex.algo.solver.preconditioner;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+
+public class DComplexIdentity implements DComplexPreconditioner {
+
+    public DComplexMatrix1D apply(DComplexMatrix1D b, DComplexMatrix1D x) {
+        if (x == null) {
+            x = b.like();
+        }
+
+        return x.assign(b);
+    }
+
+    public DComplexMatrix1D transApply(DComplexMatrix1D b, DComplexMatrix1D x) {
+        if (x == null) {
+            x = b.like();
+        }
+
+        return x.assign(b);
+    }
+
+    public void setMatrix(DComplexMatrix2D A) {
+        // nothing to do
+    }
+
+}
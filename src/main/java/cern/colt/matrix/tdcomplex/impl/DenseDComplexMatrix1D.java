@@ -239,9 +239,10 @@ public class DenseDComplexMatrix1D extends DComplexMatrix1D {
                         if (function instanceof cern.jet.math.tdcomplex.DComplexMult) {
                             double[] multiplicator = ((cern.jet.math.tdcomplex.DComplexMult) function).multiplicator;
                             for (int k = firstIdx; k < lastIdx; k++) {
-                                elements[idx] = elements[idx] * multiplicator[0] - elements[idx + 1] * multiplicator[1];
-                                elements[idx + 1] = elements[idx + 1] * multiplicator[0] + elements[idx]
-                                        * multiplicator[1];
+                                double re = elements[idx];
+                                double im = elements[idx + 1];
+                                elements[idx] = re * multiplicator[0] - im * multiplicator[1];
+                                elements[idx + 1] = im * multiplicator[0] + re * multiplicator[1];
                                 idx += stride;
                             }
                         } else {
@@ -264,8 +265,10 @@ public class DenseDComplexMatrix1D extends DComplexMatrix1D {
             if (function instanceof cern.jet.math.tdcomplex.DComplexMult) {
                 double[] multiplicator = ((cern.jet.math.tdcomplex.DComplexMult) function).multiplicator;
                 for (int k = 0; k < size; k++) {
-                    elements[idx] = elements[idx] * multiplicator[0] - elements[idx + 1] * multiplicator[1];
-                    elements[idx + 1] = elements[idx + 1] * multiplicator[0] + elements[idx] * multiplicator[1];
+                    double re = elements[idx];
+                    double im = elements[idx + 1];
+                    elements[idx] = re * multiplicator[0] - im * multiplicator[1];
+                    elements[idx + 1] = im * multiplicator[0] + re * multiplicator[1];
                     idx += stride;
                 }
             } else {
@@ -603,6 +606,30 @@ public class DenseDComplexMatrix1D extends DComplexMatrix1D {
                                 idx += stride;
                                 idxOther += strideOther;
                             }
+                        } else if (function instanceof cern.jet.math.tdcomplex.DComplexPlusMultSecond) {
+                            double[] multiplicator = ((cern.jet.math.tdcomplex.DComplexPlusMultSecond) function).multiplicator;
+                            double mre = multiplicator[0];
+                            double mim = multiplicator[1];
+                            for (int k = firstIdx; k < lastIdx; k++) {
+                                double re = elemsOther[idxOther];
+                                double im = elemsOther[idxOther + 1];
+                                elements[idx] += re * mre - im * mim;
+                                elements[idx + 1] += im * mre + re * mim;
+                                idx += stride;
+                                idxOther += strideOther;
+                            }
+                        } else if (function instanceof cern.jet.math.tdcomplex.DComplexPlusMultFirst) {
+                            double[] multiplicator = ((cern.jet.math.tdcomplex.DComplexPlusMultFirst) function).multiplicator;
+                            double mre = multiplicator[0];
+                            double mim = multiplicator[1];
+                            for (int k = firstIdx; k < lastIdx; k++) {
+                                double re = elements[idx];
+                                double im = elements[idx + 1];
+                                elements[idx] = re * mre - im * mim + elemsOther[idxOther];
+                                elements[idx + 1] = im * mre + re * mim + elemsOther[idxOther + 1];
+                                idx += stride;
+                                idxOther += strideOther;
+                            }
                         } else {
                             double[] tmp1 = new double[2];
                             double[] tmp2 = new double[2];
@@ -689,6 +716,30 @@ public class DenseDComplexMatrix1D extends DComplexMatrix1D {
                     idx += stride;
                     idxOther += strideOther;
                 }
+            } else if (function instanceof cern.jet.math.tdcomplex.DComplexPlusMultSecond) {
+                double[] multiplicator = ((cern.jet.math.tdcomplex.DComplexPlusMultSecond) function).multiplicator;
+                double mre = multiplicator[0];
+                double mim = multiplicator[1];
+                for (int k = 0; k < size; k++) {
+                    double re = elemsOther[idxOther];
+                    double im = elemsOther[idxOther + 1];
+                    elements[idx] += re * mre - im * mim;
+                    elements[idx + 1] += im * mre + re * mim;
+                    idx += stride;
+                    idxOther += strideOther;
+                }
+            } else if (function instanceof cern.jet.math.tdcomplex.DComplexPlusMultFirst) {
+                double[] multiplicator = ((cern.jet.math.tdcomplex.DComplexPlusMultFirst) function).multiplicator;
+                double mre = multiplicator[0];
+                double mim = multiplicator[1];
+                for (int k = 0; k < size; k++) {
+                    double re = elements[idx];
+                    double im = elements[idx + 1];
+                    elements[idx] = re * mre - im * mim + elemsOther[idxOther];
+                    elements[idx + 1] = im * mre + re * mim + elemsOther[idxOther + 1];
+                    idx += stride;
+                    idxOther += strideOther;
+                }
             } else {
                 double[] tmp1 = new double[2];
                 double[] tmp2 = new double[2];
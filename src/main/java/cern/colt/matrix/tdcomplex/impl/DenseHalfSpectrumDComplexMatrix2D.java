@@ -0,0 +1,297 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.matrix.tdcomplex.impl;
+
+import java.util.concurrent.Future;
+
+import org.jtransforms.fft.DoubleFFT_1D;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Dense 2-d matrix holding the non-redundant half of the discrete Fourier
+ * transform (DFT) of a real <tt>rows x realColumns</tt> matrix. <b>Implementation:</b>
+ * <p>
+ * The DFT <tt>X</tt> of a real matrix is Hermitian symmetric, i.e.
+ * <tt>X[r][c] = conj(X[(rows-r)%rows][(realColumns-c)%realColumns])</tt>.
+ * Therefore only the columns <tt>0 &lt;= c &lt;= realColumns/2</tt> are stored,
+ * which is almost half of the memory needed by the full spectrum. The storage
+ * layout is the same as in {@link DenseDComplexMatrix2D}, so all elementwise
+ * operations (e.g. <tt>assign(y, DComplexFunctions.mult)</tt>) are inherited.
+ * Note that the elementwise product of two half spectra is the half spectrum
+ * of the circular convolution of the corresponding real matrices.
+ * <p>
+ * Instances are obtained from
+ * {@link DenseDoubleMatrix2D#getHalfSpectrumFft2()}. The inverse transform
+ * {@link #getIfft2(boolean)} works directly on the half spectrum and never
+ * expands it to the full size.
+ *
+ * @author Piotr Wendykier (piotr.wendykier@gmail.com)
+ *
+ */
+public class DenseHalfSpectrumDComplexMatrix2D extends DenseDComplexMatrix2D {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of columns of the real matrix.
+     */
+    protected int realColumns;
+
+    /**
+     * Constructs a half spectrum of a real <tt>rows x realColumns</tt> matrix.
+     * The new matrix has <tt>rows</tt> rows and <tt>realColumns / 2 + 1</tt>
+     * columns. All entries are initially <tt>0</tt>.
+     *
+     * @param rows
+     *            the number of rows of the real matrix.
+     * @param realColumns
+     *            the number of columns of the real matrix.
+     * @throws IllegalArgumentException
+     *             if <tt>rows<0 || realColumns<1</tt>.
+     */
+    public DenseHalfSpectrumDComplexMatrix2D(int rows, int realColumns) {
+        super(rows, halfColumns(realColumns));
+        this.realColumns = realColumns;
+    }
+
+    private static int halfColumns(int realColumns) {
+        if (realColumns < 1)
+            throw new IllegalArgumentException("realColumns must be positive: " + realColumns);
+        return realColumns / 2 + 1;
+    }
+
+    /**
+     * Returns the number of columns of the real matrix this half spectrum
+     * belongs to.
+     *
+     * @return the number of columns of the real matrix.
+     */
+    public int realColumns() {
+        return realColumns;
+    }
+
+    /**
+     * Returns the element of the full spectrum at the given coordinate. Cells
+     * of the redundant half are computed from the Hermitian symmetry.
+     *
+     * @param row
+     *            the index of the row-coordinate.
+     * @param column
+     *            the index of the column-coordinate of the full spectrum, i.e.
+     *            <tt>0 &lt;= column &lt; realColumns</tt>.
+     * @return the element of the full spectrum.
+     */
+    public double[] getFullQuick(int row, int column) {
+        if (column < columns) {
+            return getQuick(row, column);
+        }
+        double[] elem = getQuick(row == 0 ? 0 : rows - row, realColumns - column);
+        elem[1] = -elem[1];
+        return elem;
+    }
+
+    /**
+     * Returns a new complex matrix which is the full spectrum
+     * (<tt>rows x realColumns</tt>) corresponding to this half spectrum. The
+     * result is the same as the one returned by
+     * {@link DenseDoubleMatrix2D#getFft2()}.
+     *
+     * @return the full spectrum.
+     */
+    public DenseDComplexMatrix2D getFullSpectrum() {
+        checkHalfSpectrum();
+        final DenseDComplexMatrix2D C = new DenseDComplexMatrix2D(rows, realColumns);
+        final double[] elementsC = C.elements();
+        final int zero = (int) index(0, 0);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthreads];
+            int k = rows / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthreads - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        expandRows(zero, elementsC, firstRow, lastRow);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            expandRows(zero, elementsC, 0, rows);
+        }
+        return C;
+    }
+
+    /**
+     * Returns a new real matrix which is the 2D inverse of the discrete Fourier
+     * transform (IDFT) of this half spectrum. The inverse is computed with
+     * complex transforms of the stored columns followed by real inverse
+     * transforms of the rows, so the full spectrum is never formed.
+     *
+     * @param scale
+     *            if true then scaling is performed
+     * @return the real <tt>rows x realColumns</tt> matrix.
+     * @throws IllegalArgumentException
+     *             if this matrix is a view whose shape is not the one of a half
+     *             spectrum.
+     */
+    public DenseDoubleMatrix2D getIfft2(final boolean scale) {
+        checkHalfSpectrum();
+        int oldNthreads = ConcurrencyUtils.getNumberOfThreads();
+        ConcurrencyUtils.setNumberOfThreads(ConcurrencyUtils.nextPow2(oldNthreads));
+        final DenseDoubleMatrix2D R = new DenseDoubleMatrix2D(rows, realColumns);
+        final double[] elementsR = R.elements();
+        final double[] work = new double[2 * rows * columns];
+        final DoubleFFT_1D fftColumns = new DoubleFFT_1D(rows);
+        final DoubleFFT_1D fftRows = new DoubleFFT_1D(realColumns);
+        final int zero = (int) index(0, 0);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_2Threads(Integer.MAX_VALUE);
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_4Threads(Integer.MAX_VALUE);
+            int nthr = Math.min(nthreads, columns);
+            Future<?>[] futures = new Future[nthr];
+            int k = columns / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstColumn = j * k;
+                final int lastColumn = (j == nthr - 1) ? columns : firstColumn + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        ifftColumns(fftColumns, scale, zero, work, firstColumn, lastColumn);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            nthr = Math.min(nthreads, rows);
+            futures = new Future[nthr];
+            k = rows / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthr - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        ifftRows(fftRows, scale, work, elementsR, firstRow, lastRow);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            ConcurrencyUtils.resetThreadsBeginN_FFT();
+        } else {
+            ifftColumns(fftColumns, scale, zero, work, 0, columns);
+            ifftRows(fftRows, scale, work, elementsR, 0, rows);
+        }
+        ConcurrencyUtils.setNumberOfThreads(oldNthreads);
+        return R;
+    }
+
+    public DComplexMatrix2D assign(final DComplexMatrix2D y,
+            final cern.colt.function.tdcomplex.DComplexDComplexDComplexFunction function) {
+        if (y instanceof DenseHalfSpectrumDComplexMatrix2D
+                && ((DenseHalfSpectrumDComplexMatrix2D) y).realColumns != realColumns) {
+            throw new IllegalArgumentException("Incompatible half spectra: realColumns=" + realColumns + ", "
+                    + ((DenseHalfSpectrumDComplexMatrix2D) y).realColumns);
+        }
+        return super.assign(y, function);
+    }
+
+    public DComplexMatrix2D like() {
+        if (columns == realColumns / 2 + 1) {
+            return new DenseHalfSpectrumDComplexMatrix2D(rows, realColumns);
+        }
+        return super.like();
+    }
+
+    /**
+     * Packs a half spectrum row into the format expected by
+     * <tt>DoubleFFT_1D.realInverse</tt>.
+     */
+    static void packRealInverse(double[] src, int srcOffset, double[] dst, int n) {
+        dst[0] = src[srcOffset];
+        if (n == 1) {
+            return;
+        }
+        if (n % 2 == 0) {
+            int h = n / 2;
+            for (int k = 1; k < h; k++) {
+                dst[2 * k] = src[srcOffset + 2 * k];
+                dst[2 * k + 1] = src[srcOffset + 2 * k + 1];
+            }
+            dst[1] = src[srcOffset + 2 * h];
+        } else {
+            int h = (n - 1) / 2;
+            for (int k = 1; k < h; k++) {
+                dst[2 * k] = src[srcOffset + 2 * k];
+                dst[2 * k + 1] = src[srcOffset + 2 * k + 1];
+            }
+            dst[n - 1] = src[srcOffset + 2 * h];
+            dst[1] = src[srcOffset + 2 * h + 1];
+        }
+    }
+
+    private void checkHalfSpectrum() {
+        if (columns != realColumns / 2 + 1) {
+            throw new IllegalArgumentException("Not a half spectrum: columns=" + columns + ", realColumns="
+                    + realColumns);
+        }
+    }
+
+    private void expandRows(int zero, double[] elementsC, int firstRow, int lastRow) {
+        int rowStrideC = 2 * realColumns;
+        for (int r = firstRow; r < lastRow; r++) {
+            int idx = zero + r * rowStride;
+            int idxC = r * rowStrideC;
+            for (int c = 0; c < columns; c++) {
+                elementsC[idxC + 2 * c] = elements[idx];
+                elementsC[idxC + 2 * c + 1] = elements[idx + 1];
+                idx += columnStride;
+            }
+            int idxS = zero + (r == 0 ? 0 : rows - r) * rowStride;
+            for (int c = columns; c < realColumns; c++) {
+                int i = idxS + (realColumns - c) * columnStride;
+                elementsC[idxC + 2 * c] = elements[i];
+                elementsC[idxC + 2 * c + 1] = -elements[i + 1];
+            }
+        }
+    }
+
+    private void ifftColumns(DoubleFFT_1D fft, boolean scale, int zero, double[] work, int firstColumn,
+            int lastColumn) {
+        double[] buffer = new double[2 * rows];
+        int rowStrideW = 2 * columns;
+        for (int c = firstColumn; c < lastColumn; c++) {
+            int idx = zero + c * columnStride;
+            for (int r = 0; r < rows; r++) {
+                buffer[2 * r] = elements[idx];
+                buffer[2 * r + 1] = elements[idx + 1];
+                idx += rowStride;
+            }
+            fft.complexInverse(buffer, scale);
+            idx = 2 * c;
+            for (int r = 0; r < rows; r++) {
+                work[idx] = buffer[2 * r];
+                work[idx + 1] = buffer[2 * r + 1];
+                idx += rowStrideW;
+            }
+        }
+    }
+
+    private void ifftRows(DoubleFFT_1D fft, boolean scale, double[] work, double[] elementsR, int firstRow,
+            int lastRow) {
+        double[] buffer = new double[realColumns];
+        for (int r = firstRow; r < lastRow; r++) {
+            packRealInverse(work, 2 * r * columns, buffer, realColumns);
+            fft.realInverse(buffer, scale);
+            System.arraycopy(buffer, 0, elementsR, r * realColumns, realColumns);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.matrix.tdcomplex.impl;
+
+import java.util.concurrent.Future;
+
+import org.jtransforms.fft.DoubleFFT_1D;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix3D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix3D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Dense 3-d matrix holding the non-redundant half of the discrete Fourier
+ * transform (DFT) of a real <tt>slices x rows x realColumns</tt> matrix.
+ * <b>Implementation:</b>
+ * <p>
+ * Only the columns <tt>0 &lt;= c &lt;= realColumns/2</tt> of the Hermitian
+ * symmetric spectrum are stored, the remaining ones follow from
+ * <tt>X[s][r][c] = conj(X[(slices-s)%slices][(rows-r)%rows][(realColumns-c)%realColumns])</tt>.
+ * The storage layout is the same as in {@link DenseDComplexMatrix3D}, so all
+ * elementwise operations are inherited.
+ * <p>
+ * Instances are obtained from
+ * {@link DenseDoubleMatrix3D#getHalfSpectrumFft3()}. The inverse transform
+ * {@link #getIfft3(boolean)} works directly on the half spectrum and never
+ * expands it to the full size.
+ *
+ * @see DenseHalfSpectrumDComplexMatrix2D
+ *
+ * @author Piotr Wendykier (piotr.wendykier@gmail.com)
+ *
+ */
+public class DenseHalfSpectrumDComplexMatrix3D extends DenseDComplexMatrix3D {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of columns of the real matrix.
+     */
+    protected int realColumns;
+
+    /**
+     * Constructs a half spectrum of a real
+     * <tt>slices x rows x realColumns</tt> matrix. The new matrix has
+     * <tt>realColumns / 2 + 1</tt> columns. All entries are initially
+     * <tt>0</tt>.
+     *
+     * @param slices
+     *            the number of slices of the real matrix.
+     * @param rows
+     *            the number of rows of the real matrix.
+     * @param realColumns
+     *            the number of columns of the real matrix.
+     * @throws IllegalArgumentException
+     *             if <tt>slices<0 || rows<0 || realColumns<1</tt>.
+     */
+    public DenseHalfSpectrumDComplexMatrix3D(int slices, int rows, int realColumns) {
+        super(slices, rows, halfColumns(realColumns));
+        this.realColumns = realColumns;
+    }
+
+    private static int halfColumns(int realColumns) {
+        if (realColumns < 1)
+            throw new IllegalArgumentException("realColumns must be positive: " + realColumns);
+        return realColumns / 2 + 1;
+    }
+
+    /**
+     * Returns the number of columns of the real matrix this half spectrum
+     * belongs to.
+     *
+     * @return the number of columns of the real matrix.
+     */
+    public int realColumns() {
+        return realColumns;
+    }
+
+    /**
+     * Returns the element of the full spectrum at the given coordinate. Cells
+     * of the redundant half are computed from the Hermitian symmetry.
+     *
+     * @param slice
+     *            the index of the slice-coordinate.
+     * @param row
+     *            the index of the row-coordinate.
+     * @param column
+     *            the index of the column-coordinate of the full spectrum, i.e.
+     *            <tt>0 &lt;= column &lt; realColumns</tt>.
+     * @return the element of the full spectrum.
+     */
+    public double[] getFullQuick(int slice, int row, int column) {
+        if (column < columns) {
+            return getQuick(slice, row, column);
+        }
+        double[] elem = getQuick(slice == 0 ? 0 : slices - slice, row == 0 ? 0 : rows - row, realColumns - column);
+        elem[1] = -elem[1];
+        return elem;
+    }
+
+    /**
+     * Returns a new complex matrix which is the full spectrum
+     * (<tt>slices x rows x realColumns</tt>) corresponding to this half
+     * spectrum. The result is the same as the one returned by
+     * {@link DenseDoubleMatrix3D#getFft3()}.
+     *
+     * @return the full spectrum.
+     */
+    public DenseDComplexMatrix3D getFullSpectrum() {
+        checkHalfSpectrum();
+        final DenseDComplexMatrix3D C = new DenseDComplexMatrix3D(slices, rows, realColumns);
+        final double[] elementsC = C.elements();
+        final int zero = (int) index(0, 0, 0);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        expandSlices(zero, elementsC, firstSlice, lastSlice);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            expandSlices(zero, elementsC, 0, slices);
+        }
+        return C;
+    }
+
+    /**
+     * Returns a new real matrix which is the 3D inverse of the discrete Fourier
+     * transform (IDFT) of this half spectrum. The inverse is computed with
+     * complex transforms along the slices and rows of the stored columns
+     * followed by real inverse transforms of the rows, so the full spectrum is
+     * never formed.
+     *
+     * @param scale
+     *            if true then scaling is performed
+     * @return the real <tt>slices x rows x realColumns</tt> matrix.
+     * @throws IllegalArgumentException
+     *             if this matrix is a view whose shape is not the one of a half
+     *             spectrum.
+     */
+    public DenseDoubleMatrix3D getIfft3(final boolean scale) {
+        checkHalfSpectrum();
+        int oldNthreads = ConcurrencyUtils.getNumberOfThreads();
+        ConcurrencyUtils.setNumberOfThreads(ConcurrencyUtils.nextPow2(oldNthreads));
+        final DenseDoubleMatrix3D R = new DenseDoubleMatrix3D(slices, rows, realColumns);
+        final double[] elementsR = R.elements();
+        final double[] work = new double[2 * slices * rows * columns];
+        final DoubleFFT_1D fftSlices = new DoubleFFT_1D(slices);
+        final DoubleFFT_1D fftColumns = new DoubleFFT_1D(rows);
+        final DoubleFFT_1D fftRows = new DoubleFFT_1D(realColumns);
+        final int zero = (int) index(0, 0, 0);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_2Threads(Integer.MAX_VALUE);
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_4Threads(Integer.MAX_VALUE);
+            int nthr = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthr];
+            int k = rows / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthr - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        ifftSlices(fftSlices, scale, zero, work, firstRow, lastRow);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            nthr = Math.min(nthreads, slices);
+            futures = new Future[nthr];
+            k = slices / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthr - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        ifftColumns(fftColumns, scale, work, firstSlice, lastSlice);
+                        ifftRows(fftRows, scale, work, elementsR, firstSlice, lastSlice);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            ConcurrencyUtils.resetThreadsBeginN_FFT();
+        } else {
+            ifftSlices(fftSlices, scale, zero, work, 0, rows);
+            ifftColumns(fftColumns, scale, work, 0, slices);
+            ifftRows(fftRows, scale, work, elementsR, 0, slices);
+        }
+        ConcurrencyUtils.setNumberOfThreads(oldNthreads);
+        return R;
+    }
+
+    public DComplexMatrix3D assign(final DComplexMatrix3D y,
+            final cern.colt.function.tdcomplex.DComplexDComplexDComplexFunction function) {
+        if (y instanceof DenseHalfSpectrumDComplexMatrix3D
+                && ((DenseHalfSpectrumDComplexMatrix3D) y).realColumns != realColumns) {
+            throw new IllegalArgumentException("Incompatible half spectra: realColumns=" + realColumns + ", "
+                    + ((DenseHalfSpectrumDComplexMatrix3D) y).realColumns);
+        }
+        return super.assign(y, function);
+    }
+
+    public DComplexMatrix3D like() {
+        if (columns == realColumns / 2 + 1) {
+            return new DenseHalfSpectrumDComplexMatrix3D(slices, rows, realColumns);
+        }
+        return super.like();
+    }
+
+    private void checkHalfSpectrum() {
+        if (columns != realColumns / 2 + 1) {
+            throw new IllegalArgumentException("Not a half spectrum: columns=" + columns + ", realColumns="
+                    + realColumns);
+        }
+    }
+
+    private void expandSlices(int zero, double[] elementsC, int firstSlice, int lastSlice) {
+        int rowStrideC = 2 * realColumns;
+        int sliceStrideC = rows * rowStrideC;
+        for (int s = firstSlice; s < lastSlice; s++) {
+            int sS = s == 0 ? 0 : slices - s;
+            for (int r = 0; r < rows; r++) {
+                int idx = zero + s * sliceStride + r * rowStride;
+                int idxC = s * sliceStrideC + r * rowStrideC;
+                for (int c = 0; c < columns; c++) {
+                    elementsC[idxC + 2 * c] = elements[idx];
+                    elementsC[idxC + 2 * c + 1] = elements[idx + 1];
+                    idx += columnStride;
+                }
+                int idxS = zero + sS * sliceStride + (r == 0 ? 0 : rows - r) * rowStride;
+                for (int c = columns; c < realColumns; c++) {
+                    int i = idxS + (realColumns - c) * columnStride;
+                    elementsC[idxC + 2 * c] = elements[i];
+                    elementsC[idxC + 2 * c + 1] = -elements[i + 1];
+                }
+            }
+        }
+    }
+
+    private void ifftSlices(DoubleFFT_1D fft, boolean scale, int zero, double[] work, int firstRow, int lastRow) {
+        double[] buffer = new double[2 * slices];
+        int rowStrideW = 2 * columns;
+        int sliceStrideW = rows * rowStrideW;
+        for (int r = firstRow; r < lastRow; r++) {
+            for (int c = 0; c < columns; c++) {
+                int idx = zero + r * rowStride + c * columnStride;
+                for (int s = 0; s < slices; s++) {
+                    buffer[2 * s] = elements[idx];
+                    buffer[2 * s + 1] = elements[idx + 1];
+                    idx += sliceStride;
+                }
+                fft.complexInverse(buffer, scale);
+                idx = r * rowStrideW + 2 * c;
+                for (int s = 0; s < slices; s++) {
+                    work[idx] = buffer[2 * s];
+                    work[idx + 1] = buffer[2 * s + 1];
+                    idx += sliceStrideW;
+                }
+            }
+        }
+    }
+
+    private void ifftColumns(DoubleFFT_1D fft, boolean scale, double[] work, int firstSlice, int lastSlice) {
+        double[] buffer = new double[2 * rows];
+        int rowStrideW = 2 * columns;
+        int sliceStrideW = rows * rowStrideW;
+        for (int s = firstSlice; s < lastSlice; s++) {
+            for (int c = 0; c < columns; c++) {
+                int idx = s * sliceStrideW + 2 * c;
+                for (int r = 0; r < rows; r++) {
+                    buffer[2 * r] = work[idx];
+                    buffer[2 * r + 1] = work[idx + 1];
+                    idx += rowStrideW;
+                }
+                fft.complexInverse(buffer, scale);
+                idx = s * sliceStrideW + 2 * c;
+                for (int r = 0; r < rows; r++) {
+                    work[idx] = buffer[2 * r];
+                    work[idx + 1] = buffer[2 * r + 1];
+                    idx += rowStrideW;
+                }
+            }
+        }
+    }
+
+    private void ifftRows(DoubleFFT_1D fft, boolean scale, double[] work, double[] elementsR, int firstSlice,
+            int lastSlice) {
+        double[] buffer = new double[realColumns];
+        for (int s = firstSlice; s < lastSlice; s++) {
+            for (int r = 0; r < rows; r++) {
+                int i = s * rows + r;
+                DenseHalfSpectrumDComplexMatrix2D.packRealInverse(work, 2 * i * columns, buffer, realColumns);
+                fft.realInverse(buffer, scale);
+                System.arraycopy(buffer, 0, elementsR, i * realColumns, realColumns);
+            }
+        }
+    }
+}
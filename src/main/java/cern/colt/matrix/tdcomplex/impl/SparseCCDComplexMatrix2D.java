@@ -53,6 +53,12 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
 
     protected double[] values;
 
+    /*
+     * Reduction buffers of the parallel zMult, kept between calls because the
+     * iterative solvers multiply by the same matrix at every step.
+     */
+    private transient double[][][] zMultBuffers;
+
     /**
      * Constructs a matrix with a copy of the given values. <tt>values</tt> is
      * required to have the form <tt>values[row][column]</tt> and have exactly
@@ -199,16 +205,25 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         this.rowIndexes = new int[nz];
         this.values = new double[2 * nz];
         this.columnPointers = new int[columns + 1];
-        int[] w = new int[columns];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[columnIndexes[k]]++;
-        }
-        cumsum(this.columnPointers, w, columns);
-        for (int k = 0; k < nz; k++) {
-            this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
-            this.values[2 * r] = re;
-            this.values[2 * r + 1] = im;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(columnIndexes, rowIndexes, nz, columns, this.columnPointers, this.rowIndexes);
+            for (int k = 0; k < nz; k++) {
+                this.values[2 * k] = re;
+                this.values[2 * k + 1] = im;
+            }
+        } else {
+            int[] w = new int[columns];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[columnIndexes[k]]++;
+            }
+            cumsum(this.columnPointers, w, columns);
+            for (int k = 0; k < nz; k++) {
+                this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
+                this.values[2 * r] = re;
+                this.values[2 * r + 1] = im;
+            }
         }
         if (removeDuplicates) {
             removeDuplicates();
@@ -252,16 +267,22 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         this.rowIndexes = new int[nz];
         this.values = new double[2 * nz];
         this.columnPointers = new int[columns + 1];
-        int[] w = new int[columns];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[columnIndexes[k]]++;
-        }
-        cumsum(this.columnPointers, w, columns);
-        for (int k = 0; k < nz; k++) {
-            this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
-            this.values[2 * r] = values[2 * k];
-            this.values[2 * r + 1] = values[2 * k + 1];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(columnIndexes, rowIndexes, nz, columns, this.columnPointers, this.rowIndexes);
+            scatter(dest, values, this.values, nz);
+        } else {
+            int[] w = new int[columns];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[columnIndexes[k]]++;
+            }
+            cumsum(this.columnPointers, w, columns);
+            for (int k = 0; k < nz; k++) {
+                this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
+                this.values[2 * r] = values[2 * k];
+                this.values[2 * r + 1] = values[2 * k + 1];
+            }
         }
         if (removeDuplicates) {
             removeDuplicates();
@@ -329,9 +350,9 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
             System.arraycopy(other.getRowIndexes(), 0, rowIndexes, 0, nzmax);
             System.arraycopy(other.getValues(), 0, values, 0, other.getValues().length);
         } else if (source instanceof SparseRCDComplexMatrix2D) {
-            SparseRCDComplexMatrix2D other = ((SparseRCDComplexMatrix2D) source).getConjugateTranspose();
-            columnPointers = other.getRowPointers();
-            rowIndexes = other.getColumnIndexes();
+            SparseCCDComplexMatrix2D other = ((SparseRCDComplexMatrix2D) source).getColumnCompressed();
+            columnPointers = other.getColumnPointers();
+            rowIndexes = other.getRowIndexes();
             values = other.getValues();
         } else {
             assign(0, 0);
@@ -523,6 +544,10 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
      */
     public SparseRCDComplexMatrix2D getRowCompressed() {
         SparseCCDComplexMatrix2D tr = getConjugateTranspose();
+        double[] valuesT = tr.values;
+        for (int k = 1; k < valuesT.length; k += 2) {
+            valuesT[k] = -valuesT[k];
+        }
         SparseRCDComplexMatrix2D rc = new SparseRCDComplexMatrix2D(rows, columns);
         rc.columnIndexes = tr.rowIndexes;
         rc.rowPointers = tr.columnPointers;
@@ -652,45 +677,67 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
      * Sorts row indexes
      */
     public void sortRowIndexes() {
-        SparseCCDComplexMatrix2D tr = getConjugateTranspose();
-        tr = tr.getConjugateTranspose();
-        columnPointers = tr.columnPointers;
-        rowIndexes = tr.rowIndexes;
-        values = tr.values;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(columnPointers, rowIndexes, columns, rows);
+            double[] valuesNew = new double[values.length];
+            scatter(dest, values, valuesNew, cardinality());
+            values = valuesNew;
+        } else {
+            SparseCCDComplexMatrix2D tr = getConjugateTranspose();
+            tr = tr.getConjugateTranspose();
+            columnPointers = tr.columnPointers;
+            rowIndexes = tr.rowIndexes;
+            values = tr.values;
+        }
     }
 
     /**
      * Removes (sums) duplicate entries (if any}
      */
     public void removeDuplicates() {
-        int i, j, p, q, nz = 0, n, m, Ap[], Ai[], w[];
-        double Ax[];
-        /* check inputs */
-        m = rows;
-        n = columns;
-        Ap = columnPointers;
-        Ai = rowIndexes;
-        Ax = values;
-        w = new int[m]; /* get workspace */
-        for (i = 0; i < m; i++)
-            w[i] = -1; /* row i not yet seen */
-        for (j = 0; j < n; j++) {
-            q = nz; /* column j will start at q */
-            for (p = Ap[j]; p < Ap[j + 1]; p++) {
-                i = Ai[p]; /* A(i,j) is nonzero */
-                if (w[i] >= q) {
-                    Ax[w[i]] += Ax[p]; /* A(i,j) is a duplicate */
-                } else {
-                    w[i] = nz; /* record where row i occurs */
-                    Ai[nz] = i; /* keep A(i,j) */
-                    Ax[2 * nz] = Ax[2 * p];
-                    Ax[2 * nz + 1] = Ax[2 * p + 1];
-                    nz++;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] target = new int[cardinality()];
+            int[] pointersNew = compressDuplicates(columnPointers, rowIndexes, columns, rows, target);
+            int nz = pointersNew[columns];
+            int[] indexesNew = new int[nz];
+            double[] valuesNew = new double[2 * nz];
+            sumDuplicates(columnPointers, rowIndexes, values, columns, target, indexesNew, valuesNew);
+            columnPointers = pointersNew;
+            rowIndexes = indexesNew;
+            values = valuesNew;
+        } else {
+            int i, j, p, q, nz = 0, n, m, Ap[], Ai[], w[];
+            double Ax[];
+            /* check inputs */
+            m = rows;
+            n = columns;
+            Ap = columnPointers;
+            Ai = rowIndexes;
+            Ax = values;
+            w = new int[m]; /* get workspace */
+            for (i = 0; i < m; i++)
+                w[i] = -1; /* row i not yet seen */
+            for (j = 0; j < n; j++) {
+                q = nz; /* column j will start at q */
+                for (p = Ap[j]; p < Ap[j + 1]; p++) {
+                    i = Ai[p]; /* A(i,j) is nonzero */
+                    if (w[i] >= q) {
+                        Ax[2 * w[i]] += Ax[2 * p]; /* A(i,j) is a duplicate */
+                        Ax[2 * w[i] + 1] += Ax[2 * p + 1];
+                    } else {
+                        w[i] = nz; /* record where row i occurs */
+                        Ai[nz] = i; /* keep A(i,j) */
+                        Ax[2 * nz] = Ax[2 * p];
+                        Ax[2 * nz + 1] = Ax[2 * p + 1];
+                        nz++;
+                    }
                 }
+                Ap[j] = q; /* record start of column j */
             }
-            Ap[j] = q; /* record start of column j */
+            Ap[n] = nz; /* finalize A */
         }
-        Ap[n] = nz; /* finalize A */
     }
 
     /**
@@ -749,7 +796,7 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         final int rowsA = transposeA ? columns : rows;
         final int columnsA = transposeA ? rows : columns;
 
-        boolean ignore = (z == null || transposeA);
+        boolean ignore = (z == null);
         if (z == null)
             z = new DenseDComplexMatrix1D(rowsA);
 
@@ -772,11 +819,6 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         final int strideY = yy.stride();
         final int zeroY = (int) yy.index(0);
 
-        final int[] rowIndexesA = rowIndexes;
-        final int[] columnPointersA = columnPointers;
-        final double[] valuesA = values;
-
-        int zidx = zeroZ;
         int nthreads = ConcurrencyUtils.getNumberOfThreads();
         if (!transposeA) {
             if ((!ignore) && !(beta[0] == 1 && beta[1] == 0)) {
@@ -784,9 +826,10 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
             }
 
             if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
-                nthreads = 2;
+                nthreads = Math.min(nthreads, columns);
                 Future<?>[] futures = new Future[nthreads];
-                final double[] result = new double[2 * rowsA];
+                final int nresults = nthreads - 1;
+                final double[][] results = takeZMultBuffers(nresults, 2 * rowsA);
                 int k = columns / nthreads;
                 for (int j = 0; j < nthreads; j++) {
                     final int firstColumn = j * k;
@@ -794,67 +837,46 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
                     final int threadID = j;
                     futures[j] = ConcurrencyUtils.submit(new Runnable() {
                         public void run() {
-                            double[] yElem = new double[2];
-                            double[] valA = new double[2];
                             if (threadID == 0) {
-                                for (int i = firstColumn; i < lastColumn; i++) {
-                                    int high = columnPointersA[i + 1];
-                                    yElem[0] = elementsY[zeroY + strideY * i];
-                                    yElem[1] = elementsY[zeroY + strideY * i + 1];
-                                    for (int k = columnPointersA[i]; k < high; k++) {
-                                        int j = rowIndexesA[k];
-                                        valA[0] = valuesA[2 * k];
-                                        valA[1] = valuesA[2 * k + 1];
-                                        valA = DComplex.mult(valA, yElem);
-                                        valA = DComplex.mult(valA, alpha);
-                                        elementsZ[zeroZ + strideZ * j] += valA[0];
-                                        elementsZ[zeroZ + strideZ * j + 1] += valA[1];
-                                    }
-                                }
+                                zMultColumns(alpha, elementsY, zeroY, strideY, elementsZ, zeroZ, strideZ,
+                                        firstColumn, lastColumn);
                             } else {
-                                for (int i = firstColumn; i < lastColumn; i++) {
-                                    int high = columnPointersA[i + 1];
-                                    yElem[0] = elementsY[zeroY + strideY * i];
-                                    yElem[1] = elementsY[zeroY + strideY * i + 1];
-                                    for (int k = columnPointersA[i]; k < high; k++) {
-                                        int j = rowIndexesA[k];
-                                        valA[0] = valuesA[2 * k];
-                                        valA[1] = valuesA[2 * k + 1];
-                                        valA = DComplex.mult(valA, yElem);
-                                        valA = DComplex.mult(valA, alpha);
-                                        result[2 * j] += valA[0];
-                                        result[2 * j + 1] += valA[1];
-                                    }
-                                }
+                                zMultColumns(alpha, elementsY, zeroY, strideY, results[threadID - 1], 0, 2,
+                                        firstColumn, lastColumn);
                             }
                         }
                     });
                 }
                 ConcurrencyUtils.waitForCompletion(futures);
-                for (int j = 0; j < rowsA; j++) {
-                    elementsZ[zeroZ + j * strideZ] += result[2 * j];
-                    elementsZ[zeroZ + j * strideZ + 1] += result[2 * j + 1];
+                k = rowsA / nthreads;
+                for (int j = 0; j < nthreads; j++) {
+                    final int firstIdx = j * k;
+                    final int lastIdx = (j == nthreads - 1) ? rowsA : firstIdx + k;
+                    futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                        public void run() {
+                            for (int r = 0; r < nresults; r++) {
+                                double[] result = results[r];
+                                int idx = zeroZ + firstIdx * strideZ;
+                                for (int i = firstIdx; i < lastIdx; i++) {
+                                    elementsZ[idx] += result[2 * i];
+                                    elementsZ[idx + 1] += result[2 * i + 1];
+                                    // leave the buffer zeroed for the next call
+                                    result[2 * i] = 0;
+                                    result[2 * i + 1] = 0;
+                                    idx += strideZ;
+                                }
+                            }
+                        }
+                    });
                 }
+                ConcurrencyUtils.waitForCompletion(futures);
+                putZMultBuffers(results);
             } else {
-                double[] yElem = new double[2];
-                double[] valA = new double[2];
-                for (int i = 0; i < columns; i++) {
-                    int high = columnPointersA[i + 1];
-                    yElem[0] = elementsY[zeroY + strideY * i];
-                    yElem[1] = elementsY[zeroY + strideY * i + 1];
-                    for (int k = columnPointersA[i]; k < high; k++) {
-                        int j = rowIndexesA[k];
-                        valA[0] = valuesA[2 * k];
-                        valA[1] = valuesA[2 * k + 1];
-                        valA = DComplex.mult(valA, yElem);
-                        valA = DComplex.mult(valA, alpha);
-                        elementsZ[zeroZ + strideZ * j] += valA[0];
-                        elementsZ[zeroZ + strideZ * j + 1] += valA[1];
-                    }
-                }
+                zMultColumns(alpha, elementsY, zeroY, strideY, elementsZ, zeroZ, strideZ, 0, columns);
             }
         } else {
             if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+                nthreads = Math.min(nthreads, columns);
                 Future<?>[] futures = new Future[nthreads];
                 int k = columns / nthreads;
                 for (int j = 0; j < nthreads; j++) {
@@ -862,54 +884,15 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
                     final int lastColumn = (j == nthreads - 1) ? columns : firstColumn + k;
                     futures[j] = ConcurrencyUtils.submit(new Runnable() {
                         public void run() {
-                            int zidx = zeroZ + firstColumn * strideZ;
-                            double[] valA = new double[2];
-                            double[] valY = new double[2];
-                            double[] valZ = new double[2];
-                            for (int i = firstColumn; i < lastColumn; i++) {
-                                double[] sum = new double[2];
-                                int high = columnPointers[i + 1];
-                                for (int k = columnPointers[i]; k < high; k++) {
-                                    valA[0] = valuesA[2 * k];
-                                    valA[1] = -valuesA[2 * k + 1];
-                                    valY[0] = elementsY[zeroY + strideY * rowIndexes[k]];
-                                    valY[1] = elementsY[zeroY + strideY * rowIndexes[k] + 1];
-                                    sum = DComplex.plus(sum, DComplex.mult(valA, valY));
-                                }
-                                sum = DComplex.mult(alpha, sum);
-                                valZ[0] = elementsZ[zidx];
-                                valZ[1] = elementsZ[zidx + 1];
-                                valZ = DComplex.mult(valZ, beta);
-                                elementsZ[zidx] = sum[0] + valZ[0];
-                                elementsZ[zidx + 1] = sum[1] + valZ[1];
-                                zidx += strideZ;
-                            }
+                            zMultConjTransposeColumns(alpha, beta, elementsY, zeroY, strideY, elementsZ, zeroZ,
+                                    strideZ, firstColumn, lastColumn);
                         }
                     });
                 }
                 ConcurrencyUtils.waitForCompletion(futures);
             } else {
-                double[] valA = new double[2];
-                double[] valY = new double[2];
-                double[] valZ = new double[2];
-                for (int i = 0; i < columns; i++) {
-                    double[] sum = new double[2];
-                    int high = columnPointers[i + 1];
-                    for (int k = columnPointers[i]; k < high; k++) {
-                        valA[0] = valuesA[2 * k];
-                        valA[1] = -valuesA[2 * k + 1];
-                        valY[0] = elementsY[zeroY + strideY * rowIndexes[k]];
-                        valY[1] = elementsY[zeroY + strideY * rowIndexes[k] + 1];
-                        sum = DComplex.plus(sum, DComplex.mult(valA, valY));
-                    }
-                    sum = DComplex.mult(alpha, sum);
-                    valZ[0] = elementsZ[zidx];
-                    valZ[1] = elementsZ[zidx + 1];
-                    valZ = DComplex.mult(valZ, beta);
-                    elementsZ[zidx] = sum[0] + valZ[0];
-                    elementsZ[zidx + 1] = sum[1] + valZ[1];
-                    zidx += strideZ;
-                }
+                zMultConjTransposeColumns(alpha, beta, elementsY, zeroY, strideY, elementsZ, zeroZ, strideZ, 0,
+                        columns);
             }
         }
         return z;
@@ -1156,6 +1139,39 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         return (nz2);
     }
 
+    /*
+     * Takes the reduction buffers of the parallel zMult out of their holder,
+     * or allocates new ones if they are missing or too small. The holder is
+     * shared with clones, and a call holds the buffers until it puts them
+     * back, so concurrent calls never share buffers.
+     */
+    private double[][] takeZMultBuffers(int count, int length) {
+        double[][][] holder;
+        synchronized (this) {
+            if (zMultBuffers == null)
+                zMultBuffers = new double[1][][];
+            holder = zMultBuffers;
+        }
+        double[][] buffers;
+        synchronized (holder) {
+            buffers = holder[0];
+            holder[0] = null;
+        }
+        if ((buffers == null) || (buffers.length < count) || (buffers[0].length != length))
+            buffers = new double[count][length];
+        return buffers;
+    }
+
+    /*
+     * Puts back buffers taken by takeZMultBuffers; they must be all zeros.
+     */
+    private void putZMultBuffers(double[][] buffers) {
+        double[][][] holder = zMultBuffers;
+        synchronized (holder) {
+            holder[0] = buffers;
+        }
+    }
+
     private void realloc(int nzmax) {
         if (nzmax <= 0)
             nzmax = columnPointers[columns];
@@ -1169,6 +1185,69 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         values = valuesNew;
     }
 
+    /*
+     * z[i] += alpha * sum_j A[i][j] * y[j] for the columns
+     * firstColumn..lastColumn-1, using interleaved storage and no temporary
+     * arrays.
+     */
+    private void zMultColumns(double[] alpha, double[] elementsY, int zeroY, int strideY, double[] elementsZ,
+            int zeroZ, int strideZ, int firstColumn, int lastColumn) {
+        final double alphaRe = alpha[0];
+        final double alphaIm = alpha[1];
+        for (int j = firstColumn; j < lastColumn; j++) {
+            int yidx = zeroY + strideY * j;
+            double yRe = alphaRe * elementsY[yidx] - alphaIm * elementsY[yidx + 1];
+            double yIm = alphaRe * elementsY[yidx + 1] + alphaIm * elementsY[yidx];
+            int high = columnPointers[j + 1];
+            for (int k = columnPointers[j]; k < high; k++) {
+                int zidx = zeroZ + strideZ * rowIndexes[k];
+                double aRe = values[2 * k];
+                double aIm = values[2 * k + 1];
+                elementsZ[zidx] += aRe * yRe - aIm * yIm;
+                elementsZ[zidx + 1] += aRe * yIm + aIm * yRe;
+            }
+        }
+    }
+
+    /*
+     * z[j] = alpha * sum_i conj(A[i][j]) * y[i] + beta * z[j] for the columns
+     * firstColumn..lastColumn-1.
+     */
+    private void zMultConjTransposeColumns(double[] alpha, double[] beta, double[] elementsY, int zeroY,
+            int strideY, double[] elementsZ, int zeroZ, int strideZ, int firstColumn, int lastColumn) {
+        final double alphaRe = alpha[0];
+        final double alphaIm = alpha[1];
+        final double betaRe = beta[0];
+        final double betaIm = beta[1];
+        final boolean zeroBeta = (betaRe == 0) && (betaIm == 0);
+        int zidx = zeroZ + firstColumn * strideZ;
+        for (int j = firstColumn; j < lastColumn; j++) {
+            double sumRe = 0;
+            double sumIm = 0;
+            int high = columnPointers[j + 1];
+            for (int k = columnPointers[j]; k < high; k++) {
+                int yidx = zeroY + strideY * rowIndexes[k];
+                double aRe = values[2 * k];
+                double aIm = -values[2 * k + 1];
+                double yRe = elementsY[yidx];
+                double yIm = elementsY[yidx + 1];
+                sumRe += aRe * yRe - aIm * yIm;
+                sumIm += aRe * yIm + aIm * yRe;
+            }
+            double re = alphaRe * sumRe - alphaIm * sumIm;
+            double im = alphaRe * sumIm + alphaIm * sumRe;
+            if (!zeroBeta) {
+                double zRe = elementsZ[zidx];
+                double zIm = elementsZ[zidx + 1];
+                re += betaRe * zRe - betaIm * zIm;
+                im += betaRe * zIm + betaIm * zRe;
+            }
+            elementsZ[zidx] = re;
+            elementsZ[zidx + 1] = im;
+            zidx += strideZ;
+        }
+    }
+
     private int scatter(SparseCCDComplexMatrix2D A, int j, double[] beta, int[] w, double[] x, int mark,
             SparseCCDComplexMatrix2D C, int nz) {
         int i, p;
@@ -1202,4 +1281,48 @@ public class SparseCCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         }
         return nz;
     }
+
+    private static void scatter(final int[] dest, final double[] src, final double[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        int q = dest[p];
+                        dst[2 * q] = src[2 * p];
+                        dst[2 * q + 1] = src[2 * p + 1];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
+    private static void sumDuplicates(final int[] pointers, final int[] indexes, final double[] values,
+            final int nouter, final int[] target, final int[] indexesNew, final double[] valuesNew) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            int q = target[p];
+                            indexesNew[q] = indexes[p];
+                            valuesNew[2 * q] += values[2 * p];
+                            valuesNew[2 * q + 1] += values[2 * p + 1];
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
@@ -66,6 +66,12 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
 
     protected double[] values;
 
+    /*
+     * Reduction buffers of the parallel zMult, kept between calls because the
+     * iterative solvers multiply by the same matrix at every step.
+     */
+    private transient double[][][] zMultBuffers;
+
     /**
      * Constructs a matrix with a copy of the given values. <tt>values</tt> is
      * required to have the form <tt>values[row][column]</tt> and have exactly
@@ -171,16 +177,25 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         this.columnIndexes = new int[nz];
         this.values = new double[2 * nz];
         this.rowPointers = new int[rows + 1];
-        int[] w = new int[rows];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[rowIndexes[k]]++;
-        }
-        cumsum(this.rowPointers, w, rows);
-        for (int k = 0; k < nz; k++) {
-            this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
-            this.values[2 * r] = re;
-            this.values[2 * r + 1] = im;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(rowIndexes, columnIndexes, nz, rows, this.rowPointers, this.columnIndexes);
+            for (int k = 0; k < nz; k++) {
+                this.values[2 * k] = re;
+                this.values[2 * k + 1] = im;
+            }
+        } else {
+            int[] w = new int[rows];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[rowIndexes[k]]++;
+            }
+            cumsum(this.rowPointers, w, rows);
+            for (int k = 0; k < nz; k++) {
+                this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
+                this.values[2 * r] = re;
+                this.values[2 * r + 1] = im;
+            }
         }
         if (removeDuplicates) {
             removeDuplicates();
@@ -224,16 +239,22 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         this.columnIndexes = new int[nz];
         this.values = new double[2 * nz];
         this.rowPointers = new int[rows + 1];
-        int[] w = new int[rows];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[rowIndexes[k]]++;
-        }
-        cumsum(this.rowPointers, w, rows);
-        for (int k = 0; k < nz; k++) {
-            this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
-            this.values[2 * r] = values[2 * k];
-            this.values[2 * r + 1] = values[2 * k + 1];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(rowIndexes, columnIndexes, nz, rows, this.rowPointers, this.columnIndexes);
+            scatter(dest, values, this.values, nz);
+        } else {
+            int[] w = new int[rows];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[rowIndexes[k]]++;
+            }
+            cumsum(this.rowPointers, w, rows);
+            for (int k = 0; k < nz; k++) {
+                this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
+                this.values[2 * r] = values[2 * k];
+                this.values[2 * r + 1] = values[2 * k + 1];
+            }
         }
         if (removeZeroes) {
             removeZeroes();
@@ -335,9 +356,9 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
             System.arraycopy(other.columnIndexes, 0, columnIndexes, 0, nzmax);
             System.arraycopy(other.values, 0, values, 0, other.values.length);
         } else if (source instanceof SparseCCDComplexMatrix2D) {
-            SparseCCDComplexMatrix2D other = ((SparseCCDComplexMatrix2D) source).getConjugateTranspose();
-            rowPointers = other.getColumnPointers();
-            columnIndexes = other.getRowIndexes();
+            SparseRCDComplexMatrix2D other = ((SparseCCDComplexMatrix2D) source).getRowCompressed();
+            rowPointers = other.getRowPointers();
+            columnIndexes = other.getColumnIndexes();
             values = other.getValues();
         } else {
             assign(0, 0);
@@ -518,6 +539,10 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
      */
     public SparseCCDComplexMatrix2D getColumnCompressed() {
         SparseRCDComplexMatrix2D tr = getConjugateTranspose();
+        double[] valuesT = tr.values;
+        for (int k = 1; k < valuesT.length; k += 2) {
+            valuesT[k] = -valuesT[k];
+        }
         SparseCCDComplexMatrix2D cc = new SparseCCDComplexMatrix2D(rows, columns);
         cc.rowIndexes = tr.columnIndexes;
         cc.columnPointers = tr.rowPointers;
@@ -658,33 +683,65 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         return new SparseDComplexMatrix1D(size);
     }
 
+    /**
+     * Sorts column indexes
+     */
+    public void sortColumnIndexes() {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(rowPointers, columnIndexes, rows, columns);
+            double[] valuesNew = new double[values.length];
+            scatter(dest, values, valuesNew, cardinality());
+            values = valuesNew;
+        } else {
+            SparseRCDComplexMatrix2D tr = getConjugateTranspose();
+            tr = tr.getConjugateTranspose();
+            rowPointers = tr.rowPointers;
+            columnIndexes = tr.columnIndexes;
+            values = tr.values;
+        }
+    }
+
     /**
      * Removes (sums) duplicate entries (if any}
      */
     public void removeDuplicates() {
-        int nz = 0;
-        int q, i;
-        int[] w = new int[columns]; /* get workspace */
-        for (i = 0; i < columns; i++)
-            w[i] = -1; /* column i not yet seen */
-        for (int j = 0; j < rows; j++) {
-            q = nz; /* row j will start at q */
-            for (int p = rowPointers[j]; p < rowPointers[j + 1]; p++) {
-                i = columnIndexes[p]; /* A(i,j) is nonzero */
-                if (w[i] >= q) {
-                    values[2 * w[i]] += values[2 * p]; /* A(i,j) is a duplicate */
-                    values[2 * w[i] + 1] += values[2 * p + 1];
-                } else {
-                    w[i] = nz; /* record where column i occurs */
-                    columnIndexes[nz] = i; /* keep A(i,j) */
-                    values[2 * nz] = values[2 * p];
-                    values[2 * nz + 1] = values[2 * p + 1];
-                    nz++;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] target = new int[cardinality()];
+            int[] pointersNew = compressDuplicates(rowPointers, columnIndexes, rows, columns, target);
+            int nz = pointersNew[rows];
+            int[] indexesNew = new int[nz];
+            double[] valuesNew = new double[2 * nz];
+            sumDuplicates(rowPointers, columnIndexes, values, rows, target, indexesNew, valuesNew);
+            rowPointers = pointersNew;
+            columnIndexes = indexesNew;
+            values = valuesNew;
+        } else {
+            int nz = 0;
+            int q, i;
+            int[] w = new int[columns]; /* get workspace */
+            for (i = 0; i < columns; i++)
+                w[i] = -1; /* column i not yet seen */
+            for (int j = 0; j < rows; j++) {
+                q = nz; /* row j will start at q */
+                for (int p = rowPointers[j]; p < rowPointers[j + 1]; p++) {
+                    i = columnIndexes[p]; /* A(i,j) is nonzero */
+                    if (w[i] >= q) {
+                        values[2 * w[i]] += values[2 * p]; /* A(i,j) is a duplicate */
+                        values[2 * w[i] + 1] += values[2 * p + 1];
+                    } else {
+                        w[i] = nz; /* record where column i occurs */
+                        columnIndexes[nz] = i; /* keep A(i,j) */
+                        values[2 * nz] = values[2 * p];
+                        values[2 * nz + 1] = values[2 * p + 1];
+                        nz++;
+                    }
                 }
+                rowPointers[j] = q; /* record start of row j */
             }
-            rowPointers[j] = q; /* record start of row j */
+            rowPointers[rows] = nz; /* finalize A */
         }
-        rowPointers[rows] = nz; /* finalize A */
     }
 
     /**
@@ -781,7 +838,7 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         final int rowsA = transposeA ? columns : rows;
         final int columnsA = transposeA ? rows : columns;
 
-        boolean ignore = (z == null || !transposeA);
+        boolean ignore = (z == null);
         if (z == null)
             z = new DenseDComplexMatrix1D(rowsA);
 
@@ -810,9 +867,10 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
                 z.assign(cern.jet.math.tdcomplex.DComplexFunctions.mult(beta));
 
             if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
-                nthreads = 2;
+                nthreads = Math.min(nthreads, rows);
                 Future<?>[] futures = new Future[nthreads];
-                final double[] result = new double[2 * rowsA];
+                final int nresults = nthreads - 1;
+                final double[][] results = takeZMultBuffers(nresults, 2 * rowsA);
                 int k = rows / nthreads;
                 for (int j = 0; j < nthreads; j++) {
                     final int firstRow = j * k;
@@ -820,64 +878,42 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
                     final int threadID = j;
                     futures[j] = ConcurrencyUtils.submit(new Runnable() {
                         public void run() {
-                            double[] yElem = new double[2];
-                            double[] val = new double[2];
                             if (threadID == 0) {
-                                for (int i = firstRow; i < lastRow; i++) {
-                                    int high = rowPointers[i + 1];
-                                    yElem[0] = elementsY[zeroY + strideY * i];
-                                    yElem[1] = elementsY[zeroY + strideY * i + 1];
-                                    yElem = DComplex.mult(alpha, yElem);
-                                    for (int k = rowPointers[i]; k < high; k++) {
-                                        int j = columnIndexes[k];
-                                        val[0] = values[2 * k];
-                                        val[1] = -values[2 * k + 1];
-                                        val = DComplex.mult(val, yElem);
-                                        elementsZ[zeroZ + strideZ * j] += val[0];
-                                        elementsZ[zeroZ + strideZ * j + 1] += val[1];
-                                    }
-                                }
+                                zMultConjTransposeRows(alpha, elementsY, zeroY, strideY, elementsZ, zeroZ, strideZ,
+                                        firstRow, lastRow);
                             } else {
-                                for (int i = firstRow; i < lastRow; i++) {
-                                    int high = rowPointers[i + 1];
-                                    yElem[0] = elementsY[zeroY + strideY * i];
-                                    yElem[1] = elementsY[zeroY + strideY * i + 1];
-                                    yElem = DComplex.mult(alpha, yElem);
-                                    for (int k = rowPointers[i]; k < high; k++) {
-                                        int j = columnIndexes[k];
-                                        val[0] = values[2 * k];
-                                        val[1] = -values[2 * k + 1];
-                                        val = DComplex.mult(val, yElem);
-                                        result[2 * j] += val[0];
-                                        result[2 * j + 1] += val[1];
-                                    }
-                                }
+                                zMultConjTransposeRows(alpha, elementsY, zeroY, strideY, results[threadID - 1], 0,
+                                        2, firstRow, lastRow);
                             }
                         }
                     });
                 }
                 ConcurrencyUtils.waitForCompletion(futures);
-                for (int j = 0; j < rowsA; j++) {
-                    elementsZ[zeroZ + j * strideZ] += result[2 * j];
-                    elementsZ[zeroZ + j * strideZ + 1] += result[2 * j + 1];
+                k = rowsA / nthreads;
+                for (int j = 0; j < nthreads; j++) {
+                    final int firstIdx = j * k;
+                    final int lastIdx = (j == nthreads - 1) ? rowsA : firstIdx + k;
+                    futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                        public void run() {
+                            for (int r = 0; r < nresults; r++) {
+                                double[] result = results[r];
+                                int idx = zeroZ + firstIdx * strideZ;
+                                for (int i = firstIdx; i < lastIdx; i++) {
+                                    elementsZ[idx] += result[2 * i];
+                                    elementsZ[idx + 1] += result[2 * i + 1];
+                                    // leave the buffer zeroed for the next call
+                                    result[2 * i] = 0;
+                                    result[2 * i + 1] = 0;
+                                    idx += strideZ;
+                                }
+                            }
+                        }
+                    });
                 }
+                ConcurrencyUtils.waitForCompletion(futures);
+                putZMultBuffers(results);
             } else {
-                double[] yElem = new double[2];
-                double[] val = new double[2];
-                for (int i = 0; i < rows; i++) {
-                    int high = rowPointers[i + 1];
-                    yElem[0] = elementsY[zeroY + strideY * i];
-                    yElem[1] = elementsY[zeroY + strideY * i + 1];
-                    yElem = DComplex.mult(alpha, yElem);
-                    for (int k = rowPointers[i]; k < high; k++) {
-                        int j = columnIndexes[k];
-                        val[0] = values[2 * k];
-                        val[1] = -values[2 * k + 1];
-                        val = DComplex.mult(val, yElem);
-                        elementsZ[zeroZ + strideZ * j] += val[0];
-                        elementsZ[zeroZ + strideZ * j + 1] += val[1];
-                    }
-                }
+                zMultConjTransposeRows(alpha, elementsY, zeroY, strideY, elementsZ, zeroZ, strideZ, 0, rows);
             }
 
             return z;
@@ -892,91 +928,13 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
                 final int lastRow = (j == nthreads - 1) ? rows : firstRow + k;
                 futures[j] = ConcurrencyUtils.submit(new Runnable() {
                     public void run() {
-                        int zidx = zeroZ + firstRow * strideZ;
-                        double[] yElem = new double[2];
-                        double[] val = new double[2];
-                        if (beta[0] == 0.0 && beta[1] == 0) {
-                            for (int i = firstRow; i < lastRow; i++) {
-                                double[] sum = new double[2];
-                                int high = rowPointers[i + 1];
-                                for (int k = rowPointers[i]; k < high; k++) {
-                                    yElem[0] = elementsY[zeroY + strideY * columnIndexes[k]];
-                                    yElem[1] = elementsY[zeroY + strideY * columnIndexes[k] + 1];
-                                    val[0] = values[2 * k];
-                                    val[1] = values[2 * k + 1];
-                                    sum = DComplex.plus(sum, DComplex.mult(val, yElem));
-                                }
-                                sum = DComplex.mult(alpha, sum);
-                                elementsZ[zidx] = sum[0];
-                                elementsZ[zidx + 1] = sum[1];
-                                zidx += strideZ;
-                            }
-                        } else {
-                            double[] zElem = new double[2];
-                            for (int i = firstRow; i < lastRow; i++) {
-                                double[] sum = new double[2];
-                                int high = rowPointers[i + 1];
-                                for (int k = rowPointers[i]; k < high; k++) {
-                                    yElem[0] = elementsY[zeroY + strideY * columnIndexes[k]];
-                                    yElem[1] = elementsY[zeroY + strideY * columnIndexes[k] + 1];
-                                    val[0] = values[2 * k];
-                                    val[1] = values[2 * k + 1];
-                                    sum = DComplex.plus(sum, DComplex.mult(val, yElem));
-                                }
-                                sum = DComplex.mult(alpha, sum);
-                                zElem[0] = elementsZ[zidx];
-                                zElem[1] = elementsZ[zidx + 1];
-                                zElem = DComplex.mult(beta, zElem);
-                                elementsZ[zidx] = sum[0] + zElem[0];
-                                elementsZ[zidx + 1] = sum[1] + zElem[1];
-                                zidx += strideZ;
-                            }
-                        }
+                        zMultRows(alpha, beta, elementsY, zeroY, strideY, elementsZ, zeroZ, strideZ, firstRow, lastRow);
                     }
                 });
             }
             ConcurrencyUtils.waitForCompletion(futures);
         } else {
-            int zidx = zeroZ;
-            double[] yElem = new double[2];
-            double[] val = new double[2];
-            if (beta[0] == 0.0 && beta[1] == 0) {
-                for (int i = 0; i < rows; i++) {
-                    double[] sum = new double[2];
-                    int high = rowPointers[i + 1];
-                    for (int k = rowPointers[i]; k < high; k++) {
-                        yElem[0] = elementsY[zeroY + strideY * columnIndexes[k]];
-                        yElem[1] = elementsY[zeroY + strideY * columnIndexes[k] + 1];
-                        val[0] = values[2 * k];
-                        val[1] = values[2 * k + 1];
-                        sum = DComplex.plus(sum, DComplex.mult(val, yElem));
-                    }
-                    sum = DComplex.mult(alpha, sum);
-                    elementsZ[zidx] = sum[0];
-                    elementsZ[zidx + 1] = sum[1];
-                    zidx += strideZ;
-                }
-            } else {
-                double[] zElem = new double[2];
-                for (int i = 0; i < rows; i++) {
-                    double[] sum = new double[2];
-                    int high = rowPointers[i + 1];
-                    for (int k = rowPointers[i]; k < high; k++) {
-                        yElem[0] = elementsY[zeroY + strideY * columnIndexes[k]];
-                        yElem[1] = elementsY[zeroY + strideY * columnIndexes[k] + 1];
-                        val[0] = values[2 * k];
-                        val[1] = values[2 * k + 1];
-                        sum = DComplex.plus(sum, DComplex.mult(val, yElem));
-                    }
-                    sum = DComplex.mult(alpha, sum);
-                    zElem[0] = elementsZ[zidx];
-                    zElem[1] = elementsZ[zidx + 1];
-                    zElem = DComplex.mult(beta, zElem);
-                    elementsZ[zidx] = sum[0] + zElem[0];
-                    elementsZ[zidx + 1] = sum[1] + zElem[1];
-                    zidx += strideZ;
-                }
-            }
+            zMultRows(alpha, beta, elementsY, zeroY, strideY, elementsZ, zeroZ, strideZ, 0, rows);
         }
         return z;
     }
@@ -1180,6 +1138,39 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         return (nz2);
     }
 
+    /*
+     * Takes the reduction buffers of the parallel zMult out of their holder,
+     * or allocates new ones if they are missing or too small. The holder is
+     * shared with clones, and a call holds the buffers until it puts them
+     * back, so concurrent calls never share buffers.
+     */
+    private double[][] takeZMultBuffers(int count, int length) {
+        double[][][] holder;
+        synchronized (this) {
+            if (zMultBuffers == null)
+                zMultBuffers = new double[1][][];
+            holder = zMultBuffers;
+        }
+        double[][] buffers;
+        synchronized (holder) {
+            buffers = holder[0];
+            holder[0] = null;
+        }
+        if ((buffers == null) || (buffers.length < count) || (buffers[0].length != length))
+            buffers = new double[count][length];
+        return buffers;
+    }
+
+    /*
+     * Puts back buffers taken by takeZMultBuffers; they must be all zeros.
+     */
+    private void putZMultBuffers(double[][] buffers) {
+        double[][][] holder = zMultBuffers;
+        synchronized (holder) {
+            holder[0] = buffers;
+        }
+    }
+
     private void realloc(int nzmax) {
         if (nzmax <= 0)
             nzmax = rowPointers[rows];
@@ -1193,6 +1184,68 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         values = valuesNew;
     }
 
+    /*
+     * z[i] = alpha * sum_k A[i][k] * y[k] + beta * z[i] for the rows
+     * firstRow..lastRow-1, using interleaved storage and no temporary arrays.
+     */
+    private void zMultRows(double[] alpha, double[] beta, double[] elementsY, int zeroY, int strideY,
+            double[] elementsZ, int zeroZ, int strideZ, int firstRow, int lastRow) {
+        final double alphaRe = alpha[0];
+        final double alphaIm = alpha[1];
+        final double betaRe = beta[0];
+        final double betaIm = beta[1];
+        final boolean zeroBeta = (betaRe == 0) && (betaIm == 0);
+        int zidx = zeroZ + firstRow * strideZ;
+        for (int i = firstRow; i < lastRow; i++) {
+            double sumRe = 0;
+            double sumIm = 0;
+            int high = rowPointers[i + 1];
+            for (int k = rowPointers[i]; k < high; k++) {
+                int yidx = zeroY + strideY * columnIndexes[k];
+                double aRe = values[2 * k];
+                double aIm = values[2 * k + 1];
+                double yRe = elementsY[yidx];
+                double yIm = elementsY[yidx + 1];
+                sumRe += aRe * yRe - aIm * yIm;
+                sumIm += aRe * yIm + aIm * yRe;
+            }
+            double re = alphaRe * sumRe - alphaIm * sumIm;
+            double im = alphaRe * sumIm + alphaIm * sumRe;
+            if (!zeroBeta) {
+                double zRe = elementsZ[zidx];
+                double zIm = elementsZ[zidx + 1];
+                re += betaRe * zRe - betaIm * zIm;
+                im += betaRe * zIm + betaIm * zRe;
+            }
+            elementsZ[zidx] = re;
+            elementsZ[zidx + 1] = im;
+            zidx += strideZ;
+        }
+    }
+
+    /*
+     * z[j] += alpha * sum_i conj(A[i][j]) * y[i] for the rows
+     * firstRow..lastRow-1.
+     */
+    private void zMultConjTransposeRows(double[] alpha, double[] elementsY, int zeroY, int strideY,
+            double[] elementsZ, int zeroZ, int strideZ, int firstRow, int lastRow) {
+        final double alphaRe = alpha[0];
+        final double alphaIm = alpha[1];
+        for (int i = firstRow; i < lastRow; i++) {
+            int yidx = zeroY + strideY * i;
+            double yRe = alphaRe * elementsY[yidx] - alphaIm * elementsY[yidx + 1];
+            double yIm = alphaRe * elementsY[yidx + 1] + alphaIm * elementsY[yidx];
+            int high = rowPointers[i + 1];
+            for (int k = rowPointers[i]; k < high; k++) {
+                int zidx = zeroZ + strideZ * columnIndexes[k];
+                double aRe = values[2 * k];
+                double aIm = -values[2 * k + 1];
+                elementsZ[zidx] += aRe * yRe - aIm * yIm;
+                elementsZ[zidx + 1] += aRe * yIm + aIm * yRe;
+            }
+        }
+    }
+
     protected DComplexMatrix2D getContent() {
         return this;
     }
@@ -1239,4 +1292,47 @@ public class SparseRCDComplexMatrix2D extends WrapperDComplexMatrix2D {
         values = valuesList.elements();
     }
 
+    private static void scatter(final int[] dest, final double[] src, final double[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        int q = dest[p];
+                        dst[2 * q] = src[2 * p];
+                        dst[2 * q + 1] = src[2 * p + 1];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
+    private static void sumDuplicates(final int[] pointers, final int[] indexes, final double[] values,
+            final int nouter, final int[] target, final int[] indexesNew, final double[] valuesNew) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            int q = target[p];
+                            indexesNew[q] = indexes[p];
+                            valuesNew[2 * q] += values[2 * p];
+                            valuesNew[2 * q + 1] += values[2 * p + 1];
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
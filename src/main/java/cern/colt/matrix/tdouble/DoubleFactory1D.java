@@ -8,9 +8,13 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tdouble;
 
+import java.util.concurrent.Future;
+
 import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix1D;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix1D;
 import cern.jet.math.tdouble.DoubleFunctions;
+import cern.jet.random.tdouble.engine.Philox4x32;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Factory for convenient construction of 1-d matrices holding <tt>double</tt>
@@ -167,7 +171,42 @@ public class DoubleFactory1D extends cern.colt.PersistentObject {
      * (exclusive).
      */
     public DoubleMatrix1D random(int size) {
-        return make(size).assign(cern.jet.math.tdouble.DoubleFunctions.random());
+        return random(size, new java.util.Random().nextLong());
+    }
+
+    /**
+     * Constructs a matrix with uniformly distributed values in <tt>(0,1)</tt>
+     * (exclusive), drawn from a {@link Philox4x32} engine with the given seed.
+     * Cell <tt>i</tt> holds the <tt>i</tt>-th <tt>nextDouble()</tt> of the
+     * engine, so the result depends only on the seed and not on the number of
+     * threads used to fill the matrix.
+     * 
+     * @param size
+     *            the number of cells.
+     * @param seed
+     *            the seed of the engine.
+     */
+    public DoubleMatrix1D random(int size, final long seed) {
+        final DoubleMatrix1D A = make(size);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, size);
+            Future<?>[] futures = new Future[nthreads];
+            int k = size / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? size : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        random(A, firstIdx, lastIdx, seed);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            random(A, 0, size, seed);
+        }
+        return A;
     }
 
     /**
@@ -244,4 +283,21 @@ public class DoubleFactory1D extends cern.colt.PersistentObject {
             list.setQuick(i, values.get(i));
         return list;
     }
+
+    /**
+     * Fills cells <tt>[from,to)</tt> of <tt>A</tt> from positions
+     * <tt>[from,to)</tt> of the sequence of doubles of the given seed.
+     */
+    private static void random(DoubleMatrix1D A, int from, int to, long seed) {
+        Philox4x32 engine = new Philox4x32(seed);
+        engine.seek(2L * from);
+        double[] values = new double[Math.min(to - from, 1024)];
+        for (int i = from; i < to; i += values.length) {
+            int n = Math.min(values.length, to - i);
+            engine.nextDoubles(values, 0, n);
+            for (int j = 0; j < n; j++) {
+                A.setQuick(i + j, values[j]);
+            }
+        }
+    }
 }
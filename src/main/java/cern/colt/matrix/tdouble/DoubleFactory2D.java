@@ -8,9 +8,13 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tdouble;
 
+import java.util.concurrent.Future;
+
 import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix2D;
 import cern.jet.math.tdouble.DoubleFunctions;
+import cern.jet.random.tdouble.engine.Philox4x32;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Factory for convenient construction of 2-d matrices holding <tt>double</tt>
@@ -953,7 +957,44 @@ public class DoubleFactory2D extends cern.colt.PersistentObject {
      * (exclusive).
      */
     public DoubleMatrix2D random(int rows, int columns) {
-        return make(rows, columns).assign(cern.jet.math.tdouble.DoubleFunctions.random());
+        return random(rows, columns, new java.util.Random().nextLong());
+    }
+
+    /**
+     * Constructs a matrix with uniformly distributed values in <tt>(0,1)</tt>
+     * (exclusive), drawn from a {@link Philox4x32} engine with the given seed.
+     * Cell <tt>[row,column]</tt> holds the <tt>(row*columns+column)</tt>-th
+     * <tt>nextDouble()</tt> of the engine, so the result depends only on the
+     * seed and not on the number of threads used to fill the matrix.
+     * 
+     * @param rows
+     *            the number of rows.
+     * @param columns
+     *            the number of columns.
+     * @param seed
+     *            the seed of the engine.
+     */
+    public DoubleMatrix2D random(int rows, int columns, final long seed) {
+        final DoubleMatrix2D A = make(rows, columns);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && ((long) rows * columns >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthreads];
+            int k = rows / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthreads - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        random(A, firstRow, lastRow, seed);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            random(A, 0, rows, seed);
+        }
+        return A;
     }
 
     /**
@@ -1050,4 +1091,21 @@ public class DoubleFactory2D extends cern.colt.PersistentObject {
     protected DoubleMatrix1D make1D(int size) {
         return make(0, 0).like1D(size);
     }
+
+    /**
+     * Fills rows <tt>[firstRow,lastRow)</tt> of <tt>A</tt> from the sequence
+     * of doubles of the given seed.
+     */
+    private static void random(DoubleMatrix2D A, int firstRow, int lastRow, long seed) {
+        int columns = A.columns();
+        Philox4x32 engine = new Philox4x32(seed);
+        engine.seek(2L * firstRow * columns);
+        double[] values = new double[columns];
+        for (int r = firstRow; r < lastRow; r++) {
+            engine.nextDoubles(values, 0, columns);
+            for (int c = 0; c < columns; c++) {
+                A.setQuick(r, c, values[c]);
+            }
+        }
+    }
 }
@@ -8,9 +8,13 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tdouble;
 
+import java.util.concurrent.Future;
+
 import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix3D;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix3D;
 import cern.jet.math.tdouble.DoubleFunctions;
+import cern.jet.random.tdouble.engine.Philox4x32;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Factory for convenient construction of 3-d matrices holding <tt>double</tt>
@@ -132,6 +136,66 @@ public class DoubleFactory3D extends cern.colt.PersistentObject {
      * (exclusive).
      */
     public DoubleMatrix3D random(int slices, int rows, int columns) {
-        return make(slices, rows, columns).assign(cern.jet.math.tdouble.DoubleFunctions.random());
+        return random(slices, rows, columns, new java.util.Random().nextLong());
+    }
+
+    /**
+     * Constructs a matrix with uniformly distributed values in <tt>(0,1)</tt>
+     * (exclusive), drawn from a {@link Philox4x32} engine with the given seed.
+     * Cell <tt>[slice,row,column]</tt> holds the
+     * <tt>((slice*rows+row)*columns+column)</tt>-th <tt>nextDouble()</tt> of
+     * the engine, so the result depends only on the seed and not on the number
+     * of threads used to fill the matrix.
+     * 
+     * @param slices
+     *            the number of slices.
+     * @param rows
+     *            the number of rows.
+     * @param columns
+     *            the number of columns.
+     * @param seed
+     *            the seed of the engine.
+     */
+    public DoubleMatrix3D random(int slices, int rows, int columns, final long seed) {
+        final DoubleMatrix3D A = make(slices, rows, columns);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && ((long) slices * rows * columns >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        random(A, firstSlice, lastSlice, seed);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            random(A, 0, slices, seed);
+        }
+        return A;
+    }
+
+    /**
+     * Fills slices <tt>[firstSlice,lastSlice)</tt> of <tt>A</tt> from the
+     * sequence of doubles of the given seed.
+     */
+    private static void random(DoubleMatrix3D A, int firstSlice, int lastSlice, long seed) {
+        int rows = A.rows();
+        int columns = A.columns();
+        Philox4x32 engine = new Philox4x32(seed);
+        engine.seek(2L * firstSlice * rows * columns);
+        double[] values = new double[columns];
+        for (int s = firstSlice; s < lastSlice; s++) {
+            for (int r = 0; r < rows; r++) {
+                engine.nextDoubles(values, 0, columns);
+                for (int c = 0; c < columns; c++) {
+                    A.setQuick(s, r, c, values[c]);
+                }
+            }
+        }
     }
 }
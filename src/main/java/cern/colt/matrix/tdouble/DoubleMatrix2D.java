@@ -17,6 +17,10 @@ import java.util.concurrent.Future;
 import cern.colt.list.tdouble.DoubleArrayList;
 import cern.colt.list.tint.IntArrayList;
 import cern.colt.matrix.AbstractMatrix2D;
+import cern.colt.matrix.Boundary;
+import cern.colt.matrix.tdouble.impl.SparseCCDoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.SparseRCDoubleMatrix2D;
 import cern.jet.math.tdouble.DoubleFunctions;
 import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
@@ -1067,6 +1071,68 @@ public abstract class DoubleMatrix2D extends AbstractMatrix2D {
         return getQuick(row, column);
     }
 
+    /**
+     * Returns the <tt>k</tt>-th smallest cell value, that is, the value that
+     * would be at index <tt>k</tt> if the cells were sorted ascending.
+     * NaN values are treated as greater than all other values.
+     * The matrix is left unaffected.
+     * <p>
+     * The cell values are copied into a temporary array on which a parallel
+     * Floyd-Rivest selection is run. This takes expected linear time, rather
+     * than the <tt>O( N * log(N) )</tt> of a full sort. Sparse matrices that
+     * are not views only copy their nonzero cells and account for the zeros
+     * by count.
+     *
+     * @param k
+     *            the zero-based rank of the value to return.
+     * @return the <tt>k</tt>-th smallest cell value.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>k &lt; 0 || k &gt;= size()</tt>.
+     * @throws IllegalArgumentException
+     *             if the cells of a dense matrix or of a view do not fit into
+     *             an array, that is, if
+     *             <tt>(long)rows()*columns() &gt; Integer.MAX_VALUE</tt>.
+     * @see cern.colt.Partitioning#parallelSelect(double[],int,int,int)
+     */
+    public double getKthSmallest(int k) {
+        if (k < 0 || k >= size())
+            throw new IndexOutOfBoundsException("k=" + k + ", size=" + size());
+        if (isSparseNoView())
+            return getKthSmallestSparse(k);
+        if ((long) rows * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("matrix too large: " + rows + "x" + columns);
+        final double[] values = new double[rows * columns];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthreads];
+            int chunk = rows / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstRow = j * chunk;
+                final int lastRow = (j == nthreads - 1) ? rows : firstRow + chunk;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        int idx = firstRow * columns;
+                        for (int r = firstRow; r < lastRow; r++) {
+                            for (int c = 0; c < columns; c++) {
+                                values[idx++] = getQuick(r, c);
+                            }
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            int idx = 0;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < columns; c++) {
+                    values[idx++] = getQuick(r, c);
+                }
+            }
+        }
+        return cern.colt.Partitioning.parallelSelect(values, 0, values.length - 1, k);
+    }
+
     /**
      * Return the maximum value of this matrix together with its location
      * 
@@ -1145,6 +1211,35 @@ public abstract class DoubleMatrix2D extends AbstractMatrix2D {
         return new double[] { maxValue, rowLocation, columnLocation };
     }
 
+    /**
+     * Fills the coordinates and values of the <tt>k</tt> largest cells into
+     * the specified lists, largest first. Fills into the lists, starting at
+     * index 0. After this call returns the specified lists all have a new size,
+     * the number of cells found, which is <tt>min(k, size())</tt>.
+     * Cells holding NaN are ignored, so fewer cells may be found.
+     * Ties are broken in favor of the smaller row, then column.
+     * <p>
+     * Each thread keeps the best <tt>k</tt> cells of its rows in a binary heap
+     * and the partial results are merged at the end. This takes
+     * <tt>O( N * log(k) )</tt> time and <tt>O( k )</tt> memory per thread,
+     * which is much cheaper than sorting when <tt>k</tt> is small.
+     *
+     * @param k
+     *            the number of cells to find.
+     * @param rowList
+     *            the list to be filled with row indexes, can have any size.
+     * @param columnList
+     *            the list to be filled with column indexes, can have any size.
+     * @param valueList
+     *            the list to be filled with values, can have any size.
+     * @throws IllegalArgumentException
+     *             if <tt>k &lt; 0</tt>.
+     * @see #getRowMaxLocations(int)
+     */
+    public void getMaxValues(int k, IntArrayList rowList, IntArrayList columnList, DoubleArrayList valueList) {
+        getTopValues(k, true, rowList, columnList, valueList);
+    }
+
     /**
      * Return the minimum value of this matrix together with its location
      * 
@@ -1223,6 +1318,67 @@ public abstract class DoubleMatrix2D extends AbstractMatrix2D {
         return new double[] { minValue, rowLocation, columnLocation };
     }
 
+    /**
+     * Fills the coordinates and values of the <tt>k</tt> smallest cells into
+     * the specified lists, smallest first. Otherwise same as
+     * {@link #getMaxValues(int, IntArrayList, IntArrayList, DoubleArrayList)}.
+     *
+     * @param k
+     *            the number of cells to find.
+     * @param rowList
+     *            the list to be filled with row indexes, can have any size.
+     * @param columnList
+     *            the list to be filled with column indexes, can have any size.
+     * @param valueList
+     *            the list to be filled with values, can have any size.
+     * @throws IllegalArgumentException
+     *             if <tt>k &lt; 0</tt>.
+     * @see #getRowMinLocations(int)
+     */
+    public void getMinValues(int k, IntArrayList rowList, IntArrayList columnList, DoubleArrayList valueList) {
+        getTopValues(k, false, rowList, columnList, valueList);
+    }
+
+    /**
+     * Returns, for each row, the column indexes of the <tt>k</tt> largest
+     * cells of that row, largest first. Row <tt>r</tt> of the result has
+     * <tt>min(k, columns())</tt> entries, less the number of NaN cells of
+     * row <tt>r</tt>, which are ignored.
+     * Ties are broken in favor of the smaller column. The values themselves
+     * can be read with <tt>getQuick(r, result[r][i])</tt>.
+     * <p>
+     * Rows are processed concurrently, each with a bounded binary heap, in
+     * <tt>O( columns * log(k) )</tt> time per row. Typical usage is
+     * retrieving the nearest neighbors from a similarity matrix.
+     *
+     * @param k
+     *            the number of cells to find in each row.
+     * @return the column indexes, <tt>result[r][i]</tt> being the column of
+     *         the i-th largest cell of row <tt>r</tt>.
+     * @throws IllegalArgumentException
+     *             if <tt>k &lt; 0</tt>.
+     */
+    public int[][] getRowMaxLocations(int k) {
+        return getRowTopLocations(k, true);
+    }
+
+    /**
+     * Returns, for each row, the column indexes of the <tt>k</tt> smallest
+     * cells of that row, smallest first. Otherwise same as
+     * {@link #getRowMaxLocations(int)}; typical usage is retrieving the
+     * nearest neighbors from a distance matrix.
+     *
+     * @param k
+     *            the number of cells to find in each row.
+     * @return the column indexes, <tt>result[r][i]</tt> being the column of
+     *         the i-th smallest cell of row <tt>r</tt>.
+     * @throws IllegalArgumentException
+     *             if <tt>k &lt; 0</tt>.
+     */
+    public int[][] getRowMinLocations(int k) {
+        return getRowTopLocations(k, false);
+    }
+
     /**
      * Fills the coordinates and values of cells having negative values into the
      * specified lists. Fills into the lists, starting at index 0. After this
@@ -2012,6 +2168,125 @@ public abstract class DoubleMatrix2D extends AbstractMatrix2D {
         }
     }
 
+    /**
+     * 8 neighbor stencil transformation with boundary handling. Applies a
+     * function to a moving <tt>3 x 3</tt> window just like
+     * {@link #zAssign8Neighbors(DoubleMatrix2D, cern.colt.function.tdouble.Double9Function)}
+     * , but also computes the border cells of <tt>B</tt>. Neighbors lying
+     * outside of this matrix are obtained according to <tt>boundary</tt>; with
+     * {@link Boundary#Skip} the border cells of <tt>B</tt> are left untouched.
+     * <p>
+     * The work is split into bands of rows that are processed concurrently.
+     * Make sure that cells of <tt>this</tt> and <tt>B</tt> do not overlap.
+     * 
+     * @param B
+     *            the matrix to hold the results.
+     * @param function
+     *            the function to be applied to the 9 cells.
+     * @param boundary
+     *            the boundary handling mode.
+     * @param constant
+     *            the value of neighbors outside of this matrix if
+     *            <tt>boundary == Boundary.Constant</tt>; ignored otherwise.
+     * @throws NullPointerException
+     *             if <tt>function==null || boundary==null</tt>.
+     * @throws IllegalArgumentException
+     *             if <tt>rows() != B.rows() || columns() != B.columns()</tt>.
+     */
+    public void zAssign8Neighbors(final DoubleMatrix2D B, final cern.colt.function.tdouble.Double9Function function,
+            final Boundary boundary, final double constant) {
+        if (function == null)
+            throw new NullPointerException("function must not be null.");
+        if (boundary == null)
+            throw new NullPointerException("boundary must not be null.");
+        checkShape(B);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthreads];
+            int k = rows / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthreads - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        zAssign8NeighborsRows(B, function, boundary, constant, firstRow, lastRow);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            zAssign8NeighborsRows(B, function, boundary, constant, 0, rows);
+        }
+    }
+
+    private void zAssign8NeighborsRows(DoubleMatrix2D B, cern.colt.function.tdouble.Double9Function function,
+            Boundary boundary, double constant, int firstRow, int lastRow) {
+        for (int i = firstRow; i < lastRow; i++) {
+            boolean borderRow = (i == 0 || i == rows - 1);
+            for (int j = 0; j < columns; j++) {
+                if (boundary == Boundary.Skip && (borderRow || j == 0 || j == columns - 1))
+                    continue;
+                B.setQuick(i, j, apply8Neighbors(i, j, function, boundary, constant));
+            }
+        }
+    }
+
+    /**
+     * Applies an 8 neighbor stencil function to the <tt>3 x 3</tt> window
+     * centered at the given cell, obtaining neighbors outside of this matrix
+     * according to <tt>boundary</tt>.
+     * 
+     * @param row
+     *            the index of the row of the center cell.
+     * @param column
+     *            the index of the column of the center cell.
+     * @param function
+     *            the function to be applied to the 9 cells.
+     * @param boundary
+     *            the boundary handling mode.
+     * @param constant
+     *            the value of neighbors outside of this matrix if
+     *            <tt>boundary == Boundary.Constant</tt>.
+     * @return the value of the function.
+     */
+    protected double apply8Neighbors(int row, int column, cern.colt.function.tdouble.Double9Function function,
+            Boundary boundary, double constant) {
+        return function.apply(getNeighborQuick(row - 1, column - 1, boundary, constant),
+                getNeighborQuick(row - 1, column, boundary, constant),
+                getNeighborQuick(row - 1, column + 1, boundary, constant),
+                getNeighborQuick(row, column - 1, boundary, constant),
+                getNeighborQuick(row, column, boundary, constant),
+                getNeighborQuick(row, column + 1, boundary, constant),
+                getNeighborQuick(row + 1, column - 1, boundary, constant),
+                getNeighborQuick(row + 1, column, boundary, constant),
+                getNeighborQuick(row + 1, column + 1, boundary, constant));
+    }
+
+    /**
+     * Returns the matrix cell value at coordinate <tt>[row,column]</tt>, where
+     * the coordinate may lie outside of this matrix. Out of range coordinates
+     * are resolved according to <tt>boundary</tt>.
+     * 
+     * @param row
+     *            the index of the row-coordinate.
+     * @param column
+     *            the index of the column-coordinate.
+     * @param boundary
+     *            the boundary handling mode.
+     * @param constant
+     *            the value returned for coordinates outside of this matrix if
+     *            <tt>boundary</tt> does not map them onto a cell.
+     * @return the value at the specified coordinate.
+     */
+    protected double getNeighborQuick(int row, int column, Boundary boundary, double constant) {
+        int r = boundary.map(row, rows);
+        int c = boundary.map(column, columns);
+        if (r < 0 || c < 0)
+            return constant;
+        return getQuick(r, c);
+    }
+
     /**
      * Linear algebraic matrix-vector multiplication; <tt>z = A * y</tt>;
      * Equivalent to <tt>return A.zMult(y,z,1,0);</tt>
@@ -2262,4 +2537,304 @@ public abstract class DoubleMatrix2D extends AbstractMatrix2D {
      * @return a new view.
      */
     protected abstract DoubleMatrix2D viewSelectionLike(int[] rowOffsets, int[] columnOffsets);
+
+    /**
+     * Finds the <tt>k</tt> largest (<tt>max==true</tt>) or smallest cells.
+     */
+    private void getTopValues(int k, final boolean max, IntArrayList rowList, IntArrayList columnList,
+            DoubleArrayList valueList) {
+        if (k < 0)
+            throw new IllegalArgumentException("k < 0: " + k);
+        rowList.clear();
+        columnList.clear();
+        valueList.clear();
+        final int m = (int) Math.min(k, size());
+        if (m == 0)
+            return;
+        double[] heapValues;
+        long[] heapIndexes;
+        int heapSize;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if (isSparseNoView()) {
+            heapValues = new double[m];
+            heapIndexes = new long[m];
+            heapSize = heapOfferSparse(max, heapValues, heapIndexes);
+        } else if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthreads];
+            final double[][] values = new double[nthreads][m];
+            final long[][] indexes = new long[nthreads][m];
+            final int[] sizes = new int[nthreads];
+            int chunk = rows / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstRow = j * chunk;
+                final int lastRow = (j == nthreads - 1) ? rows : firstRow + chunk;
+                final int thread = j;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        sizes[thread] = heapOfferRows(firstRow, lastRow, max, values[thread], indexes[thread]);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            heapValues = values[0];
+            heapIndexes = indexes[0];
+            heapSize = sizes[0];
+            for (int j = 1; j < nthreads; j++) {
+                for (int i = 0; i < sizes[j]; i++) {
+                    heapSize = heapOffer(heapValues, heapIndexes, heapSize, values[j][i], indexes[j][i], max);
+                }
+            }
+        } else {
+            heapValues = new double[m];
+            heapIndexes = new long[m];
+            heapSize = heapOfferRows(0, rows, max, heapValues, heapIndexes);
+        }
+        // the root holds the worst cell, so drain back to front
+        rowList.setSize(heapSize);
+        columnList.setSize(heapSize);
+        valueList.setSize(heapSize);
+        for (int i = heapSize - 1; i >= 0; i--) {
+            rowList.setQuick(i, (int) (heapIndexes[0] / columns));
+            columnList.setQuick(i, (int) (heapIndexes[0] % columns));
+            valueList.setQuick(i, heapValues[0]);
+            heapValues[0] = heapValues[i];
+            heapIndexes[0] = heapIndexes[i];
+            heapSiftDown(heapValues, heapIndexes, i, 0, max);
+        }
+    }
+
+    /**
+     * Finds the <tt>k</tt> largest (<tt>max==true</tt>) or smallest cells of
+     * each row.
+     */
+    private int[][] getRowTopLocations(int k, final boolean max) {
+        if (k < 0)
+            throw new IllegalArgumentException("k < 0: " + k);
+        final int m = Math.min(k, columns);
+        final int[][] locations = new int[rows][];
+        if (isSparseNoView()) {
+            getRowTopLocationsSparse(m, max, locations);
+            return locations;
+        }
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthreads];
+            int chunk = rows / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstRow = j * chunk;
+                final int lastRow = (j == nthreads - 1) ? rows : firstRow + chunk;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        double[] heapValues = new double[m];
+                        long[] heapIndexes = new long[m];
+                        for (int r = firstRow; r < lastRow; r++) {
+                            locations[r] = getRowTopLocations(r, max, heapValues, heapIndexes);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            double[] heapValues = new double[m];
+            long[] heapIndexes = new long[m];
+            for (int r = 0; r < rows; r++) {
+                locations[r] = getRowTopLocations(r, max, heapValues, heapIndexes);
+            }
+        }
+        return locations;
+    }
+
+    private int[] getRowTopLocations(int row, boolean max, double[] heapValues, long[] heapIndexes) {
+        int heapSize = (heapValues.length == 0) ? 0 : heapOfferRows(row, row + 1, max, heapValues, heapIndexes);
+        return heapDrainColumns(heapValues, heapIndexes, heapSize, max);
+    }
+
+    /**
+     * Sparse version of <tt>getRowTopLocations</tt>: the nonzero cells are
+     * offered to one heap per row, then each row is topped up with its
+     * leftmost zero cells, which are the only zeros that can be kept.
+     */
+    private void getRowTopLocationsSparse(final int m, final boolean max, int[][] locations) {
+        final double[][] heapValues = new double[rows][m];
+        final long[][] heapIndexes = new long[rows][m];
+        final int[] heapSizes = new int[rows];
+        if (m > 0) {
+            forEachNonZero(new cern.colt.function.tdouble.IntIntDoubleFunction() {
+                public double apply(int row, int column, double value) {
+                    if (value == value && value != 0)
+                        heapSizes[row] = heapOffer(heapValues[row], heapIndexes[row], heapSizes[row], value,
+                                (long) row * columns + column, max);
+                    return value;
+                }
+            });
+        }
+        for (int r = 0; r < rows; r++) {
+            int heapSize = heapSizes[r];
+            long offset = (long) r * columns;
+            int zeros = 0;
+            for (int c = 0; c < columns && zeros < m; c++) {
+                if (heapSize == m && heapWorse(0, offset + c, heapValues[r][0], heapIndexes[r][0], max))
+                    break;
+                if (getQuick(r, c) == 0) {
+                    heapSize = heapOffer(heapValues[r], heapIndexes[r], heapSize, 0, offset + c, max);
+                    zeros++;
+                }
+            }
+            locations[r] = heapDrainColumns(heapValues[r], heapIndexes[r], heapSize, max);
+            heapValues[r] = null;
+            heapIndexes[r] = null;
+        }
+    }
+
+    /**
+     * Empties a heap filled by row and returns the columns of its cells, best
+     * first.
+     */
+    private int[] heapDrainColumns(double[] heapValues, long[] heapIndexes, int heapSize, boolean max) {
+        int[] locations = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            locations[i] = (int) (heapIndexes[0] % columns);
+            heapValues[0] = heapValues[i];
+            heapIndexes[0] = heapIndexes[i];
+            heapSiftDown(heapValues, heapIndexes, i, 0, max);
+        }
+        return locations;
+    }
+
+    /**
+     * Offers the nonzero cells of a sparse matrix to an empty heap, followed
+     * by the zero cells with the smallest indexes, and returns its new size.
+     */
+    private int heapOfferSparse(final boolean max, final double[] heapValues, final long[] heapIndexes) {
+        final int[] heapSize = new int[1];
+        forEachNonZero(new cern.colt.function.tdouble.IntIntDoubleFunction() {
+            public double apply(int row, int column, double value) {
+                if (value == value && value != 0)
+                    heapSize[0] = heapOffer(heapValues, heapIndexes, heapSize[0], value, (long) row * columns + column,
+                            max);
+                return value;
+            }
+        });
+        // zeros tie with each other, so only the leftmost ones can be kept
+        int m = heapValues.length;
+        int zeros = 0;
+        long size = (long) rows * columns;
+        for (long index = 0; index < size && zeros < m; index++) {
+            if (heapSize[0] == m && heapWorse(0, index, heapValues[0], heapIndexes[0], max))
+                break;
+            if (getQuick((int) (index / columns), (int) (index % columns)) == 0) {
+                heapSize[0] = heapOffer(heapValues, heapIndexes, heapSize[0], 0, index, max);
+                zeros++;
+            }
+        }
+        return heapSize[0];
+    }
+
+    /**
+     * Sparse version of <tt>getKthSmallest</tt>: selects among the nonzero
+     * cells only. The zero cells rank after the negative values and are
+     * accounted for by count.
+     */
+    private double getKthSmallestSparse(int k) {
+        final DoubleArrayList valueList = new DoubleArrayList();
+        final int[] negatives = new int[1];
+        forEachNonZero(new cern.colt.function.tdouble.IntIntDoubleFunction() {
+            public double apply(int row, int column, double value) {
+                if (value != 0) {
+                    valueList.add(value);
+                    if (value < 0)
+                        negatives[0]++;
+                }
+                return value;
+            }
+        });
+        int nonZeros = valueList.size();
+        long zeros = (long) rows * columns - nonZeros;
+        if (k < negatives[0])
+            return cern.colt.Partitioning.parallelSelect(valueList.elements(), 0, nonZeros - 1, k);
+        if (k < negatives[0] + zeros)
+            return 0;
+        return cern.colt.Partitioning.parallelSelect(valueList.elements(), 0, nonZeros - 1, (int) (k - zeros));
+    }
+
+    /**
+     * Returns whether the cells are better visited with
+     * <tt>forEachNonZero</tt> than with <tt>getQuick</tt>, that is, whether
+     * the receiver is a sparse matrix that is not a view.
+     */
+    private boolean isSparseNoView() {
+        return !isView()
+                && (this instanceof SparseDoubleMatrix2D || this instanceof SparseRCDoubleMatrix2D || this instanceof SparseCCDoubleMatrix2D);
+    }
+
+    /**
+     * Offers the cells of rows <tt>firstRow..lastRow-1</tt> to an empty heap,
+     * keyed by <tt>row*columns+column</tt>, and returns its new size.
+     */
+    private int heapOfferRows(int firstRow, int lastRow, boolean max, double[] heapValues, long[] heapIndexes) {
+        int heapSize = 0;
+        for (int r = firstRow; r < lastRow; r++) {
+            long offset = (long) r * columns;
+            for (int c = 0; c < columns; c++) {
+                double elem = getQuick(r, c);
+                if (elem == elem)
+                    heapSize = heapOffer(heapValues, heapIndexes, heapSize, elem, offset + c, max);
+            }
+        }
+        return heapSize;
+    }
+
+    /**
+     * Offers a cell to a bounded heap whose root is the worst cell kept and
+     * returns the new heap size.
+     */
+    private static int heapOffer(double[] heapValues, long[] heapIndexes, int heapSize, double value, long index, boolean max) {
+        if (heapSize < heapValues.length) {
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!heapWorse(value, index, heapValues[parent], heapIndexes[parent], max))
+                    break;
+                heapValues[i] = heapValues[parent];
+                heapIndexes[i] = heapIndexes[parent];
+                i = parent;
+            }
+            heapValues[i] = value;
+            heapIndexes[i] = index;
+        } else if (heapWorse(heapValues[0], heapIndexes[0], value, index, max)) {
+            heapValues[0] = value;
+            heapIndexes[0] = index;
+            heapSiftDown(heapValues, heapIndexes, heapSize, 0, max);
+        }
+        return heapSize;
+    }
+
+    private static void heapSiftDown(double[] heapValues, long[] heapIndexes, int heapSize, int i, boolean max) {
+        double value = heapValues[i];
+        long index = heapIndexes[i];
+        int child;
+        while ((child = 2 * i + 1) < heapSize) {
+            if (child + 1 < heapSize
+                    && heapWorse(heapValues[child + 1], heapIndexes[child + 1], heapValues[child], heapIndexes[child], max))
+                child++;
+            if (!heapWorse(heapValues[child], heapIndexes[child], value, index, max))
+                break;
+            heapValues[i] = heapValues[child];
+            heapIndexes[i] = heapIndexes[child];
+            i = child;
+        }
+        heapValues[i] = value;
+        heapIndexes[i] = index;
+    }
+
+    /**
+     * Returns whether cell <tt>(v1,i1)</tt> ranks after cell <tt>(v2,i2)</tt>.
+     */
+    private static boolean heapWorse(double v1, long i1, double v2, long i2, boolean max) {
+        if (v1 == v2)
+            return i1 > i2;
+        return max ? v1 < v2 : v1 > v2;
+    }
 }
@@ -10,6 +10,7 @@ package cern.colt.matrix.tdouble.algo;
 
 import hep.aida.tdouble.bin.DynamicDoubleBin1D;
 
+import java.util.Arrays;
 import java.util.concurrent.Future;
 
 import cern.colt.function.tdouble.DoubleDoubleFunction;
@@ -18,8 +19,15 @@ import cern.colt.matrix.tdouble.DoubleFactory2D;
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
 import cern.colt.matrix.tdouble.DoubleMatrix3D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix1D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.SparseCCDoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.SparseRCDoubleMatrix2D;
 import cern.jet.math.tdouble.DoubleFunctions;
 import cern.jet.random.tdouble.engine.DoubleRandomEngine;
+import cern.jet.random.tdouble.engine.SplittableDoubleRandomEngine;
+import cern.jet.random.tdouble.sampling.DoubleRandomSampler;
 import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
@@ -67,6 +75,28 @@ import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 public class DoubleStatistic extends Object {
     private static final cern.jet.math.tdouble.DoubleFunctions F = cern.jet.math.tdouble.DoubleFunctions.functions;
 
+    // built-in distance functions with specialized kernels
+    private static final int EUCLID_KERNEL = 0;
+
+    private static final int BRAY_CURTIS_KERNEL = 1;
+
+    private static final int CANBERRA_KERNEL = 2;
+
+    private static final int MAXIMUM_KERNEL = 3;
+
+    private static final int MANHATTAN_KERNEL = 4;
+
+    /**
+     * Maximum number of columns per tile of the distance matrix.
+     */
+    private static final int DISTANCE_TILE = 64;
+
+    /**
+     * Number of rows streamed through a tile at a time; keeps the column
+     * segments of two tiles in cache.
+     */
+    private static final int DISTANCE_ROW_BLOCK = 256;
+
     /**
      * Euclidean distance function; <tt>Sqrt(Sum( (x[i]-y[i])^2 ))</tt>.
      */
@@ -274,10 +304,13 @@ public class DoubleStatistic extends Object {
      *         only).
      */
     public static DoubleMatrix2D correlation(DoubleMatrix2D covariance) {
+        double[] stdDevs = new double[covariance.columns()];
+        for (int i = stdDevs.length; --i >= 0;)
+            stdDevs[i] = Math.sqrt(covariance.getQuick(i, i));
         for (int i = covariance.columns(); --i >= 0;) {
+            double stdDev1 = stdDevs[i];
             for (int j = i; --j >= 0;) {
-                double stdDev1 = Math.sqrt(covariance.getQuick(i, i));
-                double stdDev2 = Math.sqrt(covariance.getQuick(j, j));
+                double stdDev2 = stdDevs[j];
                 double cov = covariance.getQuick(i, j);
                 double corr = cov / (stdDev1 * stdDev2);
 
@@ -302,29 +335,54 @@ public class DoubleStatistic extends Object {
      * <A HREF="http://www.cquest.utoronto.ca/geog/ggr270y/notes/not05efg.html">
      * math definition</A>. Compares two column vectors at a time. Use dice
      * views to compare two row vectors at a time.
+     * <p>
+     * Dense input is centered in a dense copy and multiplied with its own
+     * transpose using the parallel matrix multiplication. Sparse
+     * <tt>SparseRCDoubleMatrix2D</tt>, <tt>SparseCCDoubleMatrix2D</tt> and
+     * <tt>SparseDoubleMatrix2D</tt> input that is not a view is not densified;
+     * the sums of products are computed from the nonzeros only and corrected
+     * by the column means.
      * 
      * @param matrix
      *            any matrix; a column holds the values of a given variable.
      * @return the covariance matrix (<tt>n x n, n=matrix.columns</tt>).
      */
     public static DoubleMatrix2D covariance(DoubleMatrix2D matrix) {
-        int rows = matrix.rows();
-        int columns = matrix.columns();
-        DoubleMatrix2D covariance = new cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D(columns, columns);
-
-        double[] sums = new double[columns];
-        DoubleMatrix1D[] cols = new DoubleMatrix1D[columns];
-        for (int i = columns; --i >= 0;) {
-            cols[i] = matrix.viewColumn(i);
-            sums[i] = cols[i].zSum();
+        if (isCompressible(matrix))
+            return covarianceSparse(matrix);
+        final int rows = matrix.rows();
+        final int columns = matrix.columns();
+        if (rows == 0)
+            return new DenseDoubleMatrix2D(columns, columns).assign(Double.NaN);
+
+        // center a dense copy, then covariance = X'X / rows
+        final DenseDoubleMatrix2D centered = new DenseDoubleMatrix2D(rows, columns);
+        centered.assign(matrix);
+        final double[] means = ((DenseDoubleMatrix1D) centered.zMult(new DenseDoubleMatrix1D(rows).assign(1), null,
+                1.0 / rows, 0, true)).elements();
+        final double[] elems = centered.elements();
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && ((long) rows * columns >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthreads];
+            int k = rows / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthreads - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        subtractFromRows(elems, columns, means, firstRow, lastRow);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            subtractFromRows(elems, columns, means, 0, rows);
         }
-
+        DoubleMatrix2D covariance = centered.zMult(centered, null, 1.0 / rows, 0, true, false);
         for (int i = columns; --i >= 0;) {
-            for (int j = i + 1; --j >= 0;) {
-                double sumOfProducts = cols[i].zDotProduct(cols[j]);
-                double cov = (sumOfProducts - sums[i] * sums[j] / rows) / rows;
-                covariance.setQuick(i, j, cov);
-                covariance.setQuick(j, i, cov); // symmetric
+            for (int j = i; --j >= 0;) {
+                covariance.setQuick(j, i, covariance.getQuick(i, j)); // symmetric
             }
         }
         return covariance;
@@ -537,6 +595,14 @@ public class DoubleStatistic extends Object {
      * the cells represent distance coefficients. The diagonal cells (i.e. the
      * distance between a variable and itself) will be zero. Compares two column
      * vectors at a time. Use dice views to compare two row vectors at a time.
+     * <p>
+     * The predefined functions {@link #EUCLID}, {@link #BRAY_CURTIS},
+     * {@link #CANBERRA}, {@link #MAXIMUM} and {@link #MANHATTAN} are evaluated
+     * by specialized kernels over tiles of the distance matrix, in parallel.
+     * Sparse <tt>SparseRCDoubleMatrix2D</tt>, <tt>SparseCCDoubleMatrix2D</tt>
+     * and <tt>SparseDoubleMatrix2D</tt> input that is not a view is not
+     * densified, except for {@link #CANBERRA}. User defined functions are applied to column views,
+     * one pair at a time.
      * 
      * @param matrix
      *            any matrix; a column holds the values of a given variable
@@ -547,6 +613,13 @@ public class DoubleStatistic extends Object {
      * @return the distance matrix (<tt>n x n, n=matrix.columns</tt>).
      */
     public static DoubleMatrix2D distance(DoubleMatrix2D matrix, VectorVectorFunction distanceFunction) {
+        int kernel = kernel(distanceFunction);
+        if (kernel >= 0 && matrix.rows() > 0) {
+            if (!isCompressible(matrix))
+                return distanceDense(matrix, kernel);
+            if (kernel != CANBERRA_KERNEL) // Canberra is undefined on shared zeros
+                return distanceSparse(matrix, kernel);
+        }
         int columns = matrix.columns();
         DoubleMatrix2D distance = new cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D(columns, columns);
 
@@ -733,7 +806,8 @@ public class DoubleStatistic extends Object {
      * @param randomGenerator
      *            a uniform random number generator; set this parameter to
      *            <tt>null</tt> to use a default generator seeded with the
-     *            current time.
+     *            current time. With a {@link SplittableDoubleRandomEngine}
+     *            large index sets are drawn in parallel.
      * @return the sampling view.
      * @throws IllegalArgumentException
      *             if
@@ -756,17 +830,9 @@ public class DoubleStatistic extends Object {
             randomGenerator = new cern.jet.random.tdouble.engine.DoubleMersenneTwister((int) System.currentTimeMillis());
 
         int ncolumns = (int) Math.round(matrix.size() * fraction);
-        int max = ncolumns;
-        long[] selected = new long[max]; // sampler works on long's, not
-        // int's
 
         // sample
-        int n = ncolumns;
-        int N = (int) matrix.size();
-        cern.jet.random.tdouble.sampling.DoubleRandomSampler.sample(n, N, n, 0, selected, 0, randomGenerator);
-        int[] selectedCols = new int[n];
-        for (int i = 0; i < n; i++)
-            selectedCols[i] = (int) selected[i];
+        int[] selectedCols = sampleIndexes(ncolumns, (int) matrix.size(), randomGenerator);
 
         return matrix.viewSelection(selectedCols);
     }
@@ -830,7 +896,8 @@ public class DoubleStatistic extends Object {
      * @param randomGenerator
      *            a uniform random number generator; set this parameter to
      *            <tt>null</tt> to use a default generator seeded with the
-     *            current time.
+     *            current time. With a {@link SplittableDoubleRandomEngine}
+     *            large index sets are drawn in parallel.
      * @return the sampling view.
      * @throws IllegalArgumentException
      *             if
@@ -862,25 +929,12 @@ public class DoubleStatistic extends Object {
 
         int nrows = (int) Math.round(matrix.rows() * rowFraction);
         int ncolumns = (int) Math.round(matrix.columns() * columnFraction);
-        int max = Math.max(nrows, ncolumns);
-        long[] selected = new long[max]; // sampler works on long's, not
-        // int's
 
         // sample rows
-        int n = nrows;
-        int N = matrix.rows();
-        cern.jet.random.tdouble.sampling.DoubleRandomSampler.sample(n, N, n, 0, selected, 0, randomGenerator);
-        int[] selectedRows = new int[n];
-        for (int i = 0; i < n; i++)
-            selectedRows[i] = (int) selected[i];
+        int[] selectedRows = sampleIndexes(nrows, matrix.rows(), randomGenerator);
 
         // sample columns
-        n = ncolumns;
-        N = matrix.columns();
-        cern.jet.random.tdouble.sampling.DoubleRandomSampler.sample(n, N, n, 0, selected, 0, randomGenerator);
-        int[] selectedCols = new int[n];
-        for (int i = 0; i < n; i++)
-            selectedCols[i] = (int) selected[i];
+        int[] selectedCols = sampleIndexes(ncolumns, matrix.columns(), randomGenerator);
 
         return matrix.viewSelection(selectedRows, selectedCols);
     }
@@ -904,7 +958,8 @@ public class DoubleStatistic extends Object {
      * @param randomGenerator
      *            a uniform random number generator; set this parameter to
      *            <tt>null</tt> to use a default generator seeded with the
-     *            current time.
+     *            current time. With a {@link SplittableDoubleRandomEngine}
+     *            large index sets are drawn in parallel.
      * @return the sampling view.
      * @throws IllegalArgumentException
      *             if
@@ -944,34 +999,391 @@ public class DoubleStatistic extends Object {
         int nslices = (int) Math.round(matrix.slices() * sliceFraction);
         int nrows = (int) Math.round(matrix.rows() * rowFraction);
         int ncolumns = (int) Math.round(matrix.columns() * columnFraction);
-        int max = Math.max(nslices, Math.max(nrows, ncolumns));
-        long[] selected = new long[max]; // sampler works on long's, not
-        // int's
 
         // sample slices
-        int n = nslices;
-        int N = matrix.slices();
-        cern.jet.random.tdouble.sampling.DoubleRandomSampler.sample(n, N, n, 0, selected, 0, randomGenerator);
-        int[] selectedSlices = new int[n];
-        for (int i = 0; i < n; i++)
-            selectedSlices[i] = (int) selected[i];
+        int[] selectedSlices = sampleIndexes(nslices, matrix.slices(), randomGenerator);
 
         // sample rows
-        n = nrows;
-        N = matrix.rows();
-        cern.jet.random.tdouble.sampling.DoubleRandomSampler.sample(n, N, n, 0, selected, 0, randomGenerator);
-        int[] selectedRows = new int[n];
-        for (int i = 0; i < n; i++)
-            selectedRows[i] = (int) selected[i];
+        int[] selectedRows = sampleIndexes(nrows, matrix.rows(), randomGenerator);
 
         // sample columns
-        n = ncolumns;
-        N = matrix.columns();
-        cern.jet.random.tdouble.sampling.DoubleRandomSampler.sample(n, N, n, 0, selected, 0, randomGenerator);
-        int[] selectedCols = new int[n];
-        for (int i = 0; i < n; i++)
-            selectedCols[i] = (int) selected[i];
+        int[] selectedCols = sampleIndexes(ncolumns, matrix.columns(), randomGenerator);
 
         return matrix.viewSelection(selectedSlices, selectedRows, selectedCols);
     }
+
+    /**
+     * Copies the columns of a matrix into separate arrays.
+     */
+    private static double[][] columnArrays(final DoubleMatrix2D matrix) {
+        final int rows = matrix.rows();
+        int columns = matrix.columns();
+        final double[][] cols = new double[columns][rows];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && ((long) rows * columns >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, columns);
+            Future<?>[] futures = new Future[nthreads];
+            int k = columns / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstColumn = j * k;
+                final int lastColumn = (j == nthreads - 1) ? columns : firstColumn + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int r = 0; r < rows; r++) {
+                            for (int c = firstColumn; c < lastColumn; c++) {
+                                cols[c][r] = matrix.getQuick(r, c);
+                            }
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < columns; c++) {
+                    cols[c][r] = matrix.getQuick(r, c);
+                }
+            }
+        }
+        return cols;
+    }
+
+    /**
+     * Covariance of a sparse matrix. The sums of products of column
+     * <tt>i</tt> with columns <tt>0..i</tt> are accumulated by walking the
+     * nonzeros of column <tt>i</tt> and, for each, the nonzeros of its row.
+     */
+    private static DoubleMatrix2D covarianceSparse(DoubleMatrix2D matrix) {
+        final int rows = matrix.rows();
+        final int columns = matrix.columns();
+        SparseCCDoubleMatrix2D cc = sortedColumns(matrix);
+        SparseRCDoubleMatrix2D rc = (matrix instanceof SparseRCDoubleMatrix2D) ? (SparseRCDoubleMatrix2D) matrix : cc
+                .getRowCompressed();
+        final int[] columnPointers = cc.getColumnPointers();
+        final int[] rowIndexes = cc.getRowIndexes();
+        final double[] columnValues = cc.getValues();
+        final int[] rowPointers = rc.getRowPointers();
+        final int[] columnIndexes = rc.getColumnIndexes();
+        final double[] rowValues = rc.getValues();
+        final double[] sums = new double[columns];
+        for (int i = 0; i < columns; i++) {
+            double sum = 0;
+            for (int p = columnPointers[i]; p < columnPointers[i + 1]; p++) {
+                sum += columnValues[p];
+            }
+            sums[i] = sum;
+        }
+        final DoubleMatrix2D covariance = new DenseDoubleMatrix2D(columns, columns);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && ((long) columns * columns >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, columns);
+            Future<?>[] futures = new Future[nthreads];
+            for (int j = 0; j < nthreads; j++) {
+                final int first = j;
+                final int step = nthreads;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        sparseCovariances(columnPointers, rowIndexes, columnValues, rowPointers, columnIndexes,
+                                rowValues, sums, rows, covariance, first, step);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            sparseCovariances(columnPointers, rowIndexes, columnValues, rowPointers, columnIndexes, rowValues, sums,
+                    rows, covariance, 0, 1);
+        }
+        return covariance;
+    }
+
+    /**
+     * Distance matrix of a dense matrix for a predefined distance function.
+     */
+    private static DoubleMatrix2D distanceDense(DoubleMatrix2D matrix, final int kernel) {
+        final int rows = matrix.rows();
+        final int columns = matrix.columns();
+        final double[][] cols = columnArrays(matrix);
+        final DoubleMatrix2D distance = new DenseDoubleMatrix2D(columns, columns);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && ((long) rows * columns >= ConcurrencyUtils.getThreadsBeginN_2D()) && (columns > 2)) {
+            // tile rows are dealt out round robin, as their cost grows with
+            // the row index
+            final int tile = Math.max(1, Math.min(DISTANCE_TILE, columns / (2 * nthreads)));
+            nthreads = Math.min(nthreads, (columns + tile - 1) / tile);
+            Future<?>[] futures = new Future[nthreads];
+            for (int j = 0; j < nthreads; j++) {
+                final int first = j;
+                final int step = nthreads;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        distanceTiles(cols, rows, kernel, distance, tile, first, step);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            distanceTiles(cols, rows, kernel, distance, DISTANCE_TILE, 0, 1);
+        }
+        return distance;
+    }
+
+    /**
+     * Distance matrix of a sparse matrix for a predefined distance function
+     * other than Canberra.
+     */
+    private static DoubleMatrix2D distanceSparse(DoubleMatrix2D matrix, final int kernel) {
+        final int rows = matrix.rows();
+        final int columns = matrix.columns();
+        SparseCCDoubleMatrix2D cc = sortedColumns(matrix);
+        final int[] columnPointers = cc.getColumnPointers();
+        final int[] rowIndexes = cc.getRowIndexes();
+        final double[] values = cc.getValues();
+        final DoubleMatrix2D distance = new DenseDoubleMatrix2D(columns, columns);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && ((long) columns * columns >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, columns);
+            Future<?>[] futures = new Future[nthreads];
+            for (int j = 0; j < nthreads; j++) {
+                final int first = j;
+                final int step = nthreads;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        sparseDistances(columnPointers, rowIndexes, values, rows, kernel, distance, first, step);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            sparseDistances(columnPointers, rowIndexes, values, rows, kernel, distance, 0, 1);
+        }
+        return distance;
+    }
+
+    /**
+     * Computes the distances between all columns <tt>i &gt; j</tt> for the tile
+     * rows <tt>first, first+step, ...</tt>. Each tile accumulates its distances
+     * over blocks of rows, so that the column segments of a tile stay in cache.
+     */
+    private static void distanceTiles(double[][] cols, int rows, int kernel, DoubleMatrix2D distance, int tile,
+            int first, int step) {
+        int columns = cols.length;
+        double[] acc = new double[tile * tile];
+        double[] acc2 = (kernel == BRAY_CURTIS_KERNEL) ? new double[tile * tile] : null;
+        for (int i0 = first * tile; i0 < columns; i0 += step * tile) {
+            int i1 = Math.min(columns, i0 + tile);
+            for (int j0 = 0; j0 <= i0; j0 += tile) {
+                int j1 = Math.min(columns, j0 + tile);
+                Arrays.fill(acc, 0);
+                if (acc2 != null)
+                    Arrays.fill(acc2, 0);
+                for (int r0 = 0; r0 < rows; r0 += DISTANCE_ROW_BLOCK) {
+                    int r1 = Math.min(rows, r0 + DISTANCE_ROW_BLOCK);
+                    for (int i = i0; i < i1; i++) {
+                        double[] x = cols[i];
+                        int jEnd = Math.min(j1, i);
+                        for (int j = j0; j < jEnd; j++) {
+                            double[] y = cols[j];
+                            int k = (i - i0) * tile + (j - j0);
+                            double s = acc[k];
+                            switch (kernel) {
+                            case EUCLID_KERNEL:
+                                for (int r = r0; r < r1; r++) {
+                                    double d = x[r] - y[r];
+                                    s += d * d;
+                                }
+                                break;
+                            case BRAY_CURTIS_KERNEL:
+                                double t = acc2[k];
+                                for (int r = r0; r < r1; r++) {
+                                    s += Math.abs(x[r] - y[r]);
+                                    t += x[r] + y[r];
+                                }
+                                acc2[k] = t;
+                                break;
+                            case CANBERRA_KERNEL:
+                                for (int r = r0; r < r1; r++) {
+                                    s += Math.abs(x[r] - y[r]) / Math.abs(x[r] + y[r]);
+                                }
+                                break;
+                            case MAXIMUM_KERNEL:
+                                for (int r = r0; r < r1; r++) {
+                                    s = Math.max(s, Math.abs(x[r] - y[r]));
+                                }
+                                break;
+                            default:
+                                for (int r = r0; r < r1; r++) {
+                                    s += Math.abs(x[r] - y[r]);
+                                }
+                            }
+                            acc[k] = s;
+                        }
+                    }
+                }
+                for (int i = i0; i < i1; i++) {
+                    int jEnd = Math.min(j1, i);
+                    for (int j = j0; j < jEnd; j++) {
+                        int k = (i - i0) * tile + (j - j0);
+                        double d = finishDistance(kernel, acc[k], (acc2 != null) ? acc2[k] : 0);
+                        distance.setQuick(i, j, d);
+                        distance.setQuick(j, i, d); // symmetric
+                    }
+                }
+            }
+        }
+    }
+
+    private static double finishDistance(int kernel, double s, double t) {
+        switch (kernel) {
+        case EUCLID_KERNEL:
+            return Math.sqrt(s);
+        case BRAY_CURTIS_KERNEL:
+            return s / t;
+        default:
+            return s;
+        }
+    }
+
+    /**
+     * Returns whether the matrix is a sparse matrix whose nonzeros can be
+     * obtained in compressed column form. Views are excluded, since the
+     * compressed forms are built from the backing storage and ignore the
+     * offsets and strides of a view.
+     */
+    private static boolean isCompressible(DoubleMatrix2D matrix) {
+        if (matrix.isView())
+            return false;
+        return (matrix instanceof SparseRCDoubleMatrix2D) || (matrix instanceof SparseCCDoubleMatrix2D)
+                || (matrix instanceof SparseDoubleMatrix2D);
+    }
+
+    /**
+     * Returns the kernel of a predefined distance function, or <tt>-1</tt>.
+     */
+    private static int kernel(VectorVectorFunction distanceFunction) {
+        if (distanceFunction == EUCLID)
+            return EUCLID_KERNEL;
+        if (distanceFunction == BRAY_CURTIS)
+            return BRAY_CURTIS_KERNEL;
+        if (distanceFunction == CANBERRA)
+            return CANBERRA_KERNEL;
+        if (distanceFunction == MAXIMUM)
+            return MAXIMUM_KERNEL;
+        if (distanceFunction == MANHATTAN)
+            return MANHATTAN_KERNEL;
+        return -1;
+    }
+
+    /**
+     * Returns a sorted random set of <tt>n</tt> indexes from <tt>[0,N-1]</tt>;
+     * drawn in parallel if the engine is splittable.
+     */
+    private static int[] sampleIndexes(int n, int N, DoubleRandomEngine randomGenerator) {
+        if (randomGenerator instanceof SplittableDoubleRandomEngine) {
+            return DoubleRandomSampler.sample(n, N, (SplittableDoubleRandomEngine) randomGenerator);
+        }
+        long[] selected = new long[n]; // sampler works on long's, not int's
+        DoubleRandomSampler.sample(n, N, n, 0, selected, 0, randomGenerator);
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++)
+            indexes[i] = (int) selected[i];
+        return indexes;
+    }
+
+    /**
+     * Returns the matrix in compressed column form with sorted row indexes.
+     */
+    private static SparseCCDoubleMatrix2D sortedColumns(DoubleMatrix2D matrix) {
+        if (matrix instanceof SparseRCDoubleMatrix2D)
+            return ((SparseRCDoubleMatrix2D) matrix).getColumnCompressed();
+        if (matrix instanceof SparseDoubleMatrix2D)
+            return ((SparseDoubleMatrix2D) matrix).getColumnCompressed(true);
+        SparseCCDoubleMatrix2D cc = (SparseCCDoubleMatrix2D) matrix;
+        if (cc.hasRowIndexesSorted())
+            return cc;
+        return cc.getRowCompressed().getColumnCompressed();
+    }
+
+    /**
+     * Computes the covariances of columns <tt>i</tt> and <tt>0..i</tt> for
+     * <tt>i = first, first+step, ...</tt>.
+     */
+    private static void sparseCovariances(int[] columnPointers, int[] rowIndexes, double[] columnValues,
+            int[] rowPointers, int[] columnIndexes, double[] rowValues, double[] sums, int rows,
+            DoubleMatrix2D covariance, int first, int step) {
+        int columns = sums.length;
+        double[] sumsOfProducts = new double[columns];
+        for (int i = first; i < columns; i += step) {
+            for (int p = columnPointers[i]; p < columnPointers[i + 1]; p++) {
+                double a = columnValues[p];
+                int r = rowIndexes[p];
+                for (int q = rowPointers[r]; q < rowPointers[r + 1]; q++) {
+                    int c = columnIndexes[q];
+                    if (c <= i)
+                        sumsOfProducts[c] += a * rowValues[q];
+                }
+            }
+            for (int c = 0; c <= i; c++) {
+                double cov = (sumsOfProducts[c] - sums[i] * sums[c] / rows) / rows;
+                covariance.setQuick(i, c, cov);
+                covariance.setQuick(c, i, cov); // symmetric
+                sumsOfProducts[c] = 0;
+            }
+        }
+    }
+
+    /**
+     * Computes the distances between columns <tt>i</tt> and <tt>0..i-1</tt> for
+     * <tt>i = first, first+step, ...</tt> by merging their sorted nonzeros.
+     */
+    private static void sparseDistances(int[] columnPointers, int[] rowIndexes, double[] values, int rows,
+            int kernel, DoubleMatrix2D distance, int first, int step) {
+        int columns = distance.columns();
+        for (int i = first; i < columns; i += step) {
+            for (int j = 0; j < i; j++) {
+                int a = columnPointers[i];
+                int aEnd = columnPointers[i + 1];
+                int b = columnPointers[j];
+                int bEnd = columnPointers[j + 1];
+                double s = 0;
+                double t = 0;
+                while (a < aEnd || b < bEnd) {
+                    int ra = (a < aEnd) ? rowIndexes[a] : Integer.MAX_VALUE;
+                    int rb = (b < bEnd) ? rowIndexes[b] : Integer.MAX_VALUE;
+                    double x = 0;
+                    double y = 0;
+                    if (ra <= rb)
+                        x = values[a++];
+                    if (rb <= ra)
+                        y = values[b++];
+                    double d = x - y;
+                    switch (kernel) {
+                    case EUCLID_KERNEL:
+                        s += d * d;
+                        break;
+                    case BRAY_CURTIS_KERNEL:
+                        s += Math.abs(d);
+                        t += x + y;
+                        break;
+                    case MAXIMUM_KERNEL:
+                        s = Math.max(s, Math.abs(d));
+                        break;
+                    default:
+                        s += Math.abs(d);
+                    }
+                }
+                double dist = finishDistance(kernel, s, t);
+                distance.setQuick(i, j, dist);
+                distance.setQuick(j, i, dist); // symmetric
+            }
+        }
+    }
+
+    private static void subtractFromRows(double[] elements, int columns, double[] values, int firstRow, int lastRow) {
+        for (int r = firstRow; r < lastRow; r++) {
+            int idx = r * columns;
+            for (int c = 0; c < columns; c++) {
+                elements[idx + c] -= values[c];
+            }
+        }
+    }
 }
@@ -0,0 +1,628 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.matrix.tdouble.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.jtransforms.dct.DoubleDCT_1D;
+import org.jtransforms.fft.DoubleFFT_1D;
+
+import cern.colt.matrix.tdcomplex.impl.DenseLargeDComplexMatrix3D;
+import cern.colt.matrix.tdouble.DoubleMatrix3D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Dense 3-d matrix holding <tt>double</tt> elements in chunks. First see the <a
+ * href="package-summary.html">package summary</a> and javadoc <a
+ * href="package-tree.html">tree view</a> to get the broad picture.
+ * <p>
+ * <b>Implementation:</b>
+ * <p>
+ * This data structure allows to store more than 2^31 elements. Internally holds
+ * one chunk per slice, elements[slice][row*columns+column], so every slice is
+ * a contiguous one-dimensional array. Parallel operations split the matrix
+ * into slabs of whole slices. The 3D transforms are computed one dimension
+ * after another; the lines that are not contiguous in memory are transposed
+ * into a small buffer in tiles of several lines at a time, so that every pass
+ * reads and writes whole cache lines. Note that this implementation is not
+ * synchronized.
+ * <p>
+ * <b>Time complexity:</b>
+ * <p>
+ * <tt>O(1)</tt> (i.e. constant time) for the basic operations <tt>get</tt>,
+ * <tt>getQuick</tt>, <tt>set</tt>, <tt>setQuick</tt> and <tt>size</tt>.
+ *
+ */
+public class DenseChunkedDoubleMatrix3D extends WrapperDoubleMatrix3D {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of elements of a transposition buffer; the buffer should fit into
+     * the L2 cache.
+     */
+    private static final int TILE_SIZE = 32768;
+
+    private double[][] elements;
+
+    private DoubleDCT_1D dctSlices;
+
+    private DoubleDCT_1D dctRows;
+
+    private DoubleDCT_1D dctColumns;
+
+    private DoubleFFT_1D fftSlices;
+
+    private DoubleFFT_1D fftRows;
+
+    private DoubleFFT_1D fftColumns;
+
+    /**
+     * Constructs a matrix with a given number of slices, rows and columns. All
+     * entries are initially <tt>0</tt>.
+     *
+     * @param slices
+     *            the number of slices the matrix shall have.
+     * @param rows
+     *            the number of rows the matrix shall have.
+     * @param columns
+     *            the number of columns the matrix shall have.
+     * @throws IllegalArgumentException
+     *             if <tt>slices<0 || rows<0 || columns<0</tt> or if a single
+     *             slice has more than <tt>Integer.MAX_VALUE</tt> cells.
+     */
+    public DenseChunkedDoubleMatrix3D(int slices, int rows, int columns) {
+        super(null);
+        try {
+            setUp(slices, rows, columns);
+        } catch (IllegalArgumentException exc) { // we can hold slices*rows*columns>Integer.MAX_VALUE cells !
+            if (!"matrix too large".equals(exc.getMessage()))
+                throw exc;
+        }
+        if ((long) rows * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("slice too large");
+        elements = new double[slices][rows * columns];
+    }
+
+    public double aggregate(final cern.colt.function.tdouble.DoubleDoubleFunction aggr,
+            final cern.colt.function.tdouble.DoubleFunction f) {
+        if (size() == 0)
+            return Double.NaN;
+        double a = 0;
+        final int length = rows * columns;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<Double>() {
+
+                    public Double call() throws Exception {
+                        double a = f.apply(elements[firstSlice][0]);
+                        int d = 1;
+                        for (int s = firstSlice; s < lastSlice; s++) {
+                            double[] chunk = elements[s];
+                            for (int i = d; i < length; i++) {
+                                a = aggr.apply(a, f.apply(chunk[i]));
+                            }
+                            d = 0;
+                        }
+                        return a;
+                    }
+                });
+            }
+            a = ConcurrencyUtils.waitForCompletion(futures, aggr);
+        } else {
+            a = f.apply(elements[0][0]);
+            int d = 1; // first cell already done
+            for (int s = 0; s < slices; s++) {
+                double[] chunk = elements[s];
+                for (int i = d; i < length; i++) {
+                    a = aggr.apply(a, f.apply(chunk[i]));
+                }
+                d = 0;
+            }
+        }
+        return a;
+    }
+
+    public double aggregate(final DoubleMatrix3D other, final cern.colt.function.tdouble.DoubleDoubleFunction aggr,
+            final cern.colt.function.tdouble.DoubleDoubleFunction f) {
+        if (!(other instanceof DenseChunkedDoubleMatrix3D)) {
+            return super.aggregate(other, aggr, f);
+        }
+        checkShape(other);
+        if (size() == 0)
+            return Double.NaN;
+        double a = 0;
+        final int length = rows * columns;
+        final double[][] elementsOther = ((DenseChunkedDoubleMatrix3D) other).elements;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<Double>() {
+
+                    public Double call() throws Exception {
+                        double a = f.apply(elements[firstSlice][0], elementsOther[firstSlice][0]);
+                        int d = 1;
+                        for (int s = firstSlice; s < lastSlice; s++) {
+                            double[] chunk = elements[s];
+                            double[] chunkOther = elementsOther[s];
+                            for (int i = d; i < length; i++) {
+                                a = aggr.apply(a, f.apply(chunk[i], chunkOther[i]));
+                            }
+                            d = 0;
+                        }
+                        return a;
+                    }
+                });
+            }
+            a = ConcurrencyUtils.waitForCompletion(futures, aggr);
+        } else {
+            a = f.apply(elements[0][0], elementsOther[0][0]);
+            int d = 1; // first cell already done
+            for (int s = 0; s < slices; s++) {
+                double[] chunk = elements[s];
+                double[] chunkOther = elementsOther[s];
+                for (int i = d; i < length; i++) {
+                    a = aggr.apply(a, f.apply(chunk[i], chunkOther[i]));
+                }
+                d = 0;
+            }
+        }
+        return a;
+    }
+
+    public DoubleMatrix3D assign(final cern.colt.function.tdouble.DoubleFunction function) {
+        final int length = rows * columns;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+
+                    public void run() {
+                        for (int s = firstSlice; s < lastSlice; s++) {
+                            double[] chunk = elements[s];
+                            for (int i = 0; i < length; i++) {
+                                chunk[i] = function.apply(chunk[i]);
+                            }
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int s = 0; s < slices; s++) {
+                double[] chunk = elements[s];
+                for (int i = 0; i < length; i++) {
+                    chunk[i] = function.apply(chunk[i]);
+                }
+            }
+        }
+        return this;
+    }
+
+    public DoubleMatrix3D assign(final double value) {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+
+                    public void run() {
+                        for (int s = firstSlice; s < lastSlice; s++) {
+                            java.util.Arrays.fill(elements[s], value);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int s = 0; s < slices; s++) {
+                java.util.Arrays.fill(elements[s], value);
+            }
+        }
+        return this;
+    }
+
+    public DoubleMatrix3D assign(DoubleMatrix3D source) {
+        if (!(source instanceof DenseChunkedDoubleMatrix3D)) {
+            return super.assign(source);
+        }
+        if (source == this)
+            return this;
+        checkShape(source);
+        final int length = rows * columns;
+        final double[][] elementsOther = ((DenseChunkedDoubleMatrix3D) source).elements;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+
+                    public void run() {
+                        for (int s = firstSlice; s < lastSlice; s++) {
+                            System.arraycopy(elementsOther[s], 0, elements[s], 0, length);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int s = 0; s < slices; s++) {
+                System.arraycopy(elementsOther[s], 0, elements[s], 0, length);
+            }
+        }
+        return this;
+    }
+
+    public DoubleMatrix3D assign(final DoubleMatrix3D y, final cern.colt.function.tdouble.DoubleDoubleFunction function) {
+        if (!(y instanceof DenseChunkedDoubleMatrix3D)) {
+            return super.assign(y, function);
+        }
+        checkShape(y);
+        final int length = rows * columns;
+        final double[][] elementsOther = ((DenseChunkedDoubleMatrix3D) y).elements;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+
+                    public void run() {
+                        for (int s = firstSlice; s < lastSlice; s++) {
+                            double[] chunk = elements[s];
+                            double[] chunkOther = elementsOther[s];
+                            for (int i = 0; i < length; i++) {
+                                chunk[i] = function.apply(chunk[i], chunkOther[i]);
+                            }
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int s = 0; s < slices; s++) {
+                double[] chunk = elements[s];
+                double[] chunkOther = elementsOther[s];
+                for (int i = 0; i < length; i++) {
+                    chunk[i] = function.apply(chunk[i], chunkOther[i]);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Computes the 3D discrete cosine transform (DCT-II) of this matrix.
+     *
+     * @param scale
+     *            if true then scaling is performed
+     *
+     */
+    public void dct3(boolean scale) {
+        dct3(false, scale);
+    }
+
+    /**
+     * Returns new complex matrix which is the 3D discrete Fourier transform
+     * (DFT) of this matrix.
+     *
+     * @return the 3D discrete Fourier transform (DFT) of this matrix.
+     */
+    public DenseLargeDComplexMatrix3D getFft3() {
+        return fft3(false, false);
+    }
+
+    /**
+     * Returns new complex matrix which is the 3D inverse of the discrete
+     * Fourier transform (IDFT) of this matrix.
+     *
+     * @param scale
+     *            if true then scaling is performed
+     *
+     * @return the 3D inverse of the discrete Fourier transform (IDFT) of this
+     *         matrix.
+     */
+    public DenseLargeDComplexMatrix3D getIfft3(boolean scale) {
+        return fft3(true, scale);
+    }
+
+    public double getQuick(int slice, int row, int column) {
+        return elements[slice][row * columns + column];
+    }
+
+    /**
+     * Computes the 3D inverse of the discrete cosine transform (DCT-III) of
+     * this matrix.
+     *
+     * @param scale
+     *            if true then scaling is performed
+     *
+     */
+    public void idct3(boolean scale) {
+        dct3(true, scale);
+    }
+
+    public void setQuick(int slice, int row, int column, double value) {
+        elements[slice][row * columns + column] = value;
+    }
+
+    public double[][] elements() {
+        return elements;
+    }
+
+    protected DoubleMatrix3D getContent() {
+        return this;
+    }
+
+    public DoubleMatrix3D like(int slices, int rows, int columns) {
+        return new DenseChunkedDoubleMatrix3D(slices, rows, columns);
+    }
+
+    private void dct3(final boolean inverse, final boolean scale) {
+        if (dctColumns == null) {
+            dctSlices = new DoubleDCT_1D(slices);
+            dctRows = new DoubleDCT_1D(rows);
+            dctColumns = new DoubleDCT_1D(columns);
+        }
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_2Threads(Integer.MAX_VALUE);
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_4Threads(Integer.MAX_VALUE);
+            // slabs of slices: columns and rows
+            int nthr = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthr];
+            int k = slices / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthr - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        dctColumnsAndRows(firstSlice, lastSlice, inverse, scale);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            // slabs of rows: slices
+            nthr = Math.min(nthreads, rows);
+            futures = new Future[nthr];
+            k = rows / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthr - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        dctSlices(firstRow, lastRow, inverse, scale);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            ConcurrencyUtils.resetThreadsBeginN_FFT();
+        } else {
+            dctColumnsAndRows(0, slices, inverse, scale);
+            dctSlices(0, rows, inverse, scale);
+        }
+    }
+
+    private void dctColumnsAndRows(int firstSlice, int lastSlice, boolean inverse, boolean scale) {
+        int tile = Math.max(1, Math.min(columns, TILE_SIZE / rows));
+        double[] buffer = new double[tile * rows];
+        for (int s = firstSlice; s < lastSlice; s++) {
+            double[] chunk = elements[s];
+            for (int r = 0; r < rows; r++) {
+                if (inverse) {
+                    dctColumns.inverse(chunk, r * columns, scale);
+                } else {
+                    dctColumns.forward(chunk, r * columns, scale);
+                }
+            }
+            for (int c0 = 0; c0 < columns; c0 += tile) {
+                int width = Math.min(tile, columns - c0);
+                for (int r = 0; r < rows; r++) {
+                    int idx = r * columns + c0;
+                    for (int j = 0; j < width; j++) {
+                        buffer[j * rows + r] = chunk[idx + j];
+                    }
+                }
+                for (int j = 0; j < width; j++) {
+                    if (inverse) {
+                        dctRows.inverse(buffer, j * rows, scale);
+                    } else {
+                        dctRows.forward(buffer, j * rows, scale);
+                    }
+                }
+                for (int r = 0; r < rows; r++) {
+                    int idx = r * columns + c0;
+                    for (int j = 0; j < width; j++) {
+                        chunk[idx + j] = buffer[j * rows + r];
+                    }
+                }
+            }
+        }
+    }
+
+    private void dctSlices(int firstRow, int lastRow, boolean inverse, boolean scale) {
+        int tile = Math.max(1, Math.min(columns, TILE_SIZE / slices));
+        double[] buffer = new double[tile * slices];
+        for (int r = firstRow; r < lastRow; r++) {
+            for (int c0 = 0; c0 < columns; c0 += tile) {
+                int width = Math.min(tile, columns - c0);
+                int idx = r * columns + c0;
+                for (int s = 0; s < slices; s++) {
+                    double[] chunk = elements[s];
+                    for (int j = 0; j < width; j++) {
+                        buffer[j * slices + s] = chunk[idx + j];
+                    }
+                }
+                for (int j = 0; j < width; j++) {
+                    if (inverse) {
+                        dctSlices.inverse(buffer, j * slices, scale);
+                    } else {
+                        dctSlices.forward(buffer, j * slices, scale);
+                    }
+                }
+                for (int s = 0; s < slices; s++) {
+                    double[] chunk = elements[s];
+                    for (int j = 0; j < width; j++) {
+                        chunk[idx + j] = buffer[j * slices + s];
+                    }
+                }
+            }
+        }
+    }
+
+    private DenseLargeDComplexMatrix3D fft3(final boolean inverse, final boolean scale) {
+        if (fftColumns == null) {
+            fftSlices = new DoubleFFT_1D(slices);
+            fftRows = new DoubleFFT_1D(rows);
+            fftColumns = new DoubleFFT_1D(columns);
+        }
+        DenseLargeDComplexMatrix3D C = new DenseLargeDComplexMatrix3D(slices, rows, columns);
+        final double[][][] cElems = C.elements();
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_2Threads(Integer.MAX_VALUE);
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_4Threads(Integer.MAX_VALUE);
+            // slabs of slices: columns and rows
+            int nthr = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthr];
+            int k = slices / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthr - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        fftColumnsAndRows(cElems, firstSlice, lastSlice, inverse, scale);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            // slabs of rows: slices
+            nthr = Math.min(nthreads, rows);
+            futures = new Future[nthr];
+            k = rows / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthr - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        fftSlices(cElems, firstRow, lastRow, inverse, scale);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            ConcurrencyUtils.resetThreadsBeginN_FFT();
+        } else {
+            fftColumnsAndRows(cElems, 0, slices, inverse, scale);
+            fftSlices(cElems, 0, rows, inverse, scale);
+        }
+        return C;
+    }
+
+    private void fftColumnsAndRows(double[][][] cElems, int firstSlice, int lastSlice, boolean inverse,
+            boolean scale) {
+        int tile = Math.max(1, Math.min(columns, TILE_SIZE / (2 * rows)));
+        double[] buffer = new double[2 * tile * rows];
+        for (int s = firstSlice; s < lastSlice; s++) {
+            double[] chunk = elements[s];
+            double[][] cSlice = cElems[s];
+            for (int r = 0; r < rows; r++) {
+                System.arraycopy(chunk, r * columns, cSlice[r], 0, columns);
+                if (inverse) {
+                    fftColumns.realInverseFull(cSlice[r], scale);
+                } else {
+                    fftColumns.realForwardFull(cSlice[r]);
+                }
+            }
+            for (int c0 = 0; c0 < columns; c0 += tile) {
+                int width = Math.min(tile, columns - c0);
+                for (int r = 0; r < rows; r++) {
+                    double[] cRow = cSlice[r];
+                    for (int j = 0; j < width; j++) {
+                        buffer[2 * (j * rows + r)] = cRow[2 * (c0 + j)];
+                        buffer[2 * (j * rows + r) + 1] = cRow[2 * (c0 + j) + 1];
+                    }
+                }
+                for (int j = 0; j < width; j++) {
+                    if (inverse) {
+                        fftRows.complexInverse(buffer, 2 * j * rows, scale);
+                    } else {
+                        fftRows.complexForward(buffer, 2 * j * rows);
+                    }
+                }
+                for (int r = 0; r < rows; r++) {
+                    double[] cRow = cSlice[r];
+                    for (int j = 0; j < width; j++) {
+                        cRow[2 * (c0 + j)] = buffer[2 * (j * rows + r)];
+                        cRow[2 * (c0 + j) + 1] = buffer[2 * (j * rows + r) + 1];
+                    }
+                }
+            }
+        }
+    }
+
+    private void fftSlices(double[][][] cElems, int firstRow, int lastRow, boolean inverse, boolean scale) {
+        int tile = Math.max(1, Math.min(columns, TILE_SIZE / (2 * slices)));
+        double[] buffer = new double[2 * tile * slices];
+        for (int r = firstRow; r < lastRow; r++) {
+            for (int c0 = 0; c0 < columns; c0 += tile) {
+                int width = Math.min(tile, columns - c0);
+                for (int s = 0; s < slices; s++) {
+                    double[] cRow = cElems[s][r];
+                    for (int j = 0; j < width; j++) {
+                        buffer[2 * (j * slices + s)] = cRow[2 * (c0 + j)];
+                        buffer[2 * (j * slices + s) + 1] = cRow[2 * (c0 + j) + 1];
+                    }
+                }
+                for (int j = 0; j < width; j++) {
+                    if (inverse) {
+                        fftSlices.complexInverse(buffer, 2 * j * slices, scale);
+                    } else {
+                        fftSlices.complexForward(buffer, 2 * j * slices);
+                    }
+                }
+                for (int s = 0; s < slices; s++) {
+                    double[] cRow = cElems[s][r];
+                    for (int j = 0; j < width; j++) {
+                        cRow[2 * (c0 + j)] = buffer[2 * (j * slices + s)];
+                        cRow[2 * (c0 + j) + 1] = buffer[2 * (j * slices + s) + 1];
+                    }
+                }
+            }
+        }
+    }
+
+}
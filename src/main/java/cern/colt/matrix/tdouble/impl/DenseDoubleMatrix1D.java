@@ -8,11 +8,13 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tdouble.impl;
 
+import java.util.Spliterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.list.tdouble.DoubleArraySpliterator;
 import cern.colt.list.tint.IntArrayList;
 import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix1D;
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
@@ -1200,6 +1202,18 @@ public class DenseDoubleMatrix1D extends DoubleMatrix1D {
         ConcurrencyUtils.setNumberOfThreads(oldNthreads);
     }
 
+    /**
+     * Returns a spliterator over the cells of the receiver, in index order,
+     * traversing the backing array with the offset and stride of the
+     * receiver. Splits of contiguous views are aligned to cache lines of the
+     * backing array.
+     * 
+     * @return a spliterator over the cells of the receiver.
+     */
+    public Spliterator.OfDouble spliterator() {
+        return new DoubleArraySpliterator(elements, zero, stride, 0, size);
+    }
+
     /**
      * Computes the inverse of the discrete Fourier transform (DFT) of this
      * matrix. The physical layout of the input data has to be as follows:
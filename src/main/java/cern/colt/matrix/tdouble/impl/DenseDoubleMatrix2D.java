@@ -16,14 +16,17 @@ import java.util.concurrent.Future;
 import org.jtransforms.dct.DoubleDCT_2D;
 import org.jtransforms.dht.DoubleDHT_2D;
 import org.jtransforms.dst.DoubleDST_2D;
+import org.jtransforms.fft.DoubleFFT_1D;
 import org.jtransforms.fft.DoubleFFT_2D;
 
 import cern.colt.list.tdouble.DoubleArrayList;
 import cern.colt.list.tint.IntArrayList;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.io.MatrixInfo;
 import cern.colt.matrix.io.MatrixSize;
 import cern.colt.matrix.io.MatrixVectorReader;
 import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.impl.DenseHalfSpectrumDComplexMatrix2D;
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
 import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
@@ -1674,6 +1677,69 @@ public class DenseDoubleMatrix2D extends DoubleMatrix2D {
         return C;
     }
 
+    /**
+     * Returns new complex matrix which is the non-redundant half of the 2D
+     * discrete Fourier transform (DFT) of this matrix. The result has
+     * <tt>rows</tt> rows and <tt>columns / 2 + 1</tt> columns; the remaining
+     * columns of the full spectrum (see {@link #getFft2()}) follow from the
+     * Hermitian symmetry. The transform is computed with real transforms of
+     * the rows followed by complex transforms of the stored columns, so the
+     * full spectrum is never formed.
+     * 
+     * @return the half spectrum of the 2D discrete Fourier transform (DFT) of
+     *         this matrix.
+     * @see DenseHalfSpectrumDComplexMatrix2D#getIfft2(boolean)
+     */
+    public DenseHalfSpectrumDComplexMatrix2D getHalfSpectrumFft2() {
+        int oldNthreads = ConcurrencyUtils.getNumberOfThreads();
+        ConcurrencyUtils.setNumberOfThreads(ConcurrencyUtils.nextPow2(oldNthreads));
+        final DenseHalfSpectrumDComplexMatrix2D C = new DenseHalfSpectrumDComplexMatrix2D(rows, columns);
+        final double[] elementsC = C.elements();
+        final int columnsC = C.columns();
+        final DoubleFFT_1D fftRows = new DoubleFFT_1D(columns);
+        final DoubleFFT_1D fftColumns = new DoubleFFT_1D(rows);
+        final int zero = (int) index(0, 0);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_2Threads(Integer.MAX_VALUE);
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_4Threads(Integer.MAX_VALUE);
+            int nthr = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthr];
+            int k = rows / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthr - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+
+                    public void run() {
+                        halfSpectrumFftRows(fftRows, zero, elementsC, columnsC, firstRow, lastRow);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            nthr = Math.min(nthreads, columnsC);
+            futures = new Future[nthr];
+            k = columnsC / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstColumn = j * k;
+                final int lastColumn = (j == nthr - 1) ? columnsC : firstColumn + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+
+                    public void run() {
+                        halfSpectrumFftColumns(fftColumns, elementsC, columnsC, firstColumn, lastColumn);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            ConcurrencyUtils.resetThreadsBeginN_FFT();
+        } else {
+            halfSpectrumFftRows(fftRows, zero, elementsC, columnsC, 0, rows);
+            halfSpectrumFftColumns(fftColumns, elementsC, columnsC, 0, columnsC);
+        }
+        ConcurrencyUtils.setNumberOfThreads(oldNthreads);
+        return C;
+    }
+
     /**
      * Returns new complex matrix which is the discrete Fourier transform (DFT)
      * of each column of this matrix.
@@ -2563,6 +2629,11 @@ public class DenseDoubleMatrix2D extends DoubleMatrix2D {
     }
 
     public void zAssign8Neighbors(DoubleMatrix2D B, cern.colt.function.tdouble.Double9Function function) {
+        zAssign8Neighbors(B, function, Boundary.Skip, 0);
+    }
+
+    public void zAssign8Neighbors(DoubleMatrix2D B, final cern.colt.function.tdouble.Double9Function function,
+            final Boundary boundary, final double constant) {
         // 1. using only 4-5 out of the 9 cells in "function" is *not* the
         // limiting factor for performance.
 
@@ -2571,74 +2642,116 @@ public class DenseDoubleMatrix2D extends DoubleMatrix2D {
         // but then the multi-purpose interface is gone...
 
         if (!(B instanceof DenseDoubleMatrix2D)) {
-            super.zAssign8Neighbors(B, function);
+            super.zAssign8Neighbors(B, function, boundary, constant);
             return;
         }
         if (function == null)
             throw new NullPointerException("function must not be null.");
+        if (boundary == null)
+            throw new NullPointerException("boundary must not be null.");
         checkShape(B);
+        final DenseDoubleMatrix2D BB = (DenseDoubleMatrix2D) B;
+        if (this.elements == null || BB.elements == null)
+            throw new InternalError();
+
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthreads];
+            int k = rows / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthreads - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        zAssign8NeighborsRows(BB, function, boundary, constant, firstRow, lastRow);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            zAssign8NeighborsRows(BB, function, boundary, constant, 0, rows);
+        }
+    }
+
+    private void zAssign8NeighborsRows(DenseDoubleMatrix2D BB, cern.colt.function.tdouble.Double9Function function,
+            Boundary boundary, double constant, int firstRow, int lastRow) {
         int r = rows - 1;
         int c = columns - 1;
-        if (rows < 3 || columns < 3)
-            return; // nothing to do
-
-        DenseDoubleMatrix2D BB = (DenseDoubleMatrix2D) B;
         int A_rs = rowStride;
         int B_rs = BB.rowStride;
         int A_cs = columnStride;
         int B_cs = BB.columnStride;
         double[] elems = this.elements;
         double[] B_elems = BB.elements;
-        if (elems == null || B_elems == null)
-            throw new InternalError();
-
-        int A_index = (int) index(1, 1);
-        int B_index = (int) BB.index(1, 1);
-        for (int i = 1; i < r; i++) {
-            double a00, a01, a02;
-            double a10, a11, a12;
-            double a20, a21, a22;
 
-            int B11 = B_index;
-
-            int A02 = A_index - A_rs - A_cs;
-            int A12 = A02 + A_rs;
-            int A22 = A12 + A_rs;
-
-            // in each step six cells can be remembered in registers - they
-            // don't need to be reread from slow memory
-            a00 = elems[A02];
-            A02 += A_cs;
-            a01 = elems[A02]; // A02+=A_cs;
-            a10 = elems[A12];
-            A12 += A_cs;
-            a11 = elems[A12]; // A12+=A_cs;
-            a20 = elems[A22];
-            A22 += A_cs;
-            a21 = elems[A22]; // A22+=A_cs;
-
-            for (int j = 1; j < c; j++) {
-                // in each step 3 instead of 9 cells need to be read from
-                // memory.
-                a02 = elems[A02 += A_cs];
-                a12 = elems[A12 += A_cs];
-                a22 = elems[A22 += A_cs];
-
-                B_elems[B11] = function.apply(a00, a01, a02, a10, a11, a12, a20, a21, a22);
-                B11 += B_cs;
-
-                // move remembered cells
-                a00 = a01;
-                a01 = a02;
-                a10 = a11;
-                a11 = a12;
-                a20 = a21;
-                a21 = a22;
+        // interior cells
+        int startRow = Math.max(firstRow, 1);
+        int endRow = Math.min(lastRow, r);
+        if (columns >= 3 && startRow < endRow) {
+            int A_index = (int) index(startRow, 1);
+            int B_index = (int) BB.index(startRow, 1);
+            for (int i = startRow; i < endRow; i++) {
+                double a00, a01, a02;
+                double a10, a11, a12;
+                double a20, a21, a22;
+
+                int B11 = B_index;
+
+                int A02 = A_index - A_rs - A_cs;
+                int A12 = A02 + A_rs;
+                int A22 = A12 + A_rs;
+
+                // in each step six cells can be remembered in registers - they
+                // don't need to be reread from slow memory
+                a00 = elems[A02];
+                A02 += A_cs;
+                a01 = elems[A02]; // A02+=A_cs;
+                a10 = elems[A12];
+                A12 += A_cs;
+                a11 = elems[A12]; // A12+=A_cs;
+                a20 = elems[A22];
+                A22 += A_cs;
+                a21 = elems[A22]; // A22+=A_cs;
+
+                for (int j = 1; j < c; j++) {
+                    // in each step 3 instead of 9 cells need to be read from
+                    // memory.
+                    a02 = elems[A02 += A_cs];
+                    a12 = elems[A12 += A_cs];
+                    a22 = elems[A22 += A_cs];
+
+                    B_elems[B11] = function.apply(a00, a01, a02, a10, a11, a12, a20, a21, a22);
+                    B11 += B_cs;
+
+                    // move remembered cells
+                    a00 = a01;
+                    a01 = a02;
+                    a10 = a11;
+                    a11 = a12;
+                    a20 = a21;
+                    a21 = a22;
+                }
+                A_index += A_rs;
+                B_index += B_rs;
             }
-            A_index += A_rs;
-            B_index += B_rs;
         }
 
+        // border cells
+        if (boundary == Boundary.Skip)
+            return;
+        for (int i = firstRow; i < lastRow; i++) {
+            if (i == 0 || i == r || columns < 3) {
+                int B_idx = (int) BB.index(i, 0);
+                for (int j = 0; j < columns; j++) {
+                    B_elems[B_idx] = apply8Neighbors(i, j, function, boundary, constant);
+                    B_idx += B_cs;
+                }
+            } else {
+                B_elems[(int) BB.index(i, 0)] = apply8Neighbors(i, 0, function, boundary, constant);
+                B_elems[(int) BB.index(i, c)] = apply8Neighbors(i, c, function, boundary, constant);
+            }
+        }
     }
 
     public DoubleMatrix1D zMult(final DoubleMatrix1D y, DoubleMatrix1D z, final double alpha, final double beta,
@@ -2962,6 +3075,70 @@ public class DenseDoubleMatrix2D extends DoubleMatrix2D {
         return C;
     }
 
+    private void halfSpectrumFftRows(DoubleFFT_1D fft, int zero, double[] elementsC, int columnsC, int firstRow,
+            int lastRow) {
+        double[] buffer = new double[columns];
+        for (int r = firstRow; r < lastRow; r++) {
+            int idx = zero + r * rowStride;
+            for (int c = 0; c < columns; c++) {
+                buffer[c] = elements[idx];
+                idx += columnStride;
+            }
+            fft.realForward(buffer);
+            unpackRealForward(buffer, columns, elementsC, 2 * r * columnsC);
+        }
+    }
+
+    private void halfSpectrumFftColumns(DoubleFFT_1D fft, double[] elementsC, int columnsC, int firstColumn,
+            int lastColumn) {
+        double[] buffer = new double[2 * rows];
+        int rowStrideC = 2 * columnsC;
+        for (int c = firstColumn; c < lastColumn; c++) {
+            int idx = 2 * c;
+            for (int r = 0; r < rows; r++) {
+                buffer[2 * r] = elementsC[idx];
+                buffer[2 * r + 1] = elementsC[idx + 1];
+                idx += rowStrideC;
+            }
+            fft.complexForward(buffer);
+            idx = 2 * c;
+            for (int r = 0; r < rows; r++) {
+                elementsC[idx] = buffer[2 * r];
+                elementsC[idx + 1] = buffer[2 * r + 1];
+                idx += rowStrideC;
+            }
+        }
+    }
+
+    /**
+     * Unpacks the result of <tt>DoubleFFT_1D.realForward</tt> into
+     * <tt>n / 2 + 1</tt> interleaved complex values.
+     */
+    static void unpackRealForward(double[] src, int n, double[] dst, int dstOffset) {
+        dst[dstOffset] = src[0];
+        dst[dstOffset + 1] = 0;
+        if (n == 1) {
+            return;
+        }
+        if (n % 2 == 0) {
+            int h = n / 2;
+            for (int k = 1; k < h; k++) {
+                dst[dstOffset + 2 * k] = src[2 * k];
+                dst[dstOffset + 2 * k + 1] = src[2 * k + 1];
+            }
+            dst[dstOffset + 2 * h] = src[1];
+            dst[dstOffset + 2 * h + 1] = 0;
+        } else {
+            int h = (n - 1) / 2;
+            for (int k = 1; k < h; k++) {
+                dst[dstOffset + 2 * k] = src[2 * k];
+                dst[dstOffset + 2 * k + 1] = src[2 * k + 1];
+            }
+            dst[dstOffset + 2 * h] = src[n - 1];
+            dst[dstOffset + 2 * h + 1] = src[1];
+        }
+    }
+
     protected boolean haveSharedCellsRaw(DoubleMatrix2D other) {
         if (other instanceof SelectedDenseDoubleMatrix2D) {
             SelectedDenseDoubleMatrix2D otherMatrix = (SelectedDenseDoubleMatrix2D) other;
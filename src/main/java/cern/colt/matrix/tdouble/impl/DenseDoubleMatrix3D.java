@@ -15,11 +15,14 @@ import java.util.concurrent.Future;
 import org.jtransforms.dct.DoubleDCT_3D;
 import org.jtransforms.dht.DoubleDHT_3D;
 import org.jtransforms.dst.DoubleDST_3D;
+import org.jtransforms.fft.DoubleFFT_1D;
 import org.jtransforms.fft.DoubleFFT_3D;
 
 import cern.colt.list.tdouble.DoubleArrayList;
 import cern.colt.list.tint.IntArrayList;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix3D;
+import cern.colt.matrix.tdcomplex.impl.DenseHalfSpectrumDComplexMatrix3D;
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
 import cern.colt.matrix.tdouble.DoubleMatrix3D;
@@ -1371,6 +1374,68 @@ public class DenseDoubleMatrix3D extends DoubleMatrix3D {
         return C;
     }
 
+    /**
+     * Returns new complex matrix which is the non-redundant half of the 3D
+     * discrete Fourier transform (DFT) of this matrix. The result has
+     * <tt>columns / 2 + 1</tt> columns; the remaining columns of the full
+     * spectrum (see {@link #getFft3()}) follow from the Hermitian symmetry.
+     * The transform is computed with real transforms of the rows followed by
+     * complex transforms along the rows and slices of the stored columns, so
+     * the full spectrum is never formed.
+     * 
+     * @return the half spectrum of the 3D discrete Fourier transform (DFT) of
+     *         this matrix.
+     * @see DenseHalfSpectrumDComplexMatrix3D#getIfft3(boolean)
+     */
+    public DenseHalfSpectrumDComplexMatrix3D getHalfSpectrumFft3() {
+        int oldNthreads = ConcurrencyUtils.getNumberOfThreads();
+        ConcurrencyUtils.setNumberOfThreads(ConcurrencyUtils.nextPow2(oldNthreads));
+        final DenseHalfSpectrumDComplexMatrix3D C = new DenseHalfSpectrumDComplexMatrix3D(slices, rows, columns);
+        final double[] elementsC = C.elements();
+        final int columnsC = C.columns();
+        final DoubleFFT_1D fftRows = new DoubleFFT_1D(columns);
+        final DoubleFFT_1D fftColumns = new DoubleFFT_1D(rows);
+        final DoubleFFT_1D fftSlices = new DoubleFFT_1D(slices);
+        final int zero = (int) index(0, 0, 0);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_2Threads(Integer.MAX_VALUE);
+            ConcurrencyUtils.setThreadsBeginN_1D_FFT_4Threads(Integer.MAX_VALUE);
+            int nthr = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthr];
+            int k = slices / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthr - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        halfSpectrumFftRows(fftRows, fftColumns, zero, elementsC, columnsC, firstSlice, lastSlice);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            nthr = Math.min(nthreads, rows);
+            futures = new Future[nthr];
+            k = rows / nthr;
+            for (int j = 0; j < nthr; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthr - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        halfSpectrumFftSlices(fftSlices, elementsC, columnsC, firstRow, lastRow);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            ConcurrencyUtils.resetThreadsBeginN_FFT();
+        } else {
+            halfSpectrumFftRows(fftRows, fftColumns, zero, elementsC, columnsC, 0, slices);
+            halfSpectrumFftSlices(fftSlices, elementsC, columnsC, 0, rows);
+        }
+        ConcurrencyUtils.setNumberOfThreads(oldNthreads);
+        return C;
+    }
+
     /**
      * Returns new complex matrix which is the 2D inverse of the discrete
      * Fourier transform (IDFT) of each slice of this matrix.
@@ -2053,20 +2118,50 @@ public class DenseDoubleMatrix3D extends DoubleMatrix3D {
     }
 
     public void zAssign27Neighbors(DoubleMatrix3D B, cern.colt.function.tdouble.Double27Function function) {
+        zAssign27Neighbors(B, function, Boundary.Skip, 0);
+    }
+
+    public void zAssign27Neighbors(DoubleMatrix3D B, final cern.colt.function.tdouble.Double27Function function,
+            final Boundary boundary, final double constant) {
         // overridden for performance only
         if (!(B instanceof DenseDoubleMatrix3D)) {
-            super.zAssign27Neighbors(B, function);
+            super.zAssign27Neighbors(B, function, boundary, constant);
             return;
         }
         if (function == null)
             throw new NullPointerException("function must not be null.");
+        if (boundary == null)
+            throw new NullPointerException("boundary must not be null.");
         checkShape(B);
+        final DenseDoubleMatrix3D BB = (DenseDoubleMatrix3D) B;
+        if (this.elements == null || BB.elements == null)
+            throw new InternalError();
+
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        zAssign27NeighborsSlices(BB, function, boundary, constant, firstSlice, lastSlice);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            zAssign27NeighborsSlices(BB, function, boundary, constant, 0, slices);
+        }
+    }
+
+    private void zAssign27NeighborsSlices(DenseDoubleMatrix3D BB,
+            cern.colt.function.tdouble.Double27Function function, Boundary boundary, double constant,
+            int firstSlice, int lastSlice) {
         int r = rows - 1;
         int c = columns - 1;
-        if (rows < 3 || columns < 3 || slices < 3)
-            return; // nothing to do
-
-        DenseDoubleMatrix3D BB = (DenseDoubleMatrix3D) B;
         int A_ss = sliceStride;
         int A_rs = rowStride;
         int B_rs = BB.rowStride;
@@ -2074,118 +2169,324 @@ public class DenseDoubleMatrix3D extends DoubleMatrix3D {
         int B_cs = BB.columnStride;
         double[] elems = this.elements;
         double[] B_elems = BB.elements;
-        if (elems == null || B_elems == null)
-            throw new InternalError();
 
-        for (int k = 1; k < slices - 1; k++) {
-            int A_index = (int) index(k, 1, 1);
-            int B_index = (int) BB.index(k, 1, 1);
-
-            for (int i = 1; i < r; i++) {
-                int A002 = A_index - A_ss - A_rs - A_cs;
-                int A012 = A002 + A_rs;
-                int A022 = A012 + A_rs;
-
-                int A102 = A002 + A_ss;
-                int A112 = A102 + A_rs;
-                int A122 = A112 + A_rs;
-
-                int A202 = A102 + A_ss;
-                int A212 = A202 + A_rs;
-                int A222 = A212 + A_rs;
-
-                double a000, a001, a002;
-                double a010, a011, a012;
-                double a020, a021, a022;
-
-                double a100, a101, a102;
-                double a110, a111, a112;
-                double a120, a121, a122;
-
-                double a200, a201, a202;
-                double a210, a211, a212;
-                double a220, a221, a222;
-
-                a000 = elems[A002];
-                A002 += A_cs;
-                a001 = elems[A002];
-                a010 = elems[A012];
-                A012 += A_cs;
-                a011 = elems[A012];
-                a020 = elems[A022];
-                A022 += A_cs;
-                a021 = elems[A022];
-
-                a100 = elems[A102];
-                A102 += A_cs;
-                a101 = elems[A102];
-                a110 = elems[A112];
-                A112 += A_cs;
-                a111 = elems[A112];
-                a120 = elems[A122];
-                A122 += A_cs;
-                a121 = elems[A122];
-
-                a200 = elems[A202];
-                A202 += A_cs;
-                a201 = elems[A202];
-                a210 = elems[A212];
-                A212 += A_cs;
-                a211 = elems[A212];
-                a220 = elems[A222];
-                A222 += A_cs;
-                a221 = elems[A222];
-
-                int B11 = B_index;
-                for (int j = 1; j < c; j++) {
-                    // in each step 18 cells can be remembered in registers -
-                    // they don't need to be reread from slow memory
-                    // in each step 9 instead of 27 cells need to be read from
-                    // memory.
-                    a002 = elems[A002 += A_cs];
-                    a012 = elems[A012 += A_cs];
-                    a022 = elems[A022 += A_cs];
-
-                    a102 = elems[A102 += A_cs];
-                    a112 = elems[A112 += A_cs];
-                    a122 = elems[A122 += A_cs];
-
-                    a202 = elems[A202 += A_cs];
-                    a212 = elems[A212 += A_cs];
-                    a222 = elems[A222 += A_cs];
-
-                    B_elems[B11] = function.apply(a000, a001, a002, a010, a011, a012, a020, a021, a022,
-
-                    a100, a101, a102, a110, a111, a112, a120, a121, a122,
-
-                    a200, a201, a202, a210, a211, a212, a220, a221, a222);
-                    B11 += B_cs;
-
-                    // move remembered cells
-                    a000 = a001;
-                    a001 = a002;
-                    a010 = a011;
-                    a011 = a012;
-                    a020 = a021;
-                    a021 = a022;
-
-                    a100 = a101;
-                    a101 = a102;
-                    a110 = a111;
-                    a111 = a112;
-                    a120 = a121;
-                    a121 = a122;
-
-                    a200 = a201;
-                    a201 = a202;
-                    a210 = a211;
-                    a211 = a212;
-                    a220 = a221;
-                    a221 = a222;
+        // interior cells
+        int startSlice = Math.max(firstSlice, 1);
+        int endSlice = Math.min(lastSlice, slices - 1);
+        if (rows >= 3 && columns >= 3) {
+            for (int k = startSlice; k < endSlice; k++) {
+                int A_index = (int) index(k, 1, 1);
+                int B_index = (int) BB.index(k, 1, 1);
+
+                for (int i = 1; i < r; i++) {
+                    int A002 = A_index - A_ss - A_rs - A_cs;
+                    int A012 = A002 + A_rs;
+                    int A022 = A012 + A_rs;
+
+                    int A102 = A002 + A_ss;
+                    int A112 = A102 + A_rs;
+                    int A122 = A112 + A_rs;
+
+                    int A202 = A102 + A_ss;
+                    int A212 = A202 + A_rs;
+                    int A222 = A212 + A_rs;
+
+                    double a000, a001, a002;
+                    double a010, a011, a012;
+                    double a020, a021, a022;
+
+                    double a100, a101, a102;
+                    double a110, a111, a112;
+                    double a120, a121, a122;
+
+                    double a200, a201, a202;
+                    double a210, a211, a212;
+                    double a220, a221, a222;
+
+                    a000 = elems[A002];
+                    A002 += A_cs;
+                    a001 = elems[A002];
+                    a010 = elems[A012];
+                    A012 += A_cs;
+                    a011 = elems[A012];
+                    a020 = elems[A022];
+                    A022 += A_cs;
+                    a021 = elems[A022];
+
+                    a100 = elems[A102];
+                    A102 += A_cs;
+                    a101 = elems[A102];
+                    a110 = elems[A112];
+                    A112 += A_cs;
+                    a111 = elems[A112];
+                    a120 = elems[A122];
+                    A122 += A_cs;
+                    a121 = elems[A122];
+
+                    a200 = elems[A202];
+                    A202 += A_cs;
+                    a201 = elems[A202];
+                    a210 = elems[A212];
+                    A212 += A_cs;
+                    a211 = elems[A212];
+                    a220 = elems[A222];
+                    A222 += A_cs;
+                    a221 = elems[A222];
+
+                    int B11 = B_index;
+                    for (int j = 1; j < c; j++) {
+                        // in each step 18 cells can be remembered in registers -
+                        // they don't need to be reread from slow memory
+                        // in each step 9 instead of 27 cells need to be read from
+                        // memory.
+                        a002 = elems[A002 += A_cs];
+                        a012 = elems[A012 += A_cs];
+                        a022 = elems[A022 += A_cs];
+
+                        a102 = elems[A102 += A_cs];
+                        a112 = elems[A112 += A_cs];
+                        a122 = elems[A122 += A_cs];
+
+                        a202 = elems[A202 += A_cs];
+                        a212 = elems[A212 += A_cs];
+                        a222 = elems[A222 += A_cs];
+
+                        B_elems[B11] = function.apply(a000, a001, a002, a010, a011, a012, a020, a021, a022,
+
+                        a100, a101, a102, a110, a111, a112, a120, a121, a122,
+
+                        a200, a201, a202, a210, a211, a212, a220, a221, a222);
+                        B11 += B_cs;
+
+                        // move remembered cells
+                        a000 = a001;
+                        a001 = a002;
+                        a010 = a011;
+                        a011 = a012;
+                        a020 = a021;
+                        a021 = a022;
+
+                        a100 = a101;
+                        a101 = a102;
+                        a110 = a111;
+                        a111 = a112;
+                        a120 = a121;
+                        a121 = a122;
+
+                        a200 = a201;
+                        a201 = a202;
+                        a210 = a211;
+                        a211 = a212;
+                        a220 = a221;
+                        a221 = a222;
+                    }
+                    A_index += A_rs;
+                    B_index += B_rs;
+                }
+            }
+        }
+
+        // border cells
+        if (boundary == Boundary.Skip)
+            return;
+        for (int k = firstSlice; k < lastSlice; k++) {
+            for (int i = 0; i < rows; i++) {
+                if (k == 0 || k == slices - 1 || i == 0 || i == r || columns < 3) {
+                    int B_idx = (int) BB.index(k, i, 0);
+                    for (int j = 0; j < columns; j++) {
+                        B_elems[B_idx] = apply27Neighbors(k, i, j, function, boundary, constant);
+                        B_idx += B_cs;
+                    }
+                } else {
+                    B_elems[(int) BB.index(k, i, 0)] = apply27Neighbors(k, i, 0, function, boundary, constant);
+                    B_elems[(int) BB.index(k, i, c)] = apply27Neighbors(k, i, c, function, boundary, constant);
+                }
+            }
+        }
+    }
+
+    /*
+     * Real transforms of the rows and complex transforms along the rows of the
+     * half spectrum, slice by slice.
+     */
+    private void halfSpectrumFftRows(DoubleFFT_1D fftRows, DoubleFFT_1D fftColumns, int zero, double[] elementsC,
+            int columnsC, int firstSlice, int lastSlice) {
+        double[] buffer = new double[Math.max(columns, 2 * rows)];
+        int rowStrideC = 2 * columnsC;
+        int sliceStrideC = rows * rowStrideC;
+        for (int s = firstSlice; s < lastSlice; s++) {
+            for (int r = 0; r < rows; r++) {
+                int idx = zero + s * sliceStride + r * rowStride;
+                for (int c = 0; c < columns; c++) {
+                    buffer[c] = elements[idx];
+                    idx += columnStride;
+                }
+                fftRows.realForward(buffer);
+                DenseDoubleMatrix2D.unpackRealForward(buffer, columns, elementsC, s * sliceStrideC + r * rowStrideC);
+            }
+            for (int c = 0; c < columnsC; c++) {
+                int idx = s * sliceStrideC + 2 * c;
+                for (int r = 0; r < rows; r++) {
+                    buffer[2 * r] = elementsC[idx];
+                    buffer[2 * r + 1] = elementsC[idx + 1];
+                    idx += rowStrideC;
+                }
+                fftColumns.complexForward(buffer);
+                idx = s * sliceStrideC + 2 * c;
+                for (int r = 0; r < rows; r++) {
+                    elementsC[idx] = buffer[2 * r];
+                    elementsC[idx + 1] = buffer[2 * r + 1];
+                    idx += rowStrideC;
+                }
+            }
+        }
+    }
+
+    private void halfSpectrumFftSlices(DoubleFFT_1D fft, double[] elementsC, int columnsC, int firstRow, int lastRow) {
+        double[] buffer = new double[2 * slices];
+        int rowStrideC = 2 * columnsC;
+        int sliceStrideC = rows * rowStrideC;
+        for (int r = firstRow; r < lastRow; r++) {
+            for (int c = 0; c < columnsC; c++) {
+                int idx = r * rowStrideC + 2 * c;
+                for (int s = 0; s < slices; s++) {
+                    buffer[2 * s] = elementsC[idx];
+                    buffer[2 * s + 1] = elementsC[idx + 1];
+                    idx += sliceStrideC;
+                }
+                fft.complexForward(buffer);
+                idx = r * rowStrideC + 2 * c;
+                for (int s = 0; s < slices; s++) {
+                    elementsC[idx] = buffer[2 * s];
+                    elementsC[idx + 1] = buffer[2 * s + 1];
+                    idx += sliceStrideC;
+                }
+            }
+        }
+    }
+
+    public DoubleMatrix3D zMult(DoubleMatrix2D B, DoubleMatrix3D C, double alpha, double beta, boolean transposeA,
+            boolean transposeB) {
+        if (!(B instanceof DenseDoubleMatrix2D) || (C != null && !(C instanceof DenseDoubleMatrix3D)))
+            return super.zMult(B, C, alpha, beta, transposeA, transposeB);
+        int m = transposeA ? columns : rows;
+        int n = transposeA ? rows : columns;
+        int p = transposeB ? B.rows() : B.columns();
+        if (C == null) {
+            C = new DenseDoubleMatrix3D(slices, m, p);
+        }
+        checkMult(n, transposeB ? B.columns() : B.rows(), C, m, p, B.toStringShort());
+        DenseDoubleMatrix2D BB = (DenseDoubleMatrix2D) B;
+        int rowStrideB = transposeB ? BB.columnStride() : BB.rowStride();
+        int columnStrideB = transposeB ? BB.rowStride() : BB.columnStride();
+        zMultSlices(B, BB.elements, (int) BB.index(0, 0), 0, rowStrideB, columnStrideB, (DenseDoubleMatrix3D) C,
+                m, n, p, alpha, beta, transposeA, transposeB);
+        return C;
+    }
+
+    public DoubleMatrix3D zMult(DoubleMatrix3D B, DoubleMatrix3D C, double alpha, double beta, boolean transposeA,
+            boolean transposeB) {
+        if (!(B instanceof DenseDoubleMatrix3D) || (C != null && !(C instanceof DenseDoubleMatrix3D)))
+            return super.zMult(B, C, alpha, beta, transposeA, transposeB);
+        int m = transposeA ? columns : rows;
+        int n = transposeA ? rows : columns;
+        int p = transposeB ? B.rows() : B.columns();
+        if (B.slices() != slices)
+            throw new IllegalArgumentException("Incompatible number of slices: " + toStringShort() + ", "
+                    + B.toStringShort());
+        if (C == null) {
+            C = new DenseDoubleMatrix3D(slices, m, p);
+        }
+        checkMult(n, transposeB ? B.columns() : B.rows(), C, m, p, B.toStringShort());
+        if (B == C)
+            throw new IllegalArgumentException("Matrices must not be identical");
+        DenseDoubleMatrix3D BB = (DenseDoubleMatrix3D) B;
+        int rowStrideB = transposeB ? BB.columnStride : BB.rowStride;
+        int columnStrideB = transposeB ? BB.rowStride : BB.columnStride;
+        zMultSlices(B, BB.elements, (int) BB.index(0, 0, 0), BB.sliceStride, rowStrideB, columnStrideB,
+                (DenseDoubleMatrix3D) C, m, n, p, alpha, beta, transposeA, transposeB);
+        return C;
+    }
+
+    /**
+     * Computes <tt>C[s] = alpha * op(A[s]) x op(B[s]) + beta*C[s]</tt> for all
+     * slices. Small products are distributed over the threads slice by slice;
+     * large products are computed one slice after another, each of them by
+     * the parallel 2D multiplication.
+     */
+    private void zMultSlices(final Object B, final double[] elementsB, final int zeroB, final int sliceStrideB,
+            final int rowStrideB, final int columnStrideB, final DenseDoubleMatrix3D C, final int m, final int n,
+            final int p, final double alpha, final double beta, final boolean transposeA, boolean transposeB) {
+        long flops = 2L * m * n * p;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if (nthreads > 1 && flops >= 30000L * nthreads) {
+            // each slice is large enough to keep all threads busy
+            for (int s = 0; s < slices; s++) {
+                DoubleMatrix2D BB = B instanceof DoubleMatrix3D ? ((DoubleMatrix3D) B).viewSlice(s)
+                        : (DoubleMatrix2D) B;
+                viewSlice(s).zMult(BB, C.viewSlice(s), alpha, beta, transposeA, transposeB);
+            }
+            return;
+        }
+        final int rowStrideA = transposeA ? columnStride : rowStride;
+        final int columnStrideA = transposeA ? rowStride : columnStride;
+        if ((nthreads > 1) && (slices > 1) && (flops * slices >= 60000L)) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int s = firstSlice; s < lastSlice; s++) {
+                            zMultKernel(m, n, p, alpha, beta, elements, (int) index(s, 0, 0), rowStrideA,
+                                    columnStrideA, elementsB, zeroB + s * sliceStrideB, rowStrideB, columnStrideB,
+                                    C.elements, (int) C.index(s, 0, 0), C.rowStride, C.columnStride);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int s = 0; s < slices; s++) {
+                zMultKernel(m, n, p, alpha, beta, elements, (int) index(s, 0, 0), rowStrideA, columnStrideA,
+                        elementsB, zeroB + s * sliceStrideB, rowStrideB, columnStrideB, C.elements,
+                        (int) C.index(s, 0, 0), C.rowStride, C.columnStride);
+            }
+        }
+    }
+
+    /**
+     * Sequential <tt>C = alpha * A x B + beta*C</tt> on raw storage, where
+     * <tt>A(m x n), B(n x p), C(m x p)</tt> are given by their first element
+     * and strides.
+     */
+    private static void zMultKernel(int m, int n, int p, double alpha, double beta, double[] elementsA, int zeroA,
+            int rowStrideA, int columnStrideA, double[] elementsB, int zeroB, int rowStrideB, int columnStrideB,
+            double[] elementsC, int zeroC, int rowStrideC, int columnStrideC) {
+        int idxA = zeroA;
+        int idxC = zeroC;
+        for (int r = 0; r < m; r++) {
+            if (beta != 1) {
+                for (int c = 0, i = idxC; c < p; c++) {
+                    elementsC[i] *= beta;
+                    i += columnStrideC;
+                }
+            }
+            int idxB = zeroB;
+            for (int k = 0, i = idxA; k < n; k++) {
+                double a = alpha * elementsA[i];
+                for (int c = 0, ib = idxB, ic = idxC; c < p; c++) {
+                    elementsC[ic] += a * elementsB[ib];
+                    ib += columnStrideB;
+                    ic += columnStrideC;
                 }
-                A_index += A_rs;
-                B_index += B_rs;
+                i += columnStrideA;
+                idxB += rowStrideB;
             }
+            idxA += rowStrideA;
+            idxC += rowStrideC;
         }
     }
 
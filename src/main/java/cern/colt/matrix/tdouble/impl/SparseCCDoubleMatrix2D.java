@@ -287,18 +287,24 @@ public class SparseCCDoubleMatrix2D extends WrapperDoubleMatrix2D {
 
         int nz = Math.max(rowIndexes.length, 1);
         dcs = Dcs_util.cs_spalloc(rows, columns, nz, true, false);
-        int[] w = new int[columns];
-        int[] Cp = dcs.p;
-        int[] Ci = dcs.i;
-        double[] Cx = dcs.x;
-        for (int k = 0; k < nz; k++)
-            w[columnIndexes[k]]++;
-        Dcs_cumsum.cs_cumsum(Cp, w, columns);
-        int p;
-        for (int k = 0; k < nz; k++) {
-            Ci[p = w[columnIndexes[k]]++] = rowIndexes[k];
-            if (Cx != null)
-                Cx[p] = value;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(columnIndexes, rowIndexes, nz, columns, dcs.p, dcs.i);
+            Arrays.fill(dcs.x, value);
+        } else {
+            int[] w = new int[columns];
+            int[] Cp = dcs.p;
+            int[] Ci = dcs.i;
+            double[] Cx = dcs.x;
+            for (int k = 0; k < nz; k++)
+                w[columnIndexes[k]]++;
+            Dcs_cumsum.cs_cumsum(Cp, w, columns);
+            int p;
+            for (int k = 0; k < nz; k++) {
+                Ci[p = w[columnIndexes[k]]++] = rowIndexes[k];
+                if (Cx != null)
+                    Cx[p] = value;
+            }
         }
         if (removeDuplicates) {
             if (!Dcs_dupl.cs_dupl(dcs)) { //remove duplicates
@@ -353,18 +359,24 @@ public class SparseCCDoubleMatrix2D extends WrapperDoubleMatrix2D {
         }
         int nz = Math.max(rowIndexes.length, 1);
         dcs = Dcs_util.cs_spalloc(rows, columns, nz, true, false);
-        int[] w = new int[columns];
-        int[] Cp = dcs.p;
-        int[] Ci = dcs.i;
-        double[] Cx = dcs.x;
-        for (int k = 0; k < nz; k++)
-            w[columnIndexes[k]]++;
-        Dcs_cumsum.cs_cumsum(Cp, w, columns);
-        int p;
-        for (int k = 0; k < nz; k++) {
-            Ci[p = w[columnIndexes[k]]++] = rowIndexes[k];
-            if (Cx != null)
-                Cx[p] = values[k];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(columnIndexes, rowIndexes, nz, columns, dcs.p, dcs.i);
+            scatter(dest, values, dcs.x, nz);
+        } else {
+            int[] w = new int[columns];
+            int[] Cp = dcs.p;
+            int[] Ci = dcs.i;
+            double[] Cx = dcs.x;
+            for (int k = 0; k < nz; k++)
+                w[columnIndexes[k]]++;
+            Dcs_cumsum.cs_cumsum(Cp, w, columns);
+            int p;
+            for (int k = 0; k < nz; k++) {
+                Ci[p = w[columnIndexes[k]]++] = rowIndexes[k];
+                if (Cx != null)
+                    Cx[p] = values[k];
+            }
         }
         if (removeZeroes) {
             Dcs_dropzeros.cs_dropzeros(dcs); //remove zeroes
@@ -678,20 +690,43 @@ public class SparseCCDoubleMatrix2D extends WrapperDoubleMatrix2D {
      * Sorts row indexes
      */
     public void sortRowIndexes() {
-        dcs = Dcs_transpose.cs_transpose(dcs, true);
-        dcs = Dcs_transpose.cs_transpose(dcs, true);
-        if (dcs == null) {
-            throw new IllegalArgumentException("Exception occured in cs_transpose()!");
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(dcs.p, dcs.i, columns, rows);
+            double[] valuesNew = new double[dcs.x.length];
+            scatter(dest, dcs.x, valuesNew, cardinality());
+            dcs.x = valuesNew;
+            rowIndexesSorted = true;
+        } else {
+            dcs = Dcs_transpose.cs_transpose(dcs, true);
+            dcs = Dcs_transpose.cs_transpose(dcs, true);
+            if (dcs == null) {
+                throw new IllegalArgumentException("Exception occured in cs_transpose()!");
+            }
+            rowIndexesSorted = true;
         }
-        rowIndexesSorted = true;
     }
 
     /**
      * Removes (sums) duplicate entries (if any}
      */
     public void removeDuplicates() {
-        if (!Dcs_dupl.cs_dupl(dcs)) { //remove duplicates
-            throw new IllegalArgumentException("Exception occured in cs_dupl()!");
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] target = new int[cardinality()];
+            int[] pointersNew = compressDuplicates(dcs.p, dcs.i, columns, rows, target);
+            int nz = pointersNew[columns];
+            int[] indexesNew = new int[nz];
+            double[] valuesNew = new double[nz];
+            sumDuplicates(dcs.p, dcs.i, dcs.x, columns, target, indexesNew, valuesNew);
+            dcs.p = pointersNew;
+            dcs.i = indexesNew;
+            dcs.x = valuesNew;
+            dcs.nzmax = nz;
+        } else {
+            if (!Dcs_dupl.cs_dupl(dcs)) { //remove duplicates
+                throw new IllegalArgumentException("Exception occured in cs_dupl()!");
+            }
         }
     }
 
@@ -1060,4 +1095,45 @@ public class SparseCCDoubleMatrix2D extends WrapperDoubleMatrix2D {
         }
         return -(from + 1); // key not found.
     }
+
+    private static void scatter(final int[] dest, final double[] src, final double[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        dst[dest[p]] = src[p];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
+    private static void sumDuplicates(final int[] pointers, final int[] indexes, final double[] values,
+            final int nouter, final int[] target, final int[] indexesNew, final double[] valuesNew) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            int q = target[p];
+                            indexesNew[q] = indexes[p];
+                            valuesNew[q] += values[p];
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
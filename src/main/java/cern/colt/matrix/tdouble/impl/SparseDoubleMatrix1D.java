@@ -9,6 +9,7 @@ It is provided "as is" without expressed or implied warranty.
 package cern.colt.matrix.tdouble.impl;
 
 import cern.colt.map.tdouble.AbstractLongDoubleMap;
+import cern.colt.map.tdouble.LinearLongDoubleHashMap;
 import cern.colt.map.tdouble.OpenLongDoubleHashMap;
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
@@ -121,8 +122,43 @@ public class SparseDoubleMatrix1D extends DoubleMatrix1D {
      *             if <tt>size<0</tt>.
      */
     public SparseDoubleMatrix1D(int size, int initialCapacity, double minLoadFactor, double maxLoadFactor) {
+        this(size, initialCapacity, minLoadFactor, maxLoadFactor, false);
+    }
+
+    /**
+     * Constructs a matrix with a given number of parameters and a choice of
+     * the hash map holding the cells. All entries are initially <tt>0</tt>.
+     * 
+     * @param size
+     *            the number of cells the matrix shall have.
+     * @param initialCapacity
+     *            the initial capacity of the hash map. If not known, set
+     *            <tt>initialCapacity=0</tt> or small.
+     * @param minLoadFactor
+     *            the minimum load factor of the hash map.
+     * @param maxLoadFactor
+     *            the maximum load factor of the hash map.
+     * @param linearProbing
+     *            if true then the cells are stored in a
+     *            {@link cern.colt.map.tdouble.LinearLongDoubleHashMap},
+     *            otherwise in an
+     *            {@link cern.colt.map.tdouble.OpenLongDoubleHashMap}.
+     * @throws IllegalArgumentException
+     *             if
+     * 
+     *             <tt>initialCapacity < 0 || (minLoadFactor < 0.0 || minLoadFactor >= 1.0) || (maxLoadFactor <= 0.0 || maxLoadFactor >= 1.0) || (minLoadFactor >= maxLoadFactor)</tt>
+     *             .
+     * @throws IllegalArgumentException
+     *             if <tt>size<0</tt>.
+     */
+    public SparseDoubleMatrix1D(int size, int initialCapacity, double minLoadFactor, double maxLoadFactor,
+            boolean linearProbing) {
         setUp(size);
-        this.elements = new OpenLongDoubleHashMap(initialCapacity, minLoadFactor, maxLoadFactor);
+        if (linearProbing) {
+            this.elements = new LinearLongDoubleHashMap(initialCapacity, minLoadFactor, maxLoadFactor);
+        } else {
+            this.elements = new OpenLongDoubleHashMap(initialCapacity, minLoadFactor, maxLoadFactor);
+        }
     }
 
     /**
@@ -254,7 +290,7 @@ public class SparseDoubleMatrix1D extends DoubleMatrix1D {
      */
 
     public DoubleMatrix1D like(int size) {
-        return new SparseDoubleMatrix1D(size);
+        return new SparseDoubleMatrix1D(size, size / 1000, 0.2, 0.5, elements instanceof LinearLongDoubleHashMap);
     }
 
     /**
@@ -273,7 +309,8 @@ public class SparseDoubleMatrix1D extends DoubleMatrix1D {
      */
 
     public DoubleMatrix2D like2D(int rows, int columns) {
-        return new SparseDoubleMatrix2D(rows, columns);
+        return new SparseDoubleMatrix2D(rows, columns, rows * (columns / 1000), 0.2, 0.5,
+                elements instanceof LinearLongDoubleHashMap);
     }
 
     public DoubleMatrix2D reshape(int rows, int columns) {
@@ -9,14 +9,20 @@ It is provided "as is" without expressed or implied warranty.
 package cern.colt.matrix.tdouble.impl;
 
 import java.io.IOException;
+import java.util.concurrent.Future;
 
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.list.tlong.LongArrayList;
 import cern.colt.map.tdouble.AbstractLongDoubleMap;
+import cern.colt.map.tdouble.ConcurrentLongDoubleHashMap;
+import cern.colt.map.tdouble.LinearLongDoubleHashMap;
 import cern.colt.map.tdouble.OpenLongDoubleHashMap;
 import cern.colt.matrix.io.MatrixInfo;
 import cern.colt.matrix.io.MatrixSize;
 import cern.colt.matrix.io.MatrixVectorReader;
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Sparse hashed 2-d matrix holding <tt>double</tt> elements. First see the <a
@@ -29,6 +35,13 @@ import cern.colt.matrix.tdouble.DoubleMatrix2D;
  * {@link cern.colt.map.tdouble.OpenLongDoubleHashMap}, which is a compact and
  * performant hashing technique.
  * <p>
+ * A matrix constructed with a
+ * {@link cern.colt.map.tdouble.ConcurrentLongDoubleHashMap} can be filled by
+ * many threads at once: <tt>getQuick</tt>, <tt>setQuick</tt> and
+ * {@link #addQuick(int, int, double)} then lock only a segment of the map
+ * instead of the whole matrix, and {@link #getRowCompressed(boolean)} converts
+ * the segments in parallel.
+ * <p>
  * <b>Memory requirements:</b>
  * <p>
  * Cells that
@@ -163,13 +176,84 @@ public class SparseDoubleMatrix2D extends DoubleMatrix2D {
      *             .
      */
     public SparseDoubleMatrix2D(int rows, int columns, int initialCapacity, double minLoadFactor, double maxLoadFactor) {
+        this(rows, columns, initialCapacity, minLoadFactor, maxLoadFactor, false);
+    }
+
+    /**
+     * Constructs a matrix with a given number of rows and columns using memory
+     * as specified and a choice of the hash map holding the cells. All entries
+     * are initially <tt>0</tt>.
+     * 
+     * @param rows
+     *            the number of rows the matrix shall have.
+     * @param columns
+     *            the number of columns the matrix shall have.
+     * @param initialCapacity
+     *            the initial capacity of the hash map. If not known, set
+     *            <tt>initialCapacity=0</tt> or small.
+     * @param minLoadFactor
+     *            the minimum load factor of the hash map.
+     * @param maxLoadFactor
+     *            the maximum load factor of the hash map.
+     * @param linearProbing
+     *            if true then the cells are stored in a
+     *            {@link cern.colt.map.tdouble.LinearLongDoubleHashMap},
+     *            otherwise in an
+     *            {@link cern.colt.map.tdouble.OpenLongDoubleHashMap}.
+     * @throws IllegalArgumentException
+     *             if
+     * 
+     *             <tt>initialCapacity < 0 || (minLoadFactor < 0.0 || minLoadFactor >= 1.0) || (maxLoadFactor <= 0.0 || maxLoadFactor >= 1.0) || (minLoadFactor >= maxLoadFactor)</tt>
+     *             .
+     * @throws IllegalArgumentException
+     *             if
+     *             <tt>rows<0 || columns<0 || (double)columns*rows > Integer.MAX_VALUE</tt>
+     *             .
+     */
+    public SparseDoubleMatrix2D(int rows, int columns, int initialCapacity, double minLoadFactor,
+            double maxLoadFactor, boolean linearProbing) {
+        try {
+            setUp(rows, columns);
+        } catch (IllegalArgumentException exc) { // we can hold rows*columns>Integer.MAX_VALUE cells !
+            if (!"matrix too large".equals(exc.getMessage()))
+                throw exc;
+        }
+        if (linearProbing) {
+            this.elements = new LinearLongDoubleHashMap(initialCapacity, minLoadFactor, maxLoadFactor);
+        } else {
+            this.elements = new OpenLongDoubleHashMap(initialCapacity, minLoadFactor, maxLoadFactor);
+        }
+    }
+
+    /**
+     * Constructs a matrix with a given number of rows and columns whose cells
+     * are held in the given map. All entries are initially <tt>0</tt>. Use a
+     * {@link cern.colt.map.tdouble.ConcurrentLongDoubleHashMap} to fill the
+     * matrix from several threads at once.
+     * 
+     * @param rows
+     *            the number of rows the matrix shall have.
+     * @param columns
+     *            the number of columns the matrix shall have.
+     * @param elements
+     *            an empty map that will hold the cells.
+     * @throws IllegalArgumentException
+     *             if <tt>elements</tt> is not empty.
+     * @throws IllegalArgumentException
+     *             if
+     *             <tt>rows<0 || columns<0 || (double)columns*rows > Integer.MAX_VALUE</tt>
+     *             .
+     */
+    public SparseDoubleMatrix2D(int rows, int columns, AbstractLongDoubleMap elements) {
         try {
             setUp(rows, columns);
         } catch (IllegalArgumentException exc) { // we can hold rows*columns>Integer.MAX_VALUE cells !
             if (!"matrix too large".equals(exc.getMessage()))
                 throw exc;
         }
-        this.elements = new OpenLongDoubleHashMap(initialCapacity, minLoadFactor, maxLoadFactor);
+        if (!elements.isEmpty())
+            throw new IllegalArgumentException("elements is not empty");
+        this.elements = elements;
     }
 
     /**
@@ -526,9 +610,12 @@ public class SparseDoubleMatrix2D extends DoubleMatrix2D {
      * @return this matrix in a column-compressed form
      */
     public SparseCCDoubleMatrix2D getColumnCompressed(boolean sortRowIndexes) {
-        int nnz = cardinality();
-        long[] keys = elements.keys().elements();
-        double[] values = elements.values().elements();
+        LongArrayList keyList = new LongArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        pairs(keyList, valueList);
+        int nnz = keyList.size();
+        long[] keys = keyList.elements();
+        double[] values = valueList.elements();
         int[] rowIndexes = new int[nnz];
         int[] columnIndexes = new int[nnz];
 
@@ -551,9 +638,12 @@ public class SparseDoubleMatrix2D extends DoubleMatrix2D {
      */
     public SparseCCMDoubleMatrix2D getColumnCompressedModified() {
         SparseCCMDoubleMatrix2D A = new SparseCCMDoubleMatrix2D(rows, columns);
-        int nnz = cardinality();
-        long[] keys = elements.keys().elements();
-        double[] values = elements.values().elements();
+        LongArrayList keyList = new LongArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        pairs(keyList, valueList);
+        int nnz = keyList.size();
+        long[] keys = keyList.elements();
+        double[] values = valueList.elements();
         for (int i = 0; i < nnz; i++) {
             int row = (int) (keys[i] / columns);
             int column = (int) (keys[i] % columns);
@@ -574,9 +664,15 @@ public class SparseDoubleMatrix2D extends DoubleMatrix2D {
      * @return this matrix in a row-compressed form
      */
     public SparseRCDoubleMatrix2D getRowCompressed(boolean sortColumnIndexes) {
-        int nnz = cardinality();
-        long[] keys = elements.keys().elements();
-        double[] values = elements.values().elements();
+        if (this.isNoView && elements instanceof ConcurrentLongDoubleHashMap) {
+            return getRowCompressed((ConcurrentLongDoubleHashMap) elements, sortColumnIndexes);
+        }
+        LongArrayList keyList = new LongArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        pairs(keyList, valueList);
+        int nnz = keyList.size();
+        long[] keys = keyList.elements();
+        double[] values = valueList.elements();
         final int[] rowIndexes = new int[nnz];
         final int[] columnIndexes = new int[nnz];
         for (int k = 0; k < nnz; k++) {
@@ -598,9 +694,12 @@ public class SparseDoubleMatrix2D extends DoubleMatrix2D {
      */
     public SparseRCMDoubleMatrix2D getRowCompressedModified() {
         SparseRCMDoubleMatrix2D A = new SparseRCMDoubleMatrix2D(rows, columns);
-        int nnz = cardinality();
-        long[] keys = elements.keys().elements();
-        double[] values = elements.values().elements();
+        LongArrayList keyList = new LongArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        pairs(keyList, valueList);
+        int nnz = keyList.size();
+        long[] keys = keyList.elements();
+        double[] values = valueList.elements();
         for (int i = 0; i < nnz; i++) {
             int row = (int) (keys[i] / columns);
             int column = (int) (keys[i] % columns);
@@ -635,9 +734,48 @@ public class SparseDoubleMatrix2D extends DoubleMatrix2D {
         return this;
     }
 
-    public synchronized double getQuick(int row, int column) {
-        return this.elements.get((long) rowZero + (long) row * (long) rowStride + (long) columnZero + (long) column
-                * (long) columnStride);
+    /**
+     * Adds the given value to the specified cell; <tt>A[row,column] += value</tt>.
+     * The update is atomic, so several threads can add to the same cell.
+     * <p>
+     * Provided with invalid parameters this method may access illegal indexes
+     * without throwing any exception. <b>You should only use this method when
+     * you are absolutely sure that the coordinate is within bounds.</b>
+     * Precondition (unchecked):
+     * <tt>0 &lt;= column &lt; columns() && 0 &lt;= row &lt; rows()</tt>.
+     * 
+     * @param row
+     *            the index of the row-coordinate.
+     * @param column
+     *            the index of the column-coordinate.
+     * @param value
+     *            the value to be added to the specified cell.
+     */
+    public void addQuick(int row, int column, double value) {
+        long index = (long) rowZero + (long) row * (long) rowStride + (long) columnZero + (long) column
+                * (long) columnStride;
+        if (this.elements instanceof ConcurrentLongDoubleHashMap) {
+            ((ConcurrentLongDoubleHashMap) this.elements).addTo(index, value);
+        } else {
+            synchronized (this) {
+                double sum = this.elements.get(index) + value;
+                if (sum == 0)
+                    this.elements.removeKey(index);
+                else
+                    this.elements.put(index, sum);
+            }
+        }
+    }
+
+    public double getQuick(int row, int column) {
+        long index = (long) rowZero + (long) row * (long) rowStride + (long) columnZero + (long) column
+                * (long) columnStride;
+        if (this.elements instanceof ConcurrentLongDoubleHashMap) {
+            return this.elements.get(index);
+        }
+        synchronized (this) {
+            return this.elements.get(index);
+        }
     }
 
     public long index(int row, int column) {
@@ -645,20 +783,33 @@ public class SparseDoubleMatrix2D extends DoubleMatrix2D {
     }
 
     public DoubleMatrix2D like(int rows, int columns) {
-        return new SparseDoubleMatrix2D(rows, columns);
+        if (elements instanceof ConcurrentLongDoubleHashMap) {
+            return new SparseDoubleMatrix2D(rows, columns, new ConcurrentLongDoubleHashMap(rows * (columns / 1000)));
+        }
+        return new SparseDoubleMatrix2D(rows, columns, rows * (columns / 1000), 0.2, 0.5,
+                elements instanceof LinearLongDoubleHashMap);
     }
 
     public DoubleMatrix1D like1D(int size) {
-        return new SparseDoubleMatrix1D(size);
+        return new SparseDoubleMatrix1D(size, size / 1000, 0.2, 0.5, elements instanceof LinearLongDoubleHashMap);
     }
 
-    public synchronized void setQuick(int row, int column, double value) {
+    public void setQuick(int row, int column, double value) {
         long index = (long) rowZero + (long) row * (long) rowStride + (long) columnZero + (long) column
                 * (long) columnStride;
-        if (value == 0)
-            this.elements.removeKey(index);
-        else
-            this.elements.put(index, value);
+        if (this.elements instanceof ConcurrentLongDoubleHashMap) {
+            if (value == 0)
+                this.elements.removeKey(index);
+            else
+                this.elements.put(index, value);
+            return;
+        }
+        synchronized (this) {
+            if (value == 0)
+                this.elements.removeKey(index);
+            else
+                this.elements.put(index, value);
+        }
     }
 
     public String toString() {
@@ -855,6 +1006,143 @@ public class SparseDoubleMatrix2D extends DoubleMatrix2D {
         }
     }
 
+    /*
+     * Fills the keys and values of all stored cells into the given lists, such
+     * that they match even while other threads write to concurrent storage.
+     * Cells whose deltas added up to zero are left out, as in the concurrent
+     * getRowCompressed. The lists are trimmed, so their element arrays have
+     * exactly their size.
+     */
+    private void pairs(LongArrayList keyList, DoubleArrayList valueList) {
+        if (elements instanceof ConcurrentLongDoubleHashMap) {
+            ((ConcurrentLongDoubleHashMap) elements).pairs(keyList, valueList);
+        } else {
+            elements.keys(keyList);
+            elements.values(valueList);
+        }
+        long[] keys = keyList.elements();
+        double[] values = valueList.elements();
+        int size = keyList.size();
+        int nnz = 0;
+        for (int i = 0; i < size; i++) {
+            if (values[i] != 0) {
+                keys[nnz] = keys[i];
+                values[nnz++] = values[i];
+            }
+        }
+        keyList.setSize(nnz);
+        valueList.setSize(nnz);
+        keyList.trimToSize();
+        valueList.trimToSize();
+    }
+
+    /*
+     * Converts a matrix held in a concurrent map. The segments are split among
+     * the threads; every thread takes a snapshot of its segments and counts the
+     * entries per row, the counts give each thread its own range within every
+     * row, and the threads then scatter their snapshots into these ranges. No
+     * lock other than the lock of the segment being copied is taken.
+     */
+    private SparseRCDoubleMatrix2D getRowCompressed(final ConcurrentLongDoubleHashMap map, boolean sortColumnIndexes) {
+        final int nsegments = map.numberOfSegments();
+        final long[][] keys = new long[nsegments][];
+        final double[][] vals = new double[nsegments][];
+        final int[] sizes = new int[nsegments];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (map.size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            // every thread counts into its own array of rows entries; keep the
+            // scratch space within O(nnz + rows)
+            nthreads = Math.min(Math.min(nthreads, nsegments), Math.max(1, map.size() / Math.max(1, rows)));
+        } else {
+            nthreads = 1;
+        }
+        final int[][] rowCounts = new int[nthreads][rows];
+        Future<?>[] futures = new Future[nthreads];
+        int k = nsegments / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstSegment = j * k;
+            final int lastSegment = (j == nthreads - 1) ? nsegments : firstSegment + k;
+            final int[] counts = rowCounts[j];
+            Runnable task = new Runnable() {
+                public void run() {
+                    for (int s = firstSegment; s < lastSegment; s++) {
+                        LongArrayList keyList = new LongArrayList();
+                        DoubleArrayList valueList = new DoubleArrayList();
+                        map.pairs(s, keyList, valueList);
+                        long[] segmentKeys = keyList.elements();
+                        double[] segmentValues = valueList.elements();
+                        int size = keyList.size();
+                        for (int i = 0; i < size; i++) {
+                            if (segmentValues[i] != 0)
+                                counts[(int) (segmentKeys[i] / columns)]++;
+                        }
+                        keys[s] = segmentKeys;
+                        vals[s] = segmentValues;
+                        sizes[s] = size;
+                    }
+                }
+            };
+            if (nthreads > 1) {
+                futures[j] = ConcurrencyUtils.submit(task);
+            } else {
+                task.run();
+            }
+        }
+        if (nthreads > 1) {
+            ConcurrencyUtils.waitForCompletion(futures);
+        }
+        // row pointers, and the position of every thread within every row
+        final int[] rowPointers = new int[rows + 1];
+        int nnz = 0;
+        for (int r = 0; r < rows; r++) {
+            rowPointers[r] = nnz;
+            for (int j = 0; j < nthreads; j++) {
+                int count = rowCounts[j][r];
+                rowCounts[j][r] = nnz;
+                nnz += count;
+            }
+        }
+        rowPointers[rows] = nnz;
+        final int[] columnIndexes = new int[Math.max(nnz, 1)];
+        final double[] values = new double[Math.max(nnz, 1)];
+        for (int j = 0; j < nthreads; j++) {
+            final int firstSegment = j * k;
+            final int lastSegment = (j == nthreads - 1) ? nsegments : firstSegment + k;
+            final int[] positions = rowCounts[j];
+            Runnable task = new Runnable() {
+                public void run() {
+                    for (int s = firstSegment; s < lastSegment; s++) {
+                        long[] segmentKeys = keys[s];
+                        double[] segmentValues = vals[s];
+                        for (int i = 0; i < sizes[s]; i++) {
+                            if (segmentValues[i] != 0) {
+                                long key = segmentKeys[i];
+                                int pos = positions[(int) (key / columns)]++;
+                                columnIndexes[pos] = (int) (key % columns);
+                                values[pos] = segmentValues[i];
+                            }
+                        }
+                        keys[s] = null;
+                        vals[s] = null;
+                    }
+                }
+            };
+            if (nthreads > 1) {
+                futures[j] = ConcurrencyUtils.submit(task);
+            } else {
+                task.run();
+            }
+        }
+        if (nthreads > 1) {
+            ConcurrencyUtils.waitForCompletion(futures);
+        }
+        SparseRCDoubleMatrix2D A = new SparseRCDoubleMatrix2D(rows, columns, rowPointers, columnIndexes, values);
+        if (sortColumnIndexes) {
+            A.sortColumnIndexes();
+        }
+        return A;
+    }
+
     protected boolean haveSharedCellsRaw(DoubleMatrix2D other) {
         if (other instanceof SelectedSparseDoubleMatrix2D) {
             SelectedSparseDoubleMatrix2D otherMatrix = (SelectedSparseDoubleMatrix2D) other;
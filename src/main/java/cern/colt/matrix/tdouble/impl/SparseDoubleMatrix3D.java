@@ -9,6 +9,7 @@ It is provided "as is" without expressed or implied warranty.
 package cern.colt.matrix.tdouble.impl;
 
 import cern.colt.map.tdouble.AbstractLongDoubleMap;
+import cern.colt.map.tdouble.ConcurrentLongDoubleHashMap;
 import cern.colt.map.tdouble.OpenLongDoubleHashMap;
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
@@ -25,6 +26,12 @@ import cern.colt.matrix.tdouble.DoubleMatrix3D;
  * {@link cern.colt.map.tdouble.OpenIntDoubleHashMap}, which is a compact and
  * performant hashing technique.
  * <p>
+ * A matrix constructed with a
+ * {@link cern.colt.map.tdouble.ConcurrentLongDoubleHashMap} can be filled by
+ * many threads at once: <tt>getQuick</tt>, <tt>setQuick</tt> and
+ * {@link #addQuick(int, int, int, double)} then lock only a segment of the map
+ * instead of the whole matrix.
+ * <p>
  * <b>Memory requirements:</b>
  * <p>
  * Cells that
@@ -185,6 +192,38 @@ public class SparseDoubleMatrix3D extends DoubleMatrix3D {
         this.elements = new OpenLongDoubleHashMap(initialCapacity, minLoadFactor, maxLoadFactor);
     }
 
+    /**
+     * Constructs a matrix with a given number of slices, rows and columns
+     * whose cells are held in the given map. All entries are initially
+     * <tt>0</tt>. Use a
+     * {@link cern.colt.map.tdouble.ConcurrentLongDoubleHashMap} to fill the
+     * matrix from several threads at once.
+     * 
+     * @param slices
+     *            the number of slices the matrix shall have.
+     * @param rows
+     *            the number of rows the matrix shall have.
+     * @param columns
+     *            the number of columns the matrix shall have.
+     * @param elements
+     *            an empty map that will hold the cells.
+     * @throws IllegalArgumentException
+     *             if <tt>elements</tt> is not empty.
+     * @throws IllegalArgumentException
+     *             if <tt>slices<0 || rows<0 || columns<0</tt>.
+     */
+    public SparseDoubleMatrix3D(int slices, int rows, int columns, AbstractLongDoubleMap elements) {
+        try {
+            setUp(slices, rows, columns);
+        } catch (IllegalArgumentException exc) { // we can hold slices*rows*columns>Integer.MAX_VALUE cells !
+            if (!"matrix too large".equals(exc.getMessage()))
+                throw exc;
+        }
+        if (!elements.isEmpty())
+            throw new IllegalArgumentException("elements is not empty");
+        this.elements = elements;
+    }
+
     /**
      * Constructs a view with the given parameters.
      * 
@@ -252,15 +291,57 @@ public class SparseDoubleMatrix3D extends DoubleMatrix3D {
         this.elements.ensureCapacity(minCapacity);
     }
 
-    public synchronized double getQuick(int slice, int row, int column) {
+    /**
+     * Adds the given value to the specified cell;
+     * <tt>A[slice,row,column] += value</tt>. The update is atomic, so several
+     * threads can add to the same cell.
+     * <p>
+     * Provided with invalid parameters this method may access illegal indexes
+     * without throwing any exception. <b>You should only use this method when
+     * you are absolutely sure that the coordinate is within bounds.</b>
+     * Precondition (unchecked):
+     * <tt>slice&lt;0 || slice&gt;=slices() || row&lt;0 || row&gt;=rows() || column&lt;0 || column&gt;=column()</tt>.
+     * 
+     * @param slice
+     *            the index of the slice-coordinate.
+     * @param row
+     *            the index of the row-coordinate.
+     * @param column
+     *            the index of the column-coordinate.
+     * @param value
+     *            the value to be added to the specified cell.
+     */
+    public void addQuick(int slice, int row, int column, double value) {
+        long index = (long) sliceZero + (long) slice * (long) sliceStride + (long) rowZero + (long) row
+                * (long) rowStride + (long) columnZero + (long) column * (long) columnStride;
+        if (this.elements instanceof ConcurrentLongDoubleHashMap) {
+            ((ConcurrentLongDoubleHashMap) this.elements).addTo(index, value);
+        } else {
+            synchronized (this) {
+                double sum = this.elements.get(index) + value;
+                if (sum == 0)
+                    this.elements.removeKey(index);
+                else
+                    this.elements.put(index, sum);
+            }
+        }
+    }
+
+    public double getQuick(int slice, int row, int column) {
         // if (debug) if (slice<0 || slice>=slices || row<0 || row>=rows ||
         // column<0 || column>=columns) throw new
         // IndexOutOfBoundsException("slice:"+slice+", row:"+row+",
         // column:"+column);
         // return elements.get(index(slice,row,column));
         // manually inlined:
-        return elements.get((long) sliceZero + (long) slice * (long) sliceStride + (long) rowZero + (long) row
-                * (long) rowStride + (long) columnZero + (long) column * (long) columnStride);
+        long index = (long) sliceZero + (long) slice * (long) sliceStride + (long) rowZero + (long) row
+                * (long) rowStride + (long) columnZero + (long) column * (long) columnStride;
+        if (this.elements instanceof ConcurrentLongDoubleHashMap) {
+            return this.elements.get(index);
+        }
+        synchronized (this) {
+            return this.elements.get(index);
+        }
     }
 
     public long index(int slice, int row, int column) {
@@ -272,14 +353,21 @@ public class SparseDoubleMatrix3D extends DoubleMatrix3D {
     }
 
     public DoubleMatrix3D like(int slices, int rows, int columns) {
+        if (elements instanceof ConcurrentLongDoubleHashMap) {
+            return new SparseDoubleMatrix3D(slices, rows, columns, new ConcurrentLongDoubleHashMap(slices
+                    * rows * (columns / 1000)));
+        }
         return new SparseDoubleMatrix3D(slices, rows, columns);
     }
 
     public DoubleMatrix2D like2D(int rows, int columns) {
+        if (elements instanceof ConcurrentLongDoubleHashMap) {
+            return new SparseDoubleMatrix2D(rows, columns, new ConcurrentLongDoubleHashMap(rows * (columns / 1000)));
+        }
         return new SparseDoubleMatrix2D(rows, columns);
     }
 
-    public synchronized void setQuick(int slice, int row, int column, double value) {
+    public void setQuick(int slice, int row, int column, double value) {
         // if (debug) if (slice<0 || slice>=slices || row<0 || row>=rows ||
         // column<0 || column>=columns) throw new
         // IndexOutOfBoundsException("slice:"+slice+", row:"+row+",
@@ -288,10 +376,19 @@ public class SparseDoubleMatrix3D extends DoubleMatrix3D {
         // manually inlined:
         long index = (long) sliceZero + (long) slice * (long) sliceStride + (long) rowZero + (long) row
                 * (long) rowStride + (long) columnZero + (long) column * (long) columnStride;
-        if (value == 0)
-            this.elements.removeKey(index);
-        else
-            this.elements.put(index, value);
+        if (this.elements instanceof ConcurrentLongDoubleHashMap) {
+            if (value == 0)
+                this.elements.removeKey(index);
+            else
+                this.elements.put(index, value);
+            return;
+        }
+        synchronized (this) {
+            if (value == 0)
+                this.elements.removeKey(index);
+            else
+                this.elements.put(index, value);
+        }
     }
 
     public String toString() {
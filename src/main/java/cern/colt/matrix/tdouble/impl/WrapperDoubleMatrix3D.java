@@ -61,6 +61,14 @@ public class WrapperDoubleMatrix3D extends DoubleMatrix3D {
                 copy.dct3(scale);
                 assign(copy);
             }
+        } else if (content instanceof DenseChunkedDoubleMatrix3D) {
+            if (this.isNoView == true) {
+                ((DenseChunkedDoubleMatrix3D) content).dct3(scale);
+            } else {
+                DenseChunkedDoubleMatrix3D copy = (DenseChunkedDoubleMatrix3D) copy();
+                copy.dct3(scale);
+                assign(copy);
+            }
         } else {
             throw new IllegalArgumentException("This method is not supported");
         }
@@ -248,6 +256,12 @@ public class WrapperDoubleMatrix3D extends DoubleMatrix3D {
             } else {
                 return ((DenseLargeDoubleMatrix3D) copy()).getFft3();
             }
+        } else if (content instanceof DenseChunkedDoubleMatrix3D) {
+            if (this.isNoView == true) {
+                return ((DenseChunkedDoubleMatrix3D) content).getFft3();
+            } else {
+                return ((DenseChunkedDoubleMatrix3D) copy()).getFft3();
+            }
         } else {
             throw new IllegalArgumentException("This method is not supported");
         }
@@ -267,6 +281,12 @@ public class WrapperDoubleMatrix3D extends DoubleMatrix3D {
             } else {
                 return ((DenseLargeDoubleMatrix3D) copy()).getIfft3(scale);
             }
+        } else if (content instanceof DenseChunkedDoubleMatrix3D) {
+            if (this.isNoView == true) {
+                return ((DenseChunkedDoubleMatrix3D) content).getIfft3(scale);
+            } else {
+                return ((DenseChunkedDoubleMatrix3D) copy()).getIfft3(scale);
+            }
         } else {
             throw new IllegalArgumentException("This method is not supported");
         }
@@ -326,6 +346,14 @@ public class WrapperDoubleMatrix3D extends DoubleMatrix3D {
                 copy.idct3(scale);
                 assign(copy);
             }
+        } else if (content instanceof DenseChunkedDoubleMatrix3D) {
+            if (this.isNoView == true) {
+                ((DenseChunkedDoubleMatrix3D) content).idct3(scale);
+            } else {
+                DenseChunkedDoubleMatrix3D copy = (DenseChunkedDoubleMatrix3D) copy();
+                copy.idct3(scale);
+                assign(copy);
+            }
         } else {
             throw new IllegalArgumentException("This method is not supported");
         }
@@ -628,6 +656,29 @@ public class WrapperDoubleMatrix3D extends DoubleMatrix3D {
                     content.set(row, slice, column, value);
                 }
             };
+        } else if (axis0 == 0 && axis1 == 2 && axis2 == 1) {
+            view = new WrapperDoubleMatrix3D(this) {
+                /**
+                 * 
+                 */
+                private static final long serialVersionUID = 1L;
+
+                public synchronized double getQuick(int slice, int row, int column) {
+                    return content.getQuick(slice, column, row);
+                }
+
+                public synchronized void setQuick(int slice, int row, int column, double value) {
+                    content.setQuick(slice, column, row, value);
+                }
+
+                public synchronized double get(int slice, int row, int column) {
+                    return content.get(slice, column, row);
+                }
+
+                public synchronized void set(int slice, int row, int column, double value) {
+                    content.set(slice, column, row, value);
+                }
+            };
         } else if (axis0 == 1 && axis1 == 2 && axis2 == 0) {
             view = new WrapperDoubleMatrix3D(this) {
                 /**
@@ -636,19 +687,19 @@ public class WrapperDoubleMatrix3D extends DoubleMatrix3D {
                 private static final long serialVersionUID = 1L;
 
                 public synchronized double getQuick(int slice, int row, int column) {
-                    return content.getQuick(row, column, slice);
+                    return content.getQuick(column, slice, row);
                 }
 
                 public synchronized void setQuick(int slice, int row, int column, double value) {
-                    content.setQuick(row, column, slice, value);
+                    content.setQuick(column, slice, row, value);
                 }
 
                 public synchronized double get(int slice, int row, int column) {
-                    return content.get(row, column, slice);
+                    return content.get(column, slice, row);
                 }
 
                 public synchronized void set(int slice, int row, int column, double value) {
-                    content.set(row, column, slice, value);
+                    content.set(column, slice, row, value);
                 }
             };
         } else if (axis0 == 2 && axis1 == 1 && axis2 == 0) {
@@ -682,19 +733,19 @@ public class WrapperDoubleMatrix3D extends DoubleMatrix3D {
                 private static final long serialVersionUID = 1L;
 
                 public synchronized double getQuick(int slice, int row, int column) {
-                    return content.getQuick(column, slice, row);
+                    return content.getQuick(row, column, slice);
                 }
 
                 public synchronized void setQuick(int slice, int row, int column, double value) {
-                    content.setQuick(column, slice, row, value);
+                    content.setQuick(row, column, slice, value);
                 }
 
                 public synchronized double get(int slice, int row, int column) {
-                    return content.get(column, slice, row);
+                    return content.get(row, column, slice);
                 }
 
                 public synchronized void set(int slice, int row, int column, double value) {
-                    content.set(column, slice, row, value);
+                    content.set(row, column, slice, value);
                 }
             };
         }
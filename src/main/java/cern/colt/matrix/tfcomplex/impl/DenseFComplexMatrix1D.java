@@ -240,9 +240,10 @@ public class DenseFComplexMatrix1D extends FComplexMatrix1D {
                         if (function instanceof cern.jet.math.tfcomplex.FComplexMult) {
                             float[] multiplicator = ((cern.jet.math.tfcomplex.FComplexMult) function).multiplicator;
                             for (int k = firstIdx; k < lastIdx; k++) {
-                                elements[idx] = elements[idx] * multiplicator[0] - elements[idx + 1] * multiplicator[1];
-                                elements[idx + 1] = elements[idx + 1] * multiplicator[0] + elements[idx]
-                                        * multiplicator[1];
+                                float re = elements[idx];
+                                float im = elements[idx + 1];
+                                elements[idx] = re * multiplicator[0] - im * multiplicator[1];
+                                elements[idx + 1] = im * multiplicator[0] + re * multiplicator[1];
                                 idx += stride;
                             }
                         } else {
@@ -265,8 +266,10 @@ public class DenseFComplexMatrix1D extends FComplexMatrix1D {
             if (function instanceof cern.jet.math.tfcomplex.FComplexMult) {
                 float[] multiplicator = ((cern.jet.math.tfcomplex.FComplexMult) function).multiplicator;
                 for (int k = 0; k < size; k++) {
-                    elements[idx] = elements[idx] * multiplicator[0] - elements[idx + 1] * multiplicator[1];
-                    elements[idx + 1] = elements[idx + 1] * multiplicator[0] + elements[idx] * multiplicator[1];
+                    float re = elements[idx];
+                    float im = elements[idx + 1];
+                    elements[idx] = re * multiplicator[0] - im * multiplicator[1];
+                    elements[idx + 1] = im * multiplicator[0] + re * multiplicator[1];
                     idx += stride;
                 }
             } else {
@@ -151,16 +151,25 @@ public class SparseCCFComplexMatrix2D extends WrapperFComplexMatrix2D {
         this.rowIndexes = new int[nz];
         this.values = new float[2 * nz];
         this.columnPointers = new int[columns + 1];
-        int[] w = new int[columns];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[columnIndexes[k]]++;
-        }
-        cumsum(this.columnPointers, w, columns);
-        for (int k = 0; k < nz; k++) {
-            this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
-            this.values[2 * r] = re;
-            this.values[2 * r + 1] = im;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(columnIndexes, rowIndexes, nz, columns, this.columnPointers, this.rowIndexes);
+            for (int k = 0; k < nz; k++) {
+                this.values[2 * k] = re;
+                this.values[2 * k + 1] = im;
+            }
+        } else {
+            int[] w = new int[columns];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[columnIndexes[k]]++;
+            }
+            cumsum(this.columnPointers, w, columns);
+            for (int k = 0; k < nz; k++) {
+                this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
+                this.values[2 * r] = re;
+                this.values[2 * r + 1] = im;
+            }
         }
         if (removeDuplicates) {
             removeDuplicates();
@@ -204,16 +213,22 @@ public class SparseCCFComplexMatrix2D extends WrapperFComplexMatrix2D {
         this.rowIndexes = new int[nz];
         this.values = new float[2 * nz];
         this.columnPointers = new int[columns + 1];
-        int[] w = new int[columns];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[columnIndexes[k]]++;
-        }
-        cumsum(this.columnPointers, w, columns);
-        for (int k = 0; k < nz; k++) {
-            this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
-            this.values[2 * r] = values[2 * k];
-            this.values[2 * r + 1] = values[2 * k + 1];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(columnIndexes, rowIndexes, nz, columns, this.columnPointers, this.rowIndexes);
+            scatter(dest, values, this.values, nz);
+        } else {
+            int[] w = new int[columns];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[columnIndexes[k]]++;
+            }
+            cumsum(this.columnPointers, w, columns);
+            for (int k = 0; k < nz; k++) {
+                this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
+                this.values[2 * r] = values[2 * k];
+                this.values[2 * r + 1] = values[2 * k + 1];
+            }
         }
         if (removeDuplicates) {
             removeDuplicates();
@@ -578,45 +593,67 @@ public class SparseCCFComplexMatrix2D extends WrapperFComplexMatrix2D {
      * Sorts row indexes
      */
     public void sortRowIndexes() {
-        SparseCCFComplexMatrix2D tr = getConjugateTranspose();
-        tr = tr.getConjugateTranspose();
-        columnPointers = tr.columnPointers;
-        rowIndexes = tr.rowIndexes;
-        values = tr.values;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(columnPointers, rowIndexes, columns, rows);
+            float[] valuesNew = new float[values.length];
+            scatter(dest, values, valuesNew, cardinality());
+            values = valuesNew;
+        } else {
+            SparseCCFComplexMatrix2D tr = getConjugateTranspose();
+            tr = tr.getConjugateTranspose();
+            columnPointers = tr.columnPointers;
+            rowIndexes = tr.rowIndexes;
+            values = tr.values;
+        }
     }
 
     /**
      * Removes (sums) duplicate entries (if any}
      */
     public void removeDuplicates() {
-        int i, j, p, q, nz = 0, n, m, Ap[], Ai[], w[];
-        float Ax[];
-        /* check inputs */
-        m = rows;
-        n = columns;
-        Ap = columnPointers;
-        Ai = rowIndexes;
-        Ax = values;
-        w = new int[m]; /* get workspace */
-        for (i = 0; i < m; i++)
-            w[i] = -1; /* row i not yet seen */
-        for (j = 0; j < n; j++) {
-            q = nz; /* column j will start at q */
-            for (p = Ap[j]; p < Ap[j + 1]; p++) {
-                i = Ai[p]; /* A(i,j) is nonzero */
-                if (w[i] >= q) {
-                    Ax[w[i]] += Ax[p]; /* A(i,j) is a duplicate */
-                } else {
-                    w[i] = nz; /* record where row i occurs */
-                    Ai[nz] = i; /* keep A(i,j) */
-                    Ax[2 * nz] = Ax[2 * p];
-                    Ax[2 * nz + 1] = Ax[2 * p + 1];
-                    nz++;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] target = new int[cardinality()];
+            int[] pointersNew = compressDuplicates(columnPointers, rowIndexes, columns, rows, target);
+            int nz = pointersNew[columns];
+            int[] indexesNew = new int[nz];
+            float[] valuesNew = new float[2 * nz];
+            sumDuplicates(columnPointers, rowIndexes, values, columns, target, indexesNew, valuesNew);
+            columnPointers = pointersNew;
+            rowIndexes = indexesNew;
+            values = valuesNew;
+        } else {
+            int i, j, p, q, nz = 0, n, m, Ap[], Ai[], w[];
+            float Ax[];
+            /* check inputs */
+            m = rows;
+            n = columns;
+            Ap = columnPointers;
+            Ai = rowIndexes;
+            Ax = values;
+            w = new int[m]; /* get workspace */
+            for (i = 0; i < m; i++)
+                w[i] = -1; /* row i not yet seen */
+            for (j = 0; j < n; j++) {
+                q = nz; /* column j will start at q */
+                for (p = Ap[j]; p < Ap[j + 1]; p++) {
+                    i = Ai[p]; /* A(i,j) is nonzero */
+                    if (w[i] >= q) {
+                        Ax[2 * w[i]] += Ax[2 * p]; /* A(i,j) is a duplicate */
+                        Ax[2 * w[i] + 1] += Ax[2 * p + 1];
+                    } else {
+                        w[i] = nz; /* record where row i occurs */
+                        Ai[nz] = i; /* keep A(i,j) */
+                        Ax[2 * nz] = Ax[2 * p];
+                        Ax[2 * nz + 1] = Ax[2 * p + 1];
+                        nz++;
+                    }
                 }
+                Ap[j] = q; /* record start of column j */
             }
-            Ap[j] = q; /* record start of column j */
+            Ap[n] = nz; /* finalize A */
         }
-        Ap[n] = nz; /* finalize A */
     }
 
     /**
@@ -1128,4 +1165,48 @@ public class SparseCCFComplexMatrix2D extends WrapperFComplexMatrix2D {
         }
         return nz;
     }
+
+    private static void scatter(final int[] dest, final float[] src, final float[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        int q = dest[p];
+                        dst[2 * q] = src[2 * p];
+                        dst[2 * q + 1] = src[2 * p + 1];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
+    private static void sumDuplicates(final int[] pointers, final int[] indexes, final float[] values,
+            final int nouter, final int[] target, final int[] indexesNew, final float[] valuesNew) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            int q = target[p];
+                            indexesNew[q] = indexes[p];
+                            valuesNew[2 * q] += values[2 * p];
+                            valuesNew[2 * q + 1] += values[2 * p + 1];
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
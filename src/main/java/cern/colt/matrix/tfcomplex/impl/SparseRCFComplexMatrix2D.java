@@ -169,16 +169,25 @@ public class SparseRCFComplexMatrix2D extends WrapperFComplexMatrix2D {
         this.columnIndexes = new int[nz];
         this.values = new float[2 * nz];
         this.rowPointers = new int[rows + 1];
-        int[] w = new int[rows];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[rowIndexes[k]]++;
-        }
-        cumsum(this.rowPointers, w, rows);
-        for (int k = 0; k < nz; k++) {
-            this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
-            this.values[2 * r] = re;
-            this.values[2 * r + 1] = im;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(rowIndexes, columnIndexes, nz, rows, this.rowPointers, this.columnIndexes);
+            for (int k = 0; k < nz; k++) {
+                this.values[2 * k] = re;
+                this.values[2 * k + 1] = im;
+            }
+        } else {
+            int[] w = new int[rows];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[rowIndexes[k]]++;
+            }
+            cumsum(this.rowPointers, w, rows);
+            for (int k = 0; k < nz; k++) {
+                this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
+                this.values[2 * r] = re;
+                this.values[2 * r + 1] = im;
+            }
         }
         if (removeDuplicates) {
             removeDuplicates();
@@ -222,16 +231,22 @@ public class SparseRCFComplexMatrix2D extends WrapperFComplexMatrix2D {
         this.columnIndexes = new int[nz];
         this.values = new float[2 * nz];
         this.rowPointers = new int[rows + 1];
-        int[] w = new int[rows];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[rowIndexes[k]]++;
-        }
-        cumsum(this.rowPointers, w, rows);
-        for (int k = 0; k < nz; k++) {
-            this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
-            this.values[2 * r] = values[2 * k];
-            this.values[2 * r + 1] = values[2 * k + 1];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(rowIndexes, columnIndexes, nz, rows, this.rowPointers, this.columnIndexes);
+            scatter(dest, values, this.values, nz);
+        } else {
+            int[] w = new int[rows];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[rowIndexes[k]]++;
+            }
+            cumsum(this.rowPointers, w, rows);
+            for (int k = 0; k < nz; k++) {
+                this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
+                this.values[2 * r] = values[2 * k];
+                this.values[2 * r + 1] = values[2 * k + 1];
+            }
         }
         if (removeZeroes) {
             removeZeroes();
@@ -615,33 +630,65 @@ public class SparseRCFComplexMatrix2D extends WrapperFComplexMatrix2D {
         return new SparseFComplexMatrix1D(size);
     }
 
+    /**
+     * Sorts column indexes
+     */
+    public void sortColumnIndexes() {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(rowPointers, columnIndexes, rows, columns);
+            float[] valuesNew = new float[values.length];
+            scatter(dest, values, valuesNew, cardinality());
+            values = valuesNew;
+        } else {
+            SparseRCFComplexMatrix2D tr = getConjugateTranspose();
+            tr = tr.getConjugateTranspose();
+            rowPointers = tr.rowPointers;
+            columnIndexes = tr.columnIndexes;
+            values = tr.values;
+        }
+    }
+
     /**
      * Removes (sums) duplicate entries (if any}
      */
     public void removeDuplicates() {
-        int nz = 0;
-        int q, i;
-        int[] w = new int[columns]; /* get workspace */
-        for (i = 0; i < columns; i++)
-            w[i] = -1; /* column i not yet seen */
-        for (int j = 0; j < rows; j++) {
-            q = nz; /* row j will start at q */
-            for (int p = rowPointers[j]; p < rowPointers[j + 1]; p++) {
-                i = columnIndexes[p]; /* A(i,j) is nonzero */
-                if (w[i] >= q) {
-                    values[2 * w[i]] += values[2 * p]; /* A(i,j) is a duplicate */
-                    values[2 * w[i] + 1] += values[2 * p + 1];
-                } else {
-                    w[i] = nz; /* record where column i occurs */
-                    columnIndexes[nz] = i; /* keep A(i,j) */
-                    values[2 * nz] = values[2 * p];
-                    values[2 * nz + 1] = values[2 * p + 1];
-                    nz++;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] target = new int[cardinality()];
+            int[] pointersNew = compressDuplicates(rowPointers, columnIndexes, rows, columns, target);
+            int nz = pointersNew[rows];
+            int[] indexesNew = new int[nz];
+            float[] valuesNew = new float[2 * nz];
+            sumDuplicates(rowPointers, columnIndexes, values, rows, target, indexesNew, valuesNew);
+            rowPointers = pointersNew;
+            columnIndexes = indexesNew;
+            values = valuesNew;
+        } else {
+            int nz = 0;
+            int q, i;
+            int[] w = new int[columns]; /* get workspace */
+            for (i = 0; i < columns; i++)
+                w[i] = -1; /* column i not yet seen */
+            for (int j = 0; j < rows; j++) {
+                q = nz; /* row j will start at q */
+                for (int p = rowPointers[j]; p < rowPointers[j + 1]; p++) {
+                    i = columnIndexes[p]; /* A(i,j) is nonzero */
+                    if (w[i] >= q) {
+                        values[2 * w[i]] += values[2 * p]; /* A(i,j) is a duplicate */
+                        values[2 * w[i] + 1] += values[2 * p + 1];
+                    } else {
+                        w[i] = nz; /* record where column i occurs */
+                        columnIndexes[nz] = i; /* keep A(i,j) */
+                        values[2 * nz] = values[2 * p];
+                        values[2 * nz + 1] = values[2 * p + 1];
+                        nz++;
+                    }
                 }
+                rowPointers[j] = q; /* record start of row j */
             }
-            rowPointers[j] = q; /* record start of row j */
+            rowPointers[rows] = nz; /* finalize A */
         }
-        rowPointers[rows] = nz; /* finalize A */
     }
 
     /**
@@ -1196,4 +1243,47 @@ public class SparseRCFComplexMatrix2D extends WrapperFComplexMatrix2D {
         values = valuesList.elements();
     }
 
+    private static void scatter(final int[] dest, final float[] src, final float[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        int q = dest[p];
+                        dst[2 * q] = src[2 * p];
+                        dst[2 * q + 1] = src[2 * p + 1];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
+    private static void sumDuplicates(final int[] pointers, final int[] indexes, final float[] values,
+            final int nouter, final int[] target, final int[] indexesNew, final float[] valuesNew) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            int q = target[p];
+                            indexesNew[q] = indexes[p];
+                            valuesNew[2 * q] += values[2 * p];
+                            valuesNew[2 * q + 1] += values[2 * p + 1];
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
@@ -14,6 +14,7 @@ import java.util.concurrent.Future;
 
 import cern.colt.list.tfloat.FloatArrayList;
 import cern.colt.list.tint.IntArrayList;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.AbstractMatrix3D;
 import cern.jet.math.tfloat.FloatFunctions;
 import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
@@ -2007,7 +2008,7 @@ public abstract class FloatMatrix3D extends AbstractMatrix3D {
                 a020 = getQuick(k - 1, i + 1, 0);
                 a021 = getQuick(k - 1, i + 1, 1);
 
-                a100 = getQuick(k - 1, i - 1, 0);
+                a100 = getQuick(k, i - 1, 0);
                 a101 = getQuick(k, i - 1, 1);
                 a110 = getQuick(k, i, 0);
                 a111 = getQuick(k, i, 1);
@@ -2069,6 +2070,346 @@ public abstract class FloatMatrix3D extends AbstractMatrix3D {
         }
     }
 
+    /**
+     * 27 neighbor stencil transformation with boundary handling. Applies a
+     * function to a moving <tt>3 x 3 x 3</tt> window just like
+     * {@link #zAssign27Neighbors(FloatMatrix3D, cern.colt.function.tfloat.Float27Function)}
+     * , but also computes the border cells of <tt>B</tt>. Neighbors lying
+     * outside of this matrix are obtained according to <tt>boundary</tt>; with
+     * {@link Boundary#Skip} the border cells of <tt>B</tt> are left untouched.
+     * <p>
+     * The work is split into bands of slices that are processed concurrently.
+     * Make sure that cells of <tt>this</tt> and <tt>B</tt> do not overlap.
+     * 
+     * @param B
+     *            the matrix to hold the results.
+     * @param function
+     *            the function to be applied to the 27 cells.
+     * @param boundary
+     *            the boundary handling mode.
+     * @param constant
+     *            the value of neighbors outside of this matrix if
+     *            <tt>boundary == Boundary.Constant</tt>; ignored otherwise.
+     * @throws NullPointerException
+     *             if <tt>function==null || boundary==null</tt>.
+     * @throws IllegalArgumentException
+     *             if
+     *             <tt>rows() != B.rows() || columns() != B.columns() || slices() != B.slices() </tt>
+     *             .
+     */
+    public void zAssign27Neighbors(final FloatMatrix3D B, final cern.colt.function.tfloat.Float27Function function,
+            final Boundary boundary, final float constant) {
+        if (function == null)
+            throw new NullPointerException("function must not be null.");
+        if (boundary == null)
+            throw new NullPointerException("boundary must not be null.");
+        checkShape(B);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        zAssign27NeighborsSlices(B, function, boundary, constant, firstSlice, lastSlice);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            zAssign27NeighborsSlices(B, function, boundary, constant, 0, slices);
+        }
+    }
+
+    private void zAssign27NeighborsSlices(FloatMatrix3D B, cern.colt.function.tfloat.Float27Function function,
+            Boundary boundary, float constant, int firstSlice, int lastSlice) {
+        for (int k = firstSlice; k < lastSlice; k++) {
+            boolean borderSlice = (k == 0 || k == slices - 1);
+            for (int i = 0; i < rows; i++) {
+                boolean borderRow = borderSlice || i == 0 || i == rows - 1;
+                for (int j = 0; j < columns; j++) {
+                    if (boundary == Boundary.Skip && (borderRow || j == 0 || j == columns - 1))
+                        continue;
+                    B.setQuick(k, i, j, apply27Neighbors(k, i, j, function, boundary, constant));
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a 27 neighbor stencil function to the <tt>3 x 3 x 3</tt> window
+     * centered at the given cell, obtaining neighbors outside of this matrix
+     * according to <tt>boundary</tt>.
+     * 
+     * @param slice
+     *            the index of the slice of the center cell.
+     * @param row
+     *            the index of the row of the center cell.
+     * @param column
+     *            the index of the column of the center cell.
+     * @param function
+     *            the function to be applied to the 27 cells.
+     * @param boundary
+     *            the boundary handling mode.
+     * @param constant
+     *            the value of neighbors outside of this matrix if
+     *            <tt>boundary == Boundary.Constant</tt>.
+     * @return the value of the function.
+     */
+    protected float apply27Neighbors(int slice, int row, int column,
+            cern.colt.function.tfloat.Float27Function function, Boundary boundary, float constant) {
+        return function.apply(getNeighborQuick(slice - 1, row - 1, column - 1, boundary, constant),
+                getNeighborQuick(slice - 1, row - 1, column, boundary, constant),
+                getNeighborQuick(slice - 1, row - 1, column + 1, boundary, constant),
+                getNeighborQuick(slice - 1, row, column - 1, boundary, constant),
+                getNeighborQuick(slice - 1, row, column, boundary, constant),
+                getNeighborQuick(slice - 1, row, column + 1, boundary, constant),
+                getNeighborQuick(slice - 1, row + 1, column - 1, boundary, constant),
+                getNeighborQuick(slice - 1, row + 1, column, boundary, constant),
+                getNeighborQuick(slice - 1, row + 1, column + 1, boundary, constant),
+                getNeighborQuick(slice, row - 1, column - 1, boundary, constant),
+                getNeighborQuick(slice, row - 1, column, boundary, constant),
+                getNeighborQuick(slice, row - 1, column + 1, boundary, constant),
+                getNeighborQuick(slice, row, column - 1, boundary, constant),
+                getNeighborQuick(slice, row, column, boundary, constant),
+                getNeighborQuick(slice, row, column + 1, boundary, constant),
+                getNeighborQuick(slice, row + 1, column - 1, boundary, constant),
+                getNeighborQuick(slice, row + 1, column, boundary, constant),
+                getNeighborQuick(slice, row + 1, column + 1, boundary, constant),
+                getNeighborQuick(slice + 1, row - 1, column - 1, boundary, constant),
+                getNeighborQuick(slice + 1, row - 1, column, boundary, constant),
+                getNeighborQuick(slice + 1, row - 1, column + 1, boundary, constant),
+                getNeighborQuick(slice + 1, row, column - 1, boundary, constant),
+                getNeighborQuick(slice + 1, row, column, boundary, constant),
+                getNeighborQuick(slice + 1, row, column + 1, boundary, constant),
+                getNeighborQuick(slice + 1, row + 1, column - 1, boundary, constant),
+                getNeighborQuick(slice + 1, row + 1, column, boundary, constant),
+                getNeighborQuick(slice + 1, row + 1, column + 1, boundary, constant));
+    }
+
+    /**
+     * Returns the matrix cell value at coordinate <tt>[slice,row,column]</tt>,
+     * where the coordinate may lie outside of this matrix. Out of range
+     * coordinates are resolved according to <tt>boundary</tt>.
+     * 
+     * @param slice
+     *            the index of the slice-coordinate.
+     * @param row
+     *            the index of the row-coordinate.
+     * @param column
+     *            the index of the column-coordinate.
+     * @param boundary
+     *            the boundary handling mode.
+     * @param constant
+     *            the value returned for coordinates outside of this matrix if
+     *            <tt>boundary</tt> does not map them onto a cell.
+     * @return the value at the specified coordinate.
+     */
+    protected float getNeighborQuick(int slice, int row, int column, Boundary boundary, float constant) {
+        int s = boundary.map(slice, slices);
+        int r = boundary.map(row, rows);
+        int c = boundary.map(column, columns);
+        if (s < 0 || r < 0 || c < 0)
+            return constant;
+        return getQuick(s, r, c);
+    }
+
+    /**
+     * Tensor-matrix product along the given axis;
+     * <tt>C = alpha * A x<sub>axis</sub> B + beta*C</tt>. Contracts the given
+     * axis of this matrix with the rows of <tt>B</tt>. For <tt>axis == 2</tt>:
+     * <tt>C[s,r,j] = alpha*Sum(A[s,r,k] * B[k,j]) + beta*C[s,r,j], k=0..n-1</tt>
+     * , i.e. every slice is multiplied from the right by <tt>B</tt>; the other
+     * axes work analogously. <br>
+     * Matrix shapes for <tt>axis == 1</tt>:
+     * <tt>A(slices x n x columns), B(n x p), C(slices x p x columns)</tt>. <br>
+     * Note: Matrix shape conformance is checked <i>after</i> potential
+     * transposition.
+     * 
+     * @param axis
+     *            the axis to contract (legal values 0..2).
+     * @param B
+     *            the matrix.
+     * @param C
+     *            the matrix where results are to be stored. Set this parameter
+     *            to <tt>null</tt> to indicate that a new result matrix shall be
+     *            constructed.
+     * @param alpha
+     *            scaling factor of the product.
+     * @param beta
+     *            scaling factor of <tt>C</tt>.
+     * @param transposeB
+     *            whether <tt>B</tt> must be transposed.
+     * @return C (for convenience only).
+     * 
+     * @throws IllegalArgumentException
+     *             if <tt>axis</tt> is not in range 0..2.
+     * @throws IllegalArgumentException
+     *             if the extent of <tt>axis</tt> is not equal to
+     *             <tt>B.rows()</tt>.
+     * @throws IllegalArgumentException
+     *             if <tt>C</tt> has an incompatible shape.
+     * @throws IllegalArgumentException
+     *             if <tt>A == C</tt>.
+     */
+    public FloatMatrix3D zContract(int axis, FloatMatrix2D B, FloatMatrix3D C, float alpha, float beta,
+            boolean transposeB) {
+        int n = transposeB ? B.columns() : B.rows();
+        int p = transposeB ? B.rows() : B.columns();
+        int[] shape = shape();
+        if (axis < 0 || axis > 2)
+            throw new IllegalArgumentException("Illegal axis: " + axis);
+        if (shape[axis] != n)
+            throw new IllegalArgumentException("Matrix inner dimensions must agree:" + toStringShort() + ", "
+                    + B.toStringShort());
+        if (C == null) {
+            shape[axis] = p;
+            C = like(shape[0], shape[1], shape[2]);
+        }
+        if (this == C)
+            throw new IllegalArgumentException("Matrices must not be identical");
+        switch (axis) {
+        case 0:
+            viewDice(1, 2, 0).zMult(B, C.viewDice(1, 2, 0), alpha, beta, false, transposeB);
+            break;
+        case 1:
+            viewDice(0, 2, 1).zMult(B, C.viewDice(0, 2, 1), alpha, beta, false, transposeB);
+            break;
+        default:
+            zMult(B, C, alpha, beta, false, transposeB);
+        }
+        return C;
+    }
+
+    /**
+     * Slice-wise matrix-matrix multiplication; <tt>C[s] = A[s] x B</tt>;
+     * Equivalent to <tt>A.zMult(B,C,1,0,false,false)</tt>.
+     */
+    public FloatMatrix3D zMult(FloatMatrix2D B, FloatMatrix3D C) {
+        return zMult(B, C, 1, 0, false, false);
+    }
+
+    /**
+     * Slice-wise matrix-matrix multiplication (batched GEMM); every slice of
+     * this matrix is multiplied by the same matrix <tt>B</tt>.
+     * <tt>C[s] = alpha * A[s] x B + beta*C[s]</tt>.
+     * <tt>C[s,i,j] = alpha*Sum(A[s,i,k] * B[k,j]) + beta*C[s,i,j], k=0..n-1</tt>
+     * . <br>
+     * Matrix shapes: <tt>A(slices x m x n), B(n x p), C(slices x m x p)</tt>. <br>
+     * Note: Matrix shape conformance is checked <i>after</i> potential
+     * transpositions.
+     * 
+     * @param B
+     *            the second source matrix.
+     * @param C
+     *            the matrix where results are to be stored. Set this parameter
+     *            to <tt>null</tt> to indicate that a new result matrix shall be
+     *            constructed.
+     * @param alpha
+     *            scaling factor of the product.
+     * @param beta
+     *            scaling factor of <tt>C</tt>.
+     * @param transposeA
+     *            whether the slices of <tt>A</tt> must be transposed.
+     * @param transposeB
+     *            whether <tt>B</tt> must be transposed.
+     * @return C (for convenience only).
+     * 
+     * @throws IllegalArgumentException
+     *             if <tt>B.rows() != A.columns()</tt>.
+     * @throws IllegalArgumentException
+     *             if
+     *             <tt>C.slices() != A.slices() || C.rows() != A.rows() || C.columns() != B.columns()</tt>
+     *             .
+     * @throws IllegalArgumentException
+     *             if <tt>A == C</tt>.
+     */
+    public FloatMatrix3D zMult(FloatMatrix2D B, FloatMatrix3D C, float alpha, float beta, boolean transposeA,
+            boolean transposeB) {
+        if (this == C)
+            throw new IllegalArgumentException("Matrices must not be identical");
+        if (transposeA)
+            return viewDice(0, 2, 1).zMult(B, C, alpha, beta, false, transposeB);
+        int p = transposeB ? B.rows() : B.columns();
+        if (C == null) {
+            C = like(slices, rows, p);
+        }
+        checkMult(columns, transposeB ? B.columns() : B.rows(), C, rows, p, B.toStringShort());
+        for (int s = 0; s < slices; s++) {
+            viewSlice(s).zMult(B, C.viewSlice(s), alpha, beta, false, transposeB);
+        }
+        return C;
+    }
+
+    /**
+     * Slice-by-slice matrix-matrix multiplication; <tt>C[s] = A[s] x B[s]</tt>;
+     * Equivalent to <tt>A.zMult(B,C,1,0,false,false)</tt>.
+     */
+    public FloatMatrix3D zMult(FloatMatrix3D B, FloatMatrix3D C) {
+        return zMult(B, C, 1, 0, false, false);
+    }
+
+    /**
+     * Slice-by-slice matrix-matrix multiplication (batched GEMM); every slice
+     * of this matrix is multiplied by the corresponding slice of <tt>B</tt>.
+     * <tt>C[s] = alpha * A[s] x B[s] + beta*C[s]</tt>.
+     * <tt>C[s,i,j] = alpha*Sum(A[s,i,k] * B[s,k,j]) + beta*C[s,i,j], k=0..n-1</tt>
+     * . <br>
+     * Matrix shapes:
+     * <tt>A(slices x m x n), B(slices x n x p), C(slices x m x p)</tt>. <br>
+     * Note: Matrix shape conformance is checked <i>after</i> potential
+     * transpositions.
+     * 
+     * @param B
+     *            the second source matrix.
+     * @param C
+     *            the matrix where results are to be stored. Set this parameter
+     *            to <tt>null</tt> to indicate that a new result matrix shall be
+     *            constructed.
+     * @param alpha
+     *            scaling factor of the product.
+     * @param beta
+     *            scaling factor of <tt>C</tt>.
+     * @param transposeA
+     *            whether the slices of <tt>A</tt> must be transposed.
+     * @param transposeB
+     *            whether the slices of <tt>B</tt> must be transposed.
+     * @return C (for convenience only).
+     * 
+     * @throws IllegalArgumentException
+     *             if
+     *             <tt>B.slices() != A.slices() || B.rows() != A.columns()</tt>.
+     * @throws IllegalArgumentException
+     *             if
+     *             <tt>C.slices() != A.slices() || C.rows() != A.rows() || C.columns() != B.columns()</tt>
+     *             .
+     * @throws IllegalArgumentException
+     *             if <tt>A == C || B == C</tt>.
+     */
+    public FloatMatrix3D zMult(FloatMatrix3D B, FloatMatrix3D C, float alpha, float beta, boolean transposeA,
+            boolean transposeB) {
+        if (this == C || B == C)
+            throw new IllegalArgumentException("Matrices must not be identical");
+        if (transposeA)
+            return viewDice(0, 2, 1).zMult(B, C, alpha, beta, false, transposeB);
+        if (transposeB)
+            return zMult(B.viewDice(0, 2, 1), C, alpha, beta, false, false);
+        if (B.slices != slices)
+            throw new IllegalArgumentException("Incompatible number of slices: " + toStringShort() + ", "
+                    + B.toStringShort());
+        if (C == null) {
+            C = like(slices, rows, B.columns);
+        }
+        checkMult(columns, B.rows, C, rows, B.columns, B.toStringShort());
+        for (int s = 0; s < slices; s++) {
+            viewSlice(s).zMult(B.viewSlice(s), C.viewSlice(s), alpha, beta, false, false);
+        }
+        return C;
+    }
+
     /**
      * Returns the sum of all cells; <tt>Sum( x[i,j,k] )</tt>.
      * 
@@ -2080,6 +2421,19 @@ public abstract class FloatMatrix3D extends AbstractMatrix3D {
         return aggregate(cern.jet.math.tfloat.FloatFunctions.plus, cern.jet.math.tfloat.FloatFunctions.identity);
     }
 
+    /**
+     * Checks the shapes of the operands of the slice-wise multiplication.
+     */
+    protected void checkMult(int n, int rowsB, FloatMatrix3D C, int m, int p, String B) {
+        if (rowsB != n)
+            throw new IllegalArgumentException("Matrix inner dimensions must agree:" + toStringShort() + ", " + B);
+        if (C.slices != slices || C.rows != m || C.columns != p)
+            throw new IllegalArgumentException("Incompatible result matrix: " + toStringShort() + ", " + B + ", "
+                    + C.toStringShort());
+        if (this == C)
+            throw new IllegalArgumentException("Matrices must not be identical");
+    }
+
     /**
      * Returns the content of this matrix if it is a wrapper; or <tt>this</tt>
      * otherwise. Override this method in wrappers.
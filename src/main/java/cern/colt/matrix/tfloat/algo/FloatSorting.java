@@ -8,6 +8,8 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tfloat.algo;
 
+import java.util.concurrent.Future;
+
 import cern.colt.function.tint.IntComparator;
 import cern.colt.matrix.AbstractFormatter;
 import cern.colt.matrix.tfloat.FloatFactory2D;
@@ -16,6 +18,7 @@ import cern.colt.matrix.tfloat.FloatMatrix1D;
 import cern.colt.matrix.tfloat.FloatMatrix2D;
 import cern.colt.matrix.tfloat.FloatMatrix3D;
 import cern.colt.matrix.tfloat.impl.DenseFloatMatrix1D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Matrix quicksorts and mergesorts. Use idioms like
@@ -85,6 +88,39 @@ public class FloatSorting extends cern.colt.PersistentObject {
     protected FloatSorting() {
     }
 
+    /**
+     * Copies the elements of the vector into a new dense array, in the order
+     * given by <tt>indexes</tt>, or in natural order if <tt>indexes</tt> is
+     * null.
+     */
+    private static float[] gather(final FloatMatrix1D vector, final int[] indexes) {
+        final int size = (int) vector.size();
+        final float[] keys = new float[size];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, size);
+            Future<?>[] futures = new Future[nthreads];
+            int k = size / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? size : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int i = firstIdx; i < lastIdx; i++) {
+                            keys[i] = vector.getQuick(indexes == null ? i : indexes[i]);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int i = 0; i < size; i++) {
+                keys[i] = vector.getQuick(indexes == null ? i : indexes[i]);
+            }
+        }
+        return keys;
+    }
+
     /**
      * Compare two values, one of which is assumed to be Float.NaN
      */
@@ -138,47 +174,28 @@ public class FloatSorting extends cern.colt.PersistentObject {
     }
 
     /**
-     * Sorts indexes of the <code>vector</code> into ascending order.
+     * Sorts indexes of the <code>vector</code> into ascending order. The
+     * values are first gathered into a dense array, which is then sorted by
+     * the multithreaded radix argsort
+     * {@link cern.colt.Sorting#parallelRadixSortIndexes(float[],int,int)}. The
+     * sort is stable. NaNs are placed at the end.
+     * <p>
+     * The radix argsort is used by every instance, so <tt>quickSort</tt> and
+     * <tt>mergeSort</tt> give the same result here, and overriding
+     * <tt>runSort</tt> has no effect on this method. The same holds for
+     * {@link #sort(FloatMatrix1D)}, {@link #sort(FloatMatrix2D,int)} and
+     * {@link #sortByColumns(FloatMatrix2D,int[])}, which are built on it. Pass a
+     * comparator to sort with <tt>runSort</tt>.
+     * <p>
+     * Values are ordered as by {@link Float#compare(float,float)}, so
+     * <tt>-0.0</tt> is placed before <tt>0.0</tt>. A comparator written with
+     * <tt>&lt;</tt> and <tt>==</tt> would treat them as equal.
      * 
      * @param vector
      * @return sorted indexes
      */
     public int[] sortIndex(final FloatMatrix1D vector) {
-        int[] indexes = new int[(int) vector.size()]; // row indexes to reorder
-        // instead of matrix itself
-        for (int i = indexes.length; --i >= 0;)
-            indexes[i] = i;
-        IntComparator comp = null;
-        if (vector instanceof DenseFloatMatrix1D) {
-            final float[] velems = (float[]) vector.elements();
-            final int zero = (int) vector.index(0);
-            final int stride = vector.stride();
-            comp = new IntComparator() {
-                public int compare(int a, int b) {
-                    int idxa = zero + a * stride;
-                    int idxb = zero + b * stride;
-                    float av = velems[idxa];
-                    float bv = velems[idxb];
-                    if (av != av || bv != bv)
-                        return compareNaN(av, bv); // swap NaNs to the end
-                    return av < bv ? -1 : (av == bv ? 0 : 1);
-                }
-            };
-        } else {
-            comp = new IntComparator() {
-                public int compare(int a, int b) {
-                    float av = vector.getQuick(a);
-                    float bv = vector.getQuick(b);
-                    if (av != av || bv != bv)
-                        return compareNaN(av, bv); // swap NaNs to the end
-                    return av < bv ? -1 : (av == bv ? 0 : 1);
-                }
-            };
-        }
-
-        runSort(indexes, 0, indexes.length, comp);
-
-        return indexes;
+        return cern.colt.Sorting.parallelRadixSortIndexes(gather(vector, null), 0, (int) vector.size());
     }
 
     /**
@@ -449,29 +466,64 @@ public class FloatSorting extends cern.colt.PersistentObject {
         if (column < 0 || column >= matrix.columns())
             throw new IndexOutOfBoundsException("column=" + column + ", matrix=" + AbstractFormatter.shape(matrix));
 
-        int[] rowIndexes = new int[matrix.rows()]; // row indexes to reorder
-        // instead of matrix itself
-        for (int i = rowIndexes.length; --i >= 0;)
-            rowIndexes[i] = i;
-
-        final FloatMatrix1D col = matrix.viewColumn(column);
-        IntComparator comp = new IntComparator() {
-            public int compare(int a, int b) {
-                float av = col.getQuick(a);
-                float bv = col.getQuick(b);
-                if (av != av || bv != bv)
-                    return compareNaN(av, bv); // swap NaNs to the end
-                return av < bv ? -1 : (av == bv ? 0 : 1);
-            }
-        };
-
-        runSort(rowIndexes, 0, rowIndexes.length, comp);
+        // gather the column once and argsort the dense copy; the row indexes
+        // are reordered instead of the matrix itself
+        int[] rowIndexes = sortIndex(matrix.viewColumn(column));
 
         // view the matrix according to the reordered row indexes
         // take all columns in the original order
         return matrix.viewSelection(rowIndexes, null);
     }
 
+    /**
+     * Sorts the matrix rows into ascending lexicographic order of the values in
+     * the given columns: rows are ordered by the first column, ties are broken
+     * by the second column, and so on. The returned view is backed by this
+     * matrix, so changes in the returned view are reflected in this matrix,
+     * and vice-versa.
+     * <p>
+     * The rows are sorted by the last column first and then, stably, by each
+     * preceding column, using the multithreaded radix argsort of
+     * {@link cern.colt.Sorting}. Each pass gathers one column into a dense
+     * array; the matrix itself is never copied.
+     * 
+     * @param matrix
+     *            the matrix to be sorted.
+     * @param columns
+     *            the indexes of the columns inducing the order, most
+     *            significant first.
+     * @return a new matrix view having rows sorted by the given columns.
+     *         <b>Note that the original matrix is left unaffected.</b>
+     * @throws IndexOutOfBoundsException
+     *             if <tt>columns[i] < 0 || columns[i] >= matrix.columns()</tt>
+     *             for any <tt>i</tt>.
+     */
+    public FloatMatrix2D sortByColumns(FloatMatrix2D matrix, int[] columns) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] < 0 || columns[i] >= matrix.columns())
+                throw new IndexOutOfBoundsException("column=" + columns[i] + ", matrix="
+                        + AbstractFormatter.shape(matrix));
+        }
+        int rows = matrix.rows();
+        int[] rowIndexes = null;
+        for (int i = columns.length; --i >= 0;) {
+            float[] keys = gather(matrix.viewColumn(columns[i]), rowIndexes);
+            int[] perm = cern.colt.Sorting.parallelRadixSortIndexes(keys, 0, rows);
+            if (rowIndexes != null) {
+                for (int r = 0; r < rows; r++) {
+                    perm[r] = rowIndexes[perm[r]];
+                }
+            }
+            rowIndexes = perm;
+        }
+        if (rowIndexes == null) {
+            rowIndexes = new int[rows];
+            for (int r = rows; --r >= 0;)
+                rowIndexes[r] = r;
+        }
+        return matrix.viewSelection(rowIndexes, null);
+    }
+
     /**
      * Sorts the matrix rows according to the order induced by the specified
      * comparator. The returned view is backed by this matrix, so changes in the
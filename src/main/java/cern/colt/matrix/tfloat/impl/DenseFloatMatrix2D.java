@@ -15,6 +15,7 @@ import java.util.concurrent.Future;
 
 import cern.colt.list.tfloat.FloatArrayList;
 import cern.colt.list.tint.IntArrayList;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.io.MatrixInfo;
 import cern.colt.matrix.io.MatrixSize;
 import cern.colt.matrix.io.MatrixVectorReader;
@@ -2518,6 +2519,11 @@ public class DenseFloatMatrix2D extends FloatMatrix2D {
     }
 
     public void zAssign8Neighbors(FloatMatrix2D B, cern.colt.function.tfloat.Float9Function function) {
+        zAssign8Neighbors(B, function, Boundary.Skip, 0);
+    }
+
+    public void zAssign8Neighbors(FloatMatrix2D B, final cern.colt.function.tfloat.Float9Function function,
+            final Boundary boundary, final float constant) {
         // 1. using only 4-5 out of the 9 cells in "function" is *not* the
         // limiting factor for performance.
 
@@ -2526,74 +2532,116 @@ public class DenseFloatMatrix2D extends FloatMatrix2D {
         // but then the multi-purpose interface is gone...
 
         if (!(B instanceof DenseFloatMatrix2D)) {
-            super.zAssign8Neighbors(B, function);
+            super.zAssign8Neighbors(B, function, boundary, constant);
             return;
         }
         if (function == null)
             throw new NullPointerException("function must not be null.");
+        if (boundary == null)
+            throw new NullPointerException("boundary must not be null.");
         checkShape(B);
+        final DenseFloatMatrix2D BB = (DenseFloatMatrix2D) B;
+        if (this.elements == null || BB.elements == null)
+            throw new InternalError();
+
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            nthreads = Math.min(nthreads, rows);
+            Future<?>[] futures = new Future[nthreads];
+            int k = rows / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstRow = j * k;
+                final int lastRow = (j == nthreads - 1) ? rows : firstRow + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        zAssign8NeighborsRows(BB, function, boundary, constant, firstRow, lastRow);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            zAssign8NeighborsRows(BB, function, boundary, constant, 0, rows);
+        }
+    }
+
+    private void zAssign8NeighborsRows(DenseFloatMatrix2D BB, cern.colt.function.tfloat.Float9Function function,
+            Boundary boundary, float constant, int firstRow, int lastRow) {
         int r = rows - 1;
         int c = columns - 1;
-        if (rows < 3 || columns < 3)
-            return; // nothing to do
-
-        DenseFloatMatrix2D BB = (DenseFloatMatrix2D) B;
         int A_rs = rowStride;
         int B_rs = BB.rowStride;
         int A_cs = columnStride;
         int B_cs = BB.columnStride;
         float[] elems = this.elements;
         float[] B_elems = BB.elements;
-        if (elems == null || B_elems == null)
-            throw new InternalError();
 
-        int A_index = (int) index(1, 1);
-        int B_index = (int) BB.index(1, 1);
-        for (int i = 1; i < r; i++) {
-            float a00, a01, a02;
-            float a10, a11, a12;
-            float a20, a21, a22;
-
-            int B11 = B_index;
-
-            int A02 = A_index - A_rs - A_cs;
-            int A12 = A02 + A_rs;
-            int A22 = A12 + A_rs;
-
-            // in each step six cells can be remembered in registers - they
-            // don't need to be reread from slow memory
-            a00 = elems[A02];
-            A02 += A_cs;
-            a01 = elems[A02]; // A02+=A_cs;
-            a10 = elems[A12];
-            A12 += A_cs;
-            a11 = elems[A12]; // A12+=A_cs;
-            a20 = elems[A22];
-            A22 += A_cs;
-            a21 = elems[A22]; // A22+=A_cs;
-
-            for (int j = 1; j < c; j++) {
-                // in each step 3 instead of 9 cells need to be read from
-                // memory.
-                a02 = elems[A02 += A_cs];
-                a12 = elems[A12 += A_cs];
-                a22 = elems[A22 += A_cs];
-
-                B_elems[B11] = function.apply(a00, a01, a02, a10, a11, a12, a20, a21, a22);
-                B11 += B_cs;
-
-                // move remembered cells
-                a00 = a01;
-                a01 = a02;
-                a10 = a11;
-                a11 = a12;
-                a20 = a21;
-                a21 = a22;
-            }
-            A_index += A_rs;
-            B_index += B_rs;
+        // interior cells
+        int startRow = Math.max(firstRow, 1);
+        int endRow = Math.min(lastRow, r);
+        if (columns >= 3 && startRow < endRow) {
+            int A_index = (int) index(startRow, 1);
+            int B_index = (int) BB.index(startRow, 1);
+            for (int i = startRow; i < endRow; i++) {
+                float a00, a01, a02;
+                float a10, a11, a12;
+                float a20, a21, a22;
+
+                int B11 = B_index;
+
+                int A02 = A_index - A_rs - A_cs;
+                int A12 = A02 + A_rs;
+                int A22 = A12 + A_rs;
+
+                // in each step six cells can be remembered in registers - they
+                // don't need to be reread from slow memory
+                a00 = elems[A02];
+                A02 += A_cs;
+                a01 = elems[A02]; // A02+=A_cs;
+                a10 = elems[A12];
+                A12 += A_cs;
+                a11 = elems[A12]; // A12+=A_cs;
+                a20 = elems[A22];
+                A22 += A_cs;
+                a21 = elems[A22]; // A22+=A_cs;
+
+                for (int j = 1; j < c; j++) {
+                    // in each step 3 instead of 9 cells need to be read from
+                    // memory.
+                    a02 = elems[A02 += A_cs];
+                    a12 = elems[A12 += A_cs];
+                    a22 = elems[A22 += A_cs];
+
+                    B_elems[B11] = function.apply(a00, a01, a02, a10, a11, a12, a20, a21, a22);
+                    B11 += B_cs;
+
+                    // move remembered cells
+                    a00 = a01;
+                    a01 = a02;
+                    a10 = a11;
+                    a11 = a12;
+                    a20 = a21;
+                    a21 = a22;
+                }
+                A_index += A_rs;
+                B_index += B_rs;
+            }
         }
 
+        // border cells
+        if (boundary == Boundary.Skip)
+            return;
+        for (int i = firstRow; i < lastRow; i++) {
+            if (i == 0 || i == r || columns < 3) {
+                int B_idx = (int) BB.index(i, 0);
+                for (int j = 0; j < columns; j++) {
+                    B_elems[B_idx] = apply8Neighbors(i, j, function, boundary, constant);
+                    B_idx += B_cs;
+                }
+            } else {
+                B_elems[(int) BB.index(i, 0)] = apply8Neighbors(i, 0, function, boundary, constant);
+                B_elems[(int) BB.index(i, c)] = apply8Neighbors(i, c, function, boundary, constant);
+            }
+        }
     }
 
     public FloatMatrix1D zMult(final FloatMatrix1D y, FloatMatrix1D z, final float alpha, final float beta,
@@ -14,6 +14,7 @@ import java.util.concurrent.Future;
 
 import cern.colt.list.tfloat.FloatArrayList;
 import cern.colt.list.tint.IntArrayList;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.tfcomplex.impl.DenseFComplexMatrix3D;
 import cern.colt.matrix.tfloat.FloatMatrix1D;
 import cern.colt.matrix.tfloat.FloatMatrix2D;
@@ -2051,20 +2052,50 @@ public class DenseFloatMatrix3D extends FloatMatrix3D {
     }
 
     public void zAssign27Neighbors(FloatMatrix3D B, cern.colt.function.tfloat.Float27Function function) {
+        zAssign27Neighbors(B, function, Boundary.Skip, 0);
+    }
+
+    public void zAssign27Neighbors(FloatMatrix3D B, final cern.colt.function.tfloat.Float27Function function,
+            final Boundary boundary, final float constant) {
         // overridden for performance only
         if (!(B instanceof DenseFloatMatrix3D)) {
-            super.zAssign27Neighbors(B, function);
+            super.zAssign27Neighbors(B, function, boundary, constant);
             return;
         }
         if (function == null)
             throw new NullPointerException("function must not be null.");
+        if (boundary == null)
+            throw new NullPointerException("boundary must not be null.");
         checkShape(B);
+        final DenseFloatMatrix3D BB = (DenseFloatMatrix3D) B;
+        if (this.elements == null || BB.elements == null)
+            throw new InternalError();
+
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        zAssign27NeighborsSlices(BB, function, boundary, constant, firstSlice, lastSlice);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            zAssign27NeighborsSlices(BB, function, boundary, constant, 0, slices);
+        }
+    }
+
+    private void zAssign27NeighborsSlices(DenseFloatMatrix3D BB,
+            cern.colt.function.tfloat.Float27Function function, Boundary boundary, float constant,
+            int firstSlice, int lastSlice) {
         int r = rows - 1;
         int c = columns - 1;
-        if (rows < 3 || columns < 3 || slices < 3)
-            return; // nothing to do
-
-        DenseFloatMatrix3D BB = (DenseFloatMatrix3D) B;
         int A_ss = sliceStride;
         int A_rs = rowStride;
         int B_rs = BB.rowStride;
@@ -2072,118 +2103,264 @@ public class DenseFloatMatrix3D extends FloatMatrix3D {
         int B_cs = BB.columnStride;
         float[] elems = this.elements;
         float[] B_elems = BB.elements;
-        if (elems == null || B_elems == null)
-            throw new InternalError();
 
-        for (int k = 1; k < slices - 1; k++) {
-            int A_index = (int) index(k, 1, 1);
-            int B_index = (int) BB.index(k, 1, 1);
-
-            for (int i = 1; i < r; i++) {
-                int A002 = A_index - A_ss - A_rs - A_cs;
-                int A012 = A002 + A_rs;
-                int A022 = A012 + A_rs;
-
-                int A102 = A002 + A_ss;
-                int A112 = A102 + A_rs;
-                int A122 = A112 + A_rs;
-
-                int A202 = A102 + A_ss;
-                int A212 = A202 + A_rs;
-                int A222 = A212 + A_rs;
-
-                float a000, a001, a002;
-                float a010, a011, a012;
-                float a020, a021, a022;
-
-                float a100, a101, a102;
-                float a110, a111, a112;
-                float a120, a121, a122;
-
-                float a200, a201, a202;
-                float a210, a211, a212;
-                float a220, a221, a222;
-
-                a000 = elems[A002];
-                A002 += A_cs;
-                a001 = elems[A002];
-                a010 = elems[A012];
-                A012 += A_cs;
-                a011 = elems[A012];
-                a020 = elems[A022];
-                A022 += A_cs;
-                a021 = elems[A022];
-
-                a100 = elems[A102];
-                A102 += A_cs;
-                a101 = elems[A102];
-                a110 = elems[A112];
-                A112 += A_cs;
-                a111 = elems[A112];
-                a120 = elems[A122];
-                A122 += A_cs;
-                a121 = elems[A122];
-
-                a200 = elems[A202];
-                A202 += A_cs;
-                a201 = elems[A202];
-                a210 = elems[A212];
-                A212 += A_cs;
-                a211 = elems[A212];
-                a220 = elems[A222];
-                A222 += A_cs;
-                a221 = elems[A222];
-
-                int B11 = B_index;
-                for (int j = 1; j < c; j++) {
-                    // in each step 18 cells can be remembered in registers -
-                    // they don't need to be reread from slow memory
-                    // in each step 9 instead of 27 cells need to be read from
-                    // memory.
-                    a002 = elems[A002 += A_cs];
-                    a012 = elems[A012 += A_cs];
-                    a022 = elems[A022 += A_cs];
-
-                    a102 = elems[A102 += A_cs];
-                    a112 = elems[A112 += A_cs];
-                    a122 = elems[A122 += A_cs];
-
-                    a202 = elems[A202 += A_cs];
-                    a212 = elems[A212 += A_cs];
-                    a222 = elems[A222 += A_cs];
-
-                    B_elems[B11] = function.apply(a000, a001, a002, a010, a011, a012, a020, a021, a022,
-
-                    a100, a101, a102, a110, a111, a112, a120, a121, a122,
-
-                    a200, a201, a202, a210, a211, a212, a220, a221, a222);
-                    B11 += B_cs;
-
-                    // move remembered cells
-                    a000 = a001;
-                    a001 = a002;
-                    a010 = a011;
-                    a011 = a012;
-                    a020 = a021;
-                    a021 = a022;
-
-                    a100 = a101;
-                    a101 = a102;
-                    a110 = a111;
-                    a111 = a112;
-                    a120 = a121;
-                    a121 = a122;
-
-                    a200 = a201;
-                    a201 = a202;
-                    a210 = a211;
-                    a211 = a212;
-                    a220 = a221;
-                    a221 = a222;
+        // interior cells
+        int startSlice = Math.max(firstSlice, 1);
+        int endSlice = Math.min(lastSlice, slices - 1);
+        if (rows >= 3 && columns >= 3) {
+            for (int k = startSlice; k < endSlice; k++) {
+                int A_index = (int) index(k, 1, 1);
+                int B_index = (int) BB.index(k, 1, 1);
+
+                for (int i = 1; i < r; i++) {
+                    int A002 = A_index - A_ss - A_rs - A_cs;
+                    int A012 = A002 + A_rs;
+                    int A022 = A012 + A_rs;
+
+                    int A102 = A002 + A_ss;
+                    int A112 = A102 + A_rs;
+                    int A122 = A112 + A_rs;
+
+                    int A202 = A102 + A_ss;
+                    int A212 = A202 + A_rs;
+                    int A222 = A212 + A_rs;
+
+                    float a000, a001, a002;
+                    float a010, a011, a012;
+                    float a020, a021, a022;
+
+                    float a100, a101, a102;
+                    float a110, a111, a112;
+                    float a120, a121, a122;
+
+                    float a200, a201, a202;
+                    float a210, a211, a212;
+                    float a220, a221, a222;
+
+                    a000 = elems[A002];
+                    A002 += A_cs;
+                    a001 = elems[A002];
+                    a010 = elems[A012];
+                    A012 += A_cs;
+                    a011 = elems[A012];
+                    a020 = elems[A022];
+                    A022 += A_cs;
+                    a021 = elems[A022];
+
+                    a100 = elems[A102];
+                    A102 += A_cs;
+                    a101 = elems[A102];
+                    a110 = elems[A112];
+                    A112 += A_cs;
+                    a111 = elems[A112];
+                    a120 = elems[A122];
+                    A122 += A_cs;
+                    a121 = elems[A122];
+
+                    a200 = elems[A202];
+                    A202 += A_cs;
+                    a201 = elems[A202];
+                    a210 = elems[A212];
+                    A212 += A_cs;
+                    a211 = elems[A212];
+                    a220 = elems[A222];
+                    A222 += A_cs;
+                    a221 = elems[A222];
+
+                    int B11 = B_index;
+                    for (int j = 1; j < c; j++) {
+                        // in each step 18 cells can be remembered in registers -
+                        // they don't need to be reread from slow memory
+                        // in each step 9 instead of 27 cells need to be read from
+                        // memory.
+                        a002 = elems[A002 += A_cs];
+                        a012 = elems[A012 += A_cs];
+                        a022 = elems[A022 += A_cs];
+
+                        a102 = elems[A102 += A_cs];
+                        a112 = elems[A112 += A_cs];
+                        a122 = elems[A122 += A_cs];
+
+                        a202 = elems[A202 += A_cs];
+                        a212 = elems[A212 += A_cs];
+                        a222 = elems[A222 += A_cs];
+
+                        B_elems[B11] = function.apply(a000, a001, a002, a010, a011, a012, a020, a021, a022,
+
+                        a100, a101, a102, a110, a111, a112, a120, a121, a122,
+
+                        a200, a201, a202, a210, a211, a212, a220, a221, a222);
+                        B11 += B_cs;
+
+                        // move remembered cells
+                        a000 = a001;
+                        a001 = a002;
+                        a010 = a011;
+                        a011 = a012;
+                        a020 = a021;
+                        a021 = a022;
+
+                        a100 = a101;
+                        a101 = a102;
+                        a110 = a111;
+                        a111 = a112;
+                        a120 = a121;
+                        a121 = a122;
+
+                        a200 = a201;
+                        a201 = a202;
+                        a210 = a211;
+                        a211 = a212;
+                        a220 = a221;
+                        a221 = a222;
+                    }
+                    A_index += A_rs;
+                    B_index += B_rs;
+                }
+            }
+        }
+
+        // border cells
+        if (boundary == Boundary.Skip)
+            return;
+        for (int k = firstSlice; k < lastSlice; k++) {
+            for (int i = 0; i < rows; i++) {
+                if (k == 0 || k == slices - 1 || i == 0 || i == r || columns < 3) {
+                    int B_idx = (int) BB.index(k, i, 0);
+                    for (int j = 0; j < columns; j++) {
+                        B_elems[B_idx] = apply27Neighbors(k, i, j, function, boundary, constant);
+                        B_idx += B_cs;
+                    }
+                } else {
+                    B_elems[(int) BB.index(k, i, 0)] = apply27Neighbors(k, i, 0, function, boundary, constant);
+                    B_elems[(int) BB.index(k, i, c)] = apply27Neighbors(k, i, c, function, boundary, constant);
+                }
+            }
+        }
+    }
+
+    public FloatMatrix3D zMult(FloatMatrix2D B, FloatMatrix3D C, float alpha, float beta, boolean transposeA,
+            boolean transposeB) {
+        if (!(B instanceof DenseFloatMatrix2D) || (C != null && !(C instanceof DenseFloatMatrix3D)))
+            return super.zMult(B, C, alpha, beta, transposeA, transposeB);
+        int m = transposeA ? columns : rows;
+        int n = transposeA ? rows : columns;
+        int p = transposeB ? B.rows() : B.columns();
+        if (C == null) {
+            C = new DenseFloatMatrix3D(slices, m, p);
+        }
+        checkMult(n, transposeB ? B.columns() : B.rows(), C, m, p, B.toStringShort());
+        DenseFloatMatrix2D BB = (DenseFloatMatrix2D) B;
+        int rowStrideB = transposeB ? BB.columnStride() : BB.rowStride();
+        int columnStrideB = transposeB ? BB.rowStride() : BB.columnStride();
+        zMultSlices(B, BB.elements, (int) BB.index(0, 0), 0, rowStrideB, columnStrideB, (DenseFloatMatrix3D) C,
+                m, n, p, alpha, beta, transposeA, transposeB);
+        return C;
+    }
+
+    public FloatMatrix3D zMult(FloatMatrix3D B, FloatMatrix3D C, float alpha, float beta, boolean transposeA,
+            boolean transposeB) {
+        if (!(B instanceof DenseFloatMatrix3D) || (C != null && !(C instanceof DenseFloatMatrix3D)))
+            return super.zMult(B, C, alpha, beta, transposeA, transposeB);
+        int m = transposeA ? columns : rows;
+        int n = transposeA ? rows : columns;
+        int p = transposeB ? B.rows() : B.columns();
+        if (B.slices() != slices)
+            throw new IllegalArgumentException("Incompatible number of slices: " + toStringShort() + ", "
+                    + B.toStringShort());
+        if (C == null) {
+            C = new DenseFloatMatrix3D(slices, m, p);
+        }
+        checkMult(n, transposeB ? B.columns() : B.rows(), C, m, p, B.toStringShort());
+        if (B == C)
+            throw new IllegalArgumentException("Matrices must not be identical");
+        DenseFloatMatrix3D BB = (DenseFloatMatrix3D) B;
+        int rowStrideB = transposeB ? BB.columnStride : BB.rowStride;
+        int columnStrideB = transposeB ? BB.rowStride : BB.columnStride;
+        zMultSlices(B, BB.elements, (int) BB.index(0, 0, 0), BB.sliceStride, rowStrideB, columnStrideB,
+                (DenseFloatMatrix3D) C, m, n, p, alpha, beta, transposeA, transposeB);
+        return C;
+    }
+
+    /**
+     * Computes <tt>C[s] = alpha * op(A[s]) x op(B[s]) + beta*C[s]</tt> for all
+     * slices. Small products are distributed over the threads slice by slice;
+     * large products are computed one slice after another, each of them by
+     * the parallel 2D multiplication.
+     */
+    private void zMultSlices(final Object B, final float[] elementsB, final int zeroB, final int sliceStrideB,
+            final int rowStrideB, final int columnStrideB, final DenseFloatMatrix3D C, final int m, final int n,
+            final int p, final float alpha, final float beta, final boolean transposeA, boolean transposeB) {
+        long flops = 2L * m * n * p;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if (nthreads > 1 && flops >= 30000L * nthreads) {
+            // each slice is large enough to keep all threads busy
+            for (int s = 0; s < slices; s++) {
+                FloatMatrix2D BB = B instanceof FloatMatrix3D ? ((FloatMatrix3D) B).viewSlice(s)
+                        : (FloatMatrix2D) B;
+                viewSlice(s).zMult(BB, C.viewSlice(s), alpha, beta, transposeA, transposeB);
+            }
+            return;
+        }
+        final int rowStrideA = transposeA ? columnStride : rowStride;
+        final int columnStrideA = transposeA ? rowStride : columnStride;
+        if ((nthreads > 1) && (slices > 1) && (flops * slices >= 60000L)) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int s = firstSlice; s < lastSlice; s++) {
+                            zMultKernel(m, n, p, alpha, beta, elements, (int) index(s, 0, 0), rowStrideA,
+                                    columnStrideA, elementsB, zeroB + s * sliceStrideB, rowStrideB, columnStrideB,
+                                    C.elements, (int) C.index(s, 0, 0), C.rowStride, C.columnStride);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int s = 0; s < slices; s++) {
+                zMultKernel(m, n, p, alpha, beta, elements, (int) index(s, 0, 0), rowStrideA, columnStrideA,
+                        elementsB, zeroB + s * sliceStrideB, rowStrideB, columnStrideB, C.elements,
+                        (int) C.index(s, 0, 0), C.rowStride, C.columnStride);
+            }
+        }
+    }
+
+    /**
+     * Sequential <tt>C = alpha * A x B + beta*C</tt> on raw storage, where
+     * <tt>A(m x n), B(n x p), C(m x p)</tt> are given by their first element
+     * and strides.
+     */
+    private static void zMultKernel(int m, int n, int p, float alpha, float beta, float[] elementsA, int zeroA,
+            int rowStrideA, int columnStrideA, float[] elementsB, int zeroB, int rowStrideB, int columnStrideB,
+            float[] elementsC, int zeroC, int rowStrideC, int columnStrideC) {
+        int idxA = zeroA;
+        int idxC = zeroC;
+        for (int r = 0; r < m; r++) {
+            if (beta != 1) {
+                for (int c = 0, i = idxC; c < p; c++) {
+                    elementsC[i] *= beta;
+                    i += columnStrideC;
+                }
+            }
+            int idxB = zeroB;
+            for (int k = 0, i = idxA; k < n; k++) {
+                float a = alpha * elementsA[i];
+                for (int c = 0, ib = idxB, ic = idxC; c < p; c++) {
+                    elementsC[ic] += a * elementsB[ib];
+                    ib += columnStrideB;
+                    ic += columnStrideC;
                 }
-                A_index += A_rs;
-                B_index += B_rs;
+                i += columnStrideA;
+                idxB += rowStrideB;
             }
+            idxA += rowStrideA;
+            idxC += rowStrideC;
         }
     }
 
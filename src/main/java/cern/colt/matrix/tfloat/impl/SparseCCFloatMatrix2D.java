@@ -251,18 +251,24 @@ public class SparseCCFloatMatrix2D extends WrapperFloatMatrix2D {
 
         int nz = Math.max(rowIndexes.length, 1);
         scs = Scs_util.cs_spalloc(rows, columns, nz, true, false);
-        int[] w = new int[columns];
-        int[] Cp = scs.p;
-        int[] Ci = scs.i;
-        float[] Cx = scs.x;
-        for (int k = 0; k < nz; k++)
-            w[columnIndexes[k]]++;
-        Scs_cumsum.cs_cumsum(Cp, w, columns);
-        int p;
-        for (int k = 0; k < nz; k++) {
-            Ci[p = w[columnIndexes[k]]++] = rowIndexes[k];
-            if (Cx != null)
-                Cx[p] = value;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(columnIndexes, rowIndexes, nz, columns, scs.p, scs.i);
+            Arrays.fill(scs.x, value);
+        } else {
+            int[] w = new int[columns];
+            int[] Cp = scs.p;
+            int[] Ci = scs.i;
+            float[] Cx = scs.x;
+            for (int k = 0; k < nz; k++)
+                w[columnIndexes[k]]++;
+            Scs_cumsum.cs_cumsum(Cp, w, columns);
+            int p;
+            for (int k = 0; k < nz; k++) {
+                Ci[p = w[columnIndexes[k]]++] = rowIndexes[k];
+                if (Cx != null)
+                    Cx[p] = value;
+            }
         }
         if (removeDuplicates) {
             if (!Scs_dupl.cs_dupl(scs)) { //remove duplicates
@@ -317,18 +323,24 @@ public class SparseCCFloatMatrix2D extends WrapperFloatMatrix2D {
         }
         int nz = Math.max(rowIndexes.length, 1);
         scs = Scs_util.cs_spalloc(rows, columns, nz, true, false);
-        int[] w = new int[columns];
-        int[] Cp = scs.p;
-        int[] Ci = scs.i;
-        float[] Cx = scs.x;
-        for (int k = 0; k < nz; k++)
-            w[columnIndexes[k]]++;
-        Scs_cumsum.cs_cumsum(Cp, w, columns);
-        int p;
-        for (int k = 0; k < nz; k++) {
-            Ci[p = w[columnIndexes[k]]++] = rowIndexes[k];
-            if (Cx != null)
-                Cx[p] = values[k];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(columnIndexes, rowIndexes, nz, columns, scs.p, scs.i);
+            scatter(dest, values, scs.x, nz);
+        } else {
+            int[] w = new int[columns];
+            int[] Cp = scs.p;
+            int[] Ci = scs.i;
+            float[] Cx = scs.x;
+            for (int k = 0; k < nz; k++)
+                w[columnIndexes[k]]++;
+            Scs_cumsum.cs_cumsum(Cp, w, columns);
+            int p;
+            for (int k = 0; k < nz; k++) {
+                Ci[p = w[columnIndexes[k]]++] = rowIndexes[k];
+                if (Cx != null)
+                    Cx[p] = values[k];
+            }
         }
         if (removeZeroes) {
             Scs_dropzeros.cs_dropzeros(scs); //remove zeroes
@@ -642,20 +654,43 @@ public class SparseCCFloatMatrix2D extends WrapperFloatMatrix2D {
      * Sorts row indexes
      */
     public void sortRowIndexes() {
-        scs = Scs_transpose.cs_transpose(scs, true);
-        scs = Scs_transpose.cs_transpose(scs, true);
-        if (scs == null) {
-            throw new IllegalArgumentException("Exception occured in cs_transpose()!");
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(scs.p, scs.i, columns, rows);
+            float[] valuesNew = new float[scs.x.length];
+            scatter(dest, scs.x, valuesNew, cardinality());
+            scs.x = valuesNew;
+            rowIndexesSorted = true;
+        } else {
+            scs = Scs_transpose.cs_transpose(scs, true);
+            scs = Scs_transpose.cs_transpose(scs, true);
+            if (scs == null) {
+                throw new IllegalArgumentException("Exception occured in cs_transpose()!");
+            }
+            rowIndexesSorted = true;
         }
-        rowIndexesSorted = true;
     }
 
     /**
      * Removes (sums) duplicate entries (if any}
      */
     public void removeDuplicates() {
-        if (!Scs_dupl.cs_dupl(scs)) { //remove duplicates
-            throw new IllegalArgumentException("Exception occured in cs_dupl()!");
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] target = new int[cardinality()];
+            int[] pointersNew = compressDuplicates(scs.p, scs.i, columns, rows, target);
+            int nz = pointersNew[columns];
+            int[] indexesNew = new int[nz];
+            float[] valuesNew = new float[nz];
+            sumDuplicates(scs.p, scs.i, scs.x, columns, target, indexesNew, valuesNew);
+            scs.p = pointersNew;
+            scs.i = indexesNew;
+            scs.x = valuesNew;
+            scs.nzmax = nz;
+        } else {
+            if (!Scs_dupl.cs_dupl(scs)) { //remove duplicates
+                throw new IllegalArgumentException("Exception occured in cs_dupl()!");
+            }
         }
     }
 
@@ -1023,4 +1058,45 @@ public class SparseCCFloatMatrix2D extends WrapperFloatMatrix2D {
         }
         return -(from + 1); // key not found.
     }
+
+    private static void scatter(final int[] dest, final float[] src, final float[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        dst[dest[p]] = src[p];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
+    private static void sumDuplicates(final int[] pointers, final int[] indexes, final float[] values,
+            final int nouter, final int[] target, final int[] indexesNew, final float[] valuesNew) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            int q = target[p];
+                            indexesNew[q] = indexes[p];
+                            valuesNew[q] += values[p];
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
@@ -628,6 +628,29 @@ public class WrapperFloatMatrix3D extends FloatMatrix3D {
                     content.set(row, slice, column, value);
                 }
             };
+        } else if (axis0 == 0 && axis1 == 2 && axis2 == 1) {
+            view = new WrapperFloatMatrix3D(this) {
+                /**
+                 * 
+                 */
+                private static final long serialVersionUID = 1L;
+
+                public synchronized float getQuick(int slice, int row, int column) {
+                    return content.getQuick(slice, column, row);
+                }
+
+                public synchronized void setQuick(int slice, int row, int column, float value) {
+                    content.setQuick(slice, column, row, value);
+                }
+
+                public synchronized float get(int slice, int row, int column) {
+                    return content.get(slice, column, row);
+                }
+
+                public synchronized void set(int slice, int row, int column, float value) {
+                    content.set(slice, column, row, value);
+                }
+            };
         } else if (axis0 == 1 && axis1 == 2 && axis2 == 0) {
             view = new WrapperFloatMatrix3D(this) {
                 /**
@@ -636,19 +659,19 @@ public class WrapperFloatMatrix3D extends FloatMatrix3D {
                 private static final long serialVersionUID = 1L;
 
                 public synchronized float getQuick(int slice, int row, int column) {
-                    return content.getQuick(row, column, slice);
+                    return content.getQuick(column, slice, row);
                 }
 
                 public synchronized void setQuick(int slice, int row, int column, float value) {
-                    content.setQuick(row, column, slice, value);
+                    content.setQuick(column, slice, row, value);
                 }
 
                 public synchronized float get(int slice, int row, int column) {
-                    return content.get(row, column, slice);
+                    return content.get(column, slice, row);
                 }
 
                 public synchronized void set(int slice, int row, int column, float value) {
-                    content.set(row, column, slice, value);
+                    content.set(column, slice, row, value);
                 }
             };
         } else if (axis0 == 2 && axis1 == 1 && axis2 == 0) {
@@ -682,19 +705,19 @@ public class WrapperFloatMatrix3D extends FloatMatrix3D {
                 private static final long serialVersionUID = 1L;
 
                 public synchronized float getQuick(int slice, int row, int column) {
-                    return content.getQuick(column, slice, row);
+                    return content.getQuick(row, column, slice);
                 }
 
                 public synchronized void setQuick(int slice, int row, int column, float value) {
-                    content.setQuick(column, slice, row, value);
+                    content.setQuick(row, column, slice, value);
                 }
 
                 public synchronized float get(int slice, int row, int column) {
-                    return content.get(column, slice, row);
+                    return content.get(row, column, slice);
                 }
 
                 public synchronized void set(int slice, int row, int column, float value) {
-                    content.set(column, slice, row, value);
+                    content.set(row, column, slice, value);
                 }
             };
         }
@@ -14,6 +14,7 @@ import java.util.concurrent.Future;
 
 import cern.colt.list.tint.IntArrayList;
 import cern.colt.matrix.AbstractMatrix3D;
+import cern.colt.matrix.Boundary;
 import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
@@ -1980,6 +1981,286 @@ public abstract class IntMatrix3D extends AbstractMatrix3D {
         return (IntMatrix3D) (view().vStrides(sliceStride, rowStride, columnStride));
     }
 
+    /**
+     * 27 neighbor stencil transformation. For efficient finite difference
+     * operations. Applies a function to a moving <tt>3 x 3 x 3</tt> window.
+     * Does nothing if <tt>rows() < 3 || columns() < 3 || slices() < 3</tt>.
+     * 
+     * <pre>
+     * 	 B[k,i,j] = function.apply(
+     * 	    A[k-1,i-1,j-1], A[k-1,i-1,j], A[k-1,i-1,j+1],
+     * 	    A[k-1,i,  j-1], A[k-1,i,  j], A[k-1,i,  j+1],
+     * 	    A[k-1,i+1,j-1], A[k-1,i+1,j], A[k-1,i+1,j+1],
+     * 
+     * 	    A[k  ,i-1,j-1], A[k  ,i-1,j], A[k  ,i-1,j+1],
+     * 	    A[k  ,i,  j-1], A[k  ,i,  j], A[k  ,i,  j+1],
+     * 	    A[k  ,i+1,j-1], A[k  ,i+1,j], A[k  ,i+1,j+1],
+     * 
+     * 	    A[k+1,i-1,j-1], A[k+1,i-1,j], A[k+1,i-1,j+1],
+     * 	    A[k+1,i,  j-1], A[k+1,i,  j], A[k+1,i,  j+1],
+     * 	    A[k+1,i+1,j-1], A[k+1,i+1,j], A[k+1,i+1,j+1]
+     * 	    )
+     * 
+     * 	 x x x -     - x x x     - - - - 
+     * 	 x o x -     - x o x     - - - - 
+     * 	 x x x -     - x x x ... - x x x 
+     * 	 - - - -     - - - -     - x o x 
+     * 	 - - - -     - - - -     - x x x
+     * 
+     * </pre>
+     * 
+     * Make sure that cells of <tt>this</tt> and <tt>B</tt> do not overlap. In
+     * case of overlapping views, behaviour is unspecified.
+     * 
+     * @param B
+     *            the matrix to hold the results.
+     * @param function
+     *            the function to be applied to the 27 cells.
+     * @throws NullPointerException
+     *             if <tt>function==null</tt>.
+     * @throws IllegalArgumentException
+     *             if
+     *             <tt>rows() != B.rows() || columns() != B.columns() || slices() != B.slices() </tt>
+     *             .
+     */
+    public void zAssign27Neighbors(IntMatrix3D B, cern.colt.function.tint.Int27Function function) {
+        if (function == null)
+            throw new NullPointerException("function must not be null.");
+        checkShape(B);
+        if (rows < 3 || columns < 3 || slices < 3)
+            return; // nothing to do
+        int r = rows - 1;
+        int c = columns - 1;
+        int a000, a001, a002;
+        int a010, a011, a012;
+        int a020, a021, a022;
+
+        int a100, a101, a102;
+        int a110, a111, a112;
+        int a120, a121, a122;
+
+        int a200, a201, a202;
+        int a210, a211, a212;
+        int a220, a221, a222;
+
+        for (int k = 1; k < slices - 1; k++) {
+            for (int i = 1; i < r; i++) {
+                a000 = getQuick(k - 1, i - 1, 0);
+                a001 = getQuick(k - 1, i - 1, 1);
+                a010 = getQuick(k - 1, i, 0);
+                a011 = getQuick(k - 1, i, 1);
+                a020 = getQuick(k - 1, i + 1, 0);
+                a021 = getQuick(k - 1, i + 1, 1);
+
+                a100 = getQuick(k, i - 1, 0);
+                a101 = getQuick(k, i - 1, 1);
+                a110 = getQuick(k, i, 0);
+                a111 = getQuick(k, i, 1);
+                a120 = getQuick(k, i + 1, 0);
+                a121 = getQuick(k, i + 1, 1);
+
+                a200 = getQuick(k + 1, i - 1, 0);
+                a201 = getQuick(k + 1, i - 1, 1);
+                a210 = getQuick(k + 1, i, 0);
+                a211 = getQuick(k + 1, i, 1);
+                a220 = getQuick(k + 1, i + 1, 0);
+                a221 = getQuick(k + 1, i + 1, 1);
+
+                for (int j = 1; j < c; j++) {
+                    // in each step 18 cells can be remembered in registers -
+                    // they don't need to be reread from slow memory
+                    // in each step 9 instead of 27 cells need to be read from
+                    // memory.
+                    a002 = getQuick(k - 1, i - 1, j + 1);
+                    a012 = getQuick(k - 1, i, j + 1);
+                    a022 = getQuick(k - 1, i + 1, j + 1);
+
+                    a102 = getQuick(k, i - 1, j + 1);
+                    a112 = getQuick(k, i, j + 1);
+                    a122 = getQuick(k, i + 1, j + 1);
+
+                    a202 = getQuick(k + 1, i - 1, j + 1);
+                    a212 = getQuick(k + 1, i, j + 1);
+                    a222 = getQuick(k + 1, i + 1, j + 1);
+
+                    B.setQuick(k, i, j, function.apply(a000, a001, a002, a010, a011, a012, a020, a021, a022,
+
+                    a100, a101, a102, a110, a111, a112, a120, a121, a122,
+
+                    a200, a201, a202, a210, a211, a212, a220, a221, a222));
+
+                    a000 = a001;
+                    a001 = a002;
+                    a010 = a011;
+                    a011 = a012;
+                    a020 = a021;
+                    a021 = a022;
+
+                    a100 = a101;
+                    a101 = a102;
+                    a110 = a111;
+                    a111 = a112;
+                    a120 = a121;
+                    a121 = a122;
+
+                    a200 = a201;
+                    a201 = a202;
+                    a210 = a211;
+                    a211 = a212;
+                    a220 = a221;
+                    a221 = a222;
+                }
+            }
+        }
+    }
+
+    /**
+     * 27 neighbor stencil transformation with boundary handling. Applies a
+     * function to a moving <tt>3 x 3 x 3</tt> window just like
+     * {@link #zAssign27Neighbors(IntMatrix3D, cern.colt.function.tint.Int27Function)}
+     * , but also computes the border cells of <tt>B</tt>. Neighbors lying
+     * outside of this matrix are obtained according to <tt>boundary</tt>; with
+     * {@link Boundary#Skip} the border cells of <tt>B</tt> are left untouched.
+     * <p>
+     * The work is split into bands of slices that are processed concurrently.
+     * Make sure that cells of <tt>this</tt> and <tt>B</tt> do not overlap.
+     * 
+     * @param B
+     *            the matrix to hold the results.
+     * @param function
+     *            the function to be applied to the 27 cells.
+     * @param boundary
+     *            the boundary handling mode.
+     * @param constant
+     *            the value of neighbors outside of this matrix if
+     *            <tt>boundary == Boundary.Constant</tt>; ignored otherwise.
+     * @throws NullPointerException
+     *             if <tt>function==null || boundary==null</tt>.
+     * @throws IllegalArgumentException
+     *             if
+     *             <tt>rows() != B.rows() || columns() != B.columns() || slices() != B.slices() </tt>
+     *             .
+     */
+    public void zAssign27Neighbors(final IntMatrix3D B, final cern.colt.function.tint.Int27Function function,
+            final Boundary boundary, final int constant) {
+        if (function == null)
+            throw new NullPointerException("function must not be null.");
+        if (boundary == null)
+            throw new NullPointerException("boundary must not be null.");
+        checkShape(B);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        zAssign27NeighborsSlices(B, function, boundary, constant, firstSlice, lastSlice);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            zAssign27NeighborsSlices(B, function, boundary, constant, 0, slices);
+        }
+    }
+
+    private void zAssign27NeighborsSlices(IntMatrix3D B, cern.colt.function.tint.Int27Function function,
+            Boundary boundary, int constant, int firstSlice, int lastSlice) {
+        for (int k = firstSlice; k < lastSlice; k++) {
+            boolean borderSlice = (k == 0 || k == slices - 1);
+            for (int i = 0; i < rows; i++) {
+                boolean borderRow = borderSlice || i == 0 || i == rows - 1;
+                for (int j = 0; j < columns; j++) {
+                    if (boundary == Boundary.Skip && (borderRow || j == 0 || j == columns - 1))
+                        continue;
+                    B.setQuick(k, i, j, apply27Neighbors(k, i, j, function, boundary, constant));
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a 27 neighbor stencil function to the <tt>3 x 3 x 3</tt> window
+     * centered at the given cell, obtaining neighbors outside of this matrix
+     * according to <tt>boundary</tt>.
+     * 
+     * @param slice
+     *            the index of the slice of the center cell.
+     * @param row
+     *            the index of the row of the center cell.
+     * @param column
+     *            the index of the column of the center cell.
+     * @param function
+     *            the function to be applied to the 27 cells.
+     * @param boundary
+     *            the boundary handling mode.
+     * @param constant
+     *            the value of neighbors outside of this matrix if
+     *            <tt>boundary == Boundary.Constant</tt>.
+     * @return the value of the function.
+     */
+    protected int apply27Neighbors(int slice, int row, int column,
+            cern.colt.function.tint.Int27Function function, Boundary boundary, int constant) {
+        return function.apply(getNeighborQuick(slice - 1, row - 1, column - 1, boundary, constant),
+                getNeighborQuick(slice - 1, row - 1, column, boundary, constant),
+                getNeighborQuick(slice - 1, row - 1, column + 1, boundary, constant),
+                getNeighborQuick(slice - 1, row, column - 1, boundary, constant),
+                getNeighborQuick(slice - 1, row, column, boundary, constant),
+                getNeighborQuick(slice - 1, row, column + 1, boundary, constant),
+                getNeighborQuick(slice - 1, row + 1, column - 1, boundary, constant),
+                getNeighborQuick(slice - 1, row + 1, column, boundary, constant),
+                getNeighborQuick(slice - 1, row + 1, column + 1, boundary, constant),
+                getNeighborQuick(slice, row - 1, column - 1, boundary, constant),
+                getNeighborQuick(slice, row - 1, column, boundary, constant),
+                getNeighborQuick(slice, row - 1, column + 1, boundary, constant),
+                getNeighborQuick(slice, row, column - 1, boundary, constant),
+                getNeighborQuick(slice, row, column, boundary, constant),
+                getNeighborQuick(slice, row, column + 1, boundary, constant),
+                getNeighborQuick(slice, row + 1, column - 1, boundary, constant),
+                getNeighborQuick(slice, row + 1, column, boundary, constant),
+                getNeighborQuick(slice, row + 1, column + 1, boundary, constant),
+                getNeighborQuick(slice + 1, row - 1, column - 1, boundary, constant),
+                getNeighborQuick(slice + 1, row - 1, column, boundary, constant),
+                getNeighborQuick(slice + 1, row - 1, column + 1, boundary, constant),
+                getNeighborQuick(slice + 1, row, column - 1, boundary, constant),
+                getNeighborQuick(slice + 1, row, column, boundary, constant),
+                getNeighborQuick(slice + 1, row, column + 1, boundary, constant),
+                getNeighborQuick(slice + 1, row + 1, column - 1, boundary, constant),
+                getNeighborQuick(slice + 1, row + 1, column, boundary, constant),
+                getNeighborQuick(slice + 1, row + 1, column + 1, boundary, constant));
+    }
+
+    /**
+     * Returns the matrix cell value at coordinate <tt>[slice,row,column]</tt>,
+     * where the coordinate may lie outside of this matrix. Out of range
+     * coordinates are resolved according to <tt>boundary</tt>.
+     * 
+     * @param slice
+     *            the index of the slice-coordinate.
+     * @param row
+     *            the index of the row-coordinate.
+     * @param column
+     *            the index of the column-coordinate.
+     * @param boundary
+     *            the boundary handling mode.
+     * @param constant
+     *            the value returned for coordinates outside of this matrix if
+     *            <tt>boundary</tt> does not map them onto a cell.
+     * @return the value at the specified coordinate.
+     */
+    protected int getNeighborQuick(int slice, int row, int column, Boundary boundary, int constant) {
+        int s = boundary.map(slice, slices);
+        int r = boundary.map(row, rows);
+        int c = boundary.map(column, columns);
+        if (s < 0 || r < 0 || c < 0)
+            return constant;
+        return getQuick(s, r, c);
+    }
+
     /**
      * Returns the sum of all cells; <tt>Sum( x[i,j,k] )</tt>.
      * 
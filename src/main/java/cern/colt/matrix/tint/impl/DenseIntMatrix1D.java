@@ -8,11 +8,13 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tint.impl;
 
+import java.util.Spliterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import cern.colt.list.tint.IntArrayList;
+import cern.colt.list.tint.IntArraySpliterator;
 import cern.colt.matrix.tint.IntMatrix1D;
 import cern.colt.matrix.tint.IntMatrix2D;
 import cern.colt.matrix.tint.IntMatrix3D;
@@ -79,6 +81,18 @@ public class DenseIntMatrix1D extends IntMatrix1D {
         this.elements = new int[size];
     }
 
+    /**
+     * Returns a spliterator over the cells of the receiver, in index order,
+     * traversing the backing array with the offset and stride of the
+     * receiver. Splits of contiguous views are aligned to cache lines of the
+     * backing array.
+     * 
+     * @return a spliterator over the cells of the receiver.
+     */
+    public Spliterator.OfInt spliterator() {
+        return new IntArraySpliterator(elements, zero, stride, 0, size);
+    }
+
     /**
      * Constructs a matrix with the given parameters.
      * 
@@ -13,6 +13,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import cern.colt.list.tint.IntArrayList;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.tint.IntMatrix1D;
 import cern.colt.matrix.tint.IntMatrix2D;
 import cern.colt.matrix.tint.IntMatrix3D;
@@ -1329,6 +1330,194 @@ public class DenseIntMatrix3D extends IntMatrix3D {
         return v;
     }
 
+    public void zAssign27Neighbors(IntMatrix3D B, cern.colt.function.tint.Int27Function function) {
+        zAssign27Neighbors(B, function, Boundary.Skip, 0);
+    }
+
+    public void zAssign27Neighbors(IntMatrix3D B, final cern.colt.function.tint.Int27Function function,
+            final Boundary boundary, final int constant) {
+        // overridden for performance only
+        if (!(B instanceof DenseIntMatrix3D)) {
+            super.zAssign27Neighbors(B, function, boundary, constant);
+            return;
+        }
+        if (function == null)
+            throw new NullPointerException("function must not be null.");
+        if (boundary == null)
+            throw new NullPointerException("boundary must not be null.");
+        checkShape(B);
+        final DenseIntMatrix3D BB = (DenseIntMatrix3D) B;
+        if (this.elements == null || BB.elements == null)
+            throw new InternalError();
+
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size() >= ConcurrencyUtils.getThreadsBeginN_3D())) {
+            nthreads = Math.min(nthreads, slices);
+            Future<?>[] futures = new Future[nthreads];
+            int k = slices / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstSlice = j * k;
+                final int lastSlice = (j == nthreads - 1) ? slices : firstSlice + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        zAssign27NeighborsSlices(BB, function, boundary, constant, firstSlice, lastSlice);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            zAssign27NeighborsSlices(BB, function, boundary, constant, 0, slices);
+        }
+    }
+
+    private void zAssign27NeighborsSlices(DenseIntMatrix3D BB,
+            cern.colt.function.tint.Int27Function function, Boundary boundary, int constant,
+            int firstSlice, int lastSlice) {
+        int r = rows - 1;
+        int c = columns - 1;
+        int A_ss = sliceStride;
+        int A_rs = rowStride;
+        int B_rs = BB.rowStride;
+        int A_cs = columnStride;
+        int B_cs = BB.columnStride;
+        int[] elems = this.elements;
+        int[] B_elems = BB.elements;
+
+        // interior cells
+        int startSlice = Math.max(firstSlice, 1);
+        int endSlice = Math.min(lastSlice, slices - 1);
+        if (rows >= 3 && columns >= 3) {
+            for (int k = startSlice; k < endSlice; k++) {
+                int A_index = (int) index(k, 1, 1);
+                int B_index = (int) BB.index(k, 1, 1);
+
+                for (int i = 1; i < r; i++) {
+                    int A002 = A_index - A_ss - A_rs - A_cs;
+                    int A012 = A002 + A_rs;
+                    int A022 = A012 + A_rs;
+
+                    int A102 = A002 + A_ss;
+                    int A112 = A102 + A_rs;
+                    int A122 = A112 + A_rs;
+
+                    int A202 = A102 + A_ss;
+                    int A212 = A202 + A_rs;
+                    int A222 = A212 + A_rs;
+
+                    int a000, a001, a002;
+                    int a010, a011, a012;
+                    int a020, a021, a022;
+
+                    int a100, a101, a102;
+                    int a110, a111, a112;
+                    int a120, a121, a122;
+
+                    int a200, a201, a202;
+                    int a210, a211, a212;
+                    int a220, a221, a222;
+
+                    a000 = elems[A002];
+                    A002 += A_cs;
+                    a001 = elems[A002];
+                    a010 = elems[A012];
+                    A012 += A_cs;
+                    a011 = elems[A012];
+                    a020 = elems[A022];
+                    A022 += A_cs;
+                    a021 = elems[A022];
+
+                    a100 = elems[A102];
+                    A102 += A_cs;
+                    a101 = elems[A102];
+                    a110 = elems[A112];
+                    A112 += A_cs;
+                    a111 = elems[A112];
+                    a120 = elems[A122];
+                    A122 += A_cs;
+                    a121 = elems[A122];
+
+                    a200 = elems[A202];
+                    A202 += A_cs;
+                    a201 = elems[A202];
+                    a210 = elems[A212];
+                    A212 += A_cs;
+                    a211 = elems[A212];
+                    a220 = elems[A222];
+                    A222 += A_cs;
+                    a221 = elems[A222];
+
+                    int B11 = B_index;
+                    for (int j = 1; j < c; j++) {
+                        // in each step 18 cells can be remembered in registers -
+                        // they don't need to be reread from slow memory
+                        // in each step 9 instead of 27 cells need to be read from
+                        // memory.
+                        a002 = elems[A002 += A_cs];
+                        a012 = elems[A012 += A_cs];
+                        a022 = elems[A022 += A_cs];
+
+                        a102 = elems[A102 += A_cs];
+                        a112 = elems[A112 += A_cs];
+                        a122 = elems[A122 += A_cs];
+
+                        a202 = elems[A202 += A_cs];
+                        a212 = elems[A212 += A_cs];
+                        a222 = elems[A222 += A_cs];
+
+                        B_elems[B11] = function.apply(a000, a001, a002, a010, a011, a012, a020, a021, a022,
+
+                        a100, a101, a102, a110, a111, a112, a120, a121, a122,
+
+                        a200, a201, a202, a210, a211, a212, a220, a221, a222);
+                        B11 += B_cs;
+
+                        // move remembered cells
+                        a000 = a001;
+                        a001 = a002;
+                        a010 = a011;
+                        a011 = a012;
+                        a020 = a021;
+                        a021 = a022;
+
+                        a100 = a101;
+                        a101 = a102;
+                        a110 = a111;
+                        a111 = a112;
+                        a120 = a121;
+                        a121 = a122;
+
+                        a200 = a201;
+                        a201 = a202;
+                        a210 = a211;
+                        a211 = a212;
+                        a220 = a221;
+                        a221 = a222;
+                    }
+                    A_index += A_rs;
+                    B_index += B_rs;
+                }
+            }
+        }
+
+        // border cells
+        if (boundary == Boundary.Skip)
+            return;
+        for (int k = firstSlice; k < lastSlice; k++) {
+            for (int i = 0; i < rows; i++) {
+                if (k == 0 || k == slices - 1 || i == 0 || i == r || columns < 3) {
+                    int B_idx = (int) BB.index(k, i, 0);
+                    for (int j = 0; j < columns; j++) {
+                        B_elems[B_idx] = apply27Neighbors(k, i, j, function, boundary, constant);
+                        B_idx += B_cs;
+                    }
+                } else {
+                    B_elems[(int) BB.index(k, i, 0)] = apply27Neighbors(k, i, 0, function, boundary, constant);
+                    B_elems[(int) BB.index(k, i, c)] = apply27Neighbors(k, i, c, function, boundary, constant);
+                }
+            }
+        }
+    }
+
     public int zSum() {
         int sum = 0;
         final int zero = (int) index(0, 0, 0);
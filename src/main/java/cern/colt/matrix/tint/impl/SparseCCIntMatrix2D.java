@@ -232,15 +232,21 @@ public class SparseCCIntMatrix2D extends WrapperIntMatrix2D {
         this.rowIndexes = new int[nz];
         this.values = new int[nz];
         this.columnPointers = new int[columns + 1];
-        int[] w = new int[columns];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[columnIndexes[k]]++;
-        }
-        cumsum(this.columnPointers, w, columns);
-        for (int k = 0; k < nz; k++) {
-            this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
-            this.values[r] = value;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(columnIndexes, rowIndexes, nz, columns, this.columnPointers, this.rowIndexes);
+            Arrays.fill(this.values, value);
+        } else {
+            int[] w = new int[columns];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[columnIndexes[k]]++;
+            }
+            cumsum(this.columnPointers, w, columns);
+            for (int k = 0; k < nz; k++) {
+                this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
+                this.values[r] = value;
+            }
         }
         if (removeDuplicates) {
             removeDuplicates();
@@ -289,15 +295,21 @@ public class SparseCCIntMatrix2D extends WrapperIntMatrix2D {
         this.rowIndexes = new int[nz];
         this.values = new int[nz];
         this.columnPointers = new int[columns + 1];
-        int[] w = new int[columns];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[columnIndexes[k]]++;
-        }
-        cumsum(this.columnPointers, w, columns);
-        for (int k = 0; k < nz; k++) {
-            this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
-            this.values[r] = values[k];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(columnIndexes, rowIndexes, nz, columns, this.columnPointers, this.rowIndexes);
+            scatter(dest, values, this.values, nz);
+        } else {
+            int[] w = new int[columns];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[columnIndexes[k]]++;
+            }
+            cumsum(this.columnPointers, w, columns);
+            for (int k = 0; k < nz; k++) {
+                this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
+                this.values[r] = values[k];
+            }
         }
         if (removeDuplicates) {
             removeDuplicates();
@@ -637,44 +649,66 @@ public class SparseCCIntMatrix2D extends WrapperIntMatrix2D {
      * Sorts row indexes
      */
     public void sortRowIndexes() {
-        SparseCCIntMatrix2D tr = getTranspose();
-        tr = tr.getTranspose();
-        columnPointers = tr.columnPointers;
-        rowIndexes = tr.rowIndexes;
-        values = tr.values;
-        rowIndexesSorted = true;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(columnPointers, rowIndexes, columns, rows);
+            int[] valuesNew = new int[values.length];
+            scatter(dest, values, valuesNew, cardinality());
+            values = valuesNew;
+            rowIndexesSorted = true;
+        } else {
+            SparseCCIntMatrix2D tr = getTranspose();
+            tr = tr.getTranspose();
+            columnPointers = tr.columnPointers;
+            rowIndexes = tr.rowIndexes;
+            values = tr.values;
+            rowIndexesSorted = true;
+        }
     }
 
     /**
      * Removes (sums) duplicate entries (if any}
      */
     public void removeDuplicates() {
-        int i, j, p, q, nz = 0, n, m, Ap[], Ai[], w[];
-        int Ax[];
-        /* check inputs */
-        m = rows;
-        n = columns;
-        Ap = columnPointers;
-        Ai = rowIndexes;
-        Ax = values;
-        w = new int[m]; /* get workspace */
-        for (i = 0; i < m; i++)
-            w[i] = -1; /* row i not yet seen */
-        for (j = 0; j < n; j++) {
-            q = nz; /* column j will start at q */
-            for (p = Ap[j]; p < Ap[j + 1]; p++) {
-                i = Ai[p]; /* A(i,j) is nonzero */
-                if (w[i] >= q) {
-                    Ax[w[i]] += Ax[p]; /* A(i,j) is a duplicate */
-                } else {
-                    w[i] = nz; /* record where row i occurs */
-                    Ai[nz] = i; /* keep A(i,j) */
-                    Ax[nz++] = Ax[p];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] target = new int[cardinality()];
+            int[] pointersNew = compressDuplicates(columnPointers, rowIndexes, columns, rows, target);
+            int nz = pointersNew[columns];
+            int[] indexesNew = new int[nz];
+            int[] valuesNew = new int[nz];
+            sumDuplicates(columnPointers, rowIndexes, values, columns, target, indexesNew, valuesNew);
+            columnPointers = pointersNew;
+            rowIndexes = indexesNew;
+            values = valuesNew;
+        } else {
+            int i, j, p, q, nz = 0, n, m, Ap[], Ai[], w[];
+            int Ax[];
+            /* check inputs */
+            m = rows;
+            n = columns;
+            Ap = columnPointers;
+            Ai = rowIndexes;
+            Ax = values;
+            w = new int[m]; /* get workspace */
+            for (i = 0; i < m; i++)
+                w[i] = -1; /* row i not yet seen */
+            for (j = 0; j < n; j++) {
+                q = nz; /* column j will start at q */
+                for (p = Ap[j]; p < Ap[j + 1]; p++) {
+                    i = Ai[p]; /* A(i,j) is nonzero */
+                    if (w[i] >= q) {
+                        Ax[w[i]] += Ax[p]; /* A(i,j) is a duplicate */
+                    } else {
+                        w[i] = nz; /* record where row i occurs */
+                        Ai[nz] = i; /* keep A(i,j) */
+                        Ax[nz++] = Ax[p];
+                    }
                 }
+                Ap[j] = q; /* record start of column j */
             }
-            Ap[j] = q; /* record start of column j */
+            Ap[n] = nz; /* finalize A */
         }
-        Ap[n] = nz; /* finalize A */
     }
 
     /**
@@ -1126,4 +1160,45 @@ public class SparseCCIntMatrix2D extends WrapperIntMatrix2D {
         }
         return nz;
     }
+
+    private static void scatter(final int[] dest, final int[] src, final int[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        dst[dest[p]] = src[p];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
+    private static void sumDuplicates(final int[] pointers, final int[] indexes, final int[] values,
+            final int nouter, final int[] target, final int[] indexesNew, final int[] valuesNew) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            int q = target[p];
+                            indexesNew[q] = indexes[p];
+                            valuesNew[q] += values[p];
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
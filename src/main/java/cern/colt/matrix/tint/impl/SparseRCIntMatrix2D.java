@@ -257,15 +257,21 @@ public class SparseRCIntMatrix2D extends WrapperIntMatrix2D {
         this.columnIndexes = new int[nz];
         this.values = new int[nz];
         this.rowPointers = new int[rows + 1];
-        int[] w = new int[rows];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[rowIndexes[k]]++;
-        }
-        cumsum(this.rowPointers, w, rows);
-        for (int k = 0; k < nz; k++) {
-            this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
-            this.values[r] = value;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(rowIndexes, columnIndexes, nz, rows, this.rowPointers, this.columnIndexes);
+            Arrays.fill(this.values, value);
+        } else {
+            int[] w = new int[rows];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[rowIndexes[k]]++;
+            }
+            cumsum(this.rowPointers, w, rows);
+            for (int k = 0; k < nz; k++) {
+                this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
+                this.values[r] = value;
+            }
         }
         if (removeDuplicates) {
             removeDuplicates();
@@ -314,15 +320,21 @@ public class SparseRCIntMatrix2D extends WrapperIntMatrix2D {
         this.columnIndexes = new int[nz];
         this.values = new int[nz];
         this.rowPointers = new int[rows + 1];
-        int[] w = new int[rows];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[rowIndexes[k]]++;
-        }
-        cumsum(this.rowPointers, w, rows);
-        for (int k = 0; k < nz; k++) {
-            this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
-            this.values[r] = values[k];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(rowIndexes, columnIndexes, nz, rows, this.rowPointers, this.columnIndexes);
+            scatter(dest, values, this.values, nz);
+        } else {
+            int[] w = new int[rows];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[rowIndexes[k]]++;
+            }
+            cumsum(this.rowPointers, w, rows);
+            for (int k = 0; k < nz; k++) {
+                this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
+                this.values[r] = values[k];
+            }
         }
         if (removeZeroes) {
             removeZeroes();
@@ -705,26 +717,39 @@ public class SparseRCIntMatrix2D extends WrapperIntMatrix2D {
      * Removes (sums) duplicate entries (if any}
      */
     public void removeDuplicates() {
-        int nz = 0;
-        int q, i;
-        int[] w = new int[columns]; /* get workspace */
-        for (i = 0; i < columns; i++)
-            w[i] = -1; /* column i not yet seen */
-        for (int j = 0; j < rows; j++) {
-            q = nz; /* row j will start at q */
-            for (int p = rowPointers[j]; p < rowPointers[j + 1]; p++) {
-                i = columnIndexes[p]; /* A(i,j) is nonzero */
-                if (w[i] >= q) {
-                    values[w[i]] += values[p]; /* A(i,j) is a duplicate */
-                } else {
-                    w[i] = nz; /* record where column i occurs */
-                    columnIndexes[nz] = i; /* keep A(i,j) */
-                    values[nz++] = values[p];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] target = new int[cardinality()];
+            int[] pointersNew = compressDuplicates(rowPointers, columnIndexes, rows, columns, target);
+            int nz = pointersNew[rows];
+            int[] indexesNew = new int[nz];
+            int[] valuesNew = new int[nz];
+            sumDuplicates(rowPointers, columnIndexes, values, rows, target, indexesNew, valuesNew);
+            rowPointers = pointersNew;
+            columnIndexes = indexesNew;
+            values = valuesNew;
+        } else {
+            int nz = 0;
+            int q, i;
+            int[] w = new int[columns]; /* get workspace */
+            for (i = 0; i < columns; i++)
+                w[i] = -1; /* column i not yet seen */
+            for (int j = 0; j < rows; j++) {
+                q = nz; /* row j will start at q */
+                for (int p = rowPointers[j]; p < rowPointers[j + 1]; p++) {
+                    i = columnIndexes[p]; /* A(i,j) is nonzero */
+                    if (w[i] >= q) {
+                        values[w[i]] += values[p]; /* A(i,j) is a duplicate */
+                    } else {
+                        w[i] = nz; /* record where column i occurs */
+                        columnIndexes[nz] = i; /* keep A(i,j) */
+                        values[nz++] = values[p];
+                    }
                 }
+                rowPointers[j] = q; /* record start of row j */
             }
-            rowPointers[j] = q; /* record start of row j */
+            rowPointers[rows] = nz; /* finalize A */
         }
-        rowPointers[rows] = nz; /* finalize A */
     }
 
     /**
@@ -767,25 +792,34 @@ public class SparseRCIntMatrix2D extends WrapperIntMatrix2D {
      * Sorts column indexes
      */
     public void sortColumnIndexes() {
-        SparseRCIntMatrix2D T = getTranspose();
-        this.rows = T.rows;
-        this.columns = T.columns;
-        this.columnIndexes = T.columnIndexes;
-        this.rowPointers = T.rowPointers;
-        this.values = T.values;
-        //        System.arraycopy(T.columnIndexes, 0, this.columnIndexes, 0, T.columnIndexes.length);
-        //        System.arraycopy(T.rowPointers, 0, this.rowPointers, 0, T.rowPointers.length);
-        //        System.arraycopy(T.values, 0, this.values, 0, T.values.length);
-        T = getTranspose();
-        this.rows = T.rows;
-        this.columns = T.columns;
-        this.columnIndexes = T.columnIndexes;
-        this.rowPointers = T.rowPointers;
-        this.values = T.values;
-        columnIndexesSorted = true;
-        //        System.arraycopy(T.columnIndexes, 0, this.columnIndexes, 0, T.columnIndexes.length);
-        //        System.arraycopy(T.rowPointers, 0, this.rowPointers, 0, T.rowPointers.length);
-        //        System.arraycopy(T.values, 0, this.values, 0, T.values.length);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(rowPointers, columnIndexes, rows, columns);
+            int[] valuesNew = new int[values.length];
+            scatter(dest, values, valuesNew, cardinality());
+            values = valuesNew;
+            columnIndexesSorted = true;
+        } else {
+            SparseRCIntMatrix2D T = getTranspose();
+            this.rows = T.rows;
+            this.columns = T.columns;
+            this.columnIndexes = T.columnIndexes;
+            this.rowPointers = T.rowPointers;
+            this.values = T.values;
+            //        System.arraycopy(T.columnIndexes, 0, this.columnIndexes, 0, T.columnIndexes.length);
+            //        System.arraycopy(T.rowPointers, 0, this.rowPointers, 0, T.rowPointers.length);
+            //        System.arraycopy(T.values, 0, this.values, 0, T.values.length);
+            T = getTranspose();
+            this.rows = T.rows;
+            this.columns = T.columns;
+            this.columnIndexes = T.columnIndexes;
+            this.rowPointers = T.rowPointers;
+            this.values = T.values;
+            columnIndexesSorted = true;
+            //        System.arraycopy(T.columnIndexes, 0, this.columnIndexes, 0, T.columnIndexes.length);
+            //        System.arraycopy(T.rowPointers, 0, this.rowPointers, 0, T.rowPointers.length);
+            //        System.arraycopy(T.values, 0, this.values, 0, T.values.length);
+        }
     }
 
     public String toString() {
@@ -1241,4 +1275,44 @@ public class SparseRCIntMatrix2D extends WrapperIntMatrix2D {
         values = valuesList.elements();
     }
 
+    private static void scatter(final int[] dest, final int[] src, final int[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        dst[dest[p]] = src[p];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
+
+    private static void sumDuplicates(final int[] pointers, final int[] indexes, final int[] values,
+            final int nouter, final int[] target, final int[] indexesNew, final int[] valuesNew) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nouter));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nouter / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nouter : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int r = firstIdx; r < lastIdx; r++) {
+                        for (int p = pointers[r]; p < pointers[r + 1]; p++) {
+                            int q = target[p];
+                            indexesNew[q] = indexes[p];
+                            valuesNew[q] += values[p];
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
@@ -8,9 +8,12 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tlong;
 
+import java.util.Spliterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 import cern.colt.list.tint.IntArrayList;
 import cern.colt.list.tlong.LongArrayList;
@@ -1110,6 +1113,28 @@ public abstract class LongMatrix1D extends AbstractMatrix1D {
      */
     public abstract LongMatrix2D like2D(int rows, int columns);
 
+    /**
+     * Returns the <tt>k</tt>-th smallest cell value, that is, the value that
+     * would be at index <tt>k</tt> if the cells were sorted ascending.
+     * The matrix is left unaffected.
+     * <p>
+     * The cell values are copied into a temporary array on which a parallel
+     * Floyd-Rivest selection is run. This takes expected linear time, rather
+     * than the <tt>O( N * log(N) )</tt> of a full sort.
+     *
+     * @param k
+     *            the zero-based rank of the value to return.
+     * @return the <tt>k</tt>-th smallest cell value.
+     * @throws IndexOutOfBoundsException
+     *             if <tt>k &lt; 0 || k &gt;= size()</tt>.
+     * @see cern.colt.Partitioning#parallelSelect(long[],int,int,int)
+     */
+    public long getKthSmallest(int k) {
+        if (k < 0 || k >= size)
+            throw new IndexOutOfBoundsException("k=" + k + ", size=" + size);
+        return cern.colt.Partitioning.parallelSelect(toArray(), 0, size - 1, k);
+    }
+
     /**
      * Return the maximum value of this matrix together with its location
      * 
@@ -1174,6 +1199,31 @@ public abstract class LongMatrix1D extends AbstractMatrix1D {
         return new long[] { maxValue, location };
     }
 
+    /**
+     * Fills the coordinates and values of the <tt>k</tt> largest cells into
+     * the specified lists, largest first. Fills into the lists, starting at
+     * index 0. After this call returns the specified lists all have a new size,
+     * the number of cells found, which is <tt>min(k, size())</tt>.
+     * Ties are broken in favor of the smaller index.
+     * <p>
+     * Each thread keeps the best <tt>k</tt> cells of its part of the matrix in
+     * a binary heap and the partial results are merged at the end. This takes
+     * <tt>O( N * log(k) )</tt> time and <tt>O( k )</tt> memory per thread,
+     * which is much cheaper than sorting when <tt>k</tt> is small.
+     *
+     * @param k
+     *            the number of cells to find.
+     * @param indexList
+     *            the list to be filled with indexes, can have any size.
+     * @param valueList
+     *            the list to be filled with values, can have any size.
+     * @throws IllegalArgumentException
+     *             if <tt>k &lt; 0</tt>.
+     */
+    public void getMaxValues(int k, IntArrayList indexList, LongArrayList valueList) {
+        getTopValues(k, true, indexList, valueList);
+    }
+
     /**
      * Return the minimum value of this matrix together with its location
      * 
@@ -1238,6 +1288,34 @@ public abstract class LongMatrix1D extends AbstractMatrix1D {
         return new long[] { minValue, location };
     }
 
+    /**
+     * Fills the coordinates and values of the <tt>k</tt> smallest cells into
+     * the specified lists, smallest first. Otherwise same as
+     * {@link #getMaxValues(int, IntArrayList, LongArrayList)}.
+     *
+     * @param k
+     *            the number of cells to find.
+     * @param indexList
+     *            the list to be filled with indexes, can have any size.
+     * @param valueList
+     *            the list to be filled with values, can have any size.
+     * @throws IllegalArgumentException
+     *             if <tt>k &lt; 0</tt>.
+     */
+    public void getMinValues(int k, IntArrayList indexList, LongArrayList valueList) {
+        getTopValues(k, false, indexList, valueList);
+    }
+
+    /**
+     * Returns a possibly parallel stream over the cells of the receiver,
+     * backed by {@link #spliterator()}.
+     * 
+     * @return a parallel stream over the cells of the receiver.
+     */
+    public LongStream parallelStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+
     /**
      * Returns new LongMatrix2D of size rows x columns whose elements are taken
      * column-wise from this matrix.
@@ -1303,6 +1381,29 @@ public abstract class LongMatrix1D extends AbstractMatrix1D {
         this.size = size;
     }
 
+    /**
+     * Returns a spliterator over the cells of the receiver, in index order.
+     * The spliterator respects views and reports the exact number of cells.
+     * The default implementation reads cells with <tt>getQuick</tt>;
+     * subclasses storing their cells in a strided array override this method
+     * to traverse the array directly.
+     * 
+     * @return a spliterator over the cells of the receiver.
+     */
+    public Spliterator.OfLong spliterator() {
+        return new LongMatrix1DSpliterator(this, 0, (int) size());
+    }
+
+    /**
+     * Returns a sequential stream over the cells of the receiver, backed by
+     * {@link #spliterator()}.
+     * 
+     * @return a sequential stream over the cells of the receiver.
+     */
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
     /**
      * Swaps each element <tt>this[i]</tt> with <tt>other[i]</tt>.
      * 
@@ -1738,4 +1839,127 @@ public abstract class LongMatrix1D extends AbstractMatrix1D {
             return 0;
         return aggregate(cern.jet.math.tlong.LongFunctions.plus, cern.jet.math.tlong.LongFunctions.identity);
     }
+
+    /**
+     * Finds the <tt>k</tt> largest (<tt>max==true</tt>) or smallest cells.
+     */
+    private void getTopValues(int k, final boolean max, IntArrayList indexList, LongArrayList valueList) {
+        if (k < 0)
+            throw new IllegalArgumentException("k < 0: " + k);
+        indexList.clear();
+        valueList.clear();
+        final int m = Math.min(k, size);
+        if (m == 0)
+            return;
+        long[] heapValues;
+        int[] heapIndexes;
+        int heapSize;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, size);
+            Future<?>[] futures = new Future[nthreads];
+            final long[][] values = new long[nthreads][m];
+            final int[][] indexes = new int[nthreads][m];
+            final int[] sizes = new int[nthreads];
+            int chunk = size / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * chunk;
+                final int lastIdx = (j == nthreads - 1) ? size : firstIdx + chunk;
+                final int thread = j;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        sizes[thread] = heapOfferRange(firstIdx, lastIdx, max, values[thread], indexes[thread]);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+            heapValues = values[0];
+            heapIndexes = indexes[0];
+            heapSize = sizes[0];
+            for (int j = 1; j < nthreads; j++) {
+                for (int i = 0; i < sizes[j]; i++) {
+                    heapSize = heapOffer(heapValues, heapIndexes, heapSize, values[j][i], indexes[j][i], max);
+                }
+            }
+        } else {
+            heapValues = new long[m];
+            heapIndexes = new int[m];
+            heapSize = heapOfferRange(0, size, max, heapValues, heapIndexes);
+        }
+        // the root holds the worst cell, so drain back to front
+        indexList.setSize(heapSize);
+        valueList.setSize(heapSize);
+        for (int i = heapSize - 1; i >= 0; i--) {
+            indexList.setQuick(i, heapIndexes[0]);
+            valueList.setQuick(i, heapValues[0]);
+            heapValues[0] = heapValues[i];
+            heapIndexes[0] = heapIndexes[i];
+            heapSiftDown(heapValues, heapIndexes, i, 0, max);
+        }
+    }
+
+    /**
+     * Offers the cells <tt>from..to-1</tt> to an empty heap and returns its
+     * new size.
+     */
+    private int heapOfferRange(int from, int to, boolean max, long[] heapValues, int[] heapIndexes) {
+        int heapSize = 0;
+        for (int i = from; i < to; i++) {
+            long elem = getQuick(i);
+            heapSize = heapOffer(heapValues, heapIndexes, heapSize, elem, i, max);
+        }
+        return heapSize;
+    }
+
+    /**
+     * Offers a cell to a bounded heap whose root is the worst cell kept and
+     * returns the new heap size.
+     */
+    private static int heapOffer(long[] heapValues, int[] heapIndexes, int heapSize, long value, int index, boolean max) {
+        if (heapSize < heapValues.length) {
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!heapWorse(value, index, heapValues[parent], heapIndexes[parent], max))
+                    break;
+                heapValues[i] = heapValues[parent];
+                heapIndexes[i] = heapIndexes[parent];
+                i = parent;
+            }
+            heapValues[i] = value;
+            heapIndexes[i] = index;
+        } else if (heapWorse(heapValues[0], heapIndexes[0], value, index, max)) {
+            heapValues[0] = value;
+            heapIndexes[0] = index;
+            heapSiftDown(heapValues, heapIndexes, heapSize, 0, max);
+        }
+        return heapSize;
+    }
+
+    private static void heapSiftDown(long[] heapValues, int[] heapIndexes, int heapSize, int i, boolean max) {
+        long value = heapValues[i];
+        int index = heapIndexes[i];
+        int child;
+        while ((child = 2 * i + 1) < heapSize) {
+            if (child + 1 < heapSize
+                    && heapWorse(heapValues[child + 1], heapIndexes[child + 1], heapValues[child], heapIndexes[child], max))
+                child++;
+            if (!heapWorse(heapValues[child], heapIndexes[child], value, index, max))
+                break;
+            heapValues[i] = heapValues[child];
+            heapIndexes[i] = heapIndexes[child];
+            i = child;
+        }
+        heapValues[i] = value;
+        heapIndexes[i] = index;
+    }
+
+    /**
+     * Returns whether cell <tt>(v1,i1)</tt> ranks after cell <tt>(v2,i2)</tt>.
+     */
+    private static boolean heapWorse(long v1, int i1, long v2, int i2, boolean max) {
+        if (v1 == v2)
+            return i1 > i2;
+        return max ? v1 < v2 : v1 > v2;
+    }
 }
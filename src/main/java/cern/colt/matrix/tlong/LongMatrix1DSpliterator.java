@@ -0,0 +1,80 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.colt.matrix.tlong;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Splittable iterator over a range of cells of an arbitrary
+ * {@link LongMatrix1D}, reading cells with <tt>getQuick</tt>. Used for matrices
+ * whose cells are not stored in a strided array, e.g. selection views and
+ * sparse matrices. Ranges are split in halves at multiples of one cache line
+ * worth of cells; ranges smaller than two cache lines are not split.
+ */
+class LongMatrix1DSpliterator implements Spliterator.OfLong {
+    private static final int LINE = 8;
+
+    private final LongMatrix1D matrix;
+
+    private int index;
+
+    private final int fence;
+
+    LongMatrix1DSpliterator(LongMatrix1D matrix, int from, int to) {
+        this.matrix = matrix;
+        this.index = from;
+        this.fence = to;
+    }
+
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED;
+    }
+
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    public void forEachRemaining(LongConsumer action) {
+        if (action == null)
+            throw new NullPointerException();
+        int i = index;
+        int hi = fence;
+        index = hi;
+        for (; i < hi; i++) {
+            action.accept(matrix.getQuick(i));
+        }
+    }
+
+    public long getExactSizeIfKnown() {
+        return fence - index;
+    }
+
+    public boolean tryAdvance(LongConsumer action) {
+        if (action == null)
+            throw new NullPointerException();
+        if (index < fence) {
+            action.accept(matrix.getQuick(index++));
+            return true;
+        }
+        return false;
+    }
+
+    public Spliterator.OfLong trySplit() {
+        int lo = index;
+        if (fence - lo < 2 * LINE)
+            return null;
+        int mid = (lo + fence) >>> 1;
+        int aligned = mid & ~(LINE - 1);
+        if (aligned > lo)
+            mid = aligned;
+        index = mid;
+        return new LongMatrix1DSpliterator(matrix, lo, mid);
+    }
+}
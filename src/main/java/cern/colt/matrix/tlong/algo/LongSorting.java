@@ -8,12 +8,15 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tlong.algo;
 
+import java.util.concurrent.Future;
+
 import cern.colt.function.tint.IntComparator;
 import cern.colt.matrix.AbstractFormatter;
 import cern.colt.matrix.tlong.LongMatrix1D;
 import cern.colt.matrix.tlong.LongMatrix2D;
 import cern.colt.matrix.tlong.LongMatrix3D;
 import cern.colt.matrix.tlong.impl.DenseLongMatrix1D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Matrix quicksorts and mergesorts. Use idioms like
@@ -83,6 +86,39 @@ public class LongSorting extends cern.colt.PersistentObject {
     protected LongSorting() {
     }
 
+    /**
+     * Copies the elements of the vector into a new dense array, in the order
+     * given by <tt>indexes</tt>, or in natural order if <tt>indexes</tt> is
+     * null.
+     */
+    private static long[] gather(final LongMatrix1D vector, final int[] indexes) {
+        final int size = (int) vector.size();
+        final long[] keys = new long[size];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (size >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, size);
+            Future<?>[] futures = new Future[nthreads];
+            int k = size / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? size : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        for (int i = firstIdx; i < lastIdx; i++) {
+                            keys[i] = vector.getQuick(indexes == null ? i : indexes[i]);
+                        }
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            for (int i = 0; i < size; i++) {
+                keys[i] = vector.getQuick(indexes == null ? i : indexes[i]);
+            }
+        }
+        return keys;
+    }
+
     protected void runSort(int[] a, int fromIndex, int toIndex, IntComparator c) {
         cern.colt.Sorting.parallelQuickSort(a, fromIndex, toIndex, c);
     }
@@ -122,43 +158,24 @@ public class LongSorting extends cern.colt.PersistentObject {
     }
 
     /**
-     * Sorts indexes of the <code>vector</code> into ascending order.
+     * Sorts indexes of the <code>vector</code> into ascending order. The
+     * values are first gathered into a dense array, which is then sorted by
+     * the multithreaded radix argsort
+     * {@link cern.colt.Sorting#parallelRadixSortIndexes(long[],int,int)}. The
+     * sort is stable.
+     * <p>
+     * The radix argsort is used by every instance, so <tt>quickSort</tt> and
+     * <tt>mergeSort</tt> give the same result here, and overriding
+     * <tt>runSort</tt> has no effect on this method. The same holds for
+     * {@link #sort(LongMatrix1D)}, {@link #sort(LongMatrix2D,int)} and
+     * {@link #sortByColumns(LongMatrix2D,int[])}, which are built on it. Pass a
+     * comparator to sort with <tt>runSort</tt>.
      * 
      * @param vector
      * @return sorted indexes
      */
     public int[] sortIndex(final LongMatrix1D vector) {
-        int[] indexes = new int[(int) vector.size()]; // row indexes to reorder
-        // instead of matrix itself
-        for (int i = indexes.length; --i >= 0;)
-            indexes[i] = i;
-        IntComparator comp = null;
-        if (vector instanceof DenseLongMatrix1D) {
-            final long[] velems = (long[]) vector.elements();
-            final int zero = (int) vector.index(0);
-            final int stride = vector.stride();
-            comp = new IntComparator() {
-                public int compare(int a, int b) {
-                    int idxa = zero + a * stride;
-                    int idxb = zero + b * stride;
-                    long av = velems[idxa];
-                    long bv = velems[idxb];
-                    return av < bv ? -1 : (av == bv ? 0 : 1);
-                }
-            };
-        } else {
-            comp = new IntComparator() {
-                public int compare(int a, int b) {
-                    long av = vector.getQuick(a);
-                    long bv = vector.getQuick(b);
-                    return av < bv ? -1 : (av == bv ? 0 : 1);
-                }
-            };
-        }
-
-        runSort(indexes, 0, indexes.length, comp);
-
-        return indexes;
+        return cern.colt.Sorting.parallelRadixSortIndexes(gather(vector, null), 0, (int) vector.size());
     }
 
     /**
@@ -409,27 +426,64 @@ public class LongSorting extends cern.colt.PersistentObject {
         if (column < 0 || column >= matrix.columns())
             throw new IndexOutOfBoundsException("column=" + column + ", matrix=" + AbstractFormatter.shape(matrix));
 
-        int[] rowIndexes = new int[matrix.rows()]; // row indexes to reorder
-        // instead of matrix itself
-        for (int i = rowIndexes.length; --i >= 0;)
-            rowIndexes[i] = i;
-
-        final LongMatrix1D col = matrix.viewColumn(column);
-        IntComparator comp = new IntComparator() {
-            public int compare(int a, int b) {
-                long av = col.getQuick(a);
-                long bv = col.getQuick(b);
-                return av < bv ? -1 : (av == bv ? 0 : 1);
-            }
-        };
-
-        runSort(rowIndexes, 0, rowIndexes.length, comp);
+        // gather the column once and argsort the dense copy; the row indexes
+        // are reordered instead of the matrix itself
+        int[] rowIndexes = sortIndex(matrix.viewColumn(column));
 
         // view the matrix according to the reordered row indexes
         // take all columns in the original order
         return matrix.viewSelection(rowIndexes, null);
     }
 
+    /**
+     * Sorts the matrix rows into ascending lexicographic order of the values in
+     * the given columns: rows are ordered by the first column, ties are broken
+     * by the second column, and so on. The returned view is backed by this
+     * matrix, so changes in the returned view are reflected in this matrix,
+     * and vice-versa.
+     * <p>
+     * The rows are sorted by the last column first and then, stably, by each
+     * preceding column, using the multithreaded radix argsort of
+     * {@link cern.colt.Sorting}. Each pass gathers one column into a dense
+     * array; the matrix itself is never copied.
+     * 
+     * @param matrix
+     *            the matrix to be sorted.
+     * @param columns
+     *            the indexes of the columns inducing the order, most
+     *            significant first.
+     * @return a new matrix view having rows sorted by the given columns.
+     *         <b>Note that the original matrix is left unaffected.</b>
+     * @throws IndexOutOfBoundsException
+     *             if <tt>columns[i] < 0 || columns[i] >= matrix.columns()</tt>
+     *             for any <tt>i</tt>.
+     */
+    public LongMatrix2D sortByColumns(LongMatrix2D matrix, int[] columns) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] < 0 || columns[i] >= matrix.columns())
+                throw new IndexOutOfBoundsException("column=" + columns[i] + ", matrix="
+                        + AbstractFormatter.shape(matrix));
+        }
+        int rows = matrix.rows();
+        int[] rowIndexes = null;
+        for (int i = columns.length; --i >= 0;) {
+            long[] keys = gather(matrix.viewColumn(columns[i]), rowIndexes);
+            int[] perm = cern.colt.Sorting.parallelRadixSortIndexes(keys, 0, rows);
+            if (rowIndexes != null) {
+                for (int r = 0; r < rows; r++) {
+                    perm[r] = rowIndexes[perm[r]];
+                }
+            }
+            rowIndexes = perm;
+        }
+        if (rowIndexes == null) {
+            rowIndexes = new int[rows];
+            for (int r = rows; --r >= 0;)
+                rowIndexes[r] = r;
+        }
+        return matrix.viewSelection(rowIndexes, null);
+    }
+
     /**
      * Sorts the matrix rows according to the order induced by the specified
      * comparator. The returned view is backed by this matrix, so changes in the
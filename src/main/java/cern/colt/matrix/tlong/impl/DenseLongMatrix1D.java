@@ -8,12 +8,14 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.colt.matrix.tlong.impl;
 
+import java.util.Spliterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import cern.colt.list.tint.IntArrayList;
 import cern.colt.list.tlong.LongArrayList;
+import cern.colt.list.tlong.LongArraySpliterator;
 import cern.colt.matrix.tlong.LongMatrix1D;
 import cern.colt.matrix.tlong.LongMatrix2D;
 import cern.colt.matrix.tlong.LongMatrix3D;
@@ -80,6 +82,18 @@ public class DenseLongMatrix1D extends LongMatrix1D {
         this.elements = new long[size];
     }
 
+    /**
+     * Returns a spliterator over the cells of the receiver, in index order,
+     * traversing the backing array with the offset and stride of the
+     * receiver. Splits of contiguous views are aligned to cache lines of the
+     * backing array.
+     * 
+     * @return a spliterator over the cells of the receiver.
+     */
+    public Spliterator.OfLong spliterator() {
+        return new LongArraySpliterator(elements, zero, stride, 0, size);
+    }
+
     /**
      * Constructs a matrix with the given parameters.
      * 
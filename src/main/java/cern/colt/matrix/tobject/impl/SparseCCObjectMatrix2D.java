@@ -9,11 +9,13 @@ It is provided "as is" without expressed or implied warranty.
 package cern.colt.matrix.tobject.impl;
 
 import java.util.Arrays;
+import java.util.concurrent.Future;
 
 import cern.colt.list.tint.IntArrayList;
 import cern.colt.list.tobject.ObjectArrayList;
 import cern.colt.matrix.tobject.ObjectMatrix1D;
 import cern.colt.matrix.tobject.ObjectMatrix2D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Sparse column-compressed 2-d matrix holding <tt>Object</tt> elements. First
@@ -149,15 +151,21 @@ public class SparseCCObjectMatrix2D extends WrapperObjectMatrix2D {
         this.rowIndexes = new int[nz];
         this.values = new Object[nz];
         this.columnPointers = new int[columns + 1];
-        int[] w = new int[columns];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[columnIndexes[k]]++;
-        }
-        cumsum(this.columnPointers, w, columns);
-        for (int k = 0; k < nz; k++) {
-            this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
-            this.values[r] = value;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(columnIndexes, rowIndexes, nz, columns, this.columnPointers, this.rowIndexes);
+            Arrays.fill(this.values, value);
+        } else {
+            int[] w = new int[columns];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[columnIndexes[k]]++;
+            }
+            cumsum(this.columnPointers, w, columns);
+            for (int k = 0; k < nz; k++) {
+                this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
+                this.values[r] = value;
+            }
         }
         if (sortRowIndexes) {
             sortRowIndexes();
@@ -201,15 +209,21 @@ public class SparseCCObjectMatrix2D extends WrapperObjectMatrix2D {
         this.rowIndexes = new int[nz];
         this.values = new Object[nz];
         this.columnPointers = new int[columns + 1];
-        int[] w = new int[columns];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[columnIndexes[k]]++;
-        }
-        cumsum(this.columnPointers, w, columns);
-        for (int k = 0; k < nz; k++) {
-            this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
-            this.values[r] = values[k];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(columnIndexes, rowIndexes, nz, columns, this.columnPointers, this.rowIndexes);
+            scatter(dest, values, this.values, nz);
+        } else {
+            int[] w = new int[columns];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[columnIndexes[k]]++;
+            }
+            cumsum(this.columnPointers, w, columns);
+            for (int k = 0; k < nz; k++) {
+                this.rowIndexes[r = w[columnIndexes[k]]++] = rowIndexes[k];
+                this.values[r] = values[k];
+            }
         }
         if (sortRowIndexes) {
             sortRowIndexes();
@@ -436,12 +450,21 @@ public class SparseCCObjectMatrix2D extends WrapperObjectMatrix2D {
      * Sorts row indexes
      */
     public void sortRowIndexes() {
-        SparseCCObjectMatrix2D tr = getTranspose();
-        tr = tr.getTranspose();
-        columnPointers = tr.columnPointers;
-        rowIndexes = tr.rowIndexes;
-        values = tr.values;
-        rowIndexesSorted = true;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(columnPointers, rowIndexes, columns, rows);
+            Object[] valuesNew = new Object[values.length];
+            scatter(dest, values, valuesNew, cardinality());
+            values = valuesNew;
+            rowIndexesSorted = true;
+        } else {
+            SparseCCObjectMatrix2D tr = getTranspose();
+            tr = tr.getTranspose();
+            columnPointers = tr.columnPointers;
+            rowIndexes = tr.rowIndexes;
+            values = tr.values;
+            rowIndexesSorted = true;
+        }
     }
 
     /**
@@ -550,4 +573,22 @@ public class SparseCCObjectMatrix2D extends WrapperObjectMatrix2D {
         System.arraycopy(values, 0, valuesNew, 0, length);
         values = valuesNew;
     }
+
+    private static void scatter(final int[] dest, final Object[] src, final Object[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        dst[dest[p]] = src[p];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
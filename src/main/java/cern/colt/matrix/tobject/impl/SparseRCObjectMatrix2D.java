@@ -9,11 +9,13 @@ It is provided "as is" without expressed or implied warranty.
 package cern.colt.matrix.tobject.impl;
 
 import java.util.Arrays;
+import java.util.concurrent.Future;
 
 import cern.colt.list.tint.IntArrayList;
 import cern.colt.list.tobject.ObjectArrayList;
 import cern.colt.matrix.tobject.ObjectMatrix1D;
 import cern.colt.matrix.tobject.ObjectMatrix2D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Sparse row-compressed 2-d matrix holding <tt>Object</tt> elements. First see
@@ -166,15 +168,21 @@ public class SparseRCObjectMatrix2D extends WrapperObjectMatrix2D {
         this.columnIndexes = new int[nz];
         this.values = new Object[nz];
         this.rowPointers = new int[rows + 1];
-        int[] w = new int[rows];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[rowIndexes[k]]++;
-        }
-        cumsum(this.rowPointers, w, rows);
-        for (int k = 0; k < nz; k++) {
-            this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
-            this.values[r] = value;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            compressIndexes(rowIndexes, columnIndexes, nz, rows, this.rowPointers, this.columnIndexes);
+            Arrays.fill(this.values, value);
+        } else {
+            int[] w = new int[rows];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[rowIndexes[k]]++;
+            }
+            cumsum(this.rowPointers, w, rows);
+            for (int k = 0; k < nz; k++) {
+                this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
+                this.values[r] = value;
+            }
         }
         if (sortColumnIndexes) {
             sortColumnIndexes();
@@ -218,15 +226,21 @@ public class SparseRCObjectMatrix2D extends WrapperObjectMatrix2D {
         this.columnIndexes = new int[nz];
         this.values = new Object[nz];
         this.rowPointers = new int[rows + 1];
-        int[] w = new int[rows];
-        int r;
-        for (int k = 0; k < nz; k++) {
-            w[rowIndexes[k]]++;
-        }
-        cumsum(this.rowPointers, w, rows);
-        for (int k = 0; k < nz; k++) {
-            this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
-            this.values[r] = values[k];
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (nz >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = compressIndexes(rowIndexes, columnIndexes, nz, rows, this.rowPointers, this.columnIndexes);
+            scatter(dest, values, this.values, nz);
+        } else {
+            int[] w = new int[rows];
+            int r;
+            for (int k = 0; k < nz; k++) {
+                w[rowIndexes[k]]++;
+            }
+            cumsum(this.rowPointers, w, rows);
+            for (int k = 0; k < nz; k++) {
+                this.columnIndexes[r = w[rowIndexes[k]]++] = columnIndexes[k];
+                this.values[r] = values[k];
+            }
         }
         if (removeZeroes) {
             removeZeroes();
@@ -505,25 +519,34 @@ public class SparseRCObjectMatrix2D extends WrapperObjectMatrix2D {
      * Sorts column indexes
      */
     public void sortColumnIndexes() {
-        SparseRCObjectMatrix2D T = getTranspose();
-        this.rows = T.rows;
-        this.columns = T.columns;
-        this.columnIndexes = T.columnIndexes;
-        this.rowPointers = T.rowPointers;
-        this.values = T.values;
-        //        System.arraycopy(T.columnIndexes, 0, this.columnIndexes, 0, T.columnIndexes.length);
-        //        System.arraycopy(T.rowPointers, 0, this.rowPointers, 0, T.rowPointers.length);
-        //        System.arraycopy(T.values, 0, this.values, 0, T.values.length);
-        T = getTranspose();
-        this.rows = T.rows;
-        this.columns = T.columns;
-        this.columnIndexes = T.columnIndexes;
-        this.rowPointers = T.rowPointers;
-        this.values = T.values;
-        columnIndexesSorted = true;
-        //        System.arraycopy(T.columnIndexes, 0, this.columnIndexes, 0, T.columnIndexes.length);
-        //        System.arraycopy(T.rowPointers, 0, this.rowPointers, 0, T.rowPointers.length);
-        //        System.arraycopy(T.values, 0, this.values, 0, T.values.length);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (cardinality() >= ConcurrencyUtils.getThreadsBeginN_2D())) {
+            int[] dest = sortIndexes(rowPointers, columnIndexes, rows, columns);
+            Object[] valuesNew = new Object[values.length];
+            scatter(dest, values, valuesNew, cardinality());
+            values = valuesNew;
+            columnIndexesSorted = true;
+        } else {
+            SparseRCObjectMatrix2D T = getTranspose();
+            this.rows = T.rows;
+            this.columns = T.columns;
+            this.columnIndexes = T.columnIndexes;
+            this.rowPointers = T.rowPointers;
+            this.values = T.values;
+            //        System.arraycopy(T.columnIndexes, 0, this.columnIndexes, 0, T.columnIndexes.length);
+            //        System.arraycopy(T.rowPointers, 0, this.rowPointers, 0, T.rowPointers.length);
+            //        System.arraycopy(T.values, 0, this.values, 0, T.values.length);
+            T = getTranspose();
+            this.rows = T.rows;
+            this.columns = T.columns;
+            this.columnIndexes = T.columnIndexes;
+            this.rowPointers = T.rowPointers;
+            this.values = T.values;
+            columnIndexesSorted = true;
+            //        System.arraycopy(T.columnIndexes, 0, this.columnIndexes, 0, T.columnIndexes.length);
+            //        System.arraycopy(T.rowPointers, 0, this.rowPointers, 0, T.rowPointers.length);
+            //        System.arraycopy(T.values, 0, this.values, 0, T.values.length);
+        }
     }
 
     public String toString() {
@@ -600,4 +623,21 @@ public class SparseRCObjectMatrix2D extends WrapperObjectMatrix2D {
         values = valuesList.elements();
     }
 
+    private static void scatter(final int[] dest, final Object[] src, final Object[] dst, final int nz) {
+        int nthreads = Math.max(1, Math.min(ConcurrencyUtils.getNumberOfThreads(), nz));
+        Future<?>[] futures = new Future[nthreads];
+        int k = nz / nthreads;
+        for (int j = 0; j < nthreads; j++) {
+            final int firstIdx = j * k;
+            final int lastIdx = (j == nthreads - 1) ? nz : firstIdx + k;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int p = firstIdx; p < lastIdx; p++) {
+                        dst[dest[p]] = src[p];
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+    }
 }
@@ -8,7 +8,13 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.jet.random.tdouble;
 
+import java.util.concurrent.Future;
+
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
 import cern.jet.random.tdouble.engine.DoubleRandomEngine;
+import cern.jet.random.tdouble.engine.SplittableDoubleRandomEngine;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Abstract base class for all random distributions.
@@ -73,6 +79,13 @@ public abstract class AbstractDoubleDistribution extends cern.colt.PersistentObj
      * 
      */
     private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of consecutive values the bulk <tt>fill</tt> methods draw
+     * from one split engine.
+     */
+    protected static final int FILL_CHUNK = 1 << 14;
+
     protected DoubleRandomEngine randomGenerator;
 
     /**
@@ -115,6 +128,102 @@ public abstract class AbstractDoubleDistribution extends cern.colt.PersistentObj
         return copy;
     }
 
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers from
+     * the distribution, using multiple threads for large ranges.
+     * <p>
+     * If the uniform random generator of the receiver is a
+     * {@link SplittableDoubleRandomEngine}, the range is divided into chunks of
+     * <tt>FILL_CHUNK</tt> values, each drawn from its own engine split off the
+     * receiver's engine in chunk order. The result then depends only on the
+     * state of the receiver's engine, not on the number of threads. Otherwise
+     * the range is filled sequentially from the receiver's engine with
+     * {@link #nextDoubles(double[],int,int)}.
+     * 
+     * @param values
+     *            the array to fill.
+     * @param offset
+     *            the index of the first value to fill.
+     * @param length
+     *            the number of values to fill.
+     */
+    public void fill(final double[] values, final int offset, int length) {
+        fill(length, new ChunkFiller() {
+            public void fill(AbstractDoubleDistribution distribution, long from, long to) {
+                distribution.nextDoubles(values, offset + (int) from, (int) (to - from));
+            }
+        });
+    }
+
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers from
+     * the distribution, as returned by <tt>nextInt()</tt>. Chunking and
+     * threading are as for {@link #fill(double[],int,int)}.
+     * 
+     * @param values
+     *            the array to fill.
+     * @param offset
+     *            the index of the first value to fill.
+     * @param length
+     *            the number of values to fill.
+     */
+    public void fill(final int[] values, final int offset, int length) {
+        fill(length, new ChunkFiller() {
+            public void fill(AbstractDoubleDistribution distribution, long from, long to) {
+                distribution.nextInts(values, offset + (int) from, (int) (to - from));
+            }
+        });
+    }
+
+    /**
+     * Fills all cells of the given matrix with random numbers from the
+     * distribution, in index order. Chunking and threading are as for
+     * {@link #fill(double[],int,int)}.
+     * 
+     * @param A
+     *            the matrix to fill.
+     */
+    public void fill(final DoubleMatrix1D A) {
+        fill(A.size(), new ChunkFiller() {
+            public void fill(AbstractDoubleDistribution distribution, long from, long to) {
+                int n = (int) (to - from);
+                double[] buffer = new double[n];
+                distribution.nextDoubles(buffer, 0, n);
+                for (int i = 0; i < n; i++) {
+                    A.setQuick((int) from + i, buffer[i]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Fills all cells of the given matrix with random numbers from the
+     * distribution, in row major order. Chunking and threading are as for
+     * {@link #fill(double[],int,int)}.
+     * 
+     * @param A
+     *            the matrix to fill.
+     */
+    public void fill(final DoubleMatrix2D A) {
+        final int columns = A.columns();
+        fill(A.size(), new ChunkFiller() {
+            public void fill(AbstractDoubleDistribution distribution, long from, long to) {
+                int n = (int) (to - from);
+                double[] buffer = new double[n];
+                distribution.nextDoubles(buffer, 0, n);
+                int r = (int) (from / columns);
+                int c = (int) (from % columns);
+                for (int i = 0; i < n; i++) {
+                    A.setQuick(r, c, buffer[i]);
+                    if (++c == columns) {
+                        c = 0;
+                        r++;
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * Returns the used uniform random number generator;
      */
@@ -136,6 +245,25 @@ public abstract class AbstractDoubleDistribution extends cern.colt.PersistentObj
      */
     public abstract double nextDouble();
 
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers from
+     * the distribution, drawn sequentially from the receiver's engine.
+     * Subclasses override this method with faster bulk algorithms; the
+     * default calls <tt>nextDouble()</tt> repeatedly.
+     * 
+     * @param values
+     *            the array to fill.
+     * @param offset
+     *            the index of the first value to fill.
+     * @param length
+     *            the number of values to fill.
+     */
+    public void nextDoubles(double[] values, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            values[i] = nextDouble();
+        }
+    }
+
     /**
      * Returns a random number from the distribution; returns
      * <tt>(int) Math.round(nextDouble())</tt>. Override this method if
@@ -145,10 +273,84 @@ public abstract class AbstractDoubleDistribution extends cern.colt.PersistentObj
         return (int) Math.round(nextDouble());
     }
 
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers from
+     * the distribution, as returned by <tt>nextInt()</tt>, drawn sequentially
+     * from the receiver's engine.
+     * 
+     * @param values
+     *            the array to fill.
+     * @param offset
+     *            the index of the first value to fill.
+     * @param length
+     *            the number of values to fill.
+     */
+    public void nextInts(int[] values, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            values[i] = nextInt();
+        }
+    }
+
     /**
      * Sets the uniform random generator internally used.
      */
     protected void setRandomGenerator(DoubleRandomEngine randomGenerator) {
         this.randomGenerator = randomGenerator;
     }
+
+    /**
+     * Fills positions <tt>[0,n)</tt> of some target, chunk by chunk; see
+     * {@link #fill(double[],int,int)}.
+     */
+    private void fill(long n, final ChunkFiller filler) {
+        if (n <= 0)
+            return;
+        if (!(randomGenerator instanceof SplittableDoubleRandomEngine)) {
+            for (long from = 0; from < n; from += FILL_CHUNK) {
+                filler.fill(this, from, Math.min(n, from + FILL_CHUNK));
+            }
+            return;
+        }
+        final long nchunks = (n + FILL_CHUNK - 1) / FILL_CHUNK;
+        if (nchunks > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many values: " + n);
+        final SplittableDoubleRandomEngine[] engines = ((SplittableDoubleRandomEngine) randomGenerator)
+                .split((int) nchunks);
+        final long size = n;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= ConcurrencyUtils.getThreadsBeginN_1D()) && (nchunks > 1)) {
+            nthreads = (int) Math.min(nthreads, nchunks);
+            Future<?>[] futures = new Future[nthreads];
+            int k = (int) nchunks / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstChunk = j * k;
+                final int lastChunk = (j == nthreads - 1) ? (int) nchunks : firstChunk + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        fillChunks(filler, engines, firstChunk, lastChunk, size);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            fillChunks(filler, engines, 0, (int) nchunks, size);
+        }
+    }
+
+    private void fillChunks(ChunkFiller filler, SplittableDoubleRandomEngine[] engines, int firstChunk,
+            int lastChunk, long n) {
+        AbstractDoubleDistribution distribution = (AbstractDoubleDistribution) clone();
+        for (int c = firstChunk; c < lastChunk; c++) {
+            distribution.setRandomGenerator(engines[c]);
+            long from = (long) c * FILL_CHUNK;
+            filler.fill(distribution, from, Math.min(n, from + FILL_CHUNK));
+        }
+    }
+
+    /**
+     * Fills positions <tt>[from,to)</tt> of a target from a distribution.
+     */
+    private interface ChunkFiller {
+        void fill(AbstractDoubleDistribution distribution, long from, long to);
+    }
 }
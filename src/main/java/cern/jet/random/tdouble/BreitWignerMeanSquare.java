@@ -91,6 +91,16 @@ public class BreitWignerMeanSquare extends BreitWigner {
         }
     }
 
+    /**
+     * Sets the uniform random generator internally used, also for the helper
+     * distribution.
+     */
+    protected void setRandomGenerator(DoubleRandomEngine randomGenerator) {
+        super.setRandomGenerator(randomGenerator);
+        if (this.uniform != null)
+            this.uniform.setRandomGenerator(randomGenerator);
+    }
+
     /**
      * Returns a random number from the distribution.
      * 
@@ -92,6 +92,21 @@ public class DoubleUniform extends AbstractContinousDoubleDistribution {
         return min + (max - min) * randomGenerator.raw();
     }
 
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with uniformly
+     * distributed values in the open interval <tt>(min,max)</tt>, using the
+     * bulk {@link DoubleRandomEngine#nextDoubles(double[],int,int)} of the
+     * engine.
+     */
+    public void nextDoubles(double[] values, int offset, int length) {
+        randomGenerator.nextDoubles(values, offset, length);
+        double min = this.min;
+        double width = this.max - this.min;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            values[i] = min + width * values[i];
+        }
+    }
+
     /**
      * Returns a uniformly distributed random number in the open interval
      * <tt>(from,to)</tt> (excluding <tt>from</tt> and <tt>to</tt>). Pre
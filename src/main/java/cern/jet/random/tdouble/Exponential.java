@@ -41,6 +41,34 @@ public class Exponential extends AbstractContinousDoubleDistribution {
     // The uniform random number generated shared by all <b>static</b> methods.
     protected static Exponential shared = new Exponential(1.0, makeDefaultGenerator());
 
+    /**
+     * Ziggurat tables (Marsaglia and Tsang, 2000, 256 layers): layer edges and
+     * ratios of adjacent edges.
+     */
+    private static final int ZIG_LAYERS = 256;
+
+    private static final double ZIG_R = 7.69711747013104972;
+
+    private static final double ZIG_V = 3.949659822581572e-3;
+
+    private static final double[] ZIG_X = new double[ZIG_LAYERS + 1];
+
+    private static final double[] ZIG_RATIO = new double[ZIG_LAYERS];
+
+    static {
+        double f = Math.exp(-ZIG_R);
+        ZIG_X[0] = ZIG_V / f;
+        ZIG_X[1] = ZIG_R;
+        ZIG_X[ZIG_LAYERS] = 0;
+        for (int i = 2; i < ZIG_LAYERS; i++) {
+            ZIG_X[i] = -Math.log(ZIG_V / ZIG_X[i - 1] + f);
+            f = Math.exp(-ZIG_X[i]);
+        }
+        for (int i = 0; i < ZIG_LAYERS; i++) {
+            ZIG_RATIO[i] = ZIG_X[i + 1] / ZIG_X[i];
+        }
+    }
+
     /**
      * Constructs a Negative Exponential distribution.
      */
@@ -74,6 +102,19 @@ public class Exponential extends AbstractContinousDoubleDistribution {
         return -Math.log(randomGenerator.raw()) / lambda;
     }
 
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers from
+     * the distribution, using the ziggurat method. Most values take a single
+     * <tt>nextLong()</tt> of the engine and no logarithm.
+     */
+    public void nextDoubles(double[] values, int offset, int length) {
+        DoubleRandomEngine engine = this.randomGenerator;
+        double scale = 1.0 / lambda;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            values[i] = scale * ziggurat(engine);
+        }
+    }
+
     /**
      * Returns the probability distribution function.
      */
@@ -119,4 +160,28 @@ public class Exponential extends AbstractContinousDoubleDistribution {
             shared.setRandomGenerator(randomGenerator);
         }
     }
+
+    /**
+     * Returns a standard exponential random number drawn with the ziggurat
+     * method.
+     */
+    private static double ziggurat(DoubleRandomEngine engine) {
+        for (;;) {
+            long bits = engine.nextLong();
+            int i = (int) bits & (ZIG_LAYERS - 1);
+            double u = (bits >>> 11) * 0x1.0p-53; // in [0,1)
+            if (u < ZIG_RATIO[i])
+                return u * ZIG_X[i];
+            if (i == 0) {
+                // the tail is a shifted exponential
+                return ZIG_R - Math.log(engine.nextDouble());
+            }
+            // sample from the wedge
+            double x = u * ZIG_X[i];
+            double f0 = Math.exp(x - ZIG_X[i]);
+            double f1 = Math.exp(x - ZIG_X[i + 1]);
+            if (f1 + engine.nextDouble() * (f0 - f1) < 1.0)
+                return x;
+        }
+    }
 }
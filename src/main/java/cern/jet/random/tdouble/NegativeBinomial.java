@@ -148,6 +148,18 @@ public class NegativeBinomial extends AbstractDiscreteDistribution {
         this.p = p;
     }
 
+    /**
+     * Sets the uniform random generator internally used, also for the helper
+     * distributions.
+     */
+    protected void setRandomGenerator(DoubleRandomEngine randomGenerator) {
+        super.setRandomGenerator(randomGenerator);
+        if (this.gamma != null)
+            this.gamma.setRandomGenerator(randomGenerator);
+        if (this.poisson != null)
+            this.poisson.setRandomGenerator(randomGenerator);
+    }
+
     /**
      * Returns a random number from the distribution with the given parameters n
      * and p.
@@ -69,6 +69,34 @@ public class Normal extends AbstractContinousDoubleDistribution {
     // The uniform random number generated shared by all <b>static</b> methods.
     protected static Normal shared = new Normal(0.0, 1.0, makeDefaultGenerator());
 
+    /**
+     * Ziggurat tables (Marsaglia and Tsang, 2000, with the 128 layer constants
+     * of Doornik, 2005): layer edges and ratios of adjacent edges.
+     */
+    private static final int ZIG_LAYERS = 128;
+
+    private static final double ZIG_R = 3.442619855899;
+
+    private static final double ZIG_V = 9.91256303526217e-3;
+
+    private static final double[] ZIG_X = new double[ZIG_LAYERS + 1];
+
+    private static final double[] ZIG_RATIO = new double[ZIG_LAYERS];
+
+    static {
+        double f = Math.exp(-0.5 * ZIG_R * ZIG_R);
+        ZIG_X[0] = ZIG_V / f;
+        ZIG_X[1] = ZIG_R;
+        ZIG_X[ZIG_LAYERS] = 0;
+        for (int i = 2; i < ZIG_LAYERS; i++) {
+            ZIG_X[i] = Math.sqrt(-2 * Math.log(ZIG_V / ZIG_X[i - 1] + f));
+            f = Math.exp(-0.5 * ZIG_X[i] * ZIG_X[i]);
+        }
+        for (int i = 0; i < ZIG_LAYERS; i++) {
+            ZIG_RATIO[i] = ZIG_X[i + 1] / ZIG_X[i];
+        }
+    }
+
     /**
      * Constructs a normal (gauss) distribution. Example: mean=0.0,
      * standardDeviation=1.0.
@@ -120,6 +148,22 @@ public class Normal extends AbstractContinousDoubleDistribution {
         return mean + standardDeviation * y * z;
     }
 
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers from
+     * the distribution, using the ziggurat method. Most values take a single
+     * <tt>nextLong()</tt> of the engine and no transcendental function. Does
+     * not use or change the cache of the polar method used by
+     * <tt>nextDouble()</tt>.
+     */
+    public void nextDoubles(double[] values, int offset, int length) {
+        DoubleRandomEngine engine = this.randomGenerator;
+        double mean = this.mean;
+        double standardDeviation = this.standardDeviation;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            values[i] = mean + standardDeviation * ziggurat(engine);
+        }
+    }
+
     /**
      * Returns the probability distribution function.
      */
@@ -181,4 +225,32 @@ public class Normal extends AbstractContinousDoubleDistribution {
             shared.setRandomGenerator(randomGenerator);
         }
     }
+
+    /**
+     * Returns a standard normal random number drawn with the ziggurat method.
+     */
+    private static double ziggurat(DoubleRandomEngine engine) {
+        for (;;) {
+            long bits = engine.nextLong();
+            int i = (int) bits & (ZIG_LAYERS - 1);
+            double u = (bits >> 11) * 0x1.0p-52; // in [-1,1)
+            if (Math.abs(u) < ZIG_RATIO[i])
+                return u * ZIG_X[i];
+            if (i == 0) {
+                // sample from the tail
+                double x, y;
+                do {
+                    x = Math.log(engine.nextDouble()) / ZIG_R;
+                    y = Math.log(engine.nextDouble());
+                } while (-2 * y < x * x);
+                return u < 0 ? x - ZIG_R : ZIG_R - x;
+            }
+            // sample from the wedge
+            double x = u * ZIG_X[i];
+            double f0 = Math.exp(-0.5 * (ZIG_X[i] * ZIG_X[i] - x * x));
+            double f1 = Math.exp(-0.5 * (ZIG_X[i + 1] * ZIG_X[i + 1] - x * x));
+            if (f1 + engine.nextDouble() * (f0 - f1) < 1.0)
+                return x;
+        }
+    }
 }
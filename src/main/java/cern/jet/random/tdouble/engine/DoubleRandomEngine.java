@@ -124,6 +124,25 @@ public abstract class DoubleRandomEngine extends cern.colt.PersistentObject impl
          */
     }
 
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers in the
+     * open unit interval <code>(0.0,1.0)</code>, as returned by
+     * <tt>nextDouble()</tt>. Subclasses may override this method to fill the
+     * range faster than by repeated calls.
+     * 
+     * @param values
+     *            the array to fill.
+     * @param offset
+     *            the index of the first value to fill.
+     * @param length
+     *            the number of values to fill.
+     */
+    public void nextDoubles(double[] values, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            values[i] = nextDouble();
+        }
+    }
+
     /**
      * Returns a 32 bit uniformly distributed random number in the open unit
      * interval <code>(0.0f,1.0f)</code> (excluding 0.0f and 1.0f).
@@ -146,6 +165,23 @@ public abstract class DoubleRandomEngine extends cern.colt.PersistentObject impl
      */
     public abstract int nextInt();
 
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers, as
+     * returned by <tt>nextInt()</tt>.
+     * 
+     * @param values
+     *            the array to fill.
+     * @param offset
+     *            the index of the first value to fill.
+     * @param length
+     *            the number of values to fill.
+     */
+    public void nextInts(int[] values, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            values[i] = nextInt();
+        }
+    }
+
     /**
      * Returns a 64 bit uniformly distributed random number in the closed
      * interval <tt>[Long.MIN_VALUE,Long.MAX_VALUE]</tt> (including
@@ -156,6 +192,23 @@ public abstract class DoubleRandomEngine extends cern.colt.PersistentObject impl
         return ((nextInt() & 0xFFFFFFFFL) << 32) | ((nextInt() & 0xFFFFFFFFL));
     }
 
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers, as
+     * returned by <tt>nextLong()</tt>.
+     * 
+     * @param values
+     *            the array to fill.
+     * @param offset
+     *            the index of the first value to fill.
+     * @param length
+     *            the number of values to fill.
+     */
+    public void nextLongs(long[] values, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            values[i] = nextLong();
+        }
+    }
+
     /**
      * Returns a 32 bit uniformly distributed random number in the open unit
      * interval <code>(0.0,1.0)</code> (excluding 0.0 and 1.0).
@@ -0,0 +1,243 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.jet.random.tdouble.engine;
+
+/**
+ * Philox4x32-10 (Salmon, Moraes, Dror and Shaw, 2011), a counter-based
+ * generator. The <i>n</i>-th block of four <tt>int</tt>'s is a keyed bijection
+ * of the 128-bit counter <i>n</i>, so any position of the sequence can be
+ * reached in constant time with {@link #seek(long)}.
+ * <p>
+ * The 64-bit seed is the key; the high 64 bits of the counter select one of
+ * 2<sup>64</sup> streams and the low 64 bits the block within the stream.
+ * Each stream holds 2<sup>66</sup> <tt>int</tt>'s. Because values depend only
+ * on (seed, stream, position), a range of a large sequence can be generated
+ * by any thread without generating the values before it, which makes
+ * parallel results independent of the number of threads.
+ * <p>
+ * {@link #split()} returns an engine keyed with a seed drawn from the
+ * receiver.
+ * <p>
+ * Note that this implementation is <b>not synchronized</b>.
+ */
+public class Philox4x32 extends SplittableDoubleRandomEngine {
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+
+    private static final long M0 = 0xD2511F53L;
+
+    private static final long M1 = 0xCD9E8D57L;
+
+    private static final int W0 = 0x9E3779B9;
+
+    private static final int W1 = 0xBB67AE85;
+
+    private final int key0, key1;
+
+    private final int stream0, stream1;
+
+    /**
+     * The index of the next block to generate.
+     */
+    private long counter;
+
+    /**
+     * The current block.
+     */
+    private final int[] block = new int[4];
+
+    /**
+     * The number of <tt>int</tt>'s of the current block already returned.
+     */
+    private int used = 4;
+
+    /**
+     * Constructs and returns a random number generator seeded with the current
+     * time.
+     */
+    public Philox4x32() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Constructs and returns a random number generator with the given seed,
+     * positioned at the start of stream 0.
+     * 
+     * @param seed
+     *            the seed (key), any value.
+     */
+    public Philox4x32(long seed) {
+        this(seed, 0);
+    }
+
+    /**
+     * Constructs and returns a random number generator with the given seed,
+     * positioned at the start of the given stream.
+     * 
+     * @param seed
+     *            the seed (key), any value.
+     * @param stream
+     *            the stream, any value.
+     */
+    public Philox4x32(long seed, long stream) {
+        this.key0 = (int) seed;
+        this.key1 = (int) (seed >>> 32);
+        this.stream0 = (int) stream;
+        this.stream1 = (int) (stream >>> 32);
+    }
+
+    /**
+     * Returns a deep copy of the receiver.
+     */
+    public Object clone() {
+        Philox4x32 clone = new Philox4x32(((long) key1 << 32) | (key0 & 0xFFFFFFFFL), ((long) stream1 << 32)
+                | (stream0 & 0xFFFFFFFFL));
+        clone.counter = counter;
+        clone.used = used;
+        System.arraycopy(block, 0, clone.block, 0, 4);
+        return clone;
+    }
+
+    /**
+     * Returns the position of the receiver within its stream, i.e. the number
+     * of <tt>int</tt>'s generated since the start of the stream (a
+     * <tt>long</tt> counts as two).
+     * 
+     * @return the current position.
+     */
+    public long getPosition() {
+        return (counter << 2) - (4 - used);
+    }
+
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers in the
+     * open unit interval <code>(0.0,1.0)</code>, as returned by
+     * <tt>nextDouble()</tt>.
+     */
+    public void nextDoubles(double[] values, int offset, int length) {
+        if ((used & 1) != 0) {
+            // doubles straddle blocks
+            super.nextDoubles(values, offset, length);
+            return;
+        }
+        int i = offset;
+        int end = offset + length;
+        int[] b = block;
+        while (i < end) {
+            if (used == 4) {
+                generate(counter++, b);
+                used = 0;
+            }
+            values[i++] = toDouble(((long) b[used] << 32) | (b[used + 1] & 0xFFFFFFFFL));
+            used += 2;
+        }
+    }
+
+    /**
+     * Returns a 32 bit uniformly distributed random number in the closed
+     * interval <tt>[Integer.MIN_VALUE,Integer.MAX_VALUE]</tt> (including
+     * <tt>Integer.MIN_VALUE</tt> and <tt>Integer.MAX_VALUE</tt>).
+     * <tt>raw()</tt> and <tt>nextDouble()</tt> do not use this method; they
+     * take 52 bits from one <tt>nextLong()</tt>.
+     */
+    public int nextInt() {
+        if (used == 4) {
+            generate(counter++, block);
+            used = 0;
+        }
+        return block[used++];
+    }
+
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers, as
+     * returned by <tt>nextInt()</tt>.
+     */
+    public void nextInts(int[] values, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        while (i < end && used != 4) {
+            values[i++] = block[used++];
+        }
+        int[] b = new int[4];
+        while (end - i >= 4) {
+            generate(counter++, b);
+            values[i++] = b[0];
+            values[i++] = b[1];
+            values[i++] = b[2];
+            values[i++] = b[3];
+        }
+        while (i < end) {
+            values[i++] = nextInt();
+        }
+    }
+
+    /**
+     * Positions the receiver so that the next <tt>int</tt> returned is the
+     * one at the given position of its stream.
+     * 
+     * @param position
+     *            the position, in <tt>int</tt>'s from the start of the
+     *            stream.
+     * @throws IllegalArgumentException
+     *             if <tt>position &lt; 0</tt>.
+     */
+    public void seek(long position) {
+        if (position < 0)
+            throw new IllegalArgumentException("position: " + position);
+        counter = position >>> 2;
+        used = 4;
+        int skip = (int) (position & 3);
+        if (skip > 0) {
+            generate(counter++, block);
+            used = skip;
+        }
+    }
+
+    /**
+     * Returns an engine keyed with a seed drawn from the receiver (advancing
+     * the receiver by one <tt>long</tt>), positioned at the start of stream 0.
+     */
+    public SplittableDoubleRandomEngine split() {
+        return new Philox4x32(mix64(nextLong()));
+    }
+
+    /**
+     * Computes block <tt>n</tt> of the receiver's stream.
+     */
+    void generate(long n, int[] out) {
+        int c0 = (int) n;
+        int c1 = (int) (n >>> 32);
+        int c2 = stream0;
+        int c3 = stream1;
+        int k0 = key0;
+        int k1 = key1;
+        for (int round = 0; round < 10; round++) {
+            if (round > 0) {
+                k0 += W0;
+                k1 += W1;
+            }
+            long p0 = M0 * (c0 & 0xFFFFFFFFL);
+            long p1 = M1 * (c2 & 0xFFFFFFFFL);
+            int hi0 = (int) (p0 >>> 32);
+            int lo0 = (int) p0;
+            int hi1 = (int) (p1 >>> 32);
+            int lo1 = (int) p1;
+            c0 = hi1 ^ c1 ^ k0;
+            c1 = lo1;
+            c2 = hi0 ^ c3 ^ k1;
+            c3 = lo0;
+        }
+        out[0] = c0;
+        out[1] = c1;
+        out[2] = c2;
+        out[3] = c3;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.jet.random.tdouble.engine;
+
+/**
+ * Abstract base class for uniform random number engines that can be split into
+ * independent streams, e.g. one stream per thread.
+ * <p>
+ * Splitting is deterministic: an engine constructed with a given seed and
+ * split in the same order always yields the same streams, so parallel
+ * computations drawing from split engines are reproducible. Subclasses
+ * produce <tt>double</tt>'s from 52 random bits, without rejection, so that
+ * each <tt>nextDouble()</tt> consumes exactly one <tt>nextLong()</tt>.
+ * 
+ * @see Xoshiro256StarStar
+ * @see Philox4x32
+ */
+public abstract class SplittableDoubleRandomEngine extends DoubleRandomEngine {
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 2<sup>-52</sup>.
+     */
+    private static final double DOUBLE_UNIT = 1.0 / (1L << 52);
+
+    /**
+     * Makes this class non instantiable, but still let's others inherit from
+     * it.
+     */
+    protected SplittableDoubleRandomEngine() {
+    }
+
+    /**
+     * Returns a 52 bit uniformly distributed random number in the open unit
+     * interval <code>(0.0,1.0)</code> (excluding 0.0 and 1.0). Consumes
+     * exactly one <tt>nextLong()</tt>.
+     */
+    public double nextDouble() {
+        return toDouble(nextLong());
+    }
+
+    /**
+     * Returns a 52 bit uniformly distributed random number in the open unit
+     * interval <code>(0.0,1.0)</code> (excluding 0.0 and 1.0), built from the
+     * high 52 bits of one <tt>nextLong()</tt>. Same as <tt>nextDouble()</tt>.
+     */
+    public double raw() {
+        return toDouble(nextLong());
+    }
+
+    /**
+     * Returns a new engine producing a stream independent of the receiver's
+     * future output. May advance the state of the receiver.
+     * 
+     * @return a new engine.
+     */
+    public abstract SplittableDoubleRandomEngine split();
+
+    /**
+     * Returns <tt>n</tt> new engines, each producing a stream independent of
+     * the others and of the receiver's future output; equivalent to
+     * <tt>n</tt> successive calls to {@link #split()}.
+     * 
+     * @param n
+     *            the number of engines.
+     * @return the new engines.
+     */
+    public SplittableDoubleRandomEngine[] split(int n) {
+        SplittableDoubleRandomEngine[] engines = new SplittableDoubleRandomEngine[n];
+        for (int i = 0; i < n; i++) {
+            engines[i] = split();
+        }
+        return engines;
+    }
+
+    /**
+     * Maps the high 52 bits of a random <tt>long</tt> to the open unit
+     * interval <code>(0.0,1.0)</code>.
+     */
+    protected static double toDouble(long bits) {
+        return ((bits >>> 12) + 0.5) * DOUBLE_UNIT;
+    }
+
+    /**
+     * The SplitMix64 finalizer; used to derive well mixed seeds.
+     */
+    protected static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
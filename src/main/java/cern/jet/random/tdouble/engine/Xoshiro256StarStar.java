@@ -0,0 +1,170 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.jet.random.tdouble.engine;
+
+/**
+ * xoshiro256** (Blackman and Vigna, 2018), a small and fast all-purpose
+ * generator with 256 bits of state and a period of 2<sup>256</sup>-1.
+ * <p>
+ * The engine is jumpable: {@link #jump()} advances the state by
+ * 2<sup>128</sup> steps and {@link #longJump()} by 2<sup>192</sup> steps.
+ * {@link #split()} returns a copy of the receiver and then jumps the receiver,
+ * so up to 2<sup>128</sup> successive splits yield non-overlapping streams of
+ * 2<sup>128</sup> numbers each.
+ * <p>
+ * Note that this implementation is <b>not synchronized</b>.
+ */
+public class Xoshiro256StarStar extends SplittableDoubleRandomEngine {
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+
+    private static final long[] JUMP = { 0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL,
+            0x39abdc4529b1661cL };
+
+    private static final long[] LONG_JUMP = { 0x76e15d3efefdcbbfL, 0xc5004e441c522fb3L, 0x77710069854ee241L,
+            0x39109bb02acbe635L };
+
+    private long s0, s1, s2, s3;
+
+    /**
+     * Constructs and returns a random number generator seeded with the current
+     * time.
+     */
+    public Xoshiro256StarStar() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Constructs and returns a random number generator with the given seed.
+     * The 256-bit state is derived from the seed with SplitMix64.
+     * 
+     * @param seed
+     *            the seed, any value.
+     */
+    public Xoshiro256StarStar(long seed) {
+        long x = seed;
+        s0 = mix64(x += 0x9e3779b97f4a7c15L);
+        s1 = mix64(x += 0x9e3779b97f4a7c15L);
+        s2 = mix64(x += 0x9e3779b97f4a7c15L);
+        s3 = mix64(x += 0x9e3779b97f4a7c15L);
+    }
+
+    /**
+     * Constructs and returns a random number generator with the given state.
+     * 
+     * @throws IllegalArgumentException
+     *             if all four state words are zero.
+     */
+    public Xoshiro256StarStar(long s0, long s1, long s2, long s3) {
+        if ((s0 | s1 | s2 | s3) == 0)
+            throw new IllegalArgumentException("The state must not be all zeros");
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+    }
+
+    /**
+     * Advances the state by 2<sup>128</sup> steps.
+     */
+    public void jump() {
+        jump(JUMP);
+    }
+
+    /**
+     * Advances the state by 2<sup>192</sup> steps.
+     */
+    public void longJump() {
+        jump(LONG_JUMP);
+    }
+
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random numbers in the
+     * open unit interval <code>(0.0,1.0)</code>, as returned by
+     * <tt>nextDouble()</tt>.
+     */
+    public void nextDoubles(double[] values, int offset, int length) {
+        long s0 = this.s0, s1 = this.s1, s2 = this.s2, s3 = this.s3;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            long result = Long.rotateLeft(s1 * 5, 7) * 9;
+            long t = s1 << 17;
+            s2 ^= s0;
+            s3 ^= s1;
+            s1 ^= s2;
+            s0 ^= s3;
+            s2 ^= t;
+            s3 = Long.rotateLeft(s3, 45);
+            values[i] = toDouble(result);
+        }
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+    }
+
+    /**
+     * Returns a 32 bit uniformly distributed random number in the closed
+     * interval <tt>[Integer.MIN_VALUE,Integer.MAX_VALUE]</tt> (including
+     * <tt>Integer.MIN_VALUE</tt> and <tt>Integer.MAX_VALUE</tt>). These are the
+     * high 32 bits of <tt>nextLong()</tt>. <tt>raw()</tt> and
+     * <tt>nextDouble()</tt> do not use this method; they take 52 bits from one
+     * <tt>nextLong()</tt>.
+     */
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Returns a 64 bit uniformly distributed random number in the closed
+     * interval <tt>[Long.MIN_VALUE,Long.MAX_VALUE]</tt> (including
+     * <tt>Long.MIN_VALUE</tt> and <tt>Long.MAX_VALUE</tt>).
+     */
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+     * Returns a copy of the receiver and then advances the receiver by
+     * 2<sup>128</sup> steps.
+     */
+    public SplittableDoubleRandomEngine split() {
+        Xoshiro256StarStar copy = (Xoshiro256StarStar) clone();
+        jump();
+        return copy;
+    }
+
+    private void jump(long[] polynomial) {
+        long t0 = 0, t1 = 0, t2 = 0, t3 = 0;
+        for (int i = 0; i < polynomial.length; i++) {
+            for (int b = 0; b < 64; b++) {
+                if ((polynomial[i] & (1L << b)) != 0) {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                    t2 ^= s2;
+                    t3 ^= s3;
+                }
+                nextLong();
+            }
+        }
+        s0 = t0;
+        s1 = t1;
+        s2 = t2;
+        s3 = t3;
+    }
+}
@@ -0,0 +1,399 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.jet.random.tdouble.sampling;
+
+import java.util.concurrent.Future;
+
+import cern.colt.list.tint.IntArrayList;
+import cern.jet.random.tdouble.AbstractDiscreteDistribution;
+import cern.jet.random.tdouble.engine.DoubleRandomEngine;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Draws indexes <tt>0..n-1</tt> with probabilities proportional to given
+ * weights in constant time, using an alias table.
+ * <p>
+ * A draw picks a bucket <tt>i</tt> uniformly and returns <tt>i</tt> with
+ * probability <tt>probability[i]</tt>, and <tt>alias[i]</tt> otherwise. Both
+ * the bucket and the coin are taken from a single <tt>nextLong()</tt> of the
+ * engine. Use {@link #fill(int[],int,int)} or {@link #fill(IntArrayList)} to
+ * draw many indexes at once, in parallel if the engine is splittable.
+ * <p>
+ * <b>Implementation:</b> Vose's variant of Walker's alias method, with the
+ * sweeping construction of H&uuml;bschle-Schneider and Sanders (Parallel
+ * Weighted Random Sampling, 2019). After normalizing the weights to mean one,
+ * items are <i>light</i> (below one) or <i>heavy</i>. Lights are paired with
+ * heavies in index order; a heavy whose residual drops below one becomes the
+ * next bucket to be filled by the following heavy. Which of the two happens
+ * at each step depends only on prefix sums of the deficits of the lights and
+ * the surpluses of the heavies, so the sweep is a merge of two sorted
+ * sequences and is split among threads by binary search. Prefix sums are
+ * accumulated over fixed blocks, so the table does not depend on the number
+ * of threads. Setup takes <tt>O(n)</tt> work and space.
+ * <p>
+ * The tables are never modified after construction; clones share them.
+ * Instance methods are unsynchronized.
+ *
+ * @see FenwickDoubleRandomSampler
+ * @see cern.jet.random.tdouble.EmpiricalWalker
+ */
+public class AliasDoubleRandomSampler extends AbstractDiscreteDistribution {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of items summed serially in each block during setup.
+     */
+    private static final int BLOCK = 1 << 13;
+
+    protected int size;
+
+    protected double totalWeight;
+
+    protected double[] probability;
+
+    protected int[] alias;
+
+    /**
+     * Constructs a sampler drawing index <tt>i</tt> with probability
+     * <tt>weights[i] / Sum(weights)</tt>.
+     *
+     * @param weights
+     *            non-negative weights, at least one of them positive.
+     * @param randomGenerator
+     *            a uniform random number generator.
+     * @throws IllegalArgumentException
+     *             if <tt>weights</tt> is empty, contains a negative or
+     *             non-finite value, or sums to zero.
+     */
+    public AliasDoubleRandomSampler(double[] weights, DoubleRandomEngine randomGenerator) {
+        setRandomGenerator(randomGenerator);
+        setState(weights);
+    }
+
+    /**
+     * Returns a copy of the receiver with a copy of its engine; the copy shares
+     * the (immutable) alias table of the receiver.
+     *
+     * @return a copy of the receiver.
+     */
+    public Object clone() {
+        return super.clone();
+    }
+
+    /**
+     * Fills all <tt>values.size()</tt> elements of the given list with random
+     * indexes; see {@link #fill(int[],int,int)}.
+     *
+     * @param values
+     *            the list to fill.
+     */
+    public void fill(IntArrayList values) {
+        fill(values.elements(), 0, values.size());
+    }
+
+    /**
+     * Returns the total weight the receiver was built from.
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Returns a random index <tt>i</tt> with probability proportional to its
+     * weight.
+     */
+    public int nextInt() {
+        double u = (randomGenerator.nextLong() >>> 11) * 0x1.0p-53 * size;
+        int i = (int) u;
+        if (i == size)
+            i--;
+        return (u - i < probability[i]) ? i : alias[i];
+    }
+
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random indexes,
+     * drawn sequentially from the receiver's engine.
+     *
+     * @param values
+     *            the array to fill.
+     * @param offset
+     *            the index of the first value to fill.
+     * @param length
+     *            the number of values to fill.
+     */
+    public void nextInts(int[] values, int offset, int length) {
+        DoubleRandomEngine engine = this.randomGenerator;
+        double[] probability = this.probability;
+        int[] alias = this.alias;
+        int size = this.size;
+        double scale = 0x1.0p-53 * size;
+        for (int k = offset, end = offset + length; k < end; k++) {
+            double u = (engine.nextLong() >>> 11) * scale;
+            int i = (int) u;
+            if (i == size)
+                i--;
+            values[k] = (u - i < probability[i]) ? i : alias[i];
+        }
+    }
+
+    /**
+     * Returns the probability of drawing index <tt>k</tt>, as encoded in the
+     * alias table. Takes <tt>O(n)</tt> time.
+     */
+    public double pdf(int k) {
+        if (k < 0 || k >= size)
+            return 0.0;
+        double mass = probability[k];
+        for (int i = 0; i < size; i++) {
+            if (alias[i] == k && i != k)
+                mass += 1.0 - probability[i];
+        }
+        return mass / size;
+    }
+
+    /**
+     * Rebuilds the alias table for new weights, using multiple threads for
+     * large arrays.
+     *
+     * @param weights
+     *            non-negative weights, at least one of them positive.
+     * @throws IllegalArgumentException
+     *             if <tt>weights</tt> is empty, contains a negative or
+     *             non-finite value, or sums to zero.
+     */
+    public void setState(final double[] weights) {
+        if (weights == null || weights.length == 0)
+            throw new IllegalArgumentException("Non-existing weights");
+        final int n = weights.length;
+        final int nblocks = (n + BLOCK - 1) / BLOCK;
+
+        // pass 1: total weight
+        final double[] blockSum = new double[nblocks];
+        run(nblocks, BLOCK, new BlockTask() {
+            public void run(int firstBlock, int lastBlock) {
+                for (int b = firstBlock; b < lastBlock; b++) {
+                    double sum = 0;
+                    for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++) {
+                        double w = weights[i];
+                        if (!(w >= 0))
+                            sum = Double.NaN;
+                        sum += w;
+                    }
+                    blockSum[b] = sum;
+                }
+            }
+        });
+        double total = 0;
+        for (int b = 0; b < nblocks; b++) {
+            total += blockSum[b];
+        }
+        if (Double.isNaN(total))
+            throw new IllegalArgumentException("Negative weight");
+        if (!(total > 0) || Double.isInfinite(total))
+            throw new IllegalArgumentException("Weights must sum to a positive finite number");
+        final double scale = n / total;
+
+        // pass 2: number of lights per block
+        final int[] blockLights = new int[nblocks];
+        run(nblocks, BLOCK, new BlockTask() {
+            public void run(int firstBlock, int lastBlock) {
+                for (int b = firstBlock; b < lastBlock; b++) {
+                    int lights = 0;
+                    for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++) {
+                        if (weights[i] * scale < 1)
+                            lights++;
+                    }
+                    blockLights[b] = lights;
+                }
+            }
+        });
+        final int[] lightStart = new int[nblocks + 1];
+        for (int b = 0; b < nblocks; b++) {
+            lightStart[b + 1] = lightStart[b] + blockLights[b];
+        }
+        final int nLights = lightStart[nblocks];
+        final int nHeavies = n - nLights;
+
+        final double[] probability = new double[n];
+        final int[] alias = new int[n];
+        if (nHeavies == 0) {
+            // only possible through rounding of (nearly) equal weights
+            for (int i = 0; i < n; i++) {
+                probability[i] = 1.0;
+                alias[i] = i;
+            }
+            install(n, total, probability, alias);
+            return;
+        }
+
+        // pass 3: lights and heavies in index order, with prefix sums of
+        // deficits and surpluses local to each block
+        final int[] lights = new int[nLights];
+        final int[] heavies = new int[nHeavies];
+        final double[] deficits = new double[nLights + 1];
+        final double[] surpluses = new double[nHeavies + 1];
+        run(nblocks, BLOCK, new BlockTask() {
+            public void run(int firstBlock, int lastBlock) {
+                for (int b = firstBlock; b < lastBlock; b++) {
+                    int l = lightStart[b];
+                    int h = b * BLOCK - l;
+                    double deficit = 0;
+                    double surplus = 0;
+                    for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++) {
+                        double w = weights[i] * scale;
+                        if (w < 1) {
+                            lights[l++] = i;
+                            deficit += 1 - w;
+                            deficits[l] = deficit;
+                        } else {
+                            heavies[h++] = i;
+                            surplus += w - 1;
+                            surpluses[h] = surplus;
+                        }
+                    }
+                }
+            }
+        });
+
+        // make the prefix sums global; each block adds the rounded total of
+        // the blocks before it, which keeps the sums non-decreasing
+        final double[] deficitStart = new double[nblocks];
+        final double[] surplusStart = new double[nblocks];
+        for (int b = 1; b < nblocks; b++) {
+            int l = lightStart[b];
+            int h = b * BLOCK - l;
+            deficitStart[b] = (l > lightStart[b - 1]) ? deficitStart[b - 1] + deficits[l] : deficitStart[b - 1];
+            surplusStart[b] = (h > (b - 1) * BLOCK - lightStart[b - 1]) ? surplusStart[b - 1] + surpluses[h]
+                    : surplusStart[b - 1];
+        }
+        run(nblocks, BLOCK, new BlockTask() {
+            public void run(int firstBlock, int lastBlock) {
+                for (int b = Math.max(1, firstBlock); b < lastBlock; b++) {
+                    int l = lightStart[b];
+                    int h = b * BLOCK - l;
+                    int end = Math.min(n, (b + 1) * BLOCK);
+                    for (int k = l + 1, lastLight = lightStart[b + 1]; k <= lastLight; k++) {
+                        deficits[k] += deficitStart[b];
+                    }
+                    for (int k = h + 1, lastHeavy = end - lightStart[b + 1]; k <= lastHeavy; k++) {
+                        surpluses[k] += surplusStart[b];
+                    }
+                }
+            }
+        });
+
+        // pass 4: sweep, split by binary search on the merge of the two
+        // sequences
+        run(n, 1, new BlockTask() {
+            public void run(int firstStep, int lastStep) {
+                int l = coRank(firstStep, deficits, nLights, surpluses, nHeavies);
+                int h = firstStep - l;
+                for (int t = firstStep; t < lastStep; t++) {
+                    if (l < nLights && deficits[l] < closing(surpluses, h, nHeavies)) {
+                        int i = lights[l++];
+                        probability[i] = weights[i] * scale;
+                        alias[i] = heavies[h];
+                    } else {
+                        int j = heavies[h];
+                        if (h == nHeavies - 1) {
+                            probability[j] = 1.0;
+                            alias[j] = j;
+                        } else {
+                            double residual = 1 + surpluses[h + 1] - deficits[l];
+                            probability[j] = Math.max(0.0, Math.min(1.0, residual));
+                            alias[j] = heavies[h + 1];
+                        }
+                        h++;
+                    }
+                }
+            }
+        });
+        install(n, total, probability, alias);
+    }
+
+    /**
+     * Returns the number of indexes the receiver draws from.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a String representation of the receiver.
+     */
+    public String toString() {
+        return this.getClass().getName() + "(" + size + ")";
+    }
+
+    /**
+     * Returns the total deficit at which heavy <tt>h</tt> is closed; the last
+     * heavy is closed only after all lights.
+     */
+    private static double closing(double[] surpluses, int h, int nHeavies) {
+        return (h == nHeavies - 1) ? Double.POSITIVE_INFINITY : surpluses[h + 1];
+    }
+
+    /**
+     * Returns the number of lights among the first <tt>t</tt> steps of the
+     * sweep. Light <tt>l</tt> is processed before heavy <tt>h</tt> is closed
+     * iff <tt>deficits[l] &lt; closing(h)</tt>.
+     */
+    private static int coRank(int t, double[] deficits, int nLights, double[] surpluses, int nHeavies) {
+        int lo = Math.max(0, t - nHeavies);
+        int hi = Math.min(t, nLights);
+        while (lo < hi) {
+            int l = (lo + hi) >>> 1;
+            int h = t - l;
+            if (deficits[l] < closing(surpluses, h - 1, nHeavies)) {
+                lo = l + 1;
+            } else {
+                hi = l;
+            }
+        }
+        return lo;
+    }
+
+    private void install(int n, double total, double[] probability, int[] alias) {
+        this.size = n;
+        this.totalWeight = total;
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    /**
+     * Runs the given task over <tt>[0,n)</tt>, split into one contiguous range
+     * per thread if the <tt>n * grain</tt> items covered are enough.
+     */
+    private static void run(int n, int grain, final BlockTask task) {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= nthreads) && ((long) n * grain >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        task.run(firstIdx, lastIdx);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            task.run(0, n);
+        }
+    }
+
+    /**
+     * Processes the range <tt>[first,last)</tt> of some setup pass.
+     */
+    private interface BlockTask {
+        void run(int first, int last);
+    }
+}
@@ -8,7 +8,12 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.jet.random.tdouble.sampling;
 
+import java.util.concurrent.Future;
+
+import cern.jet.math.tdouble.DoubleArithmetic;
 import cern.jet.random.tdouble.engine.DoubleRandomEngine;
+import cern.jet.random.tdouble.engine.SplittableDoubleRandomEngine;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * Space and time efficiently computes a sorted <i>Simple Random Sample Without
@@ -155,6 +160,11 @@ public class DoubleRandomSampler extends cern.colt.PersistentObject {
 
     DoubleRandomEngine my_RandomGenerator;
 
+    /**
+     * The size of the partitions of the interval sampled in parallel.
+     */
+    protected static final int PARTITION = 1 << 20;
+
     // static long negalphainv; // just to determine once and for all the best
     // value for negalphainv
     /**
@@ -475,6 +485,69 @@ public class DoubleRandomSampler extends cern.colt.PersistentObject {
 
     }
 
+    /**
+     * Computes a sorted random set of <tt>n</tt> elements from the interval
+     * <tt>[0,N-1]</tt>, using multiple threads for large intervals.
+     * <p>
+     * The interval is cut into partitions of fixed size. The number of
+     * elements falling into each partition is drawn from the multivariate
+     * hypergeometric distribution, one partition after the other, and each
+     * partition is then sampled with
+     * {@link #sample(long,long,int,long,long[],int,DoubleRandomEngine)} and
+     * its own split engine. The result depends only on the seed of
+     * <tt>randomGenerator</tt>, not on the number of threads.
+     * 
+     * @param n
+     *            the number of elements to choose (must be <tt>n &gt;= 0</tt>
+     *            and <tt>n &lt;= N</tt>).
+     * @param N
+     *            the interval to choose random numbers from is
+     *            <tt>[0,N-1]</tt>.
+     * @param randomGenerator
+     *            a splittable random number generator.
+     * @return the sorted random set.
+     */
+    public static int[] sample(final int n, final int N, SplittableDoubleRandomEngine randomGenerator) {
+        if (n < 0)
+            throw new IllegalArgumentException("n must be >= 0");
+        if (n > N)
+            throw new IllegalArgumentException("n must by <= N");
+        final int[] values = new int[n];
+        if (n == 0)
+            return values;
+        final int npartitions = (N + PARTITION - 1) / PARTITION;
+        final int[] counts = new int[npartitions];
+        final int[] starts = new int[npartitions + 1];
+        int remaining = n;
+        for (int p = 0; p < npartitions; p++) {
+            int size = Math.min(PARTITION, N - p * PARTITION);
+            counts[p] = (p == npartitions - 1) ? remaining : nextHypergeometric(N - p * PARTITION, size,
+                    remaining, randomGenerator);
+            remaining -= counts[p];
+            starts[p + 1] = starts[p] + counts[p];
+        }
+        final SplittableDoubleRandomEngine[] engines = randomGenerator.split(npartitions);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (N >= ConcurrencyUtils.getThreadsBeginN_1D()) && (npartitions > 1)) {
+            nthreads = Math.min(nthreads, npartitions);
+            Future<?>[] futures = new Future[nthreads];
+            int k = npartitions / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstPartition = j * k;
+                final int lastPartition = (j == nthreads - 1) ? npartitions : firstPartition + k;
+                futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                    public void run() {
+                        samplePartitions(N, counts, starts, engines, values, firstPartition, lastPartition);
+                    }
+                });
+            }
+            ConcurrencyUtils.waitForCompletion(futures);
+        } else {
+            samplePartitions(N, counts, starts, engines, values, 0, npartitions);
+        }
+        return values;
+    }
+
     /**
      * Computes a sorted random set of <tt>count</tt> elements from the interval
      * <tt>[low,low+N-1]</tt>. Since we are talking about a random set, no
@@ -741,4 +814,70 @@ public class DoubleRandomSampler extends cern.colt.PersistentObject {
          * System.out.print(" n="+(N-3)+" --> "); test(N-3,N,0,chunkSize); }
          */
     }
+
+    /**
+     * Returns the number of elements of a random subset of size <tt>n</tt> of
+     * a population of <tt>N</tt> that fall into a given part of size
+     * <tt>M</tt>, by chop-down inversion around the mode. Takes time
+     * proportional to the standard deviation of the hypergeometric
+     * distribution.
+     */
+    private static int nextHypergeometric(int N, int M, int n, DoubleRandomEngine randomGenerator) {
+        int lo = Math.max(0, n - (N - M));
+        int hi = Math.min(n, M);
+        if (lo == hi)
+            return lo;
+        int mode = (int) ((n + 1.0) * (M + 1.0) / (N + 2.0));
+        mode = Math.max(lo, Math.min(hi, mode));
+        double pmode = Math.exp(DoubleArithmetic.logFactorial(M) - DoubleArithmetic.logFactorial(mode)
+                - DoubleArithmetic.logFactorial(M - mode) + DoubleArithmetic.logFactorial(N - M)
+                - DoubleArithmetic.logFactorial(n - mode) - DoubleArithmetic.logFactorial(N - M - n + mode)
+                - DoubleArithmetic.logFactorial(N) + DoubleArithmetic.logFactorial(n)
+                + DoubleArithmetic.logFactorial(N - n));
+        double u = randomGenerator.nextDouble() - pmode;
+        if (u <= 0)
+            return mode;
+        int down = mode;
+        int up = mode;
+        double pdown = pmode;
+        double pup = pmode;
+        while (down > lo || up < hi) {
+            if (down > lo) {
+                pdown *= down * (double) (N - M - n + down) / ((M - down + 1.0) * (n - down + 1.0));
+                down--;
+                u -= pdown;
+                if (u <= 0)
+                    return down;
+            }
+            if (up < hi) {
+                pup *= (M - up) * (double) (n - up) / ((up + 1.0) * (N - M - n + up + 1.0));
+                up++;
+                u -= pup;
+                if (u <= 0)
+                    return up;
+            }
+        }
+        return mode; // rounding
+    }
+
+    /**
+     * Samples the partitions <tt>[firstPartition,lastPartition)</tt> of
+     * <tt>[0,N-1]</tt> into <tt>values</tt>.
+     */
+    private static void samplePartitions(int N, int[] counts, int[] starts, DoubleRandomEngine[] engines,
+            int[] values, int firstPartition, int lastPartition) {
+        long[] buffer = new long[0];
+        for (int p = firstPartition; p < lastPartition; p++) {
+            int count = counts[p];
+            if (count == 0)
+                continue;
+            if (buffer.length < count)
+                buffer = new long[count];
+            long low = (long) p * PARTITION;
+            sample(count, Math.min(PARTITION, N - low), count, low, buffer, 0, engines[p]);
+            for (int i = 0, j = starts[p]; i < count; i++, j++) {
+                values[j] = (int) buffer[i];
+            }
+        }
+    }
 }
@@ -0,0 +1,430 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.jet.random.tdouble.sampling;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import cern.colt.GenericSorting;
+import cern.colt.Swapper;
+import cern.colt.function.tint.IntComparator;
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.list.tlong.LongArrayList;
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import cern.jet.random.tdouble.engine.DoubleRandomEngine;
+import cern.jet.random.tdouble.engine.SplittableDoubleRandomEngine;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Maintains a random sample without replacement of at most <tt>capacity</tt>
+ * elements of a stream of unknown length, optionally weighted. Unlike
+ * {@link DoubleRandomSampler}, the size of the population need not be known in
+ * advance.
+ * <p>
+ * Each element gets the key <tt>u<sup>1/w</sup></tt>, where <tt>u</tt> is
+ * uniform on <tt>(0,1)</tt> and <tt>w</tt> is the weight of the element; the
+ * sample holds the elements with the largest keys (Efraimidis and Spirakis,
+ * Weighted random sampling with a reservoir, 2006). With all weights equal to
+ * one this is a uniform sample. Once the reservoir is full, the total weight
+ * to skip until the next replacement is drawn from an exponential jump
+ * (algorithm A-ExpJ), so only <tt>O(capacity log(n/capacity))</tt> random
+ * numbers are consumed for a stream of <tt>n</tt> elements.
+ * <p>
+ * Because the sample is determined by the keys alone, reservoirs filled with
+ * independent engines from disjoint parts of a stream can be combined with
+ * {@link #merge(DoubleReservoirSampler)}. The static <tt>sample</tt> methods
+ * use this to sample a matrix in parallel.
+ * <p>
+ * Instance methods are unsynchronized.
+ *
+ * @see DoubleRandomSampler
+ */
+public class DoubleReservoirSampler extends cern.colt.PersistentObject {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of elements sampled into one reservoir, with its own split
+     * engine, by the static <tt>sample</tt> methods.
+     */
+    protected static final int CHUNK = 1 << 16;
+
+    protected int capacity;
+
+    protected int size;
+
+    /**
+     * Min-heap of the logarithms of the keys of the sampled elements.
+     */
+    protected double[] keys;
+
+    protected double[] values;
+
+    protected long[] positions;
+
+    protected long count;
+
+    protected double skip;
+
+    protected DoubleRandomEngine randomGenerator;
+
+    /**
+     * Constructs an empty reservoir.
+     *
+     * @param capacity
+     *            the maximum number of elements to sample.
+     * @param randomGenerator
+     *            a uniform random number generator. Set this parameter to
+     *            <tt>null</tt> to use the default random number generator.
+     * @throws IllegalArgumentException
+     *             if <tt>capacity &lt; 1</tt>.
+     */
+    public DoubleReservoirSampler(int capacity, DoubleRandomEngine randomGenerator) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        if (randomGenerator == null)
+            randomGenerator = cern.jet.random.tdouble.AbstractDoubleDistribution.makeDefaultGenerator();
+        this.capacity = capacity;
+        this.keys = new double[capacity];
+        this.values = new double[capacity];
+        this.positions = new long[capacity];
+        this.randomGenerator = randomGenerator;
+    }
+
+    /**
+     * Offers the next element of the stream with weight one.
+     */
+    public void add(double value) {
+        add(value, 1.0, count);
+    }
+
+    /**
+     * Offers the next element of the stream; the probability to be sampled is
+     * proportional to <tt>weight</tt>. Elements of weight zero are never
+     * sampled.
+     *
+     * @throws IllegalArgumentException
+     *             if <tt>weight</tt> is negative or non-finite.
+     */
+    public void add(double value, double weight) {
+        if (!(weight >= 0) || Double.isInfinite(weight))
+            throw new IllegalArgumentException("Illegal weight: " + weight);
+        add(value, weight, count);
+    }
+
+    /**
+     * Offers all elements of the given list with weight one.
+     */
+    public void addAllOf(DoubleArrayList values) {
+        double[] elements = values.elements();
+        for (int i = 0, n = values.size(); i < n; i++) {
+            add(elements[i], 1.0, count);
+        }
+    }
+
+    /**
+     * Returns the maximum number of elements sampled.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Removes all sampled elements and restarts the stream.
+     */
+    public void clear() {
+        size = 0;
+        count = 0;
+        skip = 0;
+    }
+
+    /**
+     * Returns a deep copy of the receiver.
+     */
+    public Object clone() {
+        DoubleReservoirSampler copy = (DoubleReservoirSampler) super.clone();
+        copy.keys = this.keys.clone();
+        copy.values = this.values.clone();
+        copy.positions = this.positions.clone();
+        copy.randomGenerator = (DoubleRandomEngine) this.randomGenerator.clone();
+        return copy;
+    }
+
+    /**
+     * Returns the number of elements offered so far, including those of
+     * merged reservoirs.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the stream positions of the sampled elements, in ascending
+     * order. Positions count from zero; a reservoir filled by a static
+     * <tt>sample</tt> method reports matrix indexes.
+     */
+    public LongArrayList getPositions() {
+        int[] order = order();
+        LongArrayList list = new LongArrayList(size);
+        for (int i = 0; i < size; i++) {
+            list.add(positions[order[i]]);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the sampled elements, ordered by their stream positions.
+     */
+    public DoubleArrayList getValues() {
+        int[] order = order();
+        DoubleArrayList list = new DoubleArrayList(size);
+        for (int i = 0; i < size; i++) {
+            list.add(values[order[i]]);
+        }
+        return list;
+    }
+
+    /**
+     * Adds the sample of another reservoir to the receiver, which then holds
+     * a sample of the concatenation of both streams. The two reservoirs must
+     * have been filled with independent random numbers; positions are kept as
+     * recorded by <tt>other</tt>.
+     *
+     * @param other
+     *            the reservoir to merge; it is not modified.
+     */
+    public void merge(DoubleReservoirSampler other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.keys[i], other.values[i], other.positions[i]);
+        }
+        count += other.count;
+        if (size == capacity)
+            skip = jump();
+    }
+
+    /**
+     * Returns the number of elements currently sampled, at most
+     * <tt>capacity()</tt>.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a random sample without replacement of at most
+     * <tt>capacity</tt> cells of <tt>values</tt>, using multiple threads for
+     * large matrices; see {@link #sample(DoubleMatrix1D,DoubleMatrix1D,int,DoubleRandomEngine)}.
+     */
+    public static DoubleReservoirSampler sample(DoubleMatrix1D values, int capacity, DoubleRandomEngine randomGenerator) {
+        return sample(values, null, capacity, randomGenerator);
+    }
+
+    /**
+     * Returns a weighted random sample without replacement of at most
+     * <tt>capacity</tt> cells of <tt>values</tt>, using multiple threads for
+     * large matrices. The positions of the returned reservoir are indexes into
+     * <tt>values</tt>.
+     * <p>
+     * If <tt>randomGenerator</tt> is a {@link SplittableDoubleRandomEngine},
+     * the matrix is cut into chunks of fixed size, each sampled into its own
+     * reservoir with its own split engine, and the reservoirs are merged. The
+     * sample then depends only on the seed, not on the number of threads.
+     * Otherwise the matrix is sampled sequentially.
+     *
+     * @param values
+     *            the matrix to sample.
+     * @param weights
+     *            the weights of the cells of <tt>values</tt>, or <tt>null</tt>
+     *            for a uniform sample.
+     * @param capacity
+     *            the maximum number of cells to sample.
+     * @param randomGenerator
+     *            a uniform random number generator. Set this parameter to
+     *            <tt>null</tt> to use the default random number generator.
+     * @throws IllegalArgumentException
+     *             if <tt>weights</tt> has a different size, or a negative or
+     *             non-finite weight.
+     */
+    public static DoubleReservoirSampler sample(final DoubleMatrix1D values, final DoubleMatrix1D weights,
+            final int capacity, DoubleRandomEngine randomGenerator) {
+        if (weights != null && weights.size() != values.size())
+            throw new IllegalArgumentException("values and weights must have the same size");
+        final DoubleReservoirSampler result = new DoubleReservoirSampler(capacity, randomGenerator);
+        final int n = (int) values.size();
+        if (!(result.randomGenerator instanceof SplittableDoubleRandomEngine)) {
+            result.addAll(values, weights, 0, n);
+            return result;
+        }
+        final int nchunks = Math.max(1, (n + CHUNK - 1) / CHUNK);
+        final SplittableDoubleRandomEngine[] engines = ((SplittableDoubleRandomEngine) result.randomGenerator)
+                .split(nchunks);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= ConcurrencyUtils.getThreadsBeginN_1D()) && (nchunks > 1)) {
+            nthreads = Math.min(nthreads, nchunks);
+            Future<?>[] futures = new Future[nthreads];
+            int k = nchunks / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstChunk = j * k;
+                final int lastChunk = (j == nthreads - 1) ? nchunks : firstChunk + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<DoubleReservoirSampler>() {
+                    public DoubleReservoirSampler call() throws Exception {
+                        return sampleChunks(values, weights, capacity, engines, firstChunk, lastChunk, n);
+                    }
+                });
+            }
+            try {
+                for (int j = 0; j < nthreads; j++) {
+                    result.merge((DoubleReservoirSampler) futures[j].get());
+                }
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                ex.printStackTrace();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        } else {
+            result.merge(sampleChunks(values, weights, capacity, engines, 0, nchunks, n));
+        }
+        return result;
+    }
+
+    /**
+     * Offers the element at the given stream position.
+     */
+    protected void add(double value, double weight, long position) {
+        count++;
+        if (weight == 0)
+            return;
+        if (size < capacity) {
+            push(Math.log(randomGenerator.nextDouble()) / weight, value, position);
+            if (size == capacity)
+                skip = jump();
+            return;
+        }
+        skip -= weight;
+        if (skip > 0)
+            return;
+        // the key of the new element is conditioned to beat the threshold
+        double tw = Math.exp(keys[0] * weight);
+        double r = tw + (1 - tw) * randomGenerator.nextDouble();
+        replaceTop(Math.log(r) / weight, value, position);
+        skip = jump();
+    }
+
+    /**
+     * Offers the cells <tt>[from,to)</tt> of <tt>values</tt>.
+     */
+    protected void addAll(DoubleMatrix1D values, DoubleMatrix1D weights, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double weight = 1.0;
+            if (weights != null) {
+                weight = weights.getQuick(i);
+                if (!(weight >= 0) || Double.isInfinite(weight))
+                    throw new IllegalArgumentException("Illegal weight: " + weight);
+            }
+            add(values.getQuick(i), weight, i);
+        }
+    }
+
+    /**
+     * Returns the total weight to skip before the next replacement, given the
+     * current threshold.
+     */
+    private double jump() {
+        return Math.log(randomGenerator.nextDouble()) / keys[0];
+    }
+
+    /**
+     * Adds an element with a known key, replacing the smallest key if full.
+     */
+    private void offer(double key, double value, long position) {
+        if (size < capacity) {
+            push(key, value, position);
+        } else if (key > keys[0]) {
+            replaceTop(key, value, position);
+        }
+    }
+
+    /**
+     * Returns the heap slots ordered by position.
+     */
+    private int[] order() {
+        final int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        GenericSorting.quickSort(0, size, new IntComparator() {
+            public int compare(int a, int b) {
+                long pa = positions[order[a]];
+                long pb = positions[order[b]];
+                return pa < pb ? -1 : (pa == pb ? 0 : 1);
+            }
+        }, new Swapper() {
+            public void swap(int a, int b) {
+                int tmp = order[a];
+                order[a] = order[b];
+                order[b] = tmp;
+            }
+        });
+        return order;
+    }
+
+    private void push(double key, double value, long position) {
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key)
+                break;
+            set(i, keys[parent], values[parent], positions[parent]);
+            i = parent;
+        }
+        set(i, key, value, position);
+    }
+
+    private void replaceTop(double key, double value, long position) {
+        int i = 0;
+        for (;;) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && keys[child + 1] < keys[child])
+                child++;
+            if (key <= keys[child])
+                break;
+            set(i, keys[child], values[child], positions[child]);
+            i = child;
+        }
+        set(i, key, value, position);
+    }
+
+    private void set(int i, double key, double value, long position) {
+        keys[i] = key;
+        values[i] = value;
+        positions[i] = position;
+    }
+
+    /**
+     * Samples the chunks <tt>[firstChunk,lastChunk)</tt> one by one, each with
+     * its own engine, and returns the merge of their reservoirs.
+     */
+    private static DoubleReservoirSampler sampleChunks(DoubleMatrix1D values, DoubleMatrix1D weights,
+            int capacity, SplittableDoubleRandomEngine[] engines, int firstChunk, int lastChunk, int n) {
+        DoubleReservoirSampler merged = new DoubleReservoirSampler(capacity, engines[firstChunk]);
+        DoubleReservoirSampler chunk = new DoubleReservoirSampler(capacity, engines[firstChunk]);
+        for (int c = firstChunk; c < lastChunk; c++) {
+            chunk.clear();
+            chunk.randomGenerator = engines[c];
+            int from = c * CHUNK;
+            chunk.addAll(values, weights, from, Math.min(n, from + CHUNK));
+            merged.merge(chunk);
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.jet.random.tdouble.sampling;
+
+import java.util.Arrays;
+
+import cern.colt.list.tint.IntArrayList;
+import cern.jet.random.tdouble.AbstractDiscreteDistribution;
+import cern.jet.random.tdouble.engine.DoubleRandomEngine;
+
+/**
+ * Draws indexes <tt>0..n-1</tt> with probabilities proportional to weights
+ * that may change between draws.
+ * <p>
+ * Weights are kept in a Fenwick (binary indexed) tree: changing a weight and
+ * drawing an index both take <tt>O(log n)</tt> time. This suits streaming use,
+ * where weights are updated as data arrives; for fixed weights
+ * {@link AliasDoubleRandomSampler} draws in constant time.
+ * <p>
+ * Updates are applied as differences to the partial sums of the tree, so
+ * rounding errors may accumulate over very many updates;
+ * {@link #setState(double[])} rebuilds the sums from scratch. The number of
+ * positive weights is tracked exactly, so drawing fails reliably once all
+ * weights are zero, and the tree is reset whenever that happens.
+ * <p>
+ * Instance methods are unsynchronized.
+ *
+ * @see AliasDoubleRandomSampler
+ */
+public class FenwickDoubleRandomSampler extends AbstractDiscreteDistribution {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of draws that may land on an index of zero weight, because of
+     * rounding, before the tree is rebuilt.
+     */
+    private static final int MAX_RETRIES = 64;
+
+    protected int size;
+
+    protected double[] weights;
+
+    /**
+     * tree[i] (1-based) holds the sum of weights[i-lowbit(i)..i-1].
+     */
+    protected double[] tree;
+
+    /**
+     * The number of positive weights.
+     */
+    protected int positive;
+
+    /**
+     * Constructs a sampler over <tt>size</tt> indexes, all with weight zero.
+     * At least one weight must be set to a positive value before drawing.
+     *
+     * @param size
+     *            the number of indexes.
+     * @param randomGenerator
+     *            a uniform random number generator.
+     * @throws IllegalArgumentException
+     *             if <tt>size &lt; 1</tt>.
+     */
+    public FenwickDoubleRandomSampler(int size, DoubleRandomEngine randomGenerator) {
+        this(new double[checkSize(size)], randomGenerator);
+    }
+
+    /**
+     * Constructs a sampler drawing index <tt>i</tt> with probability
+     * <tt>weights[i] / Sum(weights)</tt>. The array is copied.
+     *
+     * @param weights
+     *            non-negative weights.
+     * @param randomGenerator
+     *            a uniform random number generator.
+     * @throws IllegalArgumentException
+     *             if <tt>weights</tt> is empty or contains a negative or
+     *             non-finite value.
+     */
+    public FenwickDoubleRandomSampler(double[] weights, DoubleRandomEngine randomGenerator) {
+        setRandomGenerator(randomGenerator);
+        setState(weights);
+    }
+
+    /**
+     * Adds <tt>delta</tt> to the weight of the given index.
+     *
+     * @throws IllegalArgumentException
+     *             if the resulting weight would be negative or non-finite.
+     */
+    public void addWeight(int index, double delta) {
+        setWeight(index, weights[index] + delta);
+    }
+
+    /**
+     * Returns a deep copy of the receiver; the copy will produce identical
+     * sequences. After this call has returned, the copy and the receiver have
+     * equal but separate state.
+     *
+     * @return a copy of the receiver.
+     */
+    public Object clone() {
+        FenwickDoubleRandomSampler copy = (FenwickDoubleRandomSampler) super.clone();
+        copy.weights = this.weights.clone();
+        copy.tree = this.tree.clone();
+        return copy;
+    }
+
+    /**
+     * Fills all <tt>values.size()</tt> elements of the given list with random
+     * indexes; see {@link #fill(int[],int,int)}.
+     *
+     * @param values
+     *            the list to fill.
+     */
+    public void fill(IntArrayList values) {
+        fill(values.elements(), 0, values.size());
+    }
+
+    /**
+     * Returns the sum of the weights of indexes <tt>0..index-1</tt>.
+     */
+    public double getPrefixWeight(int index) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        double sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sum of all weights.
+     */
+    public double getTotalWeight() {
+        return getPrefixWeight(size);
+    }
+
+    /**
+     * Returns the weight of the given index.
+     */
+    public double getWeight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Returns a random index <tt>i</tt> with probability proportional to its
+     * current weight.
+     *
+     * @throws IllegalStateException
+     *             if all weights are zero.
+     */
+    public int nextInt() {
+        checkPositive();
+        return search(Integer.highestOneBit(size));
+    }
+
+    /**
+     * Fills <tt>values[offset..offset+length-1]</tt> with random indexes,
+     * drawn sequentially from the receiver's engine.
+     *
+     * @param values
+     *            the array to fill.
+     * @param offset
+     *            the index of the first value to fill.
+     * @param length
+     *            the number of values to fill.
+     * @throws IllegalStateException
+     *             if all weights are zero.
+     */
+    public void nextInts(int[] values, int offset, int length) {
+        checkPositive();
+        int top = Integer.highestOneBit(size);
+        for (int k = offset, end = offset + length; k < end; k++) {
+            values[k] = search(top);
+        }
+    }
+
+    /**
+     * Returns the probability of drawing index <tt>k</tt>.
+     */
+    public double pdf(int k) {
+        if (k < 0 || k >= size)
+            return 0.0;
+        return weights[k] / getTotalWeight();
+    }
+
+    /**
+     * Replaces all weights and rebuilds the tree in <tt>O(n)</tt>. The array
+     * is copied.
+     *
+     * @param weights
+     *            non-negative weights.
+     * @throws IllegalArgumentException
+     *             if <tt>weights</tt> is empty or contains a negative or
+     *             non-finite value.
+     */
+    public void setState(double[] weights) {
+        if (weights == null || weights.length == 0)
+            throw new IllegalArgumentException("Non-existing weights");
+        int n = weights.length;
+        for (int i = 0; i < n; i++) {
+            checkWeight(weights[i]);
+        }
+        this.size = n;
+        this.weights = weights.clone();
+        this.tree = new double[n + 1];
+        rebuild();
+    }
+
+    /**
+     * Sets the weight of the given index.
+     *
+     * @throws IllegalArgumentException
+     *             if <tt>weight</tt> is negative or non-finite.
+     */
+    public void setWeight(int index, double weight) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        checkWeight(weight);
+        double old = weights[index];
+        weights[index] = weight;
+        if (old > 0 && !(weight > 0)) {
+            if (--positive == 0) {
+                // drop the rounding drift of all earlier updates
+                Arrays.fill(tree, 0);
+                return;
+            }
+        } else if (!(old > 0) && weight > 0) {
+            positive++;
+        }
+        double delta = weight - old;
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the number of indexes the receiver draws from.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a String representation of the receiver.
+     */
+    public String toString() {
+        return this.getClass().getName() + "(" + size + ")";
+    }
+
+    private void checkPositive() {
+        if (positive == 0)
+            throw new IllegalStateException("All weights are zero");
+    }
+
+    private static int checkSize(int size) {
+        if (size < 1)
+            throw new IllegalArgumentException("size must be positive: " + size);
+        return size;
+    }
+
+    private static void checkWeight(double w) {
+        if (!(w >= 0) || Double.isInfinite(w))
+            throw new IllegalArgumentException("Illegal weight: " + w);
+    }
+
+    /**
+     * Recomputes the partial sums of the tree and the number of positive
+     * weights from <tt>weights</tt>.
+     */
+    private void rebuild() {
+        int n = size;
+        int positive = 0;
+        for (int i = 0; i < n; i++) {
+            double w = weights[i];
+            tree[i + 1] = w;
+            if (w > 0)
+                positive++;
+        }
+        tree[0] = 0;
+        for (int i = 1; i <= n; i++) {
+            int parent = i + (i & -i);
+            if (parent <= n)
+                tree[parent] += tree[i];
+        }
+        this.positive = positive;
+    }
+
+    /**
+     * Descends the tree to the index whose cumulative weight interval contains
+     * a uniform point of <tt>[0,total)</tt>. Draws that land on an index of
+     * zero weight because of rounding are repeated; after
+     * <tt>MAX_RETRIES</tt> such draws the tree is rebuilt from the weights, and
+     * the same number of retries is allowed once more. At least one weight
+     * must be positive.
+     */
+    private int search(int top) {
+        for (int round = 0; round < 2; round++) {
+            double[] tree = this.tree;
+            int size = this.size;
+            double total = getTotalWeight();
+            for (int retry = 0; retry < MAX_RETRIES; retry++) {
+                double u = (randomGenerator.nextLong() >>> 11) * 0x1.0p-53 * total;
+                int pos = 0;
+                for (int step = top; step > 0; step >>= 1) {
+                    int next = pos + step;
+                    if (next <= size && tree[next] <= u) {
+                        u -= tree[next];
+                        pos = next;
+                    }
+                }
+                if (pos < size && weights[pos] > 0)
+                    return pos;
+            }
+            rebuild();
+        }
+        throw new IllegalStateException("Weights too small to draw from");
+    }
+}
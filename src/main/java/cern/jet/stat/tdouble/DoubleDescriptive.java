@@ -10,6 +10,7 @@ package cern.jet.stat.tdouble;
 
 import cern.colt.list.tdouble.DoubleArrayList;
 import cern.colt.list.tint.IntArrayList;
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
 
 /**
  * Basic descriptive statistics.
@@ -708,6 +709,28 @@ public class DoubleDescriptive extends Object {
         return sumOfPowerDeviations(data, k, c) / data.size();
     }
 
+    /**
+     * Returns the size, extrema, sums and first four moments of a data sequence,
+     * computed in a single pass that is split among threads for large
+     * sequences. Prefer this to calling several of the methods of this class
+     * on the same data.
+     */
+    public static DoubleMoments moments(DoubleArrayList data) {
+        DoubleMoments moments = new DoubleMoments();
+        moments.addAllOf(data);
+        return moments;
+    }
+
+    /**
+     * Returns the size, extrema, sums and first four moments of the cells of a
+     * vector; see {@link #moments(DoubleArrayList)}.
+     */
+    public static DoubleMoments moments(DoubleMatrix1D data) {
+        DoubleMoments moments = new DoubleMoments();
+        moments.addAllOf(data);
+        return moments;
+    }
+
     /**
      * Returns the pooled mean of two data sequences. That is
      * <tt>(size1 * mean1 + size2 * mean2) / (size1 + size2)</tt>.
@@ -0,0 +1,476 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.jet.stat.tdouble;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix1D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Accumulates the basic descriptive statistics of a data sequence in a single
+ * pass: size, minimum, maximum, sum, sum of squares, sum of logarithms, sum of
+ * inversions, and the mean and second to fourth central moments.
+ * <p>
+ * The central moments are maintained with the numerically stable updates of
+ * Welford and Pébay rather than from sums of powers, so they stay accurate for
+ * data with a large mean compared to its spread. Two accumulators can be
+ * combined with {@link #merge(DoubleMoments)}; large lists and vectors passed
+ * to {@link #addAllOf(DoubleArrayList)} and {@link #addAllOf(DoubleMatrix1D)}
+ * are split among threads this way, so a whole summary table costs one
+ * parallel pass over the data instead of one serial pass per
+ * {@link DoubleDescriptive} method.
+ * <p>
+ * The derived measures follow the definitions of the corresponding methods of
+ * {@link DoubleDescriptive}. Instance methods are unsynchronized.
+ * <p>
+ * <b>References:</b> P. Pébay, Formulas for Robust, One-Pass Parallel
+ * Computation of Covariances and Arbitrary-Order Statistical Moments, Sandia
+ * Report SAND2008-6212, 2008.
+ *
+ * @see DoubleDescriptive#moments(DoubleArrayList)
+ * @see DoubleDescriptive#moments(DoubleMatrix1D)
+ */
+public class DoubleMoments extends cern.colt.PersistentObject {
+    private static final long serialVersionUID = 1L;
+
+    private long size;
+
+    private double mean;
+
+    /**
+     * <tt>Sum( (x[i]-mean)<sup>k</sup> )</tt> for <tt>k = 2, 3, 4</tt>.
+     */
+    private double m2;
+
+    private double m3;
+
+    private double m4;
+
+    private double min;
+
+    private double max;
+
+    private double sum;
+
+    private double sumOfSquares;
+
+    private double sumOfLogarithms;
+
+    private double sumOfInversions;
+
+    /**
+     * Constructs an empty accumulator.
+     */
+    public DoubleMoments() {
+        clear();
+    }
+
+    /**
+     * Adds the specified value to the receiver.
+     *
+     * @param value
+     *            the value to add.
+     */
+    public void add(double value) {
+        long n1 = size;
+        long n = ++size;
+        double delta = value - mean;
+        double deltaN = delta / n;
+        double deltaN2 = deltaN * deltaN;
+        double term1 = delta * deltaN * n1;
+        mean += deltaN;
+        m4 += term1 * deltaN2 * ((double) n * n - 3 * n + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+        m3 += term1 * deltaN * (n - 2) - 3 * deltaN * m2;
+        m2 += term1;
+        if (value < min)
+            min = value;
+        if (value > max)
+            max = value;
+        sum += value;
+        sumOfSquares += value * value;
+        sumOfLogarithms += Math.log(value);
+        sumOfInversions += 1 / value;
+    }
+
+    /**
+     * Adds all values of the specified list to the receiver; see
+     * {@link #addAllOfFromTo(DoubleArrayList, int, int)}.
+     *
+     * @param values
+     *            the list of which all values shall be added.
+     */
+    public void addAllOf(DoubleArrayList values) {
+        addAllOfFromTo(values, 0, values.size() - 1);
+    }
+
+    /**
+     * Adds all cells of the specified vector to the receiver. Large vectors
+     * are split among threads, each accumulating its part privately; the
+     * partial results are then merged into the receiver in order.
+     *
+     * @param vector
+     *            the vector of which all cells shall be added.
+     */
+    public void addAllOf(DoubleMatrix1D vector) {
+        if (vector instanceof DenseDoubleMatrix1D) {
+            addAll((double[]) vector.elements(), null, (int) vector.index(0), vector.stride(), 0, (int) vector.size());
+        } else {
+            addAll(null, vector, 0, 0, 0, (int) vector.size());
+        }
+    }
+
+    /**
+     * Adds the part of the specified list between indexes <tt>from</tt>
+     * (inclusive) and <tt>to</tt> (inclusive) to the receiver. Large ranges are
+     * split among threads, each accumulating its part privately; the partial
+     * results are then merged into the receiver in order.
+     *
+     * @param values
+     *            the list of which elements shall be added.
+     * @param from
+     *            the index of the first element to be added (inclusive).
+     * @param to
+     *            the index of the last element to be added (inclusive).
+     */
+    public void addAllOfFromTo(DoubleArrayList values, int from, int to) {
+        addAll(values.elements(), null, 0, 1, from, to + 1);
+    }
+
+    /**
+     * Removes all values from the receiver. The receiver will be empty after
+     * this call returns.
+     */
+    public void clear() {
+        size = 0;
+        mean = 0;
+        m2 = 0;
+        m3 = 0;
+        m4 = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        sum = 0;
+        sumOfSquares = 0;
+        sumOfLogarithms = 0;
+        sumOfInversions = 0;
+    }
+
+    /**
+     * Returns the geometric mean, which is
+     * <tt>Math.exp( sumOfLogarithms() / size() )</tt>.
+     */
+    public double geometricMean() {
+        return DoubleDescriptive.geometricMean((int) size, sumOfLogarithms);
+    }
+
+    /**
+     * Returns the harmonic mean, which is <tt>size() / sumOfInversions()</tt>.
+     */
+    public double harmonicMean() {
+        return DoubleDescriptive.harmonicMean((int) size, sumOfInversions);
+    }
+
+    /**
+     * Returns the kurtosis (aka excess), which is
+     * <tt>-3 + moment(4,mean()) / standardDeviation()<sup>4</sup></tt>.
+     */
+    public double kurtosis() {
+        return DoubleDescriptive.kurtosis(moment(4, mean()), standardDeviation());
+    }
+
+    /**
+     * Returns the maximum, or <tt>Double.NEGATIVE_INFINITY</tt> if the
+     * receiver is empty.
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Returns the arithmetic mean, which is <tt>sum() / size()</tt>, or
+     * <tt>Double.NaN</tt> if the receiver is empty.
+     */
+    public double mean() {
+        return size == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Adds all values accumulated by the specified accumulator to the
+     * receiver. The result is the same, up to rounding, as if the receiver had
+     * seen all values itself.
+     *
+     * @param other
+     *            the accumulator to merge; it is not modified.
+     */
+    public void merge(DoubleMoments other) {
+        if (other.size == 0)
+            return;
+        if (size == 0) {
+            size = other.size;
+            mean = other.mean;
+            m2 = other.m2;
+            m3 = other.m3;
+            m4 = other.m4;
+        } else {
+            double na = size;
+            double nb = other.size;
+            double n = na + nb;
+            double delta = other.mean - mean;
+            double deltaN = delta / n;
+            double deltaN2 = deltaN * deltaN;
+            double m2a = m2;
+            double m3a = m3;
+            double m2b = other.m2;
+            double m3b = other.m3;
+            m4 += other.m4 + delta * deltaN * deltaN2 * na * nb * (na * na - na * nb + nb * nb) + 6 * deltaN2
+                    * (na * na * m2b + nb * nb * m2a) + 4 * deltaN * (na * m3b - nb * m3a);
+            m3 += m3b + delta * deltaN2 * na * nb * (na - nb) + 3 * deltaN * (na * m2b - nb * m2a);
+            m2 += m2b + delta * deltaN * na * nb;
+            mean += deltaN * nb;
+            size += other.size;
+        }
+        if (other.min < min)
+            min = other.min;
+        if (other.max > max)
+            max = other.max;
+        sum += other.sum;
+        sumOfSquares += other.sumOfSquares;
+        sumOfLogarithms += other.sumOfLogarithms;
+        sumOfInversions += other.sumOfInversions;
+    }
+
+    /**
+     * Returns the minimum, or <tt>Double.POSITIVE_INFINITY</tt> if the
+     * receiver is empty.
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Returns the moment of <tt>k</tt>-th order with constant <tt>c</tt>,
+     * which is <tt>Sum( (x[i]-c)<sup>k</sup> ) / size()</tt>.
+     *
+     * @param k
+     *            the order; must be in <tt>[0,4]</tt>.
+     * @param c
+     *            any number.
+     * @throws IllegalArgumentException
+     *             if <tt>k</tt> is not in <tt>[0,4]</tt>.
+     */
+    public double moment(int k, double c) {
+        return sumOfPowerDeviations(k, c) / size;
+    }
+
+    /**
+     * Returns the root mean square, which is
+     * <tt>Math.sqrt( sumOfSquares() / size() )</tt>.
+     */
+    public double rms() {
+        return DoubleDescriptive.rms((int) size, sumOfSquares);
+    }
+
+    /**
+     * Returns the sample kurtosis (aka excess); see
+     * {@link DoubleDescriptive#sampleKurtosis(int,double,double)}.
+     */
+    public double sampleKurtosis() {
+        return DoubleDescriptive.sampleKurtosis((int) size, moment(4, mean()), sampleVariance());
+    }
+
+    /**
+     * Returns the sample skew; see
+     * {@link DoubleDescriptive#sampleSkew(int,double,double)}.
+     */
+    public double sampleSkew() {
+        return DoubleDescriptive.sampleSkew((int) size, moment(3, mean()), sampleVariance());
+    }
+
+    /**
+     * Returns the sample standard deviation; see
+     * {@link DoubleDescriptive#sampleStandardDeviation(int,double)}.
+     */
+    public double sampleStandardDeviation() {
+        return DoubleDescriptive.sampleStandardDeviation((int) size, sampleVariance());
+    }
+
+    /**
+     * Returns the sample variance, which is
+     * <tt>Sum( (x[i]-mean())<sup>2</sup> ) / (size()-1)</tt>.
+     */
+    public double sampleVariance() {
+        return m2 / (size - 1);
+    }
+
+    /**
+     * Returns the number of values added.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the skew, which is
+     * <tt>moment(3,mean()) / standardDeviation()<sup>3</sup></tt>.
+     */
+    public double skew() {
+        return DoubleDescriptive.skew(moment(3, mean()), standardDeviation());
+    }
+
+    /**
+     * Returns the standard deviation, which is <tt>Math.sqrt(variance())</tt>.
+     */
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * Returns the sum of all values, which is <tt>Sum( x[i] )</tt>.
+     */
+    public double sum() {
+        return sum;
+    }
+
+    /**
+     * Returns the sum of inversions, which is <tt>Sum( 1 / x[i] )</tt>.
+     */
+    public double sumOfInversions() {
+        return sumOfInversions;
+    }
+
+    /**
+     * Returns the sum of logarithms, which is <tt>Sum( Log(x[i]) )</tt>.
+     */
+    public double sumOfLogarithms() {
+        return sumOfLogarithms;
+    }
+
+    /**
+     * Returns <tt>Sum( (x[i]-c)<sup>k</sup> )</tt>, expanded from the central
+     * moments about the mean.
+     *
+     * @param k
+     *            the order; must be in <tt>[0,4]</tt>.
+     * @param c
+     *            any number.
+     * @throws IllegalArgumentException
+     *             if <tt>k</tt> is not in <tt>[0,4]</tt>.
+     */
+    public double sumOfPowerDeviations(int k, double c) {
+        // Sum( ((x[i]-mean) + d)^k ) with d = mean-c; the first central sum is zero
+        double d = mean - c;
+        double n = size;
+        switch (k) {
+        case 0:
+            return n;
+        case 1:
+            return n * d;
+        case 2:
+            return m2 + n * d * d;
+        case 3:
+            return m3 + 3 * d * m2 + n * d * d * d;
+        case 4:
+            return m4 + 4 * d * m3 + 6 * d * d * m2 + n * d * d * d * d;
+        default:
+            throw new IllegalArgumentException("k must be in [0,4]: " + k);
+        }
+    }
+
+    /**
+     * Returns the sum of squares, which is <tt>Sum( x[i] * x[i] )</tt>.
+     */
+    public double sumOfSquares() {
+        return sumOfSquares;
+    }
+
+    /**
+     * Returns a String representation of the receiver.
+     */
+    public String toString() {
+        StringBuffer buf = new StringBuffer(this.getClass().getName());
+        buf.append("\n-------------");
+        buf.append("\nSize: " + size);
+        buf.append("\nSum: " + sum());
+        buf.append("\nSumOfSquares: " + sumOfSquares());
+        buf.append("\nMin: " + min());
+        buf.append("\nMax: " + max());
+        buf.append("\nMean: " + mean());
+        buf.append("\nVariance: " + variance());
+        buf.append("\nStandard deviation: " + standardDeviation());
+        buf.append("\nSkew: " + skew());
+        buf.append("\nKurtosis: " + kurtosis());
+        buf.append("\n");
+        return buf.toString();
+    }
+
+    /**
+     * Returns the variance, which is
+     * <tt>Sum( (x[i]-mean())<sup>2</sup> ) / size()</tt>.
+     */
+    public double variance() {
+        return m2 / size;
+    }
+
+    /**
+     * Adds the cells <tt>from..to-1</tt> of either <tt>elements</tt>, laid out
+     * with the given offset and stride, or of <tt>vector</tt>.
+     */
+    private void addAll(final double[] elements, final DoubleMatrix1D vector, final int zero, final int stride,
+            int from, int to) {
+        int n = to - from;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, n);
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = from + j * k;
+                final int lastIdx = (j == nthreads - 1) ? to : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<DoubleMoments>() {
+                    public DoubleMoments call() throws Exception {
+                        DoubleMoments local = new DoubleMoments();
+                        local.addRange(elements, vector, zero, stride, firstIdx, lastIdx);
+                        return local;
+                    }
+                });
+            }
+            try {
+                for (int j = 0; j < nthreads; j++) {
+                    merge((DoubleMoments) futures[j].get());
+                }
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new RuntimeException(ex.getCause());
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        } else {
+            addRange(elements, vector, zero, stride, from, to);
+        }
+    }
+
+    private void addRange(double[] elements, DoubleMatrix1D vector, int zero, int stride, int from, int to) {
+        if (elements != null) {
+            int idx = zero + from * stride;
+            for (int i = from; i < to; i++) {
+                add(elements[idx]);
+                idx += stride;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                add(vector.getQuick(i));
+            }
+        }
+    }
+}
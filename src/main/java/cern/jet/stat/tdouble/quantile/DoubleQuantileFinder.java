@@ -8,6 +8,7 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.jet.stat.tdouble.quantile;
 
+import cern.colt.list.tdouble.BigDoubleArrayList;
 import cern.colt.list.tdouble.DoubleArrayList;
 
 /**
@@ -35,6 +36,15 @@ public interface DoubleQuantileFinder extends java.io.Serializable {
      */
     public void addAllOf(cern.colt.list.tdouble.DoubleArrayList values);
 
+    /**
+     * Adds all values of the specified big list to the receiver. The list is
+     * fed segment by segment, without copying it.
+     * 
+     * @param values
+     *            the list of which all values shall be added.
+     */
+    public void addAllOf(BigDoubleArrayList values);
+
     /**
      * Adds the part of the specified list between indexes <tt>from</tt>
      * (inclusive) and <tt>to</tt> (inclusive) to the receiver.
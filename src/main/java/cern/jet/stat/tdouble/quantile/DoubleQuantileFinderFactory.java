@@ -136,6 +136,7 @@ import cern.jet.random.tdouble.engine.DoubleRandomEngine;
  * @version 1.0, 09/24/99
  * @see KnownDoubleQuantileEstimator
  * @see UnknownDoubleQuantileEstimator
+ * @see TDigestDoubleQuantileFinder
  */
 public class DoubleQuantileFinderFactory extends Object {
     /**
@@ -530,6 +531,24 @@ public class DoubleQuantileFinderFactory extends Object {
         return phis;
     }
 
+    /**
+     * Returns a mergeable quantile finder for unknown <tt>N</tt>, whose memory
+     * does not grow with the number of values added. Finders obtained this
+     * way summarizing different parts of a data set can be combined with
+     * {@link TDigestDoubleQuantileFinder#merge(TDigestDoubleQuantileFinder)},
+     * and are most accurate for quantiles near <tt>0</tt> and <tt>1</tt>. The
+     * approximation error is not guaranteed.
+     * 
+     * @param compression
+     *            the accuracy parameter (e.g. <tt>100</tt>) (
+     *            <tt>compression &gt;= 10</tt>); larger values give more
+     *            accurate quantiles at the cost of more memory.
+     * @return a new t-digest quantile finder.
+     */
+    public static TDigestDoubleQuantileFinder newMergeableDoubleQuantileFinder(double compression) {
+        return new TDigestDoubleQuantileFinder(compression);
+    }
+
     /**
      * Computes the number of buffers and number of values per buffer such that
      * quantiles can be determined with an approximation error no more than
@@ -8,6 +8,7 @@ It is provided "as is" without expressed or implied warranty.
  */
 package cern.jet.stat.tdouble.quantile;
 
+import cern.colt.list.tdouble.BigDoubleArrayList;
 import cern.colt.list.tdouble.DoubleArrayList;
 
 /**
@@ -60,6 +61,20 @@ public class ExactDoubleQuantileFinder extends cern.colt.PersistentObject implem
         addAllOfFromTo(values, 0, values.size() - 1);
     }
 
+    /**
+     * Adds all values of the specified big list to the receiver. The list is
+     * fed segment by segment, without copying it.
+     * 
+     * @param values
+     *            the list of which all values shall be added.
+     */
+    public void addAllOf(BigDoubleArrayList values) {
+        int nsegments = values.numberOfSegments();
+        for (int s = 0; s < nsegments; s++) {
+            addAllOf(values.segment(s));
+        }
+    }
+
     /**
      * Adds the part of the specified list between indexes <tt>from</tt>
      * (inclusive) and <tt>to</tt> (inclusive) to the receiver.
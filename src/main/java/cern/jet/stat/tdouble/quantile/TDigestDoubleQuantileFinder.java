@@ -0,0 +1,625 @@
+/*
+Copyright (C) 1999 CERN - European Organization for Nuclear Research.
+Permission to use, copy, modify, distribute and sell this software and its documentation for any purpose
+is hereby granted without fee, provided that the above copyright notice appear in all copies and
+that both that copyright notice and this permission notice appear in supporting documentation.
+CERN makes no representations about the suitability of this software for any purpose.
+It is provided "as is" without expressed or implied warranty.
+ */
+package cern.jet.stat.tdouble.quantile;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import cern.colt.GenericSorting;
+import cern.colt.Swapper;
+import cern.colt.function.tint.IntComparator;
+import cern.colt.list.tdouble.BigDoubleArrayList;
+import cern.colt.list.tdouble.DoubleArrayList;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Approximate quantile finder for unknown <tt>N</tt> based on a mergeable
+ * sketch, the merging t-digest of Dunning and Ertl.
+ * <p>
+ * Values are summarized by a sorted list of centroids, each holding a mean and
+ * a count. The number of values a centroid may absorb shrinks towards both
+ * ends of the distribution, so that extreme quantiles such as the 99.9th
+ * percentile of a latency distribution are estimated with small <i>relative</i>
+ * rank error, while the median gets the coarsest summary. The smallest and
+ * largest values are kept exactly. Memory is bounded by a small multiple of
+ * the <tt>compression</tt> parameter, independent of the number of values
+ * added; a compression of <tt>100</tt> to <tt>500</tt> is typical.
+ * <p>
+ * Unlike {@link KnownDoubleQuantileEstimator} and
+ * {@link UnknownDoubleQuantileEstimator}, two digests can be combined with
+ * {@link #merge(TDigestDoubleQuantileFinder)}, so quantiles can be computed
+ * over data partitioned across threads or machines. Large lists passed to
+ * {@link #addAllOf(DoubleArrayList)} are summarized in parallel this way.
+ * {@link #toByteArray()} and {@link #fromByteArray(byte[])} provide a compact
+ * binary form for shipping digests between processes.
+ * <p>
+ * The approximation error depends on the data and is not guaranteed; it is
+ * typically far below <tt>1/compression</tt> in rank near the tails. Instance
+ * methods are unsynchronized.
+ * <p>
+ * <b>References:</b> T. Dunning and O. Ertl, Computing Extremely Accurate
+ * Quantiles Using t-Digests, 2019.
+ *
+ * @see DoubleQuantileFinderFactory#newMergeableDoubleQuantileFinder(double)
+ */
+public class TDigestDoubleQuantileFinder extends cern.colt.PersistentObject implements DoubleQuantileFinder {
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAGIC = 0x54444731; // "TDG1"
+
+    private final double compression;
+
+    /**
+     * The means and weights of the centroids, sorted by mean.
+     */
+    private double[] means;
+
+    private double[] weights;
+
+    private int centroids;
+
+    /**
+     * Values and weights not yet merged into the centroids.
+     */
+    private double[] bufferMeans;
+
+    private double[] bufferWeights;
+
+    private int buffered;
+
+    private long count;
+
+    private double min;
+
+    private double max;
+
+    /**
+     * Constructs an empty digest.
+     *
+     * @param compression
+     *            the accuracy parameter (e.g. <tt>100</tt>); larger values
+     *            give more accurate quantiles at the cost of more memory.
+     * @throws IllegalArgumentException
+     *             if <tt>compression &lt; 10</tt>.
+     */
+    public TDigestDoubleQuantileFinder(double compression) {
+        if (!(compression >= 10) || Double.isInfinite(compression))
+            throw new IllegalArgumentException("compression must be at least 10: " + compression);
+        this.compression = compression;
+        int bufferSize = (int) Math.ceil(5 * compression);
+        this.bufferMeans = new double[bufferSize];
+        this.bufferWeights = new double[bufferSize];
+        this.means = new double[0];
+        this.weights = new double[0];
+        clear();
+    }
+
+    /**
+     * Adds a value to the receiver.
+     *
+     * @param value
+     *            the value to add.
+     * @throws IllegalArgumentException
+     *             if <tt>value</tt> is <tt>NaN</tt>.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value))
+            throw new IllegalArgumentException("Cannot add NaN");
+        if (buffered == bufferMeans.length)
+            compress();
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = 1;
+        buffered++;
+        count++;
+        if (value < min)
+            min = value;
+        if (value > max)
+            max = value;
+    }
+
+    /**
+     * Adds all values of the specified list to the receiver; see
+     * {@link #addAllOfFromTo(DoubleArrayList, int, int)}.
+     *
+     * @param values
+     *            the list of which all values shall be added.
+     */
+    public void addAllOf(DoubleArrayList values) {
+        addAllOfFromTo(values, 0, values.size() - 1);
+    }
+
+    /**
+     * Adds all values of the specified big list to the receiver. The list is
+     * fed segment by segment, without copying it.
+     *
+     * @param values
+     *            the list of which all values shall be added.
+     */
+    public void addAllOf(BigDoubleArrayList values) {
+        int nsegments = values.numberOfSegments();
+        for (int s = 0; s < nsegments; s++) {
+            addAllOf(values.segment(s));
+        }
+    }
+
+    /**
+     * Adds the part of the specified list between indexes <tt>from</tt>
+     * (inclusive) and <tt>to</tt> (inclusive) to the receiver. Large ranges are
+     * split among threads, each summarizing its part in a private digest; the
+     * private digests are then merged into the receiver in order.
+     *
+     * @param values
+     *            the list of which elements shall be added.
+     * @param from
+     *            the index of the first element to be added (inclusive).
+     * @param to
+     *            the index of the last element to be added (inclusive).
+     */
+    public void addAllOfFromTo(DoubleArrayList values, int from, int to) {
+        final double[] elements = values.elements();
+        int n = to - from + 1;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= ConcurrencyUtils.getThreadsBeginN_1D()) && (n >= 2 * bufferMeans.length)) {
+            nthreads = Math.min(nthreads, n / bufferMeans.length);
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = from + j * k;
+                final int lastIdx = (j == nthreads - 1) ? to + 1 : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<TDigestDoubleQuantileFinder>() {
+                    public TDigestDoubleQuantileFinder call() throws Exception {
+                        TDigestDoubleQuantileFinder local = new TDigestDoubleQuantileFinder(compression);
+                        for (int i = firstIdx; i < lastIdx; i++) {
+                            local.add(elements[i]);
+                        }
+                        return local;
+                    }
+                });
+            }
+            try {
+                for (int j = 0; j < nthreads; j++) {
+                    merge((TDigestDoubleQuantileFinder) futures[j].get());
+                }
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new RuntimeException(ex.getCause());
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        } else {
+            for (int i = from; i <= to; i++) {
+                add(elements[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes all elements from the receiver. The receiver will be empty after
+     * this call returns.
+     */
+    public void clear() {
+        this.centroids = 0;
+        this.buffered = 0;
+        this.count = 0;
+        this.min = Double.POSITIVE_INFINITY;
+        this.max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Returns a deep copy of the receiver.
+     *
+     * @return a deep copy of the receiver.
+     */
+    public Object clone() {
+        TDigestDoubleQuantileFinder copy = (TDigestDoubleQuantileFinder) super.clone();
+        copy.means = this.means.clone();
+        copy.weights = this.weights.clone();
+        copy.bufferMeans = this.bufferMeans.clone();
+        copy.bufferWeights = this.bufferWeights.clone();
+        return copy;
+    }
+
+    /**
+     * Returns the compression parameter of the receiver.
+     */
+    public double compression() {
+        return compression;
+    }
+
+    /**
+     * Applies a procedure to the mean of each centroid of the receiver, in
+     * ascending order. The actual values added are not retained, so each
+     * centroid stands for all values it has absorbed.
+     *
+     * @param procedure
+     *            the procedure to be applied. Stops iteration if the procedure
+     *            returns <tt>false</tt>, otherwise continues.
+     * @return <tt>false</tt> if the procedure stopped before all elements where
+     *         iterated over, <tt>true</tt> otherwise.
+     */
+    public boolean forEach(cern.colt.function.tdouble.DoubleProcedure procedure) {
+        compress();
+        for (int i = 0; i < centroids; i++) {
+            if (!procedure.apply(means[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reconstructs a digest from the binary form written by
+     * {@link #toByteArray()}.
+     *
+     * @param bytes
+     *            the binary form of a digest.
+     * @return the digest.
+     * @throws IllegalArgumentException
+     *             if <tt>bytes</tt> is not a valid binary form.
+     */
+    public static TDigestDoubleQuantileFinder fromByteArray(byte[] bytes) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.getInt() != MAGIC)
+                throw new IllegalArgumentException("Not a t-digest");
+            TDigestDoubleQuantileFinder digest = new TDigestDoubleQuantileFinder(in.getDouble());
+            long count = in.getLong();
+            int n = in.getInt();
+            if (count < 0 || n < 0 || n > count)
+                throw new IllegalArgumentException("Corrupt t-digest");
+            digest.ensureCapacity(n);
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                digest.means[i] = in.getDouble();
+                long w = readVarLong(in);
+                if (w < 1 || (i > 0 && !(digest.means[i] >= digest.means[i - 1])))
+                    throw new IllegalArgumentException("Corrupt t-digest");
+                digest.weights[i] = w;
+                total += w;
+            }
+            if (total != count)
+                throw new IllegalArgumentException("Corrupt t-digest");
+            digest.centroids = n;
+            digest.count = count;
+            if (n > 0) {
+                digest.min = in.getDouble();
+                digest.max = in.getDouble();
+            }
+            return digest;
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated t-digest");
+        }
+    }
+
+    /**
+     * Returns the number of elements currently needed to store all contained
+     * elements.
+     */
+    public long memory() {
+        return 2L * (means.length + bufferMeans.length);
+    }
+
+    /**
+     * Adds all values summarized by another digest to the receiver. The other
+     * digest is not modified. Digests of different compression may be merged;
+     * the result has the compression of the receiver.
+     *
+     * @param other
+     *            the digest to merge into the receiver.
+     */
+    public void merge(TDigestDoubleQuantileFinder other) {
+        if (other.count == 0)
+            return;
+        if (other == this) {
+            other = (TDigestDoubleQuantileFinder) other.clone();
+        }
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            if (buffered == bufferMeans.length)
+                compress();
+            bufferMeans[buffered] = other.means[i];
+            bufferWeights[buffered] = other.weights[i];
+            buffered++;
+        }
+        count += other.count;
+        if (other.min < min)
+            min = other.min;
+        if (other.max > max)
+            max = other.max;
+    }
+
+    /**
+     * Returns how many percent of the elements contained in the receiver are
+     * <tt>&lt;= element</tt>, interpolating linearly between centroids.
+     *
+     * @param element
+     *            the element to search for.
+     * @return the percentage <tt>p</tt> of elements <tt>&lt;= element</tt> (
+     *         <tt>0.0 &lt;= p &lt;=1.0)</tt>, or <tt>NaN</tt> if the receiver
+     *         is empty.
+     */
+    public double phi(double element) {
+        if (count == 0)
+            return Double.NaN;
+        compress();
+        if (element < min)
+            return 0;
+        if (element >= max)
+            return 1;
+        double total = count;
+        int n = centroids;
+        if (element < means[0]) {
+            // values between min and the first centroid, min itself counted
+            // as a single value
+            double dx = means[0] - min;
+            return (1 + (element - min) / dx * (weights[0] / 2 - 1)) / total;
+        }
+        double weightSoFar = 0;
+        for (int i = 0; i < n - 1; i++) {
+            if (element < means[i + 1]) {
+                double dw = (weights[i] + weights[i + 1]) / 2;
+                return (weightSoFar + weights[i] / 2 + dw * (element - means[i]) / (means[i + 1] - means[i])) / total;
+            }
+            weightSoFar += weights[i];
+        }
+        // values between the last centroid and max
+        double dx = max - means[n - 1];
+        return 1 - (1 + (max - element) / dx * (weights[n - 1] / 2 - 1)) / total;
+    }
+
+    /**
+     * Returns the approximate quantile element for the given <tt>phi</tt>.
+     *
+     * @param phi
+     *            the quantile, in the interval <tt>[0.0,1.0]</tt>.
+     * @return the quantile element, or <tt>NaN</tt> if the receiver is empty.
+     * @throws IllegalArgumentException
+     *             if <tt>phi</tt> is outside <tt>[0.0,1.0]</tt>.
+     */
+    public double quantile(double phi) {
+        if (!(phi >= 0 && phi <= 1))
+            throw new IllegalArgumentException("phi must be in [0,1]: " + phi);
+        if (count == 0)
+            return Double.NaN;
+        compress();
+        int n = centroids;
+        double total = count;
+        double index = phi * total;
+        if (index < 1)
+            return min;
+        if (index > total - 1)
+            return max;
+        if (weights[0] > 1 && index < weights[0] / 2)
+            return min + (index - 1) / (weights[0] / 2 - 1) * (means[0] - min);
+        if (weights[n - 1] > 1 && total - index <= weights[n - 1] / 2)
+            return max - (total - index - 1) / (weights[n - 1] / 2 - 1) * (max - means[n - 1]);
+        double weightSoFar = weights[0] / 2;
+        for (int i = 0; i < n - 1; i++) {
+            double dw = (weights[i] + weights[i + 1]) / 2;
+            if (weightSoFar + dw > index) {
+                // singleton centroids own half a unit of rank on either side
+                double leftUnit = 0;
+                if (weights[i] == 1) {
+                    if (index - weightSoFar < 0.5)
+                        return means[i];
+                    leftUnit = 0.5;
+                }
+                double rightUnit = 0;
+                if (weights[i + 1] == 1) {
+                    if (weightSoFar + dw - index <= 0.5)
+                        return means[i + 1];
+                    rightUnit = 0.5;
+                }
+                double z1 = index - weightSoFar - leftUnit;
+                double z2 = weightSoFar + dw - index - rightUnit;
+                return weightedAverage(means[i], z2, means[i + 1], z1);
+            }
+            weightSoFar += dw;
+        }
+        return means[n - 1];
+    }
+
+    /**
+     * Computes the specified quantile elements over the values previously
+     * added.
+     *
+     * @param phis
+     *            the quantiles for which elements are to be computed. Each phi
+     *            must be in the interval [0.0,1.0]. <tt>phis</tt> must be
+     *            sorted ascending.
+     * @return the approximate quantile elements.
+     */
+    public DoubleArrayList quantileElements(DoubleArrayList phis) {
+        int n = phis.size();
+        DoubleArrayList result = new DoubleArrayList(n);
+        for (int i = 0; i < n; i++) {
+            result.add(quantile(phis.getQuick(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of elements currently contained in the receiver
+     * (identical to the number of values added so far).
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Returns a compact binary form of the receiver, which
+     * {@link #fromByteArray(byte[])} turns back into an equal digest. Each
+     * centroid takes 9 to 18 bytes.
+     *
+     * @return the binary form of the receiver.
+     */
+    public byte[] toByteArray() {
+        compress();
+        ByteBuffer out = ByteBuffer.allocate(4 + 8 + 8 + 4 + centroids * 18 + 16);
+        out.putInt(MAGIC);
+        out.putDouble(compression);
+        out.putLong(count);
+        out.putInt(centroids);
+        for (int i = 0; i < centroids; i++) {
+            out.putDouble(means[i]);
+            writeVarLong(out, (long) weights[i]);
+        }
+        if (centroids > 0) {
+            out.putDouble(min);
+            out.putDouble(max);
+        }
+        byte[] bytes = new byte[out.position()];
+        out.flip();
+        out.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns a String representation of the receiver.
+     */
+    public String toString() {
+        String s = this.getClass().getName();
+        s = s.substring(s.lastIndexOf('.') + 1);
+        return s + "(compression=" + compression + ", centroids=" + centroids + ", size=" + size() + ")";
+    }
+
+    /**
+     * Returns the number of elements currently needed to store all contained
+     * elements.
+     */
+    public long totalMemory() {
+        return memory();
+    }
+
+    /**
+     * Merges the buffered values into the centroids. The buffer is sorted and
+     * merged with the already sorted centroids; the combined sequence is then
+     * swept from left to right, letting each centroid absorb its neighbours
+     * as long as it spans at most one unit of the scale function
+     * <tt>k(q) = compression / Z * log(q / (1 - q))</tt>, with
+     * <tt>Z = 4 * log(n / compression) + 24</tt>, where <tt>n</tt> is the total
+     * weight.
+     */
+    private void compress() {
+        if (buffered == 0)
+            return;
+        final double[] bm = bufferMeans;
+        final double[] bw = bufferWeights;
+        GenericSorting.quickSort(0, buffered, new IntComparator() {
+            public int compare(int a, int b) {
+                return bm[a] < bm[b] ? -1 : (bm[a] == bm[b] ? 0 : 1);
+            }
+        }, new Swapper() {
+            public void swap(int a, int b) {
+                double tmp = bm[a];
+                bm[a] = bm[b];
+                bm[b] = tmp;
+                tmp = bw[a];
+                bw[a] = bw[b];
+                bw[b] = tmp;
+            }
+        });
+        double[] oldMeans = means;
+        double[] oldWeights = weights;
+        int oldCentroids = centroids;
+        int n = oldCentroids + buffered;
+        double[] newMeans = new double[n];
+        double[] newWeights = new double[n];
+
+        double total = 0;
+        for (int k = 0; k < oldCentroids; k++) {
+            total += oldWeights[k];
+        }
+        for (int k = 0; k < buffered; k++) {
+            total += bw[k];
+        }
+        double normalizer = compression / (4 * Math.log(Math.max(total / compression, 1)) + 24);
+        int out = -1;
+        double weightSoFar = 0;
+        double weightLimit = -1;
+        int i = 0;
+        int j = 0;
+        while (i < oldCentroids || j < buffered) {
+            double m, w;
+            if (j == buffered || (i < oldCentroids && oldMeans[i] <= bm[j])) {
+                m = oldMeans[i];
+                w = oldWeights[i++];
+            } else {
+                m = bm[j];
+                w = bw[j++];
+            }
+            if (out >= 0 && weightSoFar + newWeights[out] + w <= weightLimit) {
+                double sum = newWeights[out] + w;
+                newMeans[out] += (m - newMeans[out]) * w / sum;
+                newWeights[out] = sum;
+            } else {
+                if (out >= 0)
+                    weightSoFar += newWeights[out];
+                out++;
+                newMeans[out] = m;
+                newWeights[out] = w;
+                weightLimit = total * inverseScale(scale(weightSoFar / total, normalizer) + 1, normalizer);
+            }
+        }
+        int size = out + 1;
+        ensureCapacity(size);
+        System.arraycopy(newMeans, 0, means, 0, size);
+        System.arraycopy(newWeights, 0, weights, 0, size);
+        centroids = size;
+        buffered = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (means.length < capacity) {
+            int newCapacity = Math.max(capacity, 2 * means.length);
+            double[] m = new double[newCapacity];
+            double[] w = new double[newCapacity];
+            System.arraycopy(means, 0, m, 0, centroids);
+            System.arraycopy(weights, 0, w, 0, centroids);
+            means = m;
+            weights = w;
+        }
+    }
+
+    private static double inverseScale(double k, double normalizer) {
+        double e = Math.exp(k / normalizer);
+        return e / (1 + e);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Corrupt t-digest");
+    }
+
+    private static double scale(double q, double normalizer) {
+        q = Math.min(Math.max(q, 1e-15), 1 - 1e-15);
+        return normalizer * Math.log(q / (1 - q));
+    }
+
+    private static double weightedAverage(double x1, double w1, double x2, double w2) {
+        double x = (x1 * w1 + x2 * w2) / (w1 + w2);
+        return Math.max(x1, Math.min(x, x2));
+    }
+
+    private static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+}
@@ -1,5 +1,6 @@
 package hep.aida.tdouble.bin;
 
+import cern.colt.list.tdouble.BigDoubleArrayList;
 import cern.colt.list.tdouble.DoubleArrayList;
 import cern.jet.stat.tdouble.DoubleDescriptive;
 
@@ -50,6 +51,22 @@ public abstract class AbstractDoubleBin1D extends AbstractDoubleBin implements
         addAllOfFromTo(list, 0, list.size() - 1);
     }
 
+    /**
+     * Adds all values of the specified big list to the receiver. The list is
+     * fed segment by segment via {@link #addAllOfFromTo(DoubleArrayList,int,int)},
+     * without copying it.
+     * 
+     * @param list
+     *            the list of which all values shall be added.
+     */
+    public final synchronized void addAllOf(BigDoubleArrayList list) {
+        int nsegments = list.numberOfSegments();
+        for (int s = 0; s < nsegments; s++) {
+            DoubleArrayList segment = list.segment(s);
+            addAllOfFromTo(segment, 0, segment.size() - 1);
+        }
+    }
+
     /**
      * Adds the part of the specified list between indexes <tt>from</tt>
      * (inclusive) and <tt>to</tt> (inclusive) to the receiver. You may want to
@@ -0,0 +1,397 @@
+package hep.aida.tdouble.bin;
+
+import java.util.ArrayList;
+
+import cern.colt.list.tdouble.DoubleArrayList;
+
+/**
+ * A {@link DynamicDoubleBin1D} that many threads can fill concurrently without
+ * contending on the monitor of the bin.
+ * <p>
+ * Each thread adding to the bin appends to a private buffer, guarded by its own
+ * lock which is only ever contended while a reader collects it. Readers lock
+ * the bin as usual and first move all buffered elements into the bin, then
+ * compute the requested measure exactly as {@link DynamicDoubleBin1D} does, so
+ * all statistics methods are supported and see every element whose
+ * <tt>add</tt> completed before the read began. Writers are never blocked by a
+ * reader sorting or scanning the elements.
+ * <p>
+ * Order statistics are computed from a sorted snapshot that is maintained
+ * lazily: elements collected since the last sort are sorted on their own and
+ * merged into the snapshot in linear time, rather than sorting all elements
+ * again. Moment sums are folded in incrementally as elements are collected.
+ * <p>
+ * With {@link #setFixedOrder(boolean) setFixedOrder(true)}, elements added by
+ * one thread keep their relative order; elements added by different threads
+ * concurrently are interleaved in no particular order.
+ * <p>
+ * Use {@link #addAllOfFromTo(DoubleArrayList, int, int)} rather than the final
+ * <tt>addAllOf</tt> methods for bulk adds from several threads, since the
+ * latter synchronize on the bin. Each thread that ever added to the bin keeps
+ * a (drained) buffer until the bin is garbage collected, so the bin is meant
+ * for a bounded set of writer threads such as a thread pool.
+ *
+ * @see DynamicDoubleBin1D
+ */
+public class ConcurrentDynamicDoubleBin1D extends DynamicDoubleBin1D {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of leading elements already reflected by the sorted
+     * snapshot: <tt>elements[0..sortedCount-1]</tt> sorted ascending if
+     * <tt>!fixedOrder</tt>, or <tt>sortedElements</tt> if <tt>fixedOrder</tt>.
+     */
+    private int sortedCount = 0;
+
+    private transient ArrayList<DoubleArrayList> buffers;
+
+    private transient ThreadLocal<DoubleArrayList> localBuffer;
+
+    /**
+     * Constructs and returns an empty bin; implicitly calls
+     * {@link #setFixedOrder(boolean) setFixedOrder(false)}.
+     */
+    public ConcurrentDynamicDoubleBin1D() {
+        super();
+        initBuffers();
+    }
+
+    /**
+     * Adds the specified element to the buffer of the calling thread.
+     *
+     * @param element
+     *            element to be appended.
+     */
+    public void add(double element) {
+        DoubleArrayList buffer = localBuffer.get();
+        synchronized (buffer) {
+            buffer.add(element);
+        }
+    }
+
+    /**
+     * Adds the part of the specified list between indexes <tt>from</tt>
+     * (inclusive) and <tt>to</tt> (inclusive) to the buffer of the calling
+     * thread.
+     *
+     * @param list
+     *            the list of which elements shall be added.
+     * @param from
+     *            the index of the first element to be added (inclusive).
+     * @param to
+     *            the index of the last element to be added (inclusive).
+     * @throws IndexOutOfBoundsException
+     *             if
+     *             <tt>list.size()&gt;0 && (from&lt;0 || from&gt;to || to&gt;=list.size())</tt>
+     *             .
+     */
+    public void addAllOfFromTo(DoubleArrayList list, int from, int to) {
+        DoubleArrayList buffer = localBuffer.get();
+        synchronized (buffer) {
+            buffer.addAllOfFromTo(list, from, to);
+        }
+    }
+
+    /**
+     * Removes all elements from the receiver, including those not yet
+     * collected from the buffers of adding threads.
+     */
+    public synchronized void clear() {
+        if (buffers != null) {
+            DoubleArrayList[] all = buffers();
+            for (int i = 0; i < all.length; i++) {
+                synchronized (all[i]) {
+                    all[i].clear();
+                }
+            }
+        }
+        super.clear();
+        sortedCount = 0;
+    }
+
+    /**
+     * Returns a deep copy of the receiver. The copy holds all elements added
+     * before this call and has no pending buffers.
+     *
+     * @return a deep copy of the receiver.
+     */
+    public synchronized Object clone() {
+        drain();
+        ConcurrentDynamicDoubleBin1D clone = (ConcurrentDynamicDoubleBin1D) super.clone();
+        clone.initBuffers();
+        return clone;
+    }
+
+    /**
+     * Returns the maximum.
+     */
+    public synchronized double max() {
+        drain();
+        return super.max();
+    }
+
+    /**
+     * Returns the minimum.
+     */
+    public synchronized double min() {
+        drain();
+        return super.min();
+    }
+
+    /**
+     * Returns the moment of <tt>k</tt>-th order with value <tt>c</tt>, which is
+     * <tt>Sum( (x[i]-c)<sup>k</sup> ) / size()</tt>.
+     *
+     * @param k
+     *            the order; any number - can be less than zero, zero or greater
+     *            than zero.
+     * @param c
+     *            any number.
+     */
+    public synchronized double moment(int k, double c) {
+        drain();
+        return super.moment(k, c);
+    }
+
+    /**
+     * Removes from the receiver all elements that are contained in the
+     * specified list.
+     *
+     * @param list
+     *            the elements to be removed.
+     * @return <code>true</code> if the receiver changed as a result of the
+     *         call.
+     */
+    public synchronized boolean removeAllOf(DoubleArrayList list) {
+        drain();
+        sortedCount = 0;
+        return super.removeAllOf(list);
+    }
+
+    /**
+     * Determines whether the receivers internally preserved elements may be
+     * reordered or not; see {@link DynamicDoubleBin1D#setFixedOrder(boolean)}.
+     */
+    public synchronized void setFixedOrder(boolean fixedOrder) {
+        if (fixedOrder != this.fixedOrder) {
+            sortedCount = 0;
+            this.isSorted = false;
+        }
+        super.setFixedOrder(fixedOrder);
+    }
+
+    /**
+     * Returns the number of elements contained in the receiver.
+     *
+     * @return the number of elements contained in the receiver.
+     */
+    public synchronized int size() {
+        drain();
+        return super.size();
+    }
+
+    /**
+     * Modifies the receiver to be standardized. Changes each element
+     * <tt>x[i]</tt> as follows: <tt>x[i] = (x[i]-mean)/standardDeviation</tt>.
+     */
+    public synchronized void standardize(double mean, double standardDeviation) {
+        drain();
+        sortedCount = 0;
+        super.standardize(mean, standardDeviation);
+    }
+
+    /**
+     * Returns the sum of all elements, which is <tt>Sum( x[i] )</tt>.
+     */
+    public synchronized double sum() {
+        drain();
+        return super.sum();
+    }
+
+    /**
+     * Returns the sum of inversions, which is <tt>Sum( 1 / x[i] )</tt>.
+     */
+    public synchronized double sumOfInversions() {
+        drain();
+        return super.sumOfInversions();
+    }
+
+    /**
+     * Returns the sum of logarithms, which is <tt>Sum( Log(x[i]) )</tt>.
+     */
+    public synchronized double sumOfLogarithms() {
+        drain();
+        return super.sumOfLogarithms();
+    }
+
+    /**
+     * Returns the <tt>k-th</tt> order sum of powers, which is
+     * <tt>Sum( x[i]<sup>k</sup> )</tt>.
+     *
+     * @param k
+     *            the order of the powers.
+     * @return the sum of powers.
+     */
+    public synchronized double sumOfPowers(int k) {
+        drain();
+        return super.sumOfPowers(k);
+    }
+
+    /**
+     * Returns the sum of squares, which is <tt>Sum( x[i] * x[i] )</tt>.
+     */
+    public synchronized double sumOfSquares() {
+        drain();
+        return super.sumOfSquares();
+    }
+
+    /**
+     * Trims the capacity of the receiver and of all thread buffers to their
+     * current size.
+     */
+    public synchronized void trimToSize() {
+        drain();
+        DoubleArrayList[] all = buffers();
+        for (int i = 0; i < all.length; i++) {
+            synchronized (all[i]) {
+                all[i].trimToSize();
+            }
+        }
+        super.trimToSize();
+        if (fixedOrder)
+            sortedCount = 0;
+    }
+
+    /**
+     * Returns the currently stored elements, after collecting all thread
+     * buffers; see {@link DynamicDoubleBin1D#elements_unsafe()}.
+     */
+    protected synchronized DoubleArrayList elements_unsafe() {
+        drain();
+        return super.elements_unsafe();
+    }
+
+    /**
+     * Sorts elements if not already sorted. Elements added since the last sort
+     * are sorted separately and merged into the already sorted ones.
+     */
+    protected void sort() {
+        if (this.isSorted)
+            return;
+        int n = this.elements.size();
+        if (sortedCount == 0 || sortedCount > n) {
+            super.sort();
+            sortedCount = n;
+            return;
+        }
+        if (this.fixedOrder) {
+            DoubleArrayList tail = (DoubleArrayList) this.elements.partFromTo(sortedCount, n - 1);
+            tail.sort();
+            this.sortedElements.elements(merge(this.sortedElements.elements(), sortedCount, tail.elements(), n
+                    - sortedCount));
+        } else {
+            // see DynamicDoubleBin1D.sort()
+            updateIncrementalStats();
+            invalidateAll();
+
+            this.elements.sortFromTo(sortedCount, n - 1);
+            this.elements.elements(merge(this.elements.elements(), sortedCount, this.elements.elements(), sortedCount,
+                    n - sortedCount));
+            this.isIncrementalStatValid = true;
+        }
+        this.isSorted = true;
+        sortedCount = n;
+    }
+
+    /**
+     * Returns the currently stored elements, sorted ascending, after collecting
+     * all thread buffers; see {@link DynamicDoubleBin1D#sortedElements_unsafe()}.
+     */
+    protected synchronized DoubleArrayList sortedElements_unsafe() {
+        drain();
+        return super.sortedElements_unsafe();
+    }
+
+    /**
+     * Returns a snapshot of the registered thread buffers.
+     */
+    private DoubleArrayList[] buffers() {
+        synchronized (buffers) {
+            return buffers.toArray(new DoubleArrayList[buffers.size()]);
+        }
+    }
+
+    /**
+     * Moves the elements of all thread buffers to the end of the element list.
+     * The caller must hold the monitor of the receiver.
+     */
+    private void drain() {
+        DoubleArrayList[] all = buffers();
+        boolean changed = false;
+        for (int i = 0; i < all.length; i++) {
+            DoubleArrayList buffer = all[i];
+            synchronized (buffer) {
+                int s = buffer.size();
+                if (s > 0) {
+                    this.elements.addAllOfFromTo(buffer, 0, s - 1);
+                    buffer.clear();
+                    changed = true;
+                }
+            }
+        }
+        if (changed)
+            invalidateAll();
+    }
+
+    private void initBuffers() {
+        this.buffers = new ArrayList<DoubleArrayList>();
+        this.localBuffer = new ThreadLocal<DoubleArrayList>() {
+            protected DoubleArrayList initialValue() {
+                DoubleArrayList buffer = new DoubleArrayList();
+                synchronized (buffers) {
+                    buffers.add(buffer);
+                }
+                return buffer;
+            }
+        };
+    }
+
+    /**
+     * Merges the sorted runs <tt>a[0..na-1]</tt> and
+     * <tt>b[from..from+nb-1]</tt> into a new array.
+     */
+    private static double[] merge(double[] a, int na, double[] b, int from, int nb) {
+        double[] merged = new double[na + nb];
+        int i = 0;
+        int j = from;
+        int k = 0;
+        int bEnd = from + nb;
+        while (i < na && j < bEnd) {
+            merged[k++] = (b[j] < a[i]) ? b[j++] : a[i++];
+        }
+        while (i < na) {
+            merged[k++] = a[i++];
+        }
+        while (j < bEnd) {
+            merged[k++] = b[j++];
+        }
+        return merged;
+    }
+
+    private static double[] merge(double[] a, int na, double[] b, int nb) {
+        return merge(a, na, b, 0, nb);
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initBuffers();
+    }
+
+    /**
+     * Collects all thread buffers before the superclass state is serialized.
+     */
+    private synchronized Object writeReplace() {
+        drain();
+        return this;
+    }
+}
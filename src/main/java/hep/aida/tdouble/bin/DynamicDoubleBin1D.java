@@ -1,10 +1,15 @@
 package hep.aida.tdouble.bin;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import cern.colt.list.tdouble.DoubleArrayList;
 import cern.colt.list.tint.IntArrayList;
 import cern.jet.random.tdouble.AbstractDoubleDistribution;
 import cern.jet.random.tdouble.engine.DoubleRandomEngine;
+import cern.jet.random.tdouble.engine.SplittableDoubleRandomEngine;
 import cern.jet.stat.tdouble.DoubleDescriptive;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
 
 /**
  * 1-dimensional rebinnable bin holding <tt>double</tt> elements; Efficiently
@@ -48,6 +53,15 @@ public class DynamicDoubleBin1D extends QuantileDoubleBin1D {
      */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The number of resampling steps drawn from each split engine by
+     * {@link #sampleBootstrap(DynamicDoubleBin1D,int,DoubleRandomEngine,DoubleBinBinFunction1D)}
+     * and
+     * {@link #samplePermutations(DynamicDoubleBin1D,int,DoubleRandomEngine,DoubleBinBinFunction1D)}
+     * .
+     */
+    protected static final int RESAMPLE_BLOCK = 64;
+
     /**
      * The elements contained in this bin.
      */
@@ -746,6 +760,16 @@ public class DynamicDoubleBin1D extends QuantileDoubleBin1D {
      * </td>
      * </table>
      * 
+     * <p>
+     * If <tt>randomGenerator</tt> is a {@link SplittableDoubleRandomEngine},
+     * the resampling steps are cut into blocks of fixed size, each drawn from
+     * its own split engine, and the blocks are run in parallel. Each thread
+     * reuses its auxiliary bins, and the results are added to the bootstrap
+     * bin in the order of the resampling steps, so the bootstrap bin depends
+     * only on the seed of <tt>randomGenerator</tt>, not on the number of
+     * threads. In this case <tt>function</tt> is applied concurrently and must
+     * not modify shared state.
+     * 
      * @param other
      *            the other bin to compare the receiver against.
      * @param resamples
@@ -766,6 +790,8 @@ public class DynamicDoubleBin1D extends QuantileDoubleBin1D {
             cern.jet.random.tdouble.engine.DoubleRandomEngine randomGenerator, DoubleBinBinFunction1D function) {
         if (randomGenerator == null)
             randomGenerator = AbstractDoubleDistribution.makeDefaultGenerator();
+        if (randomGenerator instanceof SplittableDoubleRandomEngine)
+            return resample(other, resamples, randomGenerator, function, false);
 
         // since "resamples" can be quite large, we care about performance and
         // memory
@@ -797,6 +823,48 @@ public class DynamicDoubleBin1D extends QuantileDoubleBin1D {
         return bootstrap;
     }
 
+    /**
+     * Generic permutation test. Executes <tt>resamples</tt> resampling steps.
+     * In each resampling step, the elements of <tt>this</tt> and <tt>other</tt>
+     * are pooled and randomly split into an auxiliary bin <tt>b1</tt> of
+     * <tt>size()</tt> elements and an auxiliary bin <tt>b2</tt> of
+     * <tt>other.size()</tt> elements, <i>without replacement</i>. The result
+     * of <tt>function.apply(b1,b2)</tt> is added to the returned bin.
+     * <p>
+     * The returned bin is the distribution of the statistic under the null
+     * hypothesis that both samples come from the same distribution. Comparing
+     * it with the statistic of the actual samples,
+     * <tt>function.apply(this,other)</tt>, yields a p-value; see
+     * {@link #sampleBootstrap(DynamicDoubleBin1D,int,DoubleRandomEngine,DoubleBinBinFunction1D)}
+     * for an example.
+     * <p>
+     * If <tt>randomGenerator</tt> is a {@link SplittableDoubleRandomEngine},
+     * the resampling steps are run in parallel as described for
+     * <tt>sampleBootstrap</tt>, and the result depends only on the seed of
+     * <tt>randomGenerator</tt>, not on the number of threads.
+     * 
+     * @param other
+     *            the other bin to compare the receiver against.
+     * @param resamples
+     *            the number of times resampling shall be done.
+     * @param randomGenerator
+     *            a random number generator. Set this parameter to <tt>null</tt>
+     *            to use a default random number generator seeded with the
+     *            current time.
+     * @param function
+     *            a difference function comparing two samples; takes as first
+     *            argument the sample in place of <tt>this</tt> and as second
+     *            argument the sample in place of <tt>other</tt>.
+     * @return a bin holding the results of <tt>function</tt> of each
+     *         resampling step.
+     */
+    public synchronized DynamicDoubleBin1D samplePermutations(DynamicDoubleBin1D other, int resamples,
+            DoubleRandomEngine randomGenerator, DoubleBinBinFunction1D function) {
+        if (randomGenerator == null)
+            randomGenerator = AbstractDoubleDistribution.makeDefaultGenerator();
+        return resample(other, resamples, randomGenerator, function, true);
+    }
+
     /**
      * Determines whether the receivers internally preserved elements may be
      * reordered or not.
@@ -836,6 +904,67 @@ public class DynamicDoubleBin1D extends QuantileDoubleBin1D {
         // stats computation has already processed.
     }
 
+    /**
+     * Executes <tt>resamples</tt> bootstrap or permutation steps; in parallel,
+     * with one split engine per block of steps, if <tt>randomGenerator</tt> is
+     * splittable.
+     */
+    private DynamicDoubleBin1D resample(DynamicDoubleBin1D other, final int resamples,
+            final DoubleRandomEngine randomGenerator, final DoubleBinBinFunction1D function, final boolean permute) {
+        final double[] x = elements_unsafe().elements();
+        final int s1 = size();
+        final double[] y = (other == this) ? x : other.elements().elements();
+        final int s2 = (other == this) ? s1 : other.size();
+        final double[] results = new double[resamples];
+        if (randomGenerator instanceof SplittableDoubleRandomEngine) {
+            final int nblocks = (resamples + RESAMPLE_BLOCK - 1) / RESAMPLE_BLOCK;
+            final SplittableDoubleRandomEngine[] engines = ((SplittableDoubleRandomEngine) randomGenerator)
+                    .split(nblocks);
+            int nthreads = ConcurrencyUtils.getNumberOfThreads();
+            if ((nthreads > 1) && (nblocks > 1)
+                    && ((long) resamples * (s1 + s2) >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+                nthreads = Math.min(nthreads, nblocks);
+                Future<?>[] futures = new Future[nthreads];
+                for (int j = 0; j < nthreads; j++) {
+                    final int firstBlock = j;
+                    final int step = nthreads;
+                    futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                        public void run() {
+                            // round-robin, since the cost of a step may vary
+                            Resampler resampler = new Resampler(x, s1, y, s2, function, permute);
+                            for (int b = firstBlock; b < nblocks; b += step) {
+                                int from = b * RESAMPLE_BLOCK;
+                                resampler.run(engines[b], results, from, Math.min(resamples, from + RESAMPLE_BLOCK));
+                            }
+                        }
+                    });
+                }
+                try {
+                    for (int j = 0; j < nthreads; j++) {
+                        futures[j].get();
+                    }
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof RuntimeException)
+                        throw (RuntimeException) ex.getCause();
+                    throw new RuntimeException(ex.getCause());
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            } else {
+                Resampler resampler = new Resampler(x, s1, y, s2, function, permute);
+                for (int b = 0; b < nblocks; b++) {
+                    int from = b * RESAMPLE_BLOCK;
+                    resampler.run(engines[b], results, from, Math.min(resamples, from + RESAMPLE_BLOCK));
+                }
+            }
+        } else {
+            new Resampler(x, s1, y, s2, function, permute).run(randomGenerator, results, 0, resamples);
+        }
+        DynamicDoubleBin1D bootstrap = new DynamicDoubleBin1D();
+        bootstrap.addAllOf(new DoubleArrayList(results));
+        return bootstrap;
+    }
+
     /**
      * Sorts elements if not already sorted.
      */
@@ -1104,4 +1233,122 @@ public class DynamicDoubleBin1D extends QuantileDoubleBin1D {
         this.isSumOfInversionsValid = true;
         this.isSumOfLogarithmsValid = true;
     }
+
+    /**
+     * Runs resampling steps on behalf of one thread, reusing its auxiliary
+     * bins and buffers from step to step.
+     */
+    private static final class Resampler {
+        private final double[] x;
+
+        private final double[] y;
+
+        private final int s1;
+
+        private final int s2;
+
+        private final DoubleBinBinFunction1D function;
+
+        private final DynamicDoubleBin1D sample1 = new DynamicDoubleBin1D();
+
+        private final DynamicDoubleBin1D sample2 = new DynamicDoubleBin1D();
+
+        /**
+         * For permutations: the pooled elements of both samples, and the swaps
+         * of the current step, which are undone after each step so that every
+         * step starts from the same pool.
+         */
+        private final double[] pool;
+
+        private final int[] swaps;
+
+        Resampler(double[] x, int s1, double[] y, int s2, DoubleBinBinFunction1D function, boolean permute) {
+            this.x = x;
+            this.s1 = s1;
+            this.y = y;
+            this.s2 = s2;
+            this.function = function;
+            if (permute) {
+                this.pool = new double[s1 + s2];
+                System.arraycopy(x, 0, pool, 0, s1);
+                System.arraycopy(y, 0, pool, s1, s2);
+                this.swaps = new int[Math.min(s1, s2)];
+            } else {
+                this.pool = null;
+                this.swaps = null;
+            }
+        }
+
+        /**
+         * Executes the steps <tt>from..to-1</tt>, storing the result of step
+         * <tt>i</tt> in <tt>results[i]</tt>.
+         */
+        void run(DoubleRandomEngine engine, double[] results, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (pool == null) {
+                    draw(engine, x, s1, elements(sample1, s1));
+                    draw(engine, y, s2, elements(sample2, s2));
+                } else {
+                    permute(engine);
+                }
+                results[i] = function.apply(sample1, sample2);
+            }
+        }
+
+        /**
+         * Fills <tt>sample[0..n-1]</tt> with elements of <tt>source[0..n-1]</tt>
+         * chosen uniformly with replacement.
+         */
+        private static void draw(DoubleRandomEngine engine, double[] source, int n, double[] sample) {
+            for (int i = 0; i < n; i++) {
+                sample[i] = source[nextIndex(engine, n)];
+            }
+        }
+
+        /**
+         * Clears the given bin and sets its size to <tt>n</tt>; returns its
+         * element array for filling.
+         */
+        private static double[] elements(DynamicDoubleBin1D bin, int n) {
+            bin.clear();
+            bin.elements.ensureCapacity(n);
+            bin.elements.setSizeRaw(n);
+            bin.invalidateAll();
+            return bin.elements.elements();
+        }
+
+        /**
+         * Returns a uniformly distributed index in <tt>[0,n-1]</tt>.
+         */
+        private static int nextIndex(DoubleRandomEngine engine, int n) {
+            return (int) (((engine.nextInt() & 0xFFFFFFFFL) * n) >>> 32);
+        }
+
+        /**
+         * Moves a random subset of the size of the smaller sample to the front
+         * of the pool by a partial Fisher-Yates shuffle, copies both parts to
+         * the auxiliary bins and restores the pool.
+         */
+        private void permute(DoubleRandomEngine engine) {
+            int n = pool.length;
+            int k = swaps.length;
+            for (int i = 0; i < k; i++) {
+                int j = i + nextIndex(engine, n - i);
+                swaps[i] = j;
+                double tmp = pool[i];
+                pool[i] = pool[j];
+                pool[j] = tmp;
+            }
+            DynamicDoubleBin1D front = (s1 <= s2) ? sample1 : sample2;
+            DynamicDoubleBin1D back = (s1 <= s2) ? sample2 : sample1;
+            System.arraycopy(pool, 0, elements(front, k), 0, k);
+            System.arraycopy(pool, k, elements(back, n - k), 0, n - k);
+            for (int i = k; --i >= 0;) {
+                int j = swaps[i];
+                double tmp = pool[i];
+                pool[i] = pool[j];
+                pool[j] = tmp;
+            }
+        }
+    }
 }
@@ -3,6 +3,8 @@ package hep.aida.tdouble.ref;
 import hep.aida.tdouble.DoubleIAxis;
 import hep.aida.tdouble.DoubleIHistogram1D;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
@@ -138,6 +140,65 @@ public class DoubleHistogram1D extends DoubleAbstractHistogram1D implements Doub
         rms += x * weight * weight;
     }
 
+    /**
+     * Fills all points of the given arrays, using multiple threads for large
+     * arrays. Equivalent to calling <tt>fill(x[i], weights[i])</tt> for each
+     * <tt>i</tt>, or <tt>fill(x[i])</tt> if <tt>weights</tt> is <tt>null</tt>.
+     * <p>
+     * Each thread fills a private histogram; the private histograms are added
+     * to the receiver in thread order once all threads have finished. The
+     * receiver must not be filled concurrently by other threads; see
+     * {@link DoubleStripedHistogram1D} for that.
+     * 
+     * @param x
+     *            the coordinates to fill.
+     * @param weights
+     *            the weights of the points, or <tt>null</tt> for unit weights.
+     * @throws IllegalArgumentException
+     *             if the arrays differ in length.
+     */
+    public void fill(final double[] x, final double[] weights) {
+        if (weights != null && weights.length != x.length)
+            throw new IllegalArgumentException("arrays must have the same length");
+        int n = x.length;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, n);
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<DoubleHistogram1D>() {
+                    public DoubleHistogram1D call() throws Exception {
+                        DoubleHistogram1D local = new DoubleHistogram1D(title(), xAxis);
+                        local.fill(x, weights, firstIdx, lastIdx);
+                        return local;
+                    }
+                });
+            }
+            try {
+                // merge only once every thread has succeeded, so a failure
+                // leaves the receiver unchanged
+                DoubleHistogram1D[] locals = new DoubleHistogram1D[nthreads];
+                for (int j = 0; j < nthreads; j++) {
+                    locals[j] = (DoubleHistogram1D) futures[j].get();
+                }
+                for (int j = 0; j < nthreads; j++) {
+                    merge(locals[j]);
+                }
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new RuntimeException(ex.getCause());
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        } else {
+            fill(x, weights, 0, n);
+        }
+    }
+
     public void fill_2D(final double[] data, final int rows, final int columns, final int zero, final int rowStride,
             final int columnStride) {
         int nthreads = ConcurrencyUtils.getNumberOfThreads();
@@ -174,7 +235,7 @@ public class DoubleHistogram1D extends DoubleAbstractHistogram1D implements Doub
                             }
                             idx += rowStride;
                         }
-                        synchronized (this) {
+                        synchronized (DoubleHistogram1D.this) {
                             for (int i = 0; i < entries.length; i++) {
                                 errors[i] += errors_loc[i];
                                 heights[i] += heights_loc[i];
@@ -248,7 +309,7 @@ public class DoubleHistogram1D extends DoubleAbstractHistogram1D implements Doub
                             }
                             idx += rowStride;
                         }
-                        synchronized (this) {
+                        synchronized (DoubleHistogram1D.this) {
                             for (int i = 0; i < entries.length; i++) {
                                 errors[i] += errors_loc[i];
                                 heights[i] += heights_loc[i];
@@ -299,6 +360,23 @@ public class DoubleHistogram1D extends DoubleAbstractHistogram1D implements Doub
         return mean / sumWeight;
     }
 
+    /**
+     * Adds the contents of another histogram with the same binning to the
+     * receiver.
+     */
+    void merge(DoubleHistogram1D other) {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] += other.entries[i];
+            heights[i] += other.heights[i];
+            errors[i] += other.errors[i];
+        }
+        nEntry += other.nEntry;
+        sumWeight += other.sumWeight;
+        sumWeightSquared += other.sumWeightSquared;
+        mean += other.mean;
+        rms += other.rms;
+    }
+
     public void reset() {
         for (int i = 0; i < entries.length; i++) {
             entries[i] = 0;
@@ -349,4 +427,16 @@ public class DoubleHistogram1D extends DoubleAbstractHistogram1D implements Doub
         mean = Double.NaN;
         rms = Double.NaN;
     }
+
+    private void fill(double[] x, double[] weights, int from, int to) {
+        if (weights == null) {
+            for (int i = from; i < to; i++) {
+                fill(x[i]);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                fill(x[i], weights[i]);
+            }
+        }
+    }
 }
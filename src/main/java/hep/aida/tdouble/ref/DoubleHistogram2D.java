@@ -4,6 +4,12 @@ import hep.aida.tdouble.DoubleIAxis;
 import hep.aida.tdouble.DoubleIHistogram1D;
 import hep.aida.tdouble.DoubleIHistogram2D;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
 /**
  * A reference implementation of hep.aida.IHistogram2D. The goal is to provide a
  * clear implementation rather than the most efficient implementation. However,
@@ -157,6 +163,68 @@ public class DoubleHistogram2D extends DoubleAbstractHistogram2D implements Doub
         rmsY += y * weight * weight;
     }
 
+    /**
+     * Fills all points of the given arrays, using multiple threads for large
+     * arrays. Equivalent to calling <tt>fill(x[i], y[i], weights[i])</tt>
+     * for each <tt>i</tt>, or <tt>fill(x[i], y[i])</tt> if <tt>weights</tt>
+     * is <tt>null</tt>.
+     * <p>
+     * Each thread fills a private histogram; the private histograms are added
+     * to the receiver in thread order once all threads have finished. The
+     * receiver must not be filled concurrently by other threads; see
+     * {@link DoubleStripedHistogram2D} for that.
+     * 
+     * @param x
+     *            the x coordinates to fill.
+     * @param y
+     *            the y coordinates to fill.
+     * @param weights
+     *            the weights of the points, or <tt>null</tt> for unit weights.
+     * @throws IllegalArgumentException
+     *             if the arrays differ in length.
+     */
+    public void fill(final double[] x, final double[] y, final double[] weights) {
+        if ((weights != null && weights.length != x.length) || y.length != x.length)
+            throw new IllegalArgumentException("arrays must have the same length");
+        int n = x.length;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, n);
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<DoubleHistogram2D>() {
+                    public DoubleHistogram2D call() throws Exception {
+                        DoubleHistogram2D local = new DoubleHistogram2D(title(), xAxis, yAxis);
+                        local.fill(x, y, weights, firstIdx, lastIdx);
+                        return local;
+                    }
+                });
+            }
+            try {
+                // merge only once every thread has succeeded, so a failure
+                // leaves the receiver unchanged
+                DoubleHistogram2D[] locals = new DoubleHistogram2D[nthreads];
+                for (int j = 0; j < nthreads; j++) {
+                    locals[j] = (DoubleHistogram2D) futures[j].get();
+                }
+                for (int j = 0; j < nthreads; j++) {
+                    merge(locals[j]);
+                }
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new RuntimeException(ex.getCause());
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        } else {
+            fill(x, y, weights, 0, n);
+        }
+    }
+
     /**
      * The precise meaning of the arguments to the public slice methods is
      * somewhat ambiguous, so we define this internal slice method and clearly
@@ -237,6 +305,27 @@ public class DoubleHistogram2D extends DoubleAbstractHistogram2D implements Doub
         return meanY / sumWeight;
     }
 
+    /**
+     * Adds the contents of another histogram with the same binning to the
+     * receiver.
+     */
+    void merge(DoubleHistogram2D other) {
+        for (int i = 0; i < entries.length; i++) {
+            for (int j = 0; j < entries[i].length; j++) {
+                entries[i][j] += other.entries[i][j];
+                heights[i][j] += other.heights[i][j];
+                errors[i][j] += other.errors[i][j];
+            }
+        }
+        nEntry += other.nEntry;
+        sumWeight += other.sumWeight;
+        sumWeightSquared += other.sumWeightSquared;
+        meanX += other.meanX;
+        rmsX += other.rmsX;
+        meanY += other.meanY;
+        rmsY += other.rmsY;
+    }
+
     public void reset() {
         for (int i = 0; i < entries.length; i++)
             for (int j = 0; j < entries[0].length; j++) {
@@ -285,4 +374,16 @@ public class DoubleHistogram2D extends DoubleAbstractHistogram2D implements Doub
     public double sumAllBinHeights() {
         return sumWeight;
     }
+
+    private void fill(double[] x, double[] y, double[] weights, int from, int to) {
+        if (weights == null) {
+            for (int i = from; i < to; i++) {
+                fill(x[i], y[i]);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                fill(x[i], y[i], weights[i]);
+            }
+        }
+    }
 }
@@ -4,6 +4,12 @@ import hep.aida.tdouble.DoubleIAxis;
 import hep.aida.tdouble.DoubleIHistogram2D;
 import hep.aida.tdouble.DoubleIHistogram3D;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
 /**
  * A reference implementation of hep.aida.IHistogram3D. The goal is to provide a
  * clear implementation rather than the most efficient implementation. However,
@@ -175,6 +181,70 @@ public class DoubleHistogram3D extends DoubleAbstractHistogram3D implements Doub
         rmsZ += z * weight * weight;
     }
 
+    /**
+     * Fills all points of the given arrays, using multiple threads for large
+     * arrays. Equivalent to calling
+     * <tt>fill(x[i], y[i], z[i], weights[i])</tt> for each <tt>i</tt>, or
+     * <tt>fill(x[i], y[i], z[i])</tt> if <tt>weights</tt> is <tt>null</tt>.
+     * <p>
+     * Each thread fills a private histogram; the private histograms are added
+     * to the receiver in thread order once all threads have finished. The
+     * receiver must not be filled concurrently by other threads; see
+     * {@link DoubleStripedHistogram3D} for that.
+     * 
+     * @param x
+     *            the x coordinates to fill.
+     * @param y
+     *            the y coordinates to fill.
+     * @param z
+     *            the z coordinates to fill.
+     * @param weights
+     *            the weights of the points, or <tt>null</tt> for unit weights.
+     * @throws IllegalArgumentException
+     *             if the arrays differ in length.
+     */
+    public void fill(final double[] x, final double[] y, final double[] z, final double[] weights) {
+        if ((weights != null && weights.length != x.length) || y.length != x.length || z.length != x.length)
+            throw new IllegalArgumentException("arrays must have the same length");
+        int n = x.length;
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        if ((nthreads > 1) && (n >= ConcurrencyUtils.getThreadsBeginN_1D())) {
+            nthreads = Math.min(nthreads, n);
+            Future<?>[] futures = new Future[nthreads];
+            int k = n / nthreads;
+            for (int j = 0; j < nthreads; j++) {
+                final int firstIdx = j * k;
+                final int lastIdx = (j == nthreads - 1) ? n : firstIdx + k;
+                futures[j] = ConcurrencyUtils.submit(new Callable<DoubleHistogram3D>() {
+                    public DoubleHistogram3D call() throws Exception {
+                        DoubleHistogram3D local = new DoubleHistogram3D(title(), xAxis, yAxis, zAxis);
+                        local.fill(x, y, z, weights, firstIdx, lastIdx);
+                        return local;
+                    }
+                });
+            }
+            try {
+                // merge only once every thread has succeeded, so a failure
+                // leaves the receiver unchanged
+                DoubleHistogram3D[] locals = new DoubleHistogram3D[nthreads];
+                for (int j = 0; j < nthreads; j++) {
+                    locals[j] = (DoubleHistogram3D) futures[j].get();
+                }
+                for (int j = 0; j < nthreads; j++) {
+                    merge(locals[j]);
+                }
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new RuntimeException(ex.getCause());
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        } else {
+            fill(x, y, z, weights, 0, n);
+        }
+    }
+
     /**
      * The precise meaning of the arguments to the public slice methods is
      * somewhat ambiguous, so we define this internal slice method and clearly
@@ -301,10 +371,35 @@ public class DoubleHistogram3D extends DoubleAbstractHistogram3D implements Doub
         return meanZ / sumWeight;
     }
 
+    /**
+     * Adds the contents of another histogram with the same binning to the
+     * receiver.
+     */
+    void merge(DoubleHistogram3D other) {
+        for (int i = 0; i < entries.length; i++) {
+            for (int j = 0; j < entries[i].length; j++) {
+                for (int k = 0; k < entries[i][j].length; k++) {
+                    entries[i][j][k] += other.entries[i][j][k];
+                    heights[i][j][k] += other.heights[i][j][k];
+                    errors[i][j][k] += other.errors[i][j][k];
+                }
+            }
+        }
+        nEntry += other.nEntry;
+        sumWeight += other.sumWeight;
+        sumWeightSquared += other.sumWeightSquared;
+        meanX += other.meanX;
+        rmsX += other.rmsX;
+        meanY += other.meanY;
+        rmsY += other.rmsY;
+        meanZ += other.meanZ;
+        rmsZ += other.rmsZ;
+    }
+
     public void reset() {
         for (int i = 0; i < entries.length; i++)
             for (int j = 0; j < entries[0].length; j++)
-                for (int k = 0; j < entries[0][0].length; k++) {
+                for (int k = 0; k < entries[0][0].length; k++) {
                     entries[i][j][k] = 0;
                     heights[i][j][k] = 0;
                     errors[i][j][k] = 0;
@@ -335,4 +430,16 @@ public class DoubleHistogram3D extends DoubleAbstractHistogram3D implements Doub
     public double sumAllBinHeights() {
         return sumWeight;
     }
+
+    private void fill(double[] x, double[] y, double[] z, double[] weights, int from, int to) {
+        if (weights == null) {
+            for (int i = from; i < to; i++) {
+                fill(x[i], y[i], z[i]);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                fill(x[i], y[i], z[i], weights[i]);
+            }
+        }
+    }
 }
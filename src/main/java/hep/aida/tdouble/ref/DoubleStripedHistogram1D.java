@@ -0,0 +1,180 @@
+package hep.aida.tdouble.ref;
+
+import hep.aida.tdouble.DoubleIAxis;
+
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * A one-dimensional histogram that many threads may fill concurrently with little
+ * contention. Filling is spread over a power-of-two number of stripes, each an
+ * independent {@link DoubleHistogram1D} selected from the id of the filling
+ * thread; a thread only ever locks its own stripe, so concurrent fills from
+ * different threads rarely wait on each other.
+ * <p>
+ * {@link #snapshot()} locks all stripes and adds them into a new histogram, so
+ * it sees every fill that completed before the call and none that started
+ * after it. Snapshots are meant to be taken far less often than fills; each
+ * costs time proportional to the number of stripes times the number of bins.
+ * 
+ * @see DoubleHistogram1D
+ */
+public class DoubleStripedHistogram1D {
+    private final String title;
+
+    private final DoubleIAxis xAxis;
+
+    private final DoubleHistogram1D[] stripes;
+
+    private final int mask;
+
+    /**
+     * Constructs a histogram with two stripes per available processor,
+     * rounded up to a power of two.
+     * 
+     * @param title
+     *            The histogram title.
+     * @param xAxis
+     *            The X-axis description.
+     */
+    public DoubleStripedHistogram1D(String title, DoubleIAxis xAxis) {
+        this(title, xAxis, 2 * ConcurrencyUtils.getNumberOfProcessors());
+    }
+
+    /**
+     * Constructs a histogram with the given number of stripes, rounded up to a
+     * power of two.
+     * 
+     * @param title
+     *            The histogram title.
+     * @param xAxis
+     *            The X-axis description.
+     * @param stripes
+     *            The minimum number of stripes.
+     * @throws IllegalArgumentException
+     *             if <tt>stripes &lt; 1</tt>.
+     */
+    public DoubleStripedHistogram1D(String title, DoubleIAxis xAxis, int stripes) {
+        if (stripes < 1)
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        this.title = title;
+        this.xAxis = xAxis;
+        this.stripes = new DoubleHistogram1D[ConcurrencyUtils.nextPow2(stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new DoubleHistogram1D(title, xAxis);
+        }
+        this.mask = this.stripes.length - 1;
+    }
+
+    /**
+     * Fills the histogram with unit weight.
+     */
+    public void fill(double x) {
+        DoubleHistogram1D stripe = stripe();
+        synchronized (stripe) {
+            stripe.fill(x);
+        }
+    }
+
+    /**
+     * Fills the histogram with the given weight.
+     */
+    public void fill(double x, double weight) {
+        DoubleHistogram1D stripe = stripe();
+        synchronized (stripe) {
+            stripe.fill(x, weight);
+        }
+    }
+
+    /**
+     * Fills all points of the given arrays; see
+     * {@link DoubleHistogram1D#fill(double[],double[])}. The points are binned into
+     * a private histogram first, which is then added to the stripe of the
+     * calling thread in a single step.
+     * 
+     * @param x
+     *            the coordinates to fill.
+     * @param weights
+     *            the weights of the points, or <tt>null</tt> for unit weights.
+     * @throws IllegalArgumentException
+     *             if the arrays differ in length.
+     */
+    public void fill(double[] x, double[] weights) {
+        DoubleHistogram1D local = new DoubleHistogram1D(title, xAxis);
+        local.fill(x, weights);
+        DoubleHistogram1D stripe = stripe();
+        synchronized (stripe) {
+            stripe.merge(local);
+        }
+    }
+
+    /**
+     * Resets all stripes. Fills that complete after this call has returned
+     * are kept; no fill is partially reset.
+     */
+    public void reset() {
+        lockAll(0, new Runnable() {
+            public void run() {
+                for (int i = 0; i < stripes.length; i++) {
+                    stripes[i].reset();
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns a new histogram holding the sum of all stripes, taken while all
+     * stripes are locked. The result is independent of the receiver.
+     */
+    public DoubleHistogram1D snapshot() {
+        final DoubleHistogram1D result = new DoubleHistogram1D(title, xAxis);
+        lockAll(0, new Runnable() {
+            public void run() {
+                for (int i = 0; i < stripes.length; i++) {
+                    result.merge(stripes[i]);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the number of stripes.
+     */
+    public int stripes() {
+        return stripes.length;
+    }
+
+    /**
+     * Returns the histogram title.
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * Returns the X-axis.
+     */
+    public DoubleIAxis xAxis() {
+        return xAxis;
+    }
+
+    /**
+     * Runs the given task while holding the locks of stripes
+     * <tt>from..stripes.length-1</tt>, always acquired in index order.
+     */
+    private void lockAll(int from, Runnable task) {
+        if (from == stripes.length) {
+            task.run();
+            return;
+        }
+        synchronized (stripes[from]) {
+            lockAll(from + 1, task);
+        }
+    }
+
+    private DoubleHistogram1D stripe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+}
@@ -0,0 +1,212 @@
+package hep.aida.tdouble.ref;
+
+import hep.aida.tdouble.DoubleIAxis;
+
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * A three-dimensional histogram that many threads may fill concurrently with little
+ * contention. Filling is spread over a power-of-two number of stripes, each an
+ * independent {@link DoubleHistogram3D} selected from the id of the filling
+ * thread; a thread only ever locks its own stripe, so concurrent fills from
+ * different threads rarely wait on each other.
+ * <p>
+ * {@link #snapshot()} locks all stripes and adds them into a new histogram, so
+ * it sees every fill that completed before the call and none that started
+ * after it. Snapshots are meant to be taken far less often than fills; each
+ * costs time proportional to the number of stripes times the number of bins.
+ * 
+ * @see DoubleHistogram3D
+ */
+public class DoubleStripedHistogram3D {
+    private final String title;
+
+    private final DoubleIAxis xAxis;
+
+    private final DoubleIAxis yAxis;
+
+    private final DoubleIAxis zAxis;
+
+    private final DoubleHistogram3D[] stripes;
+
+    private final int mask;
+
+    /**
+     * Constructs a histogram with two stripes per available processor,
+     * rounded up to a power of two.
+     * 
+     * @param title
+     *            The histogram title.
+     * @param xAxis
+     *            The X-axis description.
+     * @param yAxis
+     *            The Y-axis description.
+     * @param zAxis
+     *            The Z-axis description.
+     */
+    public DoubleStripedHistogram3D(String title, DoubleIAxis xAxis, DoubleIAxis yAxis, DoubleIAxis zAxis) {
+        this(title, xAxis, yAxis, zAxis, 2 * ConcurrencyUtils.getNumberOfProcessors());
+    }
+
+    /**
+     * Constructs a histogram with the given number of stripes, rounded up to a
+     * power of two.
+     * 
+     * @param title
+     *            The histogram title.
+     * @param xAxis
+     *            The X-axis description.
+     * @param yAxis
+     *            The Y-axis description.
+     * @param zAxis
+     *            The Z-axis description.
+     * @param stripes
+     *            The minimum number of stripes.
+     * @throws IllegalArgumentException
+     *             if <tt>stripes &lt; 1</tt>.
+     */
+    public DoubleStripedHistogram3D(String title, DoubleIAxis xAxis, DoubleIAxis yAxis, DoubleIAxis zAxis, int stripes) {
+        if (stripes < 1)
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        this.title = title;
+        this.xAxis = xAxis;
+        this.yAxis = yAxis;
+        this.zAxis = zAxis;
+        this.stripes = new DoubleHistogram3D[ConcurrencyUtils.nextPow2(stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new DoubleHistogram3D(title, xAxis, yAxis, zAxis);
+        }
+        this.mask = this.stripes.length - 1;
+    }
+
+    /**
+     * Fills the histogram with unit weight.
+     */
+    public void fill(double x, double y, double z) {
+        DoubleHistogram3D stripe = stripe();
+        synchronized (stripe) {
+            stripe.fill(x, y, z);
+        }
+    }
+
+    /**
+     * Fills the histogram with the given weight.
+     */
+    public void fill(double x, double y, double z, double weight) {
+        DoubleHistogram3D stripe = stripe();
+        synchronized (stripe) {
+            stripe.fill(x, y, z, weight);
+        }
+    }
+
+    /**
+     * Fills all points of the given arrays; see
+     * {@link DoubleHistogram3D#fill(double[],double[],double[],double[])}. The points are binned into
+     * a private histogram first, which is then added to the stripe of the
+     * calling thread in a single step.
+     * 
+     * @param x
+     *            the x coordinates to fill.
+     * @param y
+     *            the y coordinates to fill.
+     * @param z
+     *            the z coordinates to fill.
+     * @param weights
+     *            the weights of the points, or <tt>null</tt> for unit weights.
+     * @throws IllegalArgumentException
+     *             if the arrays differ in length.
+     */
+    public void fill(double[] x, double[] y, double[] z, double[] weights) {
+        DoubleHistogram3D local = new DoubleHistogram3D(title, xAxis, yAxis, zAxis);
+        local.fill(x, y, z, weights);
+        DoubleHistogram3D stripe = stripe();
+        synchronized (stripe) {
+            stripe.merge(local);
+        }
+    }
+
+    /**
+     * Resets all stripes. Fills that complete after this call has returned
+     * are kept; no fill is partially reset.
+     */
+    public void reset() {
+        lockAll(0, new Runnable() {
+            public void run() {
+                for (int i = 0; i < stripes.length; i++) {
+                    stripes[i].reset();
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns a new histogram holding the sum of all stripes, taken while all
+     * stripes are locked. The result is independent of the receiver.
+     */
+    public DoubleHistogram3D snapshot() {
+        final DoubleHistogram3D result = new DoubleHistogram3D(title, xAxis, yAxis, zAxis);
+        lockAll(0, new Runnable() {
+            public void run() {
+                for (int i = 0; i < stripes.length; i++) {
+                    result.merge(stripes[i]);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the number of stripes.
+     */
+    public int stripes() {
+        return stripes.length;
+    }
+
+    /**
+     * Returns the histogram title.
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * Returns the X-axis.
+     */
+    public DoubleIAxis xAxis() {
+        return xAxis;
+    }
+
+    /**
+     * Returns the Y-axis.
+     */
+    public DoubleIAxis yAxis() {
+        return yAxis;
+    }
+
+    /**
+     * Returns the Z-axis.
+     */
+    public DoubleIAxis zAxis() {
+        return zAxis;
+    }
+
+    /**
+     * Runs the given task while holding the locks of stripes
+     * <tt>from..stripes.length-1</tt>, always acquired in index order.
+     */
+    private void lockAll(int from, Runnable task) {
+        if (from == stripes.length) {
+            task.run();
+            return;
+        }
+        synchronized (stripes[from]) {
+            lockAll(from + 1, task);
+        }
+    }
+
+    private DoubleHistogram3D stripe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+}
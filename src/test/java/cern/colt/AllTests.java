@@ -2,13 +2,33 @@ package cern.colt;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import cern.colt.list.tdouble.BigDoubleArrayListTest;
+import cern.colt.list.tdouble.DoubleArraySpliteratorTest;
+import cern.colt.list.tlong.BigLongArrayListTest;
+import cern.colt.map.tdouble.ConcurrentLongDoubleHashMapTest;
+import cern.colt.map.tdouble.LinearIntDoubleHashMapTest;
+import cern.colt.map.tdouble.LinearLongDoubleHashMapTest;
 import cern.colt.matrix.tdcomplex.AllDComplexMatrixTests;
+import cern.colt.matrix.tbit.BitMatrixTest;
+import cern.colt.matrix.tbit.RoaringBitVectorTest;
 import cern.colt.matrix.tdouble.AllDoubleMatrixTests;
+import cern.colt.matrix.tdouble.algo.DoubleStatisticTest;
 import cern.colt.matrix.tfcomplex.AllFComplexMatrixTests;
 import cern.colt.matrix.tfloat.AllFloatMatrixTests;
 import cern.colt.matrix.tint.AllIntMatrixTests;
 import cern.colt.matrix.tlong.AllLongMatrixTests;
+import cern.jet.random.tdouble.DistributionFillTest;
+import cern.jet.random.tdouble.engine.Philox4x32Test;
+import cern.jet.random.tdouble.engine.Xoshiro256StarStarTest;
+import cern.jet.random.tdouble.sampling.AliasDoubleRandomSamplerTest;
+import cern.jet.random.tdouble.sampling.DoubleReservoirSamplerTest;
+import cern.jet.random.tdouble.sampling.FenwickDoubleRandomSamplerTest;
+import cern.jet.stat.tdouble.DoubleMomentsTest;
+import cern.jet.stat.tdouble.quantile.TDigestDoubleQuantileFinderTest;
 import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+import hep.aida.tdouble.bin.ConcurrentDynamicDoubleBin1DTest;
+import hep.aida.tdouble.bin.DynamicDoubleBin1DResamplingTest;
+import hep.aida.tdouble.ref.DoubleStripedHistogramTest;
 
 public class AllTests {
 
@@ -24,6 +44,28 @@ public class AllTests {
         suite.addTest(AllFComplexMatrixTests.suite());
         suite.addTest(AllLongMatrixTests.suite());
         suite.addTest(AllIntMatrixTests.suite());
+        suite.addTestSuite(PartitioningTest.class);
+        suite.addTestSuite(BitMatrixTest.class);
+        suite.addTestSuite(RoaringBitVectorTest.class);
+        suite.addTestSuite(SortingTest.class);
+        suite.addTestSuite(BigDoubleArrayListTest.class);
+        suite.addTestSuite(BigLongArrayListTest.class);
+        suite.addTestSuite(DoubleArraySpliteratorTest.class);
+        suite.addTestSuite(LinearLongDoubleHashMapTest.class);
+        suite.addTestSuite(LinearIntDoubleHashMapTest.class);
+        suite.addTestSuite(ConcurrentLongDoubleHashMapTest.class);
+        suite.addTestSuite(DistributionFillTest.class);
+        suite.addTestSuite(Philox4x32Test.class);
+        suite.addTestSuite(Xoshiro256StarStarTest.class);
+        suite.addTestSuite(AliasDoubleRandomSamplerTest.class);
+        suite.addTestSuite(FenwickDoubleRandomSamplerTest.class);
+        suite.addTestSuite(DoubleReservoirSamplerTest.class);
+        suite.addTestSuite(DoubleStripedHistogramTest.class);
+        suite.addTestSuite(TDigestDoubleQuantileFinderTest.class);
+        suite.addTestSuite(ConcurrentDynamicDoubleBin1DTest.class);
+        suite.addTestSuite(DoubleStatisticTest.class);
+        suite.addTestSuite(DoubleMomentsTest.class);
+        suite.addTestSuite(DynamicDoubleBin1DResamplingTest.class);
         return suite;
     }
 
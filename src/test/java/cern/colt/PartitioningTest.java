@@ -0,0 +1,74 @@
+package cern.colt;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class PartitioningTest extends TestCase {
+
+    protected int N = 100003;
+
+    protected Random random = new Random(0);
+
+    public PartitioningTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        ConcurrencyUtils.setThreadsBeginN_1D(1);
+    }
+
+    public void testSelectDouble() {
+        double[] a = new double[N];
+        for (int i = 0; i < N; i++) {
+            a[i] = (i % 5 == 0) ? random.nextInt(10) : random.nextGaussian();
+        }
+        a[7] = Double.NaN;
+        a[8] = Double.NaN;
+        double[] expected = a.clone();
+        java.util.Arrays.sort(expected);
+        int[] ks = { 0, 1, N / 10, N / 2, N - 3, N - 1 };
+        for (int i = 0; i < ks.length; i++) {
+            double[] b = a.clone();
+            assertEquals(expected[ks[i]], Partitioning.select(b, 0, N - 1, ks[i]));
+            assertEquals(expected[ks[i]], b[ks[i]]);
+            for (int j = 0; j < ks[i]; j++) {
+                assertTrue(Double.compare(b[j], b[ks[i]]) <= 0);
+            }
+            assertEquals(expected[ks[i]], Partitioning.parallelSelect(a.clone(), 0, N - 1, ks[i]));
+        }
+    }
+
+    public void testSelectRange() {
+        int[] a = new int[N];
+        for (int i = 0; i < N; i++) {
+            a[i] = random.nextInt(1000);
+        }
+        int from = 11;
+        int to = N - 13;
+        int[] expected = a.clone();
+        java.util.Arrays.sort(expected, from, to + 1);
+        for (int k = from; k <= to; k += N / 7) {
+            int[] b = a.clone();
+            assertEquals(expected[k], Partitioning.select(b, from, to, k));
+            assertEquals(a[from - 1], b[from - 1]);
+            assertEquals(a[to + 1], b[to + 1]);
+            assertEquals(expected[k], Partitioning.parallelSelect(a.clone(), from, to, k));
+        }
+    }
+
+    public void testSelectSorted() {
+        long[] a = new long[N];
+        for (int i = 0; i < N; i++) {
+            a[i] = i / 3;
+        }
+        assertEquals(a[N / 3], Partitioning.select(a.clone(), 0, N - 1, N / 3));
+        assertEquals(a[N / 3], Partitioning.parallelSelect(a.clone(), 0, N - 1, N / 3));
+        float[] b = new float[N];
+        for (int i = 0; i < N; i++) {
+            b[i] = N - i;
+        }
+        assertEquals((float) (N / 2), Partitioning.parallelSelect(b, 0, N - 1, N / 2 - 1));
+    }
+}
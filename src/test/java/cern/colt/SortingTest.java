@@ -0,0 +1,133 @@
+package cern.colt;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class SortingTest extends TestCase {
+
+    protected int N = 10007;
+
+    protected Random random = new Random(0);
+
+    public SortingTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        ConcurrencyUtils.setThreadsBeginN_1D(1);
+    }
+
+    public void testParallelRadixSortInt() {
+        int[] a = new int[N];
+        for (int i = 0; i < N; i++) {
+            a[i] = random.nextInt();
+        }
+        a[0] = Integer.MIN_VALUE;
+        a[1] = Integer.MAX_VALUE;
+        int[] expected = a.clone();
+        java.util.Arrays.sort(expected, 3, N - 5);
+        Sorting.parallelRadixSort(a, 3, N - 5);
+        assertTrue(java.util.Arrays.equals(expected, a));
+    }
+
+    public void testParallelRadixSortLong() {
+        long[] a = new long[N];
+        for (int i = 0; i < N; i++) {
+            a[i] = (i % 3 == 0) ? random.nextInt(100) - 50 : random.nextLong();
+        }
+        long[] expected = a.clone();
+        java.util.Arrays.sort(expected);
+        Sorting.parallelRadixSort(a, 0, N);
+        assertTrue(java.util.Arrays.equals(expected, a));
+    }
+
+    public void testParallelRadixSortFloat() {
+        float[] a = new float[N];
+        for (int i = 0; i < N; i++) {
+            a[i] = (float) random.nextGaussian();
+        }
+        a[0] = Float.NaN;
+        a[1] = -0.0f;
+        a[2] = 0.0f;
+        a[3] = Float.NEGATIVE_INFINITY;
+        a[4] = Float.POSITIVE_INFINITY;
+        float[] expected = a.clone();
+        java.util.Arrays.sort(expected);
+        Sorting.parallelRadixSort(a, 0, N);
+        assertTrue(java.util.Arrays.equals(expected, a));
+    }
+
+    public void testParallelRadixSortDouble() {
+        double[] a = new double[N];
+        for (int i = 0; i < N; i++) {
+            a[i] = random.nextGaussian() * 1e10;
+        }
+        a[0] = Double.NaN;
+        a[1] = -0.0;
+        a[2] = 0.0;
+        a[3] = Double.NEGATIVE_INFINITY;
+        a[4] = -Double.MIN_VALUE;
+        double[] expected = a.clone();
+        java.util.Arrays.sort(expected, 1, N);
+        Sorting.parallelRadixSort(a, 1, N);
+        assertTrue(java.util.Arrays.equals(expected, a));
+    }
+
+    public void testParallelRadixSortIndexes() {
+        double[] a = new double[N];
+        for (int i = 0; i < N; i++) {
+            a[i] = random.nextInt(50) - 25;
+        }
+        double[] copy = a.clone();
+        int[] indexes = Sorting.parallelRadixSortIndexes(a, 2, N);
+        assertTrue(java.util.Arrays.equals(copy, a));
+        assertEquals(N - 2, indexes.length);
+        for (int i = 1; i < indexes.length; i++) {
+            assertTrue(a[indexes[i - 1]] <= a[indexes[i]]);
+            if (a[indexes[i - 1]] == a[indexes[i]]) {
+                assertTrue(indexes[i - 1] < indexes[i]);
+            }
+        }
+        int[] b = new int[N];
+        for (int i = 0; i < N; i++) {
+            b[i] = random.nextInt();
+        }
+        indexes = Sorting.parallelRadixSortIndexes(b, 0, N);
+        for (int i = 1; i < indexes.length; i++) {
+            assertTrue(b[indexes[i - 1]] <= b[indexes[i]]);
+        }
+    }
+
+    public void testParallelRadixSortPairs() {
+        int[] keys = new int[N];
+        double[] values = new double[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = random.nextInt(100) - 50;
+            values[i] = i;
+        }
+        Sorting.parallelRadixSort(keys, values, 0, N);
+        for (int i = 1; i < N; i++) {
+            assertTrue(keys[i - 1] <= keys[i]);
+            if (keys[i - 1] == keys[i]) {
+                assertTrue(values[i - 1] < values[i]);
+            }
+        }
+        double[] dkeys = new double[N];
+        int[] ivalues = new int[N];
+        for (int i = 0; i < N; i++) {
+            dkeys[i] = random.nextInt(100) - 50.5;
+            ivalues[i] = i;
+        }
+        double[] copy = dkeys.clone();
+        Sorting.parallelRadixSort(dkeys, ivalues, 0, N);
+        for (int i = 1; i < N; i++) {
+            assertTrue(dkeys[i - 1] <= dkeys[i]);
+            assertEquals(copy[ivalues[i]], dkeys[i], 0);
+            if (dkeys[i - 1] == dkeys[i]) {
+                assertTrue(ivalues[i - 1] < ivalues[i]);
+            }
+        }
+    }
+}
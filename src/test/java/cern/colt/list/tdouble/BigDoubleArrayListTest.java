@@ -0,0 +1,131 @@
+package cern.colt.list.tdouble;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+import cern.colt.function.tdouble.DoubleProcedure;
+import cern.jet.stat.tdouble.quantile.DoubleQuantileFinder;
+import cern.jet.stat.tdouble.quantile.DoubleQuantileFinderFactory;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+import hep.aida.tdouble.bin.DynamicDoubleBin1D;
+
+public class BigDoubleArrayListTest extends TestCase {
+
+    protected int N = 100003;
+
+    protected int SHIFT = 10;
+
+    protected Random random = new Random(0);
+
+    public BigDoubleArrayListTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        ConcurrencyUtils.setThreadsBeginN_1D(1);
+    }
+
+    public void testAddGetSet() {
+        BigDoubleArrayList list = new BigDoubleArrayList(0, SHIFT);
+        for (int i = 0; i < N; i++) {
+            list.add(i);
+        }
+        assertEquals(N, list.size());
+        assertEquals((N + (1 << SHIFT) - 1) >> SHIFT, list.numberOfSegments());
+        for (int i = 0; i < N; i++) {
+            assertEquals((double) i, list.get(i));
+        }
+        list.set(N - 1, -1);
+        assertEquals(-1.0, list.getQuick(N - 1));
+        try {
+            list.get(N);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        list.addAllOf(list);
+        assertEquals(2L * N, list.size());
+        assertEquals(5.0, list.get(N + 5));
+        list.trimToSize();
+        assertEquals(list, list.copy());
+        list.setSize(3);
+        list.setSize(5);
+        assertEquals(0.0, list.get(4));
+        list.clear();
+        assertTrue(list.isEmpty());
+    }
+
+    public void testSegments() {
+        BigDoubleArrayList list = new BigDoubleArrayList(0, SHIFT);
+        DoubleArrayList values = new DoubleArrayList();
+        for (int i = 0; i < N; i++) {
+            values.add(random.nextDouble());
+        }
+        list.addAllOf(values);
+        long start = 0;
+        for (int s = 0; s < list.numberOfSegments(); s++) {
+            DoubleArrayList segment = list.segment(s);
+            for (int i = 0; i < segment.size(); i++) {
+                assertEquals(values.get((int) start + i), segment.get(i));
+            }
+            start += segment.size();
+        }
+        assertEquals(N, start);
+    }
+
+    public void testParallelForEach() {
+        BigDoubleArrayList list = new BigDoubleArrayList(0, SHIFT);
+        for (int i = 0; i < N; i++) {
+            list.add(1);
+        }
+        final AtomicLong count = new AtomicLong();
+        assertTrue(list.parallelForEach(new DoubleProcedure() {
+            public boolean apply(double element) {
+                count.addAndGet((long) element);
+                return true;
+            }
+        }));
+        assertEquals(N, count.get());
+        list.set(N / 2, 0);
+        assertFalse(list.parallelForEach(new DoubleProcedure() {
+            public boolean apply(double element) {
+                return element != 0;
+            }
+        }));
+    }
+
+    public void testSort() {
+        double[] expected = new double[N];
+        BigDoubleArrayList list = new BigDoubleArrayList(0, SHIFT);
+        for (int i = 0; i < N; i++) {
+            expected[i] = (i % 5 == 0) ? random.nextInt(10) : random.nextGaussian();
+        }
+        expected[7] = Double.NaN;
+        expected[8] = -0.0;
+        for (int i = 0; i < N; i++) {
+            list.add(expected[i]);
+        }
+        java.util.Arrays.sort(expected);
+        list.sort();
+        for (int i = 0; i < N; i++) {
+            assertEquals(0, Double.compare(expected[i], list.get(i)));
+        }
+    }
+
+    public void testQuantileFinderAndBin() {
+        BigDoubleArrayList list = new BigDoubleArrayList(0, SHIFT);
+        for (int i = 0; i < N; i++) {
+            list.add(random.nextDouble());
+        }
+        DoubleQuantileFinder finder = DoubleQuantileFinderFactory.newDoubleQuantileFinder(true, N, 0.0, 0.0, 1, null);
+        finder.addAllOf(list);
+        assertEquals(N, finder.size());
+        DynamicDoubleBin1D bin = new DynamicDoubleBin1D();
+        bin.addAllOf(list);
+        assertEquals(N, bin.size());
+        list.sort();
+        assertEquals(list.get(0), bin.min());
+        assertEquals(list.get(N - 1), bin.max());
+        assertEquals(list.get(N / 2), bin.quantile((double) N / 2 / (N - 1)), 1e-3);
+    }
+}
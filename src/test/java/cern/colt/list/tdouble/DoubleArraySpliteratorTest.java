@@ -0,0 +1,53 @@
+package cern.colt.list.tdouble;
+
+import java.util.Spliterator;
+
+import junit.framework.TestCase;
+
+public class DoubleArraySpliteratorTest extends TestCase {
+
+    protected int N = 1003;
+
+    public DoubleArraySpliteratorTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testTrySplit() {
+        double[] elements = new double[N];
+        for (int i = 0; i < N; i++) {
+            elements[i] = i;
+        }
+        int zero = 3;
+        Spliterator.OfDouble right = new DoubleArraySpliterator(elements, zero, 1, 0, N - zero);
+        Spliterator.OfDouble left = right.trySplit();
+        assertEquals(N - zero, left.estimateSize() + right.estimateSize());
+        assertEquals(0, (zero + left.estimateSize()) % 8);
+        double[] small = new double[15];
+        assertNull(new DoubleArraySpliterator(small, 0, 1, 0, small.length).trySplit());
+    }
+
+    public void testStridedStream() {
+        double[] elements = new double[N];
+        for (int i = 0; i < N; i++) {
+            elements[i] = i;
+        }
+        int size = (N - 1) / 2;
+        Spliterator.OfDouble s = new DoubleArraySpliterator(elements, N - 1, -2, 0, size);
+        double[] values = java.util.stream.StreamSupport.doubleStream(s, true).toArray();
+        assertEquals(size, values.length);
+        for (int i = 0; i < size; i++) {
+            assertEquals((double) (N - 1 - 2 * i), values[i]);
+        }
+    }
+
+    public void testListStream() {
+        DoubleArrayList list = new DoubleArrayList();
+        for (int i = 0; i < N; i++) {
+            list.add(i);
+        }
+        assertEquals((double) N * (N - 1) / 2, list.parallelStream().sum());
+        assertEquals(N, list.stream().count());
+        AbstractDoubleList part = list.partFromTo(10, 19);
+        assertEquals(145.0, part.stream().sum());
+    }
+}
@@ -0,0 +1,51 @@
+package cern.colt.list.tlong;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class BigLongArrayListTest extends TestCase {
+
+    protected int N = 100003;
+
+    protected int SHIFT = 10;
+
+    protected Random random = new Random(0);
+
+    public BigLongArrayListTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        ConcurrencyUtils.setThreadsBeginN_1D(1);
+    }
+
+    public void testAddAllOf() {
+        BigLongArrayList list = new BigLongArrayList(0, SHIFT);
+        LongArrayList values = new LongArrayList();
+        for (int i = 0; i < N; i++) {
+            values.add(i);
+        }
+        list.addAllOfFromTo(values, 3, N - 1);
+        list.add(N);
+        assertEquals(N - 2, list.size());
+        for (int i = 0; i < N - 2; i++) {
+            assertEquals(i + 3, list.get(i));
+        }
+    }
+
+    public void testSort() {
+        long[] expected = new long[N];
+        BigLongArrayList list = new BigLongArrayList(0, SHIFT);
+        for (int i = 0; i < N; i++) {
+            expected[i] = (i % 5 == 0) ? random.nextInt(10) : random.nextLong();
+            list.add(expected[i]);
+        }
+        java.util.Arrays.sort(expected);
+        list.sort();
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i], list.get(i));
+        }
+    }
+}
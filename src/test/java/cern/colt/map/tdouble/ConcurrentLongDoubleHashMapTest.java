@@ -0,0 +1,73 @@
+package cern.colt.map.tdouble;
+
+import java.util.Random;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.list.tlong.LongArrayList;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class ConcurrentLongDoubleHashMapTest extends TestCase {
+
+    public ConcurrentLongDoubleHashMapTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testPutRemove() {
+        Random random = new Random(7);
+        AbstractLongDoubleMap A = new ConcurrentLongDoubleHashMap(0);
+        AbstractLongDoubleMap B = new OpenLongDoubleHashMap(0);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(3000) - 10;
+            if (random.nextInt(3) == 0) {
+                assertEquals(B.removeKey(key), A.removeKey(key));
+            } else {
+                double value = random.nextDouble();
+                assertEquals(B.put(key, value), A.put(key, value));
+            }
+        }
+        assertEquals(B.size(), A.size());
+        assertEquals(B, A);
+        LongArrayList keys = A.keys();
+        DoubleArrayList values = A.values();
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(B.get(keys.get(i)), values.get(i));
+        }
+        AbstractLongDoubleMap copy = A.copy();
+        A.clear();
+        assertTrue(A.isEmpty());
+        assertEquals(B, copy);
+    }
+
+    public void testAddTo() {
+        final ConcurrentLongDoubleHashMap A = new ConcurrentLongDoubleHashMap(0, 0.2, 0.5, 4);
+        final int ntasks = 4;
+        final int nkeys = 1000;
+        Future<?>[] futures = new Future[ntasks];
+        for (int j = 0; j < ntasks; j++) {
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int k = 0; k < 10; k++) {
+                        for (long key = 0; key < nkeys; key++) {
+                            A.addTo(key * 31, 0.5);
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        assertEquals(nkeys, A.size());
+        for (long key = 0; key < nkeys; key++) {
+            assertEquals(ntasks * 5.0, A.get(key * 31));
+        }
+        int size = 0;
+        LongArrayList keyList = new LongArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        for (int s = 0; s < A.numberOfSegments(); s++) {
+            A.pairs(s, keyList, valueList);
+            size += keyList.size();
+        }
+        assertEquals(nkeys, size);
+    }
+}
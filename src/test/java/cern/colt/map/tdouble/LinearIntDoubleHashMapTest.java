@@ -0,0 +1,49 @@
+package cern.colt.map.tdouble;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.list.tint.IntArrayList;
+
+public class LinearIntDoubleHashMapTest extends TestCase {
+
+    private static final int NOPS = 200000;
+
+    public LinearIntDoubleHashMapTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testPutRemove() {
+        Random random = new Random(42);
+        AbstractIntDoubleMap A = new LinearIntDoubleHashMap(0);
+        AbstractIntDoubleMap B = new OpenIntDoubleHashMap(0);
+        for (int i = 0; i < NOPS; i++) {
+            // small key range so that keys collide and get removed often
+            int key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(B.removeKey(key), A.removeKey(key));
+            } else {
+                double value = random.nextDouble();
+                assertEquals(B.put(key, value), A.put(key, value));
+            }
+            assertEquals(B.size(), A.size());
+        }
+        for (int key = -200; key < 5000; key++) {
+            assertEquals(B.containsKey(key), A.containsKey(key));
+            assertEquals(B.get(key), A.get(key));
+        }
+        while (A.size() > 10) {
+            IntArrayList keys = A.keys();
+            for (int i = 0; i < keys.size() / 2; i++) {
+                assertTrue(A.removeKey(keys.get(i)));
+                assertTrue(B.removeKey(keys.get(i)));
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                assertEquals(B.get(keys.get(i)), A.get(keys.get(i)));
+            }
+        }
+        A.clear();
+        assertEquals(0, A.size());
+        assertFalse(A.containsKey(0));
+    }
+}
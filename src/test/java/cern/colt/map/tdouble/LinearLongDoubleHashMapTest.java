@@ -0,0 +1,72 @@
+package cern.colt.map.tdouble;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.list.tlong.LongArrayList;
+
+public class LinearLongDoubleHashMapTest extends TestCase {
+
+    private static final int NOPS = 200000;
+
+    public LinearLongDoubleHashMapTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testPutRemove() {
+        Random random = new Random(42);
+        AbstractLongDoubleMap A = new LinearLongDoubleHashMap(0);
+        AbstractLongDoubleMap B = new OpenLongDoubleHashMap(0);
+        for (int i = 0; i < NOPS; i++) {
+            // small key range so that keys collide and get removed often
+            long key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(B.removeKey(key), A.removeKey(key));
+            } else {
+                double value = random.nextDouble();
+                assertEquals(B.put(key, value), A.put(key, value));
+            }
+            assertEquals(B.size(), A.size());
+        }
+        for (long key = -200; key < 5000; key++) {
+            assertEquals(B.containsKey(key), A.containsKey(key));
+            assertEquals(B.get(key), A.get(key));
+        }
+        while (A.size() > 10) {
+            LongArrayList keys = A.keys();
+            for (int i = 0; i < keys.size() / 2; i++) {
+                assertTrue(A.removeKey(keys.get(i)));
+                assertTrue(B.removeKey(keys.get(i)));
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                assertEquals(B.get(keys.get(i)), A.get(keys.get(i)));
+            }
+        }
+        A.clear();
+        assertEquals(0, A.size());
+        assertFalse(A.containsKey(0));
+    }
+
+    public void testKeysValues() {
+        LinearLongDoubleHashMap A = new LinearLongDoubleHashMap();
+        for (long key = -10; key <= 10; key++) {
+            A.put(key * 1000000007L, key);
+        }
+        LongArrayList keys = new LongArrayList();
+        DoubleArrayList values = new DoubleArrayList();
+        A.keys(keys);
+        A.values(values);
+        assertEquals(21, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(keys.get(i), (long) values.get(i) * 1000000007L);
+        }
+        assertEquals(0L, A.keyOf(0));
+        assertEquals(Long.MIN_VALUE, A.keyOf(100));
+        AbstractLongDoubleMap copy = A.copy();
+        assertEquals(A, copy);
+        A.assign(cern.jet.math.tdouble.DoubleFunctions.mult(2));
+        assertEquals(-20.0, A.get(-10 * 1000000007L));
+        assertEquals(-10.0, copy.get(-10 * 1000000007L));
+    }
+}
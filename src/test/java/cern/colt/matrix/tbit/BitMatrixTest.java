@@ -0,0 +1,110 @@
+package cern.colt.matrix.tbit;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class BitMatrixTest extends TestCase {
+
+    protected int NROWS = 83;
+
+    protected int NCOLUMNS = 131;
+
+    protected Random random = new Random(0);
+
+    public BitMatrixTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        ConcurrencyUtils.setThreadsBeginN_2D(1);
+    }
+
+    protected BitMatrix randomMatrix(int columns, int rows, double density) {
+        BitMatrix M = new BitMatrix(columns, rows);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (random.nextDouble() < density)
+                    M.putQuick(c, r, true);
+            }
+        }
+        return M;
+    }
+
+    public void testMultiply() {
+        double[] densities = { 0.01, 0.1, 0.5 };
+        for (int d = 0; d < densities.length; d++) {
+            BitMatrix A = randomMatrix(NCOLUMNS, NROWS, densities[d]);
+            BitMatrix B = randomMatrix(NROWS + 7, NCOLUMNS, densities[d]);
+            BitMatrix C = A.multiply(B);
+            assertEquals(B.columns(), C.columns());
+            assertEquals(A.rows(), C.rows());
+            for (int r = 0; r < C.rows(); r++) {
+                for (int c = 0; c < C.columns(); c++) {
+                    boolean expected = false;
+                    for (int k = 0; k < A.columns() && !expected; k++) {
+                        expected = A.getQuick(k, r) && B.getQuick(c, k);
+                    }
+                    assertEquals(expected, C.getQuick(c, r));
+                }
+            }
+        }
+        try {
+            new BitMatrix(3, 4).multiply(new BitMatrix(3, 4));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    public void testTransitiveClosure() {
+        int n = NCOLUMNS;
+        BitMatrix A = randomMatrix(n, n, 1.0 / n);
+        boolean[][] reach = new boolean[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                reach[i][j] = A.getQuick(j, i);
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                if (reach[i][k]) {
+                    for (int j = 0; j < n; j++) {
+                        reach[i][j] |= reach[k][j];
+                    }
+                }
+            }
+        }
+        BitMatrix R = A.transitiveClosure();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(reach[i][j], R.getQuick(j, i));
+            }
+        }
+    }
+
+    public void testCardinalities() {
+        BitMatrix A = randomMatrix(NCOLUMNS, NROWS, 0.3);
+        int[] rowCardinalities = A.rowCardinalities();
+        int[] columnCardinalities = A.columnCardinalities();
+        int total = 0;
+        for (int r = 0; r < NROWS; r++) {
+            int expected = 0;
+            for (int c = 0; c < NCOLUMNS; c++) {
+                if (A.getQuick(c, r))
+                    expected++;
+            }
+            assertEquals(expected, rowCardinalities[r]);
+            total += expected;
+        }
+        for (int c = 0; c < NCOLUMNS; c++) {
+            int expected = 0;
+            for (int r = 0; r < NROWS; r++) {
+                if (A.getQuick(c, r))
+                    expected++;
+            }
+            assertEquals(expected, columnCardinalities[c]);
+        }
+        assertEquals(A.cardinality(), total);
+    }
+}
@@ -0,0 +1,168 @@
+package cern.colt.matrix.tbit;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.function.tint.IntProcedure;
+import cern.colt.list.tint.IntArrayList;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class RoaringBitVectorTest extends TestCase {
+
+    protected int SIZE = 5 * 65536 + 123;
+
+    protected Random random = new Random(0);
+
+    /**
+     * Sparse, dense and full chunks, plus bits near the end
+     */
+    protected BitVector A;
+
+    protected BitVector B;
+
+    public RoaringBitVectorTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        ConcurrencyUtils.setThreadsBeginN_1D(1);
+        A = randomVector(0.001, 0.3);
+        B = randomVector(0.5, 0.002);
+    }
+
+    protected BitVector randomVector(double p0, double p1) {
+        BitVector v = new BitVector(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            int chunk = i / 65536;
+            double p = (chunk == 2) ? 1.0 : (chunk % 2 == 0) ? p0 : p1;
+            if (random.nextDouble() < p)
+                v.set(i);
+        }
+        v.set(SIZE - 1);
+        return v;
+    }
+
+    public void testConversion() {
+        RoaringBitVector R = new RoaringBitVector(A);
+        assertEquals(SIZE, R.size());
+        assertEquals(A.cardinality(), R.cardinality());
+        assertEquals(A, R.toBitVector());
+        for (int i = 0; i < SIZE; i += 97) {
+            assertEquals(A.get(i), R.get(i));
+        }
+        BitMatrix M = new BitMatrix(SIZE / 5, 5);
+        M.put(7, 3, true);
+        M.put(SIZE / 5 - 1, 4, true);
+        RoaringBitVector S = new RoaringBitVector(M);
+        assertEquals(2, S.cardinality());
+        assertTrue(S.get(3 * (SIZE / 5) + 7));
+        assertEquals(M, S.toBitMatrix(SIZE / 5, 5));
+    }
+
+    public void testCardinality() {
+        BitVector v = A.copy();
+        v.not();
+        assertEquals(SIZE - A.cardinality(), v.cardinality());
+        int expected = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (A.getQuick(i))
+                expected++;
+        }
+        assertEquals(expected, A.cardinality());
+    }
+
+    public void testSetClear() {
+        RoaringBitVector R = new RoaringBitVector(SIZE);
+        BitVector expected = new BitVector(SIZE);
+        for (int n = 0; n < 20000; n++) {
+            int i = (n % 2 == 0) ? random.nextInt(SIZE) : random.nextInt(6000);
+            boolean value = random.nextInt(4) != 0;
+            R.put(i, value);
+            expected.put(i, value);
+        }
+        assertEquals(expected.cardinality(), R.cardinality());
+        assertEquals(new RoaringBitVector(expected), R);
+        assertEquals(new RoaringBitVector(expected).hashCode(), R.hashCode());
+        try {
+            R.set(SIZE);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    public void testBitwise() {
+        for (int op = 0; op < 4; op++) {
+            RoaringBitVector R = new RoaringBitVector(A);
+            RoaringBitVector S = new RoaringBitVector(B);
+            BitVector expected = A.copy();
+            switch (op) {
+            case 0:
+                R.and(S);
+                expected.and(B);
+                break;
+            case 1:
+                R.or(S);
+                expected.or(B);
+                break;
+            case 2:
+                R.xor(S);
+                expected.xor(B);
+                break;
+            default:
+                R.andNot(S);
+                expected.andNot(B);
+            }
+            assertEquals(expected, R.toBitVector());
+            assertEquals(expected.cardinality(), R.cardinality());
+            assertEquals(new RoaringBitVector(B), S);
+        }
+        RoaringBitVector R = new RoaringBitVector(A);
+        R.not();
+        BitVector expected = A.copy();
+        expected.not();
+        assertEquals(expected, R.toBitVector());
+        assertEquals(SIZE - A.cardinality(), R.cardinality());
+    }
+
+    public void testRankSelect() {
+        RoaringBitVector R = new RoaringBitVector(A);
+        int rank = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (A.getQuick(i)) {
+                assertEquals(i, R.select(rank));
+                rank++;
+            }
+            if (i % 101 == 0 || i == SIZE - 1)
+                assertEquals(rank, R.rank(i));
+        }
+        try {
+            R.select(rank);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    public void testIteration() {
+        RoaringBitVector R = new RoaringBitVector(B);
+        final IntArrayList indexes = new IntArrayList();
+        R.forEachIndex(new IntProcedure() {
+            public boolean apply(int index) {
+                indexes.add(index);
+                return true;
+            }
+        });
+        final IntArrayList expected = new IntArrayList();
+        B.forEachIndexFromToInState(0, SIZE - 1, true, new IntProcedure() {
+            public boolean apply(int index) {
+                expected.add(index);
+                return true;
+            }
+        });
+        assertEquals(expected, indexes);
+        int n = 0;
+        for (int i = R.nextSetBit(0); i >= 0; i = R.nextSetBit(i + 1)) {
+            assertEquals(expected.get(n++), i);
+        }
+        assertEquals(expected.size(), n);
+    }
+}
@@ -2,6 +2,7 @@ package cern.colt.matrix.tdcomplex;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import cern.colt.matrix.tdcomplex.algo.solver.AllDComplexMatrixSolverTests;
 import cern.colt.matrix.tdcomplex.impl.DenseColumnDComplexMatrix2DTest;
 import cern.colt.matrix.tdcomplex.impl.DenseColumnDComplexMatrix2DViewTest;
 import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix1DTest;
@@ -66,6 +67,8 @@ public class AllDComplexMatrixTests {
         suite.addTestSuite(LargeDenseDComplexMatrix3DTest.class);
         suite.addTestSuite(LargeDenseDComplexMatrix3DViewTest.class);
 
+        suite.addTest(AllDComplexMatrixSolverTests.suite());
+
         return suite;
     }
 
@@ -524,6 +524,27 @@ public abstract class DComplexMatrix2DTest extends TestCase {
         }
     }
 
+    public void testZMultRepeated() {
+        double[] alpha = new double[] { 3, 2 };
+        double[] beta = new double[] { 0, 0 };
+        for (int t = 0; t < 2; t++) {
+            boolean transpose = (t == 1);
+            DComplexMatrix1D y = new DenseDComplexMatrix1D(transpose ? A.rows() : A.columns());
+            for (int i = 0; i < y.size(); i++) {
+                y.setQuick(i, new double[] { Math.random(), Math.random() });
+            }
+            DComplexMatrix1D expected = A.zMult(y, null, alpha, beta, transpose);
+            for (int n = 0; n < 3; n++) {
+                // later calls may reuse the buffers of earlier ones
+                DComplexMatrix1D z = A.zMult(y, null, alpha, beta, transpose);
+                for (int i = 0; i < z.size(); i++) {
+                    assertEquals(expected.getQuick(i)[0], z.getQuick(i)[0], TOL);
+                    assertEquals(expected.getQuick(i)[1], z.getQuick(i)[1], TOL);
+                }
+            }
+        }
+    }
+
     public void testZMultDoubleMatrix2DDoubleMatrix2DDoubleDoubleBooleanBoolean() {
         double[] alpha = new double[] { 3, 2 };
         double[] beta = new double[] { 5, 4 };
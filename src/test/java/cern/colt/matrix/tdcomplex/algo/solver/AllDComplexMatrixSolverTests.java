@@ -0,0 +1,29 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Test of all double precision complex iterative solvers
+ */
+public class AllDComplexMatrixSolverTests {
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite("cern.colt.matrix.tdcomplex.algo.solvers tests");
+
+        suite.addTestSuite(DComplexCGTest.class);
+        suite.addTestSuite(DComplexCGDiagonalTest.class);
+
+        suite.addTestSuite(DComplexCOCGTest.class);
+        suite.addTestSuite(DComplexCOCGILUTest.class);
+
+        suite.addTestSuite(DComplexBiCGstabTest.class);
+        suite.addTestSuite(DComplexBiCGstabILUTest.class);
+
+        suite.addTestSuite(DComplexGMRESTest.class);
+        suite.addTestSuite(DComplexGMRESDiagonalTest.class);
+
+        return suite;
+    }
+
+}
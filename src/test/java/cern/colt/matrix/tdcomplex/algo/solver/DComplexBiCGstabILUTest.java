@@ -0,0 +1,19 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.algo.solver.preconditioner.DComplexILU;
+
+/**
+ * Test of DComplexBiCGstab with ILU
+ */
+public class DComplexBiCGstabILUTest extends DComplexIterativeSolverTest {
+
+    public DComplexBiCGstabILUTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createSolver() throws Exception {
+        solver = new DComplexBiCGstab(x);
+        M = new DComplexILU((int) x.size());
+    }
+
+}
@@ -0,0 +1,17 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+/**
+ * Test of DComplexBiCGstab
+ */
+public class DComplexBiCGstabTest extends DComplexIterativeSolverTest {
+
+    public DComplexBiCGstabTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createSolver() throws Exception {
+        solver = new DComplexBiCGstab(x);
+        M = solver.getPreconditioner(); //identity preconditioner
+    }
+
+}
@@ -0,0 +1,20 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.algo.solver.preconditioner.DComplexDiagonal;
+
+/**
+ * Test of DComplexCG with Diagonal
+ */
+public class DComplexCGDiagonalTest extends DComplexIterativeSolverTest {
+
+    public DComplexCGDiagonalTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createSolver() throws Exception {
+        hermitian = true;
+        solver = new DComplexCG(x);
+        M = new DComplexDiagonal((int) x.size());
+    }
+
+}
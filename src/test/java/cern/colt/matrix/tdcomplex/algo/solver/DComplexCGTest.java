@@ -0,0 +1,19 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+
+/**
+ * Test of DComplexCG
+ */
+public class DComplexCGTest extends DComplexIterativeSolverTest {
+
+    public DComplexCGTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createSolver() throws Exception {
+        hermitian = true;
+        solver = new DComplexCG(x);
+        M = solver.getPreconditioner(); //identity preconditioner
+    }
+
+}
@@ -0,0 +1,19 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.algo.solver.preconditioner.DComplexILU;
+
+/**
+ * Test of DComplexCOCG with ILU
+ */
+public class DComplexCOCGILUTest extends DComplexIterativeSolverTest {
+
+    public DComplexCOCGILUTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createSolver() throws Exception {
+        solver = new DComplexCOCG(x);
+        M = new DComplexILU((int) x.size());
+    }
+
+}
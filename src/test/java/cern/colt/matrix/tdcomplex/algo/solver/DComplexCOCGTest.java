@@ -0,0 +1,17 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+/**
+ * Test of DComplexCOCG
+ */
+public class DComplexCOCGTest extends DComplexIterativeSolverTest {
+
+    public DComplexCOCGTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createSolver() throws Exception {
+        solver = new DComplexCOCG(x);
+        M = solver.getPreconditioner(); //identity preconditioner
+    }
+
+}
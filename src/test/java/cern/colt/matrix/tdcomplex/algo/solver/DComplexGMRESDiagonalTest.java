@@ -0,0 +1,19 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import cern.colt.matrix.tdcomplex.algo.solver.preconditioner.DComplexDiagonal;
+
+/**
+ * Test of DComplexGMRES with Diagonal
+ */
+public class DComplexGMRESDiagonalTest extends DComplexIterativeSolverTest {
+
+    public DComplexGMRESDiagonalTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createSolver() throws Exception {
+        solver = new DComplexGMRES(x);
+        M = new DComplexDiagonal((int) x.size());
+    }
+
+}
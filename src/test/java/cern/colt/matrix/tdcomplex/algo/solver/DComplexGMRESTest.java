@@ -0,0 +1,17 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+/**
+ * Test of DComplexGMRES
+ */
+public class DComplexGMRESTest extends DComplexIterativeSolverTest {
+
+    public DComplexGMRESTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createSolver() throws Exception {
+        solver = new DComplexGMRES(x);
+        M = solver.getPreconditioner(); //identity preconditioner
+    }
+
+}
@@ -0,0 +1,226 @@
+package cern.colt.matrix.tdcomplex.algo.solver;
+
+import junit.framework.TestCase;
+import cern.colt.matrix.tdcomplex.DComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.algo.solver.preconditioner.DComplexPreconditioner;
+import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix1D;
+import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.impl.SparseRCDComplexMatrix2D;
+import cern.colt.matrix.tdouble.algo.solver.DefaultDoubleIterationMonitor;
+import cern.colt.matrix.tdouble.algo.solver.DoubleIterationMonitor;
+import cern.colt.matrix.tdouble.algo.solver.IterativeSolverDoubleNotConvergedException;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+/**
+ * Test of the complex iterative solvers and preconditioners
+ */
+public abstract class DComplexIterativeSolverTest extends TestCase {
+
+    /**
+     * Number of times to repeat tests
+     */
+    private int repeat = 5;
+
+    /**
+     * Size of the grid, the system has grid*grid unknowns
+     */
+    protected int grid = 8;
+
+    /**
+     * Numerical tolerance
+     */
+    protected double rtol = 1e-8;
+
+    protected double rmse = 1e-5;
+
+    /**
+     * If true, the system matrix is Hermitian positive definite, otherwise it
+     * is complex symmetric
+     */
+    protected boolean hermitian = false;
+
+    /**
+     * Square system matrix
+     */
+    protected DComplexMatrix2D A;
+
+    /**
+     * Right hand side, right hand for conjugate transpose system, and the
+     * solution vector in both cases
+     */
+    protected DComplexMatrix1D b, bt, x;
+
+    /**
+     * Stores the data of x
+     */
+    protected DComplexMatrix1D xd;
+
+    /**
+     * Iterative solver to use
+     */
+    protected DComplexIterativeSolver solver;
+
+    /**
+     * Preconditioner to use
+     */
+    protected DComplexPreconditioner M;
+
+    /**
+     * Constructor for DComplexIterativeSolverTest
+     */
+    public DComplexIterativeSolverTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        int n = grid * grid;
+        x = new DenseDComplexMatrix1D(n);
+        b = new DenseDComplexMatrix1D(n);
+        bt = new DenseDComplexMatrix1D(n);
+
+        // Create solver and preconditioner
+        createSolver();
+        createMatrix();
+        DoubleIterationMonitor im = new DefaultDoubleIterationMonitor(100000, rtol, 1e-50, 1e+5);
+        solver.setIterationMonitor(im);
+        M.setMatrix(A);
+        solver.setPreconditioner(M);
+        for (int i = 0; i < n; i++) {
+            x.setQuick(i, 1 + 0.01 * i, 0.5 - 0.02 * i);
+        }
+        // Compute the correct right hand sides
+        b = A.zMult(x, b);
+        bt = A.zMult(x, bt, new double[] { 1, 0 }, new double[] { 0, 0 }, true);
+
+        // Store x for later. It is overwritten
+        xd = x.copy();
+
+        x = new DenseDComplexMatrix1D(n);
+    }
+
+    protected abstract void createSolver() throws Exception;
+
+    /**
+     * Creates a five point discretization of the Helmholtz operator on a
+     * square grid with a complex shift (complex symmetric), or a Hermitian
+     * positive definite perturbation of the Laplacian.
+     */
+    protected void createMatrix() throws Exception {
+        int n = grid * grid;
+        SparseRCDComplexMatrix2D Arc = new SparseRCDComplexMatrix2D(n, n, 5 * n);
+        for (int i = 0; i < grid; i++) {
+            for (int j = 0; j < grid; j++) {
+                int k = i * grid + j;
+                if (hermitian) {
+                    Arc.setQuick(k, k, 4.5, 0);
+                } else {
+                    Arc.setQuick(k, k, 4, 0.5);
+                }
+                if (j > 0) {
+                    setPair(Arc, k, k - 1);
+                }
+                if (i > 0) {
+                    setPair(Arc, k, k - grid);
+                }
+            }
+        }
+        A = Arc;
+    }
+
+    private void setPair(DComplexMatrix2D A, int k, int l) {
+        if (hermitian) {
+            A.setQuick(k, l, -1, 0.25);
+            A.setQuick(l, k, -1, -0.25);
+        } else {
+            A.setQuick(k, l, -1, 0.1);
+            A.setQuick(l, k, -1, 0.1);
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        A = null;
+        b = bt = x = null;
+        xd = null;
+        solver = null;
+    }
+
+    public void testZMult() {
+        ConcurrencyUtils.setThreadsBeginN_2D(1);
+        DComplexMatrix2D dense = new DenseDComplexMatrix2D(A.toArray());
+        DComplexMatrix2D[] sparse = { A, ((SparseRCDComplexMatrix2D) A).getColumnCompressed() };
+        double[] alpha = new double[] { 0.5, -1.5 };
+        double[] beta = new double[] { 2, 0.25 };
+        for (int t = 0; t < 2; t++) {
+            boolean transposeA = t == 1;
+            DComplexMatrix1D expected = dense.zMult(xd, b.copy(), alpha, beta, transposeA);
+            for (int s = 0; s < sparse.length; s++) {
+                DComplexMatrix1D result = sparse[s].zMult(xd, b.copy(), alpha, beta, transposeA);
+                for (int i = 0; i < xd.size(); i++) {
+                    double[] e = expected.getQuick(i);
+                    double[] r = result.getQuick(i);
+                    assertEquals(e[0], r[0], 1e-10);
+                    assertEquals(e[1], r[1], 1e-10);
+                }
+            }
+        }
+    }
+
+    public void testSolve() {
+        try {
+            solver.solve(A, b, x);
+            assertSolved();
+        } catch (IterativeSolverDoubleNotConvergedException e) {
+            fail("Solver did not converge: " + e.getReason() + ". Residual=" + e.getResidual());
+        }
+    }
+
+    public void testSolveColumnCompressed() {
+        try {
+            A = ((SparseRCDComplexMatrix2D) A).getColumnCompressed();
+            M.setMatrix(A);
+            solver.solve(A, b, x);
+            assertSolved();
+        } catch (IterativeSolverDoubleNotConvergedException e) {
+            fail("Solver did not converge: " + e.getReason() + ". Residual=" + e.getResidual());
+        }
+    }
+
+    public void testRepeatSolve() {
+        try {
+            for (int i = 0; i < repeat; ++i) {
+                solver.solve(A, b, x);
+                assertSolved();
+                x = new DenseDComplexMatrix1D(A.rows());
+            }
+        } catch (IterativeSolverDoubleNotConvergedException e) {
+            fail("Solver did not converge: " + e.getReason() + ". Residual=" + e.getResidual());
+        }
+    }
+
+    public void testPreconditionerTransApply() {
+        DComplexMatrix1D y = M.transApply(bt, new DenseDComplexMatrix1D(A.rows()));
+        DComplexMatrix1D z = M.apply(b, new DenseDComplexMatrix1D(A.rows()));
+        // <M^-1 b, bt> == <b, M^-H bt>
+        double[] lhs = z.zDotProduct(bt);
+        double[] rhs = b.zDotProduct(y);
+        assertEquals(lhs[0], rhs[0], 1e-8 * Math.abs(lhs[0]) + 1e-10);
+        assertEquals(lhs[1], rhs[1], 1e-8 * Math.abs(lhs[0]) + 1e-10);
+    }
+
+    protected void assertSolved() {
+        double numerator = 0;
+        double denominator = 0;
+
+        for (int i = 0; i < xd.size(); ++i) {
+            double[] e = xd.getQuick(i);
+            double[] r = x.getQuick(i);
+            double re = e[0] - r[0];
+            double im = e[1] - r[1];
+            numerator += re * re + im * im;
+            denominator += e[0] * e[0] + e[1] * e[1];
+        }
+        assertEquals(0.0, Math.sqrt(numerator) / Math.sqrt(denominator), rmse);
+    }
+
+}
@@ -1,5 +1,7 @@
 package cern.colt.matrix.tdcomplex.impl;
 
+import java.util.Random;
+
 import cern.colt.matrix.tdcomplex.DComplexMatrix2DTest;
 
 public class SparseCCDComplexMatrix2DTest extends DComplexMatrix2DTest {
@@ -14,4 +16,37 @@ public class SparseCCDComplexMatrix2DTest extends DComplexMatrix2DTest {
         Bt = new SparseCCDComplexMatrix2D(NCOLUMNS, NROWS);
     }
 
+    public void testCoordinateFormat() {
+        Random random = new Random(0);
+        int nz = 4 * NROWS * NCOLUMNS;
+        int[] rowIndexes = new int[nz];
+        int[] columnIndexes = new int[nz];
+        double[] values = new double[2 * nz];
+        double[][] expected = new double[NROWS][2 * NCOLUMNS];
+        for (int k = 0; k < nz; k++) {
+            rowIndexes[k] = random.nextInt(NROWS);
+            columnIndexes[k] = random.nextInt(NCOLUMNS);
+            values[2 * k] = random.nextDouble();
+            values[2 * k + 1] = random.nextDouble();
+            expected[rowIndexes[k]][2 * columnIndexes[k]] += values[2 * k];
+            expected[rowIndexes[k]][2 * columnIndexes[k] + 1] += values[2 * k + 1];
+        }
+        SparseCCDComplexMatrix2D S = new SparseCCDComplexMatrix2D(NROWS, NCOLUMNS, rowIndexes, columnIndexes, values, true, false);
+        S.sortRowIndexes();
+        int[] pointers = S.getColumnPointers();
+        int[] indexes = S.getRowIndexes();
+        for (int i = 0; i < NCOLUMNS; i++) {
+            for (int p = pointers[i] + 1; p < pointers[i + 1]; p++) {
+                assertTrue(indexes[p - 1] < indexes[p]);
+            }
+        }
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                double[] elem = S.getQuick(r, c);
+                assertEquals(expected[r][2 * c], elem[0], TOL);
+                assertEquals(expected[r][2 * c + 1], elem[1], TOL);
+            }
+        }
+    }
+
 }
@@ -2,7 +2,10 @@ package cern.colt.matrix.tdouble;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import cern.colt.matrix.tdouble.algo.DoubleSortingTest;
 import cern.colt.matrix.tdouble.algo.solver.AllDoubleMatrixSolverTests;
+import cern.colt.matrix.tdouble.impl.DenseChunkedDoubleMatrix3DTest;
+import cern.colt.matrix.tdouble.impl.DenseChunkedDoubleMatrix3DViewTest;
 import cern.colt.matrix.tdouble.impl.DenseColumnDoubleMatrix2DTest;
 import cern.colt.matrix.tdouble.impl.DenseColumnDoubleMatrix2DViewTest;
 import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix1DTest;
@@ -21,10 +24,14 @@ import cern.colt.matrix.tdouble.impl.SparseCCDoubleMatrix2DTest;
 import cern.colt.matrix.tdouble.impl.SparseCCDoubleMatrix2DViewTest;
 import cern.colt.matrix.tdouble.impl.SparseCCMDoubleMatrix2DTest;
 import cern.colt.matrix.tdouble.impl.SparseCCMDoubleMatrix2DViewTest;
+import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix1DLinearProbingTest;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix1DTest;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix1DViewTest;
+import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix2DConcurrentTest;
+import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix2DLinearProbingTest;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix2DTest;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix2DViewTest;
+import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix3DConcurrentTest;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix3DTest;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix3DViewTest;
 import cern.colt.matrix.tdouble.impl.SparseRCDoubleMatrix2DTest;
@@ -40,6 +47,7 @@ public class AllDoubleMatrixTests {
         suite.addTestSuite(DenseDoubleMatrix1DViewTest.class);
         suite.addTestSuite(SparseDoubleMatrix1DTest.class);
         suite.addTestSuite(SparseDoubleMatrix1DViewTest.class);
+        suite.addTestSuite(SparseDoubleMatrix1DLinearProbingTest.class);
 
         suite.addTestSuite(DenseDoubleMatrix2DTest.class);
         suite.addTestSuite(DenseDoubleMatrix2DViewTest.class);
@@ -50,6 +58,8 @@ public class AllDoubleMatrixTests {
 
         suite.addTestSuite(SparseDoubleMatrix2DTest.class);
         suite.addTestSuite(SparseDoubleMatrix2DViewTest.class);
+        suite.addTestSuite(SparseDoubleMatrix2DLinearProbingTest.class);
+        suite.addTestSuite(SparseDoubleMatrix2DConcurrentTest.class);
         suite.addTestSuite(DiagonalDoubleMatrix2DTest.class);
         suite.addTestSuite(DiagonalDoubleMatrix2DViewTest.class);
 
@@ -67,8 +77,13 @@ public class AllDoubleMatrixTests {
         suite.addTestSuite(DenseDoubleMatrix3DViewTest.class);
         suite.addTestSuite(SparseDoubleMatrix3DTest.class);
         suite.addTestSuite(SparseDoubleMatrix3DViewTest.class);
+        suite.addTestSuite(SparseDoubleMatrix3DConcurrentTest.class);
         suite.addTestSuite(DenseLargeDoubleMatrix3DTest.class);
         suite.addTestSuite(DenseLargeDoubleMatrix3DViewTest.class);
+        suite.addTestSuite(DenseChunkedDoubleMatrix3DTest.class);
+        suite.addTestSuite(DenseChunkedDoubleMatrix3DViewTest.class);
+
+        suite.addTestSuite(DoubleSortingTest.class);
 
         suite.addTest(AllDoubleMatrixSolverTests.suite());
 
@@ -1,5 +1,8 @@
 package cern.colt.matrix.tdouble;
 
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
 import junit.framework.TestCase;
 
 import org.junit.Test;
@@ -215,6 +218,53 @@ public abstract class DoubleMatrix1DTest extends TestCase {
         assertEquals((int) A.size() / 3, (int) minAndLoc[1]);
     }
 
+    public void testGetKthSmallest() {
+        double[] expected = A.toArray();
+        java.util.Arrays.sort(expected);
+        int size = (int) A.size();
+        assertEquals(expected[0], A.getKthSmallest(0), TOL);
+        assertEquals(expected[size / 3], A.getKthSmallest(size / 3), TOL);
+        assertEquals(expected[size - 1], A.getKthSmallest(size - 1), TOL);
+    }
+
+    public void testGetMaxValues() {
+        double[] expected = A.toArray();
+        java.util.Arrays.sort(expected);
+        int size = (int) A.size();
+        int k = 7;
+        IntArrayList indexList = new IntArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        A.getMaxValues(k, indexList, valueList);
+        assertEquals(k, indexList.size());
+        assertEquals(k, valueList.size());
+        for (int i = 0; i < k; i++) {
+            assertEquals(expected[size - 1 - i], valueList.get(i), TOL);
+            assertEquals(valueList.get(i), A.getQuick(indexList.get(i)), TOL);
+        }
+        A.getMaxValues(size + 1, indexList, valueList);
+        assertEquals(size, indexList.size());
+    }
+
+    public void testGetMinValues() {
+        double[] expected = A.toArray();
+        java.util.Arrays.sort(expected);
+        int k = 7;
+        IntArrayList indexList = new IntArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        A.getMinValues(k, indexList, valueList);
+        assertEquals(k, indexList.size());
+        for (int i = 0; i < k; i++) {
+            assertEquals(expected[i], valueList.get(i), TOL);
+            assertEquals(valueList.get(i), A.getQuick(indexList.get(i)), TOL);
+        }
+        A.assign(0);
+        A.setQuick((int) A.size() / 2, -1);
+        A.getMinValues(3, indexList, valueList);
+        assertEquals((int) A.size() / 2, indexList.get(0));
+        assertEquals(0, indexList.get(1));
+        assertEquals(1, indexList.get(2));
+    }
+
     public void testGetNegativeValuesIntArrayListDoubleArrayList() {
         A.assign(0);
         A.setQuick((int) A.size() / 3, -0.7);
@@ -303,6 +353,42 @@ public abstract class DoubleMatrix1DTest extends TestCase {
         }
     }
 
+    public void testStream() {
+        assertEquals(A.zSum(), A.stream().sum(), TOL);
+        assertEquals(A.zSum(), A.parallelStream().sum(), TOL);
+        assertEquals(A.size(), A.spliterator().getExactSizeIfKnown());
+        DoubleMatrix1D b = A.viewStrides(3);
+        double[] values = b.stream().toArray();
+        assertEquals((int) b.size(), values.length);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(b.getQuick(i), values[i], TOL);
+        }
+        b = A.viewSelection(new int[] { 5, 1, 7 }).viewFlip();
+        values = b.parallelStream().toArray();
+        assertEquals(3, values.length);
+        assertEquals(A.getQuick(7), values[0], TOL);
+        assertEquals(A.getQuick(1), values[1], TOL);
+        assertEquals(A.getQuick(5), values[2], TOL);
+    }
+
+    public void testSpliterator() {
+        Spliterator.OfDouble right = A.spliterator();
+        Spliterator.OfDouble left = right.trySplit();
+        assertNotNull(left);
+        assertEquals(A.size(), left.estimateSize() + right.estimateSize());
+        final double[] sum = new double[1];
+        DoubleConsumer action = new DoubleConsumer() {
+            public void accept(double value) {
+                sum[0] += value;
+            }
+        };
+        assertTrue(left.tryAdvance(action));
+        left.forEachRemaining(action);
+        right.forEachRemaining(action);
+        assertFalse(right.tryAdvance(action));
+        assertEquals(A.zSum(), sum[0], TOL);
+    }
+
     public void testSwap() {
         DoubleMatrix1D Acopy = A.copy();
         DoubleMatrix1D Bcopy = B.copy();
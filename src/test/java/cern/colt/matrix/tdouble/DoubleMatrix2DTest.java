@@ -320,6 +320,153 @@ public abstract class DoubleMatrix2DTest extends TestCase {
         assertEquals(A.columns() / 3, (int) minAndLoc[2]);
     }
 
+    public void testGetKthSmallest() {
+        double[] expected = A.vectorize().toArray();
+        java.util.Arrays.sort(expected);
+        int size = (int) A.size();
+        assertEquals(expected[0], A.getKthSmallest(0), TOL);
+        assertEquals(expected[size / 3], A.getKthSmallest(size / 3), TOL);
+        assertEquals(expected[size - 1], A.getKthSmallest(size - 1), TOL);
+    }
+
+    public void testGetMaxValues() {
+        double[] expected = A.vectorize().toArray();
+        java.util.Arrays.sort(expected);
+        int size = (int) A.size();
+        int k = 7;
+        IntArrayList rowList = new IntArrayList();
+        IntArrayList columnList = new IntArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        A.getMaxValues(k, rowList, columnList, valueList);
+        assertEquals(k, rowList.size());
+        assertEquals(k, columnList.size());
+        assertEquals(k, valueList.size());
+        for (int i = 0; i < k; i++) {
+            assertEquals(expected[size - 1 - i], valueList.get(i), TOL);
+            assertEquals(valueList.get(i), A.getQuick(rowList.get(i), columnList.get(i)), TOL);
+        }
+    }
+
+    public void testGetMinValues() {
+        double[] expected = A.vectorize().toArray();
+        java.util.Arrays.sort(expected);
+        int k = 7;
+        IntArrayList rowList = new IntArrayList();
+        IntArrayList columnList = new IntArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        A.getMinValues(k, rowList, columnList, valueList);
+        assertEquals(k, rowList.size());
+        for (int i = 0; i < k; i++) {
+            assertEquals(expected[i], valueList.get(i), TOL);
+            assertEquals(valueList.get(i), A.getQuick(rowList.get(i), columnList.get(i)), TOL);
+        }
+    }
+
+    public void testGetRowMaxLocations() {
+        int k = 3;
+        int[][] locations = A.getRowMaxLocations(k);
+        assertEquals(A.rows(), locations.length);
+        for (int r = 0; r < A.rows(); r++) {
+            double[] expected = A.viewRow(r).toArray();
+            java.util.Arrays.sort(expected);
+            assertEquals(k, locations[r].length);
+            for (int i = 0; i < k; i++) {
+                assertEquals(expected[A.columns() - 1 - i], A.getQuick(r, locations[r][i]), TOL);
+            }
+        }
+    }
+
+    public void testGetRowMinLocations() {
+        int k = A.columns() + 1;
+        int[][] locations = A.getRowMinLocations(k);
+        assertEquals(A.rows(), locations.length);
+        for (int r = 0; r < A.rows(); r++) {
+            double[] expected = A.viewRow(r).toArray();
+            java.util.Arrays.sort(expected);
+            assertEquals(A.columns(), locations[r].length);
+            for (int i = 0; i < A.columns(); i++) {
+                assertEquals(expected[i], A.getQuick(r, locations[r][i]), TOL);
+            }
+        }
+    }
+
+    public void testTopValuesWithZeros() {
+        A.assign(0);
+        for (int r = 0; r < A.rows(); r++) {
+            for (int c = r % 3; c < A.columns(); c += 3) {
+                A.setQuick(r, c, random.nextDouble() - 0.5);
+            }
+        }
+        int size = (int) A.size();
+        double[] values = new double[size];
+        for (int r = 0; r < A.rows(); r++) {
+            for (int c = 0; c < A.columns(); c++) {
+                values[r * A.columns() + c] = A.getQuick(r, c);
+            }
+        }
+        int[] ascending = rankedIndexes(values, false);
+        for (int k = 0; k < size; k++) {
+            assertEquals(values[ascending[k]], A.getKthSmallest(k), 0);
+        }
+        // more cells than nonzeros, so that zeros are picked by index
+        int k = size / 2;
+        IntArrayList rowList = new IntArrayList();
+        IntArrayList columnList = new IntArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        for (int pass = 0; pass < 2; pass++) {
+            boolean max = (pass == 0);
+            if (max)
+                A.getMaxValues(k, rowList, columnList, valueList);
+            else
+                A.getMinValues(k, rowList, columnList, valueList);
+            int[] expected = rankedIndexes(values, max);
+            assertEquals(k, valueList.size());
+            for (int i = 0; i < k; i++) {
+                assertEquals(expected[i] / A.columns(), rowList.get(i));
+                assertEquals(expected[i] % A.columns(), columnList.get(i));
+                assertEquals(values[expected[i]], valueList.get(i), 0);
+            }
+            int[][] locations = max ? A.getRowMaxLocations(k) : A.getRowMinLocations(k);
+            for (int r = 0; r < A.rows(); r++) {
+                int[] expectedColumns = rankedIndexes(A.viewRow(r).toArray(), max);
+                assertEquals(A.columns(), locations[r].length);
+                for (int i = 0; i < A.columns(); i++) {
+                    assertEquals(expectedColumns[i], locations[r][i]);
+                }
+            }
+            locations = max ? A.getRowMaxLocations(2) : A.getRowMinLocations(2);
+            for (int r = 0; r < A.rows(); r++) {
+                int[] expectedColumns = rankedIndexes(A.viewRow(r).toArray(), max);
+                assertEquals(2, locations[r].length);
+                assertEquals(expectedColumns[0], locations[r][0]);
+                assertEquals(expectedColumns[1], locations[r][1]);
+            }
+        }
+    }
+
+    /**
+     * Returns the indexes of <tt>values</tt>, best first, ties broken by the
+     * smaller index.
+     */
+    private static int[] rankedIndexes(final double[] values, final boolean max) {
+        Integer[] indexes = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            indexes[i] = i;
+        }
+        java.util.Arrays.sort(indexes, new java.util.Comparator<Integer>() {
+            public int compare(Integer i1, Integer i2) {
+                if (values[i1] != values[i2])
+                    return (values[i1] < values[i2]) == max ? 1 : -1;
+                return i1.compareTo(i2);
+            }
+        });
+        int[] ranked = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ranked[i] = indexes[i];
+        }
+        return ranked;
+    }
+
     public void testGetNegativeValues() {
         A.assign(0);
         A.setQuick(A.rows() / 3, A.columns() / 3, -0.7);
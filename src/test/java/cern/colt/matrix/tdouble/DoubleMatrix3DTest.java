@@ -592,6 +592,102 @@ public abstract class DoubleMatrix3DTest extends TestCase {
         }
     }
 
+    public void testZContract() {
+        int[] shape = { A.slices(), A.rows(), A.columns() };
+        for (int axis = 0; axis < 3; axis++) {
+            DoubleMatrix2D M = DoubleFactory2D.dense.make(shape[axis], 4);
+            for (int r = 0; r < M.rows(); r++) {
+                for (int c = 0; c < M.columns(); c++) {
+                    M.setQuick(r, c, Math.random());
+                }
+            }
+            DoubleMatrix3D C = A.zContract(axis, M, null, 2, 0, false);
+            DoubleMatrix3D Ct = A.zContract(axis, M.viewDice().copy(), null, 2, 0, true);
+            for (int s = 0; s < C.slices(); s++) {
+                for (int r = 0; r < C.rows(); r++) {
+                    for (int c = 0; c < C.columns(); c++) {
+                        int[] index = { s, r, c };
+                        double expected = 0;
+                        for (int k = 0; k < shape[axis]; k++) {
+                            int[] indexA = index.clone();
+                            indexA[axis] = k;
+                            expected += A.getQuick(indexA[0], indexA[1], indexA[2]) * M.getQuick(k, index[axis]);
+                        }
+                        assertEquals(2 * expected, C.getQuick(s, r, c), TOL);
+                        assertEquals(2 * expected, Ct.getQuick(s, r, c), TOL);
+                    }
+                }
+            }
+        }
+    }
+
+    public void testZMultDoubleMatrix2D() {
+        int[] widths = { 7, 400 };
+        for (int w = 0; w < widths.length; w++) {
+            DoubleMatrix2D M = DoubleFactory2D.dense.make(A.columns(), widths[w]);
+            for (int r = 0; r < M.rows(); r++) {
+                for (int c = 0; c < M.columns(); c++) {
+                    M.setQuick(r, c, Math.random());
+                }
+            }
+            DoubleMatrix3D C = A.zMult(M, null);
+            DoubleMatrix3D D = A.like(A.slices(), A.rows(), widths[w]).assign(1);
+            A.zMult(M.viewDice().copy(), D, 2, 3, false, true);
+            for (int s = 0; s < A.slices(); s++) {
+                for (int r = 0; r < A.rows(); r++) {
+                    for (int c = 0; c < widths[w]; c++) {
+                        double expected = 0;
+                        for (int k = 0; k < A.columns(); k++) {
+                            expected += A.getQuick(s, r, k) * M.getQuick(k, c);
+                        }
+                        assertEquals(expected, C.getQuick(s, r, c), TOL);
+                        assertEquals(2 * expected + 3, D.getQuick(s, r, c), TOL);
+                    }
+                }
+            }
+        }
+        DoubleMatrix2D M = DoubleFactory2D.dense.make(A.rows(), 3, 2);
+        DoubleMatrix3D C = A.zMult(M, null, 1, 0, true, false);
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.columns(); r++) {
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(2 * A.viewSlice(s).viewColumn(r).zSum(), C.getQuick(s, r, c), TOL);
+                }
+            }
+        }
+    }
+
+    public void testZMultDoubleMatrix3D() {
+        DoubleMatrix3D C = A.zMult(B, null, 1, 0, false, true);
+        DoubleMatrix3D D = A.like(A.slices(), A.columns(), A.columns()).assign(1);
+        A.zMult(B, D, 2, -1, true, false);
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.rows(); c++) {
+                    double expected = 0;
+                    for (int k = 0; k < A.columns(); k++) {
+                        expected += A.getQuick(s, r, k) * B.getQuick(s, c, k);
+                    }
+                    assertEquals(expected, C.getQuick(s, r, c), TOL);
+                }
+            }
+            for (int r = 0; r < A.columns(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    double expected = 0;
+                    for (int k = 0; k < A.rows(); k++) {
+                        expected += A.getQuick(s, k, r) * B.getQuick(s, k, c);
+                    }
+                    assertEquals(2 * expected - 1, D.getQuick(s, r, c), TOL);
+                }
+            }
+        }
+        try {
+            A.zMult(B, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
     public void testZSum() {
         double sum = A.zSum();
         double expected = 0;
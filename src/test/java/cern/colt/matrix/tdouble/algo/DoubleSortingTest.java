@@ -0,0 +1,84 @@
+package cern.colt.matrix.tdouble.algo;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix1D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class DoubleSortingTest extends TestCase {
+
+    protected int NROWS = 1001;
+
+    protected int NCOLUMNS = 5;
+
+    protected DoubleMatrix2D A;
+
+    public DoubleSortingTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        ConcurrencyUtils.setThreadsBeginN_1D(1);
+        Random random = new Random(0);
+        A = new DenseDoubleMatrix2D(NROWS, NCOLUMNS);
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                A.setQuick(r, c, random.nextInt(4) - 1.5);
+            }
+        }
+        A.setQuick(7, 1, Double.NaN);
+    }
+
+    public void testSortIndex() {
+        DoubleMatrix1D column = A.viewColumn(1);
+        int[] indexes = DoubleSorting.quickSort.sortIndex(column);
+        assertEquals(NROWS, indexes.length);
+        assertEquals(7, indexes[NROWS - 1]);
+        for (int i = 1; i < NROWS - 1; i++) {
+            assertTrue(column.getQuick(indexes[i - 1]) <= column.getQuick(indexes[i]));
+            // stable: equal values keep their order
+            if (column.getQuick(indexes[i - 1]) == column.getQuick(indexes[i]))
+                assertTrue(indexes[i - 1] < indexes[i]);
+        }
+        assertTrue(java.util.Arrays.equals(indexes, DoubleSorting.mergeSort.sortIndex(column)));
+        DoubleMatrix1D sorted = DoubleSorting.mergeSort.sort(A.viewColumn(2).viewPart(10, 100));
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(sorted.getQuick(i - 1) <= sorted.getQuick(i));
+        }
+    }
+
+    public void testSignedZero() {
+        DoubleMatrix1D vector = new DenseDoubleMatrix1D(new double[] { 0, 1, -0.0, -1, 0, -0.0 });
+        int[] indexes = DoubleSorting.quickSort.sortIndex(vector);
+        assertTrue(java.util.Arrays.equals(new int[] { 3, 2, 5, 0, 4, 1 }, indexes));
+    }
+
+    public void testSortColumn() {
+        DoubleMatrix2D sorted = DoubleSorting.quickSort.sort(A, 0);
+        for (int r = 1; r < NROWS; r++) {
+            assertTrue(sorted.getQuick(r - 1, 0) <= sorted.getQuick(r, 0));
+        }
+    }
+
+    public void testSortByColumns() {
+        int[] columns = new int[] { 3, 0, 4 };
+        DoubleMatrix2D sorted = DoubleSorting.quickSort.sortByColumns(A, columns);
+        assertEquals(NROWS, sorted.rows());
+        for (int r = 1; r < NROWS; r++) {
+            int cmp = 0;
+            for (int i = 0; i < columns.length && cmp == 0; i++) {
+                cmp = Double.compare(sorted.getQuick(r - 1, columns[i]), sorted.getQuick(r, columns[i]));
+            }
+            assertTrue(cmp <= 0);
+        }
+        double sum = 0;
+        for (int r = 0; r < NROWS; r++) {
+            sum += sorted.getQuick(r, 2) - A.getQuick(r, 2);
+        }
+        assertEquals(0, sum, 1e-10);
+    }
+}
@@ -0,0 +1,146 @@
+package cern.colt.matrix.tdouble.algo;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.SparseCCDoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.SparseRCDoubleMatrix2D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class DoubleStatisticTest extends TestCase {
+
+    private static final DoubleStatistic.VectorVectorFunction[] FUNCTIONS = { DoubleStatistic.EUCLID,
+            DoubleStatistic.BRAY_CURTIS, DoubleStatistic.CANBERRA, DoubleStatistic.MAXIMUM,
+            DoubleStatistic.MANHATTAN };
+
+    public DoubleStatisticTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testCorrelation() {
+        DoubleMatrix2D A = new DenseDoubleMatrix2D(new double[][] { { 1, 2, 3 }, { 2, 4, 6 }, { 3, 6, 9 },
+                { 4, -8, -10 } });
+        DoubleMatrix2D cov = DoubleStatistic.covariance(A);
+        assertEquals(1.25, cov.getQuick(0, 0), 1e-12);
+        assertEquals(-3.5, cov.getQuick(0, 1), 1e-12);
+        assertEquals(52.5, cov.getQuick(2, 2), 1e-12);
+        DoubleMatrix2D corr = DoubleStatistic.correlation(cov);
+        assertEquals(1, corr.getQuick(1, 1), 0);
+        assertEquals(-0.581318, corr.getQuick(0, 1), 1e-6);
+        assertEquals(0.999507, corr.getQuick(2, 1), 1e-6);
+    }
+
+    public void testDenseAndSparse() {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setThreadsBeginN_2D(1);
+            for (int t = 1; t <= 3; t += 2) {
+                ConcurrencyUtils.setNumberOfThreads(t);
+                check(random(300, 150, 1.0, 1));
+                check(random(700, 90, 0.05, 2));
+            }
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+
+    private static void check(double[][] values) {
+        DoubleMatrix2D dense = new DenseDoubleMatrix2D(values);
+        int rows = values.length;
+        int columns = values[0].length;
+        // sparse views: a dice view of the transpose, a part of a larger matrix
+        double[][] padded = new double[rows + 3][columns + 2];
+        for (int r = 0; r < padded.length; r++) {
+            for (int c = 0; c < padded[r].length; c++) {
+                padded[r][c] = (r >= 1 && r <= rows && c >= 2) ? values[r - 1][c - 2] : r + c + 1;
+            }
+        }
+        DoubleMatrix2D[] matrices = { dense, dense.viewDice().copy().viewDice(), new SparseRCDoubleMatrix2D(values),
+                new SparseCCDoubleMatrix2D(values), new SparseDoubleMatrix2D(values),
+                new SparseDoubleMatrix2D(dense.viewDice().toArray()).viewDice(),
+                new SparseDoubleMatrix2D(padded).viewPart(1, 2, rows, columns) };
+        DoubleMatrix2D expectedCov = covariance(dense);
+        for (int m = 0; m < matrices.length; m++) {
+            assertEquals(expectedCov, DoubleStatistic.covariance(matrices[m]), 1e-10);
+            for (int f = 0; f < FUNCTIONS.length; f++) {
+                DoubleMatrix2D expected = distance(dense, FUNCTIONS[f]);
+                assertEquals(expected, DoubleStatistic.distance(matrices[m], FUNCTIONS[f]), 1e-10);
+            }
+        }
+    }
+
+    private static void assertEquals(DoubleMatrix2D expected, DoubleMatrix2D actual, double tol) {
+        assertEquals(expected.rows(), actual.rows());
+        assertEquals(expected.columns(), actual.columns());
+        for (int i = 0; i < expected.rows(); i++) {
+            for (int j = 0; j < expected.columns(); j++) {
+                double e = expected.getQuick(i, j);
+                double a = actual.getQuick(i, j);
+                if (Double.isNaN(e)) {
+                    assertTrue(Double.isNaN(a));
+                } else {
+                    assertEquals(e, a, tol * Math.max(1, Math.abs(e)));
+                }
+            }
+        }
+        for (int i = 0; i < actual.rows(); i++) {
+            for (int j = 0; j < i; j++) {
+                assertEquals(actual.getQuick(i, j), actual.getQuick(j, i), 0);
+            }
+        }
+    }
+
+    /**
+     * Column-pair reference implementation.
+     */
+    private static DoubleMatrix2D covariance(DoubleMatrix2D matrix) {
+        int rows = matrix.rows();
+        int columns = matrix.columns();
+        DoubleMatrix2D covariance = new DenseDoubleMatrix2D(columns, columns);
+        for (int i = 0; i < columns; i++) {
+            DoubleMatrix1D x = matrix.viewColumn(i);
+            double mx = x.zSum() / rows;
+            for (int j = 0; j <= i; j++) {
+                DoubleMatrix1D y = matrix.viewColumn(j);
+                double my = y.zSum() / rows;
+                double s = 0;
+                for (int r = 0; r < rows; r++) {
+                    s += (x.getQuick(r) - mx) * (y.getQuick(r) - my);
+                }
+                covariance.setQuick(i, j, s / rows);
+                covariance.setQuick(j, i, s / rows);
+            }
+        }
+        return covariance;
+    }
+
+    private static DoubleMatrix2D distance(DoubleMatrix2D matrix, DoubleStatistic.VectorVectorFunction f) {
+        int columns = matrix.columns();
+        DoubleMatrix2D distance = new DenseDoubleMatrix2D(columns, columns);
+        for (int i = 0; i < columns; i++) {
+            for (int j = 0; j < i; j++) {
+                double d = f.apply(matrix.viewColumn(i), matrix.viewColumn(j));
+                distance.setQuick(i, j, d);
+                distance.setQuick(j, i, d);
+            }
+        }
+        return distance;
+    }
+
+    private static double[][] random(int rows, int columns, double density, long seed) {
+        Random random = new Random(seed);
+        double[][] values = new double[rows][columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (random.nextDouble() < density)
+                    values[r][c] = random.nextGaussian() + 0.5;
+            }
+        }
+        return values;
+    }
+}
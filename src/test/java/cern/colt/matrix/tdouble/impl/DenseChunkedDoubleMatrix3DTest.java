@@ -0,0 +1,129 @@
+package cern.colt.matrix.tdouble.impl;
+
+import cern.colt.matrix.tdcomplex.DComplexMatrix3D;
+import cern.colt.matrix.tdcomplex.impl.DenseLargeDComplexMatrix3D;
+import cern.colt.matrix.tdouble.DoubleMatrix3D;
+import cern.colt.matrix.tdouble.DoubleMatrix3DTest;
+
+public class DenseChunkedDoubleMatrix3DTest extends DoubleMatrix3DTest {
+
+    public DenseChunkedDoubleMatrix3DTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createMatrices() throws Exception {
+        A = new DenseChunkedDoubleMatrix3D(NSLICES, NROWS, NCOLUMNS);
+        B = new DenseChunkedDoubleMatrix3D(NSLICES, NROWS, NCOLUMNS);
+    }
+
+    public void testDct3() {
+        DoubleMatrix3D Acopy = A.copy();
+        ((WrapperDoubleMatrix3D) A).dct3(true);
+        ((WrapperDoubleMatrix3D) A).idct3(true);
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    assertEquals(Acopy.getQuick(s, r, c), A.getQuick(s, r, c), TOL);
+                }
+            }
+        }
+        A.assign(1);
+        ((WrapperDoubleMatrix3D) A).dct3(true);
+        double dc = Math.sqrt(A.size());
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    assertEquals((s == 0 && r == 0 && c == 0) ? dc : 0, A.getQuick(s, r, c), TOL);
+                }
+            }
+        }
+    }
+
+    public void testDct3Tiles() {
+        int nslices = 600;
+        int nrows = 2;
+        int ncolumns = 64;
+        DoubleMatrix3D A = new DenseChunkedDoubleMatrix3D(nslices, nrows, ncolumns);
+        A.assign(cern.jet.math.tdouble.DoubleFunctions.random());
+        DoubleMatrix3D Acopy = A.copy();
+        ((WrapperDoubleMatrix3D) A).dct3(true);
+        ((WrapperDoubleMatrix3D) A).idct3(true);
+        for (int s = 0; s < nslices; s++) {
+            for (int r = 0; r < nrows; r++) {
+                for (int c = 0; c < ncolumns; c++) {
+                    assertEquals(Acopy.getQuick(s, r, c), A.getQuick(s, r, c), TOL);
+                }
+            }
+        }
+    }
+
+    public void testGetFft3() {
+        DComplexMatrix3D Ac = ((WrapperDoubleMatrix3D) A).getFft3();
+        DComplexMatrix3D Bc = new DenseDoubleMatrix3D(A.toArray()).getFft3();
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    double[] elem = Ac.getQuick(s, r, c);
+                    double[] expected = Bc.getQuick(s, r, c);
+                    assertEquals(expected[0], elem[0], TOL);
+                    assertEquals(expected[1], elem[1], TOL);
+                }
+            }
+        }
+        ((DenseLargeDComplexMatrix3D) Ac).ifft3(true);
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    double[] elem = Ac.getQuick(s, r, c);
+                    assertEquals(A.getQuick(s, r, c), elem[0], TOL);
+                    assertEquals(0, elem[1], TOL);
+                }
+            }
+        }
+    }
+
+    public void testGetFft3Tiles() {
+        int nslices = 600;
+        int nrows = 2;
+        int ncolumns = 64;
+        DoubleMatrix3D A = new DenseChunkedDoubleMatrix3D(nslices, nrows, ncolumns);
+        A.assign(cern.jet.math.tdouble.DoubleFunctions.random());
+        DComplexMatrix3D Ac = ((WrapperDoubleMatrix3D) A).getFft3();
+        DComplexMatrix3D Bc = new DenseDoubleMatrix3D(A.toArray()).getFft3();
+        for (int s = 0; s < nslices; s++) {
+            for (int r = 0; r < nrows; r++) {
+                for (int c = 0; c < ncolumns; c++) {
+                    double[] elem = Ac.getQuick(s, r, c);
+                    double[] expected = Bc.getQuick(s, r, c);
+                    assertEquals(expected[0], elem[0], 1e-8);
+                    assertEquals(expected[1], elem[1], 1e-8);
+                }
+            }
+        }
+    }
+
+    public void testGetIfft3() {
+        DComplexMatrix3D Ac = ((WrapperDoubleMatrix3D) A).getIfft3(true);
+        DComplexMatrix3D Bc = new DenseDoubleMatrix3D(A.toArray()).getIfft3(true);
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    double[] elem = Ac.getQuick(s, r, c);
+                    double[] expected = Bc.getQuick(s, r, c);
+                    assertEquals(expected[0], elem[0], TOL);
+                    assertEquals(expected[1], elem[1], TOL);
+                }
+            }
+        }
+        ((DenseLargeDComplexMatrix3D) Ac).fft3();
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    double[] elem = Ac.getQuick(s, r, c);
+                    assertEquals(A.getQuick(s, r, c), elem[0], TOL);
+                    assertEquals(0, elem[1], TOL);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package cern.colt.matrix.tdouble.impl;
+
+public class DenseChunkedDoubleMatrix3DViewTest extends DenseChunkedDoubleMatrix3DTest {
+
+    public DenseChunkedDoubleMatrix3DViewTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createMatrices() throws Exception {
+        A = new DenseChunkedDoubleMatrix3D(NCOLUMNS, NROWS, NSLICES).viewDice(2, 1, 0);
+        B = new DenseChunkedDoubleMatrix3D(NCOLUMNS, NROWS, NSLICES).viewDice(2, 1, 0);
+    }
+}
@@ -1,9 +1,14 @@
 package cern.colt.matrix.tdouble.impl;
 
+import cern.colt.function.tdouble.Double9Function;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.tdcomplex.DComplexMatrix2D;
 import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix2D;
+import cern.colt.matrix.tdcomplex.impl.DenseHalfSpectrumDComplexMatrix2D;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
 import cern.colt.matrix.tdouble.DoubleMatrix2DTest;
+import cern.jet.math.tdcomplex.DComplexFunctions;
+import cern.jet.math.tdouble.DoubleFunctions;
 
 public class DenseDoubleMatrix2DTest extends DoubleMatrix2DTest {
 
@@ -173,6 +178,53 @@ public class DenseDoubleMatrix2DTest extends DoubleMatrix2DTest {
         }
     }
 
+    public void testGetHalfSpectrumFft2() {
+        DenseHalfSpectrumDComplexMatrix2D H = ((DenseDoubleMatrix2D) A).getHalfSpectrumFft2();
+        assertEquals(A.rows(), H.rows());
+        assertEquals(A.columns() / 2 + 1, H.columns());
+        assertEquals(A.columns(), H.realColumns());
+        DComplexMatrix2D Ac = ((DenseDoubleMatrix2D) A).getFft2();
+        DComplexMatrix2D F = H.getFullSpectrum();
+        for (int r = 0; r < A.rows(); r++) {
+            for (int c = 0; c < A.columns(); c++) {
+                double[] expected = Ac.getQuick(r, c);
+                double[] elemF = F.getQuick(r, c);
+                double[] elemH = H.getFullQuick(r, c);
+                assertEquals(expected[0], elemF[0], TOL);
+                assertEquals(expected[1], elemF[1], TOL);
+                assertEquals(expected[0], elemH[0], TOL);
+                assertEquals(expected[1], elemH[1], TOL);
+            }
+        }
+        DoubleMatrix2D R = H.getIfft2(true);
+        for (int r = 0; r < A.rows(); r++) {
+            for (int c = 0; c < A.columns(); c++) {
+                assertEquals(A.getQuick(r, c), R.getQuick(r, c), TOL);
+            }
+        }
+        // odd number of columns, circular convolution as a product of half spectra
+        int rows = 5;
+        int columns = 7;
+        DoubleMatrix2D X = new DenseDoubleMatrix2D(rows, columns).assign(DoubleFunctions.random());
+        DoubleMatrix2D Y = new DenseDoubleMatrix2D(rows, columns).assign(DoubleFunctions.random());
+        DenseHalfSpectrumDComplexMatrix2D Hx = ((DenseDoubleMatrix2D) X).getHalfSpectrumFft2();
+        DenseHalfSpectrumDComplexMatrix2D Hy = ((DenseDoubleMatrix2D) Y).getHalfSpectrumFft2();
+        DComplexMatrix2D Hz = Hx.copy().assign(Hy, DComplexFunctions.mult);
+        assertTrue(Hz instanceof DenseHalfSpectrumDComplexMatrix2D);
+        DoubleMatrix2D Z = ((DenseHalfSpectrumDComplexMatrix2D) Hz).getIfft2(true);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                double expected = 0;
+                for (int i = 0; i < rows; i++) {
+                    for (int j = 0; j < columns; j++) {
+                        expected += X.getQuick(i, j) * Y.getQuick((r - i + rows) % rows, (c - j + columns) % columns);
+                    }
+                }
+                assertEquals(expected, Z.getQuick(r, c), TOL);
+            }
+        }
+    }
+
     public void testGetIfft2() {
         DoubleMatrix2D Acopy = A.copy();
         DComplexMatrix2D Ac = ((DenseDoubleMatrix2D) A).getIfft2(true);
@@ -238,4 +290,50 @@ public class DenseDoubleMatrix2DTest extends DoubleMatrix2DTest {
         }
     }
 
+    public void testZAssign8Neighbors() {
+        Double9Function f = new Double9Function() {
+            public double apply(double a00, double a01, double a02, double a10, double a11, double a12, double a20,
+                    double a21, double a22) {
+                return a00 + 2 * a01 + 3 * a02 + 4 * a10 + 5 * a11 + 6 * a12 + 7 * a20 + 8 * a21 + 9 * a22;
+            }
+        };
+        double constant = 0.5;
+        for (Boundary boundary : Boundary.values()) {
+            B.assign(-1);
+            A.zAssign8Neighbors(B, f, boundary, constant);
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    boolean border = r == 0 || r == A.rows() - 1 || c == 0 || c == A.columns() - 1;
+                    if (boundary == Boundary.Skip && border) {
+                        assertEquals(-1, B.getQuick(r, c), TOL);
+                        continue;
+                    }
+                    double expected = 0;
+                    int w = 1;
+                    for (int i = r - 1; i <= r + 1; i++) {
+                        for (int j = c - 1; j <= c + 1; j++) {
+                            expected += w++ * neighbor(A, i, j, boundary, constant);
+                        }
+                    }
+                    assertEquals(expected, B.getQuick(r, c), TOL);
+                }
+            }
+        }
+    }
+
+    private static double neighbor(DoubleMatrix2D M, int r, int c, Boundary boundary, double constant) {
+        int rows = M.rows();
+        int columns = M.columns();
+        if (r >= 0 && r < rows && c >= 0 && c < columns)
+            return M.getQuick(r, c);
+        switch (boundary) {
+        case Clamp:
+            return M.getQuick(Math.min(Math.max(r, 0), rows - 1), Math.min(Math.max(c, 0), columns - 1));
+        case Wrap:
+            return M.getQuick((r + rows) % rows, (c + columns) % columns);
+        default:
+            return constant;
+        }
+    }
+
 }
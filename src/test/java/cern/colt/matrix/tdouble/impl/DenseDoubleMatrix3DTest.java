@@ -1,7 +1,10 @@
 package cern.colt.matrix.tdouble.impl;
 
+import cern.colt.function.tdouble.Double27Function;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.tdcomplex.DComplexMatrix3D;
 import cern.colt.matrix.tdcomplex.impl.DenseDComplexMatrix3D;
+import cern.colt.matrix.tdcomplex.impl.DenseHalfSpectrumDComplexMatrix3D;
 import cern.colt.matrix.tdouble.DoubleMatrix3D;
 import cern.colt.matrix.tdouble.DoubleMatrix3DTest;
 
@@ -125,6 +128,35 @@ public class DenseDoubleMatrix3DTest extends DoubleMatrix3DTest {
         }
     }
 
+    public void testGetHalfSpectrumFft3() {
+        DenseHalfSpectrumDComplexMatrix3D H = ((DenseDoubleMatrix3D) A).getHalfSpectrumFft3();
+        assertEquals(A.columns() / 2 + 1, H.columns());
+        assertEquals(A.columns(), H.realColumns());
+        DComplexMatrix3D Ac = ((DenseDoubleMatrix3D) A).getFft3();
+        DComplexMatrix3D F = H.getFullSpectrum();
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    double[] expected = Ac.getQuick(s, r, c);
+                    double[] elemF = F.getQuick(s, r, c);
+                    double[] elemH = H.getFullQuick(s, r, c);
+                    assertEquals(expected[0], elemF[0], TOL);
+                    assertEquals(expected[1], elemF[1], TOL);
+                    assertEquals(expected[0], elemH[0], TOL);
+                    assertEquals(expected[1], elemH[1], TOL);
+                }
+            }
+        }
+        DoubleMatrix3D R = H.getIfft3(true);
+        for (int s = 0; s < A.slices(); s++) {
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    assertEquals(A.getQuick(s, r, c), R.getQuick(s, r, c), TOL);
+                }
+            }
+        }
+    }
+
     public void testGetIfft3() {
         DComplexMatrix3D Ac = ((DenseDoubleMatrix3D) A).getIfft3(true);
         ((DenseDComplexMatrix3D) Ac).fft3();
@@ -167,4 +199,62 @@ public class DenseDoubleMatrix3DTest extends DoubleMatrix3DTest {
         }
     }
 
+    public void testZAssign27Neighbors() {
+        Double27Function f = new Double27Function() {
+            public double apply(double a000, double a001, double a002, double a010, double a011, double a012,
+                    double a020, double a021, double a022, double a100, double a101, double a102, double a110,
+                    double a111, double a112, double a120, double a121, double a122, double a200, double a201,
+                    double a202, double a210, double a211, double a212, double a220, double a221, double a222) {
+                return a000 + 2 * a001 + 3 * a002 + 4 * a010 + 5 * a011 + 6 * a012 + 7 * a020 + 8 * a021 + 9 * a022
+                        + 10 * a100 + 11 * a101 + 12 * a102 + 13 * a110 + 14 * a111 + 15 * a112 + 16 * a120 + 17
+                        * a121 + 18 * a122 + 19 * a200 + 20 * a201 + 21 * a202 + 22 * a210 + 23 * a211 + 24 * a212
+                        + 25 * a220 + 26 * a221 + 27 * a222;
+            }
+        };
+        double constant = 0.5;
+        for (Boundary boundary : Boundary.values()) {
+            B.assign(-1);
+            A.zAssign27Neighbors(B, f, boundary, constant);
+            for (int s = 0; s < A.slices(); s++) {
+                for (int r = 0; r < A.rows(); r++) {
+                    for (int c = 0; c < A.columns(); c++) {
+                        boolean border = s == 0 || s == A.slices() - 1 || r == 0 || r == A.rows() - 1 || c == 0
+                                || c == A.columns() - 1;
+                        if (boundary == Boundary.Skip && border) {
+                            assertEquals(-1, B.getQuick(s, r, c), TOL);
+                            continue;
+                        }
+                        double expected = 0;
+                        int w = 1;
+                        for (int k = s - 1; k <= s + 1; k++) {
+                            for (int i = r - 1; i <= r + 1; i++) {
+                                for (int j = c - 1; j <= c + 1; j++) {
+                                    expected += w++ * neighbor(A, k, i, j, boundary, constant);
+                                }
+                            }
+                        }
+                        assertEquals(expected, B.getQuick(s, r, c), TOL);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double neighbor(DoubleMatrix3D M, int s, int r, int c, Boundary boundary, double constant) {
+        int slices = M.slices();
+        int rows = M.rows();
+        int columns = M.columns();
+        if (s >= 0 && s < slices && r >= 0 && r < rows && c >= 0 && c < columns)
+            return M.getQuick(s, r, c);
+        switch (boundary) {
+        case Clamp:
+            return M.getQuick(Math.min(Math.max(s, 0), slices - 1), Math.min(Math.max(r, 0), rows - 1), Math.min(
+                    Math.max(c, 0), columns - 1));
+        case Wrap:
+            return M.getQuick((s + slices) % slices, (r + rows) % rows, (c + columns) % columns);
+        default:
+            return constant;
+        }
+    }
+
 }
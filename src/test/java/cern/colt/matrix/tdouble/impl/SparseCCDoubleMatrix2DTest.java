@@ -14,6 +14,33 @@ public class SparseCCDoubleMatrix2DTest extends DoubleMatrix2DTest {
         Bt = new SparseCCDoubleMatrix2D(NCOLUMNS, NROWS);
     }
 
+    public void testCoordinateFormat() {
+        int nz = 4 * NROWS * NCOLUMNS;
+        int[] rowIndexes = new int[nz];
+        int[] columnIndexes = new int[nz];
+        double[] values = new double[nz];
+        double[][] expected = new double[NROWS][NCOLUMNS];
+        for (int k = 0; k < nz; k++) {
+            rowIndexes[k] = random.nextInt(NROWS);
+            columnIndexes[k] = random.nextInt(NCOLUMNS);
+            values[k] = random.nextDouble();
+            expected[rowIndexes[k]][columnIndexes[k]] += values[k];
+        }
+        SparseCCDoubleMatrix2D S = new SparseCCDoubleMatrix2D(NROWS, NCOLUMNS, rowIndexes, columnIndexes, values, true, false, true);
+        int[] pointers = S.getColumnPointers();
+        int[] indexes = S.getRowIndexes();
+        for (int i = 0; i < NCOLUMNS; i++) {
+            for (int p = pointers[i] + 1; p < pointers[i + 1]; p++) {
+                assertTrue(indexes[p - 1] < indexes[p]);
+            }
+        }
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                assertEquals(expected[r][c], S.getQuick(r, c), TOL);
+            }
+        }
+    }
+
     //    public void testZMultDoubleMatrix2DDoubleMatrix2DDoubleDoubleBooleanBoolean() {
     //
     //        double alpha = 2;
@@ -0,0 +1,13 @@
+package cern.colt.matrix.tdouble.impl;
+
+public class SparseDoubleMatrix1DLinearProbingTest extends SparseDoubleMatrix1DTest {
+
+    public SparseDoubleMatrix1DLinearProbingTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createMatrices() throws Exception {
+        A = new SparseDoubleMatrix1D(SIZE, 0, 0.2, 0.5, true);
+        B = new SparseDoubleMatrix1D(SIZE, 0, 0.2, 0.5, true);
+    }
+}
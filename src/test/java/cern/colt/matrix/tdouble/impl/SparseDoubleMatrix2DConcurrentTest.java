@@ -0,0 +1,146 @@
+package cern.colt.matrix.tdouble.impl;
+
+import java.util.concurrent.Future;
+
+import cern.colt.map.tdouble.ConcurrentLongDoubleHashMap;
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class SparseDoubleMatrix2DConcurrentTest extends SparseDoubleMatrix2DTest {
+
+    public SparseDoubleMatrix2DConcurrentTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createMatrices() throws Exception {
+        A = new SparseDoubleMatrix2D(NROWS, NCOLUMNS, new ConcurrentLongDoubleHashMap());
+        B = new SparseDoubleMatrix2D(NROWS, NCOLUMNS, new ConcurrentLongDoubleHashMap());
+        Bt = new SparseDoubleMatrix2D(NCOLUMNS, NROWS, new ConcurrentLongDoubleHashMap());
+    }
+
+    public void testAddQuick() {
+        final SparseDoubleMatrix2D S = new SparseDoubleMatrix2D(NROWS, NCOLUMNS, new ConcurrentLongDoubleHashMap());
+        final int ntasks = 4;
+        final int nadds = 20000;
+        Future<?>[] futures = new Future[ntasks];
+        for (int j = 0; j < ntasks; j++) {
+            final int task = j;
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < nadds; i++) {
+                        // every task adds to the same cells
+                        S.addQuick(i % NROWS, (7 * i) % NCOLUMNS, task + 1);
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        DoubleMatrix2D expected = new DenseDoubleMatrix2D(NROWS, NCOLUMNS);
+        for (int i = 0; i < nadds; i++) {
+            int r = i % NROWS;
+            int c = (7 * i) % NCOLUMNS;
+            expected.setQuick(r, c, expected.getQuick(r, c) + ntasks * (ntasks + 1) / 2);
+        }
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                assertEquals(expected.getQuick(r, c), S.getQuick(r, c), TOL);
+            }
+        }
+        S.addQuick(0, 0, -S.getQuick(0, 0));
+        SparseRCDoubleMatrix2D R = S.getRowCompressed(true);
+        assertEquals(expected.cardinality() - (expected.getQuick(0, 0) != 0 ? 1 : 0), R.cardinality());
+        int[] rowPointers = R.getRowPointers();
+        int[] columnIndexes = R.getColumnIndexes();
+        for (int r = 0; r < NROWS; r++) {
+            for (int k = rowPointers[r] + 1; k < rowPointers[r + 1]; k++) {
+                assertTrue(columnIndexes[k - 1] < columnIndexes[k]);
+            }
+            for (int c = 0; c < NCOLUMNS; c++) {
+                assertEquals(S.getQuick(r, c), R.getQuick(r, c), TOL);
+            }
+        }
+    }
+
+    public void testCancellingDeltas() {
+        SparseDoubleMatrix2D S = new SparseDoubleMatrix2D(NROWS, NCOLUMNS, new ConcurrentLongDoubleHashMap());
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                S.addQuick(r, c, 1.5);
+                if ((r + c) % 2 == 0)
+                    S.addQuick(r, c, -1.5);
+            }
+        }
+        int nnz = 0;
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                if (S.getQuick(r, c) != 0)
+                    nnz++;
+            }
+        }
+        assertEquals(nnz, S.getRowCompressed(false).cardinality());
+        assertEquals(nnz, S.getColumnCompressed(false).cardinality());
+        assertEquals(nnz, S.getRowCompressedModified().cardinality());
+        assertEquals(nnz, S.getColumnCompressedModified().cardinality());
+        cern.colt.function.tdouble.IntIntDoubleFunction noZeros = new cern.colt.function.tdouble.IntIntDoubleFunction() {
+            public double apply(int r, int c, double value) {
+                assertTrue(value != 0);
+                return value;
+            }
+        };
+        S.getRowCompressed(false).forEachNonZero(noZeros);
+        S.getColumnCompressed(true).forEachNonZero(noZeros);
+    }
+
+    public void testCompressedWhileWriting() throws Exception {
+        final SparseDoubleMatrix2D S = new SparseDoubleMatrix2D(NROWS, NCOLUMNS, new ConcurrentLongDoubleHashMap());
+        // start non-empty; the checks must not depend on when the writer runs
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                S.setQuick(r, c, r * NCOLUMNS + c + 1);
+            }
+        }
+        final boolean[] done = new boolean[1];
+        Future<?> writer = ConcurrencyUtils.submit(new Runnable() {
+            public void run() {
+                for (int round = 0; round < 50 && !done[0]; round++) {
+                    for (int r = 0; r < NROWS; r++) {
+                        for (int c = 0; c < NCOLUMNS; c++) {
+                            // every stored value identifies its cell
+                            S.setQuick(r, c, ((r + c + round) % 3 == 0) ? 0 : r * NCOLUMNS + c + 1);
+                        }
+                    }
+                }
+            }
+        });
+        cern.colt.function.tdouble.IntIntDoubleFunction check = new cern.colt.function.tdouble.IntIntDoubleFunction() {
+            public double apply(int r, int c, double value) {
+                assertEquals(r * NCOLUMNS + c + 1, value, 0);
+                return value;
+            }
+        };
+        try {
+            for (int i = 0; i < 20; i++) {
+                S.getColumnCompressed(true).forEachNonZero(check);
+                S.getColumnCompressedModified().forEachNonZero(check);
+                S.getRowCompressedModified().forEachNonZero(check);
+            }
+        } finally {
+            done[0] = true;
+            writer.get();
+        }
+    }
+
+    public void testGetRowCompressedConcurrent() {
+        SparseDoubleMatrix2D S = (SparseDoubleMatrix2D) A;
+        SparseRCDoubleMatrix2D R = S.getRowCompressed(false);
+        assertEquals(S.cardinality(), R.cardinality());
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                assertEquals(S.getQuick(r, c), R.getQuick(r, c));
+            }
+        }
+        S = new SparseDoubleMatrix2D(NROWS, NCOLUMNS, new ConcurrentLongDoubleHashMap());
+        R = S.getRowCompressed(true);
+        assertEquals(0, R.cardinality());
+    }
+}
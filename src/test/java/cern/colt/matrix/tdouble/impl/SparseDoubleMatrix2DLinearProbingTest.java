@@ -0,0 +1,14 @@
+package cern.colt.matrix.tdouble.impl;
+
+public class SparseDoubleMatrix2DLinearProbingTest extends SparseDoubleMatrix2DTest {
+
+    public SparseDoubleMatrix2DLinearProbingTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createMatrices() throws Exception {
+        A = new SparseDoubleMatrix2D(NROWS, NCOLUMNS, 0, 0.2, 0.5, true);
+        B = new SparseDoubleMatrix2D(NROWS, NCOLUMNS, 0, 0.2, 0.5, true);
+        Bt = new SparseDoubleMatrix2D(NCOLUMNS, NROWS, 0, 0.2, 0.5, true);
+    }
+}
@@ -1,5 +1,7 @@
 package cern.colt.matrix.tdouble.impl;
 
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.list.tint.IntArrayList;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
 import cern.colt.matrix.tdouble.DoubleMatrix2DTest;
 import cern.jet.math.tdouble.DoubleFunctions;
@@ -16,6 +18,41 @@ public class SparseDoubleMatrix2DTest extends DoubleMatrix2DTest {
         Bt = new SparseDoubleMatrix2D(NCOLUMNS, NROWS);
     }
 
+    public void testTopValuesLarge() {
+        SparseDoubleMatrix2D S = new SparseDoubleMatrix2D(100000, 100000);
+        S.setQuick(3, 5, -2);
+        S.setQuick(0, 1, 3);
+        S.setQuick(99999, 99999, 4);
+        assertEquals(10000000000L, S.size());
+        assertEquals(-2, S.getKthSmallest(0), 0);
+        assertEquals(0, S.getKthSmallest(1), 0);
+        assertEquals(0, S.getKthSmallest(Integer.MAX_VALUE - 1), 0);
+        IntArrayList rowList = new IntArrayList();
+        IntArrayList columnList = new IntArrayList();
+        DoubleArrayList valueList = new DoubleArrayList();
+        S.getMaxValues(4, rowList, columnList, valueList);
+        assertEquals(new IntArrayList(new int[] { 99999, 0, 0, 0 }), rowList);
+        assertEquals(new IntArrayList(new int[] { 99999, 1, 0, 2 }), columnList);
+        assertEquals(new DoubleArrayList(new double[] { 4, 3, 0, 0 }), valueList);
+        S.getMinValues(2, rowList, columnList, valueList);
+        assertEquals(new IntArrayList(new int[] { 3, 0 }), rowList);
+        assertEquals(new IntArrayList(new int[] { 5, 0 }), columnList);
+        int[][] locations = S.getRowMaxLocations(1);
+        assertEquals(1, locations[0][0]);
+        assertEquals(0, locations[3][0]);
+        assertEquals(0, locations[4][0]);
+        assertEquals(99999, locations[99999][0]);
+        locations = S.getRowMinLocations(1);
+        assertEquals(5, locations[3][0]);
+        assertEquals(0, locations[99999][0]);
+        try {
+            // views go through getQuick and need a dense copy
+            S.viewPart(0, 0, 50000, 50000).getKthSmallest(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
     public void testGetRowCompressed() {
         int SIZE = NROWS * NCOLUMNS;
         int[] rowindexes = new int[SIZE];
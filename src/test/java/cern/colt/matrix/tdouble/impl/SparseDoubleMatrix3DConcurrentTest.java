@@ -0,0 +1,46 @@
+package cern.colt.matrix.tdouble.impl;
+
+import java.util.concurrent.Future;
+
+import cern.colt.map.tdouble.ConcurrentLongDoubleHashMap;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class SparseDoubleMatrix3DConcurrentTest extends SparseDoubleMatrix3DTest {
+
+    public SparseDoubleMatrix3DConcurrentTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void createMatrices() throws Exception {
+        A = new SparseDoubleMatrix3D(NSLICES, NROWS, NCOLUMNS, new ConcurrentLongDoubleHashMap());
+        B = new SparseDoubleMatrix3D(NSLICES, NROWS, NCOLUMNS, new ConcurrentLongDoubleHashMap());
+    }
+
+    public void testAddQuick() {
+        final SparseDoubleMatrix3D S = new SparseDoubleMatrix3D(NSLICES, NROWS, NCOLUMNS,
+                new ConcurrentLongDoubleHashMap());
+        final int ntasks = 4;
+        Future<?>[] futures = new Future[ntasks];
+        for (int j = 0; j < ntasks; j++) {
+            futures[j] = ConcurrencyUtils.submit(new Runnable() {
+                public void run() {
+                    for (int s = 0; s < NSLICES; s++) {
+                        for (int r = 0; r < NROWS; r++) {
+                            for (int c = 0; c < NCOLUMNS; c++) {
+                                S.addQuick(s, r, c, s + r + c);
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        ConcurrencyUtils.waitForCompletion(futures);
+        for (int s = 0; s < NSLICES; s++) {
+            for (int r = 0; r < NROWS; r++) {
+                for (int c = 0; c < NCOLUMNS; c++) {
+                    assertEquals(ntasks * (s + r + c), S.getQuick(s, r, c), TOL);
+                }
+            }
+        }
+    }
+}
@@ -14,6 +14,40 @@ public class SparseRCDoubleMatrix2DTest extends DoubleMatrix2DTest {
         Bt = new SparseRCDoubleMatrix2D(NCOLUMNS, NROWS);
     }
 
+    public void testCoordinateFormat() {
+        int nz = 4 * NROWS * NCOLUMNS;
+        int[] rowIndexes = new int[nz];
+        int[] columnIndexes = new int[nz];
+        double[] values = new double[nz];
+        double[][] expected = new double[NROWS][NCOLUMNS];
+        for (int k = 0; k < nz; k++) {
+            rowIndexes[k] = random.nextInt(NROWS);
+            columnIndexes[k] = random.nextInt(NCOLUMNS);
+            values[k] = random.nextDouble();
+            expected[rowIndexes[k]][columnIndexes[k]] += values[k];
+        }
+        SparseRCDoubleMatrix2D S = new SparseRCDoubleMatrix2D(NROWS, NCOLUMNS, rowIndexes, columnIndexes, values, true, false, true);
+        int[] pointers = S.getRowPointers();
+        int[] indexes = S.getColumnIndexes();
+        for (int i = 0; i < NROWS; i++) {
+            for (int p = pointers[i] + 1; p < pointers[i + 1]; p++) {
+                assertTrue(indexes[p - 1] < indexes[p]);
+            }
+        }
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                assertEquals(expected[r][c], S.getQuick(r, c), TOL);
+            }
+        }
+    }
+
+    public void testNonZeroStream() {
+        SparseRCDoubleMatrix2D S = new SparseRCDoubleMatrix2D(A.toArray());
+        assertEquals(S.cardinality(), S.nonZeroStream().count());
+        assertEquals(S.zSum(), S.nonZeroStream().sum(), TOL);
+        assertEquals(S.zSum(), S.parallelNonZeroStream().sum(), TOL);
+    }
+
     //    public void testZMultDoubleMatrix2DDoubleMatrix2DDoubleDoubleBooleanBoolean() {
     //        double alpha = 2;
     //        double beta = 5;
@@ -0,0 +1,101 @@
+package cern.colt.matrix.tfloat.algo;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.matrix.tfloat.FloatMatrix1D;
+import cern.colt.matrix.tfloat.FloatMatrix2D;
+import cern.colt.matrix.tfloat.impl.DenseFloatMatrix1D;
+import cern.colt.matrix.tfloat.impl.DenseFloatMatrix2D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class FloatSortingTest extends TestCase {
+
+    protected int NROWS = 1001;
+
+    protected int NCOLUMNS = 5;
+
+    protected FloatMatrix2D A;
+
+    public FloatSortingTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        ConcurrencyUtils.setThreadsBeginN_1D(1);
+        Random random = new Random(0);
+        A = new DenseFloatMatrix2D(NROWS, NCOLUMNS);
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                A.setQuick(r, c, random.nextInt(4) - 1.5f);
+            }
+        }
+        A.setQuick(7, 1, Float.NaN);
+    }
+
+    protected void tearDown() throws Exception {
+        ConcurrencyUtils.resetThreadsBeginN();
+    }
+
+    public void testSortIndex() {
+        FloatMatrix1D column = A.viewColumn(1);
+        int[] indexes = FloatSorting.quickSort.sortIndex(column);
+        assertEquals(NROWS, indexes.length);
+        assertEquals(7, indexes[NROWS - 1]);
+        for (int i = 1; i < NROWS - 1; i++) {
+            assertTrue(column.getQuick(indexes[i - 1]) <= column.getQuick(indexes[i]));
+            // stable: equal values keep their order
+            if (column.getQuick(indexes[i - 1]) == column.getQuick(indexes[i]))
+                assertTrue(indexes[i - 1] < indexes[i]);
+        }
+        assertTrue(java.util.Arrays.equals(indexes, FloatSorting.mergeSort.sortIndex(column)));
+        FloatMatrix1D sorted = FloatSorting.mergeSort.sort(A.viewColumn(2).viewPart(10, 100));
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(sorted.getQuick(i - 1) <= sorted.getQuick(i));
+        }
+    }
+
+    public void testSignedZero() {
+        FloatMatrix1D vector = new DenseFloatMatrix1D(new float[] { 0, 1, -0.0f, -1, 0, -0.0f });
+        int[] indexes = FloatSorting.quickSort.sortIndex(vector);
+        assertTrue(java.util.Arrays.equals(new int[] { 3, 2, 5, 0, 4, 1 }, indexes));
+    }
+
+    public void testSortColumn() {
+        FloatMatrix2D sorted = FloatSorting.quickSort.sort(A, 0);
+        for (int r = 1; r < NROWS; r++) {
+            assertTrue(sorted.getQuick(r - 1, 0) <= sorted.getQuick(r, 0));
+        }
+    }
+
+    public void testSortByColumns() {
+        int[] columns = new int[] { 3, 0, 4 };
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setNumberOfThreads(1);
+            FloatMatrix2D expected = FloatSorting.quickSort.sortByColumns(A, columns);
+            ConcurrencyUtils.setNumberOfThreads(3);
+            FloatMatrix2D sorted = FloatSorting.quickSort.sortByColumns(A, columns);
+            assertEquals(NROWS, sorted.rows());
+            for (int r = 0; r < NROWS; r++) {
+                for (int c = 0; c < NCOLUMNS; c++) {
+                    assertEquals(expected.getQuick(r, c), sorted.getQuick(r, c), 1e-3f);
+                }
+            }
+            for (int r = 1; r < NROWS; r++) {
+                int cmp = 0;
+                for (int i = 0; i < columns.length && cmp == 0; i++) {
+                    cmp = Float.compare(sorted.getQuick(r - 1, columns[i]), sorted.getQuick(r, columns[i]));
+                }
+                assertTrue(cmp <= 0);
+            }
+            float sum = 0;
+            for (int r = 0; r < NROWS; r++) {
+                sum += sorted.getQuick(r, 2) - A.getQuick(r, 2);
+            }
+            assertEquals(0, sum, 1e-3f);
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package cern.colt.matrix.tfloat.impl;
 
+import cern.colt.function.tfloat.Float9Function;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.tfcomplex.FComplexMatrix2D;
 import cern.colt.matrix.tfcomplex.impl.DenseFComplexMatrix2D;
 import cern.colt.matrix.tfloat.FloatMatrix2D;
@@ -224,4 +226,50 @@ public class DenseFloatMatrix2DTest extends FloatMatrix2DTest {
         }
     }
 
+    public void testZAssign8Neighbors() {
+        Float9Function f = new Float9Function() {
+            public float apply(float a00, float a01, float a02, float a10, float a11, float a12, float a20,
+                    float a21, float a22) {
+                return a00 + 2 * a01 + 3 * a02 + 4 * a10 + 5 * a11 + 6 * a12 + 7 * a20 + 8 * a21 + 9 * a22;
+            }
+        };
+        float constant = 0.5f;
+        for (Boundary boundary : Boundary.values()) {
+            B.assign(-1);
+            A.zAssign8Neighbors(B, f, boundary, constant);
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    boolean border = r == 0 || r == A.rows() - 1 || c == 0 || c == A.columns() - 1;
+                    if (boundary == Boundary.Skip && border) {
+                        assertEquals(-1, B.getQuick(r, c), TOL);
+                        continue;
+                    }
+                    float expected = 0;
+                    int w = 1;
+                    for (int i = r - 1; i <= r + 1; i++) {
+                        for (int j = c - 1; j <= c + 1; j++) {
+                            expected += w++ * neighbor(A, i, j, boundary, constant);
+                        }
+                    }
+                    assertEquals(expected, B.getQuick(r, c), TOL);
+                }
+            }
+        }
+    }
+
+    private static float neighbor(FloatMatrix2D M, int r, int c, Boundary boundary, float constant) {
+        int rows = M.rows();
+        int columns = M.columns();
+        if (r >= 0 && r < rows && c >= 0 && c < columns)
+            return M.getQuick(r, c);
+        switch (boundary) {
+        case Clamp:
+            return M.getQuick(Math.min(Math.max(r, 0), rows - 1), Math.min(Math.max(c, 0), columns - 1));
+        case Wrap:
+            return M.getQuick((r + rows) % rows, (c + columns) % columns);
+        default:
+            return constant;
+        }
+    }
+
 }
@@ -1,5 +1,7 @@
 package cern.colt.matrix.tfloat.impl;
 
+import cern.colt.function.tfloat.Float27Function;
+import cern.colt.matrix.Boundary;
 import cern.colt.matrix.tfcomplex.FComplexMatrix3D;
 import cern.colt.matrix.tfcomplex.impl.DenseFComplexMatrix3D;
 import cern.colt.matrix.tfloat.FloatMatrix3D;
@@ -167,4 +169,62 @@ public class DenseFloatMatrix3DTest extends FloatMatrix3DTest {
         }
     }
 
+    public void testZAssign27Neighbors() {
+        Float27Function f = new Float27Function() {
+            public float apply(float a000, float a001, float a002, float a010, float a011, float a012,
+                    float a020, float a021, float a022, float a100, float a101, float a102, float a110,
+                    float a111, float a112, float a120, float a121, float a122, float a200, float a201,
+                    float a202, float a210, float a211, float a212, float a220, float a221, float a222) {
+                return a000 + 2 * a001 + 3 * a002 + 4 * a010 + 5 * a011 + 6 * a012 + 7 * a020 + 8 * a021 + 9 * a022
+                        + 10 * a100 + 11 * a101 + 12 * a102 + 13 * a110 + 14 * a111 + 15 * a112 + 16 * a120 + 17
+                        * a121 + 18 * a122 + 19 * a200 + 20 * a201 + 21 * a202 + 22 * a210 + 23 * a211 + 24 * a212
+                        + 25 * a220 + 26 * a221 + 27 * a222;
+            }
+        };
+        float constant = 0.5f;
+        for (Boundary boundary : Boundary.values()) {
+            B.assign(-1);
+            A.zAssign27Neighbors(B, f, boundary, constant);
+            for (int s = 0; s < A.slices(); s++) {
+                for (int r = 0; r < A.rows(); r++) {
+                    for (int c = 0; c < A.columns(); c++) {
+                        boolean border = s == 0 || s == A.slices() - 1 || r == 0 || r == A.rows() - 1 || c == 0
+                                || c == A.columns() - 1;
+                        if (boundary == Boundary.Skip && border) {
+                            assertEquals(-1, B.getQuick(s, r, c), TOL);
+                            continue;
+                        }
+                        float expected = 0;
+                        int w = 1;
+                        for (int k = s - 1; k <= s + 1; k++) {
+                            for (int i = r - 1; i <= r + 1; i++) {
+                                for (int j = c - 1; j <= c + 1; j++) {
+                                    expected += w++ * neighbor(A, k, i, j, boundary, constant);
+                                }
+                            }
+                        }
+                        assertEquals(expected, B.getQuick(s, r, c), TOL);
+                    }
+                }
+            }
+        }
+    }
+
+    private static float neighbor(FloatMatrix3D M, int s, int r, int c, Boundary boundary, float constant) {
+        int slices = M.slices();
+        int rows = M.rows();
+        int columns = M.columns();
+        if (s >= 0 && s < slices && r >= 0 && r < rows && c >= 0 && c < columns)
+            return M.getQuick(s, r, c);
+        switch (boundary) {
+        case Clamp:
+            return M.getQuick(Math.min(Math.max(s, 0), slices - 1), Math.min(Math.max(r, 0), rows - 1), Math.min(
+                    Math.max(c, 0), columns - 1));
+        case Wrap:
+            return M.getQuick((s + slices) % slices, (r + rows) % rows, (c + columns) % columns);
+        default:
+            return constant;
+        }
+    }
+
 }
@@ -2,6 +2,7 @@ package cern.colt.matrix.tint;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import cern.colt.matrix.tint.algo.IntSortingTest;
 import cern.colt.matrix.tint.impl.DenseColumnIntMatrix2DTest;
 import cern.colt.matrix.tint.impl.DenseColumnIntMatrix2DViewTest;
 import cern.colt.matrix.tint.impl.DenseIntMatrix1DTest;
@@ -69,6 +70,8 @@ public class AllIntMatrixTests {
         suite.addTestSuite(DenseLargeIntMatrix3DTest.class);
         suite.addTestSuite(DenseLargeIntMatrix3DViewTest.class);
 
+        suite.addTestSuite(IntSortingTest.class);
+
         return suite;
     }
 }
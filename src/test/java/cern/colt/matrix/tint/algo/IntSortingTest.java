@@ -0,0 +1,92 @@
+package cern.colt.matrix.tint.algo;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.matrix.tint.IntMatrix1D;
+import cern.colt.matrix.tint.IntMatrix2D;
+import cern.colt.matrix.tint.impl.DenseIntMatrix2D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class IntSortingTest extends TestCase {
+
+    protected int NROWS = 1001;
+
+    protected int NCOLUMNS = 5;
+
+    protected IntMatrix2D A;
+
+    public IntSortingTest(String arg0) {
+        super(arg0);
+    }
+
+    protected void setUp() throws Exception {
+        ConcurrencyUtils.setThreadsBeginN_1D(1);
+        Random random = new Random(0);
+        A = new DenseIntMatrix2D(NROWS, NCOLUMNS);
+        for (int r = 0; r < NROWS; r++) {
+            for (int c = 0; c < NCOLUMNS; c++) {
+                A.setQuick(r, c, (random.nextInt(4) - 1) * 100003);
+            }
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        ConcurrencyUtils.resetThreadsBeginN();
+    }
+
+    public void testSortIndex() {
+        IntMatrix1D column = A.viewColumn(1);
+        int[] indexes = IntSorting.quickSort.sortIndex(column);
+        assertEquals(NROWS, indexes.length);
+        for (int i = 1; i < NROWS; i++) {
+            assertTrue(column.getQuick(indexes[i - 1]) <= column.getQuick(indexes[i]));
+            // stable: equal values keep their order
+            if (column.getQuick(indexes[i - 1]) == column.getQuick(indexes[i]))
+                assertTrue(indexes[i - 1] < indexes[i]);
+        }
+        assertTrue(java.util.Arrays.equals(indexes, IntSorting.mergeSort.sortIndex(column)));
+        IntMatrix1D sorted = IntSorting.mergeSort.sort(A.viewColumn(2).viewPart(10, 100));
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(sorted.getQuick(i - 1) <= sorted.getQuick(i));
+        }
+    }
+
+    public void testSortColumn() {
+        IntMatrix2D sorted = IntSorting.quickSort.sort(A, 0);
+        for (int r = 1; r < NROWS; r++) {
+            assertTrue(sorted.getQuick(r - 1, 0) <= sorted.getQuick(r, 0));
+        }
+    }
+
+    public void testSortByColumns() {
+        int[] columns = new int[] { 3, 0, 4 };
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setNumberOfThreads(1);
+            IntMatrix2D expected = IntSorting.quickSort.sortByColumns(A, columns);
+            ConcurrencyUtils.setNumberOfThreads(3);
+            IntMatrix2D sorted = IntSorting.quickSort.sortByColumns(A, columns);
+            assertEquals(NROWS, sorted.rows());
+            for (int r = 0; r < NROWS; r++) {
+                for (int c = 0; c < NCOLUMNS; c++) {
+                    assertEquals(expected.getQuick(r, c), sorted.getQuick(r, c));
+                }
+            }
+            for (int r = 1; r < NROWS; r++) {
+                int cmp = 0;
+                for (int i = 0; i < columns.length && cmp == 0; i++) {
+                    cmp = Integer.compare(sorted.getQuick(r - 1, columns[i]), sorted.getQuick(r, columns[i]));
+                }
+                assertTrue(cmp <= 0);
+            }
+            int sum = 0;
+            for (int r = 0; r < NROWS; r++) {
+                sum += sorted.getQuick(r, 2) - A.getQuick(r, 2);
+            }
+            assertEquals(0, sum);
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package cern.colt.matrix.tint.impl;
 
+import cern.colt.function.tint.Int9Function;
+import cern.colt.matrix.Boundary;
+import cern.colt.matrix.tint.IntMatrix2D;
 import cern.colt.matrix.tint.IntMatrix2DTest;
 
 public class DenseIntMatrix2DTest extends IntMatrix2DTest {
@@ -27,4 +30,51 @@ public class DenseIntMatrix2DTest extends IntMatrix2DTest {
             }
         }
     }
+
+    public void testZAssign8Neighbors() {
+        Int9Function f = new Int9Function() {
+            public int apply(int a00, int a01, int a02, int a10, int a11, int a12, int a20,
+                    int a21, int a22) {
+                return a00 + 2 * a01 + 3 * a02 + 4 * a10 + 5 * a11 + 6 * a12 + 7 * a20 + 8 * a21 + 9 * a22;
+            }
+        };
+        int constant = 5;
+        for (Boundary boundary : Boundary.values()) {
+            B.assign(-1);
+            A.zAssign8Neighbors(B, f, boundary, constant);
+            for (int r = 0; r < A.rows(); r++) {
+                for (int c = 0; c < A.columns(); c++) {
+                    boolean border = r == 0 || r == A.rows() - 1 || c == 0 || c == A.columns() - 1;
+                    if (boundary == Boundary.Skip && border) {
+                        assertEquals(-1, B.getQuick(r, c));
+                        continue;
+                    }
+                    int expected = 0;
+                    int w = 1;
+                    for (int i = r - 1; i <= r + 1; i++) {
+                        for (int j = c - 1; j <= c + 1; j++) {
+                            expected += w++ * neighbor(A, i, j, boundary, constant);
+                        }
+                    }
+                    assertEquals(expected, B.getQuick(r, c));
+                }
+            }
+        }
+    }
+
+    private static int neighbor(IntMatrix2D M, int r, int c, Boundary boundary, int constant) {
+        int rows = M.rows();
+        int columns = M.columns();
+        if (r >= 0 && r < rows && c >= 0 && c < columns)
+            return M.getQuick(r, c);
+        switch (boundary) {
+        case Clamp:
+            return M.getQuick(Math.min(Math.max(r, 0), rows - 1), Math.min(Math.max(c, 0), columns - 1));
+        case Wrap:
+            return M.getQuick((r + rows) % rows, (c + columns) % columns);
+        default:
+            return constant;
+        }
+    }
+
 }
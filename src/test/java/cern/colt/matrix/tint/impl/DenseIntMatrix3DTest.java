@@ -1,5 +1,8 @@
 package cern.colt.matrix.tint.impl;
 
+import cern.colt.function.tint.Int27Function;
+import cern.colt.matrix.Boundary;
+import cern.colt.matrix.tint.IntMatrix3D;
 import cern.colt.matrix.tint.IntMatrix3DTest;
 
 public class DenseIntMatrix3DTest extends IntMatrix3DTest {
@@ -13,4 +16,62 @@ public class DenseIntMatrix3DTest extends IntMatrix3DTest {
         B = new DenseIntMatrix3D(NSLICES, NROWS, NCOLUMNS);
     }
 
+    public void testZAssign27Neighbors() {
+        Int27Function f = new Int27Function() {
+            public int apply(int a000, int a001, int a002, int a010, int a011, int a012,
+                    int a020, int a021, int a022, int a100, int a101, int a102, int a110,
+                    int a111, int a112, int a120, int a121, int a122, int a200, int a201,
+                    int a202, int a210, int a211, int a212, int a220, int a221, int a222) {
+                return a000 + 2 * a001 + 3 * a002 + 4 * a010 + 5 * a011 + 6 * a012 + 7 * a020 + 8 * a021 + 9 * a022
+                        + 10 * a100 + 11 * a101 + 12 * a102 + 13 * a110 + 14 * a111 + 15 * a112 + 16 * a120 + 17
+                        * a121 + 18 * a122 + 19 * a200 + 20 * a201 + 21 * a202 + 22 * a210 + 23 * a211 + 24 * a212
+                        + 25 * a220 + 26 * a221 + 27 * a222;
+            }
+        };
+        int constant = 5;
+        for (Boundary boundary : Boundary.values()) {
+            B.assign(-1);
+            A.zAssign27Neighbors(B, f, boundary, constant);
+            for (int s = 0; s < A.slices(); s++) {
+                for (int r = 0; r < A.rows(); r++) {
+                    for (int c = 0; c < A.columns(); c++) {
+                        boolean border = s == 0 || s == A.slices() - 1 || r == 0 || r == A.rows() - 1 || c == 0
+                                || c == A.columns() - 1;
+                        if (boundary == Boundary.Skip && border) {
+                            assertEquals(-1, B.getQuick(s, r, c));
+                            continue;
+                        }
+                        int expected = 0;
+                        int w = 1;
+                        for (int k = s - 1; k <= s + 1; k++) {
+                            for (int i = r - 1; i <= r + 1; i++) {
+                                for (int j = c - 1; j <= c + 1; j++) {
+                                    expected += w++ * neighbor(A, k, i, j, boundary, constant);
+                                }
+                            }
+                        }
+                        assertEquals(expected, B.getQuick(s, r, c));
+                    }
+                }
+            }
+        }
+    }
+
+    private static int neighbor(IntMatrix3D M, int s, int r, int c, Boundary boundary, int constant) {
+        int slices = M.slices();
+        int rows = M.rows();
+        int columns = M.columns();
+        if (s >= 0 && s < slices && r >= 0 && r < rows && c >= 0 && c < columns)
+            return M.getQuick(s, r, c);
+        switch (boundary) {
+        case Clamp:
+            return M.getQuick(Math.min(Math.max(s, 0), slices - 1), Math.min(Math.max(r, 0), rows - 1), Math.min(
+                    Math.max(c, 0), columns - 1));
+        case Wrap:
+            return M.getQuick((s + slices) % slices, (r + rows) % rows, (c + columns) % columns);
+        default:
+            return constant;
+        }
+    }
+
 }
@@ -2,6 +2,7 @@ package cern.colt.matrix.tlong;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import cern.colt.matrix.tlong.algo.LongSortingTest;
 import cern.colt.matrix.tlong.impl.DenseColumnLongMatrix2DTest;
 import cern.colt.matrix.tlong.impl.DenseColumnLongMatrix2DViewTest;
 import cern.colt.matrix.tlong.impl.DenseLargeLongMatrix2DTest;
@@ -69,6 +70,8 @@ public class AllLongMatrixTests {
         suite.addTestSuite(DenseLargeLongMatrix3DTest.class);
         suite.addTestSuite(DenseLargeLongMatrix3DViewTest.class);
 
+        suite.addTestSuite(LongSortingTest.class);
+
         return suite;
     }
 }
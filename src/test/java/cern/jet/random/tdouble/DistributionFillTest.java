@@ -0,0 +1,119 @@
+package cern.jet.random.tdouble;
+
+import junit.framework.TestCase;
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix1D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D;
+import cern.jet.random.tdouble.engine.DoubleMersenneTwister;
+import cern.jet.random.tdouble.engine.Philox4x32;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class DistributionFillTest extends TestCase {
+
+    private static final int N = 200000;
+
+    public DistributionFillTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testExponentialMoments() {
+        double lambda = 2.5;
+        double[] values = new double[N];
+        new Exponential(lambda, new Philox4x32(7)).fill(values, 0, N);
+        for (int i = 0; i < N; i++) {
+            assertTrue(values[i] >= 0);
+        }
+        assertMoments(values, 1 / lambda, 1 / (lambda * lambda));
+    }
+
+    public void testMatrixFill() {
+        Normal normal = new Normal(0, 1, new Philox4x32(3));
+        DoubleMatrix2D A = new DenseDoubleMatrix2D(123, 457);
+        normal.fill(A);
+        double[] values = new double[(int) A.size()];
+        new Normal(0, 1, new Philox4x32(3)).fill(values, 0, values.length);
+        for (int r = 0; r < A.rows(); r++) {
+            for (int c = 0; c < A.columns(); c++) {
+                assertEquals(values[r * A.columns() + c], A.getQuick(r, c), 0);
+            }
+        }
+        DoubleMatrix1D B = new DenseDoubleMatrix1D(2 * values.length).viewStrides(2);
+        new Normal(0, 1, new Philox4x32(3)).fill(B);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], B.getQuick(i), 0);
+        }
+    }
+
+    public void testNonSplittableEngine() {
+        double[] values = new double[N];
+        new Normal(1, 2, new DoubleMersenneTwister(11)).fill(values, 0, N);
+        assertMoments(values, 1, 4);
+    }
+
+    public void testNormalMoments() {
+        double[] values = new double[N];
+        new Normal(-3, 0.5, new Philox4x32(5)).fill(values, 0, N);
+        assertMoments(values, -3, 0.25);
+        int tail = 0;
+        for (int i = 0; i < N; i++) {
+            if (Math.abs(values[i] + 3) > 0.5 * 3.442619855899)
+                tail++;
+        }
+        // P(|Z| > 3.4426) is about 5.76e-4
+        double expected = 5.76e-4 * N;
+        assertEquals(expected, tail, 5 * Math.sqrt(expected));
+    }
+
+    public void testReproducible() {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            ConcurrencyUtils.setNumberOfThreads(1);
+            double[] serial = fillAll(17);
+            ConcurrencyUtils.setNumberOfThreads(3);
+            double[] parallel = fillAll(17);
+            assertEquals(serial.length, parallel.length);
+            for (int i = 0; i < serial.length; i++) {
+                assertEquals(serial[i], parallel[i], 0);
+            }
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+
+    public void testUniformRange() {
+        double[] values = new double[N];
+        new DoubleUniform(-2, 6, new Philox4x32(9)).fill(values, 0, N);
+        for (int i = 0; i < N; i++) {
+            assertTrue(values[i] > -2 && values[i] < 6);
+        }
+        assertMoments(values, 2, 64.0 / 12);
+    }
+
+    private static void assertMoments(double[] values, double mean, double variance) {
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i];
+            sumOfSquares += values[i] * values[i];
+        }
+        int n = values.length;
+        double m = sum / n;
+        double v = sumOfSquares / n - m * m;
+        assertEquals(mean, m, 5 * Math.sqrt(variance / n));
+        assertEquals(variance, v, 0.02 * variance);
+    }
+
+    private static double[] fillAll(long seed) {
+        Philox4x32 engine = new Philox4x32(seed);
+        double[] values = new double[4 * N + 1];
+        new Normal(0, 1, engine).fill(values, 0, N);
+        new Exponential(1, engine).fill(values, N, N);
+        new DoubleUniform(0, 1, engine).fill(values, 2 * N, N);
+        new NegativeBinomial(5, 0.3, engine).fill(values, 3 * N, N);
+        values[4 * N] = engine.nextDouble();
+        return values;
+    }
+}
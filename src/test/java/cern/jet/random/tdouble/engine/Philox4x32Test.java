@@ -0,0 +1,99 @@
+package cern.jet.random.tdouble.engine;
+
+import junit.framework.TestCase;
+import cern.colt.matrix.tdouble.DoubleFactory1D;
+import cern.colt.matrix.tdouble.DoubleFactory2D;
+import cern.colt.matrix.tdouble.DoubleFactory3D;
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
+import cern.colt.matrix.tdouble.DoubleMatrix3D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class Philox4x32Test extends TestCase {
+
+    public Philox4x32Test(String arg0) {
+        super(arg0);
+    }
+
+    public void testKnownAnswers() {
+        // Random123 known answer tests for philox4x32_10
+        Philox4x32 engine = new Philox4x32(0, 0);
+        assertEquals(0x6627e8d5, engine.nextInt());
+        assertEquals(0xe169c58d, engine.nextInt());
+        assertEquals(0xbc57ac4c, engine.nextInt());
+        assertEquals(0x9b00dbd8, engine.nextInt());
+        int[] block = new int[4];
+        new Philox4x32(-1L, -1L).generate(-1L, block);
+        assertEquals(0x408f276d, block[0]);
+        assertEquals(0x41c83b0e, block[1]);
+        assertEquals(0xa20bc7c6, block[2]);
+        assertEquals(0x6d5451fd, block[3]);
+        new Philox4x32(0x299f31d0a4093822L, 0x0370734413198a2eL).generate(0x85a308d3243f6a88L, block);
+        assertEquals(0xd16cfe09, block[0]);
+        assertEquals(0x94fdcceb, block[1]);
+        assertEquals(0x5001e420, block[2]);
+        assertEquals(0x24126ea1, block[3]);
+    }
+
+    public void testSeek() {
+        Philox4x32 engine = new Philox4x32(42);
+        int[] ints = new int[103];
+        engine.nextInts(ints, 0, ints.length);
+        assertEquals(ints.length, engine.getPosition());
+        for (int p = 0; p < ints.length; p += 7) {
+            engine.seek(p);
+            assertEquals(ints[p], engine.nextInt());
+        }
+        double[] doubles = new double[50];
+        engine.seek(1);
+        engine.nextDoubles(doubles, 0, doubles.length);
+        engine.seek(1);
+        for (int i = 0; i < doubles.length; i++) {
+            double d = engine.nextDouble();
+            assertEquals(d, doubles[i]);
+            assertTrue(d > 0 && d < 1);
+        }
+        engine.seek(6);
+        engine.nextDoubles(doubles, 0, doubles.length);
+        engine.seek(6);
+        for (int i = 0; i < doubles.length; i++) {
+            assertEquals(engine.nextDouble(), doubles[i]);
+        }
+    }
+
+    public void testSplit() {
+        SplittableDoubleRandomEngine[] a = new Philox4x32(7).split(3);
+        SplittableDoubleRandomEngine[] b = new Philox4x32(7).split(3);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(a[i].nextLong(), b[i].nextLong());
+        }
+        assertTrue(a[0].nextLong() != a[1].nextLong());
+    }
+
+    public void testFactoryRandom() {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            ConcurrencyUtils.setThreadsBeginN_2D(1);
+            ConcurrencyUtils.setThreadsBeginN_3D(1);
+            ConcurrencyUtils.setNumberOfThreads(1);
+            DoubleMatrix1D a1 = DoubleFactory1D.dense.random(1001, 5);
+            DoubleMatrix2D a2 = DoubleFactory2D.dense.random(31, 17, 5);
+            DoubleMatrix3D a3 = DoubleFactory3D.dense.random(7, 5, 3, 5);
+            ConcurrencyUtils.setNumberOfThreads(3);
+            assertEquals(a1, DoubleFactory1D.dense.random(1001, 5));
+            assertEquals(a2, DoubleFactory2D.dense.random(31, 17, 5));
+            assertEquals(a2, DoubleFactory2D.sparse.random(31, 17, 5));
+            assertEquals(a3, DoubleFactory3D.dense.random(7, 5, 3, 5));
+            Philox4x32 engine = new Philox4x32(5);
+            assertEquals(engine.nextDouble(), a2.getQuick(0, 0));
+            engine.seek(2L * (3 * 17 + 4));
+            assertEquals(engine.nextDouble(), a2.getQuick(3, 4));
+            engine.seek(2L * (4 * 5 * 3 + 2 * 3 + 1));
+            assertEquals(engine.nextDouble(), a3.getQuick(4, 2, 1));
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+}
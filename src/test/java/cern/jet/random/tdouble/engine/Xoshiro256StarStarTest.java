@@ -0,0 +1,42 @@
+package cern.jet.random.tdouble.engine;
+
+import junit.framework.TestCase;
+
+public class Xoshiro256StarStarTest extends TestCase {
+
+    public Xoshiro256StarStarTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testReferenceOutput() {
+        Xoshiro256StarStar engine = new Xoshiro256StarStar(1, 2, 3, 4);
+        assertEquals(11520L, engine.nextLong());
+        assertEquals(0L, engine.nextLong());
+        assertEquals(1509978240L, engine.nextLong());
+        assertEquals(1215971899390074240L, engine.nextLong());
+    }
+
+    public void testNextDoubles() {
+        Xoshiro256StarStar a = new Xoshiro256StarStar(11);
+        Xoshiro256StarStar b = (Xoshiro256StarStar) a.clone();
+        double[] values = new double[100];
+        a.nextDoubles(values, 10, 80);
+        for (int i = 10; i < 90; i++) {
+            assertEquals(b.nextDouble(), values[i]);
+            assertTrue(values[i] > 0 && values[i] < 1);
+        }
+        assertEquals(b.nextLong(), a.nextLong());
+    }
+
+    public void testSplit() {
+        Xoshiro256StarStar a = new Xoshiro256StarStar(3);
+        Xoshiro256StarStar b = (Xoshiro256StarStar) a.clone();
+        SplittableDoubleRandomEngine first = a.split();
+        assertEquals(b.nextLong(), first.nextLong());
+        Xoshiro256StarStar c = new Xoshiro256StarStar(3);
+        c.jump();
+        assertEquals(c.nextLong(), a.nextLong());
+        SplittableDoubleRandomEngine[] streams = new Xoshiro256StarStar(3).split(2);
+        assertTrue(streams[0].nextLong() != streams[1].nextLong());
+    }
+}
@@ -0,0 +1,107 @@
+package cern.jet.random.tdouble.sampling;
+
+import junit.framework.TestCase;
+import cern.colt.list.tint.IntArrayList;
+import cern.jet.random.tdouble.engine.DoubleMersenneTwister;
+import cern.jet.random.tdouble.engine.Philox4x32;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class AliasDoubleRandomSamplerTest extends TestCase {
+
+    public AliasDoubleRandomSamplerTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testFrequencies() {
+        double[] weights = { 1, 0, 3, 0.5, 5.5, 0, 10 };
+        AliasDoubleRandomSampler sampler = new AliasDoubleRandomSampler(weights, new Philox4x32(1));
+        IntArrayList values = new IntArrayList();
+        values.setSize(400000);
+        sampler.fill(values);
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < values.size(); i++) {
+            counts[values.getQuick(i)]++;
+        }
+        for (int k = 0; k < weights.length; k++) {
+            double p = weights[k] / 20;
+            double expected = p * values.size();
+            assertEquals(expected, counts[k], 5 * Math.sqrt(expected * (1 - p)) + 1e-9);
+        }
+        assertEquals(0, counts[1]);
+        assertEquals(0, counts[5]);
+    }
+
+    public void testIllegalWeights() {
+        try {
+            new AliasDoubleRandomSampler(new double[] { 1, -1 }, new DoubleMersenneTwister());
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new AliasDoubleRandomSampler(new double[] { 0, 0 }, new DoubleMersenneTwister());
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new AliasDoubleRandomSampler(new double[0], new DoubleMersenneTwister());
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    public void testTable() {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            double[] weights = randomWeights(100003);
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            ConcurrencyUtils.setNumberOfThreads(1);
+            AliasDoubleRandomSampler serial = new AliasDoubleRandomSampler(weights, new Philox4x32(0));
+            ConcurrencyUtils.setNumberOfThreads(3);
+            AliasDoubleRandomSampler parallel = new AliasDoubleRandomSampler(weights, new Philox4x32(0));
+            for (int i = 0; i < weights.length; i++) {
+                assertEquals(serial.probability[i], parallel.probability[i], 0);
+                assertEquals(serial.alias[i], parallel.alias[i]);
+            }
+            // the table must encode the weights exactly, up to rounding
+            double[] mass = new double[weights.length];
+            for (int i = 0; i < weights.length; i++) {
+                double p = parallel.probability[i];
+                assertTrue(p >= 0 && p <= 1);
+                mass[i] += p;
+                mass[parallel.alias[i]] += 1 - p;
+            }
+            double scale = weights.length / parallel.getTotalWeight();
+            for (int i = 0; i < weights.length; i++) {
+                assertEquals(weights[i] * scale, mass[i], 1e-9);
+            }
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+
+    public void testUniform() {
+        double[] weights = new double[1000];
+        java.util.Arrays.fill(weights, 0.1);
+        AliasDoubleRandomSampler sampler = new AliasDoubleRandomSampler(weights, new Philox4x32(3));
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(0.001, sampler.pdf(i), 1e-12);
+        }
+        int[] values = new int[10000];
+        sampler.nextInts(values, 0, values.length);
+        for (int i = 0; i < values.length; i++) {
+            assertTrue(values[i] >= 0 && values[i] < weights.length);
+        }
+    }
+
+    private static double[] randomWeights(int n) {
+        Philox4x32 engine = new Philox4x32(99);
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            double u = engine.nextDouble();
+            // a mix of zeros, small and very large weights
+            weights[i] = (i % 17 == 0) ? 0 : (u < 0.01 ? 1000 * u : u * u);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,159 @@
+package cern.jet.random.tdouble.sampling;
+
+import junit.framework.TestCase;
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.list.tlong.LongArrayList;
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix1D;
+import cern.jet.random.tdouble.engine.DoubleMersenneTwister;
+import cern.jet.random.tdouble.engine.Philox4x32;
+import cern.jet.random.tdouble.engine.Xoshiro256StarStar;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class DoubleReservoirSamplerTest extends TestCase {
+
+    public DoubleReservoirSamplerTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testMerge() {
+        Xoshiro256StarStar engine = new Xoshiro256StarStar(5);
+        int trials = 20000;
+        int[] counts = new int[30];
+        for (int t = 0; t < trials; t++) {
+            DoubleReservoirSampler a = new DoubleReservoirSampler(6, engine.split());
+            DoubleReservoirSampler b = new DoubleReservoirSampler(6, engine.split());
+            for (int i = 0; i < 10; i++) {
+                a.add(i);
+            }
+            for (int i = 10; i < 30; i++) {
+                b.add(i);
+            }
+            a.merge(b);
+            assertEquals(30, a.count());
+            assertEquals(6, a.size());
+            DoubleArrayList values = a.getValues();
+            for (int i = 0; i < values.size(); i++) {
+                counts[(int) values.get(i)]++;
+            }
+        }
+        double expected = trials * 6 / 30.0;
+        for (int i = 0; i < counts.length; i++) {
+            assertEquals(expected, counts[i], 5 * Math.sqrt(expected));
+        }
+    }
+
+    public void testParallelSample() {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            DoubleMatrix1D values = new DenseDoubleMatrix1D(300001);
+            DoubleMatrix1D weights = new DenseDoubleMatrix1D(300001);
+            for (int i = 0; i < values.size(); i++) {
+                values.setQuick(i, -i);
+                weights.setQuick(i, (i % 3 == 0) ? 0 : 1 + i % 7);
+            }
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            ConcurrencyUtils.setNumberOfThreads(1);
+            DoubleReservoirSampler serial = DoubleReservoirSampler.sample(values, weights, 1000, new Philox4x32(8));
+            ConcurrencyUtils.setNumberOfThreads(3);
+            DoubleReservoirSampler parallel = DoubleReservoirSampler.sample(values, weights, 1000, new Philox4x32(8));
+            assertEquals(values.size(), parallel.count());
+            LongArrayList positions = parallel.getPositions();
+            DoubleArrayList sampled = parallel.getValues();
+            assertEquals(1000, positions.size());
+            assertEquals(serial.getPositions(), positions);
+            for (int i = 0; i < positions.size(); i++) {
+                long p = positions.get(i);
+                assertTrue(i == 0 || p > positions.get(i - 1));
+                assertTrue(p % 3 != 0);
+                assertEquals(-p, sampled.get(i), 0);
+            }
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+
+    public void testSortedSample() {
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            int N = 3 * (1 << 20) + 12345;
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            ConcurrencyUtils.setNumberOfThreads(1);
+            int[] serial = DoubleRandomSampler.sample(3000, N, new Philox4x32(2));
+            ConcurrencyUtils.setNumberOfThreads(3);
+            int[] parallel = DoubleRandomSampler.sample(3000, N, new Philox4x32(2));
+            assertEquals(3000, parallel.length);
+            for (int i = 0; i < parallel.length; i++) {
+                assertEquals(serial[i], parallel[i]);
+                assertTrue(parallel[i] >= 0 && parallel[i] < N);
+                assertTrue(i == 0 || parallel[i] > parallel[i - 1]);
+            }
+            int[] all = DoubleRandomSampler.sample(100, 100, new Philox4x32(2));
+            for (int i = 0; i < all.length; i++) {
+                assertEquals(i, all[i]);
+            }
+            // the number falling into the first partition is hypergeometric
+            Philox4x32 engine = new Philox4x32(4);
+            int trials = 400;
+            double sum = 0;
+            for (int t = 0; t < trials; t++) {
+                int[] sample = DoubleRandomSampler.sample(3000, N, engine);
+                for (int i = 0; i < sample.length && sample[i] < (1 << 20); i++) {
+                    sum++;
+                }
+            }
+            double p = (double) (1 << 20) / N;
+            double mean = 3000 * p;
+            assertEquals(mean, sum / trials, 5 * Math.sqrt(mean * (1 - p) / trials));
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+
+    public void testUniform() {
+        DoubleReservoirSampler sampler = new DoubleReservoirSampler(5, new DoubleMersenneTwister(3));
+        int trials = 20000;
+        int[] counts = new int[40];
+        for (int t = 0; t < trials; t++) {
+            sampler.clear();
+            for (int i = 0; i < 40; i++) {
+                sampler.add(i);
+            }
+            LongArrayList positions = sampler.getPositions();
+            assertEquals(5, positions.size());
+            for (int i = 0; i < positions.size(); i++) {
+                counts[(int) positions.get(i)]++;
+            }
+        }
+        double expected = trials * 5 / 40.0;
+        for (int i = 0; i < counts.length; i++) {
+            assertEquals(expected, counts[i], 5 * Math.sqrt(expected));
+        }
+    }
+
+    public void testWeighted() {
+        double[] weights = { 1, 0, 2, 3, 4 };
+        DoubleReservoirSampler sampler = new DoubleReservoirSampler(1, new Philox4x32(6));
+        int trials = 50000;
+        int[] counts = new int[weights.length];
+        for (int t = 0; t < trials; t++) {
+            sampler.clear();
+            for (int i = 0; i < weights.length; i++) {
+                sampler.add(i, weights[i]);
+            }
+            counts[(int) sampler.getValues().get(0)]++;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            double p = weights[i] / 10;
+            double expected = trials * p;
+            assertEquals(expected, counts[i], 5 * Math.sqrt(expected * (1 - p)) + 1e-9);
+        }
+        try {
+            sampler.add(1, -1);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package cern.jet.random.tdouble.sampling;
+
+import junit.framework.TestCase;
+import cern.jet.random.tdouble.engine.Philox4x32;
+
+public class FenwickDoubleRandomSamplerTest extends TestCase {
+
+    public FenwickDoubleRandomSamplerTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testFrequencies() {
+        FenwickDoubleRandomSampler sampler = new FenwickDoubleRandomSampler(13, new Philox4x32(5));
+        for (int i = 0; i < 13; i += 2) {
+            sampler.setWeight(i, i + 1);
+        }
+        sampler.addWeight(12, -13);
+        sampler.setWeight(3, 5);
+        // weights: 1,0,3,5,5,0,7,0,9,0,11,0,0 sum 41
+        double[] expectedWeights = { 1, 0, 3, 5, 5, 0, 7, 0, 9, 0, 11, 0, 0 };
+        assertEquals(41, sampler.getTotalWeight(), 1e-12);
+        int[] values = new int[300000];
+        sampler.fill(values, 0, values.length);
+        int[] counts = new int[13];
+        for (int i = 0; i < values.length; i++) {
+            counts[values[i]]++;
+        }
+        for (int k = 0; k < 13; k++) {
+            double p = expectedWeights[k] / 41;
+            assertEquals(p, sampler.pdf(k), 1e-12);
+            double expected = p * values.length;
+            assertEquals(expected, counts[k], 5 * Math.sqrt(expected * (1 - p)) + 1e-9);
+        }
+    }
+
+    public void testPrefixWeights() {
+        double[] weights = new double[1000];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (i * 7919) % 13;
+        }
+        FenwickDoubleRandomSampler sampler = new FenwickDoubleRandomSampler(weights, new Philox4x32(5));
+        for (int k = 0; k < 3000; k++) {
+            int i = (k * 31) % weights.length;
+            weights[i] = k % 5;
+            sampler.setWeight(i, weights[i]);
+        }
+        double sum = 0;
+        for (int i = 0; i <= weights.length; i++) {
+            assertEquals(sum, sampler.getPrefixWeight(i), 1e-9);
+            if (i < weights.length) {
+                assertEquals(weights[i], sampler.getWeight(i), 0);
+                sum += weights[i];
+            }
+        }
+    }
+
+    public void testZeroWeights() {
+        FenwickDoubleRandomSampler sampler = new FenwickDoubleRandomSampler(4, new Philox4x32(5));
+        try {
+            sampler.nextInt();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        sampler.setWeight(2, 0.5);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2, sampler.nextInt());
+        }
+        try {
+            sampler.setWeight(1, -1);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    public void testZeroedBySetWeight() {
+        FenwickDoubleRandomSampler sampler = new FenwickDoubleRandomSampler(new double[] { 0.1, 0.2 },
+                new Philox4x32(5));
+        sampler.setWeight(0, 0);
+        sampler.setWeight(1, 0);
+        // the partial sums would otherwise keep a rounding residue
+        assertEquals(0, sampler.getTotalWeight(), 0);
+        try {
+            sampler.nextInt();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        try {
+            sampler.nextInts(new int[3], 0, 3);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        sampler.setWeight(1, 0.3);
+        assertEquals(1, sampler.nextInt());
+
+        // the small weight is absorbed by the large one in the tree
+        sampler = new FenwickDoubleRandomSampler(new double[] { 1e17, 1 }, new Philox4x32(5));
+        sampler.setWeight(0, 0);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, sampler.nextInt());
+        }
+        assertEquals(1, sampler.getTotalWeight(), 0);
+    }
+}
@@ -0,0 +1,113 @@
+package cern.jet.stat.tdouble;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix1D;
+import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix1D;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class DoubleMomentsTest extends TestCase {
+
+    private static final int N = 200001;
+
+    public DoubleMomentsTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testEmptyAndSingle() {
+        DoubleMoments moments = new DoubleMoments();
+        assertEquals(0, moments.size());
+        assertTrue(Double.isNaN(moments.mean()));
+        assertEquals(Double.POSITIVE_INFINITY, moments.min(), 0);
+        moments.add(2);
+        assertEquals(2, moments.mean(), 0);
+        assertEquals(0, moments.variance(), 0);
+        assertEquals(2, moments.min(), 0);
+        assertEquals(2, moments.max(), 0);
+        try {
+            moments.moment(5, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    public void testAgainstDescriptive() {
+        Random random = new Random(11);
+        DoubleArrayList list = new DoubleArrayList(N);
+        for (int i = 0; i < N; i++) {
+            // large offset compared to the spread, skewed
+            list.add(1e4 + Math.exp(random.nextGaussian()));
+        }
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            for (int t = 1; t <= 3; t += 2) {
+                ConcurrencyUtils.setNumberOfThreads(t);
+                DoubleMoments moments = DoubleDescriptive.moments(list);
+                assertMoments(list, moments);
+                DoubleMoments fromVector = DoubleDescriptive.moments(new DenseDoubleMatrix1D(list.elements()));
+                assertMoments(list, fromVector);
+            }
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+
+    public void testViewsAndMerge() {
+        Random random = new Random(5);
+        DoubleMatrix1D dense = new DenseDoubleMatrix1D(1000);
+        DoubleMatrix1D sparse = new SparseDoubleMatrix1D(1000);
+        for (int i = 0; i < 1000; i++) {
+            double v = 1 + random.nextDouble();
+            dense.setQuick(i, v);
+            sparse.setQuick(i, v);
+        }
+        DoubleMatrix1D view = dense.viewStrides(3).viewPart(10, 200);
+        DoubleArrayList list = new DoubleArrayList(view.toArray());
+        assertMoments(list, DoubleDescriptive.moments(view));
+        assertMoments(list, DoubleDescriptive.moments(sparse.viewStrides(3).viewPart(10, 200)));
+
+        DoubleMoments merged = new DoubleMoments();
+        DoubleMoments part = new DoubleMoments();
+        part.addAllOfFromTo(list, 0, 49);
+        merged.merge(part);
+        part = new DoubleMoments();
+        part.addAllOfFromTo(list, 50, list.size() - 1);
+        merged.merge(part);
+        assertMoments(list, merged);
+        DoubleMoments copy = (DoubleMoments) merged.clone();
+        copy.add(0.5);
+        assertEquals(list.size() + 1, copy.size());
+        assertEquals(list.size(), merged.size());
+    }
+
+    private static void assertMoments(DoubleArrayList list, DoubleMoments moments) {
+        int size = list.size();
+        double mean = DoubleDescriptive.mean(list);
+        double sampleVariance = DoubleDescriptive.sampleVariance(list, mean);
+        double variance = sampleVariance * (size - 1) / size;
+        double sd = Math.sqrt(variance);
+        assertEquals(size, moments.size());
+        assertEquals(DoubleDescriptive.min(list), moments.min(), 0);
+        assertEquals(DoubleDescriptive.max(list), moments.max(), 0);
+        assertEquals(1, moments.sum() / DoubleDescriptive.sum(list), 1e-12);
+        assertEquals(1, moments.sumOfSquares() / DoubleDescriptive.sumOfSquares(list), 1e-12);
+        assertEquals(1, moments.sumOfLogarithms() / DoubleDescriptive.sumOfLogarithms(list, 0, size - 1), 1e-12);
+        assertEquals(1, moments.sumOfInversions() / DoubleDescriptive.sumOfInversions(list, 0, size - 1), 1e-12);
+        assertEquals(1, moments.geometricMean() / DoubleDescriptive.geometricMean(list), 1e-12);
+        assertEquals(1, moments.mean() / mean, 1e-12);
+        assertEquals(1, moments.sampleVariance() / sampleVariance, 1e-9);
+        assertEquals(1, moments.variance() / variance, 1e-9);
+        assertEquals(1, moments.skew() / DoubleDescriptive.skew(list, mean, sd), 1e-8);
+        assertEquals(1, moments.kurtosis() / DoubleDescriptive.kurtosis(list, mean, sd), 1e-8);
+        assertEquals(1, moments.sampleSkew() / DoubleDescriptive.sampleSkew(list, mean, sampleVariance), 1e-8);
+        for (int k = 0; k <= 4; k++) {
+            double expected = DoubleDescriptive.moment(list, k, mean - 0.25);
+            assertEquals("k=" + k, 1, moments.moment(k, mean - 0.25) / expected, 1e-8);
+        }
+    }
+}
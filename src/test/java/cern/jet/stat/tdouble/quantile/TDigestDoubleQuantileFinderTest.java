@@ -0,0 +1,141 @@
+package cern.jet.stat.tdouble.quantile;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.list.tdouble.DoubleArrayList;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class TDigestDoubleQuantileFinderTest extends TestCase {
+
+    private static final int N = 500000;
+
+    public TDigestDoubleQuantileFinderTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testEmptyAndSmall() {
+        TDigestDoubleQuantileFinder digest = DoubleQuantileFinderFactory.newMergeableDoubleQuantileFinder(100);
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        digest.add(3);
+        assertEquals(3, digest.quantile(0), 0);
+        assertEquals(3, digest.quantile(0.5), 0);
+        assertEquals(3, digest.quantile(1), 0);
+        for (int i = 1; i <= 5; i++) {
+            digest.add(10 * i);
+        }
+        assertEquals(6, digest.size());
+        assertEquals(3, digest.quantile(0), 0);
+        assertEquals(50, digest.quantile(1), 0);
+        assertEquals(0, digest.phi(2), 0);
+        assertEquals(1, digest.phi(50), 0);
+    }
+
+    public void testLatencyTails() {
+        // log-normal "latencies" with a heavy right tail
+        Random random = new Random(42);
+        double[] values = new double[N];
+        TDigestDoubleQuantileFinder digest = new TDigestDoubleQuantileFinder(200);
+        for (int i = 0; i < N; i++) {
+            values[i] = Math.exp(random.nextGaussian());
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values[0], digest.quantile(0), 0);
+        assertEquals(values[N - 1], digest.quantile(1), 0);
+        double[] phis = { 0.001, 0.01, 0.1, 0.5, 0.9, 0.99, 0.999, 0.9999 };
+        for (int i = 0; i < phis.length; i++) {
+            double q = digest.quantile(phis[i]);
+            double rank = rank(values, q) / (double) N;
+            double tail = Math.min(phis[i], 1 - phis[i]);
+            // rank error relative to the distance from the nearer end
+            assertEquals("phi=" + phis[i], phis[i], rank, Math.max(0.05 * tail, 2.0 / N));
+            assertEquals(phis[i], digest.phi(q), Math.max(0.05 * tail, 2.0 / N));
+        }
+        assertTrue(digest.memory() < 20 * 200);
+    }
+
+    public void testMergeAndParallelAddAllOf() {
+        Random random = new Random(7);
+        DoubleArrayList list = new DoubleArrayList(N);
+        double[] values = new double[N];
+        for (int i = 0; i < N; i++) {
+            values[i] = random.nextDouble();
+            list.add(values[i]);
+        }
+        Arrays.sort(values);
+        TDigestDoubleQuantileFinder[] parts = new TDigestDoubleQuantileFinder[4];
+        for (int p = 0; p < parts.length; p++) {
+            parts[p] = new TDigestDoubleQuantileFinder(100);
+            parts[p].addAllOfFromTo(list, p * (N / 4), (p + 1) * (N / 4) - 1);
+        }
+        TDigestDoubleQuantileFinder merged = new TDigestDoubleQuantileFinder(100);
+        for (int p = 0; p < parts.length; p++) {
+            merged.merge(parts[p]);
+        }
+        assertEquals(N, merged.size());
+        assertQuantiles(values, merged);
+
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            for (int t = 1; t <= 3; t += 2) {
+                ConcurrencyUtils.setNumberOfThreads(t);
+                TDigestDoubleQuantileFinder digest = new TDigestDoubleQuantileFinder(100);
+                digest.addAllOf(list);
+                assertEquals(N, digest.size());
+                assertQuantiles(values, digest);
+            }
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+
+    public void testSerialization() {
+        Random random = new Random(3);
+        TDigestDoubleQuantileFinder digest = new TDigestDoubleQuantileFinder(100);
+        for (int i = 0; i < 100000; i++) {
+            digest.add(random.nextGaussian());
+        }
+        byte[] bytes = digest.toByteArray();
+        assertTrue(bytes.length < 1000 * 18);
+        TDigestDoubleQuantileFinder copy = TDigestDoubleQuantileFinder.fromByteArray(bytes);
+        assertEquals(digest.size(), copy.size());
+        DoubleArrayList phis = DoubleQuantileFinderFactory.newEquiDepthPhis(100);
+        phis.add(0);
+        phis.add(1);
+        phis.sort();
+        DoubleArrayList expected = digest.quantileElements(phis);
+        DoubleArrayList actual = copy.quantileElements(phis);
+        for (int i = 0; i < phis.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i), 0);
+        }
+        try {
+            TDigestDoubleQuantileFinder.fromByteArray(Arrays.copyOf(bytes, bytes.length - 3));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        TDigestDoubleQuantileFinder clone = (TDigestDoubleQuantileFinder) digest.clone();
+        clone.add(1000);
+        assertEquals(digest.size() + 1, clone.size());
+        assertEquals(1000, clone.quantile(1), 0);
+    }
+
+    private static void assertQuantiles(double[] sorted, TDigestDoubleQuantileFinder digest) {
+        int n = sorted.length;
+        double[] phis = { 0.0001, 0.01, 0.25, 0.5, 0.75, 0.99, 0.9999 };
+        for (int i = 0; i < phis.length; i++) {
+            double rank = rank(sorted, digest.quantile(phis[i])) / (double) n;
+            double tail = Math.min(phis[i], 1 - phis[i]);
+            // merging loses some tail resolution
+            assertEquals("phi=" + phis[i], phis[i], rank, Math.max(0.2 * tail, 2.0 / n));
+        }
+    }
+
+    private static int rank(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
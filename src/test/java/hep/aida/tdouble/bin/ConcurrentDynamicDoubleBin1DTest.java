@@ -0,0 +1,122 @@
+package hep.aida.tdouble.bin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import cern.colt.list.tdouble.DoubleArrayList;
+
+public class ConcurrentDynamicDoubleBin1DTest extends TestCase {
+
+    public ConcurrentDynamicDoubleBin1DTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testConcurrentAdd() throws InterruptedException {
+        final ConcurrentDynamicDoubleBin1D bin = new ConcurrentDynamicDoubleBin1D();
+        final int perThread = 50000;
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t * perThread;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    DoubleArrayList chunk = new DoubleArrayList();
+                    for (int i = 0; i < perThread; i++) {
+                        if (i % 2 == 0) {
+                            bin.add(offset + i);
+                        } else {
+                            chunk.add(offset + i);
+                        }
+                        if (i % 1000 == 0) {
+                            // concurrent reads must not disturb writers
+                            bin.quantile(0.5);
+                        }
+                    }
+                    bin.addAllOfFromTo(chunk, 0, chunk.size() - 1);
+                }
+            });
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+        }
+        int n = threads.length * perThread;
+        assertEquals(n, bin.size());
+        assertEquals(0, bin.min(), 0);
+        assertEquals(n - 1, bin.max(), 0);
+        assertEquals(n * (n - 1.0) / 2, bin.sum(), 0);
+        assertEquals((n - 1) / 2.0, bin.mean(), 1e-9);
+        DoubleArrayList sorted = bin.sortedElements();
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, sorted.getQuick(i), 0);
+        }
+    }
+
+    public void testFixedOrder() {
+        ConcurrentDynamicDoubleBin1D bin = new ConcurrentDynamicDoubleBin1D();
+        bin.setFixedOrder(true);
+        Random random = new Random(5);
+        DoubleArrayList expected = new DoubleArrayList();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 1000; i++) {
+                double x = random.nextGaussian();
+                bin.add(x);
+                expected.add(x);
+            }
+            assertEquals(expected, bin.elements());
+            DoubleArrayList sorted = expected.copy();
+            sorted.sort();
+            assertEquals(sorted, bin.sortedElements());
+        }
+    }
+
+    public void testMatchesDynamicBin() throws Exception {
+        ConcurrentDynamicDoubleBin1D bin = new ConcurrentDynamicDoubleBin1D();
+        DynamicDoubleBin1D reference = new DynamicDoubleBin1D();
+        Random random = new Random(11);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 2500; i++) {
+                double x = 1 + random.nextDouble() * 10;
+                bin.add(x);
+                reference.add(x);
+            }
+            // interleave reads with adds so the sorted snapshot is merged
+            assertEquals(reference.quantile(0.3), bin.quantile(0.3), 0);
+            assertEquals(reference.median(), bin.median(), 0);
+            assertEquals(reference.quantileInverse(5), bin.quantileInverse(5), 0);
+            assertEquals(reference.trimmedMean(10, 20), bin.trimmedMean(10, 20), 1e-9);
+            assertEquals(reference.sumOfLogarithms(), bin.sumOfLogarithms(), 1e-9);
+            assertEquals(reference.harmonicMean(), bin.harmonicMean(), 1e-9);
+            assertEquals(reference.moment(3, 2), bin.moment(3, 2), 1e-9);
+            assertEquals(reference.sumOfPowers(4), bin.sumOfPowers(4), 1e-6);
+            assertEquals(reference.variance(), bin.variance(), 1e-9);
+            assertEquals(reference.kurtosis(), bin.kurtosis(), 1e-9);
+        }
+        assertTrue(bin.equals(reference));
+        assertTrue(reference.equals(bin));
+
+        ConcurrentDynamicDoubleBin1D clone = (ConcurrentDynamicDoubleBin1D) bin.clone();
+        clone.add(100);
+        assertEquals(bin.size() + 1, clone.size());
+
+        bin.add(-1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(bin);
+        out.close();
+        ConcurrentDynamicDoubleBin1D copy = (ConcurrentDynamicDoubleBin1D) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(bin.size(), copy.size());
+        assertEquals(-1, copy.min(), 0);
+        copy.add(-2);
+        assertEquals(-2, copy.min(), 0);
+
+        bin.clear();
+        assertEquals(0, bin.size());
+        bin.add(3);
+        assertEquals(3, bin.median(), 0);
+    }
+}
@@ -0,0 +1,137 @@
+package hep.aida.tdouble.bin;
+
+import junit.framework.TestCase;
+import cern.colt.list.tdouble.DoubleArrayList;
+import cern.jet.random.tdouble.engine.DoubleMersenneTwister;
+import cern.jet.random.tdouble.engine.Xoshiro256StarStar;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class DynamicDoubleBin1DResamplingTest extends TestCase {
+
+    private static final DoubleBinBinFunction1D DIFF = new DoubleBinBinFunction1D() {
+        public double apply(DynamicDoubleBin1D x, DynamicDoubleBin1D y) {
+            return x.mean() - y.mean();
+        }
+    };
+
+    private static final DoubleBinBinFunction1D MEDIAN_DIFF = new DoubleBinBinFunction1D() {
+        public double apply(DynamicDoubleBin1D x, DynamicDoubleBin1D y) {
+            return x.median() - y.median();
+        }
+    };
+
+    public DynamicDoubleBin1DResamplingTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testBootstrapReproducible() {
+        DynamicDoubleBin1D x = bin(0, 500, 1);
+        DynamicDoubleBin1D y = bin(3, 300, 2);
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            ConcurrencyUtils.setNumberOfThreads(1);
+            DoubleArrayList expected = x.sampleBootstrap(y, 1000, new Xoshiro256StarStar(9), MEDIAN_DIFF).elements();
+            ConcurrencyUtils.setNumberOfThreads(3);
+            DoubleArrayList actual = x.sampleBootstrap(y, 1000, new Xoshiro256StarStar(9), MEDIAN_DIFF).elements();
+            assertEquals(1000, actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), actual.get(i), 0);
+            }
+            DynamicDoubleBin1D boot = x.sampleBootstrap(y, 1000, new Xoshiro256StarStar(10), DIFF);
+            // the true difference of means is about -3 + 249.5 - 299
+            assertEquals(x.mean() - y.mean(), boot.mean(), 5);
+            assertTrue(boot.standardDeviation() > 0);
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+        // non-splittable engines keep the serial path
+        DynamicDoubleBin1D serial = x.sampleBootstrap(y, 10, new DoubleMersenneTwister(1), DIFF);
+        assertEquals(10, serial.size());
+    }
+
+    public void testPermutations() {
+        DynamicDoubleBin1D x = bin(0, 40, 1);
+        DynamicDoubleBin1D y = bin(0, 70, 1);
+        double total = x.sum() + y.sum();
+        final double min = Math.min(x.min(), y.min());
+        final double max = Math.max(x.max(), y.max());
+        DoubleBinBinFunction1D check = new DoubleBinBinFunction1D() {
+            public double apply(DynamicDoubleBin1D a, DynamicDoubleBin1D b) {
+                assertEquals(40, a.size());
+                assertEquals(70, b.size());
+                assertEquals(min, Math.min(a.min(), b.min()), 0);
+                assertEquals(max, Math.max(a.max(), b.max()), 0);
+                return a.sum() + b.sum();
+            }
+        };
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            for (int t = 1; t <= 3; t += 2) {
+                ConcurrencyUtils.setNumberOfThreads(t);
+                // every permutation keeps the pooled elements
+                DynamicDoubleBin1D sums = x.samplePermutations(y, 300, new Xoshiro256StarStar(4), check);
+                assertEquals(300, sums.size());
+                assertEquals(total, sums.min(), 1e-9);
+                assertEquals(total, sums.max(), 1e-9);
+            }
+            ConcurrencyUtils.setNumberOfThreads(1);
+            DoubleArrayList expected = x.samplePermutations(y, 500, new Xoshiro256StarStar(5), DIFF).elements();
+            ConcurrencyUtils.setNumberOfThreads(3);
+            DynamicDoubleBin1D perm = x.samplePermutations(y, 500, new Xoshiro256StarStar(5), DIFF);
+            DoubleArrayList actual = perm.elements();
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), actual.get(i), 0);
+            }
+            // samples from one population: the permutation distribution is
+            // centered at zero
+            assertEquals(0, perm.mean(), 3 * perm.standardDeviation() / Math.sqrt(500));
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+        DynamicDoubleBin1D serial = x.samplePermutations(y, 20, new DoubleMersenneTwister(1), check);
+        assertEquals(20, serial.size());
+    }
+
+    public void testFailingFunction() {
+        DynamicDoubleBin1D x = bin(0, 100, 1);
+        DoubleBinBinFunction1D failing = new DoubleBinBinFunction1D() {
+            public double apply(DynamicDoubleBin1D a, DynamicDoubleBin1D b) {
+                throw new IllegalStateException("boom");
+            }
+        };
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            for (int t = 1; t <= 3; t += 2) {
+                ConcurrencyUtils.setNumberOfThreads(t);
+                try {
+                    x.sampleBootstrap(x, 1000, new Xoshiro256StarStar(1), failing);
+                    fail();
+                } catch (IllegalStateException e) {
+                    assertEquals("boom", e.getMessage());
+                }
+                try {
+                    x.samplePermutations(x, 1000, new Xoshiro256StarStar(1), failing);
+                    fail();
+                } catch (IllegalStateException e) {
+                    assertEquals("boom", e.getMessage());
+                }
+            }
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+
+    private static DynamicDoubleBin1D bin(double offset, int n, int step) {
+        DynamicDoubleBin1D bin = new DynamicDoubleBin1D();
+        for (int i = 0; i < n; i++) {
+            bin.add(offset + i * step);
+        }
+        return bin;
+    }
+}
@@ -0,0 +1,137 @@
+package hep.aida.tdouble.ref;
+
+import hep.aida.tdouble.DoubleIAxis;
+import hep.aida.tdouble.DoubleIHistogram;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import edu.emory.mathcs.utils.pc.ConcurrencyUtils;
+
+public class DoubleStripedHistogramTest extends TestCase {
+
+    private static final int N = 100000;
+
+    private final DoubleIAxis axis = new DoubleFixedAxis(20, -2, 2);
+
+    public DoubleStripedHistogramTest(String arg0) {
+        super(arg0);
+    }
+
+    public void testBulkFill1D() {
+        double[] x = values(N, 1);
+        double[] w = values(N, 2);
+        DoubleHistogram1D expected = new DoubleHistogram1D("h", axis);
+        for (int i = 0; i < N; i++) {
+            expected.fill(x[i], w[i]);
+        }
+        int nthreads = ConcurrencyUtils.getNumberOfThreads();
+        try {
+            ConcurrencyUtils.setThreadsBeginN_1D(1);
+            for (int t = 1; t <= 3; t += 2) {
+                ConcurrencyUtils.setNumberOfThreads(t);
+                DoubleHistogram1D h = new DoubleHistogram1D("h", axis);
+                h.fill(x, w);
+                assert1D(expected, h);
+                DoubleStripedHistogram1D s = new DoubleStripedHistogram1D("h", axis);
+                s.fill(x, w);
+                assert1D(expected, s.snapshot());
+            }
+        } finally {
+            ConcurrencyUtils.setNumberOfThreads(nthreads);
+            ConcurrencyUtils.resetThreadsBeginN();
+        }
+    }
+
+    public void testBulkFill2D() {
+        double[] x = values(N, 3);
+        double[] y = values(N, 4);
+        DoubleHistogram2D expected = new DoubleHistogram2D("h", axis, axis);
+        for (int i = 0; i < N; i++) {
+            expected.fill(x[i], y[i]);
+        }
+        DoubleHistogram2D h = new DoubleHistogram2D("h", axis, axis);
+        h.fill(x, y, null);
+        DoubleStripedHistogram2D s = new DoubleStripedHistogram2D("h", axis, axis, 3);
+        assertEquals(4, s.stripes());
+        s.fill(x, y, null);
+        DoubleHistogram2D snapshot = s.snapshot();
+        for (int i = DoubleIHistogram.UNDERFLOW; i < axis.bins(); i++) {
+            for (int j = DoubleIHistogram.UNDERFLOW; j < axis.bins(); j++) {
+                assertEquals(expected.binEntries(i, j), h.binEntries(i, j));
+                assertEquals(expected.binEntries(i, j), snapshot.binEntries(i, j));
+                assertEquals(expected.binHeight(i, j), snapshot.binHeight(i, j), 1e-9);
+            }
+        }
+        assertEquals(expected.meanX(), snapshot.meanX(), 1e-9);
+        assertEquals(expected.meanY(), h.meanY(), 1e-9);
+    }
+
+    public void testConcurrentFill() throws InterruptedException {
+        final DoubleStripedHistogram3D s = new DoubleStripedHistogram3D("h", axis, axis, axis);
+        final int perThread = 20000;
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long seed = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < perThread; i++) {
+                        s.fill(random.nextGaussian(), random.nextGaussian(), random.nextGaussian(), 0.5);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+        }
+        DoubleHistogram3D snapshot = s.snapshot();
+        assertEquals(threads.length * perThread, snapshot.allEntries());
+        assertEquals(0.5 * threads.length * perThread, snapshot.sumAllBinHeights(), 1e-6);
+        s.reset();
+        snapshot = s.snapshot();
+        assertEquals(0, snapshot.allEntries());
+        assertEquals(0, snapshot.sumAllBinHeights(), 0);
+    }
+
+    public void testReset3D() {
+        DoubleHistogram3D h = new DoubleHistogram3D("h", new DoubleFixedAxis(2, 0, 2), new DoubleFixedAxis(3, 0, 3),
+                new DoubleFixedAxis(4, 0, 4));
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++) {
+                for (int k = 0; k < 4; k++) {
+                    h.fill(i + 0.5, j + 0.5, k + 0.5);
+                }
+            }
+        }
+        h.reset();
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++) {
+                for (int k = 0; k < 4; k++) {
+                    assertEquals(0, h.binEntries(i, j, k));
+                }
+            }
+        }
+    }
+
+    private void assert1D(DoubleHistogram1D expected, DoubleHistogram1D actual) {
+        for (int i = DoubleIHistogram.UNDERFLOW; i < axis.bins(); i++) {
+            assertEquals(expected.binEntries(i), actual.binEntries(i));
+            assertEquals(expected.binHeight(i), actual.binHeight(i), 1e-9);
+            assertEquals(expected.binError(i), actual.binError(i), 1e-9);
+        }
+        assertEquals(expected.allEntries(), actual.allEntries());
+        assertEquals(expected.mean(), actual.mean(), 1e-9);
+        assertEquals(expected.rms(), actual.rms(), 1e-9);
+    }
+
+    private static double[] values(int n, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextGaussian();
+        }
+        return values;
+    }
+}